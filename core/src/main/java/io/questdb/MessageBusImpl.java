@@ -85,6 +85,9 @@ public class MessageBusImpl implements MessageBus {
     private final MPSequence walTxnNotificationPubSequence;
     private final RingQueue<WalTxnNotificationTask> walTxnNotificationQueue;
     private final MCSequence walTxnNotificationSubSequence;
+    private final MPSequence windowShardPubSeq;
+    private final RingQueue<WindowShardTask> windowShardQueue;
+    private final MCSequence windowShardSubSeq;
 
     public MessageBusImpl(@NotNull CairoConfiguration configuration) {
         try {
@@ -188,6 +191,11 @@ public class MessageBusImpl implements MessageBus {
             this.groupByMergeShardPubSeq = new MPSequence(groupByMergeShardQueue.getCycle());
             this.groupByMergeShardSubSeq = new MCSequence(groupByMergeShardQueue.getCycle());
             groupByMergeShardPubSeq.then(groupByMergeShardSubSeq).then(groupByMergeShardPubSeq);
+
+            this.windowShardQueue = new RingQueue<>(WindowShardTask::new, configuration.getWindowShardQueueCapacity());
+            this.windowShardPubSeq = new MPSequence(windowShardQueue.getCycle());
+            this.windowShardSubSeq = new MCSequence(windowShardQueue.getCycle());
+            windowShardPubSeq.then(windowShardSubSeq).then(windowShardPubSeq);
         } catch (Throwable th) {
             close();
             throw th;
@@ -211,6 +219,7 @@ public class MessageBusImpl implements MessageBus {
         vectorAggregateSubSeq.clear();
         walTxnNotificationSubSequence.clear();
         walTxnNotificationSubSequence.clear();
+        windowShardSubSeq.clear();
         for (int i = 0, n = pageFrameReduceSubSeq.length; i < n; i++) {
             pageFrameReduceSubSeq[i].clear();
         }
@@ -472,4 +481,19 @@ public class MessageBusImpl implements MessageBus {
     public MCSequence getWalTxnNotificationSubSequence() {
         return walTxnNotificationSubSequence;
     }
+
+    @Override
+    public MPSequence getWindowShardPubSeq() {
+        return windowShardPubSeq;
+    }
+
+    @Override
+    public RingQueue<WindowShardTask> getWindowShardQueue() {
+        return windowShardQueue;
+    }
+
+    @Override
+    public MCSequence getWindowShardSubSeq() {
+        return windowShardSubSeq;
+    }
 }
@@ -84,6 +84,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final String backupRoot;
     private final CharSequence backupTempDirName;
     private final int binaryEncodingMaxLength;
+    private final boolean bloomFilterEnabled;
     private final BuildInformation buildInformation;
     private final boolean cairoAttachPartitionCopy;
     private final String cairoAttachPartitionSuffix;
@@ -92,7 +93,12 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final boolean cairoGroupByPresizeEnabled;
     private final long cairoGroupByPresizeMaxHeapSize;
     private final long cairoGroupByPresizeMaxSize;
+    private final boolean cairoGroupByAdaptiveEnabled;
+    private final boolean cairoGroupBySymbolLookupEnabled;
+    private final boolean cairoGroupByVectorizedEnabled;
     private final int cairoGroupByShardingThreshold;
+    private final boolean cairoGroupBySpillEnabled;
+    private final int cairoGroupBySpillThreshold;
     private final int cairoMaxCrashFiles;
     private final int cairoPageFrameReduceColumnListCapacity;
     private final int cairoPageFrameReduceQueueCapacity;
@@ -106,6 +112,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final boolean cairoSqlLegacyOperatorPrecedence;
     private final long cairoTableRegistryAutoReloadFrequency;
     private final int cairoTableRegistryCompactionThreshold;
+    private final int cairoWindowShardQueueCapacity;
     private final PropSqlExecutionCircuitBreakerConfiguration circuitBreakerConfiguration = new PropSqlExecutionCircuitBreakerConfiguration();
     private final int circuitBreakerThrottle;
     private final int columnIndexerQueueCapacity;
@@ -230,6 +237,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final boolean o3QuickSortEnabled;
     private final int parallelIndexThreshold;
     private final boolean parallelIndexingEnabled;
+    private final long partitionCompressionAge;
     private final boolean pgEnabled;
     private final PGWireConfiguration pgWireConfiguration = new PropPGWireConfiguration();
     private final String posthogApiKey;
@@ -262,7 +270,9 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final String snapshotInstanceId;
     private final boolean snapshotRecoveryEnabled;
     private final String snapshotRoot;
+    private final boolean sortedIndexEnabled;
     private final long spinLockTimeout;
+    private final boolean sqlAsOfJoinKeyedFastScanEnabled;
     private final int sqlAsOfJoinLookahead;
     private final int sqlBindVariablePoolSize;
     private final int sqlCharacterStoreCapacity;
@@ -309,12 +319,22 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlMapMaxResizes;
     private final int sqlMaxNegativeLimit;
     private final int sqlMaxSymbolNotEqualsCount;
+    private final boolean sqlMergeJoinEnabled;
     private final int sqlModelPoolCapacity;
     private final int sqlPageFrameMaxRows;
     private final int sqlPageFrameMinRows;
+    private final boolean sqlParallelAsOfJoinEnabled;
     private final boolean sqlParallelFilterEnabled;
     private final boolean sqlParallelFilterPreTouchEnabled;
     private final boolean sqlParallelGroupByEnabled;
+    private final boolean sqlParallelHashJoinEnabled;
+    private final boolean sqlParallelDistinctEnabled;
+    private final boolean sqlParallelLatestByEnabled;
+    private final boolean sqlParallelOrderByEnabled;
+    private final boolean sqlParallelProjectionEnabled;
+    private final boolean sqlParallelSampleByFillEnabled;
+    private final boolean sqlParallelTopKEnabled;
+    private final boolean sqlParallelWindowEnabled;
     private final int sqlQueryRegistryPoolSize;
     private final int sqlRenameTableModelPoolCapacity;
     private final boolean sqlSampleByDefaultAlignment;
@@ -324,9 +344,13 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlSortKeyMaxPages;
     private final long sqlSortKeyPageSize;
     private final int sqlSortLightValueMaxPages;
+    private final boolean sqlSortRadixEnabled;
     private final long sqlSortLightValuePageSize;
+    private final boolean sqlSortSpillEnabled;
+    private final long sqlSortSpillThreshold;
     private final int sqlSortValueMaxPages;
     private final int sqlSortValuePageSize;
+    private final String sqlSpillRoot;
     private final int sqlStrFunctionBufferMaxSize;
     private final int sqlTxnScoreboardEntryCount;
     private final int sqlUnorderedMapMaxEntrySize;
@@ -398,6 +422,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long writerMiscAppendPageSize;
     private final boolean writerMixedIOEnabled;
     private final int writerTickRowsCountMod;
+    private final boolean zoneMapEnabled;
     protected HttpMinServerConfiguration httpMinServerConfiguration = new PropHttpMinServerConfiguration();
     protected HttpServerConfiguration httpServerConfiguration = new PropHttpServerConfiguration();
     protected JsonQueryProcessorConfiguration jsonQueryProcessorConfiguration = new PropJsonQueryProcessorConfiguration();
@@ -958,16 +983,25 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlSortKeyMaxPages = getIntSize(properties, env, PropertyKey.CAIRO_SQL_SORT_KEY_MAX_PAGES, Integer.MAX_VALUE);
             this.sqlSortLightValuePageSize = getLongSize(properties, env, PropertyKey.CAIRO_SQL_SORT_LIGHT_VALUE_PAGE_SIZE, 8 * 1048576);
             this.sqlSortLightValueMaxPages = getIntSize(properties, env, PropertyKey.CAIRO_SQL_SORT_LIGHT_VALUE_MAX_PAGES, Integer.MAX_VALUE);
+            this.sqlSortRadixEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_SORT_RADIX_ENABLED, true);
             this.sqlHashJoinValuePageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_HASH_JOIN_VALUE_PAGE_SIZE, 16777216);
             this.sqlHashJoinValueMaxPages = getIntSize(properties, env, PropertyKey.CAIRO_SQL_HASH_JOIN_VALUE_MAX_PAGES, Integer.MAX_VALUE);
             this.sqlLatestByRowCount = getInt(properties, env, PropertyKey.CAIRO_SQL_LATEST_BY_ROW_COUNT, 1000);
             this.sqlHashJoinLightValuePageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_HASH_JOIN_LIGHT_VALUE_PAGE_SIZE, 1048576);
             this.sqlHashJoinLightValueMaxPages = getIntSize(properties, env, PropertyKey.CAIRO_SQL_HASH_JOIN_LIGHT_VALUE_MAX_PAGES, Integer.MAX_VALUE);
+            this.sqlMergeJoinEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_MERGE_JOIN_ENABLED, true);
             this.sqlAsOfJoinLookahead = getInt(properties, env, PropertyKey.CAIRO_SQL_ASOF_JOIN_LOOKAHEAD, 100);
+            this.sqlAsOfJoinKeyedFastScanEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_ASOF_JOIN_KEYED_FAST_SCAN_ENABLED, true);
             this.sqlSortValuePageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_SORT_VALUE_PAGE_SIZE, 16777216);
             this.sqlSortValueMaxPages = getIntSize(properties, env, PropertyKey.CAIRO_SQL_SORT_VALUE_MAX_PAGES, Integer.MAX_VALUE);
+            this.sqlSortSpillEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_SORT_SPILL_ENABLED, false);
+            this.sqlSortSpillThreshold = getLongSize(properties, env, PropertyKey.CAIRO_SQL_SORT_SPILL_THRESHOLD, Numbers.SIZE_1GB);
             this.workStealTimeoutNanos = getLong(properties, env, PropertyKey.CAIRO_WORK_STEAL_TIMEOUT_NANOS, 10_000);
             this.parallelIndexingEnabled = getBoolean(properties, env, PropertyKey.CAIRO_PARALLEL_INDEXING_ENABLED, true);
+            this.zoneMapEnabled = getBoolean(properties, env, PropertyKey.CAIRO_ZONE_MAP_ENABLED, false);
+            this.bloomFilterEnabled = getBoolean(properties, env, PropertyKey.CAIRO_BLOOM_FILTER_ENABLED, false);
+            this.sortedIndexEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SORTED_INDEX_ENABLED, false);
+            this.partitionCompressionAge = getInt(properties, env, PropertyKey.CAIRO_PARTITION_COMPRESSION_AGE_DAYS, 0) * Timestamps.DAY_MICROS;
             this.sqlJoinMetadataPageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_JOIN_METADATA_PAGE_SIZE, 16384);
             this.sqlJoinMetadataMaxResizes = getIntSize(properties, env, PropertyKey.CAIRO_SQL_JOIN_METADATA_MAX_RESIZES, Integer.MAX_VALUE);
             int sqlWindowColumnPoolCapacity = getInt(properties, env, PropertyKey.CAIRO_SQL_ANALYTIC_COLUMN_POOL_CAPACITY, 64);
@@ -1066,6 +1100,8 @@ public class PropServerConfiguration implements ServerConfiguration {
                 throw new ServerConfigurationException("Configuration value for " + PropertyKey.CAIRO_SQL_COPY_WORK_ROOT.getPropertyPath() + " can't point to root, data, conf or snapshot dirs. ");
             }
 
+            this.sqlSpillRoot = getString(properties, env, PropertyKey.CAIRO_SQL_SPILL_ROOT, tmpRoot);
+
             String cairoSQLCopyIdSupplier = getString(properties, env, PropertyKey.CAIRO_SQL_COPY_ID_SUPPLIER, "random");
             this.cairoSQLCopyIdSupplier = Chars.equalsLowerCaseAscii(cairoSQLCopyIdSupplier, "sequential") ? 1 : 0;
 
@@ -1279,10 +1315,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             final int defaultReduceQueueCapacity = Math.min(2 * sharedWorkerCount, 64);
             this.cairoPageFrameReduceQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_REDUCE_QUEUE_CAPACITY, defaultReduceQueueCapacity));
             this.cairoGroupByMergeShardQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_MERGE_QUEUE_CAPACITY, defaultReduceQueueCapacity));
+            this.cairoWindowShardQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_WINDOW_SHARD_QUEUE_CAPACITY, defaultReduceQueueCapacity));
             this.cairoGroupByShardingThreshold = getInt(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_SHARDING_THRESHOLD, 100_000);
             this.cairoGroupByPresizeEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_PRESIZE_ENABLED, true);
             this.cairoGroupByPresizeMaxSize = getLong(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_PRESIZE_MAX_SIZE, 100_000_000);
             this.cairoGroupByPresizeMaxHeapSize = getLongSize(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_PRESIZE_MAX_HEAP_SIZE, Numbers.SIZE_1GB);
+            this.cairoGroupByAdaptiveEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_ADAPTIVE_ENABLED, true);
+            this.cairoGroupBySymbolLookupEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_SYMBOL_LOOKUP_ENABLED, true);
+            this.cairoGroupByVectorizedEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_VECTORIZED_ENABLED, true);
+            this.cairoGroupBySpillEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_GROUPBY_SPILL_ENABLED, false);
+            this.cairoGroupBySpillThreshold = getInt(properties, env, PropertyKey.CAIRO_SQL_GROUPBY_SPILL_THRESHOLD, 10_000_000);
             this.cairoPageFrameReduceRowIdListCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_ROWID_LIST_CAPACITY, 256));
             this.cairoPageFrameReduceColumnListCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_COLUMN_LIST_CAPACITY, 16));
             final int defaultReduceShardCount = Math.min(sharedWorkerCount, 4);
@@ -1293,6 +1335,15 @@ public class PropServerConfiguration implements ServerConfiguration {
             boolean defaultParallelSqlEnabled = sharedWorkerCount >= 4;
             this.sqlParallelFilterEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_FILTER_ENABLED, defaultParallelSqlEnabled);
             this.sqlParallelGroupByEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_ENABLED, defaultParallelSqlEnabled);
+            this.sqlParallelHashJoinEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_HASHJOIN_ENABLED, defaultParallelSqlEnabled);
+            this.sqlParallelAsOfJoinEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_ASOFJOIN_ENABLED, defaultParallelSqlEnabled);
+            this.sqlParallelDistinctEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_DISTINCT_ENABLED, defaultParallelSqlEnabled);
+            this.sqlParallelLatestByEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_LATESTBY_ENABLED, defaultParallelSqlEnabled);
+            this.sqlParallelOrderByEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_ORDERBY_ENABLED, defaultParallelSqlEnabled);
+            this.sqlParallelProjectionEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_PROJECTION_ENABLED, defaultParallelSqlEnabled);
+            this.sqlParallelTopKEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_TOPK_ENABLED, defaultParallelSqlEnabled);
+            this.sqlParallelWindowEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_WINDOW_ENABLED, defaultParallelSqlEnabled);
+            this.sqlParallelSampleByFillEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_SAMPLEBY_FILL_ENABLED, true);
             this.metricsEnabled = getBoolean(properties, env, PropertyKey.METRICS_ENABLED, false);
             this.writerAsyncCommandBusyWaitTimeout = getLong(properties, env, PropertyKey.CAIRO_WRITER_ALTER_BUSY_WAIT_TIMEOUT, 500);
             this.writerAsyncCommandMaxWaitTimeout = getLong(properties, env, PropertyKey.CAIRO_WRITER_ALTER_MAX_WAIT_TIMEOUT, 30_000);
@@ -2230,6 +2281,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return cairoGroupByShardingThreshold;
         }
 
+        @Override
+        public int getGroupBySpillThreshold() {
+            return cairoGroupBySpillThreshold;
+        }
+
         @Override
         public long getIdleCheckInterval() {
             return idleCheckInterval;
@@ -2405,6 +2461,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return parallelIndexThreshold;
         }
 
+        @Override
+        public long getPartitionCompressionAge() {
+            return partitionCompressionAge;
+        }
+
         @Override
         public long getPartitionO3SplitMinSize() {
             return o3PartitionSplitMinSize;
@@ -2695,6 +2756,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlSortLightValuePageSize;
         }
 
+        @Override
+        public long getSqlSortSpillThreshold() {
+            return sqlSortSpillThreshold;
+        }
+
         @Override
         public int getSqlSortValueMaxPages() {
             return sqlSortValueMaxPages;
@@ -2705,6 +2771,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlSortValuePageSize;
         }
 
+        @Override
+        public CharSequence getSqlSpillRoot() {
+            return sqlSpillRoot;
+        }
+
         @Override
         public int getSqlUnorderedMapMaxEntrySize() {
             return sqlUnorderedMapMaxEntrySize;
@@ -2904,6 +2975,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlWindowColumnPoolCapacity;
         }
 
+        @Override
+        public int getWindowShardQueueCapacity() {
+            return cairoWindowShardQueueCapacity;
+        }
+
         @Override
         public int getWithClauseModelPoolCapacity() {
             return sqlWithClauseModelPoolCapacity;
@@ -2944,11 +3020,36 @@ public class PropServerConfiguration implements ServerConfiguration {
             return writerTickRowsCountMod;
         }
 
+        @Override
+        public boolean isBloomFilterEnabled() {
+            return bloomFilterEnabled;
+        }
+
+        @Override
+        public boolean isGroupByAdaptiveEnabled() {
+            return cairoGroupByAdaptiveEnabled;
+        }
+
         @Override
         public boolean isGroupByPresizeEnabled() {
             return cairoGroupByPresizeEnabled;
         }
 
+        @Override
+        public boolean isGroupBySpillEnabled() {
+            return cairoGroupBySpillEnabled;
+        }
+
+        @Override
+        public boolean isGroupBySymbolLookupEnabled() {
+            return cairoGroupBySymbolLookupEnabled;
+        }
+
+        @Override
+        public boolean isGroupByVectorizedEnabled() {
+            return cairoGroupByVectorizedEnabled;
+        }
+
         @Override
         public boolean isIOURingEnabled() {
             return ioURingEnabled;
@@ -2979,11 +3080,31 @@ public class PropServerConfiguration implements ServerConfiguration {
             return snapshotRecoveryEnabled;
         }
 
+        @Override
+        public boolean isSortedIndexEnabled() {
+            return sortedIndexEnabled;
+        }
+
+        @Override
+        public boolean isSqlAsOfJoinKeyedFastScanEnabled() {
+            return sqlAsOfJoinKeyedFastScanEnabled;
+        }
+
         @Override
         public boolean isSqlJitDebugEnabled() {
             return sqlJitDebugEnabled;
         }
 
+        @Override
+        public boolean isSqlMergeJoinEnabled() {
+            return sqlMergeJoinEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelAsOfJoinEnabled() {
+            return sqlParallelAsOfJoinEnabled;
+        }
+
         @Override
         public boolean isSqlParallelFilterEnabled() {
             return sqlParallelFilterEnabled;
@@ -2999,6 +3120,56 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlParallelGroupByEnabled;
         }
 
+        @Override
+        public boolean isSqlParallelHashJoinEnabled() {
+            return sqlParallelHashJoinEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelDistinctEnabled() {
+            return sqlParallelDistinctEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelLatestByEnabled() {
+            return sqlParallelLatestByEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelOrderByEnabled() {
+            return sqlParallelOrderByEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelProjectionEnabled() {
+            return sqlParallelProjectionEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelSampleByFillEnabled() {
+            return sqlParallelSampleByFillEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelTopKEnabled() {
+            return sqlParallelTopKEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelWindowEnabled() {
+            return sqlParallelWindowEnabled;
+        }
+
+        @Override
+        public boolean isSqlSortRadixEnabled() {
+            return sqlSortRadixEnabled;
+        }
+
+        @Override
+        public boolean isSqlSortSpillEnabled() {
+            return sqlSortSpillEnabled;
+        }
+
         @Override
         public boolean isTableTypeConversionEnabled() {
             return tableTypeConversionEnabled;
@@ -3018,6 +3189,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return writerMixedIOEnabled;
         }
 
+        @Override
+        public boolean isZoneMapEnabled() {
+            return zoneMapEnabled;
+        }
+
         @Override
         public boolean mangleTableDirNames() {
             return false;
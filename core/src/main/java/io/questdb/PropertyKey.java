@@ -78,19 +78,29 @@ public enum PropertyKey implements ConfigPropertyKey {
     CAIRO_SQL_SORT_KEY_MAX_PAGES("cairo.sql.sort.key.max.pages"),
     CAIRO_SQL_SORT_LIGHT_VALUE_PAGE_SIZE("cairo.sql.sort.light.value.page.size"),
     CAIRO_SQL_SORT_LIGHT_VALUE_MAX_PAGES("cairo.sql.sort.light.value.max.pages"),
+    CAIRO_SQL_SORT_RADIX_ENABLED("cairo.sql.sort.radix.enabled"),
     CAIRO_SQL_HASH_JOIN_VALUE_PAGE_SIZE("cairo.sql.hash.join.value.page.size"),
     CAIRO_SQL_HASH_JOIN_VALUE_MAX_PAGES("cairo.sql.hash.join.value.max.pages"),
     CAIRO_SQL_LATEST_BY_ROW_COUNT("cairo.sql.latest.by.row.count"),
     CAIRO_SQL_HASH_JOIN_LIGHT_VALUE_PAGE_SIZE("cairo.sql.hash.join.light.value.page.size"),
     CAIRO_SQL_HASH_JOIN_LIGHT_VALUE_MAX_PAGES("cairo.sql.hash.join.light.value.max.pages"),
+    CAIRO_SQL_MERGE_JOIN_ENABLED("cairo.sql.merge.join.enabled"),
     CAIRO_SQL_ASOF_JOIN_LOOKAHEAD("cairo.sql.asof.join.lookahead"),
+    CAIRO_SQL_ASOF_JOIN_KEYED_FAST_SCAN_ENABLED("cairo.sql.asof.join.keyed.fast.scan.enabled"),
     CAIRO_SQL_SORT_VALUE_PAGE_SIZE("cairo.sql.sort.value.page.size"),
     CAIRO_SQL_SORT_VALUE_MAX_PAGES("cairo.sql.sort.value.max.pages"),
+    CAIRO_SQL_SORT_SPILL_ENABLED("cairo.sql.sort.spill.enabled"),
+    CAIRO_SQL_SORT_SPILL_THRESHOLD("cairo.sql.sort.spill.threshold"),
     CAIRO_WORK_STEAL_TIMEOUT_NANOS("cairo.work.steal.timeout.nanos"),
     CAIRO_PARALLEL_INDEXING_ENABLED("cairo.parallel.indexing.enabled"),
+    CAIRO_ZONE_MAP_ENABLED("cairo.zone.map.enabled"),
+    CAIRO_BLOOM_FILTER_ENABLED("cairo.bloom.filter.enabled"),
+    CAIRO_SORTED_INDEX_ENABLED("cairo.sorted.index.enabled"),
+    CAIRO_PARTITION_COMPRESSION_AGE_DAYS("cairo.partition.compression.age.days"),
     CAIRO_PAGE_FRAME_REDUCE_QUEUE_CAPACITY("cairo.page.frame.reduce.queue.capacity"),
     CAIRO_PAGE_FRAME_ROWID_LIST_CAPACITY("cairo.page.frame.rowid.list.capacity"),
     CAIRO_PAGE_FRAME_COLUMN_LIST_CAPACITY("cairo.page.frame.column.list.capacity"),
+    CAIRO_SQL_PARALLEL_ASOFJOIN_ENABLED("cairo.sql.parallel.asofjoin.enabled"),
     CAIRO_SQL_PARALLEL_FILTER_ENABLED("cairo.sql.parallel.filter.enabled"),
     CAIRO_SQL_PARALLEL_FILTER_PRETOUCH_ENABLED("cairo.sql.parallel.filter.pretouch.enabled"),
     CAIRO_SQL_PARALLEL_GROUPBY_ENABLED("cairo.sql.parallel.groupby.enabled"),
@@ -99,6 +109,18 @@ public enum PropertyKey implements ConfigPropertyKey {
     CAIRO_SQL_PARALLEL_GROUPBY_PRESIZE_ENABLED("cairo.sql.parallel.groupby.presize.enabled"),
     CAIRO_SQL_PARALLEL_GROUPBY_PRESIZE_MAX_SIZE("cairo.sql.parallel.groupby.presize.max.size"),
     CAIRO_SQL_PARALLEL_GROUPBY_PRESIZE_MAX_HEAP_SIZE("cairo.sql.parallel.groupby.presize.max.heap.size"),
+    CAIRO_SQL_PARALLEL_GROUPBY_ADAPTIVE_ENABLED("cairo.sql.parallel.groupby.adaptive.enabled"),
+    CAIRO_SQL_PARALLEL_GROUPBY_SYMBOL_LOOKUP_ENABLED("cairo.sql.parallel.groupby.symbol.lookup.enabled"),
+    CAIRO_SQL_PARALLEL_GROUPBY_VECTORIZED_ENABLED("cairo.sql.parallel.groupby.vectorized.enabled"),
+    CAIRO_SQL_PARALLEL_HASHJOIN_ENABLED("cairo.sql.parallel.hashjoin.enabled"),
+    CAIRO_SQL_PARALLEL_DISTINCT_ENABLED("cairo.sql.parallel.distinct.enabled"),
+    CAIRO_SQL_PARALLEL_LATESTBY_ENABLED("cairo.sql.parallel.latestby.enabled"),
+    CAIRO_SQL_PARALLEL_ORDERBY_ENABLED("cairo.sql.parallel.orderby.enabled"),
+    CAIRO_SQL_PARALLEL_PROJECTION_ENABLED("cairo.sql.parallel.projection.enabled"),
+    CAIRO_SQL_PARALLEL_SAMPLEBY_FILL_ENABLED("cairo.sql.parallel.sampleby.fill.enabled"),
+    CAIRO_SQL_PARALLEL_TOPK_ENABLED("cairo.sql.parallel.topk.enabled"),
+    CAIRO_SQL_PARALLEL_WINDOW_ENABLED("cairo.sql.parallel.window.enabled"),
+    CAIRO_SQL_PARALLEL_WINDOW_SHARD_QUEUE_CAPACITY("cairo.sql.parallel.window.shard.queue.capacity"),
     CAIRO_PAGE_FRAME_SHARD_COUNT("cairo.page.frame.shard.count"),
     CAIRO_PAGE_FRAME_TASK_POOL_CAPACITY("cairo.page.frame.task.pool.capacity"),
     CAIRO_SQL_JOIN_METADATA_PAGE_SIZE("cairo.sql.join.metadata.page.size"),
@@ -128,6 +150,9 @@ public enum PropertyKey implements ConfigPropertyKey {
     CAIRO_SQL_GROUPBY_POOL_CAPACITY("cairo.sql.groupby.pool.capacity"),
     CAIRO_SQL_GROUPBY_ALLOCATOR_DEFAULT_CHUNK_SIZE("cairo.sql.groupby.allocator.default.chunk.size"),
     CAIRO_SQL_GROUPBY_ALLOCATOR_MAX_CHUNK_SIZE("cairo.sql.groupby.allocator.max.chunk.size"),
+    CAIRO_SQL_GROUPBY_SPILL_ENABLED("cairo.sql.groupby.spill.enabled"),
+    CAIRO_SQL_GROUPBY_SPILL_THRESHOLD("cairo.sql.groupby.spill.threshold"),
+    CAIRO_SQL_SPILL_ROOT("cairo.sql.spill.root"),
     CAIRO_SQL_MAX_SYMBOL_NOT_EQUALS_COUNT("cairo.sql.max.symbol.not.equals.count"),
     CAIRO_SQL_BIND_VARIABLE_POOL_SIZE("cairo.sql.bind.variable.pool.size"),
     CAIRO_SQL_QUERY_REGISTRY_POOL_SIZE("cairo.sql.query.registry.pool.size"),
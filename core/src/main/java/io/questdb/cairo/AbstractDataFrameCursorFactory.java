@@ -28,6 +28,7 @@ import io.questdb.cairo.sql.DataFrameCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.Misc;
 import io.questdb.std.str.CharSink;
 import org.jetbrains.annotations.NotNull;
 
@@ -35,6 +36,8 @@ public abstract class AbstractDataFrameCursorFactory implements DataFrameCursorF
     private final GenericRecordMetadata metadata;
     private final long metadataVersion;
     private final TableToken tableToken;
+    protected BloomPartitionFilter bloomFilter;
+    protected ZoneMapFilter zoneMapFilter;
 
     public AbstractDataFrameCursorFactory(TableToken tableToken, long metadataVersion, GenericRecordMetadata metadata) {
         this.tableToken = tableToken;
@@ -44,6 +47,8 @@ public abstract class AbstractDataFrameCursorFactory implements DataFrameCursorF
 
     @Override
     public void close() {
+        zoneMapFilter = Misc.free(zoneMapFilter);
+        bloomFilter = Misc.free(bloomFilter);
     }
 
     public RecordMetadata getMetadata() {
@@ -55,6 +60,22 @@ public abstract class AbstractDataFrameCursorFactory implements DataFrameCursorF
         return tableToken;
     }
 
+    /**
+     * Sets the filter used to skip partitions whose bloom filters do not contain the values the
+     * query filter looks for. The factory takes ownership of the filter.
+     */
+    public void setBloomFilter(BloomPartitionFilter bloomFilter) {
+        this.bloomFilter = bloomFilter;
+    }
+
+    /**
+     * Sets the filter used to skip partitions that cannot match the query filter.
+     * The factory takes ownership of the filter.
+     */
+    public void setZoneMapFilter(ZoneMapFilter zoneMapFilter) {
+        this.zoneMapFilter = zoneMapFilter;
+    }
+
     @Override
     public boolean supportTableRowId(TableToken tableToken) {
         return this.tableToken.equals(tableToken);
@@ -28,13 +28,16 @@ import io.questdb.cairo.sql.DataFrame;
 import io.questdb.cairo.sql.DataFrameCursor;
 import io.questdb.cairo.sql.StaticSymbolTable;
 import io.questdb.std.Misc;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
 
 public abstract class AbstractFullDataFrameCursor implements DataFrameCursor {
     protected final FullTableDataFrame frame = new FullTableDataFrame();
+    protected BloomPartitionFilter bloomFilter;
     protected int partitionHi;
     protected int partitionIndex;
     protected TableReader reader;
+    protected ZoneMapFilter zoneMapFilter;
 
     @Override
     public void close() {
@@ -72,11 +75,24 @@ public abstract class AbstractFullDataFrameCursor implements DataFrameCursor {
         return moreData;
     }
 
+    public void setBloomFilter(@Nullable BloomPartitionFilter bloomFilter) {
+        this.bloomFilter = bloomFilter;
+    }
+
+    public void setZoneMapFilter(@Nullable ZoneMapFilter zoneMapFilter) {
+        this.zoneMapFilter = zoneMapFilter;
+    }
+
     @Override
     public long size() {
         return reader.size();
     }
 
+    protected boolean isPartitionExcluded(int partitionIndex) {
+        return (zoneMapFilter != null && zoneMapFilter.isPartitionExcluded(reader, partitionIndex))
+                || (bloomFilter != null && bloomFilter.isPartitionExcluded(reader, partitionIndex));
+    }
+
     protected class FullTableDataFrame implements DataFrame {
         protected int partitionIndex;
         protected long rowHi;
@@ -34,6 +34,7 @@ import io.questdb.griffin.model.RuntimeIntrinsicIntervalModel;
 import io.questdb.std.LongList;
 import io.questdb.std.Misc;
 import io.questdb.std.Vect;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
 
 public abstract class AbstractIntervalDataFrameCursor implements DataFrameCursor {
@@ -43,6 +44,7 @@ public abstract class AbstractIntervalDataFrameCursor implements DataFrameCursor
     protected final IntervalDataFrame dataFrame = new IntervalDataFrame();
     protected final RuntimeIntrinsicIntervalModel intervalsModel;
     protected final int timestampIndex;
+    protected BloomPartitionFilter bloomFilter;
     protected LongList intervals;
     protected int intervalsHi;
     protected int intervalsLo;
@@ -55,6 +57,9 @@ public abstract class AbstractIntervalDataFrameCursor implements DataFrameCursor
     protected TableReader reader;
     protected long size = -1;
     protected long sizeSoFar = 0;
+    protected ZoneMapFilter zoneMapFilter;
+    private boolean checkedPartitionExcluded;
+    private int checkedPartitionIndex = -1;
     private int initialIntervalsHi;
     private int initialIntervalsLo;
     private int initialPartitionHi;
@@ -111,6 +116,14 @@ public abstract class AbstractIntervalDataFrameCursor implements DataFrameCursor
         return false;
     }
 
+    public void setBloomFilter(@Nullable BloomPartitionFilter bloomFilter) {
+        this.bloomFilter = bloomFilter;
+    }
+
+    public void setZoneMapFilter(@Nullable ZoneMapFilter zoneMapFilter) {
+        this.zoneMapFilter = zoneMapFilter;
+    }
+
     @Override
     public long size() {
         return size > -1 ? size : computeSize();
@@ -123,10 +136,28 @@ public abstract class AbstractIntervalDataFrameCursor implements DataFrameCursor
         partitionLo = initialPartitionLo;
         partitionHi = initialPartitionHi;
         sizeSoFar = 0;
+        checkedPartitionIndex = -1;
+    }
+
+    /**
+     * Checks partition zone maps and bloom filters against the filter. The result is cached,
+     * since the same partition is checked for every interval that hits it.
+     */
+    protected boolean isPartitionExcluded(int partitionIndex) {
+        if (zoneMapFilter == null && bloomFilter == null) {
+            return false;
+        }
+        if (partitionIndex != checkedPartitionIndex) {
+            checkedPartitionIndex = partitionIndex;
+            checkedPartitionExcluded = (zoneMapFilter != null && zoneMapFilter.isPartitionExcluded(reader, partitionIndex))
+                    || (bloomFilter != null && bloomFilter.isPartitionExcluded(reader, partitionIndex));
+        }
+        return checkedPartitionExcluded;
     }
 
     private void calculateRanges(TableReader reader, LongList intervals) {
         size = -1;
+        checkedPartitionIndex = -1;
         if (intervals.size() > 0) {
             if (PartitionBy.isPartitioned(reader.getPartitionedBy())) {
                 cullIntervals(reader, intervals);
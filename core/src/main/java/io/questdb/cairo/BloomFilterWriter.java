@@ -0,0 +1,271 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.Hash;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Uuid;
+import io.questdb.std.Vect;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.Utf8Sequence;
+import io.questdb.std.str.Utf8SplitString;
+
+/**
+ * Writes per-partition bloom filters for high-cardinality columns. A bloom filter is a file next
+ * to the column data file, it is named after the column and versioned with the same column name
+ * txn as the data file. Equality filters use bloom filters to skip partitions that cannot contain
+ * the value, see {@link BloomPartitionFilter}.
+ * <p>
+ * The filter is split-block, as in Parquet: the value hash picks a 256-bit block and sets one bit
+ * in each of the block's eight 32-bit words, so a lookup reads a single block. Nulls are not added.
+ * File layout:
+ * <pre>
+ * [row count: 64-bit][block count: 64-bit][blocks: block count * 32 bytes]
+ * </pre>
+ */
+public class BloomFilterWriter {
+    static final int BLOCK_SIZE = 8 * Integer.BYTES;
+    static final long HEADER_SIZE = 2 * Long.BYTES;
+    static final long OFFSET_BLOCK_COUNT = Long.BYTES;
+    static final long OFFSET_ROW_COUNT = 0;
+    // 10 bits per value give about 1% false positive rate
+    private static final int BITS_PER_VALUE = 10;
+    private static final Log LOG = LogFactory.getLog(BloomFilterWriter.class);
+    private static final int[] SALT = {
+            0x47b6137b, 0x44974d91, 0x8824ad5b, 0xa2b7289d,
+            0x705495c7, 0x2df1424b, 0x9efc4947, 0x5c6bfb31
+    };
+    private final FilesFacade ff;
+    private final Utf8SplitString utf8View = new Utf8SplitString(false);
+
+    public BloomFilterWriter(FilesFacade ff) {
+        this.ff = ff;
+    }
+
+    public static long hashIPv4(int value) {
+        return Hash.hashInt64(value);
+    }
+
+    public static long hashLong(long value) {
+        return Hash.hashLong64(value);
+    }
+
+    public static long hashUuid(long lo, long hi) {
+        return Hash.hashLong128_64(lo, hi);
+    }
+
+    public static long hashVarchar(Utf8Sequence value) {
+        return Hash.hashUtf8_64(value);
+    }
+
+    public static boolean isSupported(int columnType) {
+        switch (columnType) {
+            case ColumnType.LONG:
+            case ColumnType.VARCHAR:
+            case ColumnType.UUID:
+            case ColumnType.IPv4:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    static long blockIndex(long blockCount, long hash) {
+        // multiply-shift maps the upper half of the hash onto [0, blockCount)
+        return ((hash >>> 32) * blockCount) >>> 32;
+    }
+
+    /**
+     * @param blockAddr address of the block the hash maps to, see {@link #blockIndex(long, long)}
+     * @param hash      value hash
+     * @return false when the value is definitely not in the filter
+     */
+    static boolean mightContainInBlock(long blockAddr, long hash) {
+        final int key = (int) hash;
+        for (int i = 0; i < 8; i++) {
+            final int mask = 1 << ((key * SALT[i]) >>> 27);
+            if ((Unsafe.getUnsafe().getInt(blockAddr + (long) i * Integer.BYTES) & mask) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes bloom filters of all supported columns in the partition. Columns with a column top
+     * are skipped.
+     *
+     * @param path                partition path, it is restored before the method returns
+     * @param metadata            writer metadata
+     * @param columnVersionReader column versions of the table
+     * @param partitionTimestamp  partition timestamp
+     * @param rowCount            number of rows in the partition
+     */
+    public void writePartition(
+            Path path,
+            RecordMetadata metadata,
+            ColumnVersionReader columnVersionReader,
+            long partitionTimestamp,
+            long rowCount
+    ) {
+        if (rowCount < 1) {
+            return;
+        }
+        final int plen = path.size();
+        try {
+            for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                final int columnType = metadata.getColumnType(i);
+                if (isSupported(columnType) && columnVersionReader.getColumnTop(partitionTimestamp, i) == 0) {
+                    final long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, i);
+                    writeColumn(path, plen, metadata.getColumnName(i), columnNameTxn, columnType, rowCount);
+                }
+            }
+        } finally {
+            path.trimTo(plen);
+        }
+    }
+
+    private static void put(long blocksAddr, long blockCount, long hash) {
+        final long blockAddr = blocksAddr + blockIndex(blockCount, hash) * BLOCK_SIZE;
+        final int key = (int) hash;
+        for (int i = 0; i < 8; i++) {
+            final long wordAddr = blockAddr + (long) i * Integer.BYTES;
+            Unsafe.getUnsafe().putInt(wordAddr, Unsafe.getUnsafe().getInt(wordAddr) | (1 << ((key * SALT[i]) >>> 27)));
+        }
+    }
+
+    private void addFixedValues(long blocksAddr, long blockCount, long address, int columnType, long rowCount) {
+        switch (columnType) {
+            case ColumnType.LONG:
+                for (long r = 0; r < rowCount; r++) {
+                    final long value = Unsafe.getUnsafe().getLong(address + r * Long.BYTES);
+                    if (value != Numbers.LONG_NULL) {
+                        put(blocksAddr, blockCount, hashLong(value));
+                    }
+                }
+                break;
+            case ColumnType.IPv4:
+                for (long r = 0; r < rowCount; r++) {
+                    final int value = Unsafe.getUnsafe().getInt(address + r * Integer.BYTES);
+                    if (value != Numbers.IPv4_NULL) {
+                        put(blocksAddr, blockCount, hashIPv4(value));
+                    }
+                }
+                break;
+            default:
+                // uuid
+                for (long r = 0; r < rowCount; r++) {
+                    final long lo = Unsafe.getUnsafe().getLong(address + r * 2 * Long.BYTES);
+                    final long hi = Unsafe.getUnsafe().getLong(address + r * 2 * Long.BYTES + Long.BYTES);
+                    if (!Uuid.isNull(lo, hi)) {
+                        put(blocksAddr, blockCount, hashUuid(lo, hi));
+                    }
+                }
+                break;
+        }
+    }
+
+    private void addVarcharValues(long blocksAddr, long blockCount, long auxAddress, long dataAddress, long rowCount) {
+        for (long r = 0; r < rowCount; r++) {
+            final Utf8Sequence value = VarcharTypeDriver.getSplitValue(auxAddress, dataAddress, r, utf8View);
+            if (value != null) {
+                put(blocksAddr, blockCount, hashVarchar(value));
+            }
+        }
+    }
+
+    private void fillColumn(Path path, int plen, CharSequence columnName, long columnNameTxn, int columnType, long rowCount, long blocksAddr, long blockCount) {
+        if (columnType == ColumnType.VARCHAR) {
+            final long auxSize = rowCount * VarcharTypeDriver.VARCHAR_AUX_WIDTH_BYTES;
+            final int auxFd = TableUtils.openRO(ff, TableUtils.iFile(path.trimTo(plen), columnName, columnNameTxn), LOG);
+            try {
+                final int dataFd = TableUtils.openRO(ff, TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn), LOG);
+                try {
+                    // short values are inlined into the aux vector, data vector may be empty
+                    final long dataSize = ff.length(dataFd);
+                    final long auxAddress = TableUtils.mapRO(ff, auxFd, auxSize, MemoryTag.MMAP_TABLE_WRITER);
+                    final long dataAddress = dataSize > 0 ? TableUtils.mapRO(ff, dataFd, dataSize, MemoryTag.MMAP_TABLE_WRITER) : 0;
+                    try {
+                        addVarcharValues(blocksAddr, blockCount, auxAddress, dataAddress, rowCount);
+                    } finally {
+                        ff.munmap(auxAddress, auxSize, MemoryTag.MMAP_TABLE_WRITER);
+                        if (dataAddress != 0) {
+                            ff.munmap(dataAddress, dataSize, MemoryTag.MMAP_TABLE_WRITER);
+                        }
+                    }
+                } finally {
+                    ff.close(dataFd);
+                }
+            } finally {
+                ff.close(auxFd);
+            }
+            return;
+        }
+
+        final long size = rowCount << ColumnType.pow2SizeOf(columnType);
+        final int fd = TableUtils.openRO(ff, TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn), LOG);
+        try {
+            final long address = TableUtils.mapRO(ff, fd, size, MemoryTag.MMAP_TABLE_WRITER);
+            try {
+                addFixedValues(blocksAddr, blockCount, address, columnType, rowCount);
+            } finally {
+                ff.munmap(address, size, MemoryTag.MMAP_TABLE_WRITER);
+            }
+        } finally {
+            ff.close(fd);
+        }
+    }
+
+    private void writeColumn(Path path, int plen, CharSequence columnName, long columnNameTxn, int columnType, long rowCount) {
+        // row count is the upper bound of distinct values in the partition
+        final long blockCount = Math.max(1, (rowCount * BITS_PER_VALUE + BLOCK_SIZE * 8 - 1) / (BLOCK_SIZE * 8));
+        final long size = HEADER_SIZE + blockCount * BLOCK_SIZE;
+        final long buf = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+        try {
+            Vect.memset(buf, size, 0);
+            Unsafe.getUnsafe().putLong(buf + OFFSET_ROW_COUNT, rowCount);
+            Unsafe.getUnsafe().putLong(buf + OFFSET_BLOCK_COUNT, blockCount);
+            fillColumn(path, plen, columnName, columnNameTxn, columnType, rowCount, buf + HEADER_SIZE, blockCount);
+
+            final int fd = TableUtils.openRW(ff, TableUtils.bfFile(path.trimTo(plen), columnName, columnNameTxn), LOG, CairoConfiguration.O_NONE);
+            try {
+                if (ff.truncate(fd, 0) && ff.write(fd, buf, size, 0) == size) {
+                    return;
+                }
+                throw CairoException.critical(ff.errno()).put("could not write bloom filter [file=").put(path).put(']');
+            } finally {
+                ff.close(fd);
+            }
+        } finally {
+            Unsafe.free(buf, size, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+}
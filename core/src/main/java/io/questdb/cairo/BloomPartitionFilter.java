@@ -0,0 +1,145 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.FilesFacade;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.Path;
+
+/**
+ * Conjunction of column equality predicates, e.g. <code>order_id = 42 and ip in ('10.0.0.1', '10.0.0.2')</code>,
+ * that is checked against partition bloom filters written by {@link BloomFilterWriter}. A partition
+ * is excluded when the bloom filter of at least one predicate column contains none of the
+ * predicate values.
+ * <p>
+ * Values are kept as hashes, see {@link BloomFilterWriter#hashLong(long)} and friends. Partitions
+ * without a valid bloom filter, such as the last partition, are never excluded. Row filter must
+ * still be applied to partitions that are not excluded.
+ */
+public class BloomPartitionFilter implements QuietCloseable {
+    private static final long BUF_SIZE = BloomFilterWriter.HEADER_SIZE + BloomFilterWriter.BLOCK_SIZE;
+    private final IntList columnIndexes = new IntList();
+    private final FilesFacade ff;
+    // value hashes of all predicates, predicate i owns [hashesLo[i], hashesLo[i + 1])
+    private final LongList hashes = new LongList();
+    private final IntList hashesLo = new IntList();
+    private final CharSequence root;
+    private long buf;
+    private Path path = new Path();
+
+    public BloomPartitionFilter(CairoConfiguration configuration) {
+        this.ff = configuration.getFilesFacade();
+        this.root = configuration.getRoot();
+        this.buf = Unsafe.malloc(BUF_SIZE, MemoryTag.NATIVE_DEFAULT);
+        hashesLo.add(0);
+    }
+
+    /**
+     * Adds a predicate that matches when the column value hash is one of the given hashes.
+     */
+    public void addPredicate(int columnIndex, LongList valueHashes) {
+        columnIndexes.add(columnIndex);
+        hashes.add(valueHashes);
+        hashesLo.add(hashes.size());
+    }
+
+    @Override
+    public void close() {
+        path = Misc.free(path);
+        if (buf != 0) {
+            Unsafe.free(buf, BUF_SIZE, MemoryTag.NATIVE_DEFAULT);
+            buf = 0;
+        }
+    }
+
+    /**
+     * @param reader         table reader
+     * @param partitionIndex partition index
+     * @return true when the bloom filters prove that none of the partition rows match the filter
+     */
+    public boolean isPartitionExcluded(TableReader reader, int partitionIndex) {
+        if (!PartitionBy.isPartitioned(reader.getPartitionedBy()) || partitionIndex == reader.getPartitionCount() - 1) {
+            // the last partition is still being written to, it does not have a bloom filter
+            return false;
+        }
+
+        final TxReader txFile = reader.getTxFile();
+        final long partitionTimestamp = txFile.getPartitionTimestampByIndex(partitionIndex);
+        final long rowCount = txFile.getPartitionSize(partitionIndex);
+        path.of(root).concat(reader.getTableToken().getDirName());
+        TableUtils.setPathForPartition(path, reader.getPartitionedBy(), partitionTimestamp, txFile.getPartitionNameTxn(partitionIndex));
+        final int plen = path.size();
+
+        final TableReaderMetadata metadata = reader.getMetadata();
+        for (int i = 0, n = columnIndexes.size(); i < n; i++) {
+            final int columnIndex = columnIndexes.getQuick(i);
+            final long columnNameTxn = reader.getColumnVersionReader().getColumnNameTxn(
+                    partitionTimestamp,
+                    metadata.getWriterIndex(columnIndex)
+            );
+            final int fd = ff.openRO(TableUtils.bfFile(path.trimTo(plen), metadata.getColumnName(columnIndex), columnNameTxn));
+            if (fd < 0) {
+                continue;
+            }
+            try {
+                if (isExcluded(fd, i, rowCount)) {
+                    return true;
+                }
+            } finally {
+                ff.close(fd);
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return columnIndexes.size();
+    }
+
+    private boolean isExcluded(int fd, int predicateIndex, long rowCount) {
+        if (ff.read(fd, buf, BloomFilterWriter.HEADER_SIZE, 0) != BloomFilterWriter.HEADER_SIZE
+                // bloom filter of an older partition version, e.g. before an O3 append
+                || Unsafe.getUnsafe().getLong(buf + BloomFilterWriter.OFFSET_ROW_COUNT) != rowCount) {
+            return false;
+        }
+        final long blockCount = Unsafe.getUnsafe().getLong(buf + BloomFilterWriter.OFFSET_BLOCK_COUNT);
+        final long blockAddr = buf + BloomFilterWriter.HEADER_SIZE;
+        for (int j = hashesLo.getQuick(predicateIndex), hi = hashesLo.getQuick(predicateIndex + 1); j < hi; j++) {
+            final long hash = hashes.getQuick(j);
+            // a lookup reads just the block the value maps to
+            final long offset = BloomFilterWriter.HEADER_SIZE + BloomFilterWriter.blockIndex(blockCount, hash) * BloomFilterWriter.BLOCK_SIZE;
+            if (ff.read(fd, blockAddr, BloomFilterWriter.BLOCK_SIZE, offset) != BloomFilterWriter.BLOCK_SIZE
+                    || BloomFilterWriter.mightContainInBlock(blockAddr, hash)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
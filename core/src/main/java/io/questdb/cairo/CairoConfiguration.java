@@ -190,6 +190,8 @@ public interface CairoConfiguration {
 
     int getGroupByShardingThreshold();
 
+    int getGroupBySpillThreshold();
+
     @NotNull
     default IOURingFacade getIOURingFacade() {
         return IOURingFacadeImpl.INSTANCE;
@@ -298,6 +300,12 @@ public interface CairoConfiguration {
 
     int getParallelIndexThreshold();
 
+    /**
+     * Partitions that end at least this many microseconds before the table's max timestamp are
+     * compressed by the table writer, see {@link PartitionCompressor}. Zero disables the policy.
+     */
+    long getPartitionCompressionAge();
+
     long getPartitionO3SplitMinSize();
 
     int getPartitionPurgeListCapacity();
@@ -448,10 +456,14 @@ public interface CairoConfiguration {
 
     long getSqlSortLightValuePageSize();
 
+    long getSqlSortSpillThreshold();
+
     int getSqlSortValueMaxPages();
 
     int getSqlSortValuePageSize();
 
+    CharSequence getSqlSpillRoot();
+
     int getSqlUnorderedMapMaxEntrySize();
 
     int getSqlWindowInitialRangeBufferSize();
@@ -550,6 +562,8 @@ public interface CairoConfiguration {
 
     int getWindowColumnPoolCapacity();
 
+    int getWindowShardQueueCapacity();
+
     int getWithClauseModelPoolCapacity();
 
     long getWorkStealTimeoutNanos();
@@ -566,8 +580,22 @@ public interface CairoConfiguration {
 
     int getWriterTickRowsCountMod();
 
+    /**
+     * When enabled, the writer keeps bloom filters of LONG, VARCHAR, UUID and IPv4 columns for
+     * sealed partitions and equality filters skip partitions that cannot contain the value.
+     */
+    boolean isBloomFilterEnabled();
+
+    boolean isGroupByAdaptiveEnabled();
+
     boolean isGroupByPresizeEnabled();
 
+    boolean isGroupBySpillEnabled();
+
+    boolean isGroupBySymbolLookupEnabled();
+
+    boolean isGroupByVectorizedEnabled();
+
     boolean isIOURingEnabled();
 
     boolean isMultiKeyDedupEnabled();
@@ -585,14 +613,46 @@ public interface CairoConfiguration {
      */
     boolean isSnapshotRecoveryEnabled();
 
+    /**
+     * When enabled, the writer keeps sorted (value, row id) indexes of INT, LONG and IPv4 columns
+     * for sealed partitions and bounded range filters look up matching rows with a binary search.
+     */
+    boolean isSortedIndexEnabled();
+
+    boolean isSqlAsOfJoinKeyedFastScanEnabled();
+
     boolean isSqlJitDebugEnabled();
 
+    boolean isSqlMergeJoinEnabled();
+
+    boolean isSqlParallelAsOfJoinEnabled();
+
     boolean isSqlParallelFilterEnabled();
 
     boolean isSqlParallelFilterPreTouchEnabled();
 
     boolean isSqlParallelGroupByEnabled();
 
+    boolean isSqlParallelHashJoinEnabled();
+
+    boolean isSqlParallelDistinctEnabled();
+
+    boolean isSqlParallelLatestByEnabled();
+
+    boolean isSqlParallelOrderByEnabled();
+
+    boolean isSqlParallelProjectionEnabled();
+
+    boolean isSqlParallelSampleByFillEnabled();
+
+    boolean isSqlParallelTopKEnabled();
+
+    boolean isSqlParallelWindowEnabled();
+
+    boolean isSqlSortRadixEnabled();
+
+    boolean isSqlSortSpillEnabled();
+
     boolean isTableTypeConversionEnabled();
 
     boolean isWalApplyEnabled();
@@ -601,6 +661,12 @@ public interface CairoConfiguration {
 
     boolean isWriterMixedIOEnabled();
 
+    /**
+     * When enabled, the writer keeps per-column min/max/null-count files (zone maps) for
+     * sealed partitions and filtered scans skip partitions whose zone maps cannot match.
+     */
+    boolean isZoneMapEnabled();
+
     /**
      * This is a flag to enable/disable making table directory names different to table names for non-WAL tables.
      * When it is enabled directory name of table TRADE becomes TRADE~, so that ~ sign is added at the end.
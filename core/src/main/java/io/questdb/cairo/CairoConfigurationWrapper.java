@@ -325,6 +325,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getGroupByShardingThreshold();
     }
 
+    @Override
+    public int getGroupBySpillThreshold() {
+        return getDelegate().getGroupBySpillThreshold();
+    }
+
     @Override
     public long getIdleCheckInterval() {
         return getDelegate().getIdleCheckInterval();
@@ -505,6 +510,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getParallelIndexThreshold();
     }
 
+    @Override
+    public long getPartitionCompressionAge() {
+        return getDelegate().getPartitionCompressionAge();
+    }
+
     @Override
     public long getPartitionO3SplitMinSize() {
         return getDelegate().getPartitionO3SplitMinSize();
@@ -795,6 +805,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getSqlSortLightValuePageSize();
     }
 
+    @Override
+    public long getSqlSortSpillThreshold() {
+        return getDelegate().getSqlSortSpillThreshold();
+    }
+
     @Override
     public int getSqlSortValueMaxPages() {
         return getDelegate().getSqlSortValueMaxPages();
@@ -805,6 +820,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getSqlSortValuePageSize();
     }
 
+    @Override
+    public CharSequence getSqlSpillRoot() {
+        return getDelegate().getSqlSpillRoot();
+    }
+
     @Override
     public int getSqlUnorderedMapMaxEntrySize() {
         return getDelegate().getSqlUnorderedMapMaxEntrySize();
@@ -1005,6 +1025,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getWindowColumnPoolCapacity();
     }
 
+    @Override
+    public int getWindowShardQueueCapacity() {
+        return getDelegate().getWindowShardQueueCapacity();
+    }
+
     @Override
     public int getWithClauseModelPoolCapacity() {
         return getDelegate().getWithClauseModelPoolCapacity();
@@ -1045,11 +1070,36 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getWriterTickRowsCountMod();
     }
 
+    @Override
+    public boolean isBloomFilterEnabled() {
+        return getDelegate().isBloomFilterEnabled();
+    }
+
+    @Override
+    public boolean isGroupByAdaptiveEnabled() {
+        return getDelegate().isGroupByAdaptiveEnabled();
+    }
+
     @Override
     public boolean isGroupByPresizeEnabled() {
         return getDelegate().isGroupByPresizeEnabled();
     }
 
+    @Override
+    public boolean isGroupBySpillEnabled() {
+        return getDelegate().isGroupBySpillEnabled();
+    }
+
+    @Override
+    public boolean isGroupBySymbolLookupEnabled() {
+        return getDelegate().isGroupBySymbolLookupEnabled();
+    }
+
+    @Override
+    public boolean isGroupByVectorizedEnabled() {
+        return getDelegate().isGroupByVectorizedEnabled();
+    }
+
     @Override
     public boolean isIOURingEnabled() {
         return getDelegate().isIOURingEnabled();
@@ -1080,11 +1130,31 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().isSnapshotRecoveryEnabled();
     }
 
+    @Override
+    public boolean isSortedIndexEnabled() {
+        return getDelegate().isSortedIndexEnabled();
+    }
+
+    @Override
+    public boolean isSqlAsOfJoinKeyedFastScanEnabled() {
+        return getDelegate().isSqlAsOfJoinKeyedFastScanEnabled();
+    }
+
     @Override
     public boolean isSqlJitDebugEnabled() {
         return getDelegate().isSqlJitDebugEnabled();
     }
 
+    @Override
+    public boolean isSqlMergeJoinEnabled() {
+        return getDelegate().isSqlMergeJoinEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelAsOfJoinEnabled() {
+        return getDelegate().isSqlParallelAsOfJoinEnabled();
+    }
+
     @Override
     public boolean isSqlParallelFilterEnabled() {
         return getDelegate().isSqlParallelFilterEnabled();
@@ -1100,6 +1170,56 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().isSqlParallelGroupByEnabled();
     }
 
+    @Override
+    public boolean isSqlParallelHashJoinEnabled() {
+        return getDelegate().isSqlParallelHashJoinEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelDistinctEnabled() {
+        return getDelegate().isSqlParallelDistinctEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelLatestByEnabled() {
+        return getDelegate().isSqlParallelLatestByEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelOrderByEnabled() {
+        return getDelegate().isSqlParallelOrderByEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelProjectionEnabled() {
+        return getDelegate().isSqlParallelProjectionEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelSampleByFillEnabled() {
+        return getDelegate().isSqlParallelSampleByFillEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelTopKEnabled() {
+        return getDelegate().isSqlParallelTopKEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelWindowEnabled() {
+        return getDelegate().isSqlParallelWindowEnabled();
+    }
+
+    @Override
+    public boolean isSqlSortRadixEnabled() {
+        return getDelegate().isSqlSortRadixEnabled();
+    }
+
+    @Override
+    public boolean isSqlSortSpillEnabled() {
+        return getDelegate().isSqlSortSpillEnabled();
+    }
+
     @Override
     public boolean isTableTypeConversionEnabled() {
         return getDelegate().isTableTypeConversionEnabled();
@@ -1119,6 +1239,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().isWriterMixedIOEnabled();
     }
 
+    @Override
+    public boolean isZoneMapEnabled() {
+        return getDelegate().isZoneMapEnabled();
+    }
+
     @Override
     public boolean mangleTableDirNames() {
         return getDelegate().mangleTableDirNames();
@@ -324,6 +324,20 @@ public class ColumnPurgeOperator implements Closeable {
                     }
                 }
 
+                if (ZoneMapWriter.isSupported(columnType)) {
+                    // zone map is optional, a leftover file is harmless as readers look it up by the current column name txn
+                    ff.removeQuiet(TableUtils.zmFile(path.trimTo(pathTrimToPartition), columnName, columnVersion));
+                }
+
+                if (BloomFilterWriter.isSupported(columnType)) {
+                    // same as zone maps, bloom filters are optional
+                    ff.removeQuiet(TableUtils.bfFile(path.trimTo(pathTrimToPartition), columnName, columnVersion));
+                }
+
+                if (SortedIndexWriter.isSupported(columnType)) {
+                    ff.removeQuiet(TableUtils.siFile(path.trimTo(pathTrimToPartition), columnName, columnVersion));
+                }
+
                 // Check if it's symbol, try remove .k and .v files in the partition
                 if (ColumnType.isSymbol(columnType)) {
                     if (isSymbolRootFiles) {
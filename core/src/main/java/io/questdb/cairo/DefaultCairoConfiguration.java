@@ -47,6 +47,7 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
     private final LongSupplier importIDSupplier = () -> getRandom().nextPositiveLong();
     private final String root;
     private final CharSequence snapshotRoot;
+    private final CharSequence spillRoot;
     private final DefaultTelemetryConfiguration telemetryConfiguration = new DefaultTelemetryConfiguration();
     private final TextConfiguration textConfiguration;
     private final VolumeDefinitions volumeDefinitions = new VolumeDefinitions();
@@ -57,6 +58,7 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         this.confRoot = PropServerConfiguration.rootSubdir(root, PropServerConfiguration.CONFIG_DIRECTORY);
         this.textConfiguration = new DefaultTextConfiguration(Chars.toString(confRoot));
         this.snapshotRoot = PropServerConfiguration.rootSubdir(root, PropServerConfiguration.SNAPSHOT_DIRECTORY);
+        this.spillRoot = PropServerConfiguration.rootSubdir(root, PropServerConfiguration.TMP_DIRECTORY);
         Rnd rnd = new Rnd(NanosecondClockImpl.INSTANCE.getTicks(), MicrosecondClockImpl.INSTANCE.getTicks());
         this.databaseIdLo = rnd.nextLong();
         this.databaseIdHi = rnd.nextLong();
@@ -333,6 +335,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1000;
     }
 
+    @Override
+    public int getGroupBySpillThreshold() {
+        return 1_000_000;
+    }
+
     @Override
     public long getIdleCheckInterval() {
         return 100;
@@ -504,6 +511,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 100000;
     }
 
+    @Override
+    public long getPartitionCompressionAge() {
+        return 0;
+    }
+
     @Override
     public long getPartitionO3SplitMinSize() {
         return 50 * Numbers.SIZE_1MB;
@@ -796,6 +808,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 8 * Numbers.SIZE_1MB;
     }
 
+    @Override
+    public long getSqlSortSpillThreshold() {
+        return Numbers.SIZE_1GB;
+    }
+
     @Override
     public int getSqlSortValueMaxPages() {
         return 1024;
@@ -806,6 +823,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return Numbers.SIZE_1MB * 16;
     }
 
+    @Override
+    public CharSequence getSqlSpillRoot() {
+        return spillRoot;
+    }
+
     @Override
     public int getSqlUnorderedMapMaxEntrySize() {
         return 16;
@@ -1001,6 +1023,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 64;
     }
 
+    @Override
+    public int getWindowShardQueueCapacity() {
+        return 32;
+    }
+
     @Override
     public int getWithClauseModelPoolCapacity() {
         return 128;
@@ -1045,11 +1072,36 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1024 - 1;
     }
 
+    @Override
+    public boolean isBloomFilterEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isGroupByAdaptiveEnabled() {
+        return true;
+    }
+
     @Override
     public boolean isGroupByPresizeEnabled() {
         return true;
     }
 
+    @Override
+    public boolean isGroupBySpillEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isGroupBySymbolLookupEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isGroupByVectorizedEnabled() {
+        return true;
+    }
+
     @Override
     public boolean isIOURingEnabled() {
         return true;
@@ -1080,11 +1132,31 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isSortedIndexEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isSqlAsOfJoinKeyedFastScanEnabled() {
+        return true;
+    }
+
     @Override
     public boolean isSqlJitDebugEnabled() {
         return false;
     }
 
+    @Override
+    public boolean isSqlMergeJoinEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlParallelAsOfJoinEnabled() {
+        return true;
+    }
+
     @Override
     public boolean isSqlParallelFilterEnabled() {
         return true;
@@ -1100,6 +1172,56 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isSqlParallelHashJoinEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlParallelDistinctEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlParallelLatestByEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlParallelOrderByEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlParallelProjectionEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlParallelSampleByFillEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlParallelTopKEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlParallelWindowEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlSortRadixEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlSortSpillEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isTableTypeConversionEnabled() {
         return true;
@@ -1120,6 +1242,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return writerMixedIOEnabled;
     }
 
+    @Override
+    public boolean isZoneMapEnabled() {
+        return false;
+    }
+
     @Override
     public boolean mangleTableDirNames() {
         return false;
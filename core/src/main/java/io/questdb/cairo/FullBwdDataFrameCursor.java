@@ -46,6 +46,10 @@ public class FullBwdDataFrameCursor extends AbstractFullDataFrameCursor {
     @Override
     public DataFrame next() {
         while (partitionIndex > -1) {
+            if (isPartitionExcluded(partitionIndex)) {
+                partitionIndex--;
+                continue;
+            }
             final long hi = reader.openPartition(partitionIndex);
             if (hi < 1) {
                 // this partition is missing, skip
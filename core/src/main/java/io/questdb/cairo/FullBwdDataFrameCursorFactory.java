@@ -43,6 +43,8 @@ public class FullBwdDataFrameCursorFactory extends AbstractDataFrameCursorFactor
         final TableReader reader = getReader(executionContext);
         try {
             if (order == ORDER_DESC || order == ORDER_ANY) {
+                cursor.setZoneMapFilter(zoneMapFilter);
+                cursor.setBloomFilter(bloomFilter);
                 return cursor.of(reader);
             }
 
@@ -51,6 +53,8 @@ public class FullBwdDataFrameCursorFactory extends AbstractDataFrameCursorFactor
             if (fwdCursor == null) {
                 fwdCursor = new FullFwdDataFrameCursor();
             }
+            fwdCursor.setZoneMapFilter(zoneMapFilter);
+            fwdCursor.setBloomFilter(bloomFilter);
             return fwdCursor.of(reader);
         } catch (Throwable th) {
             Misc.free(reader);
@@ -42,6 +42,8 @@ public class FullFwdDataFrameCursorFactory extends AbstractDataFrameCursorFactor
         final TableReader reader = getReader(executionContext);
         try {
             if (order == ORDER_ASC || order == ORDER_ANY) {
+                cursor.setZoneMapFilter(zoneMapFilter);
+                cursor.setBloomFilter(bloomFilter);
                 return cursor.of(reader);
             }
 
@@ -50,6 +52,8 @@ public class FullFwdDataFrameCursorFactory extends AbstractDataFrameCursorFactor
             if (bwdCursor == null) {
                 bwdCursor = new FullBwdDataFrameCursor();
             }
+            bwdCursor.setZoneMapFilter(zoneMapFilter);
+            bwdCursor.setBloomFilter(bloomFilter);
             return bwdCursor.of(reader);
         } catch (Throwable th) {
             Misc.free(reader);
@@ -56,6 +56,11 @@ public class IntervalBwdDataFrameCursor extends AbstractIntervalDataFrameCursor
             // are working with timestamp. Timestamp column cannot be added to existing table.
             final int currentInterval = intervalsHi - 1;
             final int currentPartition = partitionHi - 1;
+            if (isPartitionExcluded(currentPartition)) {
+                partitionLimit = -1;
+                partitionHi = currentPartition;
+                continue;
+            }
             long rowCount = reader.openPartition(currentPartition);
             if (rowCount > 0) {
                 final MemoryR column = reader.getColumn(TableReader.getPrimaryColumnIndex(reader.getColumnBase(currentPartition), timestampIndex));
@@ -58,6 +58,8 @@ public class IntervalBwdDataFrameCursorFactory extends AbstractDataFrameCursorFa
         if (order == ORDER_DESC || order == ORDER_ANY) {
             final TableReader reader = getReader(executionContext);
             try {
+                cursor.setZoneMapFilter(zoneMapFilter);
+                cursor.setBloomFilter(bloomFilter);
                 cursor.of(reader, executionContext);
                 return cursor;
             } catch (Throwable th) {
@@ -59,6 +59,8 @@ public class IntervalFwdDataFrameCursorFactory extends AbstractDataFrameCursorFa
         final TableReader reader = getReader(executionContext);
         try {
             if (order == ORDER_ASC || order == ORDER_ANY) {
+                cursor.setZoneMapFilter(zoneMapFilter);
+                cursor.setBloomFilter(bloomFilter);
                 cursor.of(reader, executionContext);
                 return cursor;
             }
@@ -66,6 +68,8 @@ public class IntervalFwdDataFrameCursorFactory extends AbstractDataFrameCursorFa
             if (bwdCursor == null) {
                 bwdCursor = new IntervalBwdDataFrameCursor(intervals, cursor.getTimestampIndex());
             }
+            bwdCursor.setZoneMapFilter(zoneMapFilter);
+            bwdCursor.setBloomFilter(bloomFilter);
             return bwdCursor.of(reader, executionContext);
         } catch (Throwable th) {
             Misc.free(reader);
@@ -0,0 +1,355 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+import io.questdb.std.str.Path;
+
+/**
+ * Compresses fixed-size integer column files of a sealed partition. Each compressed column is
+ * written to a .dz file, which replaces the .d file and is versioned with the same column name txn.
+ * Table reader decompresses the file when it opens the partition, see
+ * {@link io.questdb.cairo.vm.MemoryCMRCompressedImpl}.
+ * <p>
+ * File layout:
+ * <pre>
+ * [row count: long][value size: int][block row count: int][block count: long]
+ * [block offsets: (block count + 1) x long]
+ * [block 0]...[block N-1]
+ * </pre>
+ * Every block starts with the encoding byte. Delta blocks hold the first value as is followed by
+ * zigzag varint deltas between the consecutive values. Blocks that delta encoding does not make
+ * smaller are stored raw.
+ */
+public class PartitionCompressor implements QuietCloseable {
+    public static final int BLOCK_ROW_COUNT = 64 * 1024;
+    static final byte ENCODING_DELTA = 1;
+    static final byte ENCODING_RAW = 0;
+    static final long HEADER_SIZE = 3 * Long.BYTES;
+    static final long OFFSET_BLOCK_COUNT = 2 * Long.BYTES;
+    static final long OFFSET_BLOCK_ROW_COUNT = Long.BYTES + Integer.BYTES;
+    static final long OFFSET_ROW_COUNT = 0;
+    static final long OFFSET_VALUE_SIZE = Long.BYTES;
+    // raw block plus room for the varint that overflows it
+    private static final long BLOCK_BUF_SIZE = 1 + (long) BLOCK_ROW_COUNT * Long.BYTES + 10;
+    private static final Log LOG = LogFactory.getLog(PartitionCompressor.class);
+    private final int commitMode;
+    private final FilesFacade ff;
+    private long blockBuf;
+    private long indexBuf;
+    private long indexBufSize;
+
+    public PartitionCompressor(FilesFacade ff, int commitMode) {
+        this.ff = ff;
+        this.commitMode = commitMode;
+        this.blockBuf = Unsafe.malloc(BLOCK_BUF_SIZE, MemoryTag.NATIVE_TABLE_WRITER);
+    }
+
+    /**
+     * Decompresses contents of a .dz file.
+     *
+     * @param src     address of the file contents
+     * @param srcSize size of the file
+     * @param dst     destination address
+     * @param dstSize expected size of the column data
+     * @return false when the file is corrupt or does not match the expected size
+     */
+    public static boolean decompress(long src, long srcSize, long dst, long dstSize) {
+        if (srcSize < HEADER_SIZE) {
+            return false;
+        }
+        final long rowCount = Unsafe.getUnsafe().getLong(src + OFFSET_ROW_COUNT);
+        final int valueSize = Unsafe.getUnsafe().getInt(src + OFFSET_VALUE_SIZE);
+        final int blockRowCount = Unsafe.getUnsafe().getInt(src + OFFSET_BLOCK_ROW_COUNT);
+        final long blockCount = Unsafe.getUnsafe().getLong(src + OFFSET_BLOCK_COUNT);
+        if (rowCount < 1
+                || (valueSize != Short.BYTES && valueSize != Integer.BYTES && valueSize != Long.BYTES)
+                || rowCount * valueSize != dstSize
+                || blockRowCount < 1
+                || blockCount != (rowCount + blockRowCount - 1) / blockRowCount
+                || HEADER_SIZE + (blockCount + 1) * Long.BYTES > srcSize) {
+            return false;
+        }
+
+        final long index = src + HEADER_SIZE;
+        for (long b = 0; b < blockCount; b++) {
+            final long lo = Unsafe.getUnsafe().getLong(index + b * Long.BYTES);
+            final long hi = Unsafe.getUnsafe().getLong(index + (b + 1) * Long.BYTES);
+            if (lo < HEADER_SIZE || hi <= lo || hi > srcSize) {
+                return false;
+            }
+            final long rowLo = b * blockRowCount;
+            final long n = Math.min(blockRowCount, rowCount - rowLo);
+            if (!decodeBlock(src + lo, src + hi, n, valueSize, dst + rowLo * valueSize)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isSupported(int columnType) {
+        if (columnType < 0) {
+            // deleted column
+            return false;
+        }
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+            case ColumnType.INT:
+            case ColumnType.IPv4:
+            case ColumnType.SYMBOL:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.GEOSHORT:
+            case ColumnType.GEOINT:
+            case ColumnType.GEOLONG:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Reads the first value of a compressed long column without decompressing it, e.g. the min
+     * timestamp of a partition. Both block encodings keep the first value of the block as is.
+     *
+     * @param ff        files facade
+     * @param fd        .dz file descriptor
+     * @param tempMem8b temporary buffer of at least 8 bytes
+     * @param path      file path for error messages
+     * @return first value of the column
+     */
+    public static long readFirstValue(FilesFacade ff, int fd, long tempMem8b, Path path) {
+        final long blockLo = TableUtils.readLongOrFail(ff, fd, HEADER_SIZE, tempMem8b, path);
+        return TableUtils.readLongOrFail(ff, fd, blockLo + 1, tempMem8b, path);
+    }
+
+    @Override
+    public void close() {
+        if (blockBuf != 0) {
+            blockBuf = Unsafe.free(blockBuf, BLOCK_BUF_SIZE, MemoryTag.NATIVE_TABLE_WRITER);
+        }
+        if (indexBuf != 0) {
+            indexBuf = Unsafe.free(indexBuf, indexBufSize, MemoryTag.NATIVE_TABLE_WRITER);
+            indexBufSize = 0;
+        }
+    }
+
+    /**
+     * Compresses all supported columns of the partition. For each column the .dz file is written
+     * and then the .d file is removed. The partition directory must not be visible to the readers,
+     * the table writer compresses a hard-linked copy of the partition under a new partition name txn.
+     *
+     * @param path                partition path, it is restored before the method returns
+     * @param metadata            writer metadata
+     * @param columnVersionReader column versions of the table
+     * @param partitionTimestamp  partition timestamp
+     * @param partitionRowCount   number of rows in the partition
+     */
+    public void compressPartition(
+            Path path,
+            RecordMetadata metadata,
+            ColumnVersionReader columnVersionReader,
+            long partitionTimestamp,
+            long partitionRowCount
+    ) {
+        final int plen = path.size();
+        long rawSize = 0;
+        long compressedSize = 0;
+        try {
+            for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                final int columnType = metadata.getColumnType(i);
+                if (!isSupported(columnType)) {
+                    continue;
+                }
+                final long columnTop = columnVersionReader.getColumnTop(partitionTimestamp, i);
+                if (columnTop < 0 || columnTop >= partitionRowCount) {
+                    // column has no data in this partition
+                    continue;
+                }
+                final CharSequence columnName = metadata.getColumnName(i);
+                final long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, i);
+                final long columnRowCount = partitionRowCount - columnTop;
+                compressedSize += compressColumn(path, plen, columnName, columnNameTxn, columnType, columnRowCount);
+                rawSize += columnRowCount << ColumnType.pow2SizeOf(columnType);
+                ff.remove(TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn));
+            }
+        } finally {
+            path.trimTo(plen);
+        }
+        LOG.info().$("compressed partition [path=").$(path)
+                .$(", rawSize=").$(rawSize)
+                .$(", compressedSize=").$(compressedSize)
+                .I$();
+    }
+
+    private static boolean decodeBlock(long p, long hi, long n, int valueSize, long dst) {
+        final byte encoding = Unsafe.getUnsafe().getByte(p++);
+        if (encoding == ENCODING_RAW) {
+            if (hi - p != n * valueSize) {
+                return false;
+            }
+            Vect.memcpy(dst, p, n * valueSize);
+            return true;
+        }
+        if (encoding != ENCODING_DELTA || hi - p < valueSize) {
+            return false;
+        }
+
+        long value = getValue(p, valueSize);
+        putValue(dst, valueSize, value);
+        p += valueSize;
+        for (long i = 1; i < n; i++) {
+            long z = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (p >= hi || shift > 63) {
+                    return false;
+                }
+                b = Unsafe.getUnsafe().getByte(p++);
+                z |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            value += (z >>> 1) ^ -(z & 1);
+            putValue(dst + i * valueSize, valueSize, value);
+        }
+        return p == hi;
+    }
+
+    private static long encodeBlock(long src, long n, int valueSize, long dst) {
+        final long rawSize = 1 + n * valueSize;
+        final long limit = dst + rawSize;
+        long p = dst;
+        Unsafe.getUnsafe().putByte(p++, ENCODING_DELTA);
+        long prev = getValue(src, valueSize);
+        putValue(p, valueSize, prev);
+        p += valueSize;
+        for (long i = 1; i < n && p < limit; i++) {
+            final long value = getValue(src + i * valueSize, valueSize);
+            final long delta = value - prev;
+            prev = value;
+            long z = (delta << 1) ^ (delta >> 63);
+            while ((z & ~0x7FL) != 0) {
+                Unsafe.getUnsafe().putByte(p++, (byte) ((z & 0x7F) | 0x80));
+                z >>>= 7;
+            }
+            Unsafe.getUnsafe().putByte(p++, (byte) z);
+        }
+
+        if (p < limit) {
+            return p - dst;
+        }
+        Unsafe.getUnsafe().putByte(dst, ENCODING_RAW);
+        Vect.memcpy(dst + 1, src, n * valueSize);
+        return rawSize;
+    }
+
+    private static long getValue(long address, int valueSize) {
+        switch (valueSize) {
+            case Short.BYTES:
+                return Unsafe.getUnsafe().getShort(address);
+            case Integer.BYTES:
+                return Unsafe.getUnsafe().getInt(address);
+            default:
+                return Unsafe.getUnsafe().getLong(address);
+        }
+    }
+
+    private static void putValue(long address, int valueSize, long value) {
+        switch (valueSize) {
+            case Short.BYTES:
+                Unsafe.getUnsafe().putShort(address, (short) value);
+                break;
+            case Integer.BYTES:
+                Unsafe.getUnsafe().putInt(address, (int) value);
+                break;
+            default:
+                Unsafe.getUnsafe().putLong(address, value);
+                break;
+        }
+    }
+
+    private long compressColumn(Path path, int plen, CharSequence columnName, long columnNameTxn, int columnType, long rowCount) {
+        final int shl = ColumnType.pow2SizeOf(columnType);
+        final int valueSize = 1 << shl;
+        final long size = rowCount << shl;
+        final long blockCount = (rowCount + BLOCK_ROW_COUNT - 1) / BLOCK_ROW_COUNT;
+        final long indexSize = HEADER_SIZE + (blockCount + 1) * Long.BYTES;
+        if (indexSize > indexBufSize) {
+            indexBuf = Unsafe.realloc(indexBuf, indexBufSize, indexSize, MemoryTag.NATIVE_TABLE_WRITER);
+            indexBufSize = indexSize;
+        }
+
+        final int srcFd = TableUtils.openRO(ff, TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn), LOG);
+        long srcAddr = 0;
+        int dstFd = -1;
+        try {
+            srcAddr = TableUtils.mapRO(ff, srcFd, size, MemoryTag.MMAP_TABLE_WRITER);
+            dstFd = TableUtils.openRW(ff, TableUtils.dzFile(path.trimTo(plen), columnName, columnNameTxn), LOG, CairoConfiguration.O_NONE);
+
+            long offset = indexSize;
+            for (long b = 0; b < blockCount; b++) {
+                final long rowLo = b * BLOCK_ROW_COUNT;
+                final long len = encodeBlock(srcAddr + (rowLo << shl), Math.min(BLOCK_ROW_COUNT, rowCount - rowLo), valueSize, blockBuf);
+                write(dstFd, blockBuf, len, offset, path);
+                Unsafe.getUnsafe().putLong(indexBuf + HEADER_SIZE + b * Long.BYTES, offset);
+                offset += len;
+            }
+            Unsafe.getUnsafe().putLong(indexBuf + HEADER_SIZE + blockCount * Long.BYTES, offset);
+            Unsafe.getUnsafe().putLong(indexBuf + OFFSET_ROW_COUNT, rowCount);
+            Unsafe.getUnsafe().putInt(indexBuf + OFFSET_VALUE_SIZE, valueSize);
+            Unsafe.getUnsafe().putInt(indexBuf + OFFSET_BLOCK_ROW_COUNT, BLOCK_ROW_COUNT);
+            Unsafe.getUnsafe().putLong(indexBuf + OFFSET_BLOCK_COUNT, blockCount);
+            write(dstFd, indexBuf, indexSize, 0, path);
+            if (commitMode != CommitMode.NOSYNC) {
+                ff.fsync(dstFd);
+            }
+            return offset;
+        } finally {
+            if (srcAddr != 0) {
+                ff.munmap(srcAddr, size, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            ff.close(srcFd);
+            if (dstFd > -1) {
+                ff.close(dstFd);
+            }
+        }
+    }
+
+    private void write(int fd, long address, long len, long offset, Path path) {
+        if (ff.write(fd, address, len, offset) != len) {
+            throw CairoException.critical(ff.errno()).put("could not write compressed column [file=").put(path).put(']');
+        }
+    }
+}
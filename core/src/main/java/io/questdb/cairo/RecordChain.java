@@ -55,9 +55,21 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
             @NotNull RecordSink recordSink,
             long pageSize,
             int maxPages
+    ) {
+        this(columnTypes, recordSink, Vm.getARWInstance(pageSize, maxPages, MemoryTag.NATIVE_RECORD_CHAIN));
+    }
+
+    /**
+     * Creates a chain over the given memory, e.g. a memory-mapped file. The memory is closed
+     * when the chain is cleared or closed.
+     */
+    public RecordChain(
+            @Transient @NotNull ColumnTypes columnTypes,
+            @NotNull RecordSink recordSink,
+            @NotNull MemoryARW mem
     ) {
         try {
-            this.mem = Vm.getARWInstance(pageSize, maxPages, MemoryTag.NATIVE_RECORD_CHAIN);
+            this.mem = mem;
             this.recordSink = recordSink;
             int count = columnTypes.getColumnCount();
             long varOffset = 0L;
@@ -127,6 +139,13 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
         return addressOf(getOffsetOfColumn(recordOffset, columnIndex));
     }
 
+    /**
+     * Returns the number of bytes taken by the records put so far.
+     */
+    public long getMemorySize() {
+        return varAppendOffset;
+    }
+
     public long getOffsetOfColumn(long recordOffset, int columnIndex) {
         return rowToDataOffset(recordOffset) + varOffset + columnOffsets[columnIndex];
     }
@@ -161,6 +180,16 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
         return false;
     }
 
+    /**
+     * Creates a record positioned with {@link #recordAt(Record, long)}. Once the chain is built,
+     * such records may be read from different threads as long as only fixed-size columns are accessed.
+     *
+     * @return new record over this chain
+     */
+    public Record newRecord() {
+        return new RecordChainRecord();
+    }
+
     public void of(long nextRecordOffset) {
         this.nextRecordOffset = nextRecordOffset;
     }
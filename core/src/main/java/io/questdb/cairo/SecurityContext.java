@@ -50,6 +50,8 @@ public interface SecurityContext extends Mutable {
 
     void authorizeAlterTableAttachPartition(TableToken tableToken);
 
+    void authorizeAlterTableCompressPartition(TableToken tableToken);
+
     void authorizeAlterTableDedupDisable(TableToken tableToken);
 
     void authorizeAlterTableDedupEnable(TableToken tableToken);
@@ -0,0 +1,193 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+import io.questdb.std.str.Path;
+
+/**
+ * Writes per-partition sorted indexes for range predicates on integer columns. The index is a file
+ * next to the column data file, it is named after the column and versioned with the same column name
+ * txn as the data file. The file holds (value, row id) pairs of non-null rows ordered by value, so
+ * that the rows of a value range are found with a binary search, see
+ * {@link io.questdb.griffin.engine.table.SortedIndexRowCursorFactory}.
+ * <p>
+ * Values are stored encoded, see {@link #encode(long)}, so that they compare as unsigned numbers.
+ * IPv4 values are unsigned 32-bit numbers. File layout:
+ * <pre>
+ * [row count: 64-bit][entry count: 64-bit][entries: entry count * (value: 64-bit, row id: 64-bit)]
+ * </pre>
+ */
+public class SortedIndexWriter {
+    public static final long ENTRY_SIZE = 2 * Long.BYTES;
+    public static final long HEADER_SIZE = 2 * Long.BYTES;
+    public static final long OFFSET_ENTRY_COUNT = Long.BYTES;
+    public static final long OFFSET_ROW_COUNT = 0;
+    private static final Log LOG = LogFactory.getLog(SortedIndexWriter.class);
+    private final FilesFacade ff;
+
+    public SortedIndexWriter(FilesFacade ff) {
+        this.ff = ff;
+    }
+
+    /**
+     * Flips the sign bit, so that unsigned order of encoded values is the signed order of values.
+     */
+    public static long encode(long value) {
+        return value ^ Long.MIN_VALUE;
+    }
+
+    public static boolean isSupported(int columnType) {
+        switch (columnType) {
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.IPv4:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Writes sorted indexes of all supported columns in the partition. Columns with a column top
+     * are skipped.
+     *
+     * @param path                partition path, it is restored before the method returns
+     * @param metadata            writer metadata
+     * @param columnVersionReader column versions of the table
+     * @param partitionTimestamp  partition timestamp
+     * @param rowCount            number of rows in the partition
+     */
+    public void writePartition(
+            Path path,
+            RecordMetadata metadata,
+            ColumnVersionReader columnVersionReader,
+            long partitionTimestamp,
+            long rowCount
+    ) {
+        if (rowCount < 1) {
+            return;
+        }
+        final int plen = path.size();
+        try {
+            for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                final int columnType = metadata.getColumnType(i);
+                if (isSupported(columnType) && columnVersionReader.getColumnTop(partitionTimestamp, i) == 0) {
+                    final long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, i);
+                    writeColumn(path, plen, metadata.getColumnName(i), columnNameTxn, columnType, rowCount);
+                }
+            }
+        } finally {
+            path.trimTo(plen);
+        }
+    }
+
+    private static long addEntries(long entriesAddr, long address, int columnType, long rowCount) {
+        long entryAddr = entriesAddr;
+        switch (columnType) {
+            case ColumnType.LONG:
+                for (long r = 0; r < rowCount; r++) {
+                    final long value = Unsafe.getUnsafe().getLong(address + r * Long.BYTES);
+                    if (value != Numbers.LONG_NULL) {
+                        putEntry(entryAddr, encode(value), r);
+                        entryAddr += ENTRY_SIZE;
+                    }
+                }
+                break;
+            case ColumnType.INT:
+                for (long r = 0; r < rowCount; r++) {
+                    final int value = Unsafe.getUnsafe().getInt(address + r * Integer.BYTES);
+                    if (value != Numbers.INT_NULL) {
+                        putEntry(entryAddr, encode(value), r);
+                        entryAddr += ENTRY_SIZE;
+                    }
+                }
+                break;
+            default:
+                // ipv4
+                for (long r = 0; r < rowCount; r++) {
+                    final int value = Unsafe.getUnsafe().getInt(address + r * Integer.BYTES);
+                    if (value != Numbers.IPv4_NULL) {
+                        putEntry(entryAddr, encode(Numbers.ipv4ToLong(value)), r);
+                        entryAddr += ENTRY_SIZE;
+                    }
+                }
+                break;
+        }
+        return (entryAddr - entriesAddr) / ENTRY_SIZE;
+    }
+
+    private static void putEntry(long entryAddr, long encodedValue, long rowId) {
+        Unsafe.getUnsafe().putLong(entryAddr, encodedValue);
+        Unsafe.getUnsafe().putLong(entryAddr + Long.BYTES, rowId);
+    }
+
+    private void writeColumn(Path path, int plen, CharSequence columnName, long columnNameTxn, int columnType, long rowCount) {
+        final long bufSize = HEADER_SIZE + rowCount * ENTRY_SIZE;
+        final long buf = Unsafe.malloc(bufSize, MemoryTag.NATIVE_DEFAULT);
+        try {
+            final long entriesAddr = buf + HEADER_SIZE;
+            final long entryCount;
+            final long columnSize = rowCount << ColumnType.pow2SizeOf(columnType);
+            final int columnFd = TableUtils.openRO(ff, TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn), LOG);
+            try {
+                final long address = TableUtils.mapRO(ff, columnFd, columnSize, MemoryTag.MMAP_TABLE_WRITER);
+                try {
+                    entryCount = addEntries(entriesAddr, address, columnType, rowCount);
+                } finally {
+                    ff.munmap(address, columnSize, MemoryTag.MMAP_TABLE_WRITER);
+                }
+            } finally {
+                ff.close(columnFd);
+            }
+            // entries sort by the encoded value, the order of equal values does not matter
+            if (entryCount > 1) {
+                Vect.sortLongIndexAscInPlace(entriesAddr, entryCount);
+            }
+            Unsafe.getUnsafe().putLong(buf + OFFSET_ROW_COUNT, rowCount);
+            Unsafe.getUnsafe().putLong(buf + OFFSET_ENTRY_COUNT, entryCount);
+
+            final long size = HEADER_SIZE + entryCount * ENTRY_SIZE;
+            final int fd = TableUtils.openRW(ff, TableUtils.siFile(path.trimTo(plen), columnName, columnNameTxn), LOG, CairoConfiguration.O_NONE);
+            try {
+                if (ff.truncate(fd, 0) && ff.write(fd, buf, size, 0) == size) {
+                    return;
+                }
+                throw CairoException.critical(ff.errno()).put("could not write sorted index [file=").put(path).put(']');
+            } finally {
+                ff.close(fd);
+            }
+        } finally {
+            Unsafe.free(buf, bufSize, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+}
@@ -27,6 +27,7 @@ package io.questdb.cairo;
 import io.questdb.MessageBus;
 import io.questdb.cairo.sql.StaticSymbolTable;
 import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.vm.MemoryCMRCompressedImpl;
 import io.questdb.cairo.vm.NullMemoryMR;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMR;
@@ -836,15 +837,31 @@ public class TableReader implements Closeable, SymbolTableSource {
             @Nullable MemoryMR mem,
             long columnSize
     ) {
-        if (mem != null && mem != NullMemoryMR.INSTANCE) {
+        if (mem != null && mem != NullMemoryMR.INSTANCE && !(mem instanceof MemoryCMRCompressedImpl)) {
             mem.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_READER);
         } else {
+            Misc.free(mem);
             mem = Vm.getMRInstance(ff, path, columnSize, MemoryTag.MMAP_TABLE_READER, true);
             columns.setQuick(primaryIndex, mem);
         }
         return mem;
     }
 
+    private void openOrCreateCompressedMemory(
+            Path path,
+            ObjList<MemoryMR> columns,
+            int primaryIndex,
+            @Nullable MemoryMR mem,
+            long columnSize
+    ) {
+        if (!(mem instanceof MemoryCMRCompressedImpl)) {
+            Misc.free(mem);
+            mem = new MemoryCMRCompressedImpl();
+            columns.setQuick(primaryIndex, mem);
+        }
+        mem.of(ff, path, columnSize, columnSize, MemoryTag.NATIVE_TABLE_READER);
+    }
+
     private long openPartition0(int partitionIndex) {
         final int offset = partitionIndex * PARTITIONS_SLOT_SIZE;
         final boolean isReopen = openPartitionInfo.getQuick(offset + PARTITIONS_SLOT_OFFSET_SIZE) > -1L;
@@ -1092,6 +1109,16 @@ public class TableReader implements Closeable, SymbolTableSource {
                         TableUtils.dFile(path.trimTo(plen), name, columnTxn);
                         openOrCreateMemory(path, columns, primaryIndex, dataMem, dataSize);
                     }
+                } else if (txFile.isPartitionCompressed(partitionIndex) && PartitionCompressor.isSupported(columnType)) {
+                    TableUtils.dzFile(path.trimTo(plen), name, columnTxn);
+                    openOrCreateCompressedMemory(
+                            path,
+                            columns,
+                            primaryIndex,
+                            dataMem,
+                            columnRowCount << ColumnType.pow2SizeOf(columnType)
+                    );
+                    Misc.free(columns.getAndSetQuick(secondaryIndex, null));
                 } else {
                     TableUtils.dFile(path.trimTo(plen), name, columnTxn);
                     openOrCreateMemory(
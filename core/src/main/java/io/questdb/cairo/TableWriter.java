@@ -108,6 +108,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     // Publisher source is identified by a long value
     private final AlterOperation alterOp = new AlterOperation();
     private final LongConsumer appendTimestampSetter;
+    private final BloomFilterWriter bloomFilterWriter;
     private final ColumnVersionWriter columnVersionWriter;
     private final MPSequence commandPubSeq;
     private final RingQueue<TableWriterTask> commandQueue;
@@ -153,6 +154,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final DateFormat partitionDirFmt;
     private final PartitionFrameFactory partitionFrameFactory;
     private final LongList partitionRemoveCandidates = new LongList();
+    // sealed partitions that need zone maps, bloom filters and sorted indexes written on commit
+    private final LongList partitionStatsPending = new LongList();
     private final Path path;
     private final AtomicLong physicallyWrittenRowsSinceLastCommit = new AtomicLong();
     private final int rootLen;
@@ -161,6 +164,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final LongList rowValueIsNotNull = new LongList();
     private final TxReader slaveTxReader;
     private final DatabaseSnapshotAgent snapshotAgent;
+    private final SortedIndexWriter sortedIndexWriter;
     private final ObjList<MapWriter> symbolMapWriters;
     private final IntList symbolRewriteMap = new IntList();
     private final MemoryMARW todoMem = Vm.getMARWInstance();
@@ -175,6 +179,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final WeakClosableObjectPool<IntList> walFdCacheListPool = new WeakClosableObjectPool<>(IntList::new, 5, true);
     private final LongObjHashMap.LongObjConsumer<IntList> walFdCloseCachedFdAction;
     private final ObjList<MemoryCMOR> walMappedColumns = new ObjList<>();
+    private final ZoneMapWriter zoneMapWriter;
     private ObjList<? extends MemoryA> activeColumns;
     private ObjList<Runnable> activeNullSetters;
     private ColumnVersionReader attachColumnVersionReader;
@@ -219,6 +224,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private long o3RowCount;
     private MemoryMAT o3TimestampMem;
     private MemoryARW o3TimestampMemCpy;
+    private PartitionCompressor partitionCompressor;
+    private long partitionCompressionLastPartitionTimestamp = Long.MIN_VALUE;
+    private long partitionStatsLastPartitionTimestamp = Long.MIN_VALUE;
     private long partitionTimestampHi;
     private boolean performRecovery;
     private boolean processingQueue;
@@ -354,6 +362,13 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             this.appendTimestampSetter = timestampSetter;
             configureAppendPosition();
             purgeUnusedPartitions();
+            final boolean partitioned = PartitionBy.isPartitioned(partitionBy);
+            this.zoneMapWriter = configuration.isZoneMapEnabled() && partitioned ? new ZoneMapWriter(ff) : null;
+            this.bloomFilterWriter = configuration.isBloomFilterEnabled() && partitioned ? new BloomFilterWriter(ff) : null;
+            this.sortedIndexWriter = configuration.isSortedIndexEnabled() && partitioned ? new SortedIndexWriter(ff) : null;
+            if (isPartitionStatsEnabled() && txWriter.getPartitionCount() > 0) {
+                this.partitionStatsLastPartitionTimestamp = txWriter.getLastPartitionTimestamp();
+            }
             minSplitPartitionTimestamp = findMinSplitPartitionTimestamp();
             clearTodoLog();
             this.slaveTxReader = new TxReader(ff);
@@ -598,6 +613,10 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             throw CairoException.invalidMetadataRecoverable("cannot create index, column type is not SYMBOL", columnName);
         }
 
+        if (hasCompressedPartitions()) {
+            throw CairoException.invalidMetadataRecoverable("cannot create index, table has compressed partitions", columnName);
+        }
+
         final SymbolColumnIndexer indexer = new SymbolColumnIndexer(configuration);
         writeIndex(columnName, indexValueBlockSize, columnIndex, indexer);
         // set index flag in metadata and  create new _meta.swp
@@ -855,6 +874,11 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                     .put(tableToken.getTableName()).put(", column=").put(columnName).put(']');
         }
 
+        if (hasCompressedPartitions()) {
+            throw CairoException.nonCritical().put("cannot change column type, table has compressed partitions [table=")
+                    .put(tableToken.getTableName()).put(", column=").put(columnName).put(']');
+        }
+
         ConvertOperatorImpl convertOperator = getConvertOperator();
         try {
             commit();
@@ -1066,6 +1090,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             // Bookmark masterRef to track how many rows is in uncommitted state
             committedMasterRef = masterRef;
             processPartitionRemoveCandidates();
+            writePartitionStats();
+            compressColdPartitions();
 
             metrics.tableWriter().incrementCommits();
             metrics.tableWriter().addCommittedRows(rowsAdded);
@@ -1081,6 +1107,66 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return 0L;
     }
 
+    /**
+     * Compresses fixed-size integer columns of a sealed partition, see {@link PartitionCompressor}.
+     * The partition is rewritten under a new partition name txn, the old version is purged once
+     * no reader uses it. Compressed partitions are read only.
+     *
+     * @param timestamp timestamp of the partition to compress
+     */
+    @Override
+    public void compressPartition(long timestamp) {
+        if (!PartitionBy.isPartitioned(partitionBy)) {
+            throw CairoException.nonCritical().put("cannot compress partition, table is not partitioned [table=")
+                    .put(tableToken.getTableName()).put(']');
+        }
+
+        if (inTransaction()) {
+            LOG.info()
+                    .$("committing open transaction before applying compress partition command [table=")
+                    .utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(timestamp)
+                    .I$();
+            commit();
+        }
+
+        timestamp = txWriter.getLogicalPartitionTimestamp(timestamp);
+        if (timestamp == txWriter.getLogicalPartitionTimestamp(txWriter.getMaxTimestamp())) {
+            throw CairoException.partitionManipulationRecoverable()
+                    .put("cannot compress active partition [table=").put(tableToken.getTableName())
+                    .put(", partition=").ts(timestamp).put(']');
+        }
+
+        int partitionIndex = txWriter.getPartitionIndex(timestamp);
+        if (partitionIndex < 0) {
+            throw CairoException.partitionManipulationRecoverable()
+                    .put("partition does not exist [table=").put(tableToken.getTableName())
+                    .put(", partition=").ts(timestamp).put(']');
+        }
+
+        if (txWriter.isPartitionCompressed(partitionIndex)) {
+            LOG.info().$("partition is already compressed [table=").utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(timestamp)
+                    .I$();
+            return;
+        }
+
+        if (txWriter.isPartitionReadOnly(partitionIndex)) {
+            throw CairoException.partitionManipulationRecoverable()
+                    .put("cannot compress read-only partition [table=").put(tableToken.getTableName())
+                    .put(", partition=").ts(timestamp).put(']');
+        }
+
+        if (snapshotAgent.isInProgress()) {
+            throw CairoException.nonCritical().put("cannot compress partition, snapshot in progress [table=")
+                    .put(tableToken.getTableName()).put(']');
+        }
+
+        // compress a single folder, squash split partitions first
+        squashPartitionForce(partitionIndex);
+        compressPartition0(txWriter.getPartitionIndex(timestamp));
+    }
+
     public void destroy() {
         // Closes all the files and makes this instance unusable e.g. it cannot return to the pool on close.
         LOG.info().$("closing table files [table=").utf8(tableToken.getTableName())
@@ -1114,6 +1200,11 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             return AttachDetachStatus.DETACH_ERR_MISSING_PARTITION;
         }
 
+        if (txWriter.isPartitionCompressed(partitionIndex)) {
+            // attach expects plain column files
+            return AttachDetachStatus.DETACH_ERR_COMPRESSED;
+        }
+
         // To detach the partition, squash it into single folder if required
         squashPartitionForce(partitionIndex);
 
@@ -2629,6 +2720,12 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return index;
     }
 
+    private void addPartitionStatsPending(long partitionTimestamp) {
+        if (partitionStatsPending.indexOf(partitionTimestamp) < 0) {
+            partitionStatsPending.add(partitionTimestamp);
+        }
+    }
+
     private long applyFromWalLagToLastPartition(long commitToTimestamp) {
         long lagMinTimestamp = txWriter.getLagMinTimestamp();
         if (!isDeduplicationEnabled()
@@ -3294,6 +3391,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             // Bookmark masterRef to track how many rows is in uncommitted state
             this.committedMasterRef = masterRef;
             processPartitionRemoveCandidates();
+            writePartitionStats();
+            compressColdPartitions();
 
             metrics.tableWriter().incrementCommits();
             metrics.tableWriter().addCommittedRows(rowsAdded);
@@ -3430,6 +3529,92 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private void compressColdPartitions() {
+        final long compressionAge = configuration.getPartitionCompressionAge();
+        if (compressionAge < 1 || !PartitionBy.isPartitioned(partitionBy) || txWriter.getPartitionCount() < 2) {
+            return;
+        }
+
+        // partitions can only get old enough when the last partition changes
+        final long lastPartitionTimestamp = txWriter.getLastPartitionTimestamp();
+        if (lastPartitionTimestamp == partitionCompressionLastPartitionTimestamp || snapshotAgent.isInProgress()) {
+            return;
+        }
+        partitionCompressionLastPartitionTimestamp = lastPartitionTimestamp;
+
+        final long maxTimestamp = txWriter.getMaxTimestamp();
+        // do not cache partition count, squashing split partitions changes it
+        for (int i = 0; i < txWriter.getPartitionCount() - 1; i++) {
+            final long partitionTimestamp = txWriter.getPartitionTimestampByIndex(i);
+            if (txWriter.getNextPartitionTimestamp(partitionTimestamp) > maxTimestamp - compressionAge) {
+                break;
+            }
+            // read-only partitions are either compressed already or attached via soft link
+            if (!txWriter.isPartitionReadOnly(i)) {
+                final long logicalTimestamp = txWriter.getLogicalPartitionTimestamp(partitionTimestamp);
+                try {
+                    squashPartitionForce(i);
+                    compressPartition0(txWriter.getPartitionIndex(logicalTimestamp));
+                } catch (CairoException e) {
+                    // compression is an optimisation, the partition stays as it is
+                    LOG.error().$("could not compress partition [table=").utf8(tableToken.getTableName())
+                            .$(", partition=").$ts(partitionTimestamp)
+                            .$(", msg=").$(e.getFlyweightMessage())
+                            .$(", errno=").$(e.getErrno())
+                            .I$();
+                    return;
+                }
+                i = txWriter.getPartitionIndex(logicalTimestamp);
+            }
+        }
+    }
+
+    private void compressPartition0(int partitionIndex) {
+        final long partitionTimestamp = txWriter.getPartitionTimestampByIndex(partitionIndex);
+        final long partitionNameTxn = txWriter.getPartitionNameTxn(partitionIndex);
+        final long partitionSize = txWriter.getPartitionSize(partitionIndex);
+        assert partitionNameTxn < txWriter.txn;
+
+        try {
+            setPathForPartition(path.trimTo(rootLen), partitionBy, partitionTimestamp, partitionNameTxn);
+            setPathForPartition(other.trimTo(rootLen), partitionBy, partitionTimestamp, txWriter.txn);
+            if (ff.exists(other.$())) {
+                LOG.info().$("removing leftover partition version [path=").$(other).I$();
+                if (!ff.rmdir(other)) {
+                    throw CairoException.critical(ff.errno()).put("could not remove [path=").put(other).put(']');
+                }
+            }
+
+            LOG.info().$("compressing partition [table=").utf8(tableToken.getTableName())
+                    .$(", from=").$(path.$())
+                    .$(", to=").$(other.$())
+                    .$(", rowCount=").$(partitionSize)
+                    .I$();
+            if (ff.hardLinkDirRecursive(path, other, mkDirMode) != 0) {
+                throw CairoException.critical(ff.errno()).put("could not create hard link to partition [from=").put(path)
+                        .put(", to=").put(other)
+                        .put(']');
+            }
+
+            try {
+                getPartitionCompressor().compressPartition(other, metadata, columnVersionWriter, partitionTimestamp, partitionSize);
+            } catch (Throwable th) {
+                ff.rmdir(other.$());
+                throw th;
+            }
+        } finally {
+            path.trimTo(rootLen);
+            other.trimTo(rootLen);
+        }
+
+        txWriter.updatePartitionSizeAndTxnByRawIndex(partitionIndex * LONGS_PER_TX_ATTACHED_PARTITION, partitionSize);
+        txWriter.setPartitionCompressed(partitionIndex);
+        txWriter.bumpPartitionTableVersion();
+        txWriter.commit(denseSymbolMapWriters);
+        partitionRemoveCandidates.add(partitionTimestamp, partitionNameTxn);
+        processPartitionRemoveCandidates();
+    }
+
     private void consumeColumnTasks(RingQueue<ColumnTask> queue, int queuedCount) {
         // This is work stealing, can run tasks from other table writers
         final Sequence subSeq = this.messageBus.getColumnTaskSubSeq();
@@ -4381,9 +4566,11 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         Misc.free(slaveTxReader);
         Misc.free(commandQueue);
         Misc.free(dedupColumnCommitAddresses);
+        Misc.free(zoneMapWriter);
         closeWalFiles();
         updateOperatorImpl = Misc.free(updateOperatorImpl);
         convertOperatorImpl = Misc.free(convertOperatorImpl);
+        partitionCompressor = Misc.free(partitionCompressor);
         dropIndexOperator = null;
         noOpRowCount = 0L;
         lastOpenPartitionTs = Long.MIN_VALUE;
@@ -4708,6 +4895,13 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return columns.getQuick(getPrimaryColumnIndex(column));
     }
 
+    private PartitionCompressor getPartitionCompressor() {
+        if (partitionCompressor == null) {
+            partitionCompressor = new PartitionCompressor(ff, configuration.getCommitMode());
+        }
+        return partitionCompressor;
+    }
+
     private PurgingOperator getPurgingOperator() {
         if (purgingOperator == null) {
             purgingOperator = new PurgingOperator(LOG, configuration, messageBus);
@@ -4809,6 +5003,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         setPathForPartition(other, partitionBy, partitionTimestamp, partitionNameTxn);
         int plen = path.size();
         linkFile(ff, dFile(path.trimTo(plen), columnName, columnNameTxn), dFile(other.trimTo(plen), newName, newColumnNameTxn));
+        linkFile(ff, dzFile(path.trimTo(plen), columnName, columnNameTxn), dzFile(other.trimTo(plen), newName, newColumnNameTxn));
         if (ColumnType.isVarSize(columnType)) {
             linkFile(ff, iFile(path.trimTo(plen), columnName, columnNameTxn), iFile(other.trimTo(plen), newName, newColumnNameTxn));
         } else if (ColumnType.isSymbol(columnType) && metadata.isColumnIndexed(columnIndex)) {
@@ -4820,6 +5015,15 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         purgingOperator.add(columnIndex, columnNameTxn, partitionTimestamp, partitionNameTxn);
     }
 
+    private boolean hasCompressedPartitions() {
+        for (int i = 0, n = txWriter.getPartitionCount(); i < n; i++) {
+            if (txWriter.isPartitionCompressed(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void indexHistoricPartitions(SymbolColumnIndexer indexer, CharSequence columnName, int indexValueBlockSize, int columnIndex) {
         long ts = this.txWriter.getMaxTimestamp();
         if (ts > Numbers.LONG_NULL) {
@@ -4901,6 +5105,10 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return false;
     }
 
+    private boolean isPartitionStatsEnabled() {
+        return zoneMapWriter != null || bloomFilterWriter != null || sortedIndexWriter != null;
+    }
+
     private void lock() {
         try {
             path.trimTo(rootLen);
@@ -5410,6 +5618,11 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                     }
                     txWriter.updatePartitionSizeByRawIndex(partitionIndexRaw, partitionTimestamp, srcDataNewPartitionSize);
                 }
+
+                if (isPartitionStatsEnabled()) {
+                    addPartitionStatsPending(partitionTimestamp);
+                    addPartitionStatsPending(newPartitionTimestamp);
+                }
             }
         }
         txWriter.transientRowCount = commitTransientRowCount;
@@ -6271,11 +6484,20 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private long readMinTimestamp(long partitionTimestamp) {
         setStateForTimestamp(other, partitionTimestamp);
         try {
-            dFile(other, metadata.getColumnName(metadata.getTimestampIndex()), COLUMN_NAME_TXN_NONE);
+            final CharSequence timestampColumnName = metadata.getColumnName(metadata.getTimestampIndex());
+            final boolean compressed = txWriter.isPartitionCompressed(txWriter.getPartitionIndex(partitionTimestamp));
+            if (compressed) {
+                TableUtils.dzFile(other, timestampColumnName, COLUMN_NAME_TXN_NONE);
+            } else {
+                dFile(other, timestampColumnName, COLUMN_NAME_TXN_NONE);
+            }
             if (ff.exists(other)) {
                 // read min timestamp value
                 final int fd = TableUtils.openRO(ff, other, LOG);
                 try {
+                    if (compressed) {
+                        return PartitionCompressor.readFirstValue(ff, fd, tempMem16b, other);
+                    }
                     return TableUtils.readLongOrFail(ff, fd, 0, tempMem16b, other);
                 } finally {
                     ff.close(fd);
@@ -7343,6 +7565,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                     }
 
                     txWriter.updatePartitionSizeByTimestamp(targetPartition, targetFrame.getRowCount());
+                    if (isPartitionStatsEnabled()) {
+                        addPartitionStatsPending(targetPartition);
+                    }
                     if (lastPartitionSquashed) {
                         // last partition is squashed, adjust fixed/transient row sizes
                         long newTransientRowCount = targetFrame.getRowCount() - txWriter.getLagRowCount();
@@ -7488,6 +7713,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         txWriter.resetTimestamp();
         columnVersionWriter.truncate();
         txWriter.truncate(columnVersionWriter.getVersion(), denseSymbolMapWriters);
+        partitionStatsPending.clear();
+        partitionStatsLastPartitionTimestamp = Long.MIN_VALUE;
         try {
             clearTodoLog();
         } catch (CairoException e) {
@@ -7811,6 +8038,64 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    /**
+     * Writes zone maps, bloom filters and sorted indexes of partitions sealed or rewritten since the previous commit.
+     */
+    private void writePartitionStats() {
+        if (!isPartitionStatsEnabled()) {
+            return;
+        }
+
+        final int partitionCount = txWriter.getPartitionCount();
+        if (partitionCount > 0) {
+            final long lastPartitionTimestamp = txWriter.getLastPartitionTimestamp();
+            if (lastPartitionTimestamp != partitionStatsLastPartitionTimestamp) {
+                // Partitions sealed since the previous commit. Start from the partition before the old
+                // last partition in case the latter was dropped, and its predecessor got appended to.
+                int partitionIndex = txWriter.findAttachedPartitionIndexByLoTimestamp(partitionStatsLastPartitionTimestamp);
+                if (partitionIndex < 0) {
+                    partitionIndex = Math.max(0, -partitionIndex - 2);
+                }
+                for (; partitionIndex < partitionCount - 1; partitionIndex++) {
+                    addPartitionStatsPending(txWriter.getPartitionTimestampByIndex(partitionIndex));
+                }
+                partitionStatsLastPartitionTimestamp = lastPartitionTimestamp;
+            }
+        }
+
+        for (int i = 0, n = partitionStatsPending.size(); i < n; i++) {
+            final long partitionTimestamp = partitionStatsPending.getQuick(i);
+            final int partitionIndex = txWriter.findAttachedPartitionIndexByLoTimestamp(partitionTimestamp);
+            // the last partition is still being appended to, it gets partition stats once it is sealed
+            if (partitionIndex < 0 || partitionIndex == partitionCount - 1) {
+                continue;
+            }
+            final long partitionSize = txWriter.getPartitionSize(partitionIndex);
+            try {
+                setPathForPartition(path.trimTo(rootLen), partitionBy, partitionTimestamp, txWriter.getPartitionNameTxn(partitionIndex));
+                if (zoneMapWriter != null) {
+                    zoneMapWriter.writePartition(path, metadata, columnVersionWriter, partitionTimestamp, partitionSize);
+                }
+                if (bloomFilterWriter != null) {
+                    bloomFilterWriter.writePartition(path, metadata, columnVersionWriter, partitionTimestamp, partitionSize);
+                }
+                if (sortedIndexWriter != null) {
+                    sortedIndexWriter.writePartition(path, metadata, columnVersionWriter, partitionTimestamp, partitionSize);
+                }
+            } catch (CairoException e) {
+                // partition stats are optional, queries scan partitions without them
+                LOG.error().$("could not write partition stats [table=").utf8(tableToken.getTableName())
+                        .$(", partition=").$ts(partitionTimestamp)
+                        .$(", msg=").$(e.getFlyweightMessage())
+                        .$(", errno=").$(e.getErrno())
+                        .I$();
+            } finally {
+                path.trimTo(rootLen);
+            }
+        }
+        partitionStatsPending.clear();
+    }
+
     private void writeRestoreMetaTodo(CharSequence columnName) {
         try {
             writeRestoreMetaTodo();
@@ -363,6 +363,18 @@ public final class TxWriter extends TxReader implements Closeable, Mutable, Symb
         }
     }
 
+    /**
+     * Marks partition as compressed. Compressed partitions are read only, so the read-only bit is set too.
+     *
+     * @param partitionIndex index of the partition
+     */
+    public void setPartitionCompressed(int partitionIndex) {
+        int offset = partitionIndex * LONGS_PER_TX_ATTACHED_PARTITION + PARTITION_MASKED_SIZE_OFFSET;
+        long maskedSize = attachedPartitions.getQuick(offset);
+        maskedSize |= 1L << PARTITION_MASK_COMPRESSED_BIT_OFFSET;
+        attachedPartitions.setQuick(offset, updatePartitionIsReadOnly(maskedSize, true));
+    }
+
     public void setPartitionReadOnly(int partitionIndex, boolean isReadOnly) {
         setPartitionReadOnlyByRawIndex(partitionIndex * LONGS_PER_TX_ATTACHED_PARTITION, isReadOnly);
     }
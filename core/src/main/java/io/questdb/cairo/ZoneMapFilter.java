@@ -0,0 +1,158 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.DoubleList;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+
+/**
+ * Conjunction of column range predicates, e.g. <code>price &gt; 1000 and account_id = 42</code>,
+ * that is checked against partition zone maps written by {@link ZoneMapWriter}. A partition
+ * is excluded when at least one of the predicates cannot match any of its rows.
+ * <p>
+ * Partitions without a valid zone map, such as the last partition, are never excluded.
+ * Row filter must still be applied to partitions that are not excluded.
+ */
+public class ZoneMapFilter implements QuietCloseable {
+    private final IntList columnIndexes = new IntList();
+    private final DoubleList doubleBounds = new DoubleList();
+    private final FilesFacade ff;
+    private final LongList longBounds = new LongList();
+    private final CharSequence root;
+    private long buf;
+    private Path path = new Path();
+
+    public ZoneMapFilter(CairoConfiguration configuration) {
+        this.ff = configuration.getFilesFacade();
+        this.root = configuration.getRoot();
+        this.buf = Unsafe.malloc(ZoneMapWriter.ZONE_MAP_SIZE, MemoryTag.NATIVE_DEFAULT);
+    }
+
+    /**
+     * Adds inclusive range predicate on a double column.
+     */
+    public void addDoubleRange(int columnIndex, double lo, double hi) {
+        columnIndexes.add(columnIndex);
+        doubleBounds.add(lo);
+        doubleBounds.add(hi);
+        longBounds.add(0);
+        longBounds.add(0);
+    }
+
+    /**
+     * Adds inclusive range predicate on an integer, date or timestamp column.
+     */
+    public void addLongRange(int columnIndex, long lo, long hi) {
+        columnIndexes.add(columnIndex);
+        longBounds.add(lo);
+        longBounds.add(hi);
+        doubleBounds.add(0);
+        doubleBounds.add(0);
+    }
+
+    @Override
+    public void close() {
+        path = Misc.free(path);
+        if (buf != 0) {
+            Unsafe.free(buf, ZoneMapWriter.ZONE_MAP_SIZE, MemoryTag.NATIVE_DEFAULT);
+            buf = 0;
+        }
+    }
+
+    /**
+     * @param reader         table reader
+     * @param partitionIndex partition index
+     * @return true when the zone maps prove that none of the partition rows match the filter
+     */
+    public boolean isPartitionExcluded(TableReader reader, int partitionIndex) {
+        if (!PartitionBy.isPartitioned(reader.getPartitionedBy()) || partitionIndex == reader.getPartitionCount() - 1) {
+            // the last partition is still being written to, it does not have a zone map
+            return false;
+        }
+
+        final TxReader txFile = reader.getTxFile();
+        final long partitionTimestamp = txFile.getPartitionTimestampByIndex(partitionIndex);
+        final long rowCount = txFile.getPartitionSize(partitionIndex);
+        path.of(root).concat(reader.getTableToken().getDirName());
+        TableUtils.setPathForPartition(path, reader.getPartitionedBy(), partitionTimestamp, txFile.getPartitionNameTxn(partitionIndex));
+        final int plen = path.size();
+
+        final TableReaderMetadata metadata = reader.getMetadata();
+        for (int i = 0, n = columnIndexes.size(); i < n; i++) {
+            final int columnIndex = columnIndexes.getQuick(i);
+            final long columnNameTxn = reader.getColumnVersionReader().getColumnNameTxn(
+                    partitionTimestamp,
+                    metadata.getWriterIndex(columnIndex)
+            );
+            if (readZoneMap(TableUtils.zmFile(path.trimTo(plen), metadata.getColumnName(columnIndex), columnNameTxn), rowCount)
+                    && isExcluded(i, metadata.getColumnType(columnIndex))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return columnIndexes.size();
+    }
+
+    private boolean isExcluded(int predicateIndex, int columnType) {
+        final long nullCount = Unsafe.getUnsafe().getLong(buf + ZoneMapWriter.OFFSET_NULL_COUNT);
+        final long rowCount = Unsafe.getUnsafe().getLong(buf + ZoneMapWriter.OFFSET_ROW_COUNT);
+        final long min = Unsafe.getUnsafe().getLong(buf + ZoneMapWriter.OFFSET_MIN);
+        final long max = Unsafe.getUnsafe().getLong(buf + ZoneMapWriter.OFFSET_MAX);
+        // null never matches a comparison with a non-null constant
+        if (nullCount == rowCount) {
+            return true;
+        }
+        if (columnType == ColumnType.DOUBLE) {
+            return Double.longBitsToDouble(max) < doubleBounds.getQuick(2 * predicateIndex)
+                    || Double.longBitsToDouble(min) > doubleBounds.getQuick(2 * predicateIndex + 1);
+        }
+        return max < longBounds.getQuick(2 * predicateIndex) || min > longBounds.getQuick(2 * predicateIndex + 1);
+    }
+
+    private boolean readZoneMap(LPSZ file, long rowCount) {
+        final int fd = ff.openRO(file);
+        if (fd < 0) {
+            return false;
+        }
+        try {
+            return ff.read(fd, buf, ZoneMapWriter.ZONE_MAP_SIZE, 0) == ZoneMapWriter.ZONE_MAP_SIZE
+                    // zone map of an older partition version, e.g. before an O3 append
+                    && Unsafe.getUnsafe().getLong(buf + ZoneMapWriter.OFFSET_ROW_COUNT) == rowCount;
+        } finally {
+            ff.close(fd);
+        }
+    }
+}
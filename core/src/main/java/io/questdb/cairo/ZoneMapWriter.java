@@ -0,0 +1,176 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+import io.questdb.std.str.Path;
+
+/**
+ * Writes zone maps, i.e. per-partition column statistics. A zone map is a small file next
+ * to the column data file, it is named after the column and versioned with the same column
+ * name txn as the data file. Queries use zone maps to skip partitions that cannot match
+ * the filter, see {@link ZoneMapFilter}.
+ * <p>
+ * File layout, all values are 64-bit:
+ * <pre>
+ * [row count][null count][min][max]
+ * </pre>
+ * Min/max exclude nulls, they are the null value when all rows are null. Double min/max are
+ * stored as raw bits.
+ */
+public class ZoneMapWriter implements QuietCloseable {
+    static final long OFFSET_MAX = 3 * Long.BYTES;
+    static final long OFFSET_MIN = 2 * Long.BYTES;
+    static final long OFFSET_NULL_COUNT = Long.BYTES;
+    static final long OFFSET_ROW_COUNT = 0;
+    static final long ZONE_MAP_SIZE = 4 * Long.BYTES;
+    private static final Log LOG = LogFactory.getLog(ZoneMapWriter.class);
+    private final FilesFacade ff;
+    private long buf;
+
+    public ZoneMapWriter(FilesFacade ff) {
+        this.ff = ff;
+        this.buf = Unsafe.malloc(ZONE_MAP_SIZE, MemoryTag.NATIVE_DEFAULT);
+    }
+
+    public static boolean isSupported(int columnType) {
+        switch (columnType) {
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (buf != 0) {
+            Unsafe.free(buf, ZONE_MAP_SIZE, MemoryTag.NATIVE_DEFAULT);
+            buf = 0;
+        }
+    }
+
+    /**
+     * Writes zone maps of all supported columns in the partition. Columns with a column top
+     * are skipped.
+     *
+     * @param path                partition path, it is restored before the method returns
+     * @param metadata            writer metadata
+     * @param columnVersionReader column versions of the table
+     * @param partitionTimestamp  partition timestamp
+     * @param rowCount            number of rows in the partition
+     */
+    public void writePartition(
+            Path path,
+            RecordMetadata metadata,
+            ColumnVersionReader columnVersionReader,
+            long partitionTimestamp,
+            long rowCount
+    ) {
+        if (rowCount < 1) {
+            return;
+        }
+        final int plen = path.size();
+        try {
+            for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                final int columnType = metadata.getColumnType(i);
+                if (isSupported(columnType) && columnVersionReader.getColumnTop(partitionTimestamp, i) == 0) {
+                    final long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, i);
+                    writeColumn(path, plen, metadata.getColumnName(i), columnNameTxn, columnType, rowCount);
+                }
+            }
+        } finally {
+            path.trimTo(plen);
+        }
+    }
+
+    private void computeZoneMap(long address, int columnType, long rowCount) {
+        long nullCount = 0;
+        long min;
+        long max;
+        switch (columnType) {
+            case ColumnType.SHORT:
+                min = Vect.minShort(address, rowCount);
+                max = Vect.maxShort(address, rowCount);
+                break;
+            case ColumnType.INT:
+                nullCount = rowCount - Vect.countInt(address, rowCount);
+                min = Vect.minInt(address, rowCount);
+                max = Vect.maxInt(address, rowCount);
+                break;
+            case ColumnType.DOUBLE:
+                nullCount = rowCount - Vect.countDouble(address, rowCount);
+                min = Double.doubleToRawLongBits(Vect.minDouble(address, rowCount));
+                max = Double.doubleToRawLongBits(Vect.maxDouble(address, rowCount));
+                break;
+            default:
+                // long, date and timestamp
+                nullCount = rowCount - Vect.countLong(address, rowCount);
+                min = Vect.minLong(address, rowCount);
+                max = Vect.maxLong(address, rowCount);
+                break;
+        }
+        Unsafe.getUnsafe().putLong(buf + OFFSET_ROW_COUNT, rowCount);
+        Unsafe.getUnsafe().putLong(buf + OFFSET_NULL_COUNT, nullCount);
+        Unsafe.getUnsafe().putLong(buf + OFFSET_MIN, min);
+        Unsafe.getUnsafe().putLong(buf + OFFSET_MAX, max);
+    }
+
+    private void writeColumn(Path path, int plen, CharSequence columnName, long columnNameTxn, int columnType, long rowCount) {
+        final long size = rowCount << ColumnType.pow2SizeOf(columnType);
+        int fd = TableUtils.openRO(ff, TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn), LOG);
+        try {
+            final long address = TableUtils.mapRO(ff, fd, size, MemoryTag.MMAP_TABLE_WRITER);
+            try {
+                computeZoneMap(address, columnType, rowCount);
+            } finally {
+                ff.munmap(address, size, MemoryTag.MMAP_TABLE_WRITER);
+            }
+        } finally {
+            ff.close(fd);
+        }
+
+        fd = TableUtils.openRW(ff, TableUtils.zmFile(path.trimTo(plen), columnName, columnNameTxn), LOG, CairoConfiguration.O_NONE);
+        try {
+            if (ff.write(fd, buf, ZONE_MAP_SIZE, 0) != ZONE_MAP_SIZE) {
+                throw CairoException.critical(ff.errno()).put("could not write zone map [file=").put(path).put(']');
+            }
+        } finally {
+            ff.close(fd);
+        }
+    }
+}
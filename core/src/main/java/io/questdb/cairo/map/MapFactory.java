@@ -71,6 +71,18 @@ public class MapFactory {
         );
     }
 
+    /**
+     * Creates a look-up table Map for a single SYMBOL key. The capacity should cover the symbol key range,
+     * i.e. the symbol count plus one slot for the null symbol.
+     */
+    public static Map createSymbolLookupMap(
+            @Transient @NotNull ColumnTypes keyTypes,
+            @Transient @Nullable ColumnTypes valueTypes,
+            int keyCapacity
+    ) {
+        return new SymbolLookupMap(keyTypes, valueTypes, keyCapacity);
+    }
+
     /**
      * Creates an unordered Map pre-allocated to a small capacity to be used in GROUP BY queries, but not only.
      * <p>
@@ -153,6 +165,20 @@ public class MapFactory {
         );
     }
 
+    /**
+     * Returns true if the given key and value columns can be stored in a look-up table Map
+     * created with {@link #createSymbolLookupMap(ColumnTypes, ColumnTypes, int)}.
+     * Unlike with unordered maps, there is no entry size limit since look-ups involve no probing.
+     */
+    public static boolean isSymbolLookupMapSupported(
+            @Transient @NotNull ColumnTypes keyTypes,
+            @Transient @Nullable ColumnTypes valueTypes
+    ) {
+        return keyTypes.getColumnCount() == 1
+                && ColumnType.isSymbol(keyTypes.getColumnType(0))
+                && totalSize(valueTypes) >= 0;
+    }
+
     /**
      * Returns total size in case of all fixed-size columns
      * or -1 if there is a var-size column in the given list.
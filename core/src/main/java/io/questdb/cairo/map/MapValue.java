@@ -75,6 +75,13 @@ public interface MapValue extends Record {
 
     long getTimestamp(int index);
 
+    /**
+     * Returns address of the first value column. Value columns are stored contiguously,
+     * in the order of value types, so the returned address can be used for in-place
+     * bulk updates of the value.
+     */
+    long getValueAddress();
+
     boolean isNew();
 
     void maxInt(int index, int value);
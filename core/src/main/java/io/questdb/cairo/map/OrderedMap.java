@@ -94,6 +94,7 @@ public class OrderedMap implements Map, Reopenable {
     private final OrderedMapValue value2;
     private final OrderedMapValue value3;
     private final int valueColumnCount;
+    private final long[] valueOffsets;
     private final long valueSize;
     private int free;
     private long heapLimit; // Heap memory limit pointer.
@@ -213,6 +214,7 @@ public class OrderedMap implements Map, Reopenable {
                 valueColumnCount = 0;
             }
             this.valueSize = valueSize;
+            this.valueOffsets = valueOffsets;
 
             value = new OrderedMapValue(valueSize, valueOffsets);
             value2 = new OrderedMapValue(valueSize, valueOffsets);
@@ -256,6 +258,34 @@ public class OrderedMap implements Map, Reopenable {
         }
     }
 
+    /**
+     * Read-only lookup that may run concurrently with other such lookups. Unlike
+     * {@link MapKey#findValue()}, the key is expected to be written with a key of
+     * another map with the same key types, e.g. a per-worker one, and the found
+     * value is written to the given value object, so the map's own state is left
+     * intact. The map must not be modified while concurrent lookups take place.
+     *
+     * @param key      committed key of a map with the same key types
+     * @param hashCode key hash code
+     * @param value    value object obtained via {@link #newValue()}
+     * @return the given value pointing to the found entry or null if there is no such key
+     */
+    public MapValue findValueConcurrent(MapKey key, long hashCode, MapValue value) {
+        final Key srcKey = (Key) key;
+        final int hashCodeLo = Numbers.decodeLowInt(hashCode);
+        int index = hashCodeLo & mask;
+        long offset;
+        while ((offset = getOffset(offsets, index)) > -1) {
+            if (hashCodeLo == getHashCodeLo(offsets, index) && eqConcurrent(srcKey, offset)) {
+                final long startAddress = heapStart + offset;
+                final long keySize = this.keySize != -1 ? this.keySize : Unsafe.getUnsafe().getInt(startAddress);
+                return valueOf(startAddress, startAddress + keyOffset + keySize, false, (OrderedMapValue) value);
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
     public long getAppendOffset() {
         return kPos;
     }
@@ -303,6 +333,13 @@ public class OrderedMap implements Map, Reopenable {
         mergeRef.merge((OrderedMap) srcMap, mergeFunc);
     }
 
+    /**
+     * Creates a value object to be used in {@link #findValueConcurrent(MapKey, long, MapValue)}.
+     */
+    public MapValue newValue() {
+        return new OrderedMapValue(valueSize, valueOffsets);
+    }
+
     @Override
     public void reopen(int keyCapacity, long heapSize) {
         if (heapStart == 0) {
@@ -398,6 +435,16 @@ public class OrderedMap implements Map, Reopenable {
         return valueOf(keyWriter.startAddress, keyWriter.appendAddress, true, value);
     }
 
+    private boolean eqConcurrent(Key srcKey, long offset) {
+        final long startAddress = heapStart + offset;
+        if (keySize != -1) {
+            return Vect.memeq(startAddress, srcKey.startAddress, keySize);
+        }
+        final int len = Unsafe.getUnsafe().getInt(srcKey.startAddress);
+        return Unsafe.getUnsafe().getInt(startAddress) == len
+                && Vect.memeq(startAddress + keyOffset, srcKey.startAddress + keyOffset, len);
+    }
+
     private void mergeFixedSizeKey(OrderedMap srcMap, MapValueMergeFunction mergeFunc) {
         assert keySize >= 0;
 
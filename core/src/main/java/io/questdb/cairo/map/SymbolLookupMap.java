@@ -0,0 +1,521 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.map;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.*;
+import io.questdb.std.bytes.Bytes;
+import io.questdb.std.str.Utf8Sequence;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * SymbolLookupMap is a look-up table (not a hash table) with a single SYMBOL key used to store
+ * intermediate data of group by queries. Symbol keys are dense ints, so each key has its own slot
+ * in the table and no hashing or probing is involved. It provides {@link MapKey} and {@link MapValue},
+ * as well as {@link RecordCursor} interfaces for data access and modification.
+ * <p>
+ * The table is meant to be sized to the symbol count of the key column, plus one slot for the null
+ * symbol. It grows when it meets a key beyond its capacity, e.g. when the symbol table has grown
+ * since the map was sized.
+ * <p>
+ * Map iteration provided by {@link RecordCursor} follows the symbol key order, but the order
+ * should not be relied upon.
+ * <strong>Important!</strong>
+ * Key and value structures must match the ones provided via lists of columns ({@link ColumnTypes})
+ * to the map constructor. Later put* calls made on {@link MapKey} and {@link MapValue} must match
+ * the declared column types to guarantee memory access safety.
+ * <p>
+ * Key-value pairs have the same layout as in {@link Unordered4Map}:
+ * <pre>
+ * | Symbol key | Optional padding | Value columns 0..V |
+ * +------------+------------------+--------------------+
+ * |  4 bytes   |        -         |         -          |
+ * +------------+------------------+--------------------+
+ * </pre>
+ * The pair for key K is stored in slot K+1, while the null symbol key goes to slot 0. Empty slots
+ * have zero key, so key 0 is tracked separately, the same way as in {@link Unordered2Map}.
+ */
+public class SymbolLookupMap implements Map, Reopenable {
+    private static final long KEY_SIZE = Unordered4Map.KEY_SIZE;
+    private static final int MIN_KEY_CAPACITY = 16;
+    // Slot of symbol key 0.
+    private static final int ZERO_KEY_INDEX = 1;
+    private final SymbolLookupMapCursor cursor;
+    private final long entrySize;
+    private final Key key;
+    private final int memoryTag;
+    private final Unordered4MapRecord record;
+    private final Unordered4MapValue value;
+    private final Unordered4MapValue value2;
+    private final Unordered4MapValue value3;
+    private boolean hasZero;
+    private int initialKeyCapacity;
+    private int keyCapacity;
+    private long keyMemStart; // Key look-up memory start pointer.
+    private long memLimit; // Look-up table memory limit pointer.
+    private long memStart; // Look-up table memory start pointer.
+    private int size = 0;
+
+    public SymbolLookupMap(
+            @Transient @NotNull ColumnTypes keyTypes,
+            @Transient @Nullable ColumnTypes valueTypes,
+            int keyCapacity
+    ) {
+        this(keyTypes, valueTypes, keyCapacity, MemoryTag.NATIVE_UNORDERED_MAP);
+    }
+
+    SymbolLookupMap(
+            @NotNull @Transient ColumnTypes keyTypes,
+            @Nullable @Transient ColumnTypes valueTypes,
+            int keyCapacity,
+            int memoryTag
+    ) {
+        try {
+            this.memoryTag = memoryTag;
+            this.keyCapacity = this.initialKeyCapacity = Math.max(keyCapacity, MIN_KEY_CAPACITY);
+
+            if (keyTypes.getColumnCount() != 1 || !ColumnType.isSymbol(keyTypes.getColumnType(0))) {
+                throw CairoException.nonCritical().put("unexpected key types, single symbol expected");
+            }
+
+            long valueOffset = 0;
+            long[] valueOffsets = null;
+            long valueSize = 0;
+            if (valueTypes != null) {
+                int valueColumnCount = valueTypes.getColumnCount();
+                valueOffsets = new long[valueColumnCount];
+
+                for (int i = 0; i < valueColumnCount; i++) {
+                    valueOffsets[i] = valueOffset;
+                    final int columnType = valueTypes.getColumnType(i);
+                    final int size = ColumnType.sizeOf(columnType);
+                    if (size <= 0) {
+                        throw CairoException.nonCritical().put("value type is not supported: ").put(ColumnType.nameOf(columnType));
+                    }
+                    valueOffset += size;
+                    valueSize += size;
+                }
+            }
+
+            this.entrySize = Bytes.align4b(KEY_SIZE + valueSize);
+            final long sizeBytes = entrySize * this.keyCapacity;
+            memStart = Unsafe.malloc(sizeBytes, memoryTag);
+            Vect.memset(memStart, sizeBytes, 0);
+            memLimit = memStart + sizeBytes;
+            keyMemStart = Unsafe.malloc(KEY_SIZE, memoryTag);
+            Unsafe.getUnsafe().putInt(keyMemStart, 0);
+
+            value = new Unordered4MapValue(valueSize, valueOffsets);
+            value2 = new Unordered4MapValue(valueSize, valueOffsets);
+            value3 = new Unordered4MapValue(valueSize, valueOffsets);
+
+            record = new Unordered4MapRecord(valueSize, valueOffsets, value, keyTypes, valueTypes);
+            cursor = new SymbolLookupMapCursor(record, this);
+            key = new Key();
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        hasZero = false;
+        Vect.memset(memStart, memLimit - memStart, 0);
+        Unsafe.getUnsafe().putInt(keyMemStart, 0);
+    }
+
+    @Override
+    public void close() {
+        if (memStart != 0) {
+            memStart = memLimit = Unsafe.free(memStart, memLimit - memStart, memoryTag);
+            keyMemStart = Unsafe.free(keyMemStart, KEY_SIZE, memoryTag);
+            size = 0;
+            hasZero = false;
+        }
+    }
+
+    @Override
+    public MapRecordCursor getCursor() {
+        return cursor.init(memStart, memLimit, size);
+    }
+
+    @Override
+    public int getKeyCapacity() {
+        return keyCapacity;
+    }
+
+    @Override
+    public MapRecord getRecord() {
+        return record;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return memStart != 0;
+    }
+
+    /**
+     * Merges the source map slot by slot. Both tables are indexed by symbol key, so the slots
+     * are visited sequentially and no look-ups are involved.
+     */
+    @Override
+    public void merge(Map srcMap, MapValueMergeFunction mergeFunc) {
+        assert this != srcMap;
+        long srcSize = srcMap.size();
+        if (srcSize == 0) {
+            return;
+        }
+        SymbolLookupMap srcLookupMap = (SymbolLookupMap) srcMap;
+        grow(srcLookupMap.keyCapacity);
+
+        // First, we handle zero key.
+        if (srcLookupMap.hasZero) {
+            final long destAddr = getStartAddress(ZERO_KEY_INDEX);
+            final long srcAddr = srcLookupMap.getStartAddress(ZERO_KEY_INDEX);
+            if (hasZero) {
+                mergeFunc.merge(valueAt(destAddr), srcLookupMap.valueAt(srcAddr));
+            } else {
+                Vect.memcpy(destAddr, srcAddr, entrySize);
+                hasZero = true;
+                size++;
+            }
+            // Check if zero was the only element in the source map.
+            if (srcSize == 1) {
+                return;
+            }
+        }
+
+        // Then we handle all non-zero keys. Zero key slot has zero key, so it's skipped.
+        long destAddr = memStart;
+        for (long srcAddr = srcLookupMap.memStart; srcAddr < srcLookupMap.memLimit; srcAddr += entrySize, destAddr += entrySize) {
+            if (Unsafe.getUnsafe().getInt(srcAddr) == 0) {
+                continue;
+            }
+
+            if (Unsafe.getUnsafe().getInt(destAddr) != 0) {
+                // Match found, merge values.
+                mergeFunc.merge(valueAt(destAddr), srcLookupMap.valueAt(srcAddr));
+            } else {
+                // Not present in destination table, so we can simply copy it.
+                Vect.memcpy(destAddr, srcAddr, entrySize);
+                size++;
+            }
+        }
+    }
+
+    @Override
+    public void reopen(int keyCapacity, long heapSize) {
+        if (memStart == 0) {
+            initialKeyCapacity = Math.max(keyCapacity, MIN_KEY_CAPACITY);
+            restoreInitialCapacity();
+        }
+    }
+
+    public void reopen() {
+        if (memStart == 0) {
+            restoreInitialCapacity();
+        }
+    }
+
+    @Override
+    public void restoreInitialCapacity() {
+        if (memStart == 0 || keyCapacity != initialKeyCapacity) {
+            keyCapacity = initialKeyCapacity;
+            final long sizeBytes = entrySize * keyCapacity;
+            if (memStart == 0) {
+                memStart = Unsafe.malloc(sizeBytes, memoryTag);
+            } else {
+                memStart = Unsafe.realloc(memStart, memLimit - memStart, sizeBytes, memoryTag);
+            }
+            memLimit = memStart + sizeBytes;
+        }
+
+        if (keyMemStart == 0) {
+            keyMemStart = Unsafe.malloc(KEY_SIZE, memoryTag);
+        }
+
+        clear();
+    }
+
+    @Override
+    public void setKeyCapacity(int newKeyCapacity) {
+        // no-op: the capacity is defined by the symbol key range, not by the key count
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public MapValue valueAt(long startAddress) {
+        return valueOf(startAddress, false, value);
+    }
+
+    @Override
+    public MapKey withKey() {
+        return key.init();
+    }
+
+    private static int indexOf(int key) {
+        assert key >= 0 || key == SymbolTable.VALUE_IS_NULL;
+        return key != SymbolTable.VALUE_IS_NULL ? key + 1 : 0;
+    }
+
+    private long getStartAddress(long index) {
+        return memStart + entrySize * index;
+    }
+
+    private void grow(int newKeyCapacity) {
+        if (newKeyCapacity <= keyCapacity) {
+            return;
+        }
+        final long oldSizeBytes = memLimit - memStart;
+        final long newSizeBytes = entrySize * newKeyCapacity;
+        memStart = Unsafe.realloc(memStart, oldSizeBytes, newSizeBytes, memoryTag);
+        memLimit = memStart + newSizeBytes;
+        Vect.memset(memStart + oldSizeBytes, newSizeBytes - oldSizeBytes, 0);
+        keyCapacity = newKeyCapacity;
+    }
+
+    private Unordered4MapValue valueOf(long startAddress, boolean newValue, Unordered4MapValue value) {
+        return value.of(startAddress, memLimit, newValue);
+    }
+
+    long entrySize() {
+        return entrySize;
+    }
+
+    boolean isEmptySlot(long startAddress) {
+        return Unsafe.getUnsafe().getInt(startAddress) == 0
+                && (!hasZero || startAddress != getStartAddress(ZERO_KEY_INDEX));
+    }
+
+    class Key implements MapKey {
+        protected long appendAddress;
+
+        @Override
+        public long commit() {
+            assert appendAddress <= keyMemStart + KEY_SIZE;
+            return KEY_SIZE; // we don't need to track the actual key size
+        }
+
+        @Override
+        public void copyFrom(MapKey srcKey) {
+            Key srcLookupKey = (Key) srcKey;
+            putInt(Unsafe.getUnsafe().getInt(srcLookupKey.keyAddress()));
+        }
+
+        @Override
+        public MapValue createValue() {
+            final int key = Unsafe.getUnsafe().getInt(keyMemStart);
+            if (key == 0) {
+                if (hasZero) {
+                    return valueOf(getStartAddress(ZERO_KEY_INDEX), false, value);
+                }
+                size++;
+                hasZero = true;
+                return valueOf(getStartAddress(ZERO_KEY_INDEX), true, value);
+            }
+
+            final int index = indexOf(key);
+            if (index >= keyCapacity) {
+                grow(Math.max(Numbers.ceilPow2(index + 1), keyCapacity << 1));
+            }
+            final long startAddress = getStartAddress(index);
+            if (Unsafe.getUnsafe().getInt(startAddress) != 0) {
+                return valueOf(startAddress, false, value);
+            }
+            Unsafe.getUnsafe().putInt(startAddress, key);
+            size++;
+            return valueOf(startAddress, true, value);
+        }
+
+        @Override
+        public MapValue createValue(long hashCode) {
+            return createValue();
+        }
+
+        @Override
+        public MapValue findValue() {
+            return findValue(value);
+        }
+
+        @Override
+        public MapValue findValue2() {
+            return findValue(value2);
+        }
+
+        @Override
+        public MapValue findValue3() {
+            return findValue(value3);
+        }
+
+        @Override
+        public long hash() {
+            return 0; // no-op
+        }
+
+        public Key init() {
+            appendAddress = keyMemStart;
+            return this;
+        }
+
+        @Override
+        public void put(Record record, RecordSink sink) {
+            sink.copy(record, this);
+        }
+
+        @Override
+        public void putBin(BinarySequence value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putBool(boolean value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putByte(byte value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putChar(char value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putDate(long value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putDouble(double value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putFloat(float value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putIPv4(int value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putInt(int value) {
+            Unsafe.getUnsafe().putInt(appendAddress, value);
+            appendAddress += KEY_SIZE;
+        }
+
+        @Override
+        public void putLong(long value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putLong128(long lo, long hi) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putLong256(Long256 value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putLong256(long l0, long l1, long l2, long l3) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putRecord(Record value) {
+            // no-op
+        }
+
+        @Override
+        public void putShort(short value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putStr(CharSequence value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putStr(CharSequence value, int lo, int hi) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putTimestamp(long value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putVarchar(Utf8Sequence value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void skip(int bytes) {
+            appendAddress += bytes;
+        }
+
+        private MapValue findValue(Unordered4MapValue value) {
+            final int key = Unsafe.getUnsafe().getInt(keyMemStart);
+            if (key == 0) {
+                return hasZero ? valueOf(getStartAddress(ZERO_KEY_INDEX), false, value) : null;
+            }
+
+            final int index = indexOf(key);
+            if (index >= keyCapacity) {
+                return null;
+            }
+            final long startAddress = getStartAddress(index);
+            return Unsafe.getUnsafe().getInt(startAddress) != 0 ? valueOf(startAddress, false, value) : null;
+        }
+
+        long keyAddress() {
+            return keyMemStart;
+        }
+    }
+}
@@ -190,6 +190,11 @@ final class Unordered2MapValue implements MapValue {
         return getLong(index);
     }
 
+    @Override
+    public long getValueAddress() {
+        return valueAddress;
+    }
+
     @Override
     public boolean isNew() {
         return newValue;
@@ -61,6 +61,10 @@ public class AllowAllSecurityContext implements SecurityContext {
     public void authorizeAlterTableAttachPartition(TableToken tableToken) {
     }
 
+    @Override
+    public void authorizeAlterTableCompressPartition(TableToken tableToken) {
+    }
+
     @Override
     public void authorizeAlterTableDedupDisable(TableToken tableToken) {
     }
@@ -238,6 +238,11 @@ public class PageAddressCacheRecord implements Record, Closeable {
         return long256B;
     }
 
+    @Override
+    public long getLongIPv4(int columnIndex) {
+        return Numbers.ipv4ToLong(getIPv4(columnIndex));
+    }
+
     @Override
     public long getRowId() {
         return Rows.toRowID(frameIndex, rowIndex);
@@ -31,6 +31,8 @@ import io.questdb.cairo.sql.StatefulAtom;
 import io.questdb.std.DirectLongList;
 import io.questdb.std.FlyweightMessageContainer;
 import io.questdb.std.Misc;
+import io.questdb.std.str.DirectUtf16Sink;
+import io.questdb.std.str.DirectUtf8Sink;
 import io.questdb.std.str.StringSink;
 
 import java.io.Closeable;
@@ -40,21 +42,34 @@ public class PageFrameReduceTask implements Closeable {
     public static final byte TYPE_FILTER = 0;
     public static final byte TYPE_GROUP_BY = 1;
     public static final byte TYPE_GROUP_BY_NOT_KEYED = 2;
+    public static final byte TYPE_ORDER_BY = 3;
+    public static final byte TYPE_HASH_JOIN = 4;
+    public static final byte TYPE_ASOF_JOIN = 5;
+    public static final byte TYPE_LATEST_BY = 6;
+    public static final byte TYPE_PROJECTION = 7;
+    private static final int PROJECTED_SINK_CAPACITY = 1024;
+    private static final int PROJECTED_VALUES_CAPACITY = 1024;
     private static final String exceptionMessage = "unexpected filter error";
 
     // Used to pass the list of column page frame addresses to a JIT-compiled filter.
     private final DirectLongList columns;
     private final StringSink errorMsg = new StringSink();
-    private final DirectLongList filteredRows; // Used for TYPE_FILTER.
+    private final DirectLongList filteredRows; // Used for TYPE_FILTER, TYPE_HASH_JOIN, TYPE_ASOF_JOIN, TYPE_LATEST_BY and TYPE_PROJECTION.
+    private final int memoryTag;
     private final long pageFrameQueueCapacity;
     private final DirectLongList varSizeAux;
     private int frameIndex = Integer.MAX_VALUE;
     private PageFrameSequence<?> frameSequence;
     private long frameSequenceId;
     private boolean isCancelled;
+    // Projection buffers are used for TYPE_PROJECTION only, so they're allocated lazily.
+    private DirectUtf16Sink projectedStrings;
+    private DirectLongList projectedValues;
+    private DirectUtf8Sink projectedVarchars;
     private byte type;
 
     public PageFrameReduceTask(CairoConfiguration configuration, int memoryTag) {
+        this.memoryTag = memoryTag;
         try {
             this.filteredRows = new DirectLongList(configuration.getPageFrameReduceRowIdListCapacity(), memoryTag);
             this.columns = new DirectLongList(configuration.getPageFrameReduceColumnListCapacity(), memoryTag);
@@ -71,6 +86,9 @@ public class PageFrameReduceTask implements Closeable {
         Misc.free(filteredRows);
         Misc.free(columns);
         Misc.free(varSizeAux);
+        projectedValues = Misc.free(projectedValues);
+        projectedStrings = Misc.free(projectedStrings);
+        projectedVarchars = Misc.free(projectedVarchars);
     }
 
     /**
@@ -113,6 +131,37 @@ public class PageFrameReduceTask implements Closeable {
         return frameSequence.getPageAddressCache();
     }
 
+    /**
+     * Returns sink for values of STRING columns computed by a parallel projection.
+     */
+    public DirectUtf16Sink getProjectedStrings() {
+        if (projectedStrings == null) {
+            projectedStrings = new DirectUtf16Sink(PROJECTED_SINK_CAPACITY);
+        }
+        return projectedStrings;
+    }
+
+    /**
+     * Returns row-major list of values computed by a parallel projection. STRING and
+     * VARCHAR values are stored as offsets in the projected string and varchar sinks.
+     */
+    public DirectLongList getProjectedValues() {
+        if (projectedValues == null) {
+            projectedValues = new DirectLongList(PROJECTED_VALUES_CAPACITY, memoryTag);
+        }
+        return projectedValues;
+    }
+
+    /**
+     * Returns sink for values of VARCHAR columns computed by a parallel projection.
+     */
+    public DirectUtf8Sink getProjectedVarchars() {
+        if (projectedVarchars == null) {
+            projectedVarchars = new DirectUtf8Sink(PROJECTED_SINK_CAPACITY);
+        }
+        return projectedVarchars;
+    }
+
     public byte getType() {
         return type;
     }
@@ -139,9 +188,12 @@ public class PageFrameReduceTask implements Closeable {
         this.frameIndex = frameIndex;
         errorMsg.clear();
         isCancelled = false;
-        if (type == TYPE_FILTER) {
+        if (type == TYPE_FILTER || type == TYPE_HASH_JOIN || type == TYPE_ASOF_JOIN || type == TYPE_LATEST_BY || type == TYPE_PROJECTION) {
             filteredRows.clear();
         }
+        if (type == TYPE_PROJECTION && projectedValues != null) {
+            projectedValues.clear();
+        }
     }
 
     public void populateJitData() {
@@ -176,6 +228,11 @@ public class PageFrameReduceTask implements Closeable {
         filteredRows.resetCapacity();
         columns.resetCapacity();
         varSizeAux.resetCapacity();
+        // Projection buffers are allocated lazily, so we release them instead.
+        // That way, tasks don't hold memory after parallel projection is done.
+        projectedValues = Misc.free(projectedValues);
+        projectedStrings = Misc.free(projectedStrings);
+        projectedVarchars = Misc.free(projectedVarchars);
     }
 
     public void setErrorMsg(Throwable th) {
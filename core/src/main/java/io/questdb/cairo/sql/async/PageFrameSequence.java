@@ -71,6 +71,8 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
     // Local reduce task used when there is no slots in the queue to dispatch tasks.
     private PageFrameReduceTask localTask;
     private PageFrameCursor pageFrameCursor;
+    // Sequence to be prefetched once all frames of this sequence are dispatched.
+    private PageFrameSequence<?> prefetchSequence;
     private boolean readyToDispatch;
     private PageAddressCacheRecord record;
     private RingQueue<PageFrameReduceTask> reduceQueue;
@@ -165,6 +167,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         dispatchStartFrameIndex = 0;
         collectedFrameIndex = -1;
         readyToDispatch = false;
+        prefetchSequence = null;
         pageAddressCache.clear();
         atom.clear();
         pageFrameCursor = Misc.freeIfCloseable(pageFrameCursor);
@@ -229,6 +232,10 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         return pageAddressCache;
     }
 
+    public PageFrameCursor getPageFrameCursor() {
+        return pageFrameCursor;
+    }
+
     public AtomicInteger getReduceCounter() {
         return reduceCounter;
     }
@@ -266,6 +273,10 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         return taskType;
     }
 
+    public boolean hasDispatchedFrames() {
+        return dispatchStartFrameIndex > 0;
+    }
+
     public boolean isActive() {
         return valid.get();
     }
@@ -377,6 +388,42 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         }
     }
 
+    /**
+     * Publishes the leading frames of the sequence to the reduce queue without waiting for
+     * queue slots and without reducing anything on the calling thread. Workers may then start
+     * reducing the frames before the consumer of the sequence calls {@link #next()} for the
+     * first time. At most half of the reduce queue is taken, so that other sequences dispatching
+     * to the same shard aren't starved. This method is not thread safe.
+     *
+     * @throws io.questdb.cairo.DataUnavailableException when the queried partition is in cold storage
+     */
+    public void prefetch() {
+        prepareForDispatch();
+
+        final MPSequence reducePubSeq = messageBus.getPageFrameReducePubSeq(shard);
+        final int frameHi = Math.min(frameCount, dispatchStartFrameIndex + Math.max(1, reduceQueue.getCycle() / 2));
+        for (int i = dispatchStartFrameIndex; i < frameHi; i++) {
+            long cursor;
+            while ((cursor = reducePubSeq.next()) < -1) {
+                Os.pause();
+            }
+            if (cursor == -1) {
+                // the queue is full; the rest will be dispatched by the consumer
+                break;
+            }
+            reduceQueue.get(cursor).of(this, i);
+            reducePubSeq.done(cursor);
+            dispatchStartFrameIndex = i + 1;
+        }
+
+        LOG.debug()
+                .$("prefetched [shard=").$(shard)
+                .$(", id=").$(id)
+                .$(", frameCount=").$(frameCount)
+                .$(", dispatched=").$(dispatchStartFrameIndex)
+                .I$();
+    }
+
     public void reset() {
         // prepare to resend the same sequence as it might be required by toTop()
         frameRowCounts.clear();
@@ -384,6 +431,15 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         done = true;
     }
 
+    /**
+     * Sets the sequence to be prefetched once all frames of this sequence are dispatched, see
+     * {@link #prefetch()}. Used to overlap the tail of this sequence with the head of the sequence
+     * that is consumed right after it, e.g. the next branch of a set operation.
+     */
+    public void setPrefetchSequence(PageFrameSequence<?> prefetchSequence) {
+        this.prefetchSequence = prefetchSequence != this ? prefetchSequence : null;
+    }
+
     /**
      * Prepares page frame sequence for retrieving the same data set again. The method
      * is not thread-safe.
@@ -483,6 +539,14 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
             }
         }
 
+        if (prefetchSequence != null && dispatchStartFrameIndex == frameCount) {
+            // All of our frames are in the queue, so let the workers start on the next
+            // sequence while we're waiting for the remaining frames to be reduced.
+            final PageFrameSequence<?> nextSequence = prefetchSequence;
+            prefetchSequence = null;
+            nextSequence.prefetch();
+        }
+
         // Reduce counter is here to provide safe backoff point
         // for job stealing code. It is needed because queue is shared
         // and there is possibility of never ending stealing if we don't
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.sql.async;
+
+import io.questdb.cairo.sql.RecordCursor;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Cursor that reduces page frames on the shared worker pool. The first sequence is the one
+ * consumed first when iterating the cursor and the last is the one consumed last; they're
+ * the same object for cursors backed by a single sequence.
+ * <p>
+ * Cursors that consume their inputs one after another, like set operations, use this
+ * interface to prefetch the next input while the previous one is finishing, see
+ * {@link PageFrameSequence#prefetch()}.
+ */
+public interface PageFrameSequenceRecordCursor extends RecordCursor {
+
+    @Nullable
+    static PageFrameSequence<?> firstFrameSequenceOf(RecordCursor cursor) {
+        return cursor instanceof PageFrameSequenceRecordCursor ? ((PageFrameSequenceRecordCursor) cursor).getFirstFrameSequence() : null;
+    }
+
+    @Nullable
+    static PageFrameSequence<?> lastFrameSequenceOf(RecordCursor cursor) {
+        return cursor instanceof PageFrameSequenceRecordCursor ? ((PageFrameSequenceRecordCursor) cursor).getLastFrameSequence() : null;
+    }
+
+    /**
+     * Makes workers start on the frames of the next cursor once the previous cursor has
+     * dispatched all of its frames. Both cursors must be iterated by the same thread,
+     * the previous one first.
+     */
+    static void prefetchAfter(RecordCursor previousCursor, RecordCursor nextCursor) {
+        final PageFrameSequence<?> previous = lastFrameSequenceOf(previousCursor);
+        if (previous != null) {
+            previous.setPrefetchSequence(firstFrameSequenceOf(nextCursor));
+        }
+    }
+
+    @Nullable
+    PageFrameSequence<?> getFirstFrameSequence();
+
+    @Nullable
+    PageFrameSequence<?> getLastFrameSequence();
+}
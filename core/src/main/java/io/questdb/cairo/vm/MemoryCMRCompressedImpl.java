@@ -0,0 +1,98 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.PartitionCompressor;
+import io.questdb.cairo.TableUtils;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.LPSZ;
+
+/**
+ * Contiguous readable memory over a compressed column file, see {@link PartitionCompressor}.
+ * The file is decompressed into native memory when the memory is opened, so that callers see
+ * the same fixed-width layout as with a mapped .d file. The size must be given explicitly and
+ * the memory cannot be extended, compressed partitions are read only.
+ */
+public class MemoryCMRCompressedImpl extends MemoryCMRImpl {
+    private static final Log LOG = LogFactory.getLog(MemoryCMRCompressedImpl.class);
+
+    @Override
+    public void close() {
+        if (pageAddress != 0) {
+            Unsafe.free(pageAddress, size, memoryTag);
+            pageAddress = 0;
+            size = 0;
+        }
+        super.close();
+    }
+
+    @Override
+    public void extend(long newSize) {
+        if (newSize > size) {
+            throw CairoException.critical(0).put("compressed column cannot be extended [size=").put(size)
+                    .put(", newSize=").put(newSize)
+                    .put(']');
+        }
+    }
+
+    @Override
+    protected void map(FilesFacade ff, LPSZ name, long size) {
+        assert size > -1;
+        this.pageAddress = 0;
+        this.size = 0;
+        if (size > 0) {
+            final long fileSize = ff.length(fd);
+            long fileAddress = 0;
+            try {
+                if (fileSize < 1) {
+                    throw CairoException.critical(ff.errno()).put("could not get length: ").put(name);
+                }
+                this.pageAddress = Unsafe.malloc(size, memoryTag);
+                this.size = size;
+                fileAddress = TableUtils.mapRO(ff, fd, fileSize, MemoryTag.MMAP_TABLE_READER);
+                if (!PartitionCompressor.decompress(fileAddress, fileSize, pageAddress, size)) {
+                    throw CairoException.critical(0).put("corrupt compressed column file [file=").put(name)
+                            .put(", fileSize=").put(fileSize)
+                            .put(", size=").put(size)
+                            .put(']');
+                }
+            } catch (Throwable e) {
+                close();
+                throw e;
+            } finally {
+                if (fileAddress != 0) {
+                    ff.munmap(fileAddress, fileSize, MemoryTag.MMAP_TABLE_READER);
+                }
+            }
+        }
+
+        LOG.debug().$("decompressed [file=").$(name).$(", fd=").$(fd).$(", size=").$(this.size).$(']').$();
+    }
+}
@@ -48,6 +48,11 @@ public interface MetadataServiceStub extends MetadataService {
         throw CairoException.critical(0).put("change cache flag does not update sequencer metadata");
     }
 
+    @Override
+    default void compressPartition(long partitionTimestamp) {
+        throw CairoException.critical(0).put("compress partition does not update sequencer metadata");
+    }
+
     @Override
     default AttachDetachStatus detachPartition(long partitionTimestamp) {
         throw CairoException.critical(0).put("detach partition does not update sequencer metadata");
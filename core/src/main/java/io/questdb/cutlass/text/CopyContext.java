@@ -52,6 +52,21 @@ public class CopyContext implements Mutable {
         return id;
     }
 
+    /**
+     * Marks a synchronous export as the active copy. Exports and imports share the copy task queue,
+     * so an export only starts when no other copy is active.
+     *
+     * @return copy id or {@link #INACTIVE_COPY_ID} when another copy is in progress
+     */
+    public long assignActiveExportId(SecurityContext securityContext) {
+        final long id = copyIDSupplier.getAsLong();
+        if (activeCopyID.compareAndSet(INACTIVE_COPY_ID, id)) {
+            this.originatorSecurityContext = securityContext;
+            return id;
+        }
+        return INACTIVE_COPY_ID;
+    }
+
     @Override
     public void clear() {
         activeCopyID.set(INACTIVE_COPY_ID);
@@ -44,6 +44,7 @@ public class CopyJob extends AbstractQueueConsumerJob<CopyTask> implements Close
     private long fileBufSize;
     private CsvFileIndexer indexer;
     private DirectLongList mergeIndexes;
+    private ParquetPartitionWriter parquetWriter;
     private TextLexerWrapper tlw;
     private Path tmpPath1;
     private Path tmpPath2;
@@ -61,6 +62,7 @@ public class CopyJob extends AbstractQueueConsumerJob<CopyTask> implements Close
             this.utf16Sink = new DirectUtf16Sink(utf8SinkSize);
             this.utf8Sink = new DirectUtf8Sink(utf8SinkSize);
             this.mergeIndexes = new DirectLongList(INDEX_MERGE_LIST_CAPACITY, MemoryTag.NATIVE_IMPORT);
+            this.parquetWriter = new ParquetPartitionWriter(messageBus.getConfiguration());
             this.tmpPath1 = new Path();
             this.tmpPath2 = new Path();
         } catch (Throwable t) {
@@ -86,6 +88,7 @@ public class CopyJob extends AbstractQueueConsumerJob<CopyTask> implements Close
             fileBufSize = 0;
         }
         this.mergeIndexes = Misc.free(this.mergeIndexes);
+        this.parquetWriter = Misc.free(parquetWriter);
         this.utf16Sink = Misc.free(utf16Sink);
         this.utf8Sink = Misc.free(utf8Sink);
         this.tmpPath1 = Misc.free(tmpPath1);
@@ -95,7 +98,7 @@ public class CopyJob extends AbstractQueueConsumerJob<CopyTask> implements Close
     @Override
     protected boolean doRun(int workerId, long cursor, RunStatus runStatus) {
         final CopyTask task = queue.get(cursor);
-        final boolean result = task.run(tlw, indexer, utf16Sink, utf8Sink, mergeIndexes, fileBufAddr, fileBufSize, tmpPath1, tmpPath2);
+        final boolean result = task.run(tlw, indexer, utf16Sink, utf8Sink, mergeIndexes, fileBufAddr, fileBufSize, parquetWriter, tmpPath1, tmpPath2);
         subSeq.done(cursor);
         return result;
     }
@@ -50,6 +50,7 @@ public class CopyTask {
     public static final byte PHASE_BOUNDARY_CHECK = 1;
     public static final byte PHASE_BUILD_SYMBOL_INDEX = 6;
     public static final byte PHASE_CLEANUP = 10;
+    public static final byte PHASE_EXPORT_PARTITION = 11;
     public static final byte PHASE_INDEXING = 2;
     public static final byte PHASE_MOVE_PARTITIONS = 7;
     public static final byte PHASE_PARTITION_IMPORT = 3;
@@ -67,6 +68,7 @@ public class CopyTask {
     private static final IntObjHashMap<String> STATUS_NAME_MAP = new IntObjHashMap<>();
     private final PhaseBoundaryCheck phaseBoundaryCheck = new PhaseBoundaryCheck();
     private final PhaseBuildSymbolIndex phaseBuildSymbolIndex = new PhaseBuildSymbolIndex();
+    private final PhaseExportPartition phaseExportPartition = new PhaseExportPartition();
     private final PhaseIndexing phaseIndexing = new PhaseIndexing();
     private final PhasePartitionImport phasePartitionImport = new PhasePartitionImport();
     private final PhaseSymbolTableMerge phaseSymbolTableMerge = new PhaseSymbolTableMerge();
@@ -98,6 +100,8 @@ public class CopyTask {
             phaseUpdateSymbolKeys.clear();
         } else if (phase == PHASE_BUILD_SYMBOL_INDEX) {
             phaseBuildSymbolIndex.clear();
+        } else if (phase == PHASE_EXPORT_PARTITION) {
+            phaseExportPartition.clear();
         } else {
             throw TextException.$("Unexpected phase ").put(phase);
         }
@@ -119,6 +123,10 @@ public class CopyTask {
         return errorMessage;
     }
 
+    public PhaseExportPartition getExportPartitionPhase() {
+        return phaseExportPartition;
+    }
+
     public PhasePartitionImport getImportPartitionDataPhase() {
         return phasePartitionImport;
     }
@@ -155,6 +163,17 @@ public class CopyTask {
         this.phaseBuildSymbolIndex.of(cairoEngine, tableStructure, root, index, metadata);
     }
 
+    public void ofPhaseExportPartition(
+            CairoEngine cairoEngine,
+            TableToken tableToken,
+            long metadataVersion,
+            CharSequence exportRoot,
+            long partitionTimestamp
+    ) {
+        this.phase = PHASE_EXPORT_PARTITION;
+        this.phaseExportPartition.of(cairoEngine, tableToken, metadataVersion, exportRoot, partitionTimestamp);
+    }
+
     public void ofPhaseIndexing(
             long chunkStart,
             long chunkEnd,
@@ -242,6 +261,7 @@ public class CopyTask {
             DirectLongList unmergedIndexes,
             long fileBufAddr,
             long fileBufSize,
+            ParquetPartitionWriter parquetWriter,
             Path p1,
             Path p2
     ) {
@@ -265,6 +285,8 @@ public class CopyTask {
                 phaseUpdateSymbolKeys.run(p1);
             } else if (phase == PHASE_BUILD_SYMBOL_INDEX) {
                 phaseBuildSymbolIndex.run();
+            } else if (phase == PHASE_EXPORT_PARTITION) {
+                phaseExportPartition.run(parquetWriter, p1);
             } else {
                 throw TextException.$("Unexpected phase ").put(phase);
             }
@@ -517,6 +539,67 @@ public class CopyTask {
         }
     }
 
+    public static class PhaseExportPartition {
+        private CairoEngine cairoEngine;
+        private CharSequence exportRoot;
+        private long fileSize;
+        private long metadataVersion;
+        private long partitionTimestamp;
+        private long rowCount;
+        private TableToken tableToken;
+
+        public void clear() {
+            this.cairoEngine = null;
+            this.tableToken = null;
+            this.exportRoot = null;
+            this.metadataVersion = -1;
+            this.partitionTimestamp = Numbers.LONG_NULL;
+        }
+
+        public long getFileSize() {
+            return fileSize;
+        }
+
+        public long getPartitionTimestamp() {
+            return partitionTimestamp;
+        }
+
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        public void of(
+                CairoEngine cairoEngine,
+                TableToken tableToken,
+                long metadataVersion,
+                CharSequence exportRoot,
+                long partitionTimestamp
+        ) {
+            this.cairoEngine = cairoEngine;
+            this.tableToken = tableToken;
+            this.metadataVersion = metadataVersion;
+            this.exportRoot = exportRoot;
+            this.partitionTimestamp = partitionTimestamp;
+            this.fileSize = 0;
+            this.rowCount = 0;
+        }
+
+        public void run(ParquetPartitionWriter parquetWriter, Path path) {
+            // each task uses its own reader, readers are not thread-safe
+            try (TableReader reader = cairoEngine.getReader(tableToken, metadataVersion)) {
+                final int partitionIndex = reader.getPartitionIndexByTimestamp(partitionTimestamp);
+                if (partitionIndex < 0 || reader.getPartitionTimestampByIndex(partitionIndex) != partitionTimestamp) {
+                    throw CairoException.nonCritical().put("partition does not exist [table=").put(tableToken.getTableName())
+                            .put(", partition=").ts(partitionTimestamp)
+                            .put(']');
+                }
+                TableUtils.setPathForPartition(path.of(exportRoot), reader.getPartitionedBy(), partitionTimestamp, -1);
+                fileSize = parquetWriter.write(reader, partitionIndex, path.put(".parquet").$());
+                rowCount = reader.getPartitionRowCount(partitionIndex);
+            }
+        }
+    }
+
     public static class PhaseSymbolTableMerge {
         private CairoConfiguration cfg;
         private CharSequence column;
@@ -1455,6 +1538,7 @@ public class CopyTask {
         PHASE_NAME_MAP.put(PHASE_ATTACH_PARTITIONS, "attach_partitions");
         PHASE_NAME_MAP.put(PHASE_ANALYZE_FILE_STRUCTURE, "analyze_file_structure");
         PHASE_NAME_MAP.put(PHASE_CLEANUP, "cleanup");
+        PHASE_NAME_MAP.put(PHASE_EXPORT_PARTITION, "export_partition");
 
         STATUS_NAME_MAP.put(STATUS_STARTED, "started");
         STATUS_NAME_MAP.put(STATUS_FINISHED, "finished");
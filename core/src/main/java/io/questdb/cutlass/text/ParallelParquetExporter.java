@@ -0,0 +1,249 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.text;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.TxReader;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.Job;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.Sequence;
+import io.questdb.std.Chars;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.Os;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Exports table partitions as Parquet files, one file per partition. Partitions are written in
+ * parallel by {@link CopyJob} workers, the calling thread steals work while it waits. The
+ * exporter shares the copy task queue with {@link ParallelCsvFileImporter}, callers must make
+ * sure that only one of them runs at a time, see {@link CopyContext}.
+ */
+public class ParallelParquetExporter implements QuietCloseable {
+    private static final Log LOG = LogFactory.getLog(ParallelParquetExporter.class);
+    private final CairoEngine cairoEngine;
+    private final Sequence collectSeq;
+    private final CairoConfiguration configuration;
+    private final StringSink exportRoot = new StringSink();
+    private final FilesFacade ff;
+    private final CopyJob localExportJob;
+    private final Sequence pubSeq;
+    private final RingQueue<CopyTask> queue;
+    // partition timestamp, row count and file size triplets
+    private final LongList results = new LongList();
+    private final Path tmpPath;
+    private @Nullable CharSequence errorMessage;
+    private int partitionBy;
+    private byte status;
+
+    public ParallelParquetExporter(CairoEngine cairoEngine) {
+        final MessageBus bus = cairoEngine.getMessageBus();
+        this.queue = bus.getTextImportQueue();
+        if (queue.getCycle() < 1) {
+            throw CairoException.nonCritical().put("parallel copy queue size cannot be zero");
+        }
+        this.cairoEngine = cairoEngine;
+        this.configuration = cairoEngine.getConfiguration();
+        this.ff = configuration.getFilesFacade();
+        this.pubSeq = bus.getTextImportPubSeq();
+        this.collectSeq = bus.getTextImportColSeq();
+        try {
+            this.localExportJob = new CopyJob(bus);
+            this.tmpPath = new Path();
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    @Override
+    public void close() {
+        Misc.free(localExportJob);
+        Misc.free(tmpPath);
+    }
+
+    /**
+     * Writes every non-empty partition of the table to $copyRoot/$dirName/$partition.parquet.
+     * Existing files are overwritten.
+     *
+     * @param tableToken     table to export
+     * @param dirName        directory relative to the copy root
+     * @param circuitBreaker stops dispatching of partitions when tripped
+     */
+    public void export(TableToken tableToken, CharSequence dirName, SqlExecutionCircuitBreaker circuitBreaker) {
+        results.clear();
+        status = CopyTask.STATUS_STARTED;
+        errorMessage = null;
+
+        final LongList partitionTimestamps = new LongList();
+        final long metadataVersion;
+        try (TableReader reader = cairoEngine.getReader(tableToken)) {
+            final RecordMetadata metadata = reader.getMetadata();
+            for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                final int columnType = metadata.getColumnType(i);
+                if (!ParquetPartitionWriter.isSupported(columnType)) {
+                    throw CairoException.nonCritical().put("unsupported column type for parquet export [column=")
+                            .put(metadata.getColumnName(i))
+                            .put(", type=").put(ColumnType.nameOf(columnType))
+                            .put(']');
+                }
+            }
+            metadataVersion = reader.getMetadataVersion();
+            partitionBy = reader.getPartitionedBy();
+            final TxReader txFile = reader.getTxFile();
+            for (int i = 0, n = reader.getPartitionCount(); i < n; i++) {
+                if (txFile.getPartitionSize(i) > 0) {
+                    partitionTimestamps.add(reader.getPartitionTimestampByIndex(i));
+                }
+            }
+        }
+
+        tmpPath.of(configuration.getSqlCopyInputRoot()).concat(dirName);
+        exportRoot.clear();
+        exportRoot.put(tmpPath);
+        if (!ff.exists(tmpPath.slash$()) && ff.mkdirs(tmpPath, configuration.getMkDirMode()) != 0) {
+            throw CairoException.critical(ff.errno()).put("could not create export directory [path=").put(tmpPath).put(']');
+        }
+
+        final int partitionCount = partitionTimestamps.size();
+        results.setAll(partitionCount * 3, 0);
+
+        LOG.info().$("exporting table to parquet [table=").utf8(tableToken.getTableName())
+                .$(", path=").$(exportRoot)
+                .$(", partitions=").$(partitionCount)
+                .I$();
+
+        int queuedCount = 0;
+        int collectedCount = 0;
+        boolean cancelled = false;
+        for (int i = 0; i < partitionCount && !cancelled; i++) {
+            while (true) {
+                if (circuitBreaker.checkIfTripped()) {
+                    cancelled = true;
+                    break;
+                }
+                final long seq = pubSeq.next();
+                if (seq > -1) {
+                    final CopyTask task = queue.get(seq);
+                    task.setChunkIndex(i);
+                    task.setCircuitBreaker(null);
+                    task.ofPhaseExportPartition(cairoEngine, tableToken, metadataVersion, exportRoot, partitionTimestamps.getQuick(i));
+                    pubSeq.done(seq);
+                    queuedCount++;
+                    break;
+                } else {
+                    collectedCount += collect(queuedCount - collectedCount);
+                }
+            }
+        }
+
+        // always drain the queue, the tasks reference this exporter's state
+        collectedCount += collect(queuedCount - collectedCount);
+        assert collectedCount == queuedCount;
+
+        if (cancelled) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+        }
+        if (status == CopyTask.STATUS_FAILED || status == CopyTask.STATUS_CANCELLED) {
+            throw CairoException.nonCritical().put("parquet export failed [table=").put(tableToken.getTableName())
+                    .put(", msg=").put(errorMessage)
+                    .put(']');
+        }
+        LOG.info().$("exported table to parquet [table=").utf8(tableToken.getTableName())
+                .$(", path=").$(exportRoot)
+                .$(", files=").$(partitionCount)
+                .I$();
+    }
+
+    public long getFileSize(int index) {
+        return results.getQuick(index * 3 + 2);
+    }
+
+    public int getPartitionBy() {
+        return partitionBy;
+    }
+
+    public int getPartitionCount() {
+        return results.size() / 3;
+    }
+
+    public long getPartitionTimestamp(int index) {
+        return results.getQuick(index * 3);
+    }
+
+    public long getRowCount(int index) {
+        return results.getQuick(index * 3 + 1);
+    }
+
+    private int collect(int queuedCount) {
+        int collectedCount = 0;
+        while (collectedCount < queuedCount) {
+            final long seq = collectSeq.next();
+            if (seq > -1) {
+                final CopyTask task = queue.get(seq);
+                if (task.isFailed() || task.isCancelled()) {
+                    if (status == CopyTask.STATUS_STARTED) {
+                        status = task.getStatus();
+                        errorMessage = Chars.toString(task.getErrorMessage());
+                    }
+                } else {
+                    // keep results in partition order
+                    final CopyTask.PhaseExportPartition phase = task.getExportPartitionPhase();
+                    final int index = task.getChunkIndex() * 3;
+                    results.setQuick(index, phase.getPartitionTimestamp());
+                    results.setQuick(index + 1, phase.getRowCount());
+                    results.setQuick(index + 2, phase.getFileSize());
+                }
+                task.clear();
+                collectSeq.done(seq);
+                collectedCount++;
+            } else {
+                stealWork();
+            }
+        }
+        return collectedCount;
+    }
+
+    private void stealWork() {
+        if (localExportJob.run(0, Job.RUNNING_STATUS)) {
+            return;
+        }
+        Os.pause();
+    }
+}
@@ -0,0 +1,794 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.text;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GeoHashes;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableReaderRecord;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.BinarySequence;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Uuid;
+import io.questdb.std.str.DirectUtf8Sink;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Utf8Sequence;
+
+/**
+ * Writes a single table partition as an Apache Parquet file.
+ * <p>
+ * Rows are split into row groups of {@link #ROW_GROUP_SIZE} rows, each column chunk is a single
+ * uncompressed data page. Symbol columns are dictionary encoded: the dictionary page holds the
+ * symbol table values and data pages hold the symbol keys, so no re-keying is needed. Null values
+ * are encoded via definition levels, all other values are PLAIN encoded. File metadata is written
+ * with the Thrift compact protocol as required by the format.
+ * <p>
+ * Instances are not thread-safe, but can be reused for many partitions.
+ */
+public class ParquetPartitionWriter implements QuietCloseable {
+    public static final int ROW_GROUP_SIZE = 128 * 1024;
+    private static final int CONVERTED_INT_16 = 16;
+    private static final int CONVERTED_INT_8 = 15;
+    private static final int CONVERTED_TIMESTAMP_MICROS = 10;
+    private static final int CONVERTED_TIMESTAMP_MILLIS = 9;
+    private static final int CONVERTED_UINT_32 = 13;
+    private static final int CONVERTED_UTF8 = 0;
+    private static final String CREATED_BY = "QuestDB";
+    private static final int ENCODING_PLAIN = 0;
+    private static final int ENCODING_RLE = 3;
+    private static final int ENCODING_RLE_DICTIONARY = 8;
+    private static final Log LOG = LogFactory.getLog(ParquetPartitionWriter.class);
+    private static final int MAGIC = 0x31524150; // "PAR1" in little endian
+    private static final int META_STRIDE = 5;
+    private static final int PAGE_DATA = 0;
+    private static final int PAGE_DICTIONARY = 2;
+    private static final int REPETITION_OPTIONAL = 1;
+    private static final int REPETITION_REQUIRED = 0;
+    private static final byte TC_BINARY = 8;
+    private static final byte TC_I32 = 5;
+    private static final byte TC_I64 = 6;
+    private static final byte TC_LIST = 9;
+    private static final byte TC_STRUCT = 12;
+    private static final int TYPE_BOOLEAN = 0;
+    private static final int TYPE_BYTE_ARRAY = 6;
+    private static final int TYPE_DOUBLE = 5;
+    private static final int TYPE_FIXED_LEN_BYTE_ARRAY = 7;
+    private static final int TYPE_FLOAT = 4;
+    private static final int TYPE_INT32 = 1;
+    private static final int TYPE_INT64 = 2;
+    // per row group: row count, byte size and META_STRIDE longs per column
+    private final LongList chunkMeta = new LongList();
+    private final MemoryCARW defLevels;
+    private final MemoryCARW dictionary;
+    private final FilesFacade ff;
+    private final long fileOpenOpts;
+    private final MemoryCARW header;
+    private final MemoryCARW keys;
+    private final TableReaderRecord record = new TableReaderRecord();
+    // thrift compact protocol encodes field ids as deltas from the previous field of the struct
+    private final IntList thriftFieldIds = new IntList();
+    private final DirectUtf8Sink utf8Sink;
+    private final MemoryCARW values;
+    private int fd = -1;
+    private long fileOffset;
+    private int lastFieldId;
+
+    public ParquetPartitionWriter(CairoConfiguration configuration) {
+        this.ff = configuration.getFilesFacade();
+        this.fileOpenOpts = configuration.getWriterFileOpenOpts();
+        try {
+            this.values = Vm.getCARWInstance(Numbers.SIZE_1MB, Integer.MAX_VALUE, MemoryTag.NATIVE_IMPORT);
+            this.defLevels = Vm.getCARWInstance(64 * 1024, Integer.MAX_VALUE, MemoryTag.NATIVE_IMPORT);
+            this.keys = Vm.getCARWInstance(Numbers.SIZE_1MB, Integer.MAX_VALUE, MemoryTag.NATIVE_IMPORT);
+            this.dictionary = Vm.getCARWInstance(64 * 1024, Integer.MAX_VALUE, MemoryTag.NATIVE_IMPORT);
+            this.header = Vm.getCARWInstance(64 * 1024, Integer.MAX_VALUE, MemoryTag.NATIVE_IMPORT);
+            this.utf8Sink = new DirectUtf8Sink(64);
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    public static boolean isSupported(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+            case ColumnType.INT:
+            case ColumnType.IPv4:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+            case ColumnType.STRING:
+            case ColumnType.VARCHAR:
+            case ColumnType.SYMBOL:
+            case ColumnType.UUID:
+            case ColumnType.BINARY:
+            case ColumnType.GEOBYTE:
+            case ColumnType.GEOSHORT:
+            case ColumnType.GEOINT:
+            case ColumnType.GEOLONG:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        closeFile();
+        Misc.free(values);
+        Misc.free(defLevels);
+        Misc.free(keys);
+        Misc.free(dictionary);
+        Misc.free(header);
+        Misc.free(utf8Sink);
+    }
+
+    /**
+     * Writes the partition to the given file, the file is truncated if it exists.
+     *
+     * @param reader         reader positioned at the table version to export
+     * @param partitionIndex index of the partition in the reader
+     * @param fileName       target file
+     * @return number of bytes written
+     */
+    public long write(TableReader reader, int partitionIndex, LPSZ fileName) {
+        final long rowCount = reader.openPartition(partitionIndex);
+        final RecordMetadata metadata = reader.getMetadata();
+        final int columnCount = metadata.getColumnCount();
+        for (int i = 0; i < columnCount; i++) {
+            if (!isSupported(metadata.getColumnType(i))) {
+                throw CairoException.nonCritical().put("unsupported column type for parquet export [column=")
+                        .put(metadata.getColumnName(i))
+                        .put(", type=").put(ColumnType.nameOf(metadata.getColumnType(i)))
+                        .put(']');
+            }
+        }
+
+        try {
+            fd = ff.openRW(fileName, fileOpenOpts);
+            if (fd < 0) {
+                throw CairoException.critical(ff.errno()).put("could not open [file=").put(fileName).put(']');
+            }
+            if (!ff.truncate(fd, 0)) {
+                throw CairoException.critical(ff.errno()).put("could not truncate [file=").put(fileName).put(']');
+            }
+            fileOffset = 0;
+            chunkMeta.clear();
+
+            header.jumpTo(0);
+            header.putInt(MAGIC);
+            flush(header);
+
+            record.of(reader);
+            record.jumpTo(partitionIndex, 0);
+            for (long lo = 0; lo < rowCount; lo += ROW_GROUP_SIZE) {
+                final long hi = Math.min(lo + ROW_GROUP_SIZE, rowCount);
+                final long rowGroupOffset = fileOffset;
+                chunkMeta.add(hi - lo);
+                chunkMeta.add(0);
+                final int rowGroupMetaIndex = chunkMeta.size() - 1;
+                for (int i = 0; i < columnCount; i++) {
+                    writeColumnChunk(reader, metadata.getColumnType(i), i, lo, hi);
+                }
+                chunkMeta.setQuick(rowGroupMetaIndex, fileOffset - rowGroupOffset);
+            }
+
+            writeFooter(metadata, rowCount);
+            LOG.info().$("exported partition to parquet [table=").utf8(reader.getTableToken().getTableName())
+                    .$(", partitionIndex=").$(partitionIndex)
+                    .$(", rows=").$(rowCount)
+                    .$(", file=").$(fileName)
+                    .$(", size=").$(fileOffset)
+                    .I$();
+            return fileOffset;
+        } finally {
+            closeFile();
+        }
+    }
+
+    private static int bitWidth(int maxValue) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(maxValue));
+    }
+
+    private static int getConvertedType(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+                return CONVERTED_INT_8;
+            case ColumnType.SHORT:
+                return CONVERTED_INT_16;
+            case ColumnType.IPv4:
+                return CONVERTED_UINT_32;
+            case ColumnType.DATE:
+                return CONVERTED_TIMESTAMP_MILLIS;
+            case ColumnType.TIMESTAMP:
+                return CONVERTED_TIMESTAMP_MICROS;
+            case ColumnType.CHAR:
+            case ColumnType.STRING:
+            case ColumnType.VARCHAR:
+            case ColumnType.SYMBOL:
+                return CONVERTED_UTF8;
+            default:
+                return -1;
+        }
+    }
+
+    private static int getPhysicalType(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                return TYPE_BOOLEAN;
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.IPv4:
+            case ColumnType.GEOBYTE:
+            case ColumnType.GEOSHORT:
+            case ColumnType.GEOINT:
+                return TYPE_INT32;
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.GEOLONG:
+                return TYPE_INT64;
+            case ColumnType.FLOAT:
+                return TYPE_FLOAT;
+            case ColumnType.DOUBLE:
+                return TYPE_DOUBLE;
+            case ColumnType.UUID:
+                return TYPE_FIXED_LEN_BYTE_ARRAY;
+            default:
+                return TYPE_BYTE_ARRAY;
+        }
+    }
+
+    private static boolean isRequired(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static void putVarint(MemoryCARW mem, long value) {
+        while ((value & ~0x7fL) != 0) {
+            mem.putByte((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        mem.putByte((byte) value);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private void closeFile() {
+        if (fd != -1) {
+            ff.close(fd);
+            fd = -1;
+        }
+    }
+
+    private void flush(MemoryCARW mem) {
+        final long len = mem.getAppendOffset();
+        if (len > 0) {
+            if (ff.write(fd, mem.addressOf(0), len, fileOffset) != len) {
+                throw CairoException.critical(ff.errno()).put("could not write parquet file [fd=").put(fd)
+                        .put(", offset=").put(fileOffset)
+                        .put(", len=").put(len)
+                        .put(']');
+            }
+            fileOffset += len;
+        }
+    }
+
+    private void putDefinitionLevels(MemoryCARW mem, int level, long count) {
+        // RLE run of the hybrid encoding, bit width is 1 so the value takes a single byte
+        putVarint(mem, count << 1);
+        mem.putByte((byte) level);
+    }
+
+    private void putUtf8(MemoryCARW mem, Utf8Sequence value) {
+        final int size = value.size();
+        mem.putInt(size);
+        if (size > 0) {
+            value.writeTo(mem.appendAddressFor(size), 0, size);
+        }
+    }
+
+    private void writeColumnChunk(TableReader reader, int columnType, int columnIndex, long lo, long hi) {
+        final boolean required = isRequired(columnType);
+        final boolean symbol = ColumnType.isSymbol(columnType);
+        final long chunkOffset = fileOffset;
+        long dictionaryPageOffset = -1;
+
+        values.jumpTo(0);
+        defLevels.jumpTo(0);
+        keys.jumpTo(0);
+
+        int symbolCount = 0;
+        if (symbol) {
+            final StaticSymbolTable symbolTable = reader.getSymbolMapReader(columnIndex);
+            symbolCount = symbolTable.getSymbolCount();
+            dictionary.jumpTo(0);
+            for (int key = 0; key < symbolCount; key++) {
+                utf8Sink.clear();
+                utf8Sink.put(symbolTable.valueOf(key));
+                putUtf8(dictionary, utf8Sink);
+            }
+            dictionaryPageOffset = fileOffset;
+            writePageHeader(PAGE_DICTIONARY, (int) dictionary.getAppendOffset(), symbolCount, ENCODING_PLAIN);
+            flush(header);
+            flush(dictionary);
+        }
+
+        int lastLevel = -1;
+        long levelCount = 0;
+        int bits = 0;
+        int bitCount = 0;
+        long nonNullCount = 0;
+        for (long row = lo; row < hi; row++) {
+            record.setRecordIndex(row);
+            boolean isNull = false;
+            switch (ColumnType.tagOf(columnType)) {
+                case ColumnType.BOOLEAN:
+                    if (record.getBool(columnIndex)) {
+                        bits |= 1 << bitCount;
+                    }
+                    if (++bitCount == 8) {
+                        values.putByte((byte) bits);
+                        bits = 0;
+                        bitCount = 0;
+                    }
+                    break;
+                case ColumnType.BYTE:
+                    values.putInt(record.getByte(columnIndex));
+                    break;
+                case ColumnType.SHORT:
+                    values.putInt(record.getShort(columnIndex));
+                    break;
+                case ColumnType.CHAR: {
+                    final char c = record.getChar(columnIndex);
+                    if (c == 0) {
+                        isNull = true;
+                    } else {
+                        utf8Sink.clear();
+                        utf8Sink.put(c);
+                        putUtf8(values, utf8Sink);
+                    }
+                    break;
+                }
+                case ColumnType.INT: {
+                    final int v = record.getInt(columnIndex);
+                    if (v == Numbers.INT_NULL) {
+                        isNull = true;
+                    } else {
+                        values.putInt(v);
+                    }
+                    break;
+                }
+                case ColumnType.IPv4: {
+                    final int v = record.getIPv4(columnIndex);
+                    if (v == Numbers.IPv4_NULL) {
+                        isNull = true;
+                    } else {
+                        values.putInt(v);
+                    }
+                    break;
+                }
+                case ColumnType.GEOBYTE: {
+                    final byte v = record.getGeoByte(columnIndex);
+                    if (v == GeoHashes.BYTE_NULL) {
+                        isNull = true;
+                    } else {
+                        values.putInt(v);
+                    }
+                    break;
+                }
+                case ColumnType.GEOSHORT: {
+                    final short v = record.getGeoShort(columnIndex);
+                    if (v == GeoHashes.SHORT_NULL) {
+                        isNull = true;
+                    } else {
+                        values.putInt(v);
+                    }
+                    break;
+                }
+                case ColumnType.GEOINT: {
+                    final int v = record.getGeoInt(columnIndex);
+                    if (v == GeoHashes.INT_NULL) {
+                        isNull = true;
+                    } else {
+                        values.putInt(v);
+                    }
+                    break;
+                }
+                case ColumnType.GEOLONG: {
+                    final long v = record.getGeoLong(columnIndex);
+                    if (v == GeoHashes.NULL) {
+                        isNull = true;
+                    } else {
+                        values.putLong(v);
+                    }
+                    break;
+                }
+                case ColumnType.LONG:
+                case ColumnType.DATE:
+                case ColumnType.TIMESTAMP: {
+                    // date and timestamp share long storage
+                    final long v = record.getLong(columnIndex);
+                    if (v == Numbers.LONG_NULL) {
+                        isNull = true;
+                    } else {
+                        values.putLong(v);
+                    }
+                    break;
+                }
+                case ColumnType.FLOAT: {
+                    final float v = record.getFloat(columnIndex);
+                    if (Float.isNaN(v)) {
+                        isNull = true;
+                    } else {
+                        values.putFloat(v);
+                    }
+                    break;
+                }
+                case ColumnType.DOUBLE: {
+                    final double v = record.getDouble(columnIndex);
+                    if (Double.isNaN(v)) {
+                        isNull = true;
+                    } else {
+                        values.putDouble(v);
+                    }
+                    break;
+                }
+                case ColumnType.STRING: {
+                    final CharSequence v = record.getStrA(columnIndex);
+                    if (v == null) {
+                        isNull = true;
+                    } else {
+                        utf8Sink.clear();
+                        utf8Sink.put(v);
+                        putUtf8(values, utf8Sink);
+                    }
+                    break;
+                }
+                case ColumnType.VARCHAR: {
+                    final Utf8Sequence v = record.getVarcharA(columnIndex);
+                    if (v == null) {
+                        isNull = true;
+                    } else {
+                        putUtf8(values, v);
+                    }
+                    break;
+                }
+                case ColumnType.SYMBOL: {
+                    final int key = record.getInt(columnIndex);
+                    if (key == SymbolTable.VALUE_IS_NULL) {
+                        isNull = true;
+                    } else {
+                        keys.putInt(key);
+                    }
+                    break;
+                }
+                case ColumnType.UUID: {
+                    final long vLo = record.getLong128Lo(columnIndex);
+                    final long vHi = record.getLong128Hi(columnIndex);
+                    if (Uuid.isNull(vLo, vHi)) {
+                        isNull = true;
+                    } else {
+                        // parquet uuid is 16 bytes in big endian order
+                        values.putLong(Long.reverseBytes(vHi));
+                        values.putLong(Long.reverseBytes(vLo));
+                    }
+                    break;
+                }
+                case ColumnType.BINARY: {
+                    final BinarySequence v = record.getBin(columnIndex);
+                    if (v == null) {
+                        isNull = true;
+                    } else {
+                        final long len = v.length();
+                        values.putInt((int) len);
+                        v.copyTo(values.appendAddressFor(len), 0, len);
+                    }
+                    break;
+                }
+                default:
+                    throw CairoException.nonCritical().put("unsupported column type for parquet export [type=")
+                            .put(ColumnType.nameOf(columnType)).put(']');
+            }
+
+            if (!isNull) {
+                nonNullCount++;
+            }
+            if (!required) {
+                final int level = isNull ? 0 : 1;
+                if (level != lastLevel) {
+                    if (levelCount > 0) {
+                        putDefinitionLevels(defLevels, lastLevel, levelCount);
+                    }
+                    lastLevel = level;
+                    levelCount = 0;
+                }
+                levelCount++;
+            }
+        }
+
+        if (bitCount > 0) {
+            values.putByte((byte) bits);
+        }
+        if (levelCount > 0) {
+            putDefinitionLevels(defLevels, lastLevel, levelCount);
+        }
+
+        if (symbol) {
+            writeDictionaryKeys(symbolCount, nonNullCount);
+        }
+
+        // page body is [definition levels][values], definition levels are prefixed with their byte length
+        final long defLevelsSize = required ? 0 : defLevels.getAppendOffset() + Integer.BYTES;
+        final long pageSize = defLevelsSize + values.getAppendOffset();
+        if (pageSize > Integer.MAX_VALUE) {
+            throw CairoException.nonCritical().put("parquet page is too large [column=")
+                    .put(reader.getMetadata().getColumnName(columnIndex))
+                    .put(", size=").put(pageSize)
+                    .put(']');
+        }
+
+        final long dataPageOffset = fileOffset;
+        writePageHeader(PAGE_DATA, (int) pageSize, (int) (hi - lo), symbol ? ENCODING_RLE_DICTIONARY : ENCODING_PLAIN);
+        if (!required) {
+            header.putInt((int) defLevels.getAppendOffset());
+        }
+        flush(header);
+        flush(defLevels);
+        flush(values);
+
+        chunkMeta.add(dataPageOffset);
+        chunkMeta.add(dictionaryPageOffset);
+        chunkMeta.add(hi - lo);
+        chunkMeta.add(fileOffset - chunkOffset);
+        chunkMeta.add(chunkOffset);
+    }
+
+    private void writeDictionaryKeys(int symbolCount, long keyCount) {
+        // dictionary indexes are a bit width byte followed by a single bit-packed run of the hybrid encoding
+        final int bitWidth = bitWidth(Math.max(symbolCount - 1, 0));
+        values.putByte((byte) bitWidth);
+        if (keyCount == 0) {
+            return;
+        }
+        final long groupCount = (keyCount + 7) / 8;
+        putVarint(values, (groupCount << 1) | 1);
+        long acc = 0;
+        int accBits = 0;
+        for (long i = 0; i < groupCount * 8; i++) {
+            final long key = i < keyCount ? keys.getInt(i * Integer.BYTES) : 0;
+            acc |= key << accBits;
+            accBits += bitWidth;
+            while (accBits >= 8) {
+                values.putByte((byte) acc);
+                acc >>>= 8;
+                accBits -= 8;
+            }
+        }
+        assert accBits == 0;
+    }
+
+    private void writeFooter(RecordMetadata metadata, long rowCount) {
+        final int columnCount = metadata.getColumnCount();
+        header.jumpTo(0);
+        thriftFieldIds.clear();
+        lastFieldId = 0;
+
+        // FileMetaData
+        writeI32Field(1, 1);
+        writeListField(2, TC_STRUCT, columnCount + 1);
+        thriftStructBegin();
+        writeStringField(4, "schema");
+        writeI32Field(5, columnCount);
+        thriftStructEnd();
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = metadata.getColumnType(i);
+            thriftStructBegin();
+            writeI32Field(1, getPhysicalType(columnType));
+            if (ColumnType.tagOf(columnType) == ColumnType.UUID) {
+                writeI32Field(2, 16);
+            }
+            writeI32Field(3, isRequired(columnType) ? REPETITION_REQUIRED : REPETITION_OPTIONAL);
+            writeStringField(4, metadata.getColumnName(i));
+            final int convertedType = getConvertedType(columnType);
+            if (convertedType > -1) {
+                writeI32Field(6, convertedType);
+            }
+            if (ColumnType.tagOf(columnType) == ColumnType.UUID) {
+                // logicalType union with the empty UUID struct
+                writeFieldHeader(TC_STRUCT, 10);
+                thriftStructBegin();
+                writeFieldHeader(TC_STRUCT, 14);
+                thriftStructBegin();
+                thriftStructEnd();
+                thriftStructEnd();
+            }
+            thriftStructEnd();
+        }
+        writeI64Field(3, rowCount);
+
+        final int rowGroupStride = 2 + columnCount * META_STRIDE;
+        final int rowGroupCount = chunkMeta.size() / rowGroupStride;
+        writeListField(4, TC_STRUCT, rowGroupCount);
+        for (int g = 0; g < rowGroupCount; g++) {
+            final int base = g * rowGroupStride;
+            thriftStructBegin();
+            writeListField(1, TC_STRUCT, columnCount);
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = metadata.getColumnType(i);
+                final int p = base + 2 + i * META_STRIDE;
+                final long dataPageOffset = chunkMeta.getQuick(p);
+                final long dictionaryPageOffset = chunkMeta.getQuick(p + 1);
+                final long chunkSize = chunkMeta.getQuick(p + 3);
+
+                // ColumnChunk
+                thriftStructBegin();
+                writeI64Field(2, chunkMeta.getQuick(p + 4));
+                writeFieldHeader(TC_STRUCT, 3);
+                // ColumnMetaData
+                thriftStructBegin();
+                writeI32Field(1, getPhysicalType(columnType));
+                final boolean symbol = ColumnType.isSymbol(columnType);
+                writeListField(2, TC_I32, symbol ? 3 : 2);
+                putVarint(header, zigZag(ENCODING_PLAIN));
+                putVarint(header, zigZag(ENCODING_RLE));
+                if (symbol) {
+                    putVarint(header, zigZag(ENCODING_RLE_DICTIONARY));
+                }
+                writeListField(3, TC_BINARY, 1);
+                writeString(metadata.getColumnName(i));
+                writeI32Field(4, 0); // uncompressed
+                writeI64Field(5, chunkMeta.getQuick(p + 2));
+                writeI64Field(6, chunkSize);
+                writeI64Field(7, chunkSize);
+                writeI64Field(9, dataPageOffset);
+                if (dictionaryPageOffset > -1) {
+                    writeI64Field(11, dictionaryPageOffset);
+                }
+                thriftStructEnd();
+                thriftStructEnd();
+            }
+            writeI64Field(2, chunkMeta.getQuick(base + 1));
+            writeI64Field(3, chunkMeta.getQuick(base));
+            thriftStructEnd();
+        }
+        writeStringField(6, CREATED_BY);
+        header.putByte((byte) 0);
+
+        final long footerSize = header.getAppendOffset();
+        header.putInt((int) footerSize);
+        header.putInt(MAGIC);
+        flush(header);
+    }
+
+    private void thriftStructBegin() {
+        thriftFieldIds.add(lastFieldId);
+        lastFieldId = 0;
+    }
+
+    private void thriftStructEnd() {
+        header.putByte((byte) 0);
+        lastFieldId = thriftFieldIds.getLast();
+        thriftFieldIds.removeIndex(thriftFieldIds.size() - 1);
+    }
+
+    private void writeFieldHeader(byte type, int fieldId) {
+        final int delta = fieldId - lastFieldId;
+        if (delta > 0 && delta < 16) {
+            header.putByte((byte) ((delta << 4) | type));
+        } else {
+            header.putByte(type);
+            putVarint(header, zigZag(fieldId));
+        }
+        lastFieldId = fieldId;
+    }
+
+    private void writeI32Field(int fieldId, int value) {
+        writeFieldHeader(TC_I32, fieldId);
+        putVarint(header, zigZag(value));
+    }
+
+    private void writeI64Field(int fieldId, long value) {
+        writeFieldHeader(TC_I64, fieldId);
+        putVarint(header, zigZag(value));
+    }
+
+    private void writeListField(int fieldId, byte elementType, int size) {
+        writeFieldHeader(TC_LIST, fieldId);
+        if (size < 15) {
+            header.putByte((byte) ((size << 4) | elementType));
+        } else {
+            header.putByte((byte) (0xf0 | elementType));
+            putVarint(header, size);
+        }
+    }
+
+    private void writePageHeader(int pageType, int pageSize, int valueCount, int encoding) {
+        header.jumpTo(0);
+        thriftFieldIds.clear();
+        lastFieldId = 0;
+        writeI32Field(1, pageType);
+        writeI32Field(2, pageSize);
+        writeI32Field(3, pageSize);
+        if (pageType == PAGE_DICTIONARY) {
+            writeFieldHeader(TC_STRUCT, 7);
+            thriftStructBegin();
+            writeI32Field(1, valueCount);
+            writeI32Field(2, encoding);
+            thriftStructEnd();
+        } else {
+            writeFieldHeader(TC_STRUCT, 5);
+            thriftStructBegin();
+            writeI32Field(1, valueCount);
+            writeI32Field(2, encoding);
+            writeI32Field(3, ENCODING_RLE);
+            writeI32Field(4, ENCODING_RLE);
+            thriftStructEnd();
+        }
+        header.putByte((byte) 0);
+    }
+
+    private void writeString(CharSequence value) {
+        utf8Sink.clear();
+        utf8Sink.put(value);
+        final int size = utf8Sink.size();
+        putVarint(header, size);
+        Unsafe.getUnsafe().copyMemory(utf8Sink.ptr(), header.appendAddressFor(size), size);
+    }
+
+    private void writeStringField(int fieldId, CharSequence value) {
+        writeFieldHeader(TC_BINARY, fieldId);
+        writeString(value);
+    }
+}
@@ -614,9 +614,21 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
                 sigArgCount--;
             }
 
-            // this is no-arg function, match right away
+            // this is no-arg function, match right away unless it's a window function called outside
+            // of window context or the other way around, e.g. count() and count() over ()
             if (argCount == 0 && sigArgCount == 0) {
-                return checkAndCreateFunction(factory, args, argPositions, node, configuration);
+                if (isWindowContext == factory.isWindow()) {
+                    return checkAndCreateFunction(factory, args, argPositions, node, configuration);
+                }
+                if (candidate == null) {
+                    candidate = factory;
+                    candidateDescriptor = descriptor;
+                    candidateSigArgCount = 0;
+                    candidateSigVarArg = false;
+                    candidateSigVarArgConst = false;
+                    bestMatch = MATCH_EXACT_MATCH;
+                }
+                continue;
             }
 
             if (candidateDescriptor == null) {
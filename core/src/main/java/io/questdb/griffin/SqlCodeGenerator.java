@@ -46,6 +46,7 @@ import io.questdb.griffin.engine.groupby.vect.GroupByRecordCursorFactory;
 import io.questdb.griffin.engine.groupby.vect.*;
 import io.questdb.griffin.engine.join.*;
 import io.questdb.griffin.engine.orderby.LimitedSizeSortedLightRecordCursorFactory;
+import io.questdb.griffin.engine.orderby.RadixSortLightRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
 import io.questdb.griffin.engine.orderby.SortedLightRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.SortedRecordCursorFactory;
@@ -54,6 +55,7 @@ import io.questdb.griffin.engine.union.*;
 import io.questdb.griffin.engine.window.CachedWindowRecordCursorFactory;
 import io.questdb.griffin.engine.window.WindowFunction;
 import io.questdb.griffin.engine.window.WindowRecordCursorFactory;
+import io.questdb.griffin.engine.window.WindowShardAtom;
 import io.questdb.griffin.model.*;
 import io.questdb.jit.CompiledFilter;
 import io.questdb.jit.CompiledFilterIRSerializer;
@@ -62,6 +64,7 @@ import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.*;
 import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8String;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -168,6 +171,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     private final ObjList<VectorAggregateFunctionConstructor> tempVecConstructors = new ObjList<>();
     private final ArrayColumnTypes valueTypes = new ArrayColumnTypes();
     private final WhereClauseParser whereClauseParser = new WhereClauseParser();
+    // per-shard copies of window functions, indexed by column
+    private final ObjList<ObjList<WindowFunction>> windowShardFunctions = new ObjList<>();
     // a bitset of string/symbol columns forced to be serialised as varchar
     private final BitSet writeStringAsVarcharA = new BitSet();
     private final BitSet writeStringAsVarcharB = new BitSet();
@@ -375,6 +380,292 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         );
     }
 
+    /**
+     * Collects equality predicates, such as "id = 42" or "ip in ('10.0.0.1', '10.0.0.2')", from the
+     * top-level conjunction of the filter. The filter itself is kept intact, so that the values are
+     * only used to skip partitions with bloom filters.
+     */
+    private static void extractBloomFilterPredicates(
+            ExpressionNode node,
+            RecordMetadata metadata,
+            BloomPartitionFilter bloomFilter,
+            LongList valueHashes
+    ) {
+        // 'in' is parsed as a set operation
+        if (node.type != OPERATION && node.type != FUNCTION && node.type != SET_OPERATION) {
+            return;
+        }
+
+        if (node.paramCount == 2 && isAndKeyword(node.token)) {
+            extractBloomFilterPredicates(node.lhs, metadata, bloomFilter, valueHashes);
+            extractBloomFilterPredicates(node.rhs, metadata, bloomFilter, valueHashes);
+            return;
+        }
+
+        final boolean isEq = node.paramCount == 2 && Chars.equals(node.token, '=');
+        final boolean isIn = node.paramCount > 1 && isInKeyword(node.token);
+        if (!isEq && !isIn) {
+            return;
+        }
+
+        // 'in' keeps the column last, values are in reverse order
+        ExpressionNode column = node.paramCount < 3 ? node.lhs : node.args.getLast();
+        if (isEq && column.type != LITERAL) {
+            column = node.rhs;
+        }
+        if (column.type != LITERAL) {
+            return;
+        }
+        final int columnIndex = metadata.getColumnIndexQuiet(column.token);
+        if (columnIndex < 0) {
+            return;
+        }
+        final int columnType = metadata.getColumnType(columnIndex);
+        if (!BloomFilterWriter.isSupported(columnType)) {
+            return;
+        }
+
+        valueHashes.clear();
+        if (node.paramCount < 3) {
+            if (!hashBloomFilterValue(column == node.lhs ? node.rhs : node.lhs, columnType, valueHashes)) {
+                return;
+            }
+        } else {
+            for (int i = 0, n = node.paramCount - 1; i < n; i++) {
+                if (!hashBloomFilterValue(node.args.getQuick(i), columnType, valueHashes)) {
+                    return;
+                }
+            }
+        }
+        bloomFilter.addPredicate(columnIndex, valueHashes);
+    }
+
+    /**
+     * Collects value ranges, such as "id between 10 and 20", "id >= 10 and id < 20" or
+     * "ip << '10.0.0.0/8'", from the top-level conjunction of the filter. Ranges of the same column
+     * are intersected, the result holds (column index, lo, hi) triplets with inclusive bounds. The
+     * filter itself is kept intact, so that the ranges are only used to look up rows in sorted indexes.
+     */
+    private static void extractSortedIndexRanges(ExpressionNode node, RecordMetadata metadata, LongList ranges) {
+        // 'between' is parsed as a set operation, same as 'in'
+        if (node.type != OPERATION && node.type != FUNCTION && node.type != SET_OPERATION) {
+            return;
+        }
+
+        if (node.paramCount == 2 && isAndKeyword(node.token)) {
+            extractSortedIndexRanges(node.lhs, metadata, ranges);
+            extractSortedIndexRanges(node.rhs, metadata, ranges);
+            return;
+        }
+
+        final int columnIndex;
+        long lo = Long.MIN_VALUE;
+        long hi = Long.MAX_VALUE;
+        if (node.paramCount == 3 && isBetweenKeyword(node.token)) {
+            // 'between' keeps the column last, bounds are in reverse order
+            columnIndex = getSortedIndexColumn(node.args.getLast(), metadata);
+            if (columnIndex < 0 || metadata.getColumnType(columnIndex) == ColumnType.IPv4) {
+                return;
+            }
+            final int columnType = metadata.getColumnType(columnIndex);
+            final long a = parseSortedIndexValue(node.args.getQuick(1), columnType);
+            final long b = parseSortedIndexValue(node.args.getQuick(0), columnType);
+            if (a == Numbers.LONG_NULL || b == Numbers.LONG_NULL) {
+                return;
+            }
+            lo = Math.min(a, b);
+            hi = Math.max(a, b);
+        } else if (node.paramCount == 2 && (Chars.equals(node.token, "<<") || Chars.equals(node.token, "<<="))) {
+            columnIndex = getSortedIndexColumn(node.lhs, metadata);
+            if (columnIndex < 0 || metadata.getColumnType(columnIndex) != ColumnType.IPv4
+                    || node.rhs.type != CONSTANT || !Chars.isQuoted(node.rhs.token)) {
+                return;
+            }
+            try {
+                final long subnetAndNetmask = Numbers.getIPv4Subnet(GenericLexer.unquote(node.rhs.token));
+                final int netmask = (int) subnetAndNetmask;
+                final int subnet = (int) (subnetAndNetmask >> 32) & netmask;
+                if (subnet == Numbers.IPv4_NULL) {
+                    // the subnet contains null, which is not in the index
+                    return;
+                }
+                lo = Numbers.ipv4ToLong(subnet);
+                hi = Numbers.ipv4ToLong(subnet | ~netmask);
+            } catch (NumericException ignore) {
+                return;
+            }
+        } else if (node.paramCount == 2) {
+            final boolean isEq = Chars.equals(node.token, '=');
+            // 'column < constant' and 'constant > column' are the same range
+            final boolean isLt;
+            final boolean isGt;
+            final boolean inclusive = isEq || Chars.equals(node.token, "<=") || Chars.equals(node.token, ">=");
+            ExpressionNode constant = node.rhs;
+            if (node.lhs.type != LITERAL) {
+                columnIndex = getSortedIndexColumn(node.rhs, metadata);
+                constant = node.lhs;
+                isLt = Chars.equals(node.token, '>') || Chars.equals(node.token, ">=");
+                isGt = Chars.equals(node.token, '<') || Chars.equals(node.token, "<=");
+            } else {
+                columnIndex = getSortedIndexColumn(node.lhs, metadata);
+                isLt = Chars.equals(node.token, '<') || Chars.equals(node.token, "<=");
+                isGt = Chars.equals(node.token, '>') || Chars.equals(node.token, ">=");
+            }
+            if (columnIndex < 0 || !(isEq || isLt || isGt)) {
+                return;
+            }
+            long value = parseSortedIndexValue(constant, metadata.getColumnType(columnIndex));
+            if (value == Numbers.LONG_NULL) {
+                return;
+            }
+            if (isEq) {
+                lo = hi = value;
+            } else if (isGt) {
+                if (!inclusive) {
+                    if (value == Long.MAX_VALUE) {
+                        return;
+                    }
+                    value++;
+                }
+                lo = value;
+            } else {
+                if (!inclusive) {
+                    if (value == Long.MIN_VALUE + 1) {
+                        return;
+                    }
+                    value--;
+                }
+                hi = value;
+            }
+        } else {
+            return;
+        }
+
+        for (int i = 0, n = ranges.size(); i < n; i += 3) {
+            if (ranges.getQuick(i) == columnIndex) {
+                ranges.setQuick(i + 1, Math.max(lo, ranges.getQuick(i + 1)));
+                ranges.setQuick(i + 2, Math.min(hi, ranges.getQuick(i + 2)));
+                return;
+            }
+        }
+        ranges.add(columnIndex);
+        ranges.add(lo);
+        ranges.add(hi);
+    }
+
+    /**
+     * Collects numeric range predicates, such as "x > 10" or "-1.5 <= y", from the top-level
+     * conjunction of the filter. The filter itself is kept intact, so that the ranges are only
+     * used to skip partitions with zone maps.
+     */
+    private static void extractZoneMapPredicates(ExpressionNode node, RecordMetadata metadata, ZoneMapFilter zoneMapFilter) {
+        if (node.type != OPERATION || node.paramCount != 2) {
+            return;
+        }
+
+        if (isAndKeyword(node.token)) {
+            extractZoneMapPredicates(node.lhs, metadata, zoneMapFilter);
+            extractZoneMapPredicates(node.rhs, metadata, zoneMapFilter);
+            return;
+        }
+
+        final boolean isEq = Chars.equals(node.token, '=');
+        // 'column < constant' and 'constant > column' are the same range
+        final boolean isLt;
+        final boolean isGt;
+        final boolean inclusive = isEq || Chars.equals(node.token, "<=") || Chars.equals(node.token, ">=");
+        ExpressionNode column = node.lhs;
+        ExpressionNode constant = node.rhs;
+        if (column.type != LITERAL) {
+            column = node.rhs;
+            constant = node.lhs;
+            isLt = Chars.equals(node.token, '>') || Chars.equals(node.token, ">=");
+            isGt = Chars.equals(node.token, '<') || Chars.equals(node.token, "<=");
+        } else {
+            isLt = Chars.equals(node.token, '<') || Chars.equals(node.token, "<=");
+            isGt = Chars.equals(node.token, '>') || Chars.equals(node.token, ">=");
+        }
+
+        if (column.type != LITERAL || !(isEq || isLt || isGt)) {
+            return;
+        }
+
+        final int columnIndex = metadata.getColumnIndexQuiet(column.token);
+        if (columnIndex < 0) {
+            return;
+        }
+        final int columnType = metadata.getColumnType(columnIndex);
+        if (!ZoneMapWriter.isSupported(columnType)) {
+            return;
+        }
+
+        boolean negative = false;
+        if (constant.type == OPERATION && constant.paramCount == 1 && Chars.equals(constant.token, '-')) {
+            negative = true;
+            constant = constant.rhs;
+        }
+        if (constant.type != CONSTANT) {
+            return;
+        }
+
+        try {
+            if (columnType == ColumnType.DOUBLE) {
+                double value = Numbers.parseDouble(constant.token);
+                if (Double.isNaN(value) || Double.isInfinite(value)) {
+                    return;
+                }
+                if (negative) {
+                    value = -value;
+                }
+                // double comparison is tolerant, widen the range accordingly
+                zoneMapFilter.addDoubleRange(
+                        columnIndex,
+                        isLt ? Double.NEGATIVE_INFINITY : value - Numbers.DOUBLE_TOLERANCE,
+                        isGt ? Double.POSITIVE_INFINITY : value + Numbers.DOUBLE_TOLERANCE
+                );
+            } else {
+                long value = Numbers.parseLong(constant.token);
+                if (negative) {
+                    value = -value;
+                }
+                // the constant is the null value, comparison with it matches null rows
+                if (value == Numbers.LONG_NULL || (columnType == ColumnType.INT && value == Numbers.INT_NULL)) {
+                    return;
+                }
+                long lo = Long.MIN_VALUE;
+                long hi = Long.MAX_VALUE;
+                if (isEq) {
+                    lo = hi = value;
+                } else if (isGt) {
+                    if (!inclusive) {
+                        if (value == Long.MAX_VALUE) {
+                            return;
+                        }
+                        value++;
+                    }
+                    lo = value;
+                } else {
+                    if (!inclusive) {
+                        if (value == Long.MIN_VALUE) {
+                            return;
+                        }
+                        value--;
+                    }
+                    hi = value;
+                }
+                zoneMapFilter.addLongRange(columnIndex, lo, hi);
+            }
+        } catch (NumericException ignore) {
+            // not a numeric literal, e.g. a string or null
+        }
+    }
+
+    private static void freePerWorkerFunctions(ObjList<ObjList<Function>> perWorkerFunctions) {
+        for (int i = 0, n = perWorkerFunctions.size(); i < n; i++) {
+            Misc.freeObjList(perWorkerFunctions.getQuick(i));
+        }
+    }
+
     private static int getOrderByDirectionOrDefault(QueryModel model, int index) {
         IntList direction = model.getOrderByDirectionAdvice();
         if (index >= direction.size()) {
@@ -383,6 +674,86 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return model.getOrderByDirectionAdvice().getQuick(index);
     }
 
+    private static int getSortedIndexColumn(ExpressionNode column, RecordMetadata metadata) {
+        if (column.type != LITERAL) {
+            return -1;
+        }
+        final int columnIndex = metadata.getColumnIndexQuiet(column.token);
+        if (columnIndex < 0 || !SortedIndexWriter.isSupported(metadata.getColumnType(columnIndex))) {
+            return -1;
+        }
+        return columnIndex;
+    }
+
+    /**
+     * Hashes a constant the way {@link BloomFilterWriter} hashes column values. Returns false for
+     * anything else, including null, since null never makes it into a bloom filter.
+     */
+    private static boolean hashBloomFilterValue(ExpressionNode constant, int columnType, LongList valueHashes) {
+        try {
+            if (columnType == ColumnType.LONG) {
+                boolean negative = false;
+                if (constant.type == OPERATION && constant.paramCount == 1 && Chars.equals(constant.token, '-')) {
+                    negative = true;
+                    constant = constant.rhs;
+                }
+                if (constant.type != CONSTANT) {
+                    return false;
+                }
+                final long value = Numbers.parseLong(constant.token);
+                if (value == Numbers.LONG_NULL) {
+                    return false;
+                }
+                valueHashes.add(BloomFilterWriter.hashLong(negative ? -value : value));
+                return true;
+            }
+
+            // varchar, uuid and ipv4 values are compared with string literals
+            if (constant.type != CONSTANT || !Chars.isQuoted(constant.token)) {
+                return false;
+            }
+            final CharSequence value = GenericLexer.unquote(constant.token);
+            switch (columnType) {
+                case ColumnType.VARCHAR:
+                    valueHashes.add(BloomFilterWriter.hashVarchar(new Utf8String(value)));
+                    return true;
+                case ColumnType.UUID: {
+                    Uuid.checkDashesAndLength(value);
+                    final long lo = Uuid.parseLo(value);
+                    final long hi = Uuid.parseHi(value);
+                    if (Uuid.isNull(lo, hi)) {
+                        return false;
+                    }
+                    valueHashes.add(BloomFilterWriter.hashUuid(lo, hi));
+                    return true;
+                }
+                default: {
+                    final int ip = Numbers.parseIPv4(value);
+                    if (ip == Numbers.IPv4_NULL) {
+                        return false;
+                    }
+                    valueHashes.add(BloomFilterWriter.hashIPv4(ip));
+                    return true;
+                }
+            }
+        } catch (NumericException ignore) {
+            // not a literal of the column type
+            return false;
+        }
+    }
+
+    private static boolean isSameExpressionList(ObjList<ExpressionNode> a, ObjList<ExpressionNode> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0, n = a.size(); i < n; i++) {
+            if (!ExpressionNode.compareNodesExact(a.getQuick(i), b.getQuick(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static boolean isSingleColumnFunction(ExpressionNode ast, CharSequence name) {
         return ast.type == FUNCTION && ast.paramCount == 1 && Chars.equalsIgnoreCase(ast.token, name) && ast.rhs.type == LITERAL;
     }
@@ -391,6 +762,39 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return colType == ColumnType.VARCHAR || colType == ColumnType.STRING;
     }
 
+    /**
+     * Parses a constant the way {@link SortedIndexWriter} stores column values, IPv4 values are
+     * unsigned. Returns null for anything else, including null, since null is not in the index.
+     */
+    private static long parseSortedIndexValue(ExpressionNode constant, int columnType) {
+        try {
+            if (columnType == ColumnType.IPv4) {
+                if (constant.type != CONSTANT || !Chars.isQuoted(constant.token)) {
+                    return Numbers.LONG_NULL;
+                }
+                final int ip = Numbers.parseIPv4(GenericLexer.unquote(constant.token));
+                return ip != Numbers.IPv4_NULL ? Numbers.ipv4ToLong(ip) : Numbers.LONG_NULL;
+            }
+
+            boolean negative = false;
+            if (constant.type == OPERATION && constant.paramCount == 1 && Chars.equals(constant.token, '-')) {
+                negative = true;
+                constant = constant.rhs;
+            }
+            if (constant.type != CONSTANT) {
+                return Numbers.LONG_NULL;
+            }
+            final long value = Numbers.parseLong(constant.token);
+            if (columnType == ColumnType.INT && value == Numbers.INT_NULL) {
+                return Numbers.LONG_NULL;
+            }
+            return negative ? -value : value;
+        } catch (NumericException ignore) {
+            // not a literal of the column type
+            return Numbers.LONG_NULL;
+        }
+    }
+
     private static RecordMetadata widenSetMetadata(RecordMetadata typesA, RecordMetadata typesB) {
         int columnCount = typesA.getColumnCount();
         assert columnCount == typesB.getColumnCount();
@@ -498,7 +902,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     // Checks if lo, hi is set and lo >= 0 while hi < 0 (meaning - return whole result set except some rows at start and some at the end)
     // because such case can't really be optimized by topN/bottomN
     private boolean canSortAndLimitBeOptimized(QueryModel model, SqlExecutionContext context, Function loFunc, Function hiFunc) {
-        if (model.getLimitLo() == null && model.getLimitHi() == null) {
+        // limit applies to the gap-filled rows, all buckets have to be sorted
+        if ((model.getLimitLo() == null && model.getLimitHi() == null) || model.getFillStride() != null) {
             return false;
         }
 
@@ -794,7 +1199,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             RecordCursorFactory slave,
             int joinType,
             Function filter,
-            JoinContext context
+            JoinContext context,
+            SqlExecutionContext executionContext
     ) {
         /*
          * JoinContext provides the following information:
@@ -832,6 +1238,27 @@ public class SqlCodeGenerator implements Mutable, Closeable {
 
         if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
             if (joinType == JOIN_INNER) {
+                if (configuration.isSqlMergeJoinEnabled()) {
+                    final RecordCursorFactory mergeFactory = generateMergeJoin(metadata, master, slave, context);
+                    if (mergeFactory != null) {
+                        return mergeFactory;
+                    }
+                }
+                if (configuration.isSqlParallelHashJoinEnabled()) {
+                    final RecordCursorFactory parallelFactory = generateParallelHashJoin(
+                            metadata,
+                            master,
+                            slave,
+                            masterKeySink,
+                            slaveKeySink,
+                            masterMetadata.getColumnCount(),
+                            context,
+                            executionContext
+                    );
+                    if (parallelFactory != null) {
+                        return parallelFactory;
+                    }
+                }
                 return new HashJoinLightRecordCursorFactory(
                         configuration,
                         metadata,
@@ -1660,6 +2087,67 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return castFunctions;
     }
 
+    private RecordCursorFactory generateFill(RecordCursorFactory factory, QueryModel model, SqlExecutionContext executionContext) throws SqlException {
+        final ExpressionNode fillStride = model.getFillStride();
+        if (fillStride == null) {
+            return factory;
+        }
+
+        // SAMPLE BY with FILL was rewritten into GROUP BY over calendar buckets ordered by timestamp,
+        // the gaps between the buckets are filled here
+        Function timezoneNameFunc = null;
+        try {
+            final RecordMetadata metadata = factory.getMetadata();
+            final int timestampIndex = metadata.getTimestampIndex();
+            if (timestampIndex == -1) {
+                throw SqlException.$(model.getModelPosition(), "base query does not provide ASC order over dedicated TIMESTAMP column");
+            }
+
+            final ObjList<QueryColumn> columns = model.getColumns();
+            assert columns.size() == metadata.getColumnCount();
+            final IntList columnKinds = new IntList(columns.size());
+            final IntList columnPositions = new IntList(columns.size());
+            for (int i = 0, n = columns.size(); i < n; i++) {
+                final ExpressionNode ast = columns.getQuick(i).getAst();
+                if (i == timestampIndex) {
+                    columnKinds.add(SampleByGapFillRecordCursorFactory.COLUMN_TIMESTAMP);
+                } else if (ast.type == ExpressionNode.FUNCTION && functionParser.getFunctionFactoryCache().isGroupBy(ast.token)) {
+                    columnKinds.add(SampleByGapFillRecordCursorFactory.COLUMN_VALUE);
+                } else {
+                    columnKinds.add(SampleByGapFillRecordCursorFactory.COLUMN_KEY);
+                }
+                columnPositions.add(ast.position);
+            }
+
+            final ExpressionNode timezoneName = model.getSampleByTimezoneName();
+            CharSequence timezone = null;
+            int timezonePos = 0;
+            if (timezoneName != null && !SqlKeywords.isUTC(timezoneName.token)) {
+                timezoneNameFunc = functionParser.parseFunction(timezoneName, EmptyRecordMetadata.INSTANCE, executionContext);
+                timezone = timezoneNameFunc.getStrA(null);
+                timezonePos = timezoneName.position;
+            }
+
+            return new SampleByGapFillRecordCursorFactory(
+                    asm,
+                    configuration,
+                    factory,
+                    TimestampSamplerFactory.getInstance(fillStride.token, fillStride.position),
+                    fillStride.token,
+                    timezone,
+                    timezonePos,
+                    columnKinds,
+                    columnPositions,
+                    model.getSampleByFill()
+            );
+        } catch (Throwable th) {
+            Misc.free(factory);
+            throw th;
+        } finally {
+            Misc.free(timezoneNameFunc);
+        }
+    }
+
     private RecordCursorFactory generateFilter(RecordCursorFactory factory, QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         return model.getWhereClause() == null ? factory : generateFilter0(factory, model, executionContext);
     }
@@ -1930,29 +2418,54 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                 processJoinContext(index == 1, slaveModel.getContext(), masterMetadata, slaveMetadata);
                                 if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
                                     if (isKeyedTemporalJoin(masterMetadata, slaveMetadata)) {
-                                        master = createAsOfJoin(
-                                                createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
-                                                master,
-                                                RecordSinkFactory.getInstance(
-                                                        asm,
-                                                        masterMetadata,
-                                                        listColumnFilterB,
-                                                        true,
-                                                        writeStringAsVarcharB
-                                                ),
-                                                slave,
-                                                RecordSinkFactory.getInstance(
-                                                        asm,
-                                                        slaveMetadata,
-                                                        listColumnFilterA,
-                                                        true,
-                                                        writeStringAsVarcharA
-                                                ),
-                                                masterMetadata.getColumnCount(),
-                                                slaveModel.getContext()
-                                        );
+                                        if (configuration.isSqlAsOfJoinKeyedFastScanEnabled() && slave.supportsTimeFrameCursor() && isSingleSymbolKeyTemporalJoin(masterMetadata, slaveMetadata)) {
+                                            master = new AsOfJoinFastRecordCursorFactory(
+                                                    configuration,
+                                                    createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                                    master,
+                                                    slave,
+                                                    masterMetadata.getColumnCount(),
+                                                    listColumnFilterB.getColumnIndexFactored(0),
+                                                    listColumnFilterA.getColumnIndexFactored(0),
+                                                    slaveModel.getContext()
+                                            );
+                                        } else {
+                                            master = createAsOfJoin(
+                                                    createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                                    master,
+                                                    RecordSinkFactory.getInstance(
+                                                            asm,
+                                                            masterMetadata,
+                                                            listColumnFilterB,
+                                                            true,
+                                                            writeStringAsVarcharB
+                                                    ),
+                                                    slave,
+                                                    RecordSinkFactory.getInstance(
+                                                            asm,
+                                                            slaveMetadata,
+                                                            listColumnFilterA,
+                                                            true,
+                                                            writeStringAsVarcharA
+                                                    ),
+                                                    masterMetadata.getColumnCount(),
+                                                    slaveModel.getContext()
+                                            );
+                                        }
                                     } else {
-                                        if (slave.supportsTimeFrameCursor()) {
+                                        RecordCursorFactory parallelFactory = null;
+                                        if (slave.supportsTimeFrameCursor() && configuration.isSqlParallelAsOfJoinEnabled()) {
+                                            parallelFactory = generateParallelAsOfJoin(
+                                                    masterAlias,
+                                                    master,
+                                                    slaveModel.getName(),
+                                                    slave,
+                                                    executionContext
+                                            );
+                                        }
+                                        if (parallelFactory != null) {
+                                            master = parallelFactory;
+                                        } else if (slave.supportsTimeFrameCursor()) {
                                             master = new AsOfJoinNoKeyFastRecordCursorFactory(
                                                     configuration,
                                                     createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
@@ -1993,27 +2506,40 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                 processJoinContext(index == 1, slaveModel.getContext(), masterMetadata, slaveMetadata);
                                 if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
                                     if (isKeyedTemporalJoin(masterMetadata, slaveMetadata)) {
-                                        master = createLtJoin(
-                                                createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
-                                                master,
-                                                RecordSinkFactory.getInstance(
-                                                        asm,
-                                                        masterMetadata,
-                                                        listColumnFilterB,
-                                                        true,
-                                                        writeStringAsVarcharB
-                                                ),
-                                                slave,
-                                                RecordSinkFactory.getInstance(
-                                                        asm,
-                                                        slaveMetadata,
-                                                        listColumnFilterA,
-                                                        true,
-                                                        writeStringAsVarcharA
-                                                ),
-                                                masterMetadata.getColumnCount(),
-                                                slaveModel.getContext()
-                                        );
+                                        if (configuration.isSqlAsOfJoinKeyedFastScanEnabled() && slave.supportsTimeFrameCursor() && isSingleSymbolKeyTemporalJoin(masterMetadata, slaveMetadata)) {
+                                            master = new LtJoinFastRecordCursorFactory(
+                                                    configuration,
+                                                    createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                                    master,
+                                                    slave,
+                                                    masterMetadata.getColumnCount(),
+                                                    listColumnFilterB.getColumnIndexFactored(0),
+                                                    listColumnFilterA.getColumnIndexFactored(0),
+                                                    slaveModel.getContext()
+                                            );
+                                        } else {
+                                            master = createLtJoin(
+                                                    createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                                    master,
+                                                    RecordSinkFactory.getInstance(
+                                                            asm,
+                                                            masterMetadata,
+                                                            listColumnFilterB,
+                                                            true,
+                                                            writeStringAsVarcharB
+                                                    ),
+                                                    slave,
+                                                    RecordSinkFactory.getInstance(
+                                                            asm,
+                                                            slaveMetadata,
+                                                            listColumnFilterA,
+                                                            true,
+                                                            writeStringAsVarcharA
+                                                    ),
+                                                    masterMetadata.getColumnCount(),
+                                                    slaveModel.getContext()
+                                            );
+                                        }
                                     } else {
                                         if (slave.supportsTimeFrameCursor()) {
                                             master = new LtJoinNoKeyFastRecordCursorFactory(
@@ -2114,7 +2640,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                         slave,
                                         joinType,
                                         filter,
-                                        slaveModel.getContext()
+                                        slaveModel.getContext(),
+                                        executionContext
                                 );
                                 masterAlias = null;
                                 break;
@@ -2337,6 +2864,19 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                         metadata,
                         partitionByColumnIndexes
                 );
+                final RecordCursorFactory parallelLatestBy = generateParallelLatestBy(
+                        metadata,
+                        dataFrameCursorFactory,
+                        partitionByColumnIndexes,
+                        partitionBySymbolCounts,
+                        filter,
+                        columnIndexes,
+                        columnSizes,
+                        executionContext
+                );
+                if (parallelLatestBy != null) {
+                    return parallelLatestBy;
+                }
                 return new LatestByAllSymbolsFilteredRecordCursorFactory(
                         metadata,
                         configuration,
@@ -2349,6 +2889,19 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                         columnIndexes
                 );
             }
+            final RecordCursorFactory parallelLatestBy = generateParallelLatestBy(
+                    metadata,
+                    dataFrameCursorFactory,
+                    null,
+                    null,
+                    filter,
+                    columnIndexes,
+                    columnSizes,
+                    executionContext
+            );
+            if (parallelLatestBy != null) {
+                return parallelLatestBy;
+            }
             return new LatestByAllFilteredRecordCursorFactory(
                     metadata,
                     configuration,
@@ -2669,55 +3222,554 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 final Function loFunc = getLoFunction(model, executionContext);
                 final Function hiFunc = getHiFunction(model, executionContext);
 
-                if (recordCursorFactory.recordCursorSupportsRandomAccess()) {
-                    if (canSortAndLimitBeOptimized(model, executionContext, loFunc, hiFunc)) {
-                        model.setLimitImplemented(true);
-                        int baseCursorTimestampIndex = preSortedByTs ? timestampIndex : -1;
-                        return new LimitedSizeSortedLightRecordCursorFactory(
-                                configuration,
-                                orderedMetadata,
-                                recordCursorFactory,
-                                recordComparatorCompiler.compile(metadata, listColumnFilterA),
-                                loFunc,
-                                hiFunc,
-                                listColumnFilterA.copy(),
-                                baseCursorTimestampIndex
-                        );
-                    } else {
-                        return new SortedLightRecordCursorFactory(
-                                configuration,
-                                orderedMetadata,
-                                recordCursorFactory,
-                                recordComparatorCompiler.compile(metadata, listColumnFilterA),
-                                listColumnFilterA.copy()
+                if (recordCursorFactory.recordCursorSupportsRandomAccess()) {
+                    if (canSortAndLimitBeOptimized(model, executionContext, loFunc, hiFunc)) {
+                        model.setLimitImplemented(true);
+                        // partially sorted base lets the single-threaded cursor stop early
+                        if (!preSortedByTs && loFunc != null && configuration.isSqlParallelTopKEnabled()) {
+                            final RecordCursorFactory parallelFactory = generateParallelOrderBy(
+                                    recordCursorFactory,
+                                    orderedMetadata,
+                                    model,
+                                    executionContext,
+                                    loFunc,
+                                    hiFunc
+                            );
+                            if (parallelFactory != null) {
+                                return parallelFactory;
+                            }
+                        }
+                        int baseCursorTimestampIndex = preSortedByTs ? timestampIndex : -1;
+                        return new LimitedSizeSortedLightRecordCursorFactory(
+                                configuration,
+                                orderedMetadata,
+                                recordCursorFactory,
+                                recordComparatorCompiler.compile(metadata, listColumnFilterA),
+                                loFunc,
+                                hiFunc,
+                                listColumnFilterA.copy(),
+                                baseCursorTimestampIndex
+                        );
+                    } else {
+                        // Radix and parallel sorts keep all rows in memory, so with spill enabled
+                        // we go for the single-threaded sort that is able to write runs to disk.
+                        final boolean spillEnabled = configuration.isSqlSortSpillEnabled();
+                        if (!spillEnabled && configuration.isSqlSortRadixEnabled() && RadixSortLightRecordCursorFactory.isSupported(metadata, listColumnFilterA)) {
+                            return new RadixSortLightRecordCursorFactory(
+                                    configuration,
+                                    orderedMetadata,
+                                    recordCursorFactory,
+                                    listColumnFilterA.copy()
+                            );
+                        }
+                        if (!spillEnabled && configuration.isSqlParallelOrderByEnabled()) {
+                            final RecordCursorFactory parallelFactory = generateParallelOrderBy(
+                                    recordCursorFactory,
+                                    orderedMetadata,
+                                    model,
+                                    executionContext,
+                                    null,
+                                    null
+                            );
+                            if (parallelFactory != null) {
+                                return parallelFactory;
+                            }
+                        }
+                        return new SortedLightRecordCursorFactory(
+                                configuration,
+                                orderedMetadata,
+                                recordCursorFactory,
+                                recordComparatorCompiler.compile(metadata, listColumnFilterA),
+                                listColumnFilterA.copy()
+                        );
+                    }
+                }
+
+                // when base record cursor does not support random access
+                // we have to copy entire record into ordered structure
+
+                entityColumnFilter.of(orderedMetadata.getColumnCount());
+                return new SortedRecordCursorFactory(
+                        configuration,
+                        orderedMetadata,
+                        recordCursorFactory,
+                        RecordSinkFactory.getInstance(
+                                asm,
+                                orderedMetadata,
+                                entityColumnFilter,
+                                false
+                        ),
+                        recordComparatorCompiler.compile(metadata, listColumnFilterA),
+                        listColumnFilterA.copy()
+                );
+            }
+
+            return recordCursorFactory;
+        } catch (SqlException | CairoException e) {
+            recordCursorFactory.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns merge join factory for the given master and slave factories or null if they
+     * are not ordered by designated timestamps in the same direction or if the timestamps
+     * are not one of the join keys. Expects listColumnFilterA, listColumnFilterB and keyTypes
+     * to hold the slave and master join keys.
+     */
+    private @Nullable RecordCursorFactory generateMergeJoin(
+            RecordMetadata metadata,
+            RecordCursorFactory master,
+            RecordCursorFactory slave,
+            JoinContext context
+    ) {
+        final RecordMetadata masterMetadata = master.getMetadata();
+        final RecordMetadata slaveMetadata = slave.getMetadata();
+        final int masterTimestampIndex = masterMetadata.getTimestampIndex();
+        final int slaveTimestampIndex = slaveMetadata.getTimestampIndex();
+        if (masterTimestampIndex == -1 || slaveTimestampIndex == -1) {
+            return null;
+        }
+        final int scanDirection = master.getScanDirection();
+        if (scanDirection == RecordCursorFactory.SCAN_DIRECTION_OTHER || scanDirection != slave.getScanDirection()) {
+            return null;
+        }
+
+        int timestampKeyIndex = -1;
+        for (int k = 0, n = listColumnFilterB.getColumnCount(); k < n; k++) {
+            if (listColumnFilterB.getColumnIndexFactored(k) == masterTimestampIndex
+                    && listColumnFilterA.getColumnIndexFactored(k) == slaveTimestampIndex) {
+                timestampKeyIndex = k;
+                break;
+            }
+        }
+        if (timestampKeyIndex == -1) {
+            return null;
+        }
+
+        // the timestamps are matched by merging, the rest of the keys go to hash map
+        ArrayColumnTypes joinColumnTypes = null;
+        RecordSink masterKeySink = null;
+        RecordSink slaveKeySink = null;
+        final int keyCount = listColumnFilterB.getColumnCount();
+        if (keyCount > 1) {
+            joinColumnTypes = new ArrayColumnTypes();
+            final ListColumnFilter masterKeyColumns = new ListColumnFilter(keyCount - 1);
+            final ListColumnFilter slaveKeyColumns = new ListColumnFilter(keyCount - 1);
+            for (int k = 0; k < keyCount; k++) {
+                if (k != timestampKeyIndex) {
+                    joinColumnTypes.add(keyTypes.getColumnType(k));
+                    masterKeyColumns.add(listColumnFilterB.getQuick(k));
+                    slaveKeyColumns.add(listColumnFilterA.getQuick(k));
+                }
+            }
+            masterKeySink = RecordSinkFactory.getInstance(asm, masterMetadata, masterKeyColumns, true, writeStringAsVarcharB);
+            slaveKeySink = RecordSinkFactory.getInstance(asm, slaveMetadata, slaveKeyColumns, true, writeStringAsVarcharA);
+        }
+
+        return new MergeJoinLightRecordCursorFactory(
+                configuration,
+                metadata,
+                master,
+                slave,
+                joinColumnTypes,
+                masterKeySink,
+                slaveKeySink,
+                masterTimestampIndex,
+                slaveTimestampIndex,
+                masterMetadata.getColumnCount(),
+                context
+        );
+    }
+
+    /**
+     * Returns parallel non-keyed ASOF join factory for the given master and slave factories or null
+     * if the master doesn't support page frames and its filter can't be stolen. The slave is expected
+     * to support time frames, i.e. to be a plain table scan in the timestamp order.
+     */
+    private @Nullable RecordCursorFactory generateParallelAsOfJoin(
+            CharSequence masterAlias,
+            RecordCursorFactory master,
+            CharSequence slaveAlias,
+            RecordCursorFactory slave,
+            SqlExecutionContext executionContext
+    ) {
+        final int workerCount = executionContext.getSharedWorkerCount();
+        if (workerCount < 1 || master.getScanDirection() != RecordCursorFactory.SCAN_DIRECTION_FORWARD) {
+            return null;
+        }
+
+        final RecordMetadata masterMetadata = master.getMetadata();
+
+        CompiledFilter compiledFilter = null;
+        MemoryCARW bindVarMemory = null;
+        ObjList<Function> bindVarFunctions = null;
+        Function filter = null;
+        if (!master.supportsPageFrameCursor()) {
+            if (!(master instanceof StealableFilterRecordCursorFactory)) {
+                return null;
+            }
+            final StealableFilterRecordCursorFactory filterFactory = (StealableFilterRecordCursorFactory) master;
+            // the filter is shared by workers, so it has to be thread-safe
+            if (!filterFactory.supportsFilterStealing() || !filterFactory.getFilter().isReadThreadSafe()) {
+                return null;
+            }
+            master = master.getBaseFactory();
+            assert master.supportsPageFrameCursor();
+            compiledFilter = filterFactory.getCompiledFilter();
+            bindVarMemory = filterFactory.getBindVarMemory();
+            bindVarFunctions = filterFactory.getBindVarFunctions();
+            filter = filterFactory.getFilter();
+            filterFactory.halfClose();
+        }
+
+        // join metadata is created only now, so that it isn't leaked when the join stays single-threaded
+        return new AsyncAsOfJoinRecordCursorFactory(
+                configuration,
+                executionContext.getMessageBus(),
+                createJoinMetadata(masterAlias, masterMetadata, slaveAlias, slave.getMetadata()),
+                master,
+                slave,
+                masterMetadata.getColumnCount(),
+                compiledFilter,
+                bindVarMemory,
+                bindVarFunctions,
+                filter,
+                reduceTaskFactory,
+                workerCount
+        );
+    }
+
+    /**
+     * Returns parallel LATEST BY factory over the given table data frames or null if there are
+     * no shared workers or the filter isn't thread-safe. The filter is taken over by the factory.
+     */
+    private @Nullable RecordCursorFactory generateParallelLatestBy(
+            RecordMetadata metadata,
+            DataFrameCursorFactory dataFrameCursorFactory,
+            @Nullable IntList partitionByColumnIndexes,
+            @Nullable IntList partitionBySymbolCounts,
+            @Nullable Function filter,
+            IntList columnIndexes,
+            IntList columnSizes,
+            SqlExecutionContext executionContext
+    ) {
+        final int workerCount = executionContext.getSharedWorkerCount();
+        if (!configuration.isSqlParallelLatestByEnabled() || workerCount < 1 || (filter != null && !filter.isReadThreadSafe())) {
+            return null;
+        }
+
+        final RecordCursorFactory base = new DataFrameRecordCursorFactory(
+                configuration,
+                metadata,
+                dataFrameCursorFactory,
+                new BwdDataFrameRowCursorFactory(),
+                false,
+                null,
+                true,
+                columnIndexes,
+                columnSizes,
+                true
+        );
+        return new AsyncLatestByRecordCursorFactory(
+                configuration,
+                executionContext.getMessageBus(),
+                metadata,
+                base,
+                RecordSinkFactory.getInstance(asm, metadata, listColumnFilterA, false),
+                keyTypes,
+                partitionByColumnIndexes,
+                partitionBySymbolCounts,
+                filter,
+                reduceTaskFactory,
+                workerCount
+        );
+    }
+
+    /**
+     * Returns parallel hash join factory for the given master and slave factories or null
+     * if any of them doesn't support page frames. A thread-safe master filter is stolen,
+     * so that workers filter master page frames and look them up in a single pass.
+     */
+    private @Nullable RecordCursorFactory generateParallelHashJoin(
+            RecordMetadata metadata,
+            RecordCursorFactory master,
+            RecordCursorFactory slave,
+            RecordSink masterKeySink,
+            RecordSink slaveKeySink,
+            int columnSplit,
+            JoinContext context,
+            SqlExecutionContext executionContext
+    ) {
+        final int workerCount = executionContext.getSharedWorkerCount();
+        if (workerCount < 1 || !slave.supportsPageFrameCursor()) {
+            return null;
+        }
+
+        CompiledFilter compiledFilter = null;
+        MemoryCARW bindVarMemory = null;
+        ObjList<Function> bindVarFunctions = null;
+        Function filter = null;
+        if (!master.supportsPageFrameCursor()) {
+            if (!(master instanceof StealableFilterRecordCursorFactory)) {
+                return null;
+            }
+            final StealableFilterRecordCursorFactory filterFactory = (StealableFilterRecordCursorFactory) master;
+            // the filter is shared by workers, so it has to be thread-safe
+            if (!filterFactory.supportsFilterStealing() || !filterFactory.getFilter().isReadThreadSafe()) {
+                return null;
+            }
+            master = master.getBaseFactory();
+            assert master.supportsPageFrameCursor();
+            compiledFilter = filterFactory.getCompiledFilter();
+            bindVarMemory = filterFactory.getBindVarMemory();
+            bindVarFunctions = filterFactory.getBindVarFunctions();
+            filter = filterFactory.getFilter();
+            filterFactory.halfClose();
+        }
+
+        return new AsyncHashJoinLightRecordCursorFactory(
+                configuration,
+                executionContext.getMessageBus(),
+                metadata,
+                master,
+                slave,
+                keyTypes,
+                masterKeySink,
+                slaveKeySink,
+                columnSplit,
+                context,
+                compiledFilter,
+                bindVarMemory,
+                bindVarFunctions,
+                filter,
+                reduceTaskFactory,
+                workerCount
+        );
+    }
+
+    /**
+     * Returns parallel ORDER BY factory for the given base factory or null if the base
+     * doesn't support page frames. Expects listColumnFilterA to hold the sort columns.
+     * When the LIMIT functions are given, the factory keeps only the limited number of
+     * rows per worker.
+     */
+    private @Nullable RecordCursorFactory generateParallelOrderBy(
+            RecordCursorFactory factory,
+            RecordMetadata orderedMetadata,
+            QueryModel model,
+            SqlExecutionContext executionContext,
+            @Nullable Function loFunc,
+            @Nullable Function hiFunc
+    ) throws SqlException {
+        final int workerCount = executionContext.getSharedWorkerCount();
+        if (workerCount < 1) {
+            return null;
+        }
+
+        boolean supportsParallelism = factory.supportsPageFrameCursor();
+        CompiledFilter compiledFilter = null;
+        MemoryCARW bindVarMemory = null;
+        ObjList<Function> bindVarFunctions = null;
+        Function filter = null;
+        ExpressionNode filterExpr = null;
+        // Try to steal the filter from the nested factory, if possible.
+        // Workers then filter and sort each page frame in a single pass.
+        if (!supportsParallelism && (factory instanceof StealableFilterRecordCursorFactory)) {
+            StealableFilterRecordCursorFactory filterFactory = (StealableFilterRecordCursorFactory) factory;
+            if (filterFactory.supportsFilterStealing()) {
+                if (!filterFactory.getFilter().isReadThreadSafe()) {
+                    // per-worker filters have to be compiled, so we need the original filter expression;
+                    // it belongs to the closest model that has a where clause
+                    QueryModel.restoreWhereClause(expressionNodePool, model);
+                    for (QueryModel m = model; m != null && filterExpr == null; m = m.getNestedModel()) {
+                        filterExpr = m.getWhereClause();
+                    }
+                    if (filterExpr == null) {
+                        return null;
+                    }
+                }
+                factory = factory.getBaseFactory();
+                assert factory.supportsPageFrameCursor();
+                compiledFilter = filterFactory.getCompiledFilter();
+                bindVarMemory = filterFactory.getBindVarMemory();
+                bindVarFunctions = filterFactory.getBindVarFunctions();
+                filter = filterFactory.getFilter();
+                supportsParallelism = true;
+                filterFactory.halfClose();
+            }
+        }
+
+        if (!supportsParallelism) {
+            return null;
+        }
+
+        final RecordMetadata metadata = factory.getMetadata();
+        // back up the sort column filter as compileWorkerFilterConditionally may overwrite it
+        final ListColumnFilter sortColumnFilter = listColumnFilterA.copy();
+        final ObjList<Function> perWorkerFilters = compileWorkerFilterConditionally(
+                executionContext,
+                filter,
+                workerCount,
+                filterExpr,
+                metadata
+        );
+
+        // compiled comparators cache the left record values, so each worker needs its own instance
+        final ObjList<RecordComparator> perWorkerComparators = new ObjList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            perWorkerComparators.extendAndSet(i, recordComparatorCompiler.compile(metadata, sortColumnFilter));
+        }
+
+        if (loFunc != null) {
+            return new AsyncLimitedSizeSortedLightRecordCursorFactory(
+                    configuration,
+                    executionContext.getMessageBus(),
+                    orderedMetadata,
+                    factory,
+                    recordComparatorCompiler.compile(metadata, sortColumnFilter),
+                    perWorkerComparators,
+                    sortColumnFilter,
+                    loFunc,
+                    hiFunc,
+                    compiledFilter,
+                    bindVarMemory,
+                    bindVarFunctions,
+                    filter,
+                    reduceTaskFactory,
+                    perWorkerFilters,
+                    workerCount
+            );
+        }
+
+        return new AsyncSortedLightRecordCursorFactory(
+                configuration,
+                executionContext.getMessageBus(),
+                orderedMetadata,
+                factory,
+                recordComparatorCompiler.compile(metadata, sortColumnFilter),
+                perWorkerComparators,
+                sortColumnFilter,
+                compiledFilter,
+                bindVarMemory,
+                bindVarFunctions,
+                filter,
+                reduceTaskFactory,
+                perWorkerFilters,
+                workerCount
+        );
+    }
+
+    /**
+     * Returns parallel projection factory for the given functions or null if there are no shared
+     * workers, none of the functions is worth evaluating on workers or the base factory doesn't
+     * support page frames and its filter can't be stolen. A thread-safe filter is stolen, so that
+     * workers filter page frames and evaluate the functions in a single pass.
+     */
+    private @Nullable RecordCursorFactory generateParallelProjection(
+            QueryModel model,
+            RecordMetadata virtualMetadata,
+            ObjList<Function> functions,
+            RecordCursorFactory factory,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        final int workerCount = executionContext.getSharedWorkerCount();
+        // with a LIMIT, workers would evaluate whole page frames for a few rows
+        if (!configuration.isSqlParallelProjectionEnabled() || workerCount < 1 || model.isUpdate() || model.getLimitLo() != null) {
+            return null;
+        }
+
+        StealableFilterRecordCursorFactory filterFactory = null;
+        if (!factory.supportsPageFrameCursor()) {
+            if (!(factory instanceof StealableFilterRecordCursorFactory)) {
+                return null;
+            }
+            filterFactory = (StealableFilterRecordCursorFactory) factory;
+            // the filter is shared by workers, so it has to be thread-safe
+            if (!filterFactory.supportsFilterStealing() || !filterFactory.getFilter().isReadThreadSafe()) {
+                return null;
+            }
+        }
+
+        final ObjList<QueryColumn> columns = model.getColumns();
+        final IntList projectedColumns = new IntList();
+        final ObjList<Function> projectedFunctions = new ObjList<>();
+        final ObjList<ExpressionNode> projectedNodes = new ObjList<>();
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            final Function function = functions.getQuick(i);
+            if (AsyncProjectionAtom.isProjectable(function)) {
+                projectedColumns.add(i);
+                projectedFunctions.add(function);
+                projectedNodes.add(columns.getQuick(i).getAst());
+            }
+        }
+        if (projectedColumns.size() == 0) {
+            return null;
+        }
+
+        boolean threadSafe = true;
+        for (int i = 0, n = projectedFunctions.size(); i < n; i++) {
+            if (!AsyncProjectionAtom.isThreadSafe(projectedFunctions.getQuick(i))) {
+                threadSafe = false;
+                break;
+            }
+        }
+        ObjList<ObjList<Function>> perWorkerFunctions = null;
+        if (!threadSafe) {
+            perWorkerFunctions = new ObjList<>(workerCount);
+            try {
+                for (int i = 0; i < workerCount; i++) {
+                    final ObjList<Function> workerFunctions = new ObjList<>(projectedNodes.size());
+                    perWorkerFunctions.extendAndSet(i, workerFunctions);
+                    for (int j = 0, n = projectedNodes.size(); j < n; j++) {
+                        final Function function = functionParser.parseFunction(
+                                projectedNodes.getQuick(j),
+                                factory.getMetadata(),
+                                executionContext
                         );
+                        workerFunctions.add(function);
+                        // re-parsed functions may end up with other types, e.g. due to bind variables
+                        if (function.getType() != projectedFunctions.getQuick(j).getType()) {
+                            freePerWorkerFunctions(perWorkerFunctions);
+                            return null;
+                        }
                     }
                 }
-
-                // when base record cursor does not support random access
-                // we have to copy entire record into ordered structure
-
-                entityColumnFilter.of(orderedMetadata.getColumnCount());
-                return new SortedRecordCursorFactory(
-                        configuration,
-                        orderedMetadata,
-                        recordCursorFactory,
-                        RecordSinkFactory.getInstance(
-                                asm,
-                                orderedMetadata,
-                                entityColumnFilter,
-                                false
-                        ),
-                        recordComparatorCompiler.compile(metadata, listColumnFilterA),
-                        listColumnFilterA.copy()
-                );
+            } catch (Throwable th) {
+                freePerWorkerFunctions(perWorkerFunctions);
+                throw th;
             }
+        }
 
-            return recordCursorFactory;
-        } catch (SqlException | CairoException e) {
-            recordCursorFactory.close();
-            throw e;
+        CompiledFilter compiledFilter = null;
+        MemoryCARW bindVarMemory = null;
+        ObjList<Function> bindVarFunctions = null;
+        Function filter = null;
+        if (filterFactory != null) {
+            factory = factory.getBaseFactory();
+            assert factory.supportsPageFrameCursor();
+            compiledFilter = filterFactory.getCompiledFilter();
+            bindVarMemory = filterFactory.getBindVarMemory();
+            bindVarFunctions = filterFactory.getBindVarFunctions();
+            filter = filterFactory.getFilter();
+            filterFactory.halfClose();
         }
+
+        return new AsyncProjectionRecordCursorFactory(
+                configuration,
+                executionContext.getMessageBus(),
+                virtualMetadata,
+                factory,
+                functions,
+                projectedColumns,
+                perWorkerFunctions,
+                compiledFilter,
+                bindVarMemory,
+                bindVarFunctions,
+                filter,
+                reduceTaskFactory,
+                workerCount
+        );
     }
 
     private RecordCursorFactory generateQuery(QueryModel model, SqlExecutionContext executionContext, boolean processJoins) throws SqlException {
@@ -2730,18 +3782,22 @@ public class SqlCodeGenerator implements Mutable, Closeable {
 
     private RecordCursorFactory generateQuery0(QueryModel model, SqlExecutionContext executionContext, boolean processJoins) throws SqlException {
         return generateLimit(
-                generateOrderBy(
-                        generateLatestBy(
-                                generateFilter(
-                                        generateSelect(
+                generateFill(
+                        generateOrderBy(
+                                generateLatestBy(
+                                        generateFilter(
+                                                generateSelect(
+                                                        model,
+                                                        executionContext,
+                                                        processJoins
+                                                ),
                                                 model,
-                                                executionContext,
-                                                processJoins
+                                                executionContext
                                         ),
-                                        model,
-                                        executionContext
+                                        model
                                 ),
-                                model
+                                model,
+                                executionContext
                         ),
                         model,
                         executionContext
@@ -3688,7 +4744,13 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 throw e;
             }
 
+            // Keyed group by that may spill to disk stays single-threaded,
+            // so that the hash table size is bounded by the spill threshold.
+            final boolean spillSupported = configuration.isGroupBySpillEnabled()
+                    && keyTypes.getColumnCount() > 0
+                    && GroupBySpill.isSupported(keyTypes);
             if (enableParallelGroupBy
+                    && !spillSupported
                     && SqlUtil.isParallelismSupported(keyFunctions)
                     && GroupByUtils.isParallelismSupported(groupByFunctions)) {
                 boolean supportsParallelism = factory.supportsPageFrameCursor();
@@ -3833,7 +4895,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     }
 
     @NotNull
-    private VirtualRecordCursorFactory generateSelectVirtualWithSubQuery(QueryModel model, SqlExecutionContext executionContext, RecordCursorFactory factory) throws SqlException {
+    private RecordCursorFactory generateSelectVirtualWithSubQuery(QueryModel model, SqlExecutionContext executionContext, RecordCursorFactory factory) throws SqlException {
         final ObjList<QueryColumn> columns = model.getColumns();
         final int columnCount = columns.size();
         final ObjList<Function> functions = new ObjList<>(columnCount);
@@ -3966,6 +5028,16 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     }
                 }
             }
+            final RecordCursorFactory projectionFactory = generateParallelProjection(
+                    model,
+                    virtualMetadata,
+                    functions,
+                    factory,
+                    executionContext
+            );
+            if (projectionFactory != null) {
+                return projectionFactory;
+            }
             return new VirtualRecordCursorFactory(virtualMetadata, functions, factory);
         } catch (SqlException | CairoException e) {
             Misc.freeObjList(functions);
@@ -3992,6 +5064,9 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         ObjList<Function> functions = new ObjList<>();
         ObjList<WindowFunction> naturalOrderFunctions = null;
         ObjList<Function> partitionByFunctions = null;
+        ObjList<WindowShardAtom> orderedShardAtoms = null;
+        WindowShardAtom unorderedShardAtom = null;
+        windowShardFunctions.clear();
         try {
             // if all window function don't require sorting or more than one pass then use streaming factory
             boolean isFastPath = true;
@@ -4001,9 +5076,6 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 if (qc.isWindowColumn()) {
                     final WindowColumn ac = (WindowColumn) qc;
                     final ExpressionNode ast = qc.getAst();
-                    if (ast.paramCount > 1) {
-                        throw SqlException.$(ast.position, "too many arguments");
-                    }
 
                     partitionByFunctions = null;
                     int psz = ac.getPartitionBy().size();
@@ -4062,7 +5134,9 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                             }
                         }
                     }
-                    if (!dismissOrder && osz == 1 && timestampIdx != -1 && orderHash.size() < 2) {
+                    // a base that ignored the multi-column order by advice is still scanned in
+                    // the designated timestamp order, so the window doesn't have to sort rows
+                    if (!dismissOrder && osz == 1 && timestampIdx != -1 && (orderHash.size() < 2 || !base.followedOrderByAdvice())) {
                         ExpressionNode orderByNode = ac.getOrderBy().getQuick(0);
                         int orderByDirection = ac.getOrderByDirection().getQuick(0);
 
@@ -4226,53 +5300,20 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             // not main metadata to avoid partitionBy functions accidentally looking up
             // window columns recursively
 
+            // partitioned window functions may be evaluated on shared workers; in this case
+            // each function is compiled once per shard, so that every shard has its own state
+            final int windowShardCount = getWindowShardCount(chainTypes, executionContext);
+            final ObjObjHashMap<IntList, IntList> groupedWindowColumns = new ObjObjHashMap<>();
+            final IntList naturalOrderColumns = new IntList();
+
             deferredWindowMetadata.clear();
             for (int i = 0; i < columnCount; i++) {
                 final QueryColumn qc = columns.getQuick(i);
                 if (qc.isWindowColumn()) {
                     final WindowColumn ac = (WindowColumn) qc;
                     final ExpressionNode ast = qc.getAst();
-                    if (ast.paramCount > 1) {
-                        throw SqlException.$(ast.position, "too many arguments");
-                    }
-
-                    partitionByFunctions = null;
-                    int psz = ac.getPartitionBy().size();
-                    if (psz > 0) {
-                        partitionByFunctions = new ObjList<>(psz);
-                        for (int j = 0; j < psz; j++) {
-                            final Function function = functionParser.parseFunction(ac.getPartitionBy().getQuick(j), chainMetadata, executionContext);
-                            partitionByFunctions.add(function);
-                            if (function instanceof GroupByFunction) {
-                                throw SqlException.$(ast.position, "aggregate functions in partition by are not supported");
-                            }
-                        }
-                    }
-
-                    final VirtualRecord partitionByRecord;
-                    final RecordSink partitionBySink;
-
-                    if (partitionByFunctions != null) {
-                        partitionByRecord = new VirtualRecord(partitionByFunctions);
-                        keyTypes.clear();
-                        final int partitionByCount = partitionByFunctions.size();
-
-                        for (int j = 0; j < partitionByCount; j++) {
-                            keyTypes.add(partitionByFunctions.getQuick(j).getType());
-                        }
-                        entityColumnFilter.of(partitionByCount);
-                        // create sink
-                        partitionBySink = RecordSinkFactory.getInstance(
-                                asm,
-                                keyTypes,
-                                entityColumnFilter,
-                                false
-                        );
-                    } else {
-                        partitionByRecord = null;
-                        partitionBySink = null;
-                    }
 
+                    final int psz = ac.getPartitionBy().size();
                     final int osz = ac.getOrderBy().size();
 
                     // analyze order by clause on the current model and optimise out
@@ -4294,7 +5335,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                             }
                         }
                     }
-                    if (osz == 1 && timestampIdx != -1 && orderHash.size() < 2) {
+                    if (osz == 1 && timestampIdx != -1 && (orderHash.size() < 2 || !base.followedOrderByAdvice())) {
                         ExpressionNode orderByNode = ac.getOrderBy().getQuick(0);
                         int orderByDirection = ac.getOrderByDirection().getQuick(0);
 
@@ -4305,55 +5346,110 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                         }
                     }
 
-                    executionContext.configureWindowContext(
-                            partitionByRecord,
-                            partitionBySink,
-                            keyTypes,
-                            osz > 0,
-                            dismissOrder ? base.getScanDirection() : RecordCursorFactory.SCAN_DIRECTION_OTHER,
-                            orderByPos,
-                            base.recordCursorSupportsRandomAccess(),
-                            ac.getFramingMode(),
-                            ac.getRowsLo(),
-                            ac.getRowsLoKindPos(),
-                            ac.getRowsHi(),
-                            ac.getRowsHiKindPos(),
-                            ac.getExclusionKind(),
-                            ac.getExclusionKindPos(),
-                            chainMetadata.getTimestampIndex()
-                    );
-                    final Function f;
-                    try {
-                        // function needs to resolve args against chain metadata
-                        f = functionParser.parseFunction(ast, chainMetadata, executionContext);
-                        if (!(f instanceof WindowFunction)) {
-                            Misc.free(f);
-                            throw SqlException.$(ast.position, "non-window function called in window context");
+                    final IntList order = osz > 0 && !dismissOrder ? toOrderIndices(chainMetadata, ac.getOrderBy(), ac.getOrderByDirection()) : null;
+                    final int copyCount = psz > 0 && windowShardCount > 0 ? windowShardCount : 1;
+                    WindowFunction windowFunction = null;
+                    ObjList<WindowFunction> shardFunctions = null;
+                    RecordSink partitionBySink = null;
+                    for (int s = 0; s < copyCount; s++) {
+                        partitionByFunctions = null;
+                        if (psz > 0) {
+                            partitionByFunctions = new ObjList<>(psz);
+                            for (int j = 0; j < psz; j++) {
+                                final Function function = functionParser.parseFunction(ac.getPartitionBy().getQuick(j), chainMetadata, executionContext);
+                                partitionByFunctions.add(function);
+                                if (function instanceof GroupByFunction) {
+                                    throw SqlException.$(ast.position, "aggregate functions in partition by are not supported");
+                                }
+                            }
                         }
-                    } finally {
-                        executionContext.clearWindowContext();
-                    }
 
-                    WindowFunction windowFunction = (WindowFunction) f;
+                        final VirtualRecord partitionByRecord;
+
+                        if (partitionByFunctions != null) {
+                            partitionByRecord = new VirtualRecord(partitionByFunctions);
+                            keyTypes.clear();
+                            final int partitionByCount = partitionByFunctions.size();
+
+                            for (int j = 0; j < partitionByCount; j++) {
+                                keyTypes.add(partitionByFunctions.getQuick(j).getType());
+                            }
+                            if (partitionBySink == null) {
+                                entityColumnFilter.of(partitionByCount);
+                                // create sink, it's stateless, so it's shared between the function copies
+                                partitionBySink = RecordSinkFactory.getInstance(
+                                        asm,
+                                        keyTypes,
+                                        entityColumnFilter,
+                                        false
+                                );
+                            }
+                        } else {
+                            partitionByRecord = null;
+                        }
+
+                        executionContext.configureWindowContext(
+                                partitionByRecord,
+                                partitionBySink,
+                                keyTypes,
+                                osz > 0,
+                                dismissOrder ? base.getScanDirection() : RecordCursorFactory.SCAN_DIRECTION_OTHER,
+                                orderByPos,
+                                base.recordCursorSupportsRandomAccess(),
+                                ac.getFramingMode(),
+                                ac.getRowsLo(),
+                                ac.getRowsLoKindPos(),
+                                ac.getRowsHi(),
+                                ac.getRowsHiKindPos(),
+                                ac.getExclusionKind(),
+                                ac.getExclusionKindPos(),
+                                chainMetadata.getTimestampIndex()
+                        );
+                        final Function f;
+                        try {
+                            // function needs to resolve args against chain metadata
+                            f = functionParser.parseFunction(ast, chainMetadata, executionContext);
+                            if (!(f instanceof WindowFunction)) {
+                                Misc.free(f);
+                                throw SqlException.$(ast.position, "non-window function called in window context");
+                            }
+                        } finally {
+                            executionContext.clearWindowContext();
+                        }
+
+                        final WindowFunction copy = (WindowFunction) f;
+                        if (s == 0) {
+                            windowFunction = copy;
+                        } else {
+                            if (shardFunctions == null) {
+                                shardFunctions = new ObjList<>(copyCount - 1);
+                                windowShardFunctions.extendAndSet(i, shardFunctions);
+                            }
+                            shardFunctions.add(copy);
+                        }
+                        if (order != null) {
+                            // init comparator if we need
+                            copy.initRecordComparator(recordComparatorCompiler, chainTypes, order);
+                        }
+                        copy.setColumnIndex(i);
+                    }
 
-                    if (osz > 0 && !dismissOrder) {
-                        IntList order = toOrderIndices(chainMetadata, ac.getOrderBy(), ac.getOrderByDirection());
-                        // init comparator if we need
-                        windowFunction.initRecordComparator(recordComparatorCompiler, chainTypes, order);
+                    if (order != null) {
                         ObjList<WindowFunction> funcs = groupedWindow.get(order);
                         if (funcs == null) {
                             groupedWindow.put(order, funcs = new ObjList<>());
+                            groupedWindowColumns.put(order, new IntList());
                         }
                         funcs.add(windowFunction);
+                        groupedWindowColumns.get(order).add(i);
                     } else {
                         if (naturalOrderFunctions == null) {
                             naturalOrderFunctions = new ObjList<>();
                         }
                         naturalOrderFunctions.add(windowFunction);
+                        naturalOrderColumns.add(i);
                     }
 
-                    windowFunction.setColumnIndex(i);
-
                     deferredWindowMetadata.extendAndSet(i, new TableColumnMetadata(
                             Chars.toString(qc.getAlias()),
                             windowFunction.getType(),
@@ -4383,7 +5479,43 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 windowComparators.add(recordComparatorCompiler.compile(chainTypes, e.key));
                 functionGroups.add(e.value);
                 keys.add(e.key);
+                if (windowShardCount > 0) {
+                    final WindowShardAtom atom = generateWindowShardAtom(
+                            columns,
+                            groupedWindowColumns.get(e.key),
+                            e.value,
+                            windowShardFunctions,
+                            windowShardCount,
+                            chainMetadata,
+                            executionContext
+                    );
+                    if (atom != null) {
+                        if (orderedShardAtoms == null) {
+                            orderedShardAtoms = new ObjList<>(groupedWindow.size());
+                        }
+                        orderedShardAtoms.extendAndSet(functionGroups.size() - 1, atom);
+                    }
+                }
+            }
+            if (orderedShardAtoms != null) {
+                orderedShardAtoms.setPos(functionGroups.size());
             }
+            if (windowShardCount > 0 && naturalOrderFunctions != null) {
+                unorderedShardAtom = generateWindowShardAtom(
+                        columns,
+                        naturalOrderColumns,
+                        naturalOrderFunctions,
+                        windowShardFunctions,
+                        windowShardCount,
+                        chainMetadata,
+                        executionContext
+                );
+            }
+            // release copies of the functions that didn't make it into shard atoms
+            for (int i = 0, n = windowShardFunctions.size(); i < n; i++) {
+                Misc.freeObjList(windowShardFunctions.getQuick(i));
+            }
+            windowShardFunctions.clear();
 
             final RecordSink recordSink = RecordSinkFactory.getInstance(
                     asm,
@@ -4404,16 +5536,24 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     naturalOrderFunctions,
                     columnIndexes,
                     keys,
-                    chainMetadata
+                    chainMetadata,
+                    orderedShardAtoms,
+                    unorderedShardAtom
             );
         } catch (Throwable th) {
             for (ObjObjHashMap.Entry<IntList, ObjList<WindowFunction>> e : groupedWindow) {
                 Misc.freeObjList(e.value);
             }
+            for (int i = 0, n = windowShardFunctions.size(); i < n; i++) {
+                Misc.freeObjList(windowShardFunctions.getQuick(i));
+            }
+            windowShardFunctions.clear();
             Misc.free(base);
             Misc.freeObjList(functions);
             Misc.freeObjList(naturalOrderFunctions);
             Misc.freeObjList(partitionByFunctions);
+            Misc.freeObjList(orderedShardAtoms);
+            Misc.free(unorderedShardAtom);
             throw th;
         }
     }
@@ -5098,11 +6238,61 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 }
             }
 
-            RowCursorFactory rowFactory;
-            if (orderDescendingByDesignatedTimestampOnly) {
-                rowFactory = new BwdDataFrameRowCursorFactory();
-            } else {
-                rowFactory = new DataFrameRowCursorFactory();
+            RowCursorFactory rowFactory = null;
+            if (intrinsicModel.filter != null && reader != null && configuration.isSortedIndexEnabled()) {
+                // Rows looked up in the index are filtered by a single thread, while a full scan
+                // is filtered by all workers, so the index has to skip most of the rows to pay off.
+                final int scanThreadCount = executionContext.isParallelFilterEnabled() ? Math.max(1, executionContext.getSharedWorkerCount()) : 1;
+                final long maxIndexRowCount = reader.size() / (2L * scanThreadCount);
+                // only a range bounded on both sides is selective enough to be looked up in the index
+                final LongList ranges = new LongList();
+                extractSortedIndexRanges(intrinsicModel.filter, metadata, ranges);
+                for (int i = 0, n = ranges.size(); i < n; i += 3) {
+                    final int columnIndex = (int) ranges.getQuick(i);
+                    final long lo = ranges.getQuick(i + 1);
+                    final long hi = ranges.getQuick(i + 2);
+                    if (
+                            lo != Long.MIN_VALUE && hi != Long.MAX_VALUE
+                                    && SortedIndexRowCursorFactory.estimateRowCount(configuration, reader, columnIndex, lo, hi, maxIndexRowCount) <= maxIndexRowCount
+                    ) {
+                        rowFactory = new SortedIndexRowCursorFactory(
+                                configuration,
+                                columnIndex,
+                                lo,
+                                hi,
+                                orderDescendingByDesignatedTimestampOnly
+                        );
+                        break;
+                    }
+                }
+            }
+
+            if (rowFactory == null) {
+                if (orderDescendingByDesignatedTimestampOnly) {
+                    rowFactory = new BwdDataFrameRowCursorFactory();
+                } else {
+                    rowFactory = new DataFrameRowCursorFactory();
+                }
+            }
+
+            if (intrinsicModel.filter != null && configuration.isZoneMapEnabled()) {
+                final ZoneMapFilter zoneMapFilter = new ZoneMapFilter(configuration);
+                extractZoneMapPredicates(intrinsicModel.filter, metadata, zoneMapFilter);
+                if (zoneMapFilter.size() > 0) {
+                    ((AbstractDataFrameCursorFactory) dfcFactory).setZoneMapFilter(zoneMapFilter);
+                } else {
+                    Misc.free(zoneMapFilter);
+                }
+            }
+
+            if (intrinsicModel.filter != null && configuration.isBloomFilterEnabled()) {
+                final BloomPartitionFilter bloomFilter = new BloomPartitionFilter(configuration);
+                extractBloomFilterPredicates(intrinsicModel.filter, metadata, bloomFilter, new LongList());
+                if (bloomFilter.size() > 0) {
+                    ((AbstractDataFrameCursorFactory) dfcFactory).setBloomFilter(bloomFilter);
+                } else {
+                    Misc.free(bloomFilter);
+                }
             }
 
             model.setWhereClause(intrinsicModel.filter);
@@ -5113,7 +6303,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     rowFactory,
                     false,
                     null,
-                    framingSupported,
+                    // page frames bypass row cursors, so the filter over index rows is applied row by row
+                    framingSupported && !rowFactory.isUsingIndex(),
                     columnIndexes,
                     columnSizes,
                     supportsRandomAccess
@@ -5190,10 +6381,24 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             for (int i = 0, n = listColumnFilterA.size(); i < n; i++) {
                 partitionByColumnIndexes.add(listColumnFilterA.getColumnIndexFactored(i));
             }
+            final DataFrameCursorFactory latestByDfcFactory = new FullBwdDataFrameCursorFactory(tableToken, model.getMetadataVersion(), dfcFactoryMeta);
+            final RecordCursorFactory parallelLatestBy = generateParallelLatestBy(
+                    myMeta,
+                    latestByDfcFactory,
+                    partitionByColumnIndexes,
+                    null,
+                    null,
+                    columnIndexes,
+                    columnSizes,
+                    executionContext
+            );
+            if (parallelLatestBy != null) {
+                return parallelLatestBy;
+            }
             return new LatestByAllSymbolsFilteredRecordCursorFactory(
                     myMeta,
                     configuration,
-                    new FullBwdDataFrameCursorFactory(tableToken, model.getMetadataVersion(), dfcFactoryMeta),
+                    latestByDfcFactory,
                     RecordSinkFactory.getInstance(asm, myMeta, listColumnFilterA, false),
                     keyTypes,
                     partitionByColumnIndexes,
@@ -5203,10 +6408,24 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             );
         }
 
+        final DataFrameCursorFactory latestByDfcFactory = new FullBwdDataFrameCursorFactory(tableToken, model.getMetadataVersion(), dfcFactoryMeta);
+        final RecordCursorFactory parallelLatestBy = generateParallelLatestBy(
+                myMeta,
+                latestByDfcFactory,
+                null,
+                null,
+                null,
+                columnIndexes,
+                columnSizes,
+                executionContext
+        );
+        if (parallelLatestBy != null) {
+            return parallelLatestBy;
+        }
         return new LatestByAllFilteredRecordCursorFactory(
                 myMeta,
                 configuration,
-                new FullBwdDataFrameCursorFactory(tableToken, model.getMetadataVersion(), dfcFactoryMeta),
+                latestByDfcFactory,
                 RecordSinkFactory.getInstance(asm, myMeta, listColumnFilterA, false),
                 keyTypes,
                 null,
@@ -5284,6 +6503,97 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return unionFactory;
     }
 
+    /**
+     * Creates shard atom for the window functions of the same ORDER BY group or for the functions
+     * without ORDER BY. The atom includes functions that have shard copies and share PARTITION BY
+     * with the first of such functions in the group; other functions are evaluated by the factory
+     * in the query thread. Shard copies of the included functions are moved to the atom.
+     *
+     * @return shard atom or null if none of the functions can be evaluated on shard workers
+     */
+    private @Nullable WindowShardAtom generateWindowShardAtom(
+            ObjList<QueryColumn> columns,
+            IntList functionColumns,
+            ObjList<WindowFunction> functions,
+            ObjList<ObjList<WindowFunction>> shardFunctions,
+            int shardCount,
+            RecordMetadata chainMetadata,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        ObjList<ExpressionNode> partitionBy = null;
+        ObjList<WindowFunction> ownerFunctions = null;
+        ObjList<ObjList<WindowFunction>> workerFunctions = null;
+        for (int i = 0, n = functionColumns.size(); i < n; i++) {
+            final int columnIndex = functionColumns.getQuick(i);
+            final ObjList<WindowFunction> copies = shardFunctions.getQuiet(columnIndex);
+            if (copies == null) {
+                continue;
+            }
+            final ObjList<ExpressionNode> columnPartitionBy = ((WindowColumn) columns.getQuick(columnIndex)).getPartitionBy();
+            if (partitionBy == null) {
+                partitionBy = columnPartitionBy;
+                ownerFunctions = new ObjList<>();
+                workerFunctions = new ObjList<>(shardCount - 1);
+                for (int j = 1; j < shardCount; j++) {
+                    workerFunctions.add(new ObjList<>());
+                }
+            } else if (!isSameExpressionList(partitionBy, columnPartitionBy)) {
+                continue;
+            }
+            ownerFunctions.add(functions.getQuick(i));
+            for (int j = 1; j < shardCount; j++) {
+                workerFunctions.getQuick(j - 1).add(copies.getQuick(j - 1));
+            }
+            shardFunctions.setQuick(columnIndex, null);
+        }
+
+        if (ownerFunctions == null) {
+            return null;
+        }
+
+        final int keyCount = partitionBy.size();
+        final ObjList<ObjList<Function>> perShardKeyFunctions = new ObjList<>(shardCount);
+        try {
+            for (int i = 0; i < shardCount; i++) {
+                final ObjList<Function> keyFunctions = new ObjList<>(keyCount);
+                perShardKeyFunctions.add(keyFunctions);
+                for (int j = 0; j < keyCount; j++) {
+                    keyFunctions.add(functionParser.parseFunction(partitionBy.getQuick(j), chainMetadata, executionContext));
+                }
+            }
+
+            keyTypes.clear();
+            final ObjList<Function> keyFunctions = perShardKeyFunctions.getQuick(0);
+            for (int j = 0; j < keyCount; j++) {
+                keyTypes.add(keyFunctions.getQuick(j).getType());
+            }
+            entityColumnFilter.of(keyCount);
+            final RecordSink keySink = RecordSinkFactory.getInstance(
+                    asm,
+                    keyTypes,
+                    entityColumnFilter,
+                    false
+            );
+
+            return new WindowShardAtom(
+                    configuration,
+                    keyTypes,
+                    keySink,
+                    perShardKeyFunctions,
+                    ownerFunctions,
+                    workerFunctions
+            );
+        } catch (Throwable th) {
+            for (int i = 0, n = perShardKeyFunctions.size(); i < n; i++) {
+                Misc.freeObjList(perShardKeyFunctions.getQuick(i));
+            }
+            for (int i = 0, n = workerFunctions.size(); i < n; i++) {
+                Misc.freeObjList(workerFunctions.getQuick(i));
+            }
+            throw th;
+        }
+    }
+
     @Nullable
     private Function getHiFunction(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         return toLimitFunction(executionContext, model.getLimitHi(), null);
@@ -5341,6 +6651,28 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return metadata.getTimestampIndex();
     }
 
+    /**
+     * Returns the number of shards partitioned window functions should be evaluated on,
+     * or 0 if they should be evaluated in the query thread. Shard workers read the record
+     * chain concurrently, so the chain must not contain columns read via shared flyweights.
+     */
+    private int getWindowShardCount(ColumnTypes chainTypes, SqlExecutionContext executionContext) {
+        if (!configuration.isSqlParallelWindowEnabled()) {
+            return 0;
+        }
+        final int shardCount = Math.min(executionContext.getSharedWorkerCount(), WindowShardAtom.MAX_SHARDS);
+        if (shardCount < 2) {
+            return 0;
+        }
+        for (int i = 0, n = chainTypes.getColumnCount(); i < n; i++) {
+            final int columnType = chainTypes.getColumnType(i);
+            if (ColumnType.isVarSize(columnType) || ColumnType.tagOf(columnType) == ColumnType.LONG256) {
+                return 0;
+            }
+        }
+        return shardCount;
+    }
+
     private void guardAgainstDotsInOrderByAdvice(QueryModel model) throws SqlException {
         ObjList<ExpressionNode> advice = model.getOrderByAdvice();
         for (int i = 0, n = advice.size(); i < n; i++) {
@@ -5370,6 +6702,13 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 getOrderByDirectionOrDefault(model, 0) == ORDER_DIRECTION_DESCENDING;
     }
 
+    private boolean isSingleSymbolKeyTemporalJoin(RecordMetadata masterMetadata, RecordMetadata slaveMetadata) {
+        return listColumnFilterA.size() == 1
+                && listColumnFilterB.size() == 1
+                && ColumnType.isSymbol(masterMetadata.getColumnType(listColumnFilterB.getColumnIndexFactored(0)))
+                && ColumnType.isSymbol(slaveMetadata.getColumnType(listColumnFilterA.getColumnIndexFactored(0)));
+    }
+
     private void lookupColumnIndexes(
             ListColumnFilter filter,
             ObjList<ExpressionNode> columnNames,
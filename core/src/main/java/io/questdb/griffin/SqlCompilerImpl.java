@@ -548,7 +548,7 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
         final SecurityContext securityContext = executionContext.getSecurityContext();
 
         try (TableRecordMetadata tableMetadata = executionContext.getMetadataForWrite(tableToken)) {
-            final String expectedTokenDescription = "'add', 'alter', 'attach', 'detach', 'drop', 'resume', 'rename', 'set' or 'squash'";
+            final String expectedTokenDescription = "'add', 'alter', 'attach', 'compress', 'detach', 'drop', 'resume', 'rename', 'set' or 'squash'";
             tok = expectToken(lexer, expectedTokenDescription);
 
             if (SqlKeywords.isAddKeyword(tok)) {
@@ -579,6 +579,14 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
                 } else {
                     throw SqlException.$(lexer.lastTokenPosition(), "'partition' expected");
                 }
+            } else if (SqlKeywords.isCompressKeyword(tok)) {
+                tok = expectToken(lexer, "'partition'");
+                if (SqlKeywords.isPartitionKeyword(tok)) {
+                    securityContext.authorizeAlterTableCompressPartition(tableToken);
+                    alterTableDropDetachOrAttachPartition(tableMetadata, tableToken, PartitionAction.COMPRESS, executionContext);
+                } else {
+                    throw SqlException.$(lexer.lastTokenPosition(), "'partition' expected");
+                }
             } else if (SqlKeywords.isDetachKeyword(tok)) {
                 tok = expectToken(lexer, "'partition'");
                 if (SqlKeywords.isPartitionKeyword(tok)) {
@@ -1118,8 +1126,11 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
                     case PartitionAction.DETACH:
                         alterOperationBuilder = this.alterOperationBuilder.ofDetachPartition(pos, tableToken, tableMetadata.getTableId());
                         break;
+                    case PartitionAction.COMPRESS:
+                        alterOperationBuilder = this.alterOperationBuilder.ofCompressPartition(pos, tableToken, tableMetadata.getTableId());
+                        break;
                     default:
-                        throw SqlException.$(pos, "WHERE clause can only be used with command DROP PARTITION, or DETACH PARTITION");
+                        throw SqlException.$(pos, "WHERE clause can only be used with command DROP PARTITION, DETACH PARTITION or COMPRESS PARTITION");
                 }
 
                 final int functionPosition = lexer.getPosition();
@@ -1180,6 +1191,9 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
                 // attach
                 alterOperationBuilder = this.alterOperationBuilder.ofAttachPartition(pos, tableToken, tableMetadata.getTableId());
                 break;
+            case PartitionAction.COMPRESS:
+                alterOperationBuilder = this.alterOperationBuilder.ofCompressPartition(pos, tableToken, tableMetadata.getTableId());
+                break;
             default:
                 alterOperationBuilder = null;
                 assert false;
@@ -1450,6 +1464,28 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
         );
     }
 
+    private RecordCursorFactory compileCopyExport(SecurityContext securityContext, CopyModel model) throws SqlException {
+        assert model.isExport();
+
+        final ExpressionNode tableNameNode = model.getTarget();
+        final CharSequence tableName = GenericLexer.unquote(tableNameNode.token);
+        final TableToken tableToken = engine.getTableTokenIfExists(tableName);
+        if (tableToken == null) {
+            throw SqlException.tableDoesNotExist(tableNameNode.position, tableName);
+        }
+        securityContext.authorizeSelectOnAnyColumn(tableToken);
+
+        final ExpressionNode dirNameNode = model.getFileName();
+        final CharSequence dirName = GenericLexer.assertNoDots(GenericLexer.unquote(dirNameNode.token), dirNameNode.position);
+
+        return new CopyExportFactory(
+                engine,
+                engine.getCopyContext(),
+                tableToken,
+                Chars.toString(dirName)
+        );
+    }
+
     private void compileDeallocate(SqlExecutionContext executionContext) throws SqlException {
         CharSequence statementName = GenericLexer.unquote(expectToken(lexer, "statement name"));
         CharSequence tok = SqlUtil.fetchNext(lexer);
@@ -1661,7 +1697,9 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
     }
 
     private void copy(SqlExecutionContext executionContext, CopyModel copyModel) throws SqlException {
-        if (!copyModel.isCancel() && Chars.equalsLowerCaseAscii(copyModel.getFileName().token, "stdin")) {
+        if (copyModel.isExport()) {
+            compiledQuery.ofPseudoSelect(compileCopyExport(executionContext.getSecurityContext(), copyModel));
+        } else if (!copyModel.isCancel() && Chars.equalsLowerCaseAscii(copyModel.getFileName().token, "stdin")) {
             // no-op implementation
             authorizeInsertForCopy(executionContext.getSecurityContext(), copyModel);
             compiledQuery.ofCopyRemote();
@@ -3141,6 +3179,7 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
 
     public final static class PartitionAction {
         public static final int ATTACH = 2;
+        public static final int COMPRESS = 4;
         public static final int DETACH = 3;
         public static final int DROP = 1;
     }
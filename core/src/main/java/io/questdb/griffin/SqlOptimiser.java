@@ -34,6 +34,7 @@ import io.questdb.griffin.engine.table.ShowColumnsRecordCursorFactory;
 import io.questdb.griffin.engine.table.ShowPartitionsRecordCursorFactory;
 import io.questdb.griffin.model.*;
 import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.Timestamps;
 import io.questdb.std.str.FlyweightCharSequence;
 import io.questdb.std.str.Path;
 import io.questdb.std.str.StringSink;
@@ -224,6 +225,32 @@ public class SqlOptimiser implements Mutable {
                 && Chars.equals(model.getOrderBy().getQuick(0).token, model.getTimestamp().token);
     }
 
+    private static boolean isSampleByFillRewritable(
+            @NotNull ExpressionNode sampleByOffset,
+            @Nullable ExpressionNode sampleByTimezoneName,
+            ObjList<ExpressionNode> sampleByFill
+    ) {
+        // bind variables are resolved at code generation time, too late for the rewrite
+        if (sampleByOffset.type != CONSTANT || (sampleByTimezoneName != null && sampleByTimezoneName.type != CONSTANT)) {
+            return false;
+        }
+        // sample by keeps the buckets aligned to UTC for fixed offset time zones, e.g. '+03:00',
+        // calendar buckets in local time would not match it
+        if (sampleByTimezoneName != null
+                && !SqlKeywords.isUTC(sampleByTimezoneName.token)
+                && Timestamps.parseOffset(sampleByTimezoneName.token, 1, sampleByTimezoneName.token.length() - 1) != Long.MIN_VALUE) {
+            return false;
+        }
+        for (int i = 0, n = sampleByFill.size(); i < n; i++) {
+            final ExpressionNode fill = sampleByFill.getQuick(i);
+            // linear interpolation needs the group by functions, it stays with the sample by factories
+            if ((fill.type != CONSTANT && fill.type != LITERAL) || SqlKeywords.isLinearKeyword(fill.token)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static boolean isSymbolColumn(ExpressionNode countDistinctExpr, QueryModel nested) {
         return countDistinctExpr.rhs.type == LITERAL
                 && nested.getAliasToColumnMap().get(countDistinctExpr.rhs.token) != null
@@ -2356,6 +2383,14 @@ public class SqlOptimiser implements Mutable {
         return nextLiteral(characterStoreEntry.toImmutable());
     }
 
+    private ExpressionNode makeFunction(CharSequence token, ExpressionNode lhs, ExpressionNode rhs, int position) {
+        ExpressionNode expr = expressionNodePool.next().of(FUNCTION, token, 0, position);
+        expr.paramCount = 2;
+        expr.lhs = lhs;
+        expr.rhs = rhs;
+        return expr;
+    }
+
     private ExpressionNode makeModelAlias(CharSequence modelAlias, ExpressionNode node) {
         CharacterStoreEntry characterStoreEntry = characterStore.newEntry();
         characterStoreEntry.put(modelAlias).put('.').put(node.token);
@@ -2656,6 +2691,9 @@ public class SqlOptimiser implements Mutable {
                             || nested.getLimitHi() != null
                             || nested.getUnionModel() != null
                             || (nested.getSampleBy() != null && !canPushToSampleBy(nested, literalCollectorANames))
+                            // filtering group by rows before filling the gaps would change the fill
+                            || parent.getFillStride() != null
+                            || nested.getFillStride() != null
                     ) {
                         // there is no nested model for this table, keep where clause element with this model
                         addWhereNode(parent, node);
@@ -3031,6 +3069,10 @@ public class SqlOptimiser implements Mutable {
         if (model.getTimestamp() != null) {
             topLevelOrderByMnemonic = OrderByMnemonic.ORDER_BY_REQUIRED;
         }
+        // gaps of the rewritten sample by are filled over the timestamp-ordered group by output
+        if (model.getFillStride() != null) {
+            topLevelOrderByMnemonic = OrderByMnemonic.ORDER_BY_REQUIRED;
+        }
 
         // keep order by on model with window functions to speed up query (especially when it matches window order by)
         if (model.getSelectModelType() == QueryModel.SELECT_MODEL_WINDOW && model.getOrderBy().size() > 0) {
@@ -3874,6 +3916,57 @@ public class SqlOptimiser implements Mutable {
         }
     }
 
+    /**
+     * Rewrites SELECT DISTINCT over plain columns into a key-only GROUP BY, e.g.
+     * <p>
+     * SELECT DISTINCT account_id FROM fills WHERE ts IN today();
+     * <p>
+     * into:
+     * <p>
+     * SELECT account_id FROM fills WHERE ts IN today() GROUP BY account_id;
+     * <p>
+     * Unlike the distinct factories, GROUP BY runs on shared workers with per-worker maps that are
+     * merged, or sharded for high-cardinality keys, when the query completes. Selects that include
+     * the designated timestamp are left as they are since distinct time series keep timestamp order.
+     * Wildcard selects are left as they are too, their columns aren't known at this point.
+     *
+     * @return true if the GROUP BY clause was added to the base model
+     */
+    private boolean rewriteDistinctAsGroupBy(QueryModel model, QueryModel baseModel) {
+        if (
+                !configuration.isSqlParallelDistinctEnabled()
+                        || !configuration.isSqlParallelGroupByEnabled()
+                        || baseModel.getGroupBy().size() > 0
+                        || baseModel.getSampleBy() != null
+                        || baseModel.getFillStride() != null
+        ) {
+            return false;
+        }
+
+        final ObjList<QueryColumn> columns = model.getBottomUpColumns();
+        final ExpressionNode timestamp = baseModel.getTimestamp();
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            final QueryColumn qc = columns.getQuick(i);
+            final ExpressionNode ast = qc.getAst();
+            if (qc.isWindowColumn() || ast.type != LITERAL || ast.isWildcard()) {
+                return false;
+            }
+            if (timestamp != null && Chars.equalsIgnoreCase(timestamp.token, ast.token)) {
+                return false;
+            }
+            for (int j = 0; j < i; j++) {
+                if (Chars.equalsIgnoreCase(columns.getQuick(j).getAst().token, ast.token)) {
+                    return false;
+                }
+            }
+        }
+
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            baseModel.addGroupBy(deepClone(expressionNodePool, columns.getQuick(i).getAst()));
+        }
+        return true;
+    }
+
     // push aggregate function calls to group by model, replace key column expressions with group by aliases
     // raise error if raw column usage doesn't match one of expressions on group by list
     private ExpressionNode rewriteGroupBySelectExpression(
@@ -4101,7 +4194,9 @@ public class SqlOptimiser implements Mutable {
             }
 
             base = base.getNestedModel();
-            if (base.getLimitLo() != null) {
+            // gap filling of the rewritten sample by needs its group by output ordered,
+            // so order by can't be moved past it, same as past limit
+            if (base.getLimitLo() != null || base.getFillStride() != null) {
                 limitModel = base;
             }
             final int selectModelType = baseParent.getSelectModelType();
@@ -4415,7 +4510,9 @@ public class SqlOptimiser implements Mutable {
     /**
      * Recursive. Replaces "sample by" models with group-by. Not all forms of "sample by"
      * can be implemented via this method. Therefore, the rewrite avoids the following:
-     * - fills
+     * - fills, unless parallel sample by fill is enabled; the fill is then applied to the
+     * ordered group-by output, linear interpolation is never rewritten
+     * - time zones and offsets, unless parallel sample by fill is enabled
      * - custom non-wall-clock alignments
      *
      * @param model the input model, it is expected to be very early in optimisation process
@@ -4441,11 +4538,15 @@ public class SqlOptimiser implements Mutable {
             ExpressionNode sampleByUnit = nested.getSampleByUnit();
             ExpressionNode timestamp = nested.getTimestamp();
 
+            final boolean noFill = sampleByFill.size() == 0 || (sampleByFill.size() == 1 && SqlKeywords.isNoneKeyword(sampleByFill.getQuick(0).token));
             if (
                     sampleBy != null
                             && timestamp != null
-                            && (sampleByOffset != null && SqlKeywords.isZeroOffset(sampleByOffset.token) && (sampleByTimezoneName == null || SqlKeywords.isUTC(sampleByTimezoneName.token)))
-                            && (sampleByFill.size() == 0 || (sampleByFill.size() == 1 && SqlKeywords.isNoneKeyword(sampleByFill.getQuick(0).token)))
+                            && sampleByOffset != null
+                            && (
+                            (SqlKeywords.isZeroOffset(sampleByOffset.token) && (sampleByTimezoneName == null || SqlKeywords.isUTC(sampleByTimezoneName.token)) && noFill)
+                                    || (configuration.isSqlParallelSampleByFillEnabled() && isSampleByFillRewritable(sampleByOffset, sampleByTimezoneName, sampleByFill))
+                    )
                             && sampleByUnit == null
             ) {
                 // Validate that the model does not have wildcard column names.
@@ -4581,10 +4682,9 @@ public class SqlOptimiser implements Mutable {
                 int timestampPos = model.getColumnAliasIndex(timestampAlias);
 
                 // create function ast
-                final ExpressionNode timestampFunc = expressionNodePool.next();
-                timestampFunc.token = "timestamp_floor";
-                timestampFunc.paramCount = 2;
-                timestampFunc.type = FUNCTION;
+                final ExpressionNode floorFunc = expressionNodePool.next();
+                floorFunc.token = "timestamp_floor";
+                floorFunc.type = FUNCTION;
 
                 CharacterStoreEntry characterStoreEntry = characterStore.newEntry();
                 characterStoreEntry.put('\'').put(sampleBy.token).put('\'');
@@ -4594,14 +4694,34 @@ public class SqlOptimiser implements Mutable {
                 lhs.paramCount = 0;
                 lhs.type = CONSTANT;
 
-                final ExpressionNode rhs = expressionNodePool.next();
+                ExpressionNode rhs = expressionNodePool.next();
                 rhs.token = timestampColumn;
                 rhs.position = timestamp.position;
                 rhs.paramCount = 0;
                 rhs.type = LITERAL;
 
-                timestampFunc.lhs = lhs;
-                timestampFunc.rhs = rhs;
+                // calendar alignment in a time zone floors the local time and converts
+                // the bucket back to UTC: to_utc(timestamp_floor(stride, to_timezone(ts, tz)), tz)
+                final boolean utc = sampleByTimezoneName == null || SqlKeywords.isUTC(sampleByTimezoneName.token);
+                if (!utc) {
+                    rhs = makeFunction("to_timezone", rhs, sampleByTimezoneName, timestamp.position);
+                }
+
+                if (SqlKeywords.isZeroOffset(sampleByOffset.token)) {
+                    floorFunc.paramCount = 2;
+                    floorFunc.lhs = lhs;
+                    floorFunc.rhs = rhs;
+                } else {
+                    // args are stored in reverse order
+                    floorFunc.paramCount = 3;
+                    floorFunc.args.add(sampleByOffset);
+                    floorFunc.args.add(rhs);
+                    floorFunc.args.add(lhs);
+                }
+
+                final ExpressionNode timestampFunc = utc
+                        ? floorFunc
+                        : makeFunction("to_utc", floorFunc, sampleByTimezoneName, timestamp.position);
 
                 model.getBottomUpColumns().setQuick(
                         timestampPos,
@@ -4626,7 +4746,14 @@ public class SqlOptimiser implements Mutable {
 
                 // clear sample by
                 nested.setSampleBy(null);
-                nested.setSampleByOffset(null);
+                if (noFill) {
+                    nested.setSampleByOffset(null);
+                    nested.setSampleByTimezoneName(null);
+                } else {
+                    // fill values, time zone and offset stay with the model, they
+                    // are required to fill the gaps in the group by output
+                    nested.setFillStride(sampleBy);
+                }
 
                 if ((wrapAction & SAMPLE_BY_REWRITE_WRAP_ADD_TIMESTAMP_COPIES) != 0) {
                     model = wrapWithSelectModel(model, tempList, insetColumnAliases, timestampAlias);
@@ -4737,15 +4864,14 @@ public class SqlOptimiser implements Mutable {
         boolean useWindowModel = false;
         boolean useGroupByModel = false;
         boolean useOuterModel = false;
-        final boolean useDistinctModel = model.isDistinct();
-
         final ObjList<QueryColumn> columns = model.getBottomUpColumns();
         final QueryModel baseModel = model.getNestedModel();
+        final boolean useDistinctModel = model.isDistinct() && !rewriteDistinctAsGroupBy(model, baseModel);
         final boolean hasJoins = baseModel.getJoinModels().size() > 1;
 
         // sample by clause should be promoted to all the models as well as validated
         final ExpressionNode sampleBy = baseModel.getSampleBy();
-        if (sampleBy != null) {
+        if (sampleBy != null || baseModel.getFillStride() != null) {
             // move sample by to group by model
             groupByModel.moveSampleByFrom(baseModel);
         }
@@ -5207,6 +5333,18 @@ public class SqlOptimiser implements Mutable {
                 }
             }
             boolean singleHourFunctionKey = totalFunctionKeyCount == 1 && hourFunctionKeyCount == 1;
+            if (singleHourFunctionKey && useGroupByModel) {
+                // Rosti handles hour(column) only when it's the sole key, e.g. symbol plus hour(ts)
+                // keys are left to the group by model, so that they can be aggregated in parallel
+                final ObjList<QueryColumn> groupByColumns = groupByModel.getBottomUpColumns();
+                int keyCount = 0;
+                for (int i = 0, k = groupByColumns.size(); i < k; i++) {
+                    if (groupByColumns.getQuick(i).getAst().type == LITERAL) {
+                        keyCount++;
+                    }
+                }
+                singleHourFunctionKey = keyCount == 1;
+            }
             if (
                     useInnerModel
                             && useGroupByModel && groupByModel.getSampleBy() == null
@@ -5351,6 +5489,10 @@ public class SqlOptimiser implements Mutable {
             throw SqlException.$(groupByModel.getSampleBy().position, "at least one aggregation function must be present in 'select' clause");
         }
 
+        if (!useGroupByModel && groupByModel.getFillStride() != null) {
+            throw SqlException.$(groupByModel.getFillStride().position, "at least one aggregation function must be present in 'select' clause");
+        }
+
         if (model != root) {
             root.setUnionModel(model.getUnionModel());
             root.setSetOperationType(model.getSetOperationType());
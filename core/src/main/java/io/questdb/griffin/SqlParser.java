@@ -528,7 +528,39 @@ public class SqlParser {
             }
             return model;
         }
-        throw SqlException.$(lexer.lastTokenPosition(), "'from' expected");
+
+        if (isToKeyword(tok)) {
+            final ExpressionNode dirName = expectExpr(lexer, sqlParserCallback);
+            if (dirName.token.length() < 3 && Chars.startsWith(dirName.token, '\'')) {
+                throw SqlException.$(dirName.position, "directory name expected");
+            }
+
+            CopyModel model = copyModelPool.next();
+            model.setTarget(target);
+            model.setFileName(dirName);
+            model.setExport(true);
+
+            tok = optTok(lexer);
+            if (tok != null && isWithKeyword(tok)) {
+                tok = tok(lexer, "copy option");
+                while (tok != null && !isSemicolon(tok)) {
+                    if (isFormatKeyword(tok)) {
+                        // parquet is the only export format
+                        tok = tok(lexer, "'parquet'");
+                        if (!isParquetKeyword(tok)) {
+                            throw SqlException.$(lexer.lastTokenPosition(), "'parquet' expected");
+                        }
+                        tok = optTok(lexer);
+                    } else {
+                        throw SqlException.$(lexer.lastTokenPosition(), "unexpected option");
+                    }
+                }
+            } else if (tok != null && !SqlKeywords.isSemicolon(tok)) {
+                throw SqlException.$(lexer.lastTokenPosition(), "'with' expected");
+            }
+            return model;
+        }
+        throw SqlException.$(lexer.lastTokenPosition(), "'from' or 'to' expected");
     }
 
     private ExecutionModel parseCreateTable(
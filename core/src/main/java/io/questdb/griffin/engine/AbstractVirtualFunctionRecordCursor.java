@@ -26,12 +26,14 @@ package io.questdb.griffin.engine;
 
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.cairo.sql.async.PageFrameSequenceRecordCursor;
 import io.questdb.griffin.engine.functions.SymbolFunction;
 import io.questdb.griffin.engine.groupby.GroupByUtils;
 import io.questdb.std.Misc;
 import io.questdb.std.ObjList;
 
-public abstract class AbstractVirtualFunctionRecordCursor implements RecordCursor {
+public abstract class AbstractVirtualFunctionRecordCursor implements PageFrameSequenceRecordCursor {
     protected final VirtualRecord recordA;
     private final ObjList<Function> functions;
     private final VirtualRecord recordB;
@@ -55,6 +57,16 @@ public abstract class AbstractVirtualFunctionRecordCursor implements RecordCurso
         baseCursor = Misc.free(baseCursor);
     }
 
+    @Override
+    public PageFrameSequence<?> getFirstFrameSequence() {
+        return PageFrameSequenceRecordCursor.firstFrameSequenceOf(baseCursor);
+    }
+
+    @Override
+    public PageFrameSequence<?> getLastFrameSequence() {
+        return PageFrameSequenceRecordCursor.lastFrameSequenceOf(baseCursor);
+    }
+
     @Override
     public Record getRecord() {
         return recordA;
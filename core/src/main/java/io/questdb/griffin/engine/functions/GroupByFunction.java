@@ -37,6 +37,22 @@ public interface GroupByFunction extends Function, Mutable {
     default void clear() {
     }
 
+    /**
+     * Vectorized version of {@link #computeNext(MapValue, Record, long)}. Performs subsequent aggregations
+     * for a batch of contiguous page frame rows. Called only when {@link #isBatchComputationSupported()}
+     * returns true.
+     *
+     * @param pValueAddresses pointer to the array of map value addresses, one per row in the batch;
+     *                        zero address means that the row must be skipped
+     * @param valueOffset     offset of the first value of the function within the map value
+     * @param pArgColumn      address of the argument column value for the first row in the batch;
+     *                        0 for functions that have no argument
+     * @param rowCount        number of rows in the batch
+     */
+    default void computeBatch(long pValueAddresses, long valueOffset, long pArgColumn, int rowCount) {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * Performs the first aggregation within a group.
      * <p>
@@ -110,6 +126,15 @@ public interface GroupByFunction extends Function, Mutable {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Returns true if the function supports {@link #computeBatch(long, long, long, int)}.
+     * That's the case when the function has no argument or the argument is a column
+     * of the function's own type, so that it can be read straight from the page frame.
+     */
+    default boolean isBatchComputationSupported() {
+        return false;
+    }
+
     // only makes sense for non-keyed group by
     default boolean isEarlyExitSupported() {
         return false;
@@ -32,7 +32,7 @@ import io.questdb.std.ObjList;
 
 import static io.questdb.griffin.engine.functions.columns.ColumnUtils.STATIC_COLUMN_COUNT;
 
-public class DoubleColumn extends DoubleFunction implements ScalarFunction {
+public class DoubleColumn extends DoubleFunction implements ScalarFunction, ColumnFunction {
     private static final ObjList<DoubleColumn> COLUMNS = new ObjList<>(STATIC_COLUMN_COUNT);
     private final int columnIndex;
 
@@ -47,6 +47,11 @@ public class DoubleColumn extends DoubleFunction implements ScalarFunction {
         return new DoubleColumn(columnIndex);
     }
 
+    @Override
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
     @Override
     public double getDouble(Record rec) {
         return rec.getDouble(columnIndex);
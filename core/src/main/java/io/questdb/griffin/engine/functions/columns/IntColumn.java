@@ -32,7 +32,7 @@ import io.questdb.std.ObjList;
 
 import static io.questdb.griffin.engine.functions.columns.ColumnUtils.STATIC_COLUMN_COUNT;
 
-public class IntColumn extends IntFunction implements ScalarFunction {
+public class IntColumn extends IntFunction implements ScalarFunction, ColumnFunction {
     private static final ObjList<IntColumn> COLUMNS = new ObjList<>(STATIC_COLUMN_COUNT);
     private final int columnIndex;
 
@@ -47,6 +47,11 @@ public class IntColumn extends IntFunction implements ScalarFunction {
         return new IntColumn(columnIndex);
     }
 
+    @Override
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
     @Override
     public int getInt(Record rec) {
         return rec.getInt(columnIndex);
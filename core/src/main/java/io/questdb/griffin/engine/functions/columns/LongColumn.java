@@ -32,7 +32,7 @@ import io.questdb.std.ObjList;
 
 import static io.questdb.griffin.engine.functions.columns.ColumnUtils.STATIC_COLUMN_COUNT;
 
-public class LongColumn extends LongFunction implements ScalarFunction {
+public class LongColumn extends LongFunction implements ScalarFunction, ColumnFunction {
     private static final ObjList<LongColumn> COLUMNS = new ObjList<>(STATIC_COLUMN_COUNT);
     private final int columnIndex;
 
@@ -47,6 +47,11 @@ public class LongColumn extends LongFunction implements ScalarFunction {
         return new LongColumn(columnIndex);
     }
 
+    @Override
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
     @Override
     public long getLong(Record rec) {
         return rec.getLong(columnIndex);
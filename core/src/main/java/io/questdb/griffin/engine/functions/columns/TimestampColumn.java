@@ -32,7 +32,7 @@ import io.questdb.std.ObjList;
 
 import static io.questdb.griffin.engine.functions.columns.ColumnUtils.STATIC_COLUMN_COUNT;
 
-public class TimestampColumn extends TimestampFunction implements ScalarFunction {
+public class TimestampColumn extends TimestampFunction implements ScalarFunction, ColumnFunction {
     private static final ObjList<TimestampColumn> COLUMNS = new ObjList<>(STATIC_COLUMN_COUNT);
     private final int columnIndex;
 
@@ -47,6 +47,11 @@ public class TimestampColumn extends TimestampFunction implements ScalarFunction
         return new TimestampColumn(columnIndex);
     }
 
+    @Override
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
     @Override
     public long getTimestamp(Record rec) {
         return rec.getTimestamp(columnIndex);
@@ -50,7 +50,12 @@ class OffsetTimestampFunctionFromRules extends TimestampFunction implements Unar
     @Override
     public long getTimestamp(Record rec) {
         final long utc = timestamp.getTimestamp(rec);
-        return utc + multiplier * rules.getOffset(utc);
+        if (multiplier > 0) {
+            return utc + rules.getOffset(utc);
+        }
+        // the argument is local time here, getOffset() really needs UTC date
+        final long offset = rules.getOffset(utc);
+        return utc - rules.getOffset(utc - offset);
     }
 
     @Override
@@ -266,6 +266,32 @@ final class TimestampFloorFunctions {
         }
     }
 
+    static class TimestampFloorOffsetFunction extends TimestampFunction implements UnaryFunction {
+        private final AbstractTimestampFloorFunction floorFunction;
+        private final long offset;
+
+        public TimestampFloorOffsetFunction(AbstractTimestampFloorFunction floorFunction, long offset) {
+            this.floorFunction = floorFunction;
+            this.offset = offset;
+        }
+
+        @Override
+        public Function getArg() {
+            return floorFunction.getArg();
+        }
+
+        @Override
+        public long getTimestamp(Record rec) {
+            long micros = floorFunction.getArg().getTimestamp(rec);
+            return micros == Numbers.LONG_NULL ? Numbers.LONG_NULL : floorFunction.floor(micros - offset) + offset;
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val("timestamp_floor('").val(floorFunction.getUnit()).val("',").val(getArg()).val(',').val(offset).val(')');
+        }
+    }
+
     static class TimestampFloorQuarterFunction extends TimestampFloorFunctions.AbstractTimestampFloorFunction {
         public TimestampFloorQuarterFunction(Function arg) {
             super(arg);
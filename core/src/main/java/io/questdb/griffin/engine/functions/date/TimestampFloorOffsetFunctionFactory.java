@@ -0,0 +1,67 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.date;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.IntList;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+import io.questdb.std.datetime.microtime.Timestamps;
+
+/**
+ * Floors timestamp to the unit boundaries shifted by the given offset, e.g.
+ * timestamp_floor('1h', ts, '00:15') returns quarter-past-the-hour buckets.
+ * SAMPLE BY ... ALIGN TO CALENDAR WITH OFFSET is rewritten into this function.
+ */
+public class TimestampFloorOffsetFunctionFactory implements FunctionFactory {
+    private static final TimestampFloorFunctionFactory FLOOR_FACTORY = new TimestampFloorFunctionFactory();
+
+    @Override
+    public String getSignature() {
+        return "timestamp_floor(sNs)";
+    }
+
+    @Override
+    public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        final CharSequence offsetStr = args.getQuick(2).getStrA(null);
+        final long offset = offsetStr != null ? Timestamps.parseOffset(offsetStr) : Numbers.LONG_NULL;
+        if (offset == Numbers.LONG_NULL) {
+            throw SqlException.$(argPositions.getQuick(2), "invalid offset: ").put(offsetStr);
+        }
+        final Function floorFunction = FLOOR_FACTORY.newInstance(position, args, argPositions, configuration, sqlExecutionContext);
+        final long offsetMicros = Numbers.decodeLowInt(offset) * Timestamps.MINUTE_MICROS;
+        if (offsetMicros == 0) {
+            return floorFunction;
+        }
+        return new TimestampFloorFunctions.TimestampFloorOffsetFunction(
+                (TimestampFloorFunctions.AbstractTimestampFloorFunction) floorFunction,
+                offsetMicros
+        );
+    }
+}
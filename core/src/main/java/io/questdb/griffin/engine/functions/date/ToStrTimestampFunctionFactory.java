@@ -135,6 +135,11 @@ public class ToStrTimestampFunctionFactory implements FunctionFactory {
             return sink1.length();
         }
 
+        @Override
+        public boolean isReadThreadSafe() {
+            return false;
+        }
+
         @Override
         public void toPlan(PlanSink sink) {
             sink.val("to_str(").val(arg).val(')');
@@ -24,10 +24,13 @@
 
 package io.questdb.griffin.engine.functions.groupby;
 
+import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.map.MapValue;
 import io.questdb.cairo.sql.Function;
 import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.engine.functions.columns.ColumnFunction;
 import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
 import org.jetbrains.annotations.NotNull;
 
 public class CountDoubleGroupByFunction extends AbstractCountGroupByFunction {
@@ -36,6 +39,19 @@ public class CountDoubleGroupByFunction extends AbstractCountGroupByFunction {
         super(arg);
     }
 
+    @Override
+    public void computeBatch(long pValueAddresses, long valueOffset, long pArgColumn, int rowCount) {
+        for (int i = 0; i < rowCount; i++) {
+            final long pValue = Unsafe.getUnsafe().getLong(pValueAddresses + 8L * i);
+            if (pValue != 0) {
+                if (Numbers.isFinite(Unsafe.getUnsafe().getDouble(pArgColumn + 8L * i))) {
+                    final long p = pValue + valueOffset;
+                    Unsafe.getUnsafe().putLong(p, Unsafe.getUnsafe().getLong(p) + 1);
+                }
+            }
+        }
+    }
+
     @Override
     public void computeFirst(MapValue mapValue, Record record, long rowId) {
         final double value = arg.getDouble(record);
@@ -53,4 +69,9 @@ public class CountDoubleGroupByFunction extends AbstractCountGroupByFunction {
             mapValue.addLong(valueIndex, 1);
         }
     }
+
+    @Override
+    public boolean isBatchComputationSupported() {
+        return arg instanceof ColumnFunction && ColumnType.tagOf(arg.getType()) == ColumnType.DOUBLE;
+    }
 }
@@ -32,10 +32,22 @@ import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.engine.functions.LongFunction;
 import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
 
 public class CountLongConstGroupByFunction extends LongFunction implements GroupByFunction {
     private int valueIndex;
 
+    @Override
+    public void computeBatch(long pValueAddresses, long valueOffset, long pArgColumn, int rowCount) {
+        for (int i = 0; i < rowCount; i++) {
+            final long pValue = Unsafe.getUnsafe().getLong(pValueAddresses + 8L * i);
+            if (pValue != 0) {
+                final long p = pValue + valueOffset;
+                Unsafe.getUnsafe().putLong(p, Unsafe.getUnsafe().getLong(p) + 1);
+            }
+        }
+    }
+
     @Override
     public void computeFirst(MapValue mapValue, Record record, long rowId) {
         mapValue.putLong(valueIndex, 1);
@@ -67,6 +79,11 @@ public class CountLongConstGroupByFunction extends LongFunction implements Group
         columnTypes.add(ColumnType.LONG);
     }
 
+    @Override
+    public boolean isBatchComputationSupported() {
+        return true;
+    }
+
     @Override
     public boolean isReadThreadSafe() {
         return true;
@@ -32,7 +32,9 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.engine.functions.DoubleFunction;
 import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.griffin.engine.functions.columns.ColumnFunction;
 import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
 import org.jetbrains.annotations.NotNull;
 
 public class MaxDoubleGroupByFunction extends DoubleFunction implements GroupByFunction, UnaryFunction {
@@ -43,6 +45,21 @@ public class MaxDoubleGroupByFunction extends DoubleFunction implements GroupByF
         this.arg = arg;
     }
 
+    @Override
+    public void computeBatch(long pValueAddresses, long valueOffset, long pArgColumn, int rowCount) {
+        for (int i = 0; i < rowCount; i++) {
+            final long pValue = Unsafe.getUnsafe().getLong(pValueAddresses + 8L * i);
+            if (pValue != 0) {
+                final double next = Unsafe.getUnsafe().getDouble(pArgColumn + 8L * i);
+                final long p = pValue + valueOffset;
+                final double max = Unsafe.getUnsafe().getDouble(p);
+                if (next > max || Numbers.isNull(max)) {
+                    Unsafe.getUnsafe().putDouble(p, next);
+                }
+            }
+        }
+    }
+
     @Override
     public void computeFirst(MapValue mapValue, Record record, long rowId) {
         mapValue.putDouble(valueIndex, arg.getDouble(record));
@@ -88,6 +105,11 @@ public class MaxDoubleGroupByFunction extends DoubleFunction implements GroupByF
         columnTypes.add(ColumnType.DOUBLE);
     }
 
+    @Override
+    public boolean isBatchComputationSupported() {
+        return arg instanceof ColumnFunction && ColumnType.tagOf(arg.getType()) == ColumnType.DOUBLE;
+    }
+
     @Override
     public boolean isConstant() {
         return false;
@@ -32,7 +32,9 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.engine.functions.LongFunction;
 import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.griffin.engine.functions.columns.ColumnFunction;
 import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
 import org.jetbrains.annotations.NotNull;
 
 public class SumLongGroupByFunction extends LongFunction implements GroupByFunction, UnaryFunction {
@@ -43,6 +45,21 @@ public class SumLongGroupByFunction extends LongFunction implements GroupByFunct
         this.arg = arg;
     }
 
+    @Override
+    public void computeBatch(long pValueAddresses, long valueOffset, long pArgColumn, int rowCount) {
+        for (int i = 0; i < rowCount; i++) {
+            final long pValue = Unsafe.getUnsafe().getLong(pValueAddresses + 8L * i);
+            if (pValue != 0) {
+                final long value = Unsafe.getUnsafe().getLong(pArgColumn + 8L * i);
+                if (value != Numbers.LONG_NULL) {
+                    final long p = pValue + valueOffset;
+                    Unsafe.getUnsafe().putLong(p, Unsafe.getUnsafe().getLong(p) + value);
+                    Unsafe.getUnsafe().putLong(p + 8, Unsafe.getUnsafe().getLong(p + 8) + 1);
+                }
+            }
+        }
+    }
+
     @Override
     public void computeFirst(MapValue mapValue, Record record, long rowId) {
         final long value = arg.getLong(record);
@@ -96,6 +113,11 @@ public class SumLongGroupByFunction extends LongFunction implements GroupByFunct
         columnTypes.add(ColumnType.LONG);
     }
 
+    @Override
+    public boolean isBatchComputationSupported() {
+        return arg instanceof ColumnFunction && ColumnType.tagOf(arg.getType()) == ColumnType.LONG;
+    }
+
     @Override
     public boolean isConstant() {
         return false;
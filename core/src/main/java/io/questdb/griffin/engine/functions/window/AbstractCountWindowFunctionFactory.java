@@ -0,0 +1,770 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.window;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.cairo.sql.WindowSPI;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.window.WindowContext;
+import io.questdb.griffin.engine.window.WindowFunction;
+import io.questdb.griffin.model.WindowColumn;
+import io.questdb.std.*;
+
+// Returns number of rows (count(*)) or number of non-null values (count(x)) in the window frame.
+public abstract class AbstractCountWindowFunctionFactory implements FunctionFactory {
+
+    private static final ArrayColumnTypes COUNT_COLUMN_TYPES;
+    private static final ArrayColumnTypes COUNT_OVER_PARTITION_FRAME_COLUMN_TYPES;
+    private static final String NAME = "count";
+
+    @Override
+    public boolean isWindow() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final WindowContext windowContext = sqlExecutionContext.getWindowContext();
+        if (windowContext.isEmpty()) {
+            throw SqlException.emptyWindowContext(position);
+        }
+
+        long rowsLo = windowContext.getRowsLo();
+        long rowsHi = windowContext.getRowsHi();
+
+        if (!windowContext.isDefaultFrame()) {
+            if (rowsLo > 0) {
+                throw SqlException.$(windowContext.getRowsLoKindPos(), "frame start supports UNBOUNDED PRECEDING, _number_ PRECEDING and CURRENT ROW only");
+            }
+            if (rowsHi > 0) {
+                if (rowsHi != Long.MAX_VALUE) {
+                    throw SqlException.$(windowContext.getRowsHiKindPos(), "frame end supports _number_ PRECEDING and CURRENT ROW only");
+                } else if (rowsLo != Long.MIN_VALUE) {
+                    throw SqlException.$(windowContext.getRowsHiKindPos(), "frame end supports UNBOUNDED FOLLOWING only when frame start is UNBOUNDED PRECEDING");
+                }
+            }
+        }
+
+        int exclusionKind = windowContext.getExclusionKind();
+        int exclusionKindPos = windowContext.getExclusionKindPos();
+        if (exclusionKind != WindowColumn.EXCLUDE_NO_OTHERS
+                && exclusionKind != WindowColumn.EXCLUDE_CURRENT_ROW) {
+            throw SqlException.$(exclusionKindPos, "only EXCLUDE NO OTHERS and EXCLUDE CURRENT ROW exclusion modes are supported");
+        }
+
+        if (exclusionKind == WindowColumn.EXCLUDE_CURRENT_ROW) {
+            // assumes frame doesn't use 'following'
+            if (rowsHi == Long.MAX_VALUE) {
+                throw SqlException.$(exclusionKindPos, "EXCLUDE CURRENT ROW not supported with UNBOUNDED FOLLOWING frame boundary");
+            }
+
+            if (rowsHi == 0) {
+                rowsHi = -1;
+            }
+            if (rowsHi < rowsLo) {
+                throw SqlException.$(exclusionKindPos, "end of window is higher than start of window due to exclusion mode");
+            }
+        }
+
+        int framingMode = windowContext.getFramingMode();
+        if (framingMode == WindowColumn.FRAMING_GROUPS) {
+            throw SqlException.$(position, "function not implemented for given window parameters");
+        }
+
+        final boolean wholeFrame = (rowsLo == Long.MIN_VALUE && rowsHi == Long.MAX_VALUE)
+                || (framingMode == WindowColumn.FRAMING_RANGE && windowContext.isDefaultFrame() && !windowContext.isOrdered());
+        final boolean rangeFrame = framingMode == WindowColumn.FRAMING_RANGE;
+        if (!wholeFrame && rangeFrame && !(rowsLo == Long.MIN_VALUE && rowsHi == 0)
+                && windowContext.isOrdered() && !windowContext.isOrderedByDesignatedTimestamp()) {
+            throw SqlException.$(windowContext.getOrderByPos(), "RANGE is supported only for queries ordered by designated timestamp");
+        }
+
+        // null arg stands for count(*)
+        final Function arg = args != null && args.size() > 0 ? args.getQuick(0) : null;
+        final VirtualRecord partitionByRecord = windowContext.getPartitionByRecord();
+        if (partitionByRecord != null) {
+            final RecordSink partitionBySink = windowContext.getPartitionBySink();
+            final ColumnTypes partitionByKeyTypes = windowContext.getPartitionByKeyTypes();
+
+            // whole partition
+            if (wholeFrame) {
+                Map map = MapFactory.createOrderedMap(configuration, partitionByKeyTypes, COUNT_COLUMN_TYPES);
+                return new CountOverPartitionFunction(map, partitionByRecord, partitionBySink, arg);
+            } // between unbounded preceding and current row, for range frames calculation stops at current row even if there are 'equal' following rows
+            else if (rowsLo == Long.MIN_VALUE && rowsHi == 0) {
+                Map map = MapFactory.createOrderedMap(configuration, partitionByKeyTypes, COUNT_COLUMN_TYPES);
+                return new CountOverUnboundedPartitionRowsFrameFunction(map, partitionByRecord, partitionBySink, arg);
+            } // rows between current row and current row
+            else if (!rangeFrame && rowsLo == 0 && rowsHi == 0) {
+                return new CountOverCurrentRowFunction(arg);
+            } // [rows | range] between [unbounded | x] preceding and [y preceding | current row]
+            else {
+                Map map = null;
+                MemoryARW mem = null;
+                try {
+                    map = MapFactory.createOrderedMap(configuration, partitionByKeyTypes, COUNT_OVER_PARTITION_FRAME_COLUMN_TYPES);
+                    mem = Vm.getARWInstance(
+                            configuration.getSqlWindowStorePageSize(),
+                            configuration.getSqlWindowStoreMaxPages(),
+                            MemoryTag.NATIVE_CIRCULAR_BUFFER
+                    );
+                    return new CountOverPartitionFrameFunction(
+                            map,
+                            partitionByRecord,
+                            partitionBySink,
+                            rangeFrame,
+                            rowsLo,
+                            rowsHi,
+                            arg,
+                            mem,
+                            configuration.getSqlWindowInitialRangeBufferSize(),
+                            windowContext.getTimestampIndex()
+                    );
+                } catch (Throwable th) {
+                    Misc.free(map);
+                    Misc.free(mem);
+                    throw th;
+                }
+            }
+        }
+
+        // no partition key
+        if (wholeFrame) {
+            return new CountOverWholeResultSetFunction(arg);
+        } else if (rowsLo == Long.MIN_VALUE && rowsHi == 0) {
+            return new CountOverUnboundedRowsFrameFunction(arg);
+        } else if (!rangeFrame && rowsLo == 0 && rowsHi == 0) {
+            return new CountOverCurrentRowFunction(arg);
+        }
+        MemoryARW mem = Vm.getARWInstance(
+                configuration.getSqlWindowStorePageSize(),
+                configuration.getSqlWindowStoreMaxPages(),
+                MemoryTag.NATIVE_CIRCULAR_BUFFER
+        );
+        return new CountOverFrameFunction(
+                rangeFrame,
+                rowsLo,
+                rowsHi,
+                arg,
+                mem,
+                configuration.getSqlWindowInitialRangeBufferSize(),
+                windowContext.getTimestampIndex()
+        );
+    }
+
+    private static void frameToPlan(PlanSink sink, boolean rangeFrame, boolean frameLoBounded, long maxDiff, long minDiff) {
+        sink.val(rangeFrame ? "range between " : "rows between ");
+        if (frameLoBounded) {
+            sink.val(maxDiff);
+        } else {
+            sink.val("unbounded");
+        }
+        sink.val(" preceding and ");
+        if (minDiff == 0) {
+            sink.val("current row");
+        } else {
+            sink.val(minDiff).val(" preceding");
+        }
+    }
+
+    private static boolean isCounted(Function arg, Record record) {
+        return arg == null || Numbers.isFinite(arg.getDouble(record));
+    }
+
+    // (rows between current row and current row) processes 1-element-big set
+    static class CountOverCurrentRowFunction extends BaseLongWindowFunction {
+        private long count;
+
+        CountOverCurrentRowFunction(Function arg) {
+            super(arg);
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            count = isCounted(arg, record) ? 1 : 0;
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            return count;
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public int getPassCount() {
+            return ZERO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            computeNext(record);
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), count);
+        }
+    }
+
+    // Handles count() over (rows | range between [unbounded | x] preceding and [y preceding | current row]); there's no partition by.
+    // Rows between upper bound of the frame and current row wait in a FIFO buffer, keys of rows within bounded frame are kept in another one.
+    static class CountOverFrameFunction extends BaseLongWindowFunction implements Reopenable {
+        private final WindowRingBuffer frame;
+        private final boolean frameLoBounded;
+        // list of [capacity, startOffset] pairs marking free space within mem
+        private final LongList freeList = new LongList();
+        private final long maxDiff;
+        // holds resizable ring buffers
+        private final MemoryARW memory;
+        private final long minDiff;
+        private final WindowRingBuffer pending;
+        private final boolean rangeFrame;
+        private final int timestampIndex;
+        private long count;
+        private long rowIndex;
+        // number of rows that entered unbounded frame
+        private long unboundedCount;
+
+        CountOverFrameFunction(
+                boolean rangeFrame,
+                long rowsLo,
+                long rowsHi,
+                Function arg,
+                MemoryARW memory,
+                int initialBufferSize,
+                int timestampIndex
+        ) {
+            super(arg);
+            this.rangeFrame = rangeFrame;
+            this.frameLoBounded = rowsLo != Long.MIN_VALUE;
+            this.maxDiff = frameLoBounded ? Math.abs(rowsLo) : Long.MAX_VALUE; // maxDiff must be used only if frameLoBounded
+            this.minDiff = Math.abs(rowsHi);
+            this.memory = memory;
+            this.timestampIndex = timestampIndex;
+            this.pending = new WindowRingBuffer(memory, freeList, initialBufferSize);
+            this.frame = new WindowRingBuffer(memory, freeList, initialBufferSize);
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            memory.close();
+            freeList.clear();
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            final long key = rangeFrame ? record.getTimestamp(timestampIndex) : rowIndex++;
+            if (isCounted(arg, record)) {
+                if (minDiff == 0) {
+                    enterFrame(key);
+                } else {
+                    pending.add(key, 0);
+                }
+            }
+
+            // move rows that reached upper bound of the frame
+            while (!pending.isEmpty() && pending.firstKey() <= key - minDiff) {
+                enterFrame(pending.firstKey());
+                pending.removeFirst();
+            }
+
+            if (frameLoBounded) {
+                // remove rows that went past lower bound of the frame
+                while (!frame.isEmpty() && frame.firstKey() < key - maxDiff) {
+                    frame.removeFirst();
+                }
+                count = frame.size();
+            } else {
+                count = unboundedCount;
+            }
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            return count;
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ZERO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            if (rangeFrame) {
+                // cached records don't carry designated timestamp
+                throw new UnsupportedOperationException();
+            }
+            computeNext(record);
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), count);
+        }
+
+        @Override
+        public void reopen() {
+            // memory will allocate on first use
+            clearState();
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            memory.close();
+            freeList.clear();
+            clearState();
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            argToPlan(sink);
+            sink.val(" over (");
+            frameToPlan(sink, rangeFrame, frameLoBounded, maxDiff, minDiff);
+            sink.val(')');
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            memory.truncate();
+            freeList.clear();
+            clearState();
+        }
+
+        private void clearState() {
+            pending.clear();
+            frame.clear();
+            count = 0;
+            rowIndex = 0;
+            unboundedCount = 0;
+        }
+
+        private void enterFrame(long key) {
+            if (frameLoBounded) {
+                frame.add(key, 0);
+            } else {
+                unboundedCount++;
+            }
+        }
+    }
+
+    // Handles count() over (partition by x [order by o] [rows | range] between [unbounded | x] preceding and [y preceding | current row]).
+    // Rows between upper bound of the frame and current row wait in a FIFO buffer, keys of rows within bounded frame are kept in another one.
+    static class CountOverPartitionFrameFunction extends BasePartitionedLongWindowFunction {
+        private static final int FRAME_STATE_INDEX = 2 + WindowRingBuffer.STATE_COLUMN_COUNT;
+        private static final int PENDING_STATE_INDEX = 2;
+        private final WindowRingBuffer frame;
+        private final boolean frameLoBounded;
+        // list of [capacity, startOffset] pairs marking free space within mem
+        private final LongList freeList = new LongList();
+        private final long maxDiff;
+        // holds resizable ring buffers
+        private final MemoryARW memory;
+        private final long minDiff;
+        private final WindowRingBuffer pending;
+        private final boolean rangeFrame;
+        private final int timestampIndex;
+        private long count;
+        private long unboundedCount;
+
+        CountOverPartitionFrameFunction(
+                Map map,
+                VirtualRecord partitionByRecord,
+                RecordSink partitionBySink,
+                boolean rangeFrame,
+                long rowsLo,
+                long rowsHi,
+                Function arg,
+                MemoryARW memory,
+                int initialBufferSize,
+                int timestampIndex
+        ) {
+            super(map, partitionByRecord, partitionBySink, arg);
+            this.rangeFrame = rangeFrame;
+            this.frameLoBounded = rowsLo != Long.MIN_VALUE;
+            this.maxDiff = frameLoBounded ? Math.abs(rowsLo) : Long.MAX_VALUE; // maxDiff must be used only if frameLoBounded
+            this.minDiff = Math.abs(rowsHi);
+            this.memory = memory;
+            this.timestampIndex = timestampIndex;
+            this.pending = new WindowRingBuffer(memory, freeList, initialBufferSize);
+            this.frame = new WindowRingBuffer(memory, freeList, initialBufferSize);
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            memory.close();
+            freeList.clear();
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            // map stores:
+            // 0 - number of rows seen in the partition, used as row key in rows frames
+            // 1 - number of rows that entered unbounded frame
+            // 2-5 - state of buffer of row keys waiting to enter the frame
+            // 6-9 - state of buffer of row keys within bounded frame
+            // rows that aren't counted, i.e. nulls, aren't buffered
+
+            partitionByRecord.of(record);
+            MapKey mapKey = map.withKey();
+            mapKey.put(partitionByRecord, partitionBySink);
+            MapValue mapValue = mapKey.createValue();
+
+            long rowIndex;
+            if (mapValue.isNew()) {
+                rowIndex = 0;
+                unboundedCount = 0;
+                pending.clear();
+                frame.clear();
+            } else {
+                rowIndex = mapValue.getLong(0);
+                unboundedCount = mapValue.getLong(1);
+                pending.of(mapValue, PENDING_STATE_INDEX);
+                frame.of(mapValue, FRAME_STATE_INDEX);
+            }
+
+            final long key = rangeFrame ? record.getTimestamp(timestampIndex) : rowIndex;
+            if (isCounted(arg, record)) {
+                if (minDiff == 0) {
+                    enterFrame(key);
+                } else {
+                    pending.add(key, 0);
+                }
+            }
+
+            // move rows that reached upper bound of the frame
+            while (!pending.isEmpty() && pending.firstKey() <= key - minDiff) {
+                enterFrame(pending.firstKey());
+                pending.removeFirst();
+            }
+
+            if (frameLoBounded) {
+                // remove rows that went past lower bound of the frame
+                while (!frame.isEmpty() && frame.firstKey() < key - maxDiff) {
+                    frame.removeFirst();
+                }
+                count = frame.size();
+            } else {
+                count = unboundedCount;
+            }
+
+            mapValue.putLong(0, rowIndex + 1);
+            mapValue.putLong(1, unboundedCount);
+            pending.save(mapValue, PENDING_STATE_INDEX);
+            frame.save(mapValue, FRAME_STATE_INDEX);
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            return count;
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ZERO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            if (rangeFrame) {
+                // cached records don't carry designated timestamp
+                throw new UnsupportedOperationException();
+            }
+            computeNext(record);
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), count);
+        }
+
+        @Override
+        public void reopen() {
+            super.reopen();
+            // memory will allocate on first use
+            count = 0;
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            memory.close();
+            freeList.clear();
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            argToPlan(sink);
+            sink.val(" over (");
+            sink.val("partition by ");
+            sink.val(partitionByRecord.getFunctions());
+            sink.val(' ');
+            frameToPlan(sink, rangeFrame, frameLoBounded, maxDiff, minDiff);
+            sink.val(')');
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            memory.truncate();
+            freeList.clear();
+        }
+
+        private void enterFrame(long key) {
+            if (frameLoBounded) {
+                frame.add(key, 0);
+            } else {
+                unboundedCount++;
+            }
+        }
+    }
+
+    // handles count() over (partition by x)
+    // order by is absent so default frame mode includes all rows in the partition
+    static class CountOverPartitionFunction extends BasePartitionedLongWindowFunction {
+
+        CountOverPartitionFunction(Map map, VirtualRecord partitionByRecord, RecordSink partitionBySink, Function arg) {
+            super(map, partitionByRecord, partitionBySink, arg);
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.TWO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue value = key.createValue();
+            long count = value.isNew() ? 0 : value.getLong(0);
+            value.putLong(0, isCounted(arg, record) ? count + 1 : count);
+        }
+
+        @Override
+        public void pass2(Record record, long recordOffset, WindowSPI spi) {
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue value = key.findValue();
+
+            long count = value != null ? value.getLong(0) : 0;
+
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), count);
+        }
+    }
+
+    // Handles count() over (partition by x [order by o] rows between unbounded preceding and current row)
+    static class CountOverUnboundedPartitionRowsFrameFunction extends BasePartitionedLongWindowFunction {
+        private long count;
+
+        CountOverUnboundedPartitionRowsFrameFunction(Map map, VirtualRecord partitionByRecord, RecordSink partitionBySink, Function arg) {
+            super(map, partitionByRecord, partitionBySink, arg);
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue value = key.createValue();
+
+            count = value.isNew() ? 0 : value.getLong(0);
+            if (isCounted(arg, record)) {
+                count++;
+            }
+            value.putLong(0, count);
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            return count;
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ZERO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            computeNext(record);
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), count);
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            argToPlan(sink);
+            sink.val(" over (");
+            sink.val("partition by ");
+            sink.val(partitionByRecord.getFunctions());
+            sink.val(" rows between unbounded preceding and current row)");
+        }
+    }
+
+    // Handles count() over (rows between unbounded preceding and current row); there's no partition by.
+    static class CountOverUnboundedRowsFrameFunction extends BaseLongWindowFunction {
+        private long count;
+
+        CountOverUnboundedRowsFrameFunction(Function arg) {
+            super(arg);
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            if (isCounted(arg, record)) {
+                count++;
+            }
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            return count;
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ZERO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            computeNext(record);
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), count);
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            count = 0;
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            argToPlan(sink);
+            sink.val(" over (rows between unbounded preceding and current row)");
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            count = 0;
+        }
+    }
+
+    // count() over () - empty clause, no partition by no order by, no frame == default frame
+    static class CountOverWholeResultSetFunction extends BaseLongWindowFunction {
+        private long count;
+
+        CountOverWholeResultSetFunction(Function arg) {
+            super(arg);
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.TWO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            if (isCounted(arg, record)) {
+                count++;
+            }
+        }
+
+        @Override
+        public void pass2(Record record, long recordOffset, WindowSPI spi) {
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), count);
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            count = 0;
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            count = 0;
+        }
+    }
+
+    static {
+        COUNT_COLUMN_TYPES = new ArrayColumnTypes();
+        COUNT_COLUMN_TYPES.add(ColumnType.LONG);
+
+        COUNT_OVER_PARTITION_FRAME_COLUMN_TYPES = new ArrayColumnTypes();
+        COUNT_OVER_PARTITION_FRAME_COLUMN_TYPES.add(ColumnType.LONG); // number of rows seen in the partition
+        COUNT_OVER_PARTITION_FRAME_COLUMN_TYPES.add(ColumnType.LONG); // number of rows in unbounded frame
+        WindowRingBuffer.addStateColumnTypes(COUNT_OVER_PARTITION_FRAME_COLUMN_TYPES); // rows waiting to enter the frame
+        WindowRingBuffer.addStateColumnTypes(COUNT_OVER_PARTITION_FRAME_COLUMN_TYPES); // rows within bounded frame
+    }
+}
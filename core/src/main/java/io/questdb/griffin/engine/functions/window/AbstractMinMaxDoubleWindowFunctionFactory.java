@@ -0,0 +1,835 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.window;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.*;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.cairo.sql.WindowSPI;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.window.WindowContext;
+import io.questdb.griffin.engine.window.WindowFunction;
+import io.questdb.griffin.model.WindowColumn;
+import io.questdb.std.*;
+
+// Returns the largest (max) or the smallest (min) non-null value of the window frame.
+// Sliding frames keep a monotonic deque of candidate values, so that each row is added and removed at most once.
+public abstract class AbstractMinMaxDoubleWindowFunctionFactory implements FunctionFactory {
+
+    private static final ArrayColumnTypes MIN_MAX_COLUMN_TYPES;
+    private static final ArrayColumnTypes MIN_MAX_OVER_PARTITION_FRAME_COLUMN_TYPES;
+    private final boolean max;
+    private final String name;
+    private final String signature;
+
+    protected AbstractMinMaxDoubleWindowFunctionFactory(String name, boolean max) {
+        this.name = name;
+        this.max = max;
+        this.signature = name + "(D)";
+    }
+
+    @Override
+    public String getSignature() {
+        return signature;
+    }
+
+    @Override
+    public boolean isWindow() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final WindowContext windowContext = sqlExecutionContext.getWindowContext();
+        if (windowContext.isEmpty()) {
+            throw SqlException.emptyWindowContext(position);
+        }
+
+        long rowsLo = windowContext.getRowsLo();
+        long rowsHi = windowContext.getRowsHi();
+
+        if (!windowContext.isDefaultFrame()) {
+            if (rowsLo > 0) {
+                throw SqlException.$(windowContext.getRowsLoKindPos(), "frame start supports UNBOUNDED PRECEDING, _number_ PRECEDING and CURRENT ROW only");
+            }
+            if (rowsHi > 0) {
+                if (rowsHi != Long.MAX_VALUE) {
+                    throw SqlException.$(windowContext.getRowsHiKindPos(), "frame end supports _number_ PRECEDING and CURRENT ROW only");
+                } else if (rowsLo != Long.MIN_VALUE) {
+                    throw SqlException.$(windowContext.getRowsHiKindPos(), "frame end supports UNBOUNDED FOLLOWING only when frame start is UNBOUNDED PRECEDING");
+                }
+            }
+        }
+
+        int exclusionKind = windowContext.getExclusionKind();
+        int exclusionKindPos = windowContext.getExclusionKindPos();
+        if (exclusionKind != WindowColumn.EXCLUDE_NO_OTHERS
+                && exclusionKind != WindowColumn.EXCLUDE_CURRENT_ROW) {
+            throw SqlException.$(exclusionKindPos, "only EXCLUDE NO OTHERS and EXCLUDE CURRENT ROW exclusion modes are supported");
+        }
+
+        if (exclusionKind == WindowColumn.EXCLUDE_CURRENT_ROW) {
+            // assumes frame doesn't use 'following'
+            if (rowsHi == Long.MAX_VALUE) {
+                throw SqlException.$(exclusionKindPos, "EXCLUDE CURRENT ROW not supported with UNBOUNDED FOLLOWING frame boundary");
+            }
+
+            if (rowsHi == 0) {
+                rowsHi = -1;
+            }
+            if (rowsHi < rowsLo) {
+                throw SqlException.$(exclusionKindPos, "end of window is higher than start of window due to exclusion mode");
+            }
+        }
+
+        int framingMode = windowContext.getFramingMode();
+        if (framingMode == WindowColumn.FRAMING_GROUPS) {
+            throw SqlException.$(position, "function not implemented for given window parameters");
+        }
+
+        final boolean wholeFrame = (rowsLo == Long.MIN_VALUE && rowsHi == Long.MAX_VALUE)
+                || (framingMode == WindowColumn.FRAMING_RANGE && windowContext.isDefaultFrame() && !windowContext.isOrdered());
+        final boolean rangeFrame = framingMode == WindowColumn.FRAMING_RANGE;
+        if (!wholeFrame && rangeFrame && !(rowsLo == Long.MIN_VALUE && rowsHi == 0)
+                && windowContext.isOrdered() && !windowContext.isOrderedByDesignatedTimestamp()) {
+            throw SqlException.$(windowContext.getOrderByPos(), "RANGE is supported only for queries ordered by designated timestamp");
+        }
+
+        final VirtualRecord partitionByRecord = windowContext.getPartitionByRecord();
+        if (partitionByRecord != null) {
+            final RecordSink partitionBySink = windowContext.getPartitionBySink();
+            final ColumnTypes partitionByKeyTypes = windowContext.getPartitionByKeyTypes();
+
+            // whole partition
+            if (wholeFrame) {
+                Map map = MapFactory.createOrderedMap(configuration, partitionByKeyTypes, MIN_MAX_COLUMN_TYPES);
+                return new MinMaxOverPartitionFunction(map, partitionByRecord, partitionBySink, args.get(0), name, max);
+            } // between unbounded preceding and current row, for range frames calculation stops at current row even if there are 'equal' following rows
+            else if (rowsLo == Long.MIN_VALUE && rowsHi == 0) {
+                Map map = MapFactory.createOrderedMap(configuration, partitionByKeyTypes, MIN_MAX_COLUMN_TYPES);
+                return new MinMaxOverUnboundedPartitionRowsFrameFunction(map, partitionByRecord, partitionBySink, args.get(0), name, max);
+            } // rows between current row and current row
+            else if (!rangeFrame && rowsLo == 0 && rowsHi == 0) {
+                return new MinMaxOverCurrentRowFunction(args.get(0), name);
+            } // [rows | range] between [unbounded | x] preceding and [y preceding | current row]
+            else {
+                Map map = null;
+                MemoryARW mem = null;
+                try {
+                    map = MapFactory.createOrderedMap(configuration, partitionByKeyTypes, MIN_MAX_OVER_PARTITION_FRAME_COLUMN_TYPES);
+                    mem = Vm.getARWInstance(
+                            configuration.getSqlWindowStorePageSize(),
+                            configuration.getSqlWindowStoreMaxPages(),
+                            MemoryTag.NATIVE_CIRCULAR_BUFFER
+                    );
+                    return new MinMaxOverPartitionFrameFunction(
+                            map,
+                            partitionByRecord,
+                            partitionBySink,
+                            rangeFrame,
+                            rowsLo,
+                            rowsHi,
+                            args.get(0),
+                            mem,
+                            configuration.getSqlWindowInitialRangeBufferSize(),
+                            windowContext.getTimestampIndex(),
+                            name,
+                            max
+                    );
+                } catch (Throwable th) {
+                    Misc.free(map);
+                    Misc.free(mem);
+                    throw th;
+                }
+            }
+        }
+
+        // no partition key
+        if (wholeFrame) {
+            return new MinMaxOverWholeResultSetFunction(args.get(0), name, max);
+        } else if (rowsLo == Long.MIN_VALUE && rowsHi == 0) {
+            return new MinMaxOverUnboundedRowsFrameFunction(args.get(0), name, max);
+        } else if (!rangeFrame && rowsLo == 0 && rowsHi == 0) {
+            return new MinMaxOverCurrentRowFunction(args.get(0), name);
+        }
+        MemoryARW mem = Vm.getARWInstance(
+                configuration.getSqlWindowStorePageSize(),
+                configuration.getSqlWindowStoreMaxPages(),
+                MemoryTag.NATIVE_CIRCULAR_BUFFER
+        );
+        return new MinMaxOverFrameFunction(
+                rangeFrame,
+                rowsLo,
+                rowsHi,
+                args.get(0),
+                mem,
+                configuration.getSqlWindowInitialRangeBufferSize(),
+                windowContext.getTimestampIndex(),
+                name,
+                max
+        );
+    }
+
+    // returns the extremum of non-null values, NaN is returned only when both values are null
+    private static double extremum(boolean max, double current, double d) {
+        if (current != current) {
+            return d;
+        }
+        if (d != d) {
+            return current;
+        }
+        return max ? Math.max(current, d) : Math.min(current, d);
+    }
+
+    private static void frameToPlan(PlanSink sink, boolean rangeFrame, boolean frameLoBounded, long maxDiff, long minDiff) {
+        sink.val(rangeFrame ? "range between " : "rows between ");
+        if (frameLoBounded) {
+            sink.val(maxDiff);
+        } else {
+            sink.val("unbounded");
+        }
+        sink.val(" preceding and ");
+        if (minDiff == 0) {
+            sink.val("current row");
+        } else {
+            sink.val(minDiff).val(" preceding");
+        }
+    }
+
+    // (rows between current row and current row) processes 1-element-big set, so simply it returns expression value
+    static class MinMaxOverCurrentRowFunction extends BaseDoubleWindowFunction {
+        private final String name;
+        private double value;
+
+        MinMaxOverCurrentRowFunction(Function arg, String name) {
+            super(arg);
+            this.name = name;
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            value = arg.getDouble(record);
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            return value;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getPassCount() {
+            return ZERO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            computeNext(record);
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), value);
+        }
+    }
+
+    // Handles max()/min() over (rows | range between [unbounded | x] preceding and [y preceding | current row]); there's no partition by.
+    // Rows between upper bound of the frame and current row wait in a FIFO buffer, rows within the frame are kept in a monotonic deque.
+    static class MinMaxOverFrameFunction extends BaseDoubleWindowFunction implements Reopenable {
+        private final WindowRingBuffer deque;
+        private final boolean frameLoBounded;
+        // list of [capacity, startOffset] pairs marking free space within mem
+        private final LongList freeList = new LongList();
+        private final boolean max;
+        private final long maxDiff;
+        // holds resizable ring buffers
+        private final MemoryARW memory;
+        private final long minDiff;
+        private final String name;
+        private final WindowRingBuffer pending;
+        private final boolean rangeFrame;
+        private final int timestampIndex;
+        // extremum of all values that entered unbounded frame
+        private double extremum = Double.NaN;
+        private long rowIndex;
+        private double value = Double.NaN;
+
+        MinMaxOverFrameFunction(
+                boolean rangeFrame,
+                long rowsLo,
+                long rowsHi,
+                Function arg,
+                MemoryARW memory,
+                int initialBufferSize,
+                int timestampIndex,
+                String name,
+                boolean max
+        ) {
+            super(arg);
+            this.rangeFrame = rangeFrame;
+            this.frameLoBounded = rowsLo != Long.MIN_VALUE;
+            this.maxDiff = frameLoBounded ? Math.abs(rowsLo) : Long.MAX_VALUE; // maxDiff must be used only if frameLoBounded
+            this.minDiff = Math.abs(rowsHi);
+            this.memory = memory;
+            this.timestampIndex = timestampIndex;
+            this.name = name;
+            this.max = max;
+            this.pending = new WindowRingBuffer(memory, freeList, initialBufferSize);
+            this.deque = new WindowRingBuffer(memory, freeList, initialBufferSize);
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            memory.close();
+            freeList.clear();
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            final long key = rangeFrame ? record.getTimestamp(timestampIndex) : rowIndex++;
+            final double d = arg.getDouble(record);
+            if (Numbers.isFinite(d)) {
+                if (minDiff == 0) {
+                    enterFrame(key, d);
+                } else {
+                    pending.add(key, d);
+                }
+            }
+
+            // move values that reached upper bound of the frame
+            while (!pending.isEmpty() && pending.firstKey() <= key - minDiff) {
+                enterFrame(pending.firstKey(), pending.firstValue());
+                pending.removeFirst();
+            }
+
+            if (frameLoBounded) {
+                // remove values that went past lower bound of the frame
+                while (!deque.isEmpty() && deque.firstKey() < key - maxDiff) {
+                    deque.removeFirst();
+                }
+                value = deque.isEmpty() ? Double.NaN : deque.firstValue();
+            } else {
+                value = extremum;
+            }
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            return value;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ZERO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            if (rangeFrame) {
+                // cached records don't carry designated timestamp
+                throw new UnsupportedOperationException();
+            }
+            computeNext(record);
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), value);
+        }
+
+        @Override
+        public void reopen() {
+            // memory will allocate on first use
+            clearState();
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            memory.close();
+            freeList.clear();
+            clearState();
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val(name);
+            sink.val('(').val(arg).val(')');
+            sink.val(" over (");
+            frameToPlan(sink, rangeFrame, frameLoBounded, maxDiff, minDiff);
+            sink.val(')');
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            memory.truncate();
+            freeList.clear();
+            clearState();
+        }
+
+        private void clearState() {
+            pending.clear();
+            deque.clear();
+            extremum = Double.NaN;
+            rowIndex = 0;
+            value = Double.NaN;
+        }
+
+        private void enterFrame(long key, double d) {
+            if (frameLoBounded) {
+                // drop values that can no longer be the frame's extremum because d outlives them
+                while (!deque.isEmpty() && (max ? deque.lastValue() <= d : deque.lastValue() >= d)) {
+                    deque.removeLast();
+                }
+                deque.add(key, d);
+            } else {
+                extremum = extremum(max, extremum, d);
+            }
+        }
+    }
+
+    // handles max()/min() over (partition by x)
+    // order by is absent so default frame mode includes all rows in the partition
+    static class MinMaxOverPartitionFunction extends BasePartitionedDoubleWindowFunction {
+        private final boolean max;
+        private final String name;
+
+        MinMaxOverPartitionFunction(Map map, VirtualRecord partitionByRecord, RecordSink partitionBySink, Function arg, String name, boolean max) {
+            super(map, partitionByRecord, partitionBySink, arg);
+            this.name = name;
+            this.max = max;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.TWO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            double d = arg.getDouble(record);
+            if (Numbers.isFinite(d)) {
+                partitionByRecord.of(record);
+                MapKey key = map.withKey();
+                key.put(partitionByRecord, partitionBySink);
+                MapValue value = key.createValue();
+                value.putDouble(0, value.isNew() ? d : extremum(max, value.getDouble(0), d));
+            }
+        }
+
+        @Override
+        public void pass2(Record record, long recordOffset, WindowSPI spi) {
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue value = key.findValue();
+
+            double val = value != null ? value.getDouble(0) : Double.NaN;
+
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), val);
+        }
+    }
+
+    // Handles max()/min() over (partition by x [order by o] [rows | range] between [unbounded | x] preceding and [y preceding | current row]).
+    // Rows between upper bound of the frame and current row wait in a FIFO buffer, rows within the frame are kept in a monotonic deque,
+    // so the oldest deque element is the frame's extremum and each value is added and removed at most once.
+    static class MinMaxOverPartitionFrameFunction extends BasePartitionedDoubleWindowFunction {
+        private static final int DEQUE_STATE_INDEX = 2 + WindowRingBuffer.STATE_COLUMN_COUNT;
+        private static final int PENDING_STATE_INDEX = 2;
+        private final WindowRingBuffer deque;
+        private final boolean frameLoBounded;
+        // list of [capacity, startOffset] pairs marking free space within mem
+        private final LongList freeList = new LongList();
+        private final boolean max;
+        private final long maxDiff;
+        // holds resizable ring buffers
+        private final MemoryARW memory;
+        private final long minDiff;
+        private final String name;
+        private final WindowRingBuffer pending;
+        private final boolean rangeFrame;
+        private final int timestampIndex;
+        private double extremum;
+        private double value;
+
+        MinMaxOverPartitionFrameFunction(
+                Map map,
+                VirtualRecord partitionByRecord,
+                RecordSink partitionBySink,
+                boolean rangeFrame,
+                long rowsLo,
+                long rowsHi,
+                Function arg,
+                MemoryARW memory,
+                int initialBufferSize,
+                int timestampIndex,
+                String name,
+                boolean max
+        ) {
+            super(map, partitionByRecord, partitionBySink, arg);
+            this.rangeFrame = rangeFrame;
+            this.frameLoBounded = rowsLo != Long.MIN_VALUE;
+            this.maxDiff = frameLoBounded ? Math.abs(rowsLo) : Long.MAX_VALUE; // maxDiff must be used only if frameLoBounded
+            this.minDiff = Math.abs(rowsHi);
+            this.memory = memory;
+            this.timestampIndex = timestampIndex;
+            this.name = name;
+            this.max = max;
+            this.pending = new WindowRingBuffer(memory, freeList, initialBufferSize);
+            this.deque = new WindowRingBuffer(memory, freeList, initialBufferSize);
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            memory.close();
+            freeList.clear();
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            // map stores:
+            // 0 - number of rows seen in the partition, used as row key in rows frames
+            // 1 - extremum of all values that entered unbounded frame
+            // 2-5 - state of buffer of [key, value] pairs waiting to enter the frame
+            // 6-9 - state of monotonic deque of [key, value] pairs within the frame
+            // we ignore nulls to reduce memory usage
+
+            partitionByRecord.of(record);
+            MapKey mapKey = map.withKey();
+            mapKey.put(partitionByRecord, partitionBySink);
+            MapValue mapValue = mapKey.createValue();
+
+            long rowIndex;
+            if (mapValue.isNew()) {
+                rowIndex = 0;
+                extremum = Double.NaN;
+                pending.clear();
+                deque.clear();
+            } else {
+                rowIndex = mapValue.getLong(0);
+                extremum = mapValue.getDouble(1);
+                pending.of(mapValue, PENDING_STATE_INDEX);
+                deque.of(mapValue, DEQUE_STATE_INDEX);
+            }
+
+            final long key = rangeFrame ? record.getTimestamp(timestampIndex) : rowIndex;
+            final double d = arg.getDouble(record);
+            if (Numbers.isFinite(d)) {
+                if (minDiff == 0) {
+                    enterFrame(key, d);
+                } else {
+                    pending.add(key, d);
+                }
+            }
+
+            // move values that reached upper bound of the frame
+            while (!pending.isEmpty() && pending.firstKey() <= key - minDiff) {
+                enterFrame(pending.firstKey(), pending.firstValue());
+                pending.removeFirst();
+            }
+
+            if (frameLoBounded) {
+                // remove values that went past lower bound of the frame
+                while (!deque.isEmpty() && deque.firstKey() < key - maxDiff) {
+                    deque.removeFirst();
+                }
+                value = deque.isEmpty() ? Double.NaN : deque.firstValue();
+            } else {
+                value = extremum;
+            }
+
+            mapValue.putLong(0, rowIndex + 1);
+            mapValue.putDouble(1, extremum);
+            pending.save(mapValue, PENDING_STATE_INDEX);
+            deque.save(mapValue, DEQUE_STATE_INDEX);
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            return value;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ZERO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            if (rangeFrame) {
+                // cached records don't carry designated timestamp
+                throw new UnsupportedOperationException();
+            }
+            computeNext(record);
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), value);
+        }
+
+        @Override
+        public void reopen() {
+            super.reopen();
+            // memory will allocate on first use
+            value = Double.NaN;
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            memory.close();
+            freeList.clear();
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val(name);
+            sink.val('(').val(arg).val(')');
+            sink.val(" over (");
+            sink.val("partition by ");
+            sink.val(partitionByRecord.getFunctions());
+            sink.val(' ');
+            frameToPlan(sink, rangeFrame, frameLoBounded, maxDiff, minDiff);
+            sink.val(')');
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            memory.truncate();
+            freeList.clear();
+        }
+
+        private void enterFrame(long key, double d) {
+            if (frameLoBounded) {
+                // drop values that can no longer be the frame's extremum because d outlives them
+                while (!deque.isEmpty() && (max ? deque.lastValue() <= d : deque.lastValue() >= d)) {
+                    deque.removeLast();
+                }
+                deque.add(key, d);
+            } else {
+                extremum = extremum(max, extremum, d);
+            }
+        }
+    }
+
+    // Handles max()/min() over (partition by x [order by o] rows between unbounded preceding and current row)
+    static class MinMaxOverUnboundedPartitionRowsFrameFunction extends BasePartitionedDoubleWindowFunction {
+        private final boolean max;
+        private final String name;
+        private double value;
+
+        MinMaxOverUnboundedPartitionRowsFrameFunction(Map map, VirtualRecord partitionByRecord, RecordSink partitionBySink, Function arg, String name, boolean max) {
+            super(map, partitionByRecord, partitionBySink, arg);
+            this.name = name;
+            this.max = max;
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue mapValue = key.createValue();
+
+            double d = arg.getDouble(record);
+            value = extremum(max, mapValue.isNew() ? Double.NaN : mapValue.getDouble(0), Numbers.isFinite(d) ? d : Double.NaN);
+            mapValue.putDouble(0, value);
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            return value;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ZERO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            computeNext(record);
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), value);
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val(name);
+            sink.val('(').val(arg).val(')');
+            sink.val(" over (");
+            sink.val("partition by ");
+            sink.val(partitionByRecord.getFunctions());
+            sink.val(" rows between unbounded preceding and current row)");
+        }
+    }
+
+    // Handles max()/min() over (rows between unbounded preceding and current row); there's no partition by.
+    static class MinMaxOverUnboundedRowsFrameFunction extends BaseDoubleWindowFunction {
+        private final boolean max;
+        private final String name;
+        private double value = Double.NaN;
+
+        MinMaxOverUnboundedRowsFrameFunction(Function arg, String name, boolean max) {
+            super(arg);
+            this.name = name;
+            this.max = max;
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            double d = arg.getDouble(record);
+            value = extremum(max, value, Numbers.isFinite(d) ? d : Double.NaN);
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            return value;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ZERO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            computeNext(record);
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), value);
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            value = Double.NaN;
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val(name);
+            sink.val('(').val(arg).val(')');
+            sink.val(" over (rows between unbounded preceding and current row)");
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            value = Double.NaN;
+        }
+    }
+
+    // max()/min() over () - empty clause, no partition by no order by, no frame == default frame
+    static class MinMaxOverWholeResultSetFunction extends BaseDoubleWindowFunction {
+        private final boolean max;
+        private final String name;
+        private double value = Double.NaN;
+
+        MinMaxOverWholeResultSetFunction(Function arg, String name, boolean max) {
+            super(arg);
+            this.name = name;
+            this.max = max;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.TWO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            double d = arg.getDouble(record);
+            if (Numbers.isFinite(d)) {
+                value = extremum(max, value, d);
+            }
+        }
+
+        @Override
+        public void pass2(Record record, long recordOffset, WindowSPI spi) {
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), value);
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            value = Double.NaN;
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            value = Double.NaN;
+        }
+    }
+
+    static {
+        MIN_MAX_COLUMN_TYPES = new ArrayColumnTypes();
+        MIN_MAX_COLUMN_TYPES.add(ColumnType.DOUBLE);
+
+        MIN_MAX_OVER_PARTITION_FRAME_COLUMN_TYPES = new ArrayColumnTypes();
+        MIN_MAX_OVER_PARTITION_FRAME_COLUMN_TYPES.add(ColumnType.LONG); // number of rows seen in the partition
+        MIN_MAX_OVER_PARTITION_FRAME_COLUMN_TYPES.add(ColumnType.DOUBLE); // extremum of unbounded frame
+        WindowRingBuffer.addStateColumnTypes(MIN_MAX_OVER_PARTITION_FRAME_COLUMN_TYPES); // values waiting to enter the frame
+        WindowRingBuffer.addStateColumnTypes(MIN_MAX_OVER_PARTITION_FRAME_COLUMN_TYPES); // monotonic deque of frame values
+    }
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.window;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.ScalarFunction;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.LongFunction;
+import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
+import io.questdb.griffin.engine.window.WindowFunction;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+
+// Base class for window functions returning long values, e.g. count(), arg is null for functions such as count(*).
+public abstract class BaseLongWindowFunction extends LongFunction implements WindowFunction, ScalarFunction {
+    protected final Function arg;
+    protected int columnIndex;
+
+    public BaseLongWindowFunction(Function arg) {
+        this.arg = arg;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(arg);
+    }
+
+    @Override
+    public long getLong(Record rec) {
+        //unused
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public abstract String getName();
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        super.init(symbolTableSource, executionContext);
+        if (arg != null) {
+            arg.init(symbolTableSource, executionContext);
+        }
+    }
+
+    @Override
+    public void initRecordComparator(RecordComparatorCompiler recordComparatorCompiler, ArrayColumnTypes chainTypes, IntList order) {
+    }
+
+    @Override
+    public void reset() {
+
+    }
+
+    @Override
+    public void setColumnIndex(int columnIndex) {
+        this.columnIndex = columnIndex;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        argToPlan(sink);
+        sink.val(" over ()");
+    }
+
+    @Override
+    public void toTop() {
+        if (arg != null) {
+            arg.toTop();
+        }
+    }
+
+    protected void argToPlan(PlanSink sink) {
+        sink.val(getName());
+        sink.val('(');
+        if (arg != null) {
+            sink.val(arg);
+        } else {
+            sink.val('*');
+        }
+        sink.val(')');
+    }
+}
@@ -0,0 +1,407 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.window;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.cairo.sql.WindowSPI;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.constants.DoubleConstant;
+import io.questdb.griffin.engine.window.WindowContext;
+import io.questdb.griffin.engine.window.WindowFunction;
+import io.questdb.std.*;
+
+// Returns value evaluated at the row that is offset rows before the current row within the partition,
+// or the default value if there's no such row. Window frame clause doesn't apply to lag().
+public class LagDoubleWindowFunctionFactory implements FunctionFactory {
+
+    static final ArrayColumnTypes LAG_LEAD_COLUMN_TYPES;
+    private static final String NAME = "lag";
+    private static final String SIGNATURE = NAME + "(DV)";
+
+    @Override
+    public String getSignature() {
+        return SIGNATURE;
+    }
+
+    @Override
+    public boolean isWindow() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final WindowContext windowContext = sqlExecutionContext.getWindowContext();
+        if (windowContext.isEmpty()) {
+            throw SqlException.emptyWindowContext(position);
+        }
+
+        final long offset = getOffset(args, argPositions);
+        final Function defaultValue = getDefaultValue(args, argPositions);
+
+        final VirtualRecord partitionByRecord = windowContext.getPartitionByRecord();
+        Map map = null;
+        MemoryARW mem = null;
+        try {
+            mem = Vm.getARWInstance(
+                    configuration.getSqlWindowStorePageSize(),
+                    configuration.getSqlWindowStoreMaxPages(),
+                    MemoryTag.NATIVE_CIRCULAR_BUFFER
+            );
+            if (partitionByRecord != null) {
+                map = MapFactory.createOrderedMap(configuration, windowContext.getPartitionByKeyTypes(), LAG_LEAD_COLUMN_TYPES);
+                return new LagOverPartitionFunction(
+                        map,
+                        partitionByRecord,
+                        windowContext.getPartitionBySink(),
+                        args.getQuick(0),
+                        offset,
+                        defaultValue,
+                        mem
+                );
+            }
+            return new LagFunction(args.getQuick(0), offset, defaultValue, mem);
+        } catch (Throwable th) {
+            Misc.free(map);
+            Misc.free(mem);
+            throw th;
+        }
+    }
+
+    private static boolean isIntegerType(int type) {
+        switch (ColumnType.tagOf(type)) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // default value is optional, it may be any numeric expression evaluated at the current row
+    static Function getDefaultValue(ObjList<Function> args, IntList argPositions) throws SqlException {
+        if (args.size() < 3) {
+            return DoubleConstant.NULL;
+        }
+        if (args.size() > 3) {
+            throw SqlException.$(argPositions.getQuick(3), "too many arguments");
+        }
+        final Function defaultValue = args.getQuick(2);
+        final int type = defaultValue.getType();
+        if (!ColumnType.isDouble(type) && !ColumnType.isBuiltInWideningCast(type, ColumnType.DOUBLE)) {
+            throw SqlException.$(argPositions.getQuick(2), "default value must be numeric");
+        }
+        return defaultValue;
+    }
+
+    // offset is optional and defaults to 1
+    static long getOffset(ObjList<Function> args, IntList argPositions) throws SqlException {
+        if (args.size() < 2) {
+            return 1;
+        }
+        final Function offsetFunc = args.getQuick(1);
+        if (!offsetFunc.isConstant() || !isIntegerType(offsetFunc.getType())) {
+            throw SqlException.$(argPositions.getQuick(1), "offset must be an integer constant");
+        }
+        final long offset = offsetFunc.getLong(null);
+        if (offset < 0 || offset > Integer.MAX_VALUE) {
+            throw SqlException.$(argPositions.getQuick(1), "offset must be a non-negative integer");
+        }
+        return offset;
+    }
+
+    static void lagLeadToPlan(PlanSink sink, String name, Function arg, long offset, Function defaultValue) {
+        sink.val(name);
+        sink.val('(').val(arg).val(", ").val(offset).val(", ").val(defaultValue).val(')');
+    }
+
+    // handles lag() over ([order by o]); there's no partition by
+    // previous values are kept in a fixed-size ring buffer
+    static class LagFunction extends BaseDoubleWindowFunction implements Reopenable {
+        protected final long offset;
+        private final Function defaultValue;
+        // holds fixed-size ring buffer of double values
+        private final MemoryARW memory;
+        private long count;
+        private long loIdx;
+        private long startOffset = -1;
+        private double value;
+
+        LagFunction(Function arg, long offset, Function defaultValue, MemoryARW memory) {
+            super(arg);
+            this.offset = offset;
+            this.defaultValue = defaultValue;
+            this.memory = memory;
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            defaultValue.close();
+            memory.close();
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            final double d = arg.getDouble(record);
+            if (offset == 0) {
+                value = d;
+                return;
+            }
+
+            if (startOffset == -1) {
+                startOffset = memory.appendAddressFor(offset * Double.BYTES) - memory.getPageAddress(0);
+            }
+
+            if (count < offset) {
+                value = defaultValue.getDouble(record);
+                count++;
+            } else {
+                // loIdx points at the value 'offset' rows back
+                value = memory.getDouble(startOffset + loIdx * Double.BYTES);
+            }
+            memory.putDouble(startOffset + loIdx * Double.BYTES, d);
+            loIdx = (loIdx + 1) % offset;
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            return value;
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ZERO_PASS;
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            super.init(symbolTableSource, executionContext);
+            defaultValue.init(symbolTableSource, executionContext);
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            computeNext(record);
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), value);
+        }
+
+        @Override
+        public void reopen() {
+            // memory will allocate on first use
+            clearState();
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            memory.close();
+            clearState();
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            lagLeadToPlan(sink, NAME, arg, offset, defaultValue);
+            sink.val(" over ()");
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            memory.truncate();
+            clearState();
+        }
+
+        private void clearState() {
+            count = 0;
+            loIdx = 0;
+            startOffset = -1;
+            value = Double.NaN;
+        }
+    }
+
+    // handles lag() over (partition by x [order by o])
+    // previous values are kept in fixed-size ring buffers, one per partition
+    static class LagOverPartitionFunction extends BasePartitionedDoubleWindowFunction {
+        protected final long offset;
+        private final Function defaultValue;
+        // holds fixed-size ring buffers of double values
+        private final MemoryARW memory;
+        private double value;
+
+        LagOverPartitionFunction(
+                Map map,
+                VirtualRecord partitionByRecord,
+                RecordSink partitionBySink,
+                Function arg,
+                long offset,
+                Function defaultValue,
+                MemoryARW memory
+        ) {
+            super(map, partitionByRecord, partitionBySink, arg);
+            this.offset = offset;
+            this.defaultValue = defaultValue;
+            this.memory = memory;
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            defaultValue.close();
+            memory.close();
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            // map stores:
+            // 0 - (0-based) index of oldest value [0, offset)
+            // 1 - native array start offset (relative to memory address)
+            // 2 - count of values in buffer
+
+            final double d = arg.getDouble(record);
+            if (offset == 0) {
+                value = d;
+                return;
+            }
+
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue mapValue = key.createValue();
+
+            long loIdx;
+            long startOffset;
+            long count;
+            if (mapValue.isNew()) {
+                loIdx = 0;
+                count = 0;
+                startOffset = memory.appendAddressFor(offset * Double.BYTES) - memory.getPageAddress(0);
+            } else {
+                loIdx = mapValue.getLong(0);
+                startOffset = mapValue.getLong(1);
+                count = mapValue.getLong(2);
+            }
+
+            if (count < offset) {
+                value = defaultValue.getDouble(record);
+                count++;
+            } else {
+                // loIdx points at the value 'offset' rows back
+                value = memory.getDouble(startOffset + loIdx * Double.BYTES);
+            }
+            memory.putDouble(startOffset + loIdx * Double.BYTES, d);
+
+            mapValue.putLong(0, (loIdx + 1) % offset);
+            mapValue.putLong(1, startOffset);
+            mapValue.putLong(2, count);
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            return value;
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ZERO_PASS;
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            super.init(symbolTableSource, executionContext);
+            defaultValue.init(symbolTableSource, executionContext);
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            computeNext(record);
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), value);
+        }
+
+        @Override
+        public void reopen() {
+            super.reopen();
+            // memory will allocate on first use
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            memory.close();
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            lagLeadToPlan(sink, NAME, arg, offset, defaultValue);
+            sink.val(" over (");
+            sink.val("partition by ");
+            sink.val(partitionByRecord.getFunctions());
+            sink.val(')');
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            memory.truncate();
+        }
+    }
+
+    static {
+        LAG_LEAD_COLUMN_TYPES = new ArrayColumnTypes();
+        LAG_LEAD_COLUMN_TYPES.add(ColumnType.LONG); // position of current oldest element
+        LAG_LEAD_COLUMN_TYPES.add(ColumnType.LONG); // start offset of native array
+        LAG_LEAD_COLUMN_TYPES.add(ColumnType.LONG); // count of values in buffer
+    }
+}
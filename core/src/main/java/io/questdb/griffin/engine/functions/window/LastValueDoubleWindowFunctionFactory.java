@@ -0,0 +1,669 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.window;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.cairo.sql.WindowSPI;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.constants.DoubleConstant;
+import io.questdb.griffin.engine.window.WindowContext;
+import io.questdb.griffin.engine.window.WindowFunction;
+import io.questdb.griffin.model.WindowColumn;
+import io.questdb.std.*;
+
+// Returns value evaluated at the row that is the last row of the window frame.
+public class LastValueDoubleWindowFunctionFactory implements FunctionFactory {
+
+    private static final ArrayColumnTypes LAST_VALUE_COLUMN_TYPES;
+    private static final ArrayColumnTypes LAST_VALUE_OVER_PARTITION_RANGE_COLUMN_TYPES;
+    private static final String NAME = "last_value";
+    private static final String SIGNATURE = NAME + "(D)";
+
+    @Override
+    public String getSignature() {
+        return SIGNATURE;
+    }
+
+    @Override
+    public boolean isWindow() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final WindowContext windowContext = sqlExecutionContext.getWindowContext();
+        if (windowContext.isEmpty()) {
+            throw SqlException.emptyWindowContext(position);
+        }
+
+        long rowsLo = windowContext.getRowsLo();
+        long rowsHi = windowContext.getRowsHi();
+
+        if (!windowContext.isDefaultFrame()) {
+            if (rowsLo > 0) {
+                throw SqlException.$(windowContext.getRowsLoKindPos(), "frame start supports UNBOUNDED PRECEDING, _number_ PRECEDING and CURRENT ROW only");
+            }
+            if (rowsHi > 0) {
+                if (rowsHi != Long.MAX_VALUE) {
+                    throw SqlException.$(windowContext.getRowsHiKindPos(), "frame end supports _number_ PRECEDING and CURRENT ROW only");
+                } else if (rowsLo != Long.MIN_VALUE) {
+                    throw SqlException.$(windowContext.getRowsHiKindPos(), "frame end supports UNBOUNDED FOLLOWING only when frame start is UNBOUNDED PRECEDING");
+                }
+            }
+        }
+
+        int exclusionKind = windowContext.getExclusionKind();
+        int exclusionKindPos = windowContext.getExclusionKindPos();
+        if (exclusionKind != WindowColumn.EXCLUDE_NO_OTHERS
+                && exclusionKind != WindowColumn.EXCLUDE_CURRENT_ROW) {
+            throw SqlException.$(exclusionKindPos, "only EXCLUDE NO OTHERS and EXCLUDE CURRENT ROW exclusion modes are supported");
+        }
+
+        if (exclusionKind == WindowColumn.EXCLUDE_CURRENT_ROW) {
+            // assumes frame doesn't use 'following'
+            if (rowsHi == Long.MAX_VALUE) {
+                throw SqlException.$(exclusionKindPos, "EXCLUDE CURRENT ROW not supported with UNBOUNDED FOLLOWING frame boundary");
+            }
+
+            if (rowsHi == 0) {
+                rowsHi = -1;
+            }
+            if (rowsHi < rowsLo) {
+                throw SqlException.$(exclusionKindPos, "end of window is higher than start of window due to exclusion mode");
+            }
+        }
+
+        int framingMode = windowContext.getFramingMode();
+        if (framingMode == WindowColumn.FRAMING_GROUPS) {
+            throw SqlException.$(position, "function not implemented for given window parameters");
+        }
+
+        final VirtualRecord partitionByRecord = windowContext.getPartitionByRecord();
+        final RecordSink partitionBySink = windowContext.getPartitionBySink();
+        final ColumnTypes partitionByKeyTypes = windowContext.getPartitionByKeyTypes();
+
+        // whole partition or result set: last row of the partition is needed, so it takes two passes
+        if ((rowsLo == Long.MIN_VALUE && rowsHi == Long.MAX_VALUE)
+                || (framingMode == WindowColumn.FRAMING_RANGE && windowContext.isDefaultFrame() && !windowContext.isOrdered())) {
+            if (partitionByRecord != null) {
+                Map map = MapFactory.createOrderedMap(configuration, partitionByKeyTypes, LAST_VALUE_COLUMN_TYPES);
+                return new LastValueOverPartitionFunction(map, partitionByRecord, partitionBySink, args.get(0));
+            }
+            return new LastValueOverWholeResultSetFunction(args.get(0));
+        }
+
+        // between [unbounded | x] preceding and current row, for range frames calculation stops at current row
+        // even if there are 'equal' following rows
+        if (rowsHi == 0) {
+            return new LastValueOverCurrentRowFunction(args.get(0));
+        }
+
+        if (framingMode == WindowColumn.FRAMING_ROWS) {
+            // rows between [unbounded | x] preceding and y preceding: frame is never empty once the partition
+            // has more than y rows, so the last value is the one y rows back, i.e. lag(y)
+            MemoryARW mem = null;
+            Map map = null;
+            try {
+                mem = Vm.getARWInstance(
+                        configuration.getSqlWindowStorePageSize(),
+                        configuration.getSqlWindowStoreMaxPages(),
+                        MemoryTag.NATIVE_CIRCULAR_BUFFER
+                );
+                if (partitionByRecord != null) {
+                    map = MapFactory.createOrderedMap(configuration, partitionByKeyTypes, LagDoubleWindowFunctionFactory.LAG_LEAD_COLUMN_TYPES);
+                    return new LastValueOverPartitionRowsFrameFunction(map, partitionByRecord, partitionBySink, rowsLo, rowsHi, args.get(0), mem);
+                }
+                return new LastValueOverRowsFrameFunction(rowsLo, rowsHi, args.get(0), mem);
+            } catch (Throwable th) {
+                Misc.free(map);
+                Misc.free(mem);
+                throw th;
+            }
+        }
+
+        // range between [unbounded | x] preceding and y preceding
+        if (windowContext.isOrdered() && !windowContext.isOrderedByDesignatedTimestamp()) {
+            throw SqlException.$(windowContext.getOrderByPos(), "RANGE is supported only for queries ordered by designated timestamp");
+        }
+
+        Map map = null;
+        MemoryARW mem = null;
+        try {
+            mem = Vm.getARWInstance(
+                    configuration.getSqlWindowStorePageSize(),
+                    configuration.getSqlWindowStoreMaxPages(),
+                    MemoryTag.NATIVE_CIRCULAR_BUFFER
+            );
+            if (partitionByRecord != null) {
+                map = MapFactory.createOrderedMap(configuration, partitionByKeyTypes, LAST_VALUE_OVER_PARTITION_RANGE_COLUMN_TYPES);
+                return new LastValueOverPartitionRangeFrameFunction(
+                        map,
+                        partitionByRecord,
+                        partitionBySink,
+                        rowsLo,
+                        rowsHi,
+                        args.get(0),
+                        mem,
+                        configuration.getSqlWindowInitialRangeBufferSize(),
+                        windowContext.getTimestampIndex()
+                );
+            }
+            return new LastValueOverRangeFrameFunction(
+                    rowsLo,
+                    rowsHi,
+                    args.get(0),
+                    mem,
+                    configuration.getSqlWindowInitialRangeBufferSize(),
+                    windowContext.getTimestampIndex()
+            );
+        } catch (Throwable th) {
+            Misc.free(map);
+            Misc.free(mem);
+            throw th;
+        }
+    }
+
+    private static void rangeToPlan(PlanSink sink, boolean frameLoBounded, long maxDiff, long minDiff) {
+        sink.val("range between ");
+        if (frameLoBounded) {
+            sink.val(maxDiff);
+        } else {
+            sink.val("unbounded");
+        }
+        sink.val(" preceding and ");
+        sink.val(minDiff).val(" preceding");
+    }
+
+    private static void rowsToPlan(PlanSink sink, long rowsLo, long rowsHi) {
+        sink.val("rows between ");
+        if (rowsLo != Long.MIN_VALUE) {
+            sink.val(Math.abs(rowsLo));
+        } else {
+            sink.val("unbounded");
+        }
+        sink.val(" preceding and ");
+        sink.val(Math.abs(rowsHi)).val(" preceding");
+    }
+
+    // frame ends at current row, so simply it returns expression value
+    static class LastValueOverCurrentRowFunction extends BaseDoubleWindowFunction {
+        private double value;
+
+        LastValueOverCurrentRowFunction(Function arg) {
+            super(arg);
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            value = arg.getDouble(record);
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            return value;
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public int getPassCount() {
+            return ZERO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            computeNext(record);
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), value);
+        }
+    }
+
+    // handles last_value() over (partition by x)
+    // order by is absent so default frame mode includes all rows in the partition
+    static class LastValueOverPartitionFunction extends BasePartitionedDoubleWindowFunction {
+
+        LastValueOverPartitionFunction(Map map, VirtualRecord partitionByRecord, RecordSink partitionBySink, Function arg) {
+            super(map, partitionByRecord, partitionBySink, arg);
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.TWO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue value = key.createValue();
+            value.putDouble(0, arg.getDouble(record));
+        }
+
+        @Override
+        public void pass2(Record record, long recordOffset, WindowSPI spi) {
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue value = key.findValue();
+
+            double val = value != null ? value.getDouble(0) : Double.NaN;
+
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), val);
+        }
+    }
+
+    // Handles last_value() over (partition by x order by ts range between [unbounded | y] preceding and z preceding)
+    // Rows that haven't reached the upper bound of the frame wait in a FIFO buffer, the last row that left it is the frame's last row
+    // unless it went past the lower bound too.
+    static class LastValueOverPartitionRangeFrameFunction extends BasePartitionedDoubleWindowFunction {
+        private static final int PENDING_STATE_INDEX = 2;
+        private final boolean frameLoBounded;
+        // list of [capacity, startOffset] pairs marking free space within mem
+        private final LongList freeList = new LongList();
+        private final long maxDiff;
+        // holds resizable ring buffers
+        private final MemoryARW memory;
+        private final long minDiff;
+        private final WindowRingBuffer pending;
+        private final int timestampIndex;
+        private double lastValue;
+
+        LastValueOverPartitionRangeFrameFunction(
+                Map map,
+                VirtualRecord partitionByRecord,
+                RecordSink partitionBySink,
+                long rangeLo,
+                long rangeHi,
+                Function arg,
+                MemoryARW memory,
+                int initialBufferSize,
+                int timestampIndex
+        ) {
+            super(map, partitionByRecord, partitionBySink, arg);
+            this.frameLoBounded = rangeLo != Long.MIN_VALUE;
+            this.maxDiff = frameLoBounded ? Math.abs(rangeLo) : Long.MAX_VALUE; // maxDiff must be used only if frameLoBounded
+            this.minDiff = Math.abs(rangeHi);
+            this.memory = memory;
+            this.timestampIndex = timestampIndex;
+            this.pending = new WindowRingBuffer(memory, freeList, initialBufferSize);
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            memory.close();
+            freeList.clear();
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            // map stores:
+            // 0 - timestamp of the last row that reached upper bound of the frame, Long.MIN_VALUE if there's none
+            // 1 - value of that row
+            // 2-5 - state of buffer of [timestamp, value] pairs waiting to enter the frame
+
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue mapValue = key.createValue();
+
+            long lastTimestamp;
+            double last;
+            if (mapValue.isNew()) {
+                lastTimestamp = Long.MIN_VALUE;
+                last = Double.NaN;
+                pending.clear();
+            } else {
+                lastTimestamp = mapValue.getLong(0);
+                last = mapValue.getDouble(1);
+                pending.of(mapValue, PENDING_STATE_INDEX);
+            }
+
+            final long timestamp = record.getTimestamp(timestampIndex);
+            pending.add(timestamp, arg.getDouble(record));
+            while (!pending.isEmpty() && pending.firstKey() <= timestamp - minDiff) {
+                lastTimestamp = pending.firstKey();
+                last = pending.firstValue();
+                pending.removeFirst();
+            }
+
+            if (lastTimestamp == Long.MIN_VALUE || (frameLoBounded && lastTimestamp < timestamp - maxDiff)) {
+                lastValue = Double.NaN;
+            } else {
+                lastValue = last;
+            }
+
+            mapValue.putLong(0, lastTimestamp);
+            mapValue.putDouble(1, last);
+            pending.save(mapValue, PENDING_STATE_INDEX);
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            return lastValue;
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ZERO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void reopen() {
+            super.reopen();
+            // memory will allocate on first use
+            lastValue = Double.NaN;
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            memory.close();
+            freeList.clear();
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val(NAME);
+            sink.val('(').val(arg).val(')');
+            sink.val(" over (");
+            sink.val("partition by ");
+            sink.val(partitionByRecord.getFunctions());
+            sink.val(' ');
+            rangeToPlan(sink, frameLoBounded, maxDiff, minDiff);
+            sink.val(')');
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            memory.truncate();
+            freeList.clear();
+        }
+    }
+
+    // handles last_value() over (partition by x [order by o] rows between [unbounded | y] preceding and z preceding)
+    // the last row of the frame is always z rows back, so it's calculated the same way as lag(x, z)
+    static class LastValueOverPartitionRowsFrameFunction extends LagDoubleWindowFunctionFactory.LagOverPartitionFunction {
+        private final long rowsLo;
+
+        LastValueOverPartitionRowsFrameFunction(
+                Map map,
+                VirtualRecord partitionByRecord,
+                RecordSink partitionBySink,
+                long rowsLo,
+                long rowsHi,
+                Function arg,
+                MemoryARW memory
+        ) {
+            super(map, partitionByRecord, partitionBySink, arg, Math.abs(rowsHi), DoubleConstant.NULL, memory);
+            this.rowsLo = rowsLo;
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val(NAME);
+            sink.val('(').val(arg).val(')');
+            sink.val(" over (");
+            sink.val("partition by ");
+            sink.val(partitionByRecord.getFunctions());
+            sink.val(' ');
+            rowsToPlan(sink, rowsLo, -offset);
+            sink.val(')');
+        }
+    }
+
+    // Handles last_value() over ([order by ts] range between [unbounded | y] preceding and z preceding); no partition by key
+    static class LastValueOverRangeFrameFunction extends BaseDoubleWindowFunction implements Reopenable {
+        private final boolean frameLoBounded;
+        // list of [capacity, startOffset] pairs marking free space within mem
+        private final LongList freeList = new LongList();
+        private final long maxDiff;
+        // holds resizable ring buffer
+        private final MemoryARW memory;
+        private final long minDiff;
+        private final WindowRingBuffer pending;
+        private final int timestampIndex;
+        private double last = Double.NaN;
+        private long lastTimestamp = Long.MIN_VALUE;
+        private double lastValue = Double.NaN;
+
+        LastValueOverRangeFrameFunction(
+                long rangeLo,
+                long rangeHi,
+                Function arg,
+                MemoryARW memory,
+                int initialBufferSize,
+                int timestampIndex
+        ) {
+            super(arg);
+            this.frameLoBounded = rangeLo != Long.MIN_VALUE;
+            this.maxDiff = frameLoBounded ? Math.abs(rangeLo) : Long.MAX_VALUE; // maxDiff must be used only if frameLoBounded
+            this.minDiff = Math.abs(rangeHi);
+            this.memory = memory;
+            this.timestampIndex = timestampIndex;
+            this.pending = new WindowRingBuffer(memory, freeList, initialBufferSize);
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            memory.close();
+            freeList.clear();
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            final long timestamp = record.getTimestamp(timestampIndex);
+            pending.add(timestamp, arg.getDouble(record));
+            while (!pending.isEmpty() && pending.firstKey() <= timestamp - minDiff) {
+                lastTimestamp = pending.firstKey();
+                last = pending.firstValue();
+                pending.removeFirst();
+            }
+
+            if (lastTimestamp == Long.MIN_VALUE || (frameLoBounded && lastTimestamp < timestamp - maxDiff)) {
+                lastValue = Double.NaN;
+            } else {
+                lastValue = last;
+            }
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            return lastValue;
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ZERO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void reopen() {
+            // memory will allocate on first use
+            clearState();
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            memory.close();
+            freeList.clear();
+            clearState();
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val(NAME);
+            sink.val('(').val(arg).val(')');
+            sink.val(" over (");
+            rangeToPlan(sink, frameLoBounded, maxDiff, minDiff);
+            sink.val(')');
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            memory.truncate();
+            freeList.clear();
+            clearState();
+        }
+
+        private void clearState() {
+            pending.clear();
+            last = Double.NaN;
+            lastTimestamp = Long.MIN_VALUE;
+            lastValue = Double.NaN;
+        }
+    }
+
+    // handles last_value() over ([order by o] rows between [unbounded | y] preceding and z preceding); no partition by key
+    // the last row of the frame is always z rows back, so it's calculated the same way as lag(x, z)
+    static class LastValueOverRowsFrameFunction extends LagDoubleWindowFunctionFactory.LagFunction {
+        private final long rowsLo;
+
+        LastValueOverRowsFrameFunction(long rowsLo, long rowsHi, Function arg, MemoryARW memory) {
+            super(arg, Math.abs(rowsHi), DoubleConstant.NULL, memory);
+            this.rowsLo = rowsLo;
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val(NAME);
+            sink.val('(').val(arg).val(')');
+            sink.val(" over (");
+            rowsToPlan(sink, rowsLo, -offset);
+            sink.val(')');
+        }
+    }
+
+    // last_value() over () - empty clause, no partition by no order by, no frame == default frame
+    static class LastValueOverWholeResultSetFunction extends BaseDoubleWindowFunction {
+        private double lastValue = Double.NaN;
+
+        LastValueOverWholeResultSetFunction(Function arg) {
+            super(arg);
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.TWO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            lastValue = arg.getDouble(record);
+        }
+
+        @Override
+        public void pass2(Record record, long recordOffset, WindowSPI spi) {
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), lastValue);
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            lastValue = Double.NaN;
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            lastValue = Double.NaN;
+        }
+    }
+
+    static {
+        LAST_VALUE_COLUMN_TYPES = new ArrayColumnTypes();
+        LAST_VALUE_COLUMN_TYPES.add(ColumnType.DOUBLE);
+
+        LAST_VALUE_OVER_PARTITION_RANGE_COLUMN_TYPES = new ArrayColumnTypes();
+        LAST_VALUE_OVER_PARTITION_RANGE_COLUMN_TYPES.add(ColumnType.LONG); // timestamp of the last row that entered the frame
+        LAST_VALUE_OVER_PARTITION_RANGE_COLUMN_TYPES.add(ColumnType.DOUBLE); // value of the last row that entered the frame
+        WindowRingBuffer.addStateColumnTypes(LAST_VALUE_OVER_PARTITION_RANGE_COLUMN_TYPES); // rows waiting to enter the frame
+    }
+}
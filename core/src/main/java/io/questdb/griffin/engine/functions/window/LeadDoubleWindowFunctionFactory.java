@@ -0,0 +1,336 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.window;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.cairo.sql.WindowSPI;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.window.WindowContext;
+import io.questdb.griffin.engine.window.WindowFunction;
+import io.questdb.std.*;
+
+// Returns value evaluated at the row that is offset rows after the current row within the partition,
+// or the default value if there's no such row. Window frame clause doesn't apply to lead().
+// Since the value comes from a following row, lead() can only be calculated over cached records:
+// each row gets the default value first and is then overwritten once the row offset rows ahead arrives.
+public class LeadDoubleWindowFunctionFactory implements FunctionFactory {
+
+    private static final String NAME = "lead";
+    private static final String SIGNATURE = NAME + "(DV)";
+
+    @Override
+    public String getSignature() {
+        return SIGNATURE;
+    }
+
+    @Override
+    public boolean isWindow() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final WindowContext windowContext = sqlExecutionContext.getWindowContext();
+        if (windowContext.isEmpty()) {
+            throw SqlException.emptyWindowContext(position);
+        }
+
+        final long offset = LagDoubleWindowFunctionFactory.getOffset(args, argPositions);
+        final Function defaultValue = LagDoubleWindowFunctionFactory.getDefaultValue(args, argPositions);
+
+        final VirtualRecord partitionByRecord = windowContext.getPartitionByRecord();
+        Map map = null;
+        MemoryARW mem = null;
+        try {
+            mem = Vm.getARWInstance(
+                    configuration.getSqlWindowStorePageSize(),
+                    configuration.getSqlWindowStoreMaxPages(),
+                    MemoryTag.NATIVE_CIRCULAR_BUFFER
+            );
+            if (partitionByRecord != null) {
+                map = MapFactory.createOrderedMap(
+                        configuration,
+                        windowContext.getPartitionByKeyTypes(),
+                        LagDoubleWindowFunctionFactory.LAG_LEAD_COLUMN_TYPES
+                );
+                return new LeadOverPartitionFunction(
+                        map,
+                        partitionByRecord,
+                        windowContext.getPartitionBySink(),
+                        args.getQuick(0),
+                        offset,
+                        defaultValue,
+                        mem
+                );
+            }
+            return new LeadFunction(args.getQuick(0), offset, defaultValue, mem);
+        } catch (Throwable th) {
+            Misc.free(map);
+            Misc.free(mem);
+            throw th;
+        }
+    }
+
+    // handles lead() over ([order by o]); there's no partition by
+    // offsets of the last 'offset' records, that still wait for their value, are kept in a fixed-size ring buffer
+    static class LeadFunction extends BaseDoubleWindowFunction implements Reopenable {
+        private final Function defaultValue;
+        // holds fixed-size ring buffer of record offsets
+        private final MemoryARW memory;
+        private final long offset;
+        private long count;
+        private long loIdx;
+        private long startOffset = -1;
+
+        LeadFunction(Function arg, long offset, Function defaultValue, MemoryARW memory) {
+            super(arg);
+            this.offset = offset;
+            this.defaultValue = defaultValue;
+            this.memory = memory;
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            defaultValue.close();
+            memory.close();
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ONE_PASS;
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            super.init(symbolTableSource, executionContext);
+            defaultValue.init(symbolTableSource, executionContext);
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            final double d = arg.getDouble(record);
+            if (offset == 0) {
+                Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), d);
+                return;
+            }
+
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), defaultValue.getDouble(record));
+
+            if (startOffset == -1) {
+                startOffset = memory.appendAddressFor(offset * Long.BYTES) - memory.getPageAddress(0);
+            }
+
+            if (count < offset) {
+                count++;
+            } else {
+                // loIdx points at the record 'offset' rows back
+                long prevRecordOffset = memory.getLong(startOffset + loIdx * Long.BYTES);
+                Unsafe.getUnsafe().putDouble(spi.getAddress(prevRecordOffset, columnIndex), d);
+            }
+            memory.putLong(startOffset + loIdx * Long.BYTES, recordOffset);
+            loIdx = (loIdx + 1) % offset;
+        }
+
+        @Override
+        public void reopen() {
+            // memory will allocate on first use
+            clearState();
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            memory.close();
+            clearState();
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            LagDoubleWindowFunctionFactory.lagLeadToPlan(sink, NAME, arg, offset, defaultValue);
+            sink.val(" over ()");
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            memory.truncate();
+            clearState();
+        }
+
+        private void clearState() {
+            count = 0;
+            loIdx = 0;
+            startOffset = -1;
+        }
+    }
+
+    // handles lead() over (partition by x [order by o])
+    // offsets of the records that still wait for their value are kept in fixed-size ring buffers, one per partition
+    static class LeadOverPartitionFunction extends BasePartitionedDoubleWindowFunction {
+        private final Function defaultValue;
+        // holds fixed-size ring buffers of record offsets
+        private final MemoryARW memory;
+        private final long offset;
+
+        LeadOverPartitionFunction(
+                Map map,
+                VirtualRecord partitionByRecord,
+                RecordSink partitionBySink,
+                Function arg,
+                long offset,
+                Function defaultValue,
+                MemoryARW memory
+        ) {
+            super(map, partitionByRecord, partitionBySink, arg);
+            this.offset = offset;
+            this.defaultValue = defaultValue;
+            this.memory = memory;
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            defaultValue.close();
+            memory.close();
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ONE_PASS;
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            super.init(symbolTableSource, executionContext);
+            defaultValue.init(symbolTableSource, executionContext);
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            // map stores:
+            // 0 - (0-based) index of oldest record offset [0, offset)
+            // 1 - native array start offset (relative to memory address)
+            // 2 - count of record offsets in buffer
+
+            final double d = arg.getDouble(record);
+            if (offset == 0) {
+                Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), d);
+                return;
+            }
+
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), defaultValue.getDouble(record));
+
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue mapValue = key.createValue();
+
+            long loIdx;
+            long startOffset;
+            long count;
+            if (mapValue.isNew()) {
+                loIdx = 0;
+                count = 0;
+                startOffset = memory.appendAddressFor(offset * Long.BYTES) - memory.getPageAddress(0);
+            } else {
+                loIdx = mapValue.getLong(0);
+                startOffset = mapValue.getLong(1);
+                count = mapValue.getLong(2);
+            }
+
+            if (count < offset) {
+                count++;
+            } else {
+                // loIdx points at the record 'offset' rows back
+                long prevRecordOffset = memory.getLong(startOffset + loIdx * Long.BYTES);
+                Unsafe.getUnsafe().putDouble(spi.getAddress(prevRecordOffset, columnIndex), d);
+            }
+            memory.putLong(startOffset + loIdx * Long.BYTES, recordOffset);
+
+            mapValue.putLong(0, (loIdx + 1) % offset);
+            mapValue.putLong(1, startOffset);
+            mapValue.putLong(2, count);
+        }
+
+        @Override
+        public void reopen() {
+            super.reopen();
+            // memory will allocate on first use
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            memory.close();
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            LagDoubleWindowFunctionFactory.lagLeadToPlan(sink, NAME, arg, offset, defaultValue);
+            sink.val(" over (");
+            sink.val("partition by ");
+            sink.val(partitionByRecord.getFunctions());
+            sink.val(')');
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            memory.truncate();
+        }
+    }
+}
@@ -0,0 +1,265 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.window;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.LongFunction;
+import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
+import io.questdb.griffin.engine.window.WindowContext;
+import io.questdb.griffin.engine.window.WindowFunction;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+
+// Divides rows of the partition into given number of buckets, as equal in size as possible, and returns bucket number of the current row.
+// Bucket size depends on partition size, so the first pass stores row number in the result column and the second pass turns it into bucket number.
+public class NtileFunctionFactory implements FunctionFactory {
+
+    private static final ArrayColumnTypes NTILE_COLUMN_TYPES;
+    private static final String NAME = "ntile";
+    private static final String SIGNATURE = NAME + "(l)";
+
+    @Override
+    public String getSignature() {
+        return SIGNATURE;
+    }
+
+    @Override
+    public boolean isWindow() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final WindowContext windowContext = sqlExecutionContext.getWindowContext();
+        if (windowContext.isEmpty()) {
+            throw SqlException.emptyWindowContext(position);
+        }
+
+        final long buckets = args.getQuick(0).getLong(null);
+        if (buckets <= 0) {
+            throw SqlException.$(argPositions.getQuick(0), "number of buckets must be a positive integer");
+        }
+
+        if (windowContext.getPartitionByRecord() != null) {
+            Map map = MapFactory.createOrderedMap(configuration, windowContext.getPartitionByKeyTypes(), NTILE_COLUMN_TYPES);
+            return new NtileOverPartitionFunction(map, windowContext.getPartitionByRecord(), windowContext.getPartitionBySink(), buckets);
+        }
+        return new NtileFunction(buckets);
+    }
+
+    // returns 1-based bucket of 1-based row number, first (rowCount % buckets) buckets get one extra row
+    private static long bucketOf(long rowNumber, long rowCount, long buckets) {
+        final long size = rowCount / buckets;
+        final long largeBuckets = rowCount % buckets;
+        final long largeBucketRows = largeBuckets * (size + 1);
+        if (rowNumber <= largeBucketRows) {
+            return (rowNumber - 1) / (size + 1) + 1;
+        }
+        return largeBuckets + (rowNumber - 1 - largeBucketRows) / size + 1;
+    }
+
+    // handles ntile() over ([order by o]); there's no partition by
+    private static class NtileFunction extends LongFunction implements ScalarFunction, WindowFunction, Reopenable {
+        private final long buckets;
+        private int columnIndex;
+        private long rowCount;
+
+        public NtileFunction(long buckets) {
+            this.buckets = buckets;
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            // unused
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.TWO_PASS;
+        }
+
+        @Override
+        public void initRecordComparator(RecordComparatorCompiler recordComparatorCompiler, ArrayColumnTypes chainTypes, IntList order) {
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            // store row number until row count is known
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), ++rowCount);
+        }
+
+        @Override
+        public void pass2(Record record, long recordOffset, WindowSPI spi) {
+            final long address = spi.getAddress(recordOffset, columnIndex);
+            Unsafe.getUnsafe().putLong(address, bucketOf(Unsafe.getUnsafe().getLong(address), rowCount, buckets));
+        }
+
+        @Override
+        public void reopen() {
+            reset();
+        }
+
+        @Override
+        public void reset() {
+            rowCount = 0;
+        }
+
+        @Override
+        public void setColumnIndex(int columnIndex) {
+            this.columnIndex = columnIndex;
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val(NAME).val('(').val(buckets).val(')');
+        }
+
+        @Override
+        public void toTop() {
+            reset();
+        }
+    }
+
+    // handles ntile() over (partition by x [order by o])
+    private static class NtileOverPartitionFunction extends LongFunction implements ScalarFunction, WindowFunction, Reopenable {
+        private final long buckets;
+        private final Map map;
+        private final VirtualRecord partitionByRecord;
+        private final RecordSink partitionBySink;
+        private int columnIndex;
+
+        public NtileOverPartitionFunction(Map map, VirtualRecord partitionByRecord, RecordSink partitionBySink, long buckets) {
+            this.map = map;
+            this.partitionByRecord = partitionByRecord;
+            this.partitionBySink = partitionBySink;
+            this.buckets = buckets;
+        }
+
+        @Override
+        public void close() {
+            Misc.free(map);
+            Misc.freeObjList(partitionByRecord.getFunctions());
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            // unused
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.TWO_PASS;
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            super.init(symbolTableSource, executionContext);
+            Function.init(partitionByRecord.getFunctions(), symbolTableSource, executionContext);
+        }
+
+        @Override
+        public void initRecordComparator(RecordComparatorCompiler recordComparatorCompiler, ArrayColumnTypes chainTypes, IntList order) {
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue value = key.createValue();
+
+            final long rowNumber = value.isNew() ? 1 : value.getLong(0) + 1;
+            value.putLong(0, rowNumber);
+            // store row number until row count is known
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), rowNumber);
+        }
+
+        @Override
+        public void pass2(Record record, long recordOffset, WindowSPI spi) {
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue value = key.findValue();
+
+            final long address = spi.getAddress(recordOffset, columnIndex);
+            final long rowNumber = Unsafe.getUnsafe().getLong(address);
+            Unsafe.getUnsafe().putLong(address, bucketOf(rowNumber, value != null ? value.getLong(0) : rowNumber, buckets));
+        }
+
+        @Override
+        public void reopen() {
+            map.reopen();
+        }
+
+        @Override
+        public void reset() {
+            map.close();
+        }
+
+        @Override
+        public void setColumnIndex(int columnIndex) {
+            this.columnIndex = columnIndex;
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val(NAME).val('(').val(buckets).val(')');
+            sink.val(" over (");
+            sink.val("partition by ");
+            sink.val(partitionByRecord.getFunctions());
+            sink.val(')');
+        }
+
+        @Override
+        public void toTop() {
+            map.clear();
+        }
+    }
+
+    static {
+        NTILE_COLUMN_TYPES = new ArrayColumnTypes();
+        NTILE_COLUMN_TYPES.add(ColumnType.LONG); // number of rows in the partition
+    }
+}
@@ -0,0 +1,361 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.window;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
+import io.questdb.griffin.engine.window.WindowContext;
+import io.questdb.griffin.engine.window.WindowFunction;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+
+// Returns relative rank of the current row, i.e. (rank - 1) / (partition rows - 1).
+// Partition size is known only once all rows are seen, so the first pass stores rank in the result column
+// and the second pass turns it into the relative rank.
+public class PercentRankFunctionFactory implements FunctionFactory {
+
+    private static final String SIGNATURE = "percent_rank()";
+
+    @Override
+    public String getSignature() {
+        return SIGNATURE;
+    }
+
+    @Override
+    public boolean isWindow() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final WindowContext windowContext = sqlExecutionContext.getWindowContext();
+        if (windowContext.isEmpty()) {
+            throw SqlException.emptyWindowContext(position);
+        }
+
+        if (!windowContext.isOrdered()) {
+            // all rows are peers
+            return new SequencePercentRankFunction(windowContext.getPartitionByRecord());
+        }
+        if (windowContext.getPartitionByRecord() != null) {
+            ArrayColumnTypes arrayColumnTypes = new ArrayColumnTypes();
+            arrayColumnTypes.add(ColumnType.LONG); // max index
+            arrayColumnTypes.add(ColumnType.LONG); // current rank
+            arrayColumnTypes.add(ColumnType.LONG); // offset
+            Map map = MapFactory.createOrderedMap(configuration, windowContext.getPartitionByKeyTypes(), arrayColumnTypes);
+            return new PercentRankFunction(map, windowContext.getPartitionByRecord(), windowContext.getPartitionBySink());
+        }
+        return new OrderPercentRankFunction();
+    }
+
+    private static double percentRank(long rank, long rowCount) {
+        return rowCount > 1 ? (double) (rank - 1) / (rowCount - 1) : 0.0;
+    }
+
+    private static class OrderPercentRankFunction extends DoubleFunction implements ScalarFunction, WindowFunction, Reopenable {
+
+        private int columnIndex;
+        private long currentIndex = 0;
+        private long maxIndex = 0;
+        private long offset = 0;
+        private RecordComparator recordComparator;
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            // unused
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.TWO_PASS;
+        }
+
+        @Override
+        public void initRecordComparator(RecordComparatorCompiler recordComparatorCompiler, ArrayColumnTypes chainTypes, IntList order) {
+            this.recordComparator = recordComparatorCompiler.compile(chainTypes, order);
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            if (recordComparator == null) {
+                // order dismiss
+                currentIndex = maxIndex + 1;
+            } else if (currentIndex == 0) {
+                currentIndex = 1;
+                offset = recordOffset;
+            } else {
+                // compare with prev record
+                recordComparator.setLeft(record);
+                if (recordComparator.compare(spi.getRecordAt(offset)) != 0) {
+                    currentIndex = maxIndex + 1;
+                    offset = recordOffset;
+                }
+            }
+            // store rank until partition size is known
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), currentIndex);
+            maxIndex++;
+        }
+
+        @Override
+        public void pass2(Record record, long recordOffset, WindowSPI spi) {
+            final long address = spi.getAddress(recordOffset, columnIndex);
+            final long rank = (long) Unsafe.getUnsafe().getDouble(address);
+            Unsafe.getUnsafe().putDouble(address, percentRank(rank, maxIndex));
+        }
+
+        @Override
+        public void reopen() {
+            reset();
+        }
+
+        @Override
+        public void reset() {
+            maxIndex = 0;
+            currentIndex = 0;
+            offset = 0;
+        }
+
+        @Override
+        public void setColumnIndex(int columnIndex) {
+            this.columnIndex = columnIndex;
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val(SIGNATURE);
+        }
+
+        @Override
+        public void toTop() {
+            reset();
+        }
+    }
+
+    private static class PercentRankFunction extends DoubleFunction implements ScalarFunction, WindowFunction, Reopenable {
+
+        private final static int VAL_CURRENT_INDEX = 1;
+        private final static int VAL_MAX_INDEX = 0;
+        private final static int VAL_OFFSET = 2;
+        private final Map map;
+        private final VirtualRecord partitionByRecord;
+        private final RecordSink partitionBySink;
+        private int columnIndex;
+        private RecordComparator recordComparator;
+
+        public PercentRankFunction(Map map, VirtualRecord partitionByRecord, RecordSink partitionBySink) {
+            this.partitionByRecord = partitionByRecord;
+            this.partitionBySink = partitionBySink;
+            this.map = map;
+        }
+
+        @Override
+        public void close() {
+            Misc.free(map);
+            Misc.freeObjList(partitionByRecord.getFunctions());
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            // unused
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.TWO_PASS;
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            super.init(symbolTableSource, executionContext);
+            Function.init(partitionByRecord.getFunctions(), symbolTableSource, executionContext);
+        }
+
+        @Override
+        public void initRecordComparator(RecordComparatorCompiler recordComparatorCompiler, ArrayColumnTypes chainTypes, IntList order) {
+            this.recordComparator = recordComparatorCompiler.compile(chainTypes, order);
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            partitionByRecord.of(record);
+
+            MapKey mapKey = map.withKey();
+            mapKey.put(partitionByRecord, partitionBySink);
+            MapValue mapValue = mapKey.createValue();
+            long maxIndex = 0;
+            if (mapValue.isNew()) {
+                mapValue.putLong(VAL_MAX_INDEX, 0);
+                mapValue.putLong(VAL_CURRENT_INDEX, 0);
+                mapValue.putLong(VAL_OFFSET, 0);
+            } else {
+                maxIndex = mapValue.getLong(VAL_MAX_INDEX);
+            }
+
+            if (recordComparator == null) {
+                // order dismiss
+                mapValue.putLong(VAL_CURRENT_INDEX, maxIndex + 1);
+            } else {
+                long currentIndex = mapValue.getLong(VAL_CURRENT_INDEX);
+                long offset = mapValue.getLong(VAL_OFFSET);
+                if (currentIndex == 0) {
+                    mapValue.putLong(VAL_CURRENT_INDEX, 1);
+                    mapValue.putLong(VAL_OFFSET, recordOffset);
+                } else {
+                    // compare with prev record
+                    recordComparator.setLeft(record);
+                    if (recordComparator.compare(spi.getRecordAt(offset)) != 0) {
+                        mapValue.putLong(VAL_CURRENT_INDEX, maxIndex + 1);
+                        mapValue.putLong(VAL_OFFSET, recordOffset);
+                    }
+                }
+            }
+            // store rank until partition size is known
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), mapValue.getLong(VAL_CURRENT_INDEX));
+            mapValue.putLong(VAL_MAX_INDEX, maxIndex + 1);
+        }
+
+        @Override
+        public void pass2(Record record, long recordOffset, WindowSPI spi) {
+            partitionByRecord.of(record);
+            MapKey mapKey = map.withKey();
+            mapKey.put(partitionByRecord, partitionBySink);
+            MapValue mapValue = mapKey.findValue();
+
+            final long address = spi.getAddress(recordOffset, columnIndex);
+            final long rank = (long) Unsafe.getUnsafe().getDouble(address);
+            Unsafe.getUnsafe().putDouble(address, percentRank(rank, mapValue != null ? mapValue.getLong(VAL_MAX_INDEX) : 1));
+        }
+
+        @Override
+        public void reopen() {
+            map.reopen();
+        }
+
+        @Override
+        public void reset() {
+            map.close();
+        }
+
+        @Override
+        public void setColumnIndex(int columnIndex) {
+            this.columnIndex = columnIndex;
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val(SIGNATURE);
+            sink.val(" over (");
+            sink.val("partition by ");
+            sink.val(partitionByRecord.getFunctions());
+            sink.val(')');
+        }
+
+        @Override
+        public void toTop() {
+            map.clear();
+        }
+    }
+
+    // no order by, so all rows of the partition are peers and share the first rank
+    private static class SequencePercentRankFunction extends DoubleFunction implements ScalarFunction, WindowFunction, Reopenable {
+
+        private final VirtualRecord partitionByRecord;
+        private int columnIndex;
+
+        public SequencePercentRankFunction(VirtualRecord partitionByRecord) {
+            this.partitionByRecord = partitionByRecord;
+        }
+
+        @Override
+        public void close() {
+            if (partitionByRecord != null) {
+                Misc.freeObjList(partitionByRecord.getFunctions());
+            }
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            return 0.0;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ZERO_PASS;
+        }
+
+        @Override
+        public void initRecordComparator(RecordComparatorCompiler recordComparatorCompiler, ArrayColumnTypes chainTypes, IntList order) {
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), 0.0);
+        }
+
+        @Override
+        public void reopen() {
+        }
+
+        @Override
+        public void reset() {
+        }
+
+        @Override
+        public void setColumnIndex(int columnIndex) {
+            this.columnIndex = columnIndex;
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val(SIGNATURE);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.window;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.std.LongList;
+import io.questdb.std.Vect;
+
+/**
+ * Flyweight over a resizable ring buffer of [long key, double value] pairs. Buffers of all partitions
+ * live in the same native memory, and buffer state is loaded from and saved to the partition's map value,
+ * so a single instance serves all partitions of a window function.
+ * <p>
+ * Pairs are appended at the tail and removed from either end, so the buffer can be used both as
+ * a FIFO queue of rows waiting to enter the frame and as a monotonic deque of frame's min/max candidates.
+ * Memory is allocated lazily, on the first append.
+ */
+class WindowRingBuffer {
+    // number of LONG map value columns taken by the buffer state
+    static final int STATE_COLUMN_COUNT = 4;
+    private static final int RECORD_SIZE = Long.BYTES + Double.BYTES;
+    // list of [capacity, startOffset] pairs marking free space within memory, shared by all buffers using the memory
+    private final LongList freeList;
+    private final long initialCapacity;
+    private final MemoryARW memory;
+    private long capacity;
+    private long firstIdx;
+    private long size;
+    private long startOffset;
+
+    WindowRingBuffer(MemoryARW memory, LongList freeList, long initialCapacity) {
+        this.memory = memory;
+        this.freeList = freeList;
+        this.initialCapacity = Math.max(initialCapacity, 1);
+    }
+
+    static void addStateColumnTypes(ArrayColumnTypes columnTypes) {
+        columnTypes.add(ColumnType.LONG); // native array start offset, requires updating on resize
+        columnTypes.add(ColumnType.LONG); // capacity of ring buffer, 0 until first append
+        columnTypes.add(ColumnType.LONG); // index of first (the oldest) buffered element
+        columnTypes.add(ColumnType.LONG); // number of buffered elements
+    }
+
+    void add(long key, double value) {
+        if (size == capacity) {
+            grow();
+        }
+        final long offset = startOffset + ((firstIdx + size) % capacity) * RECORD_SIZE;
+        memory.putLong(offset, key);
+        memory.putDouble(offset + Long.BYTES, value);
+        size++;
+    }
+
+    void clear() {
+        startOffset = 0;
+        capacity = 0;
+        firstIdx = 0;
+        size = 0;
+    }
+
+    long firstKey() {
+        return memory.getLong(startOffset + firstIdx * RECORD_SIZE);
+    }
+
+    double firstValue() {
+        return memory.getDouble(startOffset + firstIdx * RECORD_SIZE + Long.BYTES);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    double lastValue() {
+        return memory.getDouble(startOffset + ((firstIdx + size - 1) % capacity) * RECORD_SIZE + Long.BYTES);
+    }
+
+    void of(MapValue value, int index) {
+        startOffset = value.getLong(index);
+        capacity = value.getLong(index + 1);
+        firstIdx = value.getLong(index + 2);
+        size = value.getLong(index + 3);
+    }
+
+    void removeFirst() {
+        firstIdx = (firstIdx + 1) % capacity;
+        size--;
+    }
+
+    void removeLast() {
+        size--;
+    }
+
+    void save(MapValue value, int index) {
+        value.putLong(index, startOffset);
+        value.putLong(index + 1, capacity);
+        value.putLong(index + 2, firstIdx);
+        value.putLong(index + 3, size);
+    }
+
+    long size() {
+        return size;
+    }
+
+    private void grow() {
+        if (capacity == 0) {
+            capacity = initialCapacity;
+            startOffset = memory.appendAddressFor(capacity * RECORD_SIZE) - memory.getPageAddress(0);
+            firstIdx = 0;
+            return;
+        }
+
+        final long newCapacity = capacity << 1;
+        long oldAddress = memory.getPageAddress(0) + startOffset;
+        long newAddress = -1;
+
+        // try to find matching block in free list
+        for (int i = 0, n = freeList.size(); i < n; i += 2) {
+            if (freeList.getQuick(i) == newCapacity) {
+                newAddress = memory.getPageAddress(0) + freeList.getQuick(i + 1);
+                // replace block info with ours
+                freeList.setQuick(i, capacity);
+                freeList.setQuick(i + 1, startOffset);
+                break;
+            }
+        }
+
+        if (newAddress == -1) {
+            newAddress = memory.appendAddressFor(newCapacity * RECORD_SIZE);
+            // call above can end up resizing and thus changing memory start address
+            oldAddress = memory.getPageAddress(0) + startOffset;
+            freeList.add(capacity, startOffset);
+        }
+
+        if (firstIdx == 0) {
+            Vect.memcpy(newAddress, oldAddress, size * RECORD_SIZE);
+        } else {
+            // we can't simply copy because that'd leave a gap in the middle
+            long firstPieceSize = (size - firstIdx) * RECORD_SIZE;
+            Vect.memcpy(newAddress, oldAddress + firstIdx * RECORD_SIZE, firstPieceSize);
+            Vect.memcpy(newAddress + firstPieceSize, oldAddress, firstIdx * RECORD_SIZE);
+            firstIdx = 0;
+        }
+
+        startOffset = newAddress - memory.getPageAddress(0);
+        capacity = newCapacity;
+    }
+}
@@ -50,6 +50,7 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
     // this sink is used to copy recordKeyMap keys to dataMap
     private final RecordSink mapSink;
     private final ObjList<Function> recordFunctions;
+    private final boolean spillEnabled;
 
     public GroupByRecordCursorFactory(
             @Transient @NotNull BytecodeAssembler asm,
@@ -72,6 +73,10 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             // sink will be storing record columns to map key
             this.mapSink = RecordSinkFactory.getInstance(asm, base.getMetadata(), listColumnFilter, keyFunctions, false);
             final GroupByFunctionsUpdater updater = GroupByFunctionsUpdaterFactory.getInstance(asm, groupByFunctions);
+            // partial aggregates read back from disk are combined with the merge functions
+            this.spillEnabled = configuration.isGroupBySpillEnabled()
+                    && GroupByUtils.isParallelismSupported(groupByFunctions)
+                    && GroupBySpill.isSupported(keyTypes);
             this.cursor = new GroupByRecordCursor(configuration, recordFunctions, groupByFunctions, updater, keyTypes, valueTypes);
         } catch (Throwable e) {
             close();
@@ -113,7 +118,8 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
 
     @Override
     public boolean recordCursorSupportsRandomAccess() {
-        return true;
+        // spilled groups are returned partition by partition, so the row ids are not stable
+        return !spillEnabled;
     }
 
     @Override
@@ -147,9 +153,12 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
         private final GroupByAllocator allocator;
         private final Map dataMap;
         private final GroupByFunctionsUpdater groupByFunctionsUpdater;
+        private final int spillThreshold;
+        private final GroupBySpill spill;
         private SqlExecutionCircuitBreaker circuitBreaker;
         private boolean isDataMapBuilt;
         private boolean isOpen;
+        private int partitionIndex;
         private long rowId;
 
         public GroupByRecordCursor(
@@ -167,6 +176,8 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
                 this.groupByFunctionsUpdater = groupByFunctionsUpdater;
                 this.allocator = GroupByAllocatorFactory.createThreadUnsafeAllocator(configuration);
                 GroupByUtils.setAllocator(groupByFunctions, allocator);
+                this.spill = spillEnabled ? new GroupBySpill(configuration, keyTypes, valueTypes) : null;
+                this.spillThreshold = configuration.getGroupBySpillThreshold();
             } catch (Throwable th) {
                 close();
                 throw th;
@@ -178,6 +189,12 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             if (!isDataMapBuilt) {
                 buildDataMap();
             }
+            if (spill != null && spill.isActive()) {
+                while (hasNext()) {
+                    counter.inc();
+                }
+                return;
+            }
             baseCursor.calculateSize(circuitBreaker, counter);
         }
 
@@ -186,6 +203,7 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             if (isOpen) {
                 isOpen = false;
                 Misc.free(dataMap);
+                Misc.free(spill);
                 Misc.free(allocator);
                 Misc.clearObjList(groupByFunctions);
                 super.close();
@@ -197,7 +215,10 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             if (!isDataMapBuilt) {
                 buildDataMap();
             }
-            return super.hasNext();
+            if (super.hasNext()) {
+                return true;
+            }
+            return spill != null && spill.isActive() && nextPartition();
         }
 
         public void of(RecordCursor managedCursor, SqlExecutionContext executionContext) throws SqlException {
@@ -208,12 +229,29 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             this.circuitBreaker = executionContext.getCircuitBreaker();
             this.managedCursor = managedCursor;
             Function.init(keyFunctions, managedCursor, executionContext);
+            if (spill != null) {
+                spill.clear();
+            }
             isDataMapBuilt = false;
             rowId = 0;
         }
 
+        @Override
+        public long size() {
+            return spill != null && spill.isActive() ? -1 : super.size();
+        }
+
         @Override
         public void toTop() {
+            if (spill != null && spill.isActive()) {
+                // Spilled partial aggregates may point to the allocator memory changed by the merge,
+                // so the groups are built from scratch.
+                spill.clear();
+                dataMap.clear();
+                Misc.clearObjList(groupByFunctions);
+                Misc.free(allocator);
+                managedCursor.toTop();
+            }
             super.toTop();
             isDataMapBuilt = false;
             rowId = 0;
@@ -228,12 +266,34 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
                 MapValue value = key.createValue();
                 if (value.isNew()) {
                     groupByFunctionsUpdater.updateNew(value, baseRecord, rowId++);
+                    if (spill != null && dataMap.size() >= spillThreshold) {
+                        spill.spill(dataMap);
+                        dataMap.clear();
+                    }
                 } else {
                     groupByFunctionsUpdater.updateExisting(value, baseRecord, rowId++);
                 }
             }
+            if (spill != null && spill.isActive()) {
+                // the remaining groups go to disk too, so that each key is in a single partition
+                spill.spill(dataMap);
+                dataMap.clear();
+                partitionIndex = -1;
+            }
             super.of(dataMap.getCursor());
             isDataMapBuilt = true;
         }
+
+        private boolean nextPartition() {
+            while (++partitionIndex < spill.getPartitionCount()) {
+                dataMap.clear();
+                spill.load(partitionIndex, dataMap, groupByFunctionsUpdater, circuitBreaker);
+                if (dataMap.size() > 0) {
+                    super.of(dataMap.getCursor());
+                    return super.hasNext();
+                }
+            }
+            return false;
+        }
     }
 }
@@ -0,0 +1,418 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapRecord;
+import io.questdb.cairo.map.MapRecordCursor;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.map.MapValueMergeFunction;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.vm.MemoryCMARWImpl;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.DirectUtf8Sequence;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.Utf8Sequence;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Spills partial aggregates of a GROUP BY hash table to disk. Each map entry is appended to one
+ * of the partition files chosen by the key hash code, so that all partial aggregates of a key end up
+ * in the same partition. Once the input is consumed, the partitions are aggregated one by one, so
+ * the hash table has to fit a single partition rather than all keys.
+ * <p>
+ * Partition files are memory-mapped and live in the spill root directory until the spill is cleared
+ * or closed. Values that point to the GROUP BY allocator memory, e.g. count_distinct() sets, stay valid
+ * as long as the allocator is not cleared.
+ */
+public class GroupBySpill implements Mutable, QuietCloseable {
+    private static final long EXTEND_SEGMENT_SIZE = Numbers.SIZE_1MB;
+    private static final Log LOG = LogFactory.getLog(GroupBySpill.class);
+    private static final int PARTITION_BITS = 6;
+    private static final int PARTITION_COUNT = 1 << PARTITION_BITS;
+    private static final AtomicLong SPILL_ID = new AtomicLong();
+    private final FilesFacade ff;
+    private final IntList keyTypes = new IntList();
+    private final SimpleMapValue mergeValue;
+    private final int mkDirMode;
+    private final ObjList<MemoryCMARWImpl> partitions = new ObjList<>(PARTITION_COUNT);
+    private final CharSequence root;
+    private final IntList valueTypes = new IntList();
+    private long id = -1; // -1 means that nothing was spilled so far
+    private long spilledEntryCount;
+
+    public GroupBySpill(
+            @NotNull CairoConfiguration configuration,
+            @Transient @NotNull ColumnTypes keyTypes,
+            @Transient @NotNull ColumnTypes valueTypes
+    ) {
+        this.ff = configuration.getFilesFacade();
+        this.mkDirMode = configuration.getMkDirMode();
+        this.root = configuration.getSqlSpillRoot();
+        for (int i = 0, n = keyTypes.getColumnCount(); i < n; i++) {
+            this.keyTypes.add(keyTypes.getColumnType(i));
+        }
+        for (int i = 0, n = valueTypes.getColumnCount(); i < n; i++) {
+            this.valueTypes.add(valueTypes.getColumnType(i));
+        }
+        this.mergeValue = new SimpleMapValue(valueTypes.getColumnCount());
+    }
+
+    /**
+     * Returns true if map entries with the given key types can be written to the spill files.
+     */
+    public static boolean isSupported(@Transient @NotNull ColumnTypes keyTypes) {
+        for (int i = 0, n = keyTypes.getColumnCount(); i < n; i++) {
+            final int type = keyTypes.getColumnType(i);
+            final short tag = ColumnType.tagOf(type);
+            if (tag != ColumnType.STRING && tag != ColumnType.VARCHAR && ColumnType.sizeOf(type) <= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        if (id != -1) {
+            LOG.info().$("removing spill files [id=").$(id).$(", entries=").$(spilledEntryCount).I$();
+            final Path path = Path.getThreadLocal(root);
+            final int plen = path.size();
+            for (int i = 0, n = partitions.size(); i < n; i++) {
+                partitions.getQuick(i).close();
+                ff.removeQuiet(partitionPath(path.trimTo(plen), i));
+            }
+            id = -1;
+            spilledEntryCount = 0;
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    public int getPartitionCount() {
+        return PARTITION_COUNT;
+    }
+
+    public boolean isActive() {
+        return id != -1;
+    }
+
+    /**
+     * Aggregates the given partition into the map. Partial aggregates of the same key
+     * are merged with the merge function.
+     */
+    public void load(int partitionIndex, Map map, MapValueMergeFunction mergeFunction, SqlExecutionCircuitBreaker circuitBreaker) {
+        final MemoryCMARWImpl mem = partitions.getQuick(partitionIndex);
+        final long limit = mem.getAppendOffset();
+        long offset = 0;
+        while (offset < limit) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            final MapKey key = map.withKey();
+            for (int i = 0, n = keyTypes.size(); i < n; i++) {
+                offset = readKey(mem, offset, keyTypes.getQuick(i), key);
+            }
+            final MapValue value = key.createValue();
+            if (value.isNew()) {
+                offset = readValue(mem, offset, value);
+            } else {
+                offset = readValue(mem, offset, mergeValue);
+                mergeFunction.merge(value, mergeValue);
+            }
+        }
+    }
+
+    /**
+     * Appends all entries of the given map to the partition files. The map can be cleared afterwards.
+     */
+    public void spill(Map map) {
+        if (id == -1) {
+            open();
+        }
+        final int valueCount = valueTypes.size();
+        final MapRecordCursor cursor = map.getCursor();
+        final MapRecord record = cursor.getRecord();
+        while (cursor.hasNext()) {
+            final MemoryCMARWImpl mem = partitions.getQuick((int) (record.keyHashCode() >>> (Long.SIZE - PARTITION_BITS)));
+            // map records have value columns first and key columns next
+            for (int i = 0, n = keyTypes.size(); i < n; i++) {
+                writeColumn(mem, record, valueCount + i, keyTypes.getQuick(i));
+            }
+            for (int i = 0; i < valueCount; i++) {
+                writeColumn(mem, record, i, valueTypes.getQuick(i));
+            }
+        }
+        spilledEntryCount += map.size();
+    }
+
+    private static long readKey(MemoryCMARWImpl mem, long offset, int type, MapKey key) {
+        switch (ColumnType.tagOf(type)) {
+            case ColumnType.BOOLEAN:
+                key.putBool(mem.getBool(offset));
+                return offset + Byte.BYTES;
+            case ColumnType.BYTE:
+            case ColumnType.GEOBYTE:
+                key.putByte(mem.getByte(offset));
+                return offset + Byte.BYTES;
+            case ColumnType.SHORT:
+            case ColumnType.GEOSHORT:
+                key.putShort(mem.getShort(offset));
+                return offset + Short.BYTES;
+            case ColumnType.CHAR:
+                key.putChar(mem.getChar(offset));
+                return offset + Character.BYTES;
+            case ColumnType.IPv4:
+                key.putIPv4(mem.getInt(offset));
+                return offset + Integer.BYTES;
+            case ColumnType.INT:
+            case ColumnType.GEOINT:
+            case ColumnType.SYMBOL:
+                key.putInt(mem.getInt(offset));
+                return offset + Integer.BYTES;
+            case ColumnType.FLOAT:
+                key.putFloat(mem.getFloat(offset));
+                return offset + Float.BYTES;
+            case ColumnType.LONG:
+            case ColumnType.GEOLONG:
+                key.putLong(mem.getLong(offset));
+                return offset + Long.BYTES;
+            case ColumnType.DATE:
+                key.putDate(mem.getLong(offset));
+                return offset + Long.BYTES;
+            case ColumnType.TIMESTAMP:
+                key.putTimestamp(mem.getLong(offset));
+                return offset + Long.BYTES;
+            case ColumnType.DOUBLE:
+                key.putDouble(mem.getDouble(offset));
+                return offset + Double.BYTES;
+            case ColumnType.LONG128:
+            case ColumnType.UUID:
+                key.putLong128(mem.getLong(offset), mem.getLong(offset + Long.BYTES));
+                return offset + 2 * Long.BYTES;
+            case ColumnType.LONG256:
+                key.putLong256(mem.getLong256A(offset));
+                return offset + Long256.BYTES;
+            case ColumnType.STRING: {
+                final CharSequence value = mem.getStrA(offset);
+                key.putStr(value);
+                return offset + Vm.getStorageLength(value);
+            }
+            case ColumnType.VARCHAR: {
+                final int size = mem.getInt(offset);
+                if (size < 0) {
+                    key.putVarchar((Utf8Sequence) null);
+                    return offset + Integer.BYTES;
+                }
+                final boolean ascii = mem.getBool(offset + Integer.BYTES);
+                final DirectUtf8Sequence value = mem.getDirectVarcharA(offset + Integer.BYTES + 1, size, ascii);
+                key.putVarchar(value);
+                return offset + Integer.BYTES + 1 + size;
+            }
+            default:
+                throw CairoException.nonCritical().put("unsupported spill key type: ").put(ColumnType.nameOf(type));
+        }
+    }
+
+    private static void writeColumn(MemoryCMARWImpl mem, Record record, int columnIndex, int type) {
+        switch (ColumnType.tagOf(type)) {
+            case ColumnType.BOOLEAN:
+                mem.putBool(record.getBool(columnIndex));
+                break;
+            case ColumnType.BYTE:
+                mem.putByte(record.getByte(columnIndex));
+                break;
+            case ColumnType.GEOBYTE:
+                mem.putByte(record.getGeoByte(columnIndex));
+                break;
+            case ColumnType.SHORT:
+                mem.putShort(record.getShort(columnIndex));
+                break;
+            case ColumnType.GEOSHORT:
+                mem.putShort(record.getGeoShort(columnIndex));
+                break;
+            case ColumnType.CHAR:
+                mem.putChar(record.getChar(columnIndex));
+                break;
+            case ColumnType.IPv4:
+                mem.putInt(record.getIPv4(columnIndex));
+                break;
+            case ColumnType.INT:
+            case ColumnType.SYMBOL:
+                mem.putInt(record.getInt(columnIndex));
+                break;
+            case ColumnType.GEOINT:
+                mem.putInt(record.getGeoInt(columnIndex));
+                break;
+            case ColumnType.FLOAT:
+                mem.putFloat(record.getFloat(columnIndex));
+                break;
+            case ColumnType.LONG:
+                mem.putLong(record.getLong(columnIndex));
+                break;
+            case ColumnType.GEOLONG:
+                mem.putLong(record.getGeoLong(columnIndex));
+                break;
+            case ColumnType.DATE:
+                mem.putLong(record.getDate(columnIndex));
+                break;
+            case ColumnType.TIMESTAMP:
+                mem.putLong(record.getTimestamp(columnIndex));
+                break;
+            case ColumnType.DOUBLE:
+                mem.putDouble(record.getDouble(columnIndex));
+                break;
+            case ColumnType.LONG128:
+            case ColumnType.UUID:
+                mem.putLong(record.getLong128Lo(columnIndex));
+                mem.putLong(record.getLong128Hi(columnIndex));
+                break;
+            case ColumnType.LONG256:
+                mem.putLong256(record.getLong256A(columnIndex));
+                break;
+            case ColumnType.STRING:
+                mem.putStr(record.getStrA(columnIndex));
+                break;
+            case ColumnType.VARCHAR: {
+                final Utf8Sequence value = record.getVarcharA(columnIndex);
+                if (value == null) {
+                    mem.putInt(-1);
+                } else {
+                    mem.putInt(value.size());
+                    // keep the ascii flag, so that the key read back is the same as the original one
+                    mem.putBool(value.isAscii());
+                    mem.putVarchar(value, 0, value.size());
+                }
+                break;
+            }
+            default:
+                throw CairoException.nonCritical().put("unsupported spill column type: ").put(ColumnType.nameOf(type));
+        }
+    }
+
+    private void open() {
+        id = SPILL_ID.incrementAndGet();
+        final Path path = Path.getThreadLocal(root).slash();
+        if (!ff.exists(path.$()) && ff.mkdirs(path, mkDirMode) != 0) {
+            id = -1;
+            throw CairoException.critical(ff.errno()).put("could not create spill directory [path=").put(path).put(']');
+        }
+        final int plen = path.size();
+        try {
+            for (int i = 0; i < PARTITION_COUNT; i++) {
+                if (partitions.size() == i) {
+                    partitions.add(new MemoryCMARWImpl());
+                }
+                partitions.getQuick(i).of(ff, partitionPath(path.trimTo(plen), i), EXTEND_SEGMENT_SIZE, 0, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE, -1);
+            }
+        } catch (Throwable th) {
+            clear();
+            throw th;
+        }
+        LOG.info().$("spilling group by to disk [id=").$(id).$(", path=").$(path.trimTo(plen)).I$();
+    }
+
+    private Path partitionPath(Path path, int partitionIndex) {
+        return path.concat("groupby_").put(id).put('_').put(partitionIndex).put(".s").$();
+    }
+
+    private long readValue(MemoryCMARWImpl mem, long offset, MapValue value) {
+        for (int i = 0, n = valueTypes.size(); i < n; i++) {
+            final int type = valueTypes.getQuick(i);
+            switch (ColumnType.tagOf(type)) {
+                case ColumnType.BOOLEAN:
+                    value.putBool(i, mem.getBool(offset));
+                    offset += Byte.BYTES;
+                    break;
+                case ColumnType.BYTE:
+                case ColumnType.GEOBYTE:
+                    value.putByte(i, mem.getByte(offset));
+                    offset += Byte.BYTES;
+                    break;
+                case ColumnType.SHORT:
+                case ColumnType.GEOSHORT:
+                    value.putShort(i, mem.getShort(offset));
+                    offset += Short.BYTES;
+                    break;
+                case ColumnType.CHAR:
+                    value.putChar(i, mem.getChar(offset));
+                    offset += Character.BYTES;
+                    break;
+                case ColumnType.INT:
+                case ColumnType.IPv4:
+                case ColumnType.GEOINT:
+                case ColumnType.SYMBOL:
+                    value.putInt(i, mem.getInt(offset));
+                    offset += Integer.BYTES;
+                    break;
+                case ColumnType.FLOAT:
+                    value.putFloat(i, mem.getFloat(offset));
+                    offset += Float.BYTES;
+                    break;
+                case ColumnType.LONG:
+                case ColumnType.GEOLONG:
+                    value.putLong(i, mem.getLong(offset));
+                    offset += Long.BYTES;
+                    break;
+                case ColumnType.DATE:
+                    value.putDate(i, mem.getLong(offset));
+                    offset += Long.BYTES;
+                    break;
+                case ColumnType.TIMESTAMP:
+                    value.putTimestamp(i, mem.getLong(offset));
+                    offset += Long.BYTES;
+                    break;
+                case ColumnType.DOUBLE:
+                    value.putDouble(i, mem.getDouble(offset));
+                    offset += Double.BYTES;
+                    break;
+                case ColumnType.LONG128:
+                case ColumnType.UUID:
+                    value.putLong128(i, mem.getLong(offset), mem.getLong(offset + Long.BYTES));
+                    offset += 2 * Long.BYTES;
+                    break;
+                case ColumnType.LONG256:
+                    value.putLong256(i, mem.getLong256A(offset));
+                    offset += Long256.BYTES;
+                    break;
+                default:
+                    throw CairoException.nonCritical().put("unsupported spill value type: ").put(ColumnType.nameOf(type));
+            }
+        }
+        return offset;
+    }
+}
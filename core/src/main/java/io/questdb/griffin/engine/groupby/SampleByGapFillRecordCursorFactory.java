@@ -0,0 +1,716 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ListColumnFilter;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.RecordSinkFactory;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapRecord;
+import io.questdb.cairo.map.MapRecordCursor;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.NoRandomAccessRecordCursor;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.constants.Constants;
+import io.questdb.griffin.model.ExpressionNode;
+import io.questdb.std.BinarySequence;
+import io.questdb.std.BytecodeAssembler;
+import io.questdb.std.Chars;
+import io.questdb.std.IntList;
+import io.questdb.std.Long256;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.NumericException;
+import io.questdb.std.ObjList;
+import io.questdb.std.Transient;
+import io.questdb.std.datetime.TimeZoneRules;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import io.questdb.std.datetime.microtime.Timestamps;
+import io.questdb.std.str.CharSink;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8Sequence;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.griffin.SqlKeywords.isNullKeyword;
+import static io.questdb.griffin.SqlKeywords.isPrevKeyword;
+import static io.questdb.std.datetime.TimeZoneRuleFactory.RESOLUTION_MICROS;
+
+/**
+ * Fills the gaps in the output of a SAMPLE BY query that was rewritten into a (parallel) GROUP BY
+ * over calendar buckets. The base factory provides the buckets in timestamp order. Fill rows are
+ * produced while streaming the buckets: the keys missing in a bucket and the buckets missing between
+ * two data buckets are filled with NULL, constant or previous values, the same way the SAMPLE BY
+ * fill factories do it. All keys are collected upfront, so that every key is present in every bucket.
+ */
+public class SampleByGapFillRecordCursorFactory extends AbstractRecordCursorFactory {
+    public static final int COLUMN_KEY = 0;
+    public static final int COLUMN_TIMESTAMP = 1;
+    public static final int COLUMN_VALUE = 2;
+    private static final int FILL_CONSTANT = 1;
+    private static final int FILL_KEY = 0;
+    private static final int FILL_PREV = 2;
+    private static final int FILL_TIMESTAMP = 3;
+    private static final int VALUE_KEY_ROW_ID = 0;
+    private static final int VALUE_LAST_BUCKET = 2;
+    private static final int VALUE_PREV_ROW_ID = 1;
+    private final RecordCursorFactory base;
+    private final SampleByGapFillRecordCursor cursor;
+    private final ObjList<Function> fillFunctions;
+    private final String fillValues;
+    private final String stride;
+
+    public SampleByGapFillRecordCursorFactory(
+            @Transient @NotNull BytecodeAssembler asm,
+            CairoConfiguration configuration,
+            RecordCursorFactory base,
+            @NotNull TimestampSampler timestampSampler,
+            @NotNull CharSequence stride,
+            @Nullable CharSequence timezone,
+            int timezonePos,
+            @Transient @NotNull IntList columnKinds,
+            @Transient @NotNull IntList columnPositions,
+            @Transient @NotNull ObjList<ExpressionNode> fillValues
+    ) throws SqlException {
+        super(base.getMetadata());
+        assert base.recordCursorSupportsRandomAccess();
+        this.base = base;
+        this.stride = Chars.toString(stride);
+        final StringSink sink = Misc.getThreadLocalSink();
+        for (int i = 0, n = fillValues.size(); i < n; i++) {
+            if (i > 0) {
+                sink.put(',');
+            }
+            sink.put(fillValues.getQuick(i).token);
+        }
+        this.fillValues = sink.toString();
+        this.fillFunctions = new ObjList<>(columnKinds.size());
+        Map map = null;
+        try {
+            final RecordMetadata metadata = base.getMetadata();
+            final IntList fillKinds = new IntList(columnKinds.size());
+            final ListColumnFilter keyColumnFilter = new ListColumnFilter();
+            final ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+            final boolean isFillSpreading = fillValues.size() == 1
+                    && (isNullKeyword(fillValues.getQuick(0).token) || isPrevKeyword(fillValues.getQuick(0).token));
+            int timestampIndex = -1;
+            int fillIndex = 0;
+            for (int i = 0, n = columnKinds.size(); i < n; i++) {
+                final int type = metadata.getColumnType(i);
+                switch (columnKinds.getQuick(i)) {
+                    case COLUMN_TIMESTAMP:
+                        timestampIndex = i;
+                        fillKinds.add(FILL_TIMESTAMP);
+                        fillFunctions.add(null);
+                        break;
+                    case COLUMN_KEY:
+                        keyColumnFilter.add(i + 1);
+                        keyTypes.add(type);
+                        fillKinds.add(FILL_KEY);
+                        fillFunctions.add(null);
+                        break;
+                    default:
+                        if (fillIndex == fillValues.size()) {
+                            throw SqlException.position(0).put("not enough values");
+                        }
+                        final ExpressionNode fillNode = fillValues.getQuick(isFillSpreading ? 0 : fillIndex++);
+                        if (isPrevKeyword(fillNode.token)) {
+                            fillKinds.add(FILL_PREV);
+                            // keys that had no data yet have nothing to carry forward
+                            fillFunctions.add(Constants.getNullConstant(type));
+                        } else {
+                            fillKinds.add(FILL_CONSTANT);
+                            fillFunctions.add(
+                                    isNullKeyword(fillNode.token)
+                                            ? SampleByFillNullRecordCursorFactory.createPlaceHolderFunction(columnPositions, i, type)
+                                            : SampleByFillValueRecordCursorFactory.createPlaceHolderFunction(columnPositions, i, type, fillNode)
+                            );
+                        }
+                        break;
+                }
+            }
+            assert timestampIndex != -1;
+
+            RecordSink keySink = null;
+            if (keyColumnFilter.size() > 0) {
+                final ArrayColumnTypes valueTypes = new ArrayColumnTypes();
+                valueTypes.add(ColumnType.LONG); // row id of the first row of the key
+                valueTypes.add(ColumnType.LONG); // row id of the latest row of the key
+                valueTypes.add(ColumnType.LONG); // latest bucket of the key
+                keySink = RecordSinkFactory.getInstance(asm, metadata, keyColumnFilter, false);
+                map = MapFactory.createOrderedMap(configuration, keyTypes, valueTypes);
+            }
+
+            TimeZoneRules rules = null;
+            long tzOffset = 0;
+            if (timezone != null) {
+                try {
+                    final long opt = Timestamps.parseOffset(timezone);
+                    if (opt == Long.MIN_VALUE) {
+                        rules = TimestampFormatUtils.EN_LOCALE.getZoneRules(
+                                Numbers.decodeLowInt(TimestampFormatUtils.EN_LOCALE.matchZone(timezone, 0, timezone.length())),
+                                RESOLUTION_MICROS
+                        );
+                    } else {
+                        tzOffset = Numbers.decodeLowInt(opt) * Timestamps.MINUTE_MICROS;
+                    }
+                } catch (NumericException e) {
+                    throw SqlException.$(timezonePos, "invalid timezone: ").put(timezone);
+                }
+            }
+
+            this.cursor = new SampleByGapFillRecordCursor(
+                    map,
+                    keySink,
+                    fillKinds,
+                    fillFunctions,
+                    timestampIndex,
+                    timestampSampler,
+                    rules,
+                    tzOffset
+            );
+        } catch (Throwable th) {
+            Misc.free(map);
+            Misc.freeObjList(fillFunctions);
+            throw th;
+        }
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final RecordCursor baseCursor = base.getCursor(executionContext);
+        try {
+            cursor.of(baseCursor, executionContext);
+            return cursor;
+        } catch (Throwable th) {
+            cursor.close();
+            throw th;
+        }
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Fill");
+        sink.attr("stride").val('\'').val(stride).val('\'');
+        sink.attr("values").val(fillValues);
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(base);
+        Misc.free(cursor.map);
+        Misc.freeObjList(fillFunctions);
+    }
+
+    private static class SampleByGapFillRecordCursor implements NoRandomAccessRecordCursor {
+        private final ObjList<Function> fillFunctions;
+        private final IntList fillKinds;
+        private final RecordSink keySink;
+        private final Map map;
+        private final GapFillRecord record = new GapFillRecord();
+        private final TimeZoneRules rules;
+        private final TimestampSampler timestampSampler;
+        private final int timestampIndex;
+        private final long tzOffset;
+        private RecordCursor baseCursor;
+        private Record baseRecord;
+        // bucket of the rows being returned
+        private long bucket;
+        private SqlExecutionCircuitBreaker circuitBreaker;
+        // bucket of the pending base row
+        private long dataBucket;
+        private boolean hasPrev;
+        private boolean isBaseExhausted;
+        private boolean isDataPending;
+        private boolean isFill;
+        private boolean isFilling;
+        private boolean isKeyFillPending;
+        private boolean isKeysCollected;
+        private boolean isTailFilled;
+        // not keyed: latest data bucket and row id
+        private long lastBucket;
+        private MapRecordCursor mapCursor;
+        private MapRecord mapRecord;
+        private Record prevRecord;
+        private long prevRowId;
+
+        private SampleByGapFillRecordCursor(
+                @Nullable Map map,
+                @Nullable RecordSink keySink,
+                IntList fillKinds,
+                ObjList<Function> fillFunctions,
+                int timestampIndex,
+                TimestampSampler timestampSampler,
+                @Nullable TimeZoneRules rules,
+                long tzOffset
+        ) {
+            this.map = map;
+            this.keySink = keySink;
+            this.fillKinds = fillKinds;
+            this.fillFunctions = fillFunctions;
+            this.timestampIndex = timestampIndex;
+            this.timestampSampler = timestampSampler;
+            this.rules = rules;
+            this.tzOffset = tzOffset;
+        }
+
+        @Override
+        public void close() {
+            baseCursor = Misc.free(baseCursor);
+            Misc.free(map);
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            return baseCursor.getSymbolTable(columnIndex);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!isKeysCollected) {
+                collectKeys();
+            }
+
+            while (true) {
+                if (isFilling) {
+                    if (nextFillRow()) {
+                        return true;
+                    }
+                    isFilling = false;
+                    if (!fetchData()) {
+                        return false;
+                    }
+                    // fill the buckets between the current one and the next data bucket
+                    final long nextBucket = nextBucket(bucket);
+                    if (nextBucket < dataBucket) {
+                        bucket = nextBucket;
+                        startFill();
+                        continue;
+                    }
+                    bucket = dataBucket;
+                }
+
+                if (fetchData()) {
+                    if (dataBucket == bucket || bucket == Numbers.LONG_NULL) {
+                        bucket = dataBucket;
+                        isDataPending = false;
+                        nextDataRow();
+                        return true;
+                    }
+                    // the bucket is complete, fill the keys that had no rows in it
+                    startFill();
+                    continue;
+                }
+
+                if (bucket == Numbers.LONG_NULL || isTailFilled) {
+                    return false;
+                }
+                isTailFilled = true;
+                startFill();
+            }
+        }
+
+        @Override
+        public SymbolTable newSymbolTable(int columnIndex) {
+            return baseCursor.newSymbolTable(columnIndex);
+        }
+
+        @Override
+        public long size() {
+            return -1;
+        }
+
+        @Override
+        public void toTop() {
+            baseCursor.toTop();
+            if (map != null) {
+                map.clear();
+            }
+            isKeysCollected = false;
+            bucket = Numbers.LONG_NULL;
+            lastBucket = Numbers.LONG_NULL;
+            prevRowId = -1;
+            isBaseExhausted = false;
+            isDataPending = false;
+            isFilling = false;
+            isTailFilled = false;
+        }
+
+        private void collectKeys() {
+            if (map != null) {
+                // every key is filled in every bucket, so we need all of them upfront
+                while (baseCursor.hasNext()) {
+                    circuitBreaker.statefulThrowExceptionIfTripped();
+                    final MapKey key = map.withKey();
+                    keySink.copy(baseRecord, key);
+                    final MapValue value = key.createValue();
+                    if (value.isNew()) {
+                        value.putLong(VALUE_KEY_ROW_ID, baseRecord.getRowId());
+                        value.putLong(VALUE_PREV_ROW_ID, -1);
+                        value.putLong(VALUE_LAST_BUCKET, Numbers.LONG_NULL);
+                    }
+                }
+                baseCursor.toTop();
+                // map cursor captures the map size, so it can only be obtained once all keys are in
+                mapCursor = map.getCursor();
+                mapRecord = mapCursor.getRecord();
+            }
+            isKeysCollected = true;
+        }
+
+        private boolean fetchData() {
+            if (!isDataPending && !isBaseExhausted) {
+                if (baseCursor.hasNext()) {
+                    isDataPending = true;
+                    dataBucket = baseRecord.getTimestamp(timestampIndex);
+                } else {
+                    isBaseExhausted = true;
+                }
+            }
+            return isDataPending;
+        }
+
+        private long nextBucket(long bucket) {
+            // buckets are aligned in local time, step in local time and convert back to UTC
+            long local = rules != null ? bucket + rules.getOffset(bucket) : bucket + tzOffset;
+            long next;
+            do {
+                local = timestampSampler.nextTimestamp(local);
+                next = rules != null ? local - rules.getOffset(local - rules.getOffset(local)) : local - tzOffset;
+            } while (next <= bucket);
+            return next;
+        }
+
+        private void nextDataRow() {
+            if (map != null) {
+                final MapKey key = map.withKey();
+                keySink.copy(baseRecord, key);
+                final MapValue value = key.findValue();
+                assert value != null;
+                value.putLong(VALUE_PREV_ROW_ID, baseRecord.getRowId());
+                value.putLong(VALUE_LAST_BUCKET, bucket);
+            } else {
+                prevRowId = baseRecord.getRowId();
+                lastBucket = bucket;
+            }
+            isFill = false;
+        }
+
+        private boolean nextFillRow() {
+            if (map != null) {
+                while (mapCursor.hasNext()) {
+                    final MapValue value = mapRecord.getValue();
+                    if (value.getLong(VALUE_LAST_BUCKET) != bucket) {
+                        final long rowId = value.getLong(VALUE_PREV_ROW_ID);
+                        hasPrev = rowId != -1;
+                        baseCursor.recordAt(prevRecord, hasPrev ? rowId : value.getLong(VALUE_KEY_ROW_ID));
+                        isFill = true;
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            if (isKeyFillPending) {
+                isKeyFillPending = false;
+                if (lastBucket != bucket) {
+                    hasPrev = true;
+                    baseCursor.recordAt(prevRecord, prevRowId);
+                    isFill = true;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void of(RecordCursor baseCursor, SqlExecutionContext executionContext) {
+            this.baseCursor = baseCursor;
+            this.baseRecord = baseCursor.getRecord();
+            this.prevRecord = baseCursor.getRecordB();
+            this.circuitBreaker = executionContext.getCircuitBreaker();
+            if (map != null) {
+                map.reopen();
+            }
+            toTop();
+        }
+
+        private void startFill() {
+            isFilling = true;
+            if (map != null) {
+                mapCursor.toTop();
+            } else {
+                isKeyFillPending = true;
+            }
+        }
+
+        private class GapFillRecord implements Record {
+
+            @Override
+            public BinarySequence getBin(int col) {
+                final Function function = getFillFunction(col);
+                return function != null ? function.getBin(null) : getSourceRecord().getBin(col);
+            }
+
+            @Override
+            public long getBinLen(int col) {
+                final Function function = getFillFunction(col);
+                return function != null ? function.getBinLen(null) : getSourceRecord().getBinLen(col);
+            }
+
+            @Override
+            public boolean getBool(int col) {
+                final Function function = getFillFunction(col);
+                return function != null ? function.getBool(null) : getSourceRecord().getBool(col);
+            }
+
+            @Override
+            public byte getByte(int col) {
+                final Function function = getFillFunction(col);
+                return function != null ? function.getByte(null) : getSourceRecord().getByte(col);
+            }
+
+            @Override
+            public char getChar(int col) {
+                final Function function = getFillFunction(col);
+                return function != null ? function.getChar(null) : getSourceRecord().getChar(col);
+            }
+
+            @Override
+            public long getDate(int col) {
+                final Function function = getFillFunction(col);
+                return function != null ? function.getDate(null) : getSourceRecord().getDate(col);
+            }
+
+            @Override
+            public double getDouble(int col) {
+                final Function function = getFillFunction(col);
+                return function != null ? function.getDouble(null) : getSourceRecord().getDouble(col);
+            }
+
+            @Override
+            public float getFloat(int col) {
+                final Function function = getFillFunction(col);
+                return function != null ? function.getFloat(null) : getSourceRecord().getFloat(col);
+            }
+
+            @Override
+            public byte getGeoByte(int col) {
+                final Function function = getFillFunction(col);
+                return function != null ? function.getGeoByte(null) : getSourceRecord().getGeoByte(col);
+            }
+
+            @Override
+            public int getGeoInt(int col) {
+                final Function function = getFillFunction(col);
+                return function != null ? function.getGeoInt(null) : getSourceRecord().getGeoInt(col);
+            }
+
+            @Override
+            public long getGeoLong(int col) {
+                final Function function = getFillFunction(col);
+                return function != null ? function.getGeoLong(null) : getSourceRecord().getGeoLong(col);
+            }
+
+            @Override
+            public short getGeoShort(int col) {
+                final Function function = getFillFunction(col);
+                return function != null ? function.getGeoShort(null) : getSourceRecord().getGeoShort(col);
+            }
+
+            @Override
+            public int getIPv4(int col) {
+                final Function function = getFillFunction(col);
+                return function != null ? function.getIPv4(null) : getSourceRecord().getIPv4(col);
+            }
+
+            @Override
+            public int getInt(int col) {
+                final Function function = getFillFunction(col);
+                return function != null ? function.getInt(null) : getSourceRecord().getInt(col);
+            }
+
+            @Override
+            public long getLong(int col) {
+                if (isFill && col == timestampIndex) {
+                    return bucket;
+                }
+                final Function function = getFillFunction(col);
+                return function != null ? function.getLong(null) : getSourceRecord().getLong(col);
+            }
+
+            @Override
+            public long getLong128Hi(int col) {
+                final Function function = getFillFunction(col);
+                return function != null ? function.getLong128Hi(null) : getSourceRecord().getLong128Hi(col);
+            }
+
+            @Override
+            public long getLong128Lo(int col) {
+                final Function function = getFillFunction(col);
+                return function != null ? function.getLong128Lo(null) : getSourceRecord().getLong128Lo(col);
+            }
+
+            @Override
+            public void getLong256(int col, CharSink<?> sink) {
+                final Function function = getFillFunction(col);
+                if (function != null) {
+                    function.getLong256(null, sink);
+                } else {
+                    getSourceRecord().getLong256(col, sink);
+                }
+            }
+
+            @Override
+            public Long256 getLong256A(int col) {
+                final Function function = getFillFunction(col);
+                return function != null ? function.getLong256A(null) : getSourceRecord().getLong256A(col);
+            }
+
+            @Override
+            public Long256 getLong256B(int col) {
+                final Function function = getFillFunction(col);
+                return function != null ? function.getLong256B(null) : getSourceRecord().getLong256B(col);
+            }
+
+            @Override
+            public short getShort(int col) {
+                final Function function = getFillFunction(col);
+                return function != null ? function.getShort(null) : getSourceRecord().getShort(col);
+            }
+
+            @Override
+            public CharSequence getStrA(int col) {
+                final Function function = getFillFunction(col);
+                return function != null ? function.getStrA(null) : getSourceRecord().getStrA(col);
+            }
+
+            @Override
+            public CharSequence getStrB(int col) {
+                final Function function = getFillFunction(col);
+                return function != null ? function.getStrB(null) : getSourceRecord().getStrB(col);
+            }
+
+            @Override
+            public int getStrLen(int col) {
+                final Function function = getFillFunction(col);
+                return function != null ? function.getStrLen(null) : getSourceRecord().getStrLen(col);
+            }
+
+            @Override
+            public CharSequence getSymA(int col) {
+                final Function function = getFillFunction(col);
+                return function != null ? function.getSymbol(null) : getSourceRecord().getSymA(col);
+            }
+
+            @Override
+            public CharSequence getSymB(int col) {
+                final Function function = getFillFunction(col);
+                return function != null ? function.getSymbolB(null) : getSourceRecord().getSymB(col);
+            }
+
+            @Override
+            public long getTimestamp(int col) {
+                if (isFill && col == timestampIndex) {
+                    return bucket;
+                }
+                final Function function = getFillFunction(col);
+                return function != null ? function.getTimestamp(null) : getSourceRecord().getTimestamp(col);
+            }
+
+            @Override
+            public Utf8Sequence getVarcharA(int col) {
+                final Function function = getFillFunction(col);
+                return function != null ? function.getVarcharA(null) : getSourceRecord().getVarcharA(col);
+            }
+
+            @Override
+            public Utf8Sequence getVarcharB(int col) {
+                final Function function = getFillFunction(col);
+                return function != null ? function.getVarcharB(null) : getSourceRecord().getVarcharB(col);
+            }
+
+            @Override
+            public int getVarcharSize(int col) {
+                final Function function = getFillFunction(col);
+                return function != null ? function.getVarcharSize(null) : getSourceRecord().getVarcharSize(col);
+            }
+
+            // returns null when the column value comes from a base record
+            private Function getFillFunction(int col) {
+                if (isFill) {
+                    switch (fillKinds.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col);
+                        case FILL_PREV:
+                            return hasPrev ? null : fillFunctions.getQuick(col);
+                        default:
+                            return null;
+                    }
+                }
+                return null;
+            }
+
+            private Record getSourceRecord() {
+                return isFill ? prevRecord : baseRecord;
+            }
+        }
+    }
+}
@@ -190,6 +190,11 @@ public class SimpleMapValue implements MapValue {
         return values[4 * index];
     }
 
+    @Override
+    public long getValueAddress() {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public boolean isNew() {
         return isNew;
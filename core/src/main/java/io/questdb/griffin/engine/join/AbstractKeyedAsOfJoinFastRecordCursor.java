@@ -0,0 +1,239 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.Rows;
+
+/**
+ * Keyed flavour of {@link AbstractAsOfJoinFastRecordCursor} for joins on a single SYMBOL column.
+ * <p>
+ * The time frame search positions the slave at the last row that satisfies the master timestamp.
+ * The latest row with the master key is then found by scanning the slave backwards from that
+ * position, so that sparse masters do not need to read the whole slave table. Each backward scan
+ * remembers the latest row of every key it passes, so that subsequent lookups only scan rows
+ * appended to the position since the key was last seen. A scan that reaches the watermark, i.e.
+ * the row id known to be resolved for all keys, moves the watermark to the scan start.
+ */
+public abstract class AbstractKeyedAsOfJoinFastRecordCursor extends AbstractAsOfJoinFastRecordCursor {
+    private static final int KEY_UNKNOWN = -3;
+    // per key slot: the latest row id with the key at or before the scanned row id, or -1
+    private final LongList keyMatchRowIds = new LongList();
+    // per key slot: the row id up to which the slave was scanned for the key
+    private final LongList keyScannedRowIds = new LongList();
+    private final OuterJoinRecord keyedRecord;
+    private final int masterKeyIndex;
+    // master symbol key to slave symbol key; empty unless the master symbol table is static
+    private final IntList masterToSlaveKeys = new IntList();
+    private final LongList slaveFrameSizes = new LongList();
+    private final int slaveKeyIndex;
+    private StaticSymbolTable slaveSymbolTable;
+    // all keys have no rows between their scanned row id and the watermark
+    private long watermarkRowId = -1;
+
+    public AbstractKeyedAsOfJoinFastRecordCursor(
+            int columnSplit,
+            Record nullRecord,
+            int masterTimestampIndex,
+            int slaveTimestampIndex,
+            int lookahead,
+            int masterKeyIndex,
+            int slaveKeyIndex
+    ) {
+        super(columnSplit, nullRecord, masterTimestampIndex, slaveTimestampIndex, lookahead);
+        this.keyedRecord = new OuterJoinRecord(columnSplit, nullRecord);
+        this.masterKeyIndex = masterKeyIndex;
+        this.slaveKeyIndex = slaveKeyIndex;
+    }
+
+    @Override
+    public Record getRecord() {
+        return keyedRecord;
+    }
+
+    @Override
+    public void of(RecordCursor masterCursor, TimeFrameRecordCursor slaveCursor) {
+        slaveSymbolTable = (StaticSymbolTable) slaveCursor.getSymbolTable(slaveKeyIndex);
+        super.of(masterCursor, slaveCursor);
+        final SymbolTable masterSymbolTable = masterCursor.getSymbolTable(masterKeyIndex);
+        if (masterSymbolTable instanceof StaticSymbolTable) {
+            masterToSlaveKeys.setAll(((StaticSymbolTable) masterSymbolTable).getSymbolCount(), KEY_UNKNOWN);
+        } else {
+            masterToSlaveKeys.clear();
+        }
+        keyedRecord.of(masterRecord, slaveRecA);
+        keyedRecord.hasSlave(false);
+    }
+
+    @Override
+    public void toTop() {
+        super.toTop();
+        keyedRecord.hasSlave(false);
+        // slot 0 is reserved for the null symbol
+        final int slotCount = slaveSymbolTable.getSymbolCount() + 1;
+        keyMatchRowIds.setAll(slotCount, -1);
+        keyScannedRowIds.setAll(slotCount, -1);
+        slaveFrameSizes.clear();
+        watermarkRowId = -1;
+    }
+
+    /**
+     * Positions the returned record at the latest slave row with the master key, if any.
+     * Must be called after the time frame search for the current master row.
+     */
+    protected void findKeyedSlave() {
+        if (record.hasSlave()) {
+            final int key = slaveKeyOf();
+            if (key != SymbolTable.VALUE_NOT_FOUND) {
+                final long matchRowId = findLatestRowId(toSlot(key), slaveRecB.getRowId());
+                if (matchRowId != -1) {
+                    slaveCursor.recordAt(slaveRecA, matchRowId);
+                    keyedRecord.hasSlave(true);
+                    return;
+                }
+            }
+        }
+        keyedRecord.hasSlave(false);
+    }
+
+    private static int toSlot(int key) {
+        return key == SymbolTable.VALUE_IS_NULL ? 0 : key + 1;
+    }
+
+    private long findLatestRowId(int slot, long rowId) {
+        final long scannedRowId = resolveScannedRowId(slot);
+        if (scannedRowId >= rowId) {
+            return keyMatchRowIds.getQuick(slot);
+        }
+
+        int frameIndex = Rows.toPartitionIndex(rowId);
+        long frameRow = Rows.toLocalRowID(rowId);
+        long currentRowId = rowId;
+        while (currentRowId > scannedRowId) {
+            slaveCursor.recordAt(slaveRecA, currentRowId);
+            final int seenSlot = toSlot(slaveRecA.getInt(slaveKeyIndex));
+            // the first row we see for a key in this scan is the latest one
+            if (resolveScannedRowId(seenSlot) < rowId) {
+                if (currentRowId > keyScannedRowIds.getQuick(seenSlot)) {
+                    keyMatchRowIds.setQuick(seenSlot, currentRowId);
+                }
+                keyScannedRowIds.setQuick(seenSlot, rowId);
+            }
+            if (seenSlot == slot) {
+                return currentRowId;
+            }
+
+            while (--frameRow < 0) {
+                if (--frameIndex < 0) {
+                    break;
+                }
+                frameRow = getSlaveFrameSize(frameIndex);
+            }
+            if (frameIndex < 0) {
+                break;
+            }
+            currentRowId = Rows.toRowID(frameIndex, frameRow);
+        }
+
+        // the key has no rows in (scannedRowId, rowId]
+        if (scannedRowId == watermarkRowId) {
+            // all the rows above the watermark were scanned, so every key is resolved up to rowId
+            watermarkRowId = rowId;
+        }
+        keyScannedRowIds.setQuick(slot, rowId);
+        return keyMatchRowIds.getQuick(slot);
+    }
+
+    private long getSlaveFrameSize(int frameIndex) {
+        if (frameIndex < slaveFrameSizes.size()) {
+            final long size = slaveFrameSizes.getQuick(frameIndex);
+            if (size != -1) {
+                return size;
+            }
+        }
+
+        // open the frame and then restore the cursor state expected by the time frame search
+        final TimeFrame frame = slaveCursor.getTimeFrame();
+        final int savedFrameIndex = frame.getIndex();
+        final boolean savedFrameOpen = frame.isOpen();
+        seekSlaveFrame(frame, frameIndex);
+        final long size;
+        try {
+            size = slaveCursor.open();
+        } finally {
+            seekSlaveFrame(frame, savedFrameIndex);
+            if (savedFrameOpen) {
+                slaveCursor.open();
+            }
+        }
+
+        while (slaveFrameSizes.size() <= frameIndex) {
+            slaveFrameSizes.add(-1);
+        }
+        slaveFrameSizes.setQuick(frameIndex, size);
+        return size;
+    }
+
+    private long resolveScannedRowId(int slot) {
+        final long scannedRowId = keyScannedRowIds.getQuick(slot);
+        if (scannedRowId < watermarkRowId) {
+            // the key has no rows between the scanned row id and the watermark, so the match stays the same
+            keyScannedRowIds.setQuick(slot, watermarkRowId);
+            return watermarkRowId;
+        }
+        return scannedRowId;
+    }
+
+    private void seekSlaveFrame(TimeFrame frame, int frameIndex) {
+        while (frame.getIndex() < frameIndex) {
+            if (!slaveCursor.next()) {
+                break;
+            }
+        }
+        while (frame.getIndex() > frameIndex) {
+            if (!slaveCursor.prev()) {
+                break;
+            }
+        }
+    }
+
+    private int slaveKeyOf() {
+        if (masterToSlaveKeys.size() > 0) {
+            final int masterKey = masterRecord.getInt(masterKeyIndex);
+            if (masterKey > -1 && masterKey < masterToSlaveKeys.size()) {
+                int slaveKey = masterToSlaveKeys.getQuick(masterKey);
+                if (slaveKey == KEY_UNKNOWN) {
+                    slaveKey = slaveSymbolTable.keyOf(masterRecord.getSymA(masterKeyIndex));
+                    masterToSlaveKeys.setQuick(masterKey, slaveKey);
+                }
+                return slaveKey;
+            }
+        }
+        return slaveSymbolTable.keyOf(masterRecord.getSymA(masterKeyIndex));
+    }
+}
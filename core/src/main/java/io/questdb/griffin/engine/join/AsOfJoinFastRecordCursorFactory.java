@@ -0,0 +1,144 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.model.JoinContext;
+import io.questdb.std.Misc;
+
+/**
+ * ASOF JOIN on a single SYMBOL column. Instead of scanning the whole slave, the cursor
+ * jumps through slave time frames and then scans backwards for the master key,
+ * see {@link AbstractKeyedAsOfJoinFastRecordCursor}.
+ */
+public class AsOfJoinFastRecordCursorFactory extends AbstractJoinRecordCursorFactory {
+    private final AsOfJoinKeyedFastRecordCursor cursor;
+
+    public AsOfJoinFastRecordCursorFactory(
+            CairoConfiguration configuration,
+            RecordMetadata metadata,
+            RecordCursorFactory masterFactory,
+            RecordCursorFactory slaveFactory,
+            int columnSplit,
+            int masterKeyIndex,
+            int slaveKeyIndex,
+            JoinContext joinContext
+    ) {
+        super(metadata, joinContext, masterFactory, slaveFactory);
+        assert slaveFactory.supportsTimeFrameCursor();
+        this.cursor = new AsOfJoinKeyedFastRecordCursor(
+                columnSplit,
+                NullRecordFactory.getInstance(slaveFactory.getMetadata()),
+                masterFactory.getMetadata().getTimestampIndex(),
+                slaveFactory.getMetadata().getTimestampIndex(),
+                configuration.getSqlAsOfJoinLookAhead(),
+                masterKeyIndex,
+                slaveKeyIndex
+        );
+    }
+
+    @Override
+    public boolean followedOrderByAdvice() {
+        return masterFactory.followedOrderByAdvice();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        RecordCursor masterCursor = masterFactory.getCursor(executionContext);
+        TimeFrameRecordCursor slaveCursor = null;
+        try {
+            slaveCursor = slaveFactory.getTimeFrameCursor(executionContext);
+            cursor.of(masterCursor, slaveCursor);
+            return cursor;
+        } catch (Throwable e) {
+            Misc.free(slaveCursor);
+            Misc.free(masterCursor);
+            throw e;
+        }
+    }
+
+    @Override
+    public int getScanDirection() {
+        return masterFactory.getScanDirection();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("AsOf Join Keyed Fast Scan");
+        sink.attr("condition").val(joinContext);
+        sink.child(masterFactory);
+        sink.child(slaveFactory);
+    }
+
+    @Override
+    protected void _close() {
+        Misc.freeIfCloseable(getMetadata());
+        Misc.free(masterFactory);
+        Misc.free(slaveFactory);
+    }
+
+    private static class AsOfJoinKeyedFastRecordCursor extends AbstractKeyedAsOfJoinFastRecordCursor {
+
+        public AsOfJoinKeyedFastRecordCursor(
+                int columnSplit,
+                Record nullRecord,
+                int masterTimestampIndex,
+                int slaveTimestampIndex,
+                int lookahead,
+                int masterKeyIndex,
+                int slaveKeyIndex
+        ) {
+            super(columnSplit, nullRecord, masterTimestampIndex, slaveTimestampIndex, lookahead, masterKeyIndex, slaveKeyIndex);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (isMasterHasNextPending) {
+                masterHasNext = masterCursor.hasNext();
+                isMasterHasNextPending = false;
+            }
+            if (masterHasNext) {
+                final long masterTimestamp = masterRecord.getTimestamp(masterTimestampIndex);
+                if (masterTimestamp >= lookaheadTimestamp) {
+                    nextSlave(masterTimestamp);
+                }
+                findKeyedSlave();
+                isMasterHasNextPending = true;
+                return true;
+            }
+            return false;
+        }
+    }
+}
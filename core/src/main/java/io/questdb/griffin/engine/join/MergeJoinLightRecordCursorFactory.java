@@ -0,0 +1,361 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.model.JoinContext;
+import io.questdb.std.Misc;
+import io.questdb.std.Transient;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Inner join of two record cursors ordered by designated timestamps, with the timestamps
+ * being one of the join keys. Both cursors are scanned once, in the same direction. Only
+ * slave rows with the current master timestamp are kept in memory, so the memory footprint
+ * doesn't depend on slave size as long as there are no huge groups of equal timestamps.
+ * <p>
+ * Slave rows of a group are put into a hash map on the remaining join keys, if there are any.
+ * Slave rows matching a master row are returned in slave order, like in hash join.
+ */
+public class MergeJoinLightRecordCursorFactory extends AbstractJoinRecordCursorFactory {
+    private final MergeJoinRecordCursor cursor;
+    private final RecordSink masterKeySink;
+    private final RecordSink slaveKeySink;
+
+    /**
+     * @param joinColumnTypes types of the join keys except for timestamps or null if timestamps are the only keys
+     * @param masterKeySink   sink for the master join keys except for timestamp, null if there are none
+     * @param slaveKeySink    sink for the slave join keys except for timestamp, null if there are none
+     */
+    public MergeJoinLightRecordCursorFactory(
+            CairoConfiguration configuration,
+            RecordMetadata metadata,
+            RecordCursorFactory masterFactory,
+            RecordCursorFactory slaveFactory,
+            @Transient @Nullable ColumnTypes joinColumnTypes,
+            @Nullable RecordSink masterKeySink,
+            @Nullable RecordSink slaveKeySink,
+            int masterTimestampIndex,
+            int slaveTimestampIndex,
+            int columnSplit,
+            JoinContext joinContext
+    ) {
+        super(metadata, joinContext, masterFactory, slaveFactory);
+        assert masterFactory.getScanDirection() == slaveFactory.getScanDirection();
+        try {
+            this.masterKeySink = masterKeySink;
+            this.slaveKeySink = slaveKeySink;
+            this.cursor = new MergeJoinRecordCursor(
+                    columnSplit,
+                    configuration,
+                    joinColumnTypes,
+                    masterTimestampIndex,
+                    slaveTimestampIndex,
+                    masterFactory.getScanDirection() == SCAN_DIRECTION_BACKWARD
+            );
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    @Override
+    public boolean followedOrderByAdvice() {
+        return masterFactory.followedOrderByAdvice();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        RecordCursor slaveCursor = slaveFactory.getCursor(executionContext);
+        RecordCursor masterCursor = null;
+        try {
+            masterCursor = masterFactory.getCursor(executionContext);
+            cursor.of(masterCursor, slaveCursor, executionContext.getCircuitBreaker());
+            return cursor;
+        } catch (Throwable e) {
+            Misc.free(slaveCursor);
+            Misc.free(masterCursor);
+            throw e;
+        }
+    }
+
+    @Override
+    public int getScanDirection() {
+        return masterFactory.getScanDirection();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsUpdateRowId(TableToken tableToken) {
+        return masterFactory.supportsUpdateRowId(tableToken);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Merge Join Light");
+        sink.attr("condition").val(joinContext);
+        sink.child(masterFactory);
+        sink.child(slaveFactory);
+    }
+
+    @Override
+    protected void _close() {
+        Misc.freeIfCloseable(getMetadata());
+        Misc.free(masterFactory);
+        Misc.free(slaveFactory);
+        Misc.free(cursor);
+    }
+
+    private class MergeJoinRecordCursor extends AbstractJoinCursor {
+        private final boolean descending;
+        // slave rows of the current group, linked in slave order
+        private final LongChain groupChain;
+        // maps remaining join keys to [head, tail] offsets in the chain, null if timestamps are the only keys
+        private final Map groupMap;
+        private final int masterTimestampIndex;
+        private final JoinRecord record;
+        private final int slaveTimestampIndex;
+        private SqlExecutionCircuitBreaker circuitBreaker;
+        private long groupHead;
+        private long groupTail;
+        private long groupTimestamp;
+        private boolean hasGroup;
+        private boolean hasPendingSlave;
+        private boolean isOpen;
+        private boolean isSlaveExhausted;
+        private Record masterRecord;
+        private LongChain.TreeCursor slaveChainCursor;
+        private Record slaveRecord;
+        private Record slaveRecordB;
+
+        public MergeJoinRecordCursor(
+                int columnSplit,
+                CairoConfiguration configuration,
+                @Nullable ColumnTypes joinColumnTypes,
+                int masterTimestampIndex,
+                int slaveTimestampIndex,
+                boolean descending
+        ) {
+            super(columnSplit);
+            try {
+                isOpen = true;
+                this.masterTimestampIndex = masterTimestampIndex;
+                this.slaveTimestampIndex = slaveTimestampIndex;
+                this.descending = descending;
+                record = new JoinRecord(columnSplit);
+                groupChain = new LongChain(configuration.getSqlHashJoinLightValuePageSize(), configuration.getSqlHashJoinLightValueMaxPages());
+                if (joinColumnTypes != null) {
+                    final ArrayColumnTypes valueTypes = new ArrayColumnTypes();
+                    valueTypes.add(ColumnType.LONG);
+                    valueTypes.add(ColumnType.LONG);
+                    groupMap = MapFactory.createUnorderedMap(configuration, joinColumnTypes, valueTypes);
+                } else {
+                    groupMap = null;
+                }
+            } catch (Throwable th) {
+                close();
+                throw th;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (isOpen) {
+                isOpen = false;
+                Misc.free(groupMap);
+                Misc.free(groupChain);
+                super.close();
+            }
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (slaveChainCursor != null && slaveChainCursor.hasNext()) {
+                slaveCursor.recordAt(slaveRecordB, slaveChainCursor.next());
+                return true;
+            }
+
+            while (masterCursor.hasNext()) {
+                final long masterTimestamp = masterRecord.getTimestamp(masterTimestampIndex);
+                if (!hasGroup || masterTimestamp != groupTimestamp) {
+                    if (isSlaveExhausted && !hasPendingSlave) {
+                        // no more slave rows to match
+                        return false;
+                    }
+                    buildGroup(masterTimestamp);
+                }
+                if (groupHead == -1) {
+                    continue;
+                }
+
+                final long headOffset;
+                if (groupMap != null) {
+                    final MapKey key = groupMap.withKey();
+                    key.put(masterRecord, masterKeySink);
+                    final MapValue value = key.findValue();
+                    if (value == null) {
+                        continue;
+                    }
+                    headOffset = value.getLong(0);
+                } else {
+                    headOffset = groupHead;
+                }
+                slaveChainCursor = groupChain.getCursor(headOffset);
+                // we know cursor has values
+                // advance to get the first value
+                slaveChainCursor.hasNext();
+                slaveCursor.recordAt(slaveRecordB, slaveChainCursor.next());
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public long size() {
+            return -1;
+        }
+
+        @Override
+        public void toTop() {
+            masterCursor.toTop();
+            slaveCursor.toTop();
+            resetGroup();
+        }
+
+        private void addToGroup() {
+            final long rowId = slaveRecord.getRowId();
+            if (groupMap != null) {
+                final MapKey key = groupMap.withKey();
+                key.put(slaveRecord, slaveKeySink);
+                final MapValue value = key.createValue();
+                if (value.isNew()) {
+                    final long offset = groupChain.put(rowId, -1);
+                    value.putLong(0, offset);
+                    value.putLong(1, offset);
+                } else {
+                    value.putLong(1, groupChain.put(rowId, value.getLong(1)));
+                }
+                // the group is not empty, the actual head is kept in the map
+                groupHead = 0;
+            } else {
+                groupTail = groupChain.put(rowId, groupTail);
+                if (groupHead == -1) {
+                    groupHead = groupTail;
+                }
+            }
+        }
+
+        /**
+         * Collects slave rows with the given timestamp, skipping the preceding ones.
+         * The first slave row past the group is kept pending for the next group.
+         */
+        private void buildGroup(long timestamp) {
+            if (groupHead != -1) {
+                // clearing the map is not free, so we do it only when there is something to clear
+                if (groupMap != null) {
+                    groupMap.clear();
+                }
+                groupChain.clear();
+            }
+            groupHead = -1;
+            groupTail = -1;
+            groupTimestamp = timestamp;
+            hasGroup = true;
+
+            while (hasPendingSlave || fetchSlave()) {
+                final long slaveTimestamp = slaveRecord.getTimestamp(slaveTimestampIndex);
+                if (slaveTimestamp == timestamp) {
+                    addToGroup();
+                } else if (descending ? slaveTimestamp < timestamp : slaveTimestamp > timestamp) {
+                    break;
+                }
+                hasPendingSlave = false;
+            }
+        }
+
+        private boolean fetchSlave() {
+            if (isSlaveExhausted) {
+                return false;
+            }
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            if (slaveCursor.hasNext()) {
+                hasPendingSlave = true;
+                return true;
+            }
+            isSlaveExhausted = true;
+            return false;
+        }
+
+        private void of(RecordCursor masterCursor, RecordCursor slaveCursor, SqlExecutionCircuitBreaker circuitBreaker) {
+            if (!isOpen) {
+                isOpen = true;
+                if (groupMap != null) {
+                    groupMap.reopen();
+                }
+                groupChain.reopen();
+            }
+            this.masterCursor = masterCursor;
+            this.slaveCursor = slaveCursor;
+            this.circuitBreaker = circuitBreaker;
+            masterRecord = masterCursor.getRecord();
+            slaveRecord = slaveCursor.getRecord();
+            slaveRecordB = slaveCursor.getRecordB();
+            record.of(masterRecord, slaveRecordB);
+            resetGroup();
+        }
+
+        private void resetGroup() {
+            if (groupMap != null) {
+                groupMap.clear();
+            }
+            groupChain.clear();
+            slaveChainCursor = null;
+            hasGroup = false;
+            hasPendingSlave = false;
+            isSlaveExhausted = false;
+            groupHead = -1;
+            groupTail = -1;
+        }
+    }
+}
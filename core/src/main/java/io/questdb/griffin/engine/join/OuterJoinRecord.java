@@ -35,7 +35,11 @@ public class OuterJoinRecord extends JoinRecord {
         this.nullRecord = nullRecord;
     }
 
-    void hasSlave(boolean value) {
+    public boolean hasSlave() {
+        return slave != nullRecord;
+    }
+
+    public void hasSlave(boolean value) {
         if (value) {
             if (flappingSlave != slave) {
                 slave = flappingSlave;
@@ -47,7 +51,7 @@ public class OuterJoinRecord extends JoinRecord {
         }
     }
 
-    void of(Record master, Record slave) {
+    public void of(Record master, Record slave) {
         super.of(master, slave);
         this.flappingSlave = slave;
     }
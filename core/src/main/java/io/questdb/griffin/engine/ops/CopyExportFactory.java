@@ -0,0 +1,181 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.ops;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GenericRecordMetadata;
+import io.questdb.cairo.PartitionBy;
+import io.questdb.cairo.TableColumnMetadata;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.sql.NoRandomAccessRecordCursor;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cutlass.text.CopyContext;
+import io.questdb.cutlass.text.ParallelParquetExporter;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.LongList;
+import io.questdb.std.Numbers;
+import io.questdb.std.str.StringSink;
+
+/**
+ * Executes COPY ... TO statement lazily, i.e. on record cursor initialization. Unlike import,
+ * export is synchronous: the cursor lists the written files once all partitions are exported.
+ */
+public class CopyExportFactory extends AbstractRecordCursorFactory {
+    private final static GenericRecordMetadata METADATA = new GenericRecordMetadata();
+    private final CopyContext copyContext;
+    private final ExportCursor cursor = new ExportCursor();
+    private final String dirName;
+    private final CairoEngine engine;
+    private final TableToken tableToken;
+
+    public CopyExportFactory(CairoEngine engine, CopyContext copyContext, TableToken tableToken, String dirName) {
+        super(METADATA);
+        this.engine = engine;
+        this.copyContext = copyContext;
+        this.tableToken = tableToken;
+        this.dirName = dirName;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final long copyID = copyContext.assignActiveExportId(executionContext.getSecurityContext());
+        if (copyID == CopyContext.INACTIVE_COPY_ID) {
+            final StringSink activeIdSink = new StringSink();
+            Numbers.appendHex(activeIdSink, copyContext.getActiveCopyID(), true);
+            throw SqlException.$(0, "Another copy request is in progress. ")
+                    .put("[activeCopyId=")
+                    .put(activeIdSink)
+                    .put(']');
+        }
+        try (ParallelParquetExporter exporter = new ParallelParquetExporter(engine)) {
+            exporter.export(tableToken, dirName, executionContext.getCircuitBreaker());
+            return cursor.of(exporter);
+        } finally {
+            copyContext.clear();
+        }
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Copy Export");
+        sink.meta("table").val(tableToken);
+    }
+
+    private static class ExportCursor implements NoRandomAccessRecordCursor {
+        private final ExportRecord record = new ExportRecord();
+        // partition timestamp, row count and file size triplets
+        private final LongList results = new LongList();
+        private int index;
+        private int partitionBy;
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (index + 3 < results.size()) {
+                index += 3;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public long size() {
+            return results.size() / 3;
+        }
+
+        @Override
+        public void toTop() {
+            index = -3;
+        }
+
+        private ExportCursor of(ParallelParquetExporter exporter) {
+            partitionBy = exporter.getPartitionBy();
+            results.clear();
+            for (int i = 0, n = exporter.getPartitionCount(); i < n; i++) {
+                results.add(exporter.getPartitionTimestamp(i));
+                results.add(exporter.getRowCount(i));
+                results.add(exporter.getFileSize(i));
+            }
+            toTop();
+            return this;
+        }
+
+        private class ExportRecord implements Record {
+            private final StringSink sinkA = new StringSink();
+            private final StringSink sinkB = new StringSink();
+
+            @Override
+            public long getLong(int col) {
+                // rows and size columns follow the partition timestamp in the triplet
+                return results.getQuick(index + col);
+            }
+
+            @Override
+            public CharSequence getStrA(int col) {
+                return partitionName(sinkA);
+            }
+
+            @Override
+            public CharSequence getStrB(int col) {
+                return partitionName(sinkB);
+            }
+
+            @Override
+            public int getStrLen(int col) {
+                return getStrA(col).length();
+            }
+
+            private CharSequence partitionName(StringSink sink) {
+                sink.clear();
+                PartitionBy.setSinkForPartition(sink, partitionBy, results.getQuick(index));
+                return sink;
+            }
+        }
+    }
+
+    static {
+        METADATA.add(new TableColumnMetadata("partition", ColumnType.STRING));
+        METADATA.add(new TableColumnMetadata("rows", ColumnType.LONG));
+        METADATA.add(new TableColumnMetadata("size", ColumnType.LONG));
+    }
+}
@@ -25,8 +25,10 @@
 package io.questdb.griffin.engine.orderby;
 
 import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.sql.PageAddressCacheRecord;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RowCursor;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryARW;
 import io.questdb.griffin.engine.AbstractRedBlackTree;
@@ -34,6 +36,7 @@ import io.questdb.griffin.engine.RecordComparator;
 import io.questdb.std.LongList;
 import io.questdb.std.MemoryTag;
 import io.questdb.std.Misc;
+import io.questdb.std.Rows;
 import io.questdb.std.str.Utf16Sink;
 import org.jetbrains.annotations.TestOnly;
 
@@ -175,7 +178,7 @@ public class LimitedSizeLongTreeChain extends AbstractRedBlackTree implements Re
      * to the ownedRecord with the max/min rowId.
      *
      * @param currentRecord record to insert into the tree
-     * @param sourceCursor  cursor to get record from
+     * @param sourceCursor  cursor to get record from, or null if row ids are page frame based
      * @param ownedRecord   record to store data in. This record is owned by the tree and it must not be rewinded externally.
      * @param comparator    comparator to compare records
      */
@@ -223,7 +226,7 @@ public class LimitedSizeLongTreeChain extends AbstractRedBlackTree implements Re
             parent = p;
             final long r = refOf(p);
             long rowId = valueChain.getLong(r);
-            sourceCursor.recordAt(ownedRecord, rowId);
+            recordAt(sourceCursor, ownedRecord, rowId);
             cmp = comparator.compare(ownedRecord);
             if (cmp < 0) {
                 p = leftOf(p);
@@ -254,6 +257,20 @@ public class LimitedSizeLongTreeChain extends AbstractRedBlackTree implements Re
         prepareComparatorLeftSideIfAtMaxCapacity(sourceCursor, ownedRecord, comparator);
     }
 
+    /**
+     * Same as {@link #put(Record, RecordCursor, Record, RecordComparator)}, but the tree
+     * is populated directly from page frames. Row ids are expected to be page frame
+     * based, so that no cursor is needed to position the owned record. This allows
+     * worker threads to populate their own trees in parallel.
+     */
+    public void put(
+            PageAddressCacheRecord currentRecord,
+            PageAddressCacheRecord ownedRecord,
+            RecordComparator comparator
+    ) {
+        put(currentRecord, null, ownedRecord, comparator);
+    }
+
     // remove node and put on freelist (if holds only one value in chain)
     public void removeAndCache(long node) {
         if (hasMoreThanOneValue(node)) {
@@ -275,6 +292,15 @@ public class LimitedSizeLongTreeChain extends AbstractRedBlackTree implements Re
         return currentValues;
     }
 
+    private static void recordAt(RecordCursor sourceCursor, Record record, long rowId) {
+        if (sourceCursor != null) {
+            sourceCursor.recordAt(record, rowId);
+        } else {
+            ((PageAddressCacheRecord) record).setFrameIndex(Rows.toPartitionIndex(rowId));
+            ((PageAddressCacheRecord) record).setRowIndex(Rows.toLocalRowID(rowId));
+        }
+    }
+
     private long appendValue(long value, long prevValueOffset) {
         final long offset = valueChain.getAppendOffset();
         valueChain.putLong128(value, prevValueOffset);
@@ -313,7 +339,7 @@ public class LimitedSizeLongTreeChain extends AbstractRedBlackTree implements Re
     private void prepareComparatorLeftSideIfAtMaxCapacity(RecordCursor sourceCursor, Record ownedRecord, RecordComparator comparator) {
         if (currentValues == maxValues) {
             assert minMaxRowId != -1;
-            sourceCursor.recordAt(ownedRecord, minMaxRowId);
+            recordAt(sourceCursor, ownedRecord, minMaxRowId);
             comparator.setLeft(ownedRecord);
         }
     }
@@ -424,7 +450,7 @@ public class LimitedSizeLongTreeChain extends AbstractRedBlackTree implements Re
         String toString(long rowid);
     }
 
-    public class TreeCursor {
+    public class TreeCursor implements RowCursor {
 
         private long chainCurrent;
         private long treeCurrent;
@@ -434,6 +460,7 @@ public class LimitedSizeLongTreeChain extends AbstractRedBlackTree implements Re
             chainCurrent = 0;
         }
 
+        @Override
         public boolean hasNext() {
             if (chainCurrent != -1) {
                 return true;
@@ -448,6 +475,7 @@ public class LimitedSizeLongTreeChain extends AbstractRedBlackTree implements Re
             return true;
         }
 
+        @Override
         public long next() {
             long result = chainCurrent;
             chainCurrent = valueChain.getLong(chainCurrent + 8);
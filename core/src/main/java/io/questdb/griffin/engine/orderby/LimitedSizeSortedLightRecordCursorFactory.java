@@ -249,7 +249,8 @@ public class LimitedSizeSortedLightRecordCursorFactory extends AbstractRecordCur
                 configuration.getSqlSortLightValuePageSize(),
                 configuration.getSqlSortLightValueMaxPages()
         );
-        this.cursor = new SortedLightRecordCursor(chain, comparator);
+        final SortLightSpill spill = configuration.isSqlSortSpillEnabled() ? new SortLightSpill(configuration, comparator) : null;
+        this.cursor = new SortedLightRecordCursor(chain, comparator, spill, configuration.getSqlSortSpillThreshold());
     }
 
     private boolean isInitialized() {
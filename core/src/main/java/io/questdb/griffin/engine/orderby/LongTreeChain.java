@@ -25,14 +25,17 @@
 package io.questdb.griffin.engine.orderby;
 
 import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.sql.PageAddressCacheRecord;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RowCursor;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryARW;
 import io.questdb.griffin.engine.AbstractRedBlackTree;
 import io.questdb.griffin.engine.RecordComparator;
 import io.questdb.std.MemoryTag;
 import io.questdb.std.Misc;
+import io.questdb.std.Rows;
 
 public class LongTreeChain extends AbstractRedBlackTree implements Reopenable {
     private final TreeCursor cursor = new TreeCursor();
@@ -61,6 +64,13 @@ public class LongTreeChain extends AbstractRedBlackTree implements Reopenable {
         return cursor;
     }
 
+    /**
+     * Returns the approximate number of bytes taken by the tree and the row ids.
+     */
+    public long getMemorySize() {
+        return mem.size() + valueChain.getAppendOffset();
+    }
+
     public void put(
             Record leftRecord,
             RecordCursor sourceCursor,
@@ -87,27 +97,53 @@ public class LongTreeChain extends AbstractRedBlackTree implements Reopenable {
             } else if (cmp > 0) {
                 ptr = rightOf(ptr);
             } else {
-                long oldChainEnd = lastRefOf(ptr);
-                long newChainEnd = appendValue(leftRecord.getRowId(), -1);
-                valueChain.putLong(oldChainEnd + Long.BYTES, newChainEnd);
-                setLastRef(ptr, newChainEnd);
+                appendToChain(ptr, leftRecord.getRowId());
                 return;
             }
         } while (ptr > -1);
 
-        ptr = allocateBlock();
-        setParent(ptr, parent);
-
-        long chainStart = appendValue(leftRecord.getRowId(), -1L);
-        setRef(ptr, chainStart);
-        setLastRef(ptr, chainStart);
+        putChild(parent, cmp, leftRecord.getRowId());
+    }
 
-        if (cmp < 0) {
-            setLeft(parent, ptr);
-        } else {
-            setRight(parent, ptr);
+    /**
+     * Same as {@link #put(Record, RecordCursor, Record, RecordComparator)}, but the tree
+     * is populated directly from page frames. Row ids are expected to be page frame
+     * based, i.e. to hold frame index and row index within the frame, so that no cursor
+     * is needed to position the right record. This allows worker threads to populate
+     * their own trees in parallel.
+     */
+    public void put(
+            PageAddressCacheRecord leftRecord,
+            PageAddressCacheRecord rightRecord,
+            RecordComparator comparator
+    ) {
+        if (root == -1) {
+            putParent(leftRecord.getRowId());
+            return;
         }
-        fixInsert(ptr);
+
+        comparator.setLeft(leftRecord);
+
+        long ptr = root;
+        long parent;
+        int cmp;
+        do {
+            parent = ptr;
+            final long rowId = valueChain.getLong(refOf(ptr));
+            rightRecord.setFrameIndex(Rows.toPartitionIndex(rowId));
+            rightRecord.setRowIndex(Rows.toLocalRowID(rowId));
+            cmp = comparator.compare(rightRecord);
+            if (cmp < 0) {
+                ptr = leftOf(ptr);
+            } else if (cmp > 0) {
+                ptr = rightOf(ptr);
+            } else {
+                appendToChain(ptr, leftRecord.getRowId());
+                return;
+            }
+        } while (ptr > -1);
+
+        putChild(parent, cmp, leftRecord.getRowId());
     }
 
     @Override
@@ -115,12 +151,35 @@ public class LongTreeChain extends AbstractRedBlackTree implements Reopenable {
         //nothing to do here
     }
 
+    private void appendToChain(long ptr, long value) {
+        long oldChainEnd = lastRefOf(ptr);
+        long newChainEnd = appendValue(value, -1);
+        valueChain.putLong(oldChainEnd + Long.BYTES, newChainEnd);
+        setLastRef(ptr, newChainEnd);
+    }
+
     private long appendValue(long value, long nextValueOffset) {
         final long offset = valueChain.getAppendOffset();
         valueChain.putLong128(value, nextValueOffset);
         return offset;
     }
 
+    private void putChild(long parent, int cmp, long value) {
+        long ptr = allocateBlock();
+        setParent(ptr, parent);
+
+        long chainStart = appendValue(value, -1L);
+        setRef(ptr, chainStart);
+        setLastRef(ptr, chainStart);
+
+        if (cmp < 0) {
+            setLeft(parent, ptr);
+        } else {
+            setRight(parent, ptr);
+        }
+        fixInsert(ptr);
+    }
+
     @Override
     protected void putParent(long value) {
         root = allocateBlock();
@@ -130,7 +189,7 @@ public class LongTreeChain extends AbstractRedBlackTree implements Reopenable {
         setParent(root, -1);
     }
 
-    public class TreeCursor {
+    public class TreeCursor implements RowCursor {
 
         private long chainCurrent;
         private long treeCurrent;
@@ -140,6 +199,7 @@ public class LongTreeChain extends AbstractRedBlackTree implements Reopenable {
             chainCurrent = -1;
         }
 
+        @Override
         public boolean hasNext() {
             if (chainCurrent != -1) {
                 return true;
@@ -154,6 +214,7 @@ public class LongTreeChain extends AbstractRedBlackTree implements Reopenable {
             return true;
         }
 
+        @Override
         public long next() {
             long result = chainCurrent;
             chainCurrent = valueChain.getLong(chainCurrent + Long.BYTES);
@@ -0,0 +1,288 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.LimitOverflowException;
+import io.questdb.griffin.engine.functions.SymbolFunction;
+import io.questdb.std.*;
+
+/**
+ * Sorts base cursor rows by a single fixed-width column. Each row is represented by
+ * a (key, rowId) pair, where the key is the column value encoded as an unsigned long
+ * that preserves the sort order. The pairs are sorted with the native LSD radix sort,
+ * which is stable, so rows with equal keys keep the base cursor order.
+ */
+class RadixSortLightRecordCursor implements DelegatingRecordCursor {
+    private final int columnIndex;
+    private final int columnType;
+    private final DirectLongList copy;
+    private final boolean descending;
+    private final DirectLongList entries;
+    private final long maxEntryCount;
+    private final CharSequenceIntHashMap symbolRanksByValue = new CharSequenceIntHashMap();
+    private final IntList symbolRanks = new IntList();
+    private final ObjList<String> symbolValues = new ObjList<>();
+    private RecordCursor base;
+    private Record baseRecord;
+    private SqlExecutionCircuitBreaker circuitBreaker;
+    private long entryCount;
+    private long entryIndex;
+    private boolean isOpen;
+    private boolean isSorted;
+
+    public RadixSortLightRecordCursor(
+            long initialCapacity,
+            long maxEntryCount,
+            int columnIndex,
+            int columnType,
+            boolean descending
+    ) {
+        try {
+            this.maxEntryCount = maxEntryCount;
+            this.columnIndex = columnIndex;
+            this.columnType = columnType;
+            this.descending = descending;
+            // each entry takes two longs
+            this.entries = new DirectLongList(2 * initialCapacity, MemoryTag.NATIVE_LONG_LIST);
+            this.copy = new DirectLongList(2 * initialCapacity, MemoryTag.NATIVE_LONG_LIST);
+            this.isOpen = true;
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    public static boolean isSupported(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.DOUBLE:
+            case ColumnType.SYMBOL:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            isOpen = false;
+            Misc.free(entries);
+            Misc.free(copy);
+            base = Misc.free(base);
+            baseRecord = null;
+            symbolValues.clear();
+            symbolRanks.clear();
+            symbolRanksByValue.clear();
+        }
+    }
+
+    @Override
+    public Record getRecord() {
+        return baseRecord;
+    }
+
+    @Override
+    public Record getRecordB() {
+        return base.getRecordB();
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return base.getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!isSorted) {
+            sort();
+            isSorted = true;
+        }
+        if (entryIndex < entryCount) {
+            base.recordAt(baseRecord, entries.get(2 * entryIndex + 1));
+            entryIndex++;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return base.newSymbolTable(columnIndex);
+    }
+
+    @Override
+    public void of(RecordCursor base, SqlExecutionContext executionContext) {
+        if (!isOpen) {
+            isOpen = true;
+            entries.reopen();
+            copy.reopen();
+        }
+
+        this.base = base;
+        baseRecord = base.getRecord();
+        circuitBreaker = executionContext.getCircuitBreaker();
+        isSorted = false;
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        base.recordAt(record, atRowId);
+    }
+
+    @Override
+    public long size() {
+        return base.size();
+    }
+
+    @Override
+    public void toTop() {
+        entryIndex = 0;
+    }
+
+    // Maps Numbers.compare(double, double) order onto unsigned long order: -Infinity goes first,
+    // while NaN and +Infinity go last and are equal to each other. Unlike Numbers.compare(),
+    // other values are compared exactly, without the tolerance.
+    private static long encodeDouble(double value) {
+        if (Numbers.isNull(value) && value != Double.NEGATIVE_INFINITY) {
+            return -1L;
+        }
+        // adding zero turns -0.0 into 0.0
+        final long bits = Double.doubleToLongBits(value + 0.0);
+        return bits < 0 ? ~bits : bits ^ Long.MIN_VALUE;
+    }
+
+    private static long encodeLong(long value) {
+        return value ^ Long.MIN_VALUE;
+    }
+
+    // non-table cursors, e.g. GROUP BY, expose their symbol columns as functions over the table's symbol table
+    private static StaticSymbolTable getStaticSymbolTable(SymbolTable symbolTable) {
+        if (symbolTable instanceof SymbolFunction) {
+            final StaticSymbolTable staticSymbolTable = ((SymbolFunction) symbolTable).getStaticSymbolTable();
+            assert staticSymbolTable != null;
+            return staticSymbolTable;
+        }
+        return (StaticSymbolTable) symbolTable;
+    }
+
+    private void add(long key, long rowId) {
+        if (entries.size() >= 2 * maxEntryCount) {
+            throw LimitOverflowException.instance().put("limit of ").put(maxEntryCount).put(" rows exceeded in radix sort");
+        }
+        entries.add(descending ? ~key : key);
+        entries.add(rowId);
+    }
+
+    private void buildSymbolRanks() {
+        symbolValues.clear();
+        symbolRanks.clear();
+        symbolRanksByValue.clear();
+
+        final StaticSymbolTable symbolTable = getStaticSymbolTable(base.getSymbolTable(columnIndex));
+        final int symbolCount = symbolTable.getSymbolCount();
+        for (int i = 0; i < symbolCount; i++) {
+            symbolValues.add(Chars.toString(symbolTable.valueOf(i)));
+        }
+        for (int i = 0; i < symbolCount; i++) {
+            symbolRanks.add(i);
+        }
+        // rank symbol keys by their values, it's what the comparator uses
+        symbolValues.sort(Chars::compare);
+        for (int i = 0; i < symbolCount; i++) {
+            symbolRanksByValue.put(symbolValues.getQuick(i), i);
+        }
+        for (int i = 0; i < symbolCount; i++) {
+            symbolRanks.setQuick(i, symbolRanksByValue.get(symbolTable.valueOf(i)));
+        }
+    }
+
+    private void collectEntries() {
+        final Record record = baseRecord;
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.INT:
+                while (base.hasNext()) {
+                    circuitBreaker.statefulThrowExceptionIfTripped();
+                    add(encodeLong(record.getInt(columnIndex)), record.getRowId());
+                }
+                break;
+            case ColumnType.LONG:
+                while (base.hasNext()) {
+                    circuitBreaker.statefulThrowExceptionIfTripped();
+                    add(encodeLong(record.getLong(columnIndex)), record.getRowId());
+                }
+                break;
+            case ColumnType.DATE:
+                while (base.hasNext()) {
+                    circuitBreaker.statefulThrowExceptionIfTripped();
+                    add(encodeLong(record.getDate(columnIndex)), record.getRowId());
+                }
+                break;
+            case ColumnType.TIMESTAMP:
+                while (base.hasNext()) {
+                    circuitBreaker.statefulThrowExceptionIfTripped();
+                    add(encodeLong(record.getTimestamp(columnIndex)), record.getRowId());
+                }
+                break;
+            case ColumnType.DOUBLE:
+                while (base.hasNext()) {
+                    circuitBreaker.statefulThrowExceptionIfTripped();
+                    add(encodeDouble(record.getDouble(columnIndex)), record.getRowId());
+                }
+                break;
+            case ColumnType.SYMBOL:
+                buildSymbolRanks();
+                while (base.hasNext()) {
+                    circuitBreaker.statefulThrowExceptionIfTripped();
+                    final int key = record.getInt(columnIndex);
+                    // null sorts first, same as in Chars.compare()
+                    final int rank = key != SymbolTable.VALUE_IS_NULL ? symbolRanks.getQuick(key) : -1;
+                    add(encodeLong(rank), record.getRowId());
+                }
+                break;
+            default:
+                throw new UnsupportedOperationException();
+        }
+    }
+
+    private void sort() {
+        entries.clear();
+        collectEntries();
+        entryCount = entries.size() / 2;
+        if (entryCount > 1) {
+            copy.setCapacity(entries.size());
+            Vect.radixSortLongIndexAscInPlace(entries.getAddress(), entryCount, copy.getAddress());
+        }
+        toTop();
+    }
+}
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ListColumnFilter;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+
+/**
+ * Light sort by a single INT, LONG, DATE, TIMESTAMP, DOUBLE or SYMBOL column.
+ * Unlike {@link SortedLightRecordCursorFactory}, rows are not inserted into a tree,
+ * but sorted with a radix sort on (key, rowId) pairs stored off-heap.
+ */
+public class RadixSortLightRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final RecordCursorFactory base;
+    private final RadixSortLightRecordCursor cursor;
+    private final ListColumnFilter sortColumnFilter;
+
+    public RadixSortLightRecordCursorFactory(
+            CairoConfiguration configuration,
+            RecordMetadata metadata,
+            RecordCursorFactory base,
+            ListColumnFilter sortColumnFilter
+    ) {
+        super(metadata);
+        assert sortColumnFilter.size() == 1;
+        final int columnIndex = sortColumnFilter.getColumnIndexFactored(0);
+        final int columnType = base.getMetadata().getColumnType(columnIndex);
+        assert RadixSortLightRecordCursor.isSupported(columnType);
+        // each entry takes 16 bytes, same as a tree chain value, so we use the same memory limits
+        final long pageSize = configuration.getSqlSortLightValuePageSize();
+        final long maxEntryCount = Math.max(1, pageSize / 16) * configuration.getSqlSortLightValueMaxPages();
+        this.base = base;
+        this.cursor = new RadixSortLightRecordCursor(
+                Math.max(1, pageSize / 16),
+                maxEntryCount,
+                columnIndex,
+                columnType,
+                sortColumnFilter.getColumnIndex(0) < 0
+        );
+        this.sortColumnFilter = sortColumnFilter;
+    }
+
+    public static boolean isSupported(RecordMetadata metadata, ListColumnFilter sortColumnFilter) {
+        if (sortColumnFilter.size() != 1) {
+            return false;
+        }
+        final int columnIndex = sortColumnFilter.getColumnIndexFactored(0);
+        final int columnType = metadata.getColumnType(columnIndex);
+        if (ColumnType.isSymbol(columnType) && !metadata.isSymbolTableStatic(columnIndex)) {
+            // symbol ranks are built from the whole symbol table
+            return false;
+        }
+        return RadixSortLightRecordCursor.isSupported(columnType);
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        RecordCursor baseCursor = base.getCursor(executionContext);
+        try {
+            cursor.of(baseCursor, executionContext);
+            return cursor;
+        } catch (Throwable ex) {
+            baseCursor.close();
+            cursor.close();
+            throw ex;
+        }
+    }
+
+    @Override
+    public int getScanDirection() {
+        return SortedRecordCursorFactory.getScanDirection(sortColumnFilter);
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return true;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Radix sort light");
+        SortedLightRecordCursorFactory.addSortKeys(sink, sortColumnFilter);
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    @Override
+    public boolean usesIndex() {
+        return base.usesIndex();
+    }
+
+    @Override
+    protected void _close() {
+        base.close();
+        cursor.close();
+    }
+}
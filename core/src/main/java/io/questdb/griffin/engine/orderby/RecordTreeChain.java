@@ -97,6 +97,13 @@ public class RecordTreeChain implements Closeable, Mutable, Reopenable {
         return cursor;
     }
 
+    /**
+     * Returns the approximate number of bytes taken by the tree and the records.
+     */
+    public long getMemorySize() {
+        return mem.size() + recordChain.getMemorySize();
+    }
+
     public void put(Record record) {
         if (root == -1) {
             putParent(record);
@@ -0,0 +1,237 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.vm.MemoryCMARWImpl;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sorted runs of {@link SortedLightRecordCursor} written to memory-mapped files. Each run holds
+ * base cursor row ids in the sort order. The runs are merged with a loser tree, same as in
+ * {@link SortSpill}, while the sort keys are read from the base cursor records positioned at
+ * the run heads. Rows with equal sort keys are emitted in the run order, i.e. in the input order.
+ * <p>
+ * Base cursor records A and B are used for the comparisons, so they are repositioned by {@link #hasNext()}.
+ */
+class SortLightSpill implements Mutable, QuietCloseable {
+    private static final Log LOG = LogFactory.getLog(SortLightSpill.class);
+    private static final AtomicLong SPILL_ID = new AtomicLong();
+    private final RecordComparator comparator;
+    private final long extendSegmentSize;
+    private final FilesFacade ff;
+    // row id at the head of each run, -1 once the run is exhausted
+    private final LongList heads = new LongList();
+    private final ObjList<MemoryCMARWImpl> mems = new ObjList<>();
+    private final int mkDirMode;
+    private final LongList offsets = new LongList();
+    private final CharSequence root;
+    private final LongList sizes = new LongList();
+    // tree[0] holds the current winner run, tree[1..runCount-1] hold losers
+    private final IntList tree = new IntList();
+    private RecordCursor base;
+    private long id = -1; // -1 means that nothing was spilled so far
+    private int runCount;
+    private int winner = -1;
+
+    public SortLightSpill(@NotNull CairoConfiguration configuration, @NotNull RecordComparator comparator) {
+        this.ff = configuration.getFilesFacade();
+        this.mkDirMode = configuration.getMkDirMode();
+        this.root = configuration.getSqlSpillRoot();
+        this.extendSegmentSize = configuration.getSqlSortLightValuePageSize();
+        this.comparator = comparator;
+    }
+
+    @Override
+    public void clear() {
+        if (id != -1) {
+            LOG.info().$("removing sort light spill files [id=").$(id).$(", runs=").$(runCount).I$();
+            final Path path = Path.getThreadLocal(root);
+            final int plen = path.size();
+            for (int i = 0; i < runCount; i++) {
+                mems.getQuick(i).close();
+                ff.removeQuiet(runPath(path.trimTo(plen), i));
+            }
+            id = -1;
+            runCount = 0;
+            winner = -1;
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.freeObjListAndClear(mems);
+        base = null;
+    }
+
+    public boolean hasNext() {
+        if (winner != -1) {
+            advance(winner);
+            adjust(winner);
+        }
+        final int run = tree.getQuick(0);
+        if (heads.getQuick(run) == -1) {
+            winner = -1;
+            return false;
+        }
+        winner = run;
+        return true;
+    }
+
+    public boolean isActive() {
+        return id != -1;
+    }
+
+    /**
+     * Returns row id of the current row, i.e. of the last {@link #hasNext()} winner.
+     */
+    public long next() {
+        return heads.getQuick(winner);
+    }
+
+    public void of(RecordCursor base) {
+        this.base = base;
+        clear();
+    }
+
+    /**
+     * Writes row ids of the given tree chain to a new run file.
+     */
+    public void spill(LongTreeChain.TreeCursor chainCursor, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (id == -1) {
+            open();
+        }
+        final int run = runCount;
+        if (mems.size() == run) {
+            mems.add(new MemoryCMARWImpl());
+        }
+        final Path path = Path.getThreadLocal(root);
+        final MemoryCMARWImpl mem = mems.getQuick(run);
+        mem.of(ff, runPath(path, run), extendSegmentSize, 0, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE, -1);
+        runCount++;
+
+        chainCursor.toTop();
+        while (chainCursor.hasNext()) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            mem.putLong(chainCursor.next());
+        }
+        sizes.extendAndSet(run, mem.getAppendOffset());
+    }
+
+    /**
+     * Positions the runs at their first row ids and builds the loser tree. Must be called
+     * once all runs are written.
+     */
+    public void toTop() {
+        heads.setPos(runCount);
+        offsets.setPos(runCount);
+        tree.setPos(runCount);
+        for (int i = 0; i < runCount; i++) {
+            offsets.setQuick(i, 0);
+            advance(i);
+            // -1 is a sentinel that wins over any run
+            tree.setQuick(i, -1);
+        }
+        for (int i = runCount - 1; i > -1; i--) {
+            adjust(i);
+        }
+        winner = -1;
+    }
+
+    /**
+     * Replays the path from the given run's leaf to the root, leaving losers
+     * in the internal nodes and the overall winner in tree[0].
+     */
+    private void adjust(int run) {
+        int winner = run;
+        for (int node = (run + runCount) >> 1; node > 0; node >>= 1) {
+            final int contender = tree.getQuick(node);
+            if (isLess(contender, winner)) {
+                tree.setQuick(node, winner);
+                winner = contender;
+            }
+        }
+        tree.setQuick(0, winner);
+    }
+
+    private void advance(int run) {
+        final long offset = offsets.getQuick(run);
+        if (offset < sizes.getQuick(run)) {
+            heads.setQuick(run, mems.getQuick(run).getLong(offset));
+            offsets.setQuick(run, offset + Long.BYTES);
+        } else {
+            heads.setQuick(run, -1);
+        }
+    }
+
+    private boolean isLess(int runA, int runB) {
+        if (runA == -1) {
+            return true;
+        }
+        if (runB == -1) {
+            return false;
+        }
+        final long rowIdA = heads.getQuick(runA);
+        final long rowIdB = heads.getQuick(runB);
+        if (rowIdA == -1) {
+            return false;
+        }
+        if (rowIdB == -1) {
+            return true;
+        }
+        final Record left = base.getRecord();
+        final Record right = base.getRecordB();
+        base.recordAt(left, rowIdA);
+        comparator.setLeft(left);
+        base.recordAt(right, rowIdB);
+        final int cmp = comparator.compare(right);
+        return cmp < 0 || (cmp == 0 && runA < runB);
+    }
+
+    private void open() {
+        final Path path = Path.getThreadLocal(root).slash();
+        if (!ff.exists(path.$()) && ff.mkdirs(path, mkDirMode) != 0) {
+            throw CairoException.critical(ff.errno()).put("could not create spill directory [path=").put(path).put(']');
+        }
+        id = SPILL_ID.incrementAndGet();
+        LOG.info().$("spilling sort light to disk [id=").$(id).$(", path=").$(path).I$();
+    }
+
+    private Path runPath(Path path, int run) {
+        return path.concat("sort_light_").put(id).put('_').put(run).put(".s").$();
+    }
+}
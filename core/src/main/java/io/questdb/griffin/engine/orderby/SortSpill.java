@@ -0,0 +1,355 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordChain;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.sql.DelegatingRecord;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.vm.MemoryCMARWImpl;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8Sequence;
+import io.questdb.std.str.Utf8StringSink;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sorted runs of {@link SortedRecordCursor} written to memory-mapped files. Each run is a
+ * {@link RecordChain} over its own file, records are chained in the sort order. The runs
+ * are merged with a loser tree, so that each output row costs log2(runCount) comparisons.
+ * Rows with equal sort keys are emitted in the run order, i.e. in the input order.
+ * <p>
+ * Records returned by this class are stable, i.e. they delegate to the in-memory tree chain
+ * until the first run is written and to the run records afterwards. Row ids encode run index
+ * and record offset within the run.
+ */
+class SortSpill implements Mutable, QuietCloseable {
+    private static final Log LOG = LogFactory.getLog(SortSpill.class);
+    private static final AtomicLong SPILL_ID = new AtomicLong();
+    private final ColumnTypes columnTypes;
+    private final RecordComparator comparator;
+    private final long extendSegmentSize;
+    private final FilesFacade ff;
+    private final LongList heads = new LongList();
+    private final LeftRecord leftRecord = new LeftRecord();
+    private final ObjList<MemoryCMARWImpl> mems = new ObjList<>();
+    private final int mkDirMode;
+    private final SpillRecord recordA = new SpillRecord();
+    private final SpillRecord recordB = new SpillRecord();
+    private final RecordSink recordSink;
+    private final CharSequence root;
+    private final ObjList<RecordChain> runs = new ObjList<>();
+    // tree[0] holds the current winner run, tree[1..runCount-1] hold losers
+    private final IntList tree = new IntList();
+    private long id = -1; // -1 means that nothing was spilled so far
+    private RecordTreeChain.TreeCursor inMemoryCursor;
+    private int runCount;
+    private int winner = -1;
+
+    public SortSpill(
+            @NotNull CairoConfiguration configuration,
+            @NotNull ColumnTypes columnTypes,
+            @NotNull RecordSink recordSink,
+            @NotNull RecordComparator comparator
+    ) {
+        this.ff = configuration.getFilesFacade();
+        this.mkDirMode = configuration.getMkDirMode();
+        this.root = configuration.getSqlSpillRoot();
+        this.extendSegmentSize = configuration.getSqlSortValuePageSize();
+        this.columnTypes = columnTypes;
+        this.recordSink = recordSink;
+        this.comparator = comparator;
+    }
+
+    @Override
+    public void clear() {
+        if (id != -1) {
+            LOG.info().$("removing sort spill files [id=").$(id).$(", runs=").$(runCount).I$();
+            final Path path = Path.getThreadLocal(root);
+            final int plen = path.size();
+            for (int i = 0; i < runCount; i++) {
+                // clearing the chain closes its memory
+                runs.getQuick(i).clear();
+                ff.removeQuiet(runPath(path.trimTo(plen), i));
+            }
+            id = -1;
+            runCount = 0;
+            winner = -1;
+        }
+        if (inMemoryCursor != null) {
+            recordA.of(-1, inMemoryCursor.getRecord());
+            recordB.of(-1, inMemoryCursor.getRecordB());
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.freeObjListAndClear(runs);
+        mems.clear();
+    }
+
+    public Record getRecord() {
+        return recordA;
+    }
+
+    public Record getRecordB() {
+        return recordB;
+    }
+
+    public boolean hasNext() {
+        if (winner != -1) {
+            advance(winner);
+            adjust(winner);
+        }
+        final int run = tree.getQuick(0);
+        if (heads.getQuick(run) == -1) {
+            winner = -1;
+            return false;
+        }
+        winner = run;
+        recordA.of(run, runs.getQuick(run).getRecord());
+        return true;
+    }
+
+    public boolean isActive() {
+        return id != -1;
+    }
+
+    public void of(RecordTreeChain.TreeCursor inMemoryCursor) {
+        this.inMemoryCursor = inMemoryCursor;
+        clear();
+    }
+
+    public void recordAt(Record record, long atRowId) {
+        final SpillRecord spillRecord = (SpillRecord) record;
+        if (id == -1) {
+            inMemoryCursor.recordAt(spillRecord.getBase(), atRowId);
+            return;
+        }
+        final int run = Rows.toPartitionIndex(atRowId);
+        Record runRecord = spillRecord.runRecords.getQuiet(run);
+        if (runRecord == null) {
+            runRecord = runs.getQuick(run).newRecord();
+            spillRecord.runRecords.extendAndSet(run, runRecord);
+        }
+        runs.getQuick(run).recordAt(runRecord, Rows.toLocalRowID(atRowId));
+        spillRecord.of(run, runRecord);
+    }
+
+    /**
+     * Writes records of the given sorted cursor to a new run file.
+     */
+    public void spill(RecordCursor sortedCursor, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (id == -1) {
+            open();
+        }
+        final int run = runCount;
+        if (runs.size() == run) {
+            final MemoryCMARWImpl mem = new MemoryCMARWImpl();
+            mems.add(mem);
+            runs.add(new RecordChain(columnTypes, recordSink, mem));
+        }
+        final Path path = Path.getThreadLocal(root);
+        mems.getQuick(run).of(ff, runPath(path, run), extendSegmentSize, 0, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE, -1);
+        runCount++;
+
+        final RecordChain chain = runs.getQuick(run);
+        final Record record = sortedCursor.getRecord();
+        sortedCursor.toTop();
+        long offset = -1;
+        while (sortedCursor.hasNext()) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            offset = chain.put(record, offset);
+        }
+    }
+
+    /**
+     * Positions the runs at their first records and builds the loser tree. Must be called
+     * once all runs are written.
+     */
+    public void toTop(SymbolTableSource symbolTableSource) {
+        heads.setPos(runCount);
+        tree.setPos(runCount);
+        for (int i = 0; i < runCount; i++) {
+            final RecordChain chain = runs.getQuick(i);
+            chain.setSymbolTableResolver(symbolTableSource);
+            chain.toTop();
+            advance(i);
+            // -1 is a sentinel that wins over any run
+            tree.setQuick(i, -1);
+        }
+        for (int i = runCount - 1; i > -1; i--) {
+            adjust(i);
+        }
+        winner = -1;
+    }
+
+    /**
+     * Replays the path from the given run's leaf to the root, leaving losers
+     * in the internal nodes and the overall winner in tree[0].
+     */
+    private void adjust(int run) {
+        int winner = run;
+        for (int node = (run + runCount) >> 1; node > 0; node >>= 1) {
+            final int contender = tree.getQuick(node);
+            if (isLess(contender, winner)) {
+                tree.setQuick(node, winner);
+                winner = contender;
+            }
+        }
+        tree.setQuick(0, winner);
+    }
+
+    private void advance(int run) {
+        final RecordChain chain = runs.getQuick(run);
+        if (chain.hasNext()) {
+            heads.setQuick(run, chain.getRecord().getRowId());
+        } else {
+            heads.setQuick(run, -1);
+        }
+    }
+
+    private boolean isLess(int runA, int runB) {
+        if (runA == -1) {
+            return true;
+        }
+        if (runB == -1) {
+            return false;
+        }
+        if (heads.getQuick(runA) == -1) {
+            return false;
+        }
+        if (heads.getQuick(runB) == -1) {
+            return true;
+        }
+        leftRecord.of(runs.getQuick(runA).getRecord());
+        comparator.setLeft(leftRecord);
+        final int cmp = comparator.compare(runs.getQuick(runB).getRecord());
+        return cmp < 0 || (cmp == 0 && runA < runB);
+    }
+
+    private void open() {
+        final Path path = Path.getThreadLocal(root).slash();
+        if (!ff.exists(path.$()) && ff.mkdirs(path, mkDirMode) != 0) {
+            throw CairoException.critical(ff.errno()).put("could not create spill directory [path=").put(path).put(']');
+        }
+        id = SPILL_ID.incrementAndGet();
+        LOG.info().$("spilling sort to disk [id=").$(id).$(", path=").$(path).I$();
+    }
+
+    private Path runPath(Path path, int run) {
+        return path.concat("sort_").put(id).put('_').put(run).put(".s").$();
+    }
+
+    /**
+     * Copies var-size values of the left-hand record, since the comparator keeps references
+     * to all of them, while chain records share a single flyweight per memory.
+     */
+    private static class LeftRecord extends DelegatingRecord {
+        private final ObjList<Long256Impl> long256s = new ObjList<>();
+        private final ObjList<StringSink> strings = new ObjList<>();
+        private final ObjList<Utf8StringSink> varchars = new ObjList<>();
+
+        @Override
+        public Long256 getLong256B(int col) {
+            Long256Impl value = long256s.getQuiet(col);
+            if (value == null) {
+                long256s.extendAndSet(col, value = new Long256Impl());
+            }
+            value.copyFrom(base.getLong256B(col));
+            return value;
+        }
+
+        @Override
+        public CharSequence getStrB(int col) {
+            return copyOf(base.getStrB(col), col);
+        }
+
+        @Override
+        public CharSequence getSymB(int col) {
+            return copyOf(base.getSymB(col), col);
+        }
+
+        @Override
+        public Utf8Sequence getVarcharB(int col) {
+            final Utf8Sequence value = base.getVarcharB(col);
+            if (value == null) {
+                return null;
+            }
+            Utf8StringSink sink = varchars.getQuiet(col);
+            if (sink == null) {
+                varchars.extendAndSet(col, sink = new Utf8StringSink());
+            }
+            sink.clear();
+            sink.put(value);
+            return sink;
+        }
+
+        private CharSequence copyOf(CharSequence value, int col) {
+            if (value == null) {
+                return null;
+            }
+            StringSink sink = strings.getQuiet(col);
+            if (sink == null) {
+                strings.extendAndSet(col, sink = new StringSink());
+            }
+            sink.clear();
+            sink.put(value);
+            return sink;
+        }
+    }
+
+    private static class SpillRecord extends DelegatingRecord {
+        private final ObjList<Record> runRecords = new ObjList<>();
+        private int run = -1;
+
+        @Override
+        public long getRowId() {
+            return run == -1 ? base.getRowId() : Rows.toRowID(run, base.getRowId());
+        }
+
+        private Record getBase() {
+            return base;
+        }
+
+        private void of(int run, Record base) {
+            this.run = run;
+            of(base);
+        }
+    }
+}
@@ -34,15 +34,19 @@ class SortedLightRecordCursor implements DelegatingRecordCursor {
     private final LongTreeChain chain;
     private final LongTreeChain.TreeCursor chainCursor;
     private final RecordComparator comparator;
+    private final SortLightSpill spill;
+    private final long spillThreshold;
     private RecordCursor base;
     private Record baseRecord;
     private SqlExecutionCircuitBreaker circuitBreaker;
     private boolean isChainBuilt;
     private boolean isOpen;
 
-    public SortedLightRecordCursor(LongTreeChain chain, RecordComparator comparator) {
+    public SortedLightRecordCursor(LongTreeChain chain, RecordComparator comparator, SortLightSpill spill, long spillThreshold) {
         this.chain = chain;
         this.comparator = comparator;
+        this.spill = spill;
+        this.spillThreshold = spillThreshold;
         // assign it once, it's the same instance anyway
         this.chainCursor = chain.getCursor();
         this.isOpen = true;
@@ -53,6 +57,7 @@ class SortedLightRecordCursor implements DelegatingRecordCursor {
         if (isOpen) {
             isOpen = false;
             Misc.free(chain);
+            Misc.free(spill);
             base = Misc.free(base);
             baseRecord = null;
         }
@@ -79,6 +84,13 @@ class SortedLightRecordCursor implements DelegatingRecordCursor {
             buildChain();
             isChainBuilt = true;
         }
+        if (spill != null && spill.isActive()) {
+            if (spill.hasNext()) {
+                base.recordAt(baseRecord, spill.next());
+                return true;
+            }
+            return false;
+        }
         if (chainCursor.hasNext()) {
             base.recordAt(baseRecord, chainCursor.next());
             return true;
@@ -100,6 +112,9 @@ class SortedLightRecordCursor implements DelegatingRecordCursor {
 
         this.base = base;
         baseRecord = base.getRecord();
+        if (spill != null) {
+            spill.of(base);
+        }
         circuitBreaker = executionContext.getCircuitBreaker();
         isChainBuilt = false;
     }
@@ -116,7 +131,11 @@ class SortedLightRecordCursor implements DelegatingRecordCursor {
 
     @Override
     public void toTop() {
-        chainCursor.toTop();
+        if (spill != null && spill.isActive()) {
+            spill.toTop();
+        } else {
+            chainCursor.toTop();
+        }
     }
 
     private void buildChain() {
@@ -133,6 +152,15 @@ class SortedLightRecordCursor implements DelegatingRecordCursor {
                     placeHolderRecord,
                     comparator
             );
+            if (spill != null && chain.getMemorySize() >= spillThreshold) {
+                spill.spill(chainCursor, circuitBreaker);
+                chain.clear();
+            }
+        }
+        if (spill != null && spill.isActive()) {
+            // the remaining rows go to disk too, so that the merge deals with runs only
+            spill.spill(chainCursor, circuitBreaker);
+            chain.clear();
         }
         toTop();
     }
@@ -55,7 +55,8 @@ public class SortedLightRecordCursorFactory extends AbstractRecordCursorFactory
                 configuration.getSqlSortLightValueMaxPages()
         );
         this.base = base;
-        this.cursor = new SortedLightRecordCursor(chain, comparator);
+        final SortLightSpill spill = configuration.isSqlSortSpillEnabled() ? new SortLightSpill(configuration, comparator) : null;
+        this.cursor = new SortedLightRecordCursor(chain, comparator, spill, configuration.getSqlSortSpillThreshold());
         this.sortColumnFilter = sortColumnFilter;
     }
 
@@ -31,14 +31,18 @@ import io.questdb.std.Misc;
 
 class SortedRecordCursor implements DelegatingRecordCursor {
     private final RecordTreeChain chain;
+    private final SortSpill spill;
+    private final long spillThreshold;
     private RecordCursor base;
     private RecordTreeChain.TreeCursor chainCursor;
     private SqlExecutionCircuitBreaker circuitBreaker;
     private boolean isChainBuilt;
     private boolean isOpen;
 
-    public SortedRecordCursor(RecordTreeChain chain) {
+    public SortedRecordCursor(RecordTreeChain chain, SortSpill spill, long spillThreshold) {
         this.chain = chain;
+        this.spill = spill;
+        this.spillThreshold = spillThreshold;
         this.isOpen = true;
     }
 
@@ -48,18 +52,19 @@ class SortedRecordCursor implements DelegatingRecordCursor {
             isOpen = false;
             Misc.free(chainCursor); // this call also closes base
             Misc.free(chain);
+            Misc.free(spill);
             base = null;
         }
     }
 
     @Override
     public Record getRecord() {
-        return chainCursor.getRecord();
+        return spill != null ? spill.getRecord() : chainCursor.getRecord();
     }
 
     @Override
     public Record getRecordB() {
-        return chainCursor.getRecordB();
+        return spill != null ? spill.getRecordB() : chainCursor.getRecordB();
     }
 
     @Override
@@ -73,6 +78,9 @@ class SortedRecordCursor implements DelegatingRecordCursor {
             buildChain();
             isChainBuilt = true;
         }
+        if (spill != null && spill.isActive()) {
+            return spill.hasNext();
+        }
         return chainCursor.hasNext();
     }
 
@@ -90,13 +98,20 @@ class SortedRecordCursor implements DelegatingRecordCursor {
 
         this.base = base;
         chainCursor = chain.getCursor(base);
+        if (spill != null) {
+            spill.of(chainCursor);
+        }
         circuitBreaker = executionContext.getCircuitBreaker();
         isChainBuilt = false;
     }
 
     @Override
     public void recordAt(Record record, long atRowId) {
-        chainCursor.recordAt(record, atRowId);
+        if (spill != null) {
+            spill.recordAt(record, atRowId);
+        } else {
+            chainCursor.recordAt(record, atRowId);
+        }
     }
 
     @Override
@@ -106,7 +121,11 @@ class SortedRecordCursor implements DelegatingRecordCursor {
 
     @Override
     public void toTop() {
-        chainCursor.toTop();
+        if (spill != null && spill.isActive()) {
+            spill.toTop(base);
+        } else {
+            chainCursor.toTop();
+        }
     }
 
     private void buildChain() {
@@ -118,6 +137,15 @@ class SortedRecordCursor implements DelegatingRecordCursor {
             // own record instance in case base cursor keeps
             // state in the record it returns.
             chain.put(record);
+            if (spill != null && chain.getMemorySize() >= spillThreshold) {
+                spill.spill(chainCursor, circuitBreaker);
+                chain.clear();
+            }
+        }
+        if (spill != null && spill.isActive()) {
+            // the remaining rows go to disk too, so that the merge deals with runs only
+            spill.spill(chainCursor, circuitBreaker);
+            chain.clear();
         }
         toTop();
     }
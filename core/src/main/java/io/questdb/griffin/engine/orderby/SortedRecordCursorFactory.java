@@ -62,7 +62,8 @@ public class SortedRecordCursorFactory extends AbstractRecordCursorFactory {
                 configuration.getSqlSortValueMaxPages()
         );
         this.base = base;
-        this.cursor = new SortedRecordCursor(chain);
+        final SortSpill spill = configuration.isSqlSortSpillEnabled() ? new SortSpill(configuration, metadata, recordSink, comparator) : null;
+        this.cursor = new SortedRecordCursor(chain, spill, configuration.getSqlSortSpillThreshold());
         this.sortColumnFilter = sortColumnFilter;
     }
 
@@ -118,7 +119,7 @@ public class SortedRecordCursorFactory extends AbstractRecordCursorFactory {
         }
     }
 
-    static int getScanDirection(ListColumnFilter sortColumnFilter) {
+    public static int getScanDirection(ListColumnFilter sortColumnFilter) {
         assert sortColumnFilter.size() > 0;
 
         return toOrder(sortColumnFilter.get(0));
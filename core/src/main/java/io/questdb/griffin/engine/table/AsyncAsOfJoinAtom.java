@@ -0,0 +1,247 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.Plannable;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.jit.CompiledFilter;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.griffin.engine.table.AsyncJitFilteredRecordCursorFactory.prepareBindVarMemory;
+
+/**
+ * Holds slave page frame addresses and the stolen master filter of parallel ASOF JOIN.
+ * <p>
+ * Slave page frames are mapped by the query owner thread before any master page frame
+ * is dispatched. After that, workers look up slave rows by searching the slave designated
+ * timestamp column in memory, so they never touch the slave table reader.
+ * <p>
+ * Slave rows are referenced by {@link Rows#toRowID(int, long)} values built from slave
+ * page frame indexes and row indexes within the frames.
+ */
+public class AsyncAsOfJoinAtom implements StatefulAtom, Plannable {
+    private final ObjList<Function> bindVarFunctions;
+    private final MemoryCARW bindVarMemory;
+    private final CompiledFilter compiledFilter;
+    private final Function filter;
+    private final int lookahead;
+    private final int masterTimestampIndex;
+    private final PageAddressCache slaveAddressCache;
+    private final LongList slaveFrameRowCounts = new LongList();
+    // first timestamps of slave page frames
+    private final LongList slaveFrameTimestamps = new LongList();
+    private final int slaveTimestampIndex;
+    private int slaveFrameCount;
+
+    public AsyncAsOfJoinAtom(
+            @NotNull CairoConfiguration configuration,
+            int masterTimestampIndex,
+            int slaveTimestampIndex,
+            @Nullable CompiledFilter compiledFilter,
+            @Nullable MemoryCARW bindVarMemory,
+            @Nullable ObjList<Function> bindVarFunctions,
+            @Nullable Function filter
+    ) {
+        this.masterTimestampIndex = masterTimestampIndex;
+        this.slaveTimestampIndex = slaveTimestampIndex;
+        this.compiledFilter = compiledFilter;
+        this.bindVarMemory = bindVarMemory;
+        this.bindVarFunctions = bindVarFunctions;
+        // only thread-safe filters are stolen, so there are no per-worker filter copies
+        this.filter = filter;
+        this.lookahead = configuration.getSqlAsOfJoinLookAhead();
+        this.slaveAddressCache = new PageAddressCache(configuration);
+    }
+
+    @Override
+    public void clear() {
+        slaveAddressCache.clear();
+        slaveFrameRowCounts.clear();
+        slaveFrameTimestamps.clear();
+        slaveFrameCount = 0;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.free(compiledFilter);
+        Misc.free(bindVarMemory);
+        Misc.freeObjList(bindVarFunctions);
+        Misc.free(filter);
+    }
+
+    /**
+     * Finds the last slave row with the timestamp less or equal to the given one.
+     *
+     * @return slave row reference or -1 if all slave rows are after the timestamp
+     */
+    public long findSlaveRow(long timestamp) {
+        // the last frame starting at or before the timestamp
+        int frameLo = 0;
+        int frameHi = slaveFrameCount - 1;
+        int frameIndex = -1;
+        while (frameLo <= frameHi) {
+            final int mid = (frameLo + frameHi) >>> 1;
+            if (slaveFrameTimestamps.getQuick(mid) <= timestamp) {
+                frameIndex = mid;
+                frameLo = mid + 1;
+            } else {
+                frameHi = mid - 1;
+            }
+        }
+        if (frameIndex == -1) {
+            return -1;
+        }
+
+        // the first row of the frame is known to match, so look for the last one
+        final long timestampAddress = slaveAddressCache.getPageAddress(frameIndex, slaveTimestampIndex);
+        long rowLo = 1;
+        long rowHi = slaveFrameRowCounts.getQuick(frameIndex) - 1;
+        long row = 0;
+        while (rowLo <= rowHi) {
+            final long mid = (rowLo + rowHi) >>> 1;
+            if (Unsafe.getUnsafe().getLong(timestampAddress + (mid << 3)) <= timestamp) {
+                row = mid;
+                rowLo = mid + 1;
+            } else {
+                rowHi = mid - 1;
+            }
+        }
+        return Rows.toRowID(frameIndex, row);
+    }
+
+    public ObjList<Function> getBindVarFunctions() {
+        return bindVarFunctions;
+    }
+
+    public MemoryCARW getBindVarMemory() {
+        return bindVarMemory;
+    }
+
+    public CompiledFilter getCompiledFilter() {
+        return compiledFilter;
+    }
+
+    public Function getFilter() {
+        return filter;
+    }
+
+    public int getMasterTimestampIndex() {
+        return masterTimestampIndex;
+    }
+
+    public PageAddressCache getSlaveAddressCache() {
+        return slaveAddressCache;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        if (filter != null) {
+            filter.init(symbolTableSource, executionContext);
+        }
+
+        if (bindVarFunctions != null) {
+            Function.init(bindVarFunctions, symbolTableSource, executionContext);
+            prepareBindVarMemory(executionContext, symbolTableSource, bindVarFunctions, bindVarMemory);
+        }
+    }
+
+    @Override
+    public void initCursor() {
+        if (filter != null) {
+            filter.initCursor();
+        }
+    }
+
+    /**
+     * Moves from the given slave row to the last slave row with the timestamp less or equal
+     * to the given one. Master timestamps are ascending, so a few rows are scanned first,
+     * like in the single-threaded join, and only then we fall back to binary search.
+     *
+     * @param slaveRowRef slave row found for the previous master row or -1
+     * @return slave row reference or -1 if all slave rows are after the timestamp
+     */
+    public long nextSlaveRow(long slaveRowRef, long timestamp) {
+        if (slaveFrameCount == 0) {
+            return -1;
+        }
+        int frameIndex = slaveRowRef != -1 ? Rows.toPartitionIndex(slaveRowRef) : 0;
+        long row = slaveRowRef != -1 ? Rows.toLocalRowID(slaveRowRef) : -1;
+        long timestampAddress = slaveAddressCache.getPageAddress(frameIndex, slaveTimestampIndex);
+        long frameRowCount = slaveFrameRowCounts.getQuick(frameIndex);
+        for (int i = 0; i < lookahead; i++) {
+            if (row == frameRowCount - 1) {
+                if (frameIndex == slaveFrameCount - 1) {
+                    // the last slave row is before the timestamp
+                    return Rows.toRowID(frameIndex, row);
+                }
+                if (slaveFrameTimestamps.getQuick(frameIndex + 1) > timestamp) {
+                    return Rows.toRowID(frameIndex, row);
+                }
+                frameIndex++;
+                row = 0;
+                timestampAddress = slaveAddressCache.getPageAddress(frameIndex, slaveTimestampIndex);
+                frameRowCount = slaveFrameRowCounts.getQuick(frameIndex);
+                continue;
+            }
+            if (Unsafe.getUnsafe().getLong(timestampAddress + ((row + 1) << 3)) > timestamp) {
+                return row != -1 ? Rows.toRowID(frameIndex, row) : -1;
+            }
+            row++;
+        }
+        return findSlaveRow(timestamp);
+    }
+
+    /**
+     * Maps slave page frames. Must be called by the query owner thread before master
+     * page frames are dispatched.
+     */
+    public void ofSlave(PageFrameCursor slaveFrameCursor, RecordMetadata slaveMetadata) {
+        clear();
+        slaveAddressCache.of(slaveMetadata);
+        PageFrame frame;
+        while ((frame = slaveFrameCursor.next()) != null) {
+            final long frameRowCount = frame.getPartitionHi() - frame.getPartitionLo();
+            if (frameRowCount > 0) {
+                slaveAddressCache.add(slaveFrameCount++, frame);
+                slaveFrameRowCounts.add(frameRowCount);
+                slaveFrameTimestamps.add(Unsafe.getUnsafe().getLong(frame.getPageAddress(slaveTimestampIndex)));
+            }
+        }
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.val(filter);
+    }
+}
@@ -0,0 +1,305 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.engine.join.OuterJoinRecord;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
+import io.questdb.std.Os;
+import io.questdb.std.Rows;
+
+/**
+ * Iterates master rows reduced by page frame reducers. For a frame with N selected master rows,
+ * the filtered rows list holds N master row indexes followed by N slave row references.
+ */
+class AsyncAsOfJoinRecordCursor implements NoRandomAccessRecordCursor {
+    private static final Log LOG = LogFactory.getLog(AsyncAsOfJoinRecordCursor.class);
+    private final int columnSplit;
+    private final PageAddressCacheRecord masterRecord;
+    private final OuterJoinRecord record;
+    private final PageAddressCacheRecord slaveRecord;
+    private boolean allFramesActive;
+    private long cursor = -1;
+    private int frameIndex;
+    private int frameLimit;
+    private long frameRowCount;
+    private long frameRowIndex;
+    private PageFrameSequence<AsyncAsOfJoinAtom> frameSequence;
+    private boolean isOpen;
+    private boolean isSlaveMapped;
+    private DirectLongList rows;
+    private long size;
+    private RecordMetadata slaveMetadata;
+    private PageFrameCursor slavePageFrameCursor;
+
+    public AsyncAsOfJoinRecordCursor(int columnSplit, Record nullRecord) {
+        this.columnSplit = columnSplit;
+        masterRecord = new PageAddressCacheRecord();
+        slaveRecord = new PageAddressCacheRecord();
+        record = new OuterJoinRecord(columnSplit, nullRecord);
+        record.of(masterRecord, slaveRecord);
+        isOpen = true;
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            isOpen = false;
+            if (frameSequence != null) {
+                LOG.debug()
+                        .$("closing [shard=").$(frameSequence.getShard())
+                        .$(", frameIndex=").$(frameIndex)
+                        .$(", frameCount=").$(frameLimit)
+                        .$(", frameId=").$(frameSequence.getId())
+                        .$(", cursor=").$(cursor)
+                        .I$();
+
+                collectCursor(true);
+                if (frameLimit > -1) {
+                    frameSequence.await();
+                }
+                frameSequence.clear();
+            }
+            slavePageFrameCursor = Misc.free(slavePageFrameCursor);
+        }
+    }
+
+    public void freeRecords() {
+        Misc.free(masterRecord);
+        Misc.free(slaveRecord);
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        if (columnIndex < columnSplit) {
+            return frameSequence.getSymbolTableSource().getSymbolTable(columnIndex);
+        }
+        return slavePageFrameCursor.getSymbolTable(columnIndex - columnSplit);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!isSlaveMapped) {
+            // workers read slave timestamps, so the slave has to be mapped before any dispatch
+            frameSequence.getAtom().ofSlave(slavePageFrameCursor, slaveMetadata);
+            isSlaveMapped = true;
+        }
+
+        // Check for the first hasNext call.
+        if (frameIndex == -1) {
+            fetchNextFrame();
+        }
+
+        // We have rows in the current frame we still need to dispatch
+        if (frameRowIndex < frameRowCount) {
+            nextRow();
+            return true;
+        }
+
+        // Release the previous queue item.
+        collectCursor(false);
+
+        // Do we have more frames?
+        if (frameIndex < frameLimit) {
+            fetchNextFrame();
+            if (frameRowIndex < frameRowCount) {
+                nextRow();
+                return true;
+            }
+        }
+
+        if (!allFramesActive) {
+            throwTimeoutException(frameSequence);
+        }
+        return false;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        if (columnIndex < columnSplit) {
+            return frameSequence.getSymbolTableSource().newSymbolTable(columnIndex);
+        }
+        return slavePageFrameCursor.newSymbolTable(columnIndex - columnSplit);
+    }
+
+    @Override
+    public long size() {
+        if (frameSequence.getAtom().getFilter() != null) {
+            return -1;
+        }
+        if (size == -1) {
+            // without a filter, there is a row for each master row
+            prepareFrames();
+            size = 0;
+            for (int i = 0; i <= frameLimit; i++) {
+                size += frameSequence.getFrameRowCount(i);
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public void toTop() {
+        // Check if we at the top already and there is nothing to do.
+        if (frameIndex == -1 || (frameIndex == 0 && frameRowIndex == 0)) {
+            return;
+        }
+        collectCursor(false);
+        frameSequence.toTop();
+        frameIndex = -1;
+        frameRowCount = 0;
+        frameRowIndex = 0;
+        allFramesActive = true;
+    }
+
+    private static void throwTimeoutException(PageFrameSequence<?> frameSequence) {
+        if (frameSequence.getCancelReason() == SqlExecutionCircuitBreaker.STATE_CANCELLED) {
+            throw CairoException.queryCancelled();
+        } else {
+            throw CairoException.queryTimedOut();
+        }
+    }
+
+    private void collectCursor(boolean forceCollect) {
+        if (cursor > -1) {
+            frameSequence.collect(cursor, forceCollect);
+            // It is necessary to clear 'cursor' value
+            // because we updated frameIndex and loop can exit due to lack of frames.
+            // Non-update of 'cursor' could cause double-free.
+            cursor = -1;
+        }
+    }
+
+    private void fetchNextFrame() {
+        prepareFrames();
+
+        try {
+            do {
+                cursor = frameSequence.next();
+                if (cursor > -1) {
+                    PageFrameReduceTask task = frameSequence.getTask(cursor);
+                    LOG.debug()
+                            .$("collected [shard=").$(frameSequence.getShard())
+                            .$(", frameIndex=").$(task.getFrameIndex())
+                            .$(", frameCount=").$(frameSequence.getFrameCount())
+                            .$(", frameId=").$(frameSequence.getId())
+                            .$(", active=").$(frameSequence.isActive())
+                            .$(", cursor=").$(cursor)
+                            .I$();
+
+                    if (task.hasError()) {
+                        throw CairoException.nonCritical().put(task.getErrorMsg())
+                                .setCancellation(task.isCancelled()).setInterruption(task.isCancelled());
+                    }
+
+                    allFramesActive &= frameSequence.isActive();
+                    rows = task.getFilteredRows();
+                    frameRowCount = rows.size() / 2;
+                    frameIndex = task.getFrameIndex();
+                    frameRowIndex = 0;
+                    if (frameRowCount > 0 && frameSequence.isActive()) {
+                        masterRecord.setFrameIndex(task.getFrameIndex());
+                        break;
+                    } else {
+                        // Force reset frame size if frameSequence was canceled or failed.
+                        frameRowCount = 0;
+                        collectCursor(false);
+                    }
+                } else if (cursor == -2) {
+                    break; // No frames to join.
+                } else {
+                    Os.pause();
+                }
+            } while (frameIndex < frameLimit);
+        } catch (Throwable e) {
+            if (e instanceof CairoException) {
+                CairoException ce = (CairoException) e;
+                if (ce.isInterruption() || ce.isCancellation()) {
+                    LOG.error().$("asof join error [ex=").$(((CairoException) e).getFlyweightMessage()).I$();
+                    throwTimeoutException(frameSequence);
+                } else {
+                    LOG.error().$("asof join error [ex=").$(e).I$();
+                    throw ce;
+                }
+            }
+            LOG.error().$("asof join error [ex=").$(e).I$();
+            throw CairoException.nonCritical().put(e.getMessage());
+        }
+    }
+
+    private void nextRow() {
+        masterRecord.setRowIndex(rows.get(frameRowIndex));
+        final long slaveRowRef = rows.get(frameRowCount + frameRowIndex);
+        frameRowIndex++;
+        if (slaveRowRef != -1) {
+            slaveRecord.setFrameIndex(Rows.toPartitionIndex(slaveRowRef));
+            slaveRecord.setRowIndex(Rows.toLocalRowID(slaveRowRef));
+            record.hasSlave(true);
+        } else {
+            record.hasSlave(false);
+        }
+    }
+
+    private void prepareFrames() {
+        if (frameLimit == -1) {
+            frameSequence.prepareForDispatch();
+            frameLimit = frameSequence.getFrameCount() - 1;
+        }
+    }
+
+    void of(
+            PageFrameSequence<AsyncAsOfJoinAtom> frameSequence,
+            PageFrameCursor slavePageFrameCursor,
+            RecordMetadata slaveMetadata
+    ) {
+        isOpen = true;
+        this.frameSequence = frameSequence;
+        this.slavePageFrameCursor = slavePageFrameCursor;
+        this.slaveMetadata = slaveMetadata;
+        masterRecord.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        slaveRecord.of(slavePageFrameCursor, frameSequence.getAtom().getSlaveAddressCache());
+        rows = null;
+        isSlaveMapped = false;
+        frameIndex = -1;
+        frameLimit = -1;
+        frameRowCount = 0;
+        frameRowIndex = 0;
+        allFramesActive = true;
+        size = -1;
+    }
+}
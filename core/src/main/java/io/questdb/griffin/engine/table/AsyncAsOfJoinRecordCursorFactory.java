@@ -0,0 +1,224 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReduceTaskFactory;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.join.AbstractJoinRecordCursorFactory;
+import io.questdb.griffin.engine.join.AsOfJoinNoKeyFastRecordCursorFactory;
+import io.questdb.griffin.engine.join.NullRecordFactory;
+import io.questdb.jit.CompiledFilter;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+import static io.questdb.griffin.engine.table.AsyncGroupByNotKeyedRecordCursorFactory.applyCompiledFilter;
+import static io.questdb.griffin.engine.table.AsyncGroupByNotKeyedRecordCursorFactory.applyFilter;
+
+/**
+ * Parallel version of {@link AsOfJoinNoKeyFastRecordCursorFactory}. Master page frames are
+ * filtered and matched with slave rows by workers independently of each other, since both
+ * sides are ordered by designated timestamps: a worker binary searches the slave for the first
+ * master row of a frame and then moves forward through the slave along with master rows.
+ * The query owner thread iterates the matches in master order.
+ */
+public class AsyncAsOfJoinRecordCursorFactory extends AbstractJoinRecordCursorFactory {
+    private static final PageFrameReducer FILTER_AND_JOIN = AsyncAsOfJoinRecordCursorFactory::filterAndJoin;
+    private static final PageFrameReducer JOIN = AsyncAsOfJoinRecordCursorFactory::join;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncAsOfJoinRecordCursor cursor;
+    private final PageFrameSequence<AsyncAsOfJoinAtom> frameSequence;
+    private final int workerCount;
+
+    public AsyncAsOfJoinRecordCursorFactory(
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordMetadata metadata,
+            @NotNull RecordCursorFactory masterFactory,
+            @NotNull RecordCursorFactory slaveFactory,
+            int columnSplit,
+            @Nullable CompiledFilter compiledFilter,
+            @Nullable MemoryCARW bindVarMemory,
+            @Nullable ObjList<Function> bindVarFunctions,
+            @Nullable Function filter,
+            @NotNull PageFrameReduceTaskFactory reduceTaskFactory,
+            int workerCount
+    ) {
+        super(metadata, null, masterFactory, slaveFactory);
+        assert masterFactory.supportsPageFrameCursor() && slaveFactory.supportsPageFrameCursor();
+        try {
+            final AsyncAsOfJoinAtom atom = new AsyncAsOfJoinAtom(
+                    configuration,
+                    masterFactory.getMetadata().getTimestampIndex(),
+                    slaveFactory.getMetadata().getTimestampIndex(),
+                    compiledFilter,
+                    bindVarMemory,
+                    bindVarFunctions,
+                    filter
+            );
+            if (filter != null) {
+                this.frameSequence = new PageFrameSequence<>(configuration, messageBus, atom, FILTER_AND_JOIN, reduceTaskFactory, PageFrameReduceTask.TYPE_ASOF_JOIN);
+            } else {
+                this.frameSequence = new PageFrameSequence<>(configuration, messageBus, atom, JOIN, reduceTaskFactory, PageFrameReduceTask.TYPE_ASOF_JOIN);
+            }
+            this.cursor = new AsyncAsOfJoinRecordCursor(columnSplit, NullRecordFactory.getInstance(slaveFactory.getMetadata()));
+            this.workerCount = workerCount;
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean followedOrderByAdvice() {
+        return masterFactory.followedOrderByAdvice();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final PageFrameSequence<AsyncAsOfJoinAtom> masterSequence = frameSequence.of(masterFactory, executionContext, collectSubSeq, ORDER_ASC);
+        try {
+            cursor.of(masterSequence, slaveFactory.getPageFrameCursor(executionContext, ORDER_ASC), slaveFactory.getMetadata());
+            return cursor;
+        } catch (Throwable e) {
+            frameSequence.clear();
+            throw e;
+        }
+    }
+
+    @Override
+    public int getScanDirection() {
+        return masterFactory.getScanDirection();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        if (usesCompiledFilter()) {
+            sink.type("Async JIT AsOf Join");
+        } else {
+            sink.type("Async AsOf Join");
+        }
+        sink.meta("workers").val(workerCount);
+        sink.optAttr("filter", frameSequence.getAtom());
+        sink.child(masterFactory);
+        sink.child(slaveFactory);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return frameSequence.getAtom().getCompiledFilter() != null;
+    }
+
+    private static void filterAndJoin(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final long frameRowCount = task.getFrameRowCount();
+        assert frameRowCount > 0;
+        final AsyncAsOfJoinAtom atom = task.getFrameSequence(AsyncAsOfJoinAtom.class).getAtom();
+        final CompiledFilter compiledFilter = atom.getCompiledFilter();
+        final DirectLongList rows = task.getFilteredRows();
+
+        rows.clear();
+        if (compiledFilter == null || task.getPageAddressCache().hasColumnTops(task.getFrameIndex())) {
+            // Use Java-based filter when there is no compiled filter or in case of a page frame with column tops.
+            applyFilter(atom.getFilter(), rows, record, frameRowCount);
+        } else {
+            applyCompiledFilter(compiledFilter, atom.getBindVarMemory(), atom.getBindVarFunctions(), task);
+        }
+
+        // append slave row references after the master rows
+        final int masterTimestampIndex = atom.getMasterTimestampIndex();
+        long slaveRowRef = -1;
+        for (long p = 0, n = rows.size(); p < n; p++) {
+            record.setRowIndex(rows.get(p));
+            final long timestamp = record.getTimestamp(masterTimestampIndex);
+            slaveRowRef = p == 0 ? atom.findSlaveRow(timestamp) : atom.nextSlaveRow(slaveRowRef, timestamp);
+            rows.add(slaveRowRef);
+        }
+    }
+
+    private static void join(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final long frameRowCount = task.getFrameRowCount();
+        assert frameRowCount > 0;
+        final AsyncAsOfJoinAtom atom = task.getFrameSequence(AsyncAsOfJoinAtom.class).getAtom();
+        final DirectLongList rows = task.getFilteredRows();
+
+        rows.clear();
+        for (long r = 0; r < frameRowCount; r++) {
+            rows.add(r);
+        }
+
+        // append slave row references after the master rows
+        final int masterTimestampIndex = atom.getMasterTimestampIndex();
+        long slaveRowRef = -1;
+        for (long r = 0; r < frameRowCount; r++) {
+            record.setRowIndex(r);
+            final long timestamp = record.getTimestamp(masterTimestampIndex);
+            slaveRowRef = r == 0 ? atom.findSlaveRow(timestamp) : atom.nextSlaveRow(slaveRowRef, timestamp);
+            rows.add(slaveRowRef);
+        }
+    }
+
+    @Override
+    protected void _close() {
+        Misc.freeIfCloseable(getMetadata());
+        Misc.free(masterFactory);
+        Misc.free(slaveFactory);
+        if (cursor != null) {
+            cursor.close();
+            cursor.freeRecords();
+        }
+        Misc.free(frameSequence);
+    }
+}
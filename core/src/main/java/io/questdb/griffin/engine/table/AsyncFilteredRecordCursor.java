@@ -30,6 +30,7 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
 import io.questdb.cairo.sql.async.PageFrameReduceTask;
 import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.cairo.sql.async.PageFrameSequenceRecordCursor;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.DirectLongList;
@@ -37,7 +38,7 @@ import io.questdb.std.Misc;
 import io.questdb.std.Os;
 import io.questdb.std.Rows;
 
-class AsyncFilteredRecordCursor implements RecordCursor {
+class AsyncFilteredRecordCursor implements RecordCursor, PageFrameSequenceRecordCursor {
 
     private static final Log LOG = LogFactory.getLog(AsyncFilteredRecordCursor.class);
     private final Function filter;
@@ -129,7 +130,7 @@ class AsyncFilteredRecordCursor implements RecordCursor {
 
             if (frameSequence != null) {
                 collectCursor(true);
-                if (frameLimit > -1) {
+                if (frameLimit > -1 || frameSequence.hasDispatchedFrames()) {
                     frameSequence.await();
                 }
                 frameSequence.clear();
@@ -143,6 +144,16 @@ class AsyncFilteredRecordCursor implements RecordCursor {
         Misc.free(recordB);
     }
 
+    @Override
+    public PageFrameSequence<?> getFirstFrameSequence() {
+        return frameSequence;
+    }
+
+    @Override
+    public PageFrameSequence<?> getLastFrameSequence() {
+        return frameSequence;
+    }
+
     @Override
     public Record getRecord() {
         return record;
@@ -267,7 +278,9 @@ class AsyncFilteredRecordCursor implements RecordCursor {
     @Override
     public void toTop() {
         // Check if we at the top already and there is nothing to do.
-        if (frameIndex == 0 && frameRowIndex == 0) {
+        // No fetched frames also means we're at the top. Don't reset the frame
+        // sequence in this case since it may hold prefetched frames.
+        if (frameLimit == -1 || (frameIndex == 0 && frameRowIndex == 0)) {
             return;
         }
         collectCursor(false);
@@ -27,6 +27,8 @@ package io.questdb.griffin.engine.table;
 import io.questdb.cairo.*;
 import io.questdb.cairo.map.*;
 import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameSequence;
 import io.questdb.cairo.vm.api.MemoryCARW;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.Plannable;
@@ -34,6 +36,8 @@ import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.PerWorkerLocks;
 import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.griffin.engine.functions.columns.ColumnFunction;
 import io.questdb.griffin.engine.groupby.GroupByAllocator;
 import io.questdb.griffin.engine.groupby.GroupByFunctionsUpdater;
 import io.questdb.griffin.engine.groupby.GroupByFunctionsUpdaterFactory;
@@ -48,8 +52,16 @@ import java.io.Closeable;
 import static io.questdb.griffin.engine.table.AsyncJitFilteredRecordCursorFactory.prepareBindVarMemory;
 
 public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Plannable {
+    // Number of rows aggregated at a time when vectorized aggregation is enabled.
+    public static final int BATCH_SIZE = 1024;
     // We use the first 8 bits of a hash code to determine the shard.
     private static final int MAX_SHARDS = 128;
+    private final boolean adaptive;
+    // Column indexes of group by function arguments; -1 means no argument.
+    private final IntList batchArgColumnIndexes;
+    private final IntList batchArgColumnShifts;
+    // Byte offsets of group by function values within map value.
+    private final LongList batchValueOffsets;
     private final ObjList<Function> bindVarFunctions;
     private final MemoryCARW bindVarMemory;
     private final CompiledFilter compiledFilter;
@@ -58,12 +70,14 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
     private final ObjList<Map> destShards;
     private final Function filter;
     private final GroupByFunctionsUpdater functionUpdater;
+    private final ObjList<GroupByFunction> groupByFunctions;
     private final ObjList<Function> keyFunctions;
     private final ColumnTypes keyTypes;
     private final MapStats lastOwnerStats;
     private final ObjList<MapStats> lastShardStats;
     private final MapFragment ownerFragment;
     private final RecordSink ownerMapSink;
+    private final DirectLongList ownerValueAddresses;
     private final ObjList<Function> perWorkerFilters;
     private final ObjList<MapFragment> perWorkerFragments;
     private final ObjList<GroupByFunctionsUpdater> perWorkerFunctionUpdaters;
@@ -71,11 +85,17 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
     private final ObjList<ObjList<Function>> perWorkerKeyFunctions;
     private final PerWorkerLocks perWorkerLocks;
     private final ObjList<RecordSink> perWorkerMapSinks;
+    private final ObjList<DirectLongList> perWorkerValueAddresses;
     private final int shardCount;
     private final int shardCountShr;
+    // Index of the SYMBOL key column if the maps may be symbol look-up tables, -1 otherwise.
+    private final int symbolKeyColumnIndex;
     private final ColumnTypes valueTypes;
+    private final boolean vectorized;
     // Set to true if we had to shard during the last query execution.
     private boolean lastSharded;
+    // Symbol look-up table capacity for the current query execution; -1 means that hash tables are used.
+    private int lookupKeyCapacity = -1;
     private volatile boolean sharded;
 
     public AsyncGroupByAtom(
@@ -112,7 +132,19 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
             this.perWorkerFilters = perWorkerFilters;
             this.keyFunctions = keyFunctions;
             this.perWorkerKeyFunctions = perWorkerKeyFunctions;
+            this.groupByFunctions = groupByFunctions;
             this.perWorkerGroupByFunctions = perWorkerGroupByFunctions;
+            this.adaptive = configuration.isGroupByAdaptiveEnabled();
+            if (
+                    configuration.isGroupBySymbolLookupEnabled()
+                            && keyFunctions.size() == 0
+                            && listColumnFilter.getColumnCount() == 1
+                            && MapFactory.isSymbolLookupMapSupported(keyTypes, valueTypes)
+            ) {
+                this.symbolKeyColumnIndex = listColumnFilter.getColumnIndexFactored(0);
+            } else {
+                this.symbolKeyColumnIndex = -1;
+            }
 
             functionUpdater = GroupByFunctionsUpdaterFactory.getInstance(asm, groupByFunctions);
             if (perWorkerGroupByFunctions != null) {
@@ -152,6 +184,41 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
             } else {
                 perWorkerMapSinks = null;
             }
+
+            vectorized = configuration.isGroupByVectorizedEnabled() && isBatchComputationSupported(groupByFunctions);
+            if (vectorized) {
+                final int functionCount = groupByFunctions.size();
+                batchArgColumnIndexes = new IntList(functionCount);
+                batchArgColumnShifts = new IntList(functionCount);
+                batchValueOffsets = new LongList(functionCount);
+                for (int i = 0; i < functionCount; i++) {
+                    final GroupByFunction function = groupByFunctions.getQuick(i);
+                    if (function instanceof UnaryFunction) {
+                        final Function arg = ((UnaryFunction) function).getArg();
+                        batchArgColumnIndexes.add(((ColumnFunction) arg).getColumnIndex());
+                        batchArgColumnShifts.add(ColumnType.pow2SizeOf(arg.getType()));
+                    } else {
+                        batchArgColumnIndexes.add(-1);
+                        batchArgColumnShifts.add(0);
+                    }
+                    long valueOffset = 0;
+                    for (int j = 0, n = function.getValueIndex(); j < n; j++) {
+                        valueOffset += ColumnType.sizeOf(valueTypes.getColumnType(j));
+                    }
+                    batchValueOffsets.add(valueOffset);
+                }
+                ownerValueAddresses = new DirectLongList(BATCH_SIZE, MemoryTag.NATIVE_OFFLOAD);
+                perWorkerValueAddresses = new ObjList<>(slotCount);
+                for (int i = 0; i < slotCount; i++) {
+                    perWorkerValueAddresses.extendAndSet(i, new DirectLongList(BATCH_SIZE, MemoryTag.NATIVE_OFFLOAD));
+                }
+            } else {
+                batchArgColumnIndexes = null;
+                batchArgColumnShifts = null;
+                batchValueOffsets = null;
+                ownerValueAddresses = null;
+                perWorkerValueAddresses = null;
+            }
         } catch (Throwable e) {
             close();
             throw e;
@@ -195,6 +262,8 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
     public void close() {
         Misc.free(ownerFragment);
         Misc.freeObjList(perWorkerFragments);
+        Misc.free(ownerValueAddresses);
+        Misc.freeObjList(perWorkerValueAddresses);
         Misc.freeObjList(destShards);
         Misc.free(compiledFilter);
         Misc.free(bindVarMemory);
@@ -214,6 +283,18 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         }
     }
 
+    public int getBatchArgColumnIndex(int functionIndex) {
+        return batchArgColumnIndexes.getQuick(functionIndex);
+    }
+
+    public int getBatchArgColumnShift(int functionIndex) {
+        return batchArgColumnShifts.getQuick(functionIndex);
+    }
+
+    public long getBatchValueOffset(int functionIndex) {
+        return batchValueOffsets.getQuick(functionIndex);
+    }
+
     public ObjList<Function> getBindVarFunctions() {
         return bindVarFunctions;
     }
@@ -251,6 +332,13 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         return perWorkerFunctionUpdaters.getQuick(slotId);
     }
 
+    public ObjList<GroupByFunction> getGroupByFunctions(int slotId) {
+        if (slotId == -1 || perWorkerGroupByFunctions == null) {
+            return groupByFunctions;
+        }
+        return perWorkerGroupByFunctions.getQuick(slotId);
+    }
+
     public RecordSink getMapSink(int slotId) {
         if (slotId == -1 || perWorkerMapSinks == null) {
             return ownerMapSink;
@@ -262,6 +350,13 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         return shardCount;
     }
 
+    public DirectLongList getValueAddresses(int slotId) {
+        if (slotId == -1) {
+            return ownerValueAddresses;
+        }
+        return perWorkerValueAddresses.getQuick(slotId);
+    }
+
     @Override
     public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
         if (filter != null) {
@@ -310,6 +405,24 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
             Function.init(bindVarFunctions, symbolTableSource, executionContext);
             prepareBindVarMemory(executionContext, symbolTableSource, bindVarFunctions, bindVarMemory);
         }
+
+        // Symbol keys are dense, so small symbol tables allow us to use look-up tables instead of hash tables.
+        // Large ones go to hash tables, so that the maps can be sharded and merged in parallel.
+        lookupKeyCapacity = -1;
+        if (symbolKeyColumnIndex != -1) {
+            final SymbolTable symbolTable = symbolTableSource.getSymbolTable(symbolKeyColumnIndex);
+            if (symbolTable instanceof StaticSymbolTable) {
+                final int symbolCount = ((StaticSymbolTable) symbolTable).getSymbolCount();
+                if (symbolCount <= configuration.getGroupByShardingThreshold()) {
+                    // The extra slot is for the null symbol.
+                    lookupKeyCapacity = symbolCount + 1;
+                }
+            }
+        }
+        ownerFragment.selectMap();
+        for (int i = 0, n = perWorkerFragments.size(); i < n; i++) {
+            perWorkerFragments.getQuick(i).selectMap();
+        }
     }
 
     @Override
@@ -332,6 +445,14 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         return sharded;
     }
 
+    /**
+     * Returns true if the group by functions can be computed for a batch of rows at once,
+     * reading the argument columns straight from the page frame memory.
+     */
+    public boolean isVectorized() {
+        return vectorized;
+    }
+
     public Map mergeOwnerMap() {
         lastSharded = false;
         final Map destMap = ownerFragment.reopenMap();
@@ -341,14 +462,19 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         final MapStats stats = lastOwnerStats;
         final LongList medianList = stats.medianList;
         medianList.clear();
+        long maxSize = destMap.size();
+        long totalSize = destMap.size();
         for (int i = 0; i < perWorkerMapCount; i++) {
             final Map srcMap = perWorkerFragments.getQuick(i).getMap();
             medianList.add(srcMap.size());
+            maxSize = Math.max(srcMap.size(), maxSize);
+            totalSize += srcMap.size();
         }
         medianList.sort();
         // This is not very precise, but does the job.
         long medianSize = medianList.getQuick(medianList.size() / 2);
         medianList.clear();
+        presizeDestMap(destMap, estimatedSize(), maxSize, totalSize);
         long maxHeapSize = -1;
         if (destMap.getUsedHeapSize() != -1) {
             for (int i = 0; i < perWorkerMapCount; i++) {
@@ -383,17 +509,25 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         final MapStats stats = lastShardStats.getQuick(shardIndex);
         final LongList medianList = stats.medianList;
         medianList.clear();
+        long maxSize = 0;
+        long totalSize = 0;
         for (int i = 0; i < perWorkerMapCount; i++) {
             final MapFragment srcFragment = perWorkerFragments.getQuick(i);
             final Map srcMap = srcFragment.getShards().getQuick(shardIndex);
             medianList.add(srcMap.size());
+            maxSize = Math.max(srcMap.size(), maxSize);
+            totalSize += srcMap.size();
         }
         // Include shard from the owner fragment.
         final Map srcOwnerMap = ownerFragment.getShards().getQuick(shardIndex);
         medianList.add(srcOwnerMap.size());
+        maxSize = Math.max(srcOwnerMap.size(), maxSize);
+        totalSize += srcOwnerMap.size();
         medianList.sort();
         // This is not very precise, but does the job.
         long medianSize = medianList.getQuick(medianList.size() / 2);
+        final long estimatedSize = estimatedSize();
+        presizeDestMap(destMap, estimatedSize != -1 ? estimatedSize / shardCount : -1, maxSize, totalSize);
         long maxHeapSize = -1;
         if (destMap.getUsedHeapSize() != -1) {
             for (int i = 0; i < perWorkerMapCount; i++) {
@@ -426,7 +560,7 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
 
     @Override
     public void reopen() {
-        if (lastSharded) {
+        if (lastSharded && lookupKeyCapacity == -1) {
             // Looks like we had to shard during previous execution, so let's do it ahead of time.
             sharded = true;
         }
@@ -434,11 +568,73 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
     }
 
     public void requestSharding(MapFragment fragment) {
-        if (!sharded && fragment.getMap().size() > configuration.getGroupByShardingThreshold()) {
+        if (!sharded && lookupKeyCapacity == -1 && fragment.getMap().size() > configuration.getGroupByShardingThreshold()) {
             sharded = true;
         }
     }
 
+    /**
+     * Projects the number of distinct keys for the whole page frame sequence once the fragment
+     * has aggregated two non-empty page frames. The fragment map holds the exact number of
+     * distinct keys seen so far, so the key counts after the first and the second frame give
+     * us two points on the key growth curve. We assume that the key count grows as a power
+     * of the scanned row count (Heaps' law) and estimate the exponent from these points:
+     * it's close to 0 for a saturated key domain and close to 1 when almost every row has
+     * a new key.
+     * <p>
+     * The projection is used to start sharding right away, instead of waiting for a fragment
+     * map to grow past the threshold, and to pre-size the fragment maps, so that they grow
+     * in a single rehash rather than doubling their capacity over and over again.
+     */
+    public void sample(MapFragment fragment, PageFrameReduceTask task) {
+        if (!adaptive || lookupKeyCapacity != -1 || fragment.sampled) {
+            return;
+        }
+
+        final long size = fragment.size();
+        if (fragment.firstSampleSize == 0) {
+            // The filter may leave no rows in the leading frames, so we skip them.
+            fragment.firstSampleRowCount = fragment.sampledRowCount = task.getFrameRowCount();
+            fragment.firstSampleSize = size;
+            return;
+        }
+        fragment.sampledRowCount += task.getFrameRowCount();
+        fragment.sampled = true;
+
+        final PageFrameSequence<?> frameSequence = task.getFrameSequence();
+        long totalRowCount = 0;
+        for (int i = 0, n = frameSequence.getFrameCount(); i < n; i++) {
+            totalRowCount += frameSequence.getFrameRowCount(i);
+        }
+        double exponent = 0;
+        if (size > fragment.firstSampleSize) {
+            exponent = Math.log((double) size / fragment.firstSampleSize)
+                    / Math.log((double) fragment.sampledRowCount / fragment.firstSampleRowCount);
+            exponent = Math.min(exponent, 1);
+        }
+        fragment.estimatedSize = projectSize(size, fragment.sampledRowCount, totalRowCount, exponent);
+        // Page frames are spread between the workers, so each fragment gets its share of the rows.
+        final long fragmentRowCount = Math.max(totalRowCount / perWorkerFragments.size(), fragment.sampledRowCount);
+        final long fragmentSize = Math.min(
+                projectSize(size, fragment.sampledRowCount, fragmentRowCount, exponent),
+                configuration.getGroupByPresizeMaxSize() / perWorkerFragments.size()
+        );
+
+        if (!sharded && fragment.estimatedSize > configuration.getGroupByShardingThreshold()) {
+            sharded = true;
+        }
+        if (sharded) {
+            fragment.shard();
+            final ObjList<Map> shards = fragment.getShards();
+            for (int i = 0, n = shards.size(); i < n; i++) {
+                final Map shard = shards.getQuick(i);
+                shard.setKeyCapacity((int) Math.max(fragmentSize / shardCount, shard.size()));
+            }
+        } else {
+            fragment.getMap().setKeyCapacity((int) Math.max(fragmentSize, size));
+        }
+    }
+
     public void setAllocator(GroupByAllocator allocator) {
         if (perWorkerGroupByFunctions != null) {
             for (int i = 0, n = perWorkerGroupByFunctions.size(); i < n; i++) {
@@ -468,6 +664,47 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         }
     }
 
+    private static boolean isBatchComputationSupported(ObjList<GroupByFunction> groupByFunctions) {
+        if (groupByFunctions.size() == 0) {
+            return false;
+        }
+        for (int i = 0, n = groupByFunctions.size(); i < n; i++) {
+            if (!groupByFunctions.getQuick(i).isBatchComputationSupported()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long projectSize(long size, long rowCount, long targetRowCount, double exponent) {
+        return (long) (size * Math.pow((double) targetRowCount / rowCount, exponent));
+    }
+
+    /**
+     * Returns the largest projected key count among the fragments or -1 if none of them
+     * has aggregated enough page frames to make a projection.
+     */
+    private long estimatedSize() {
+        long estimatedSize = ownerFragment.estimatedSize;
+        for (int i = 0, n = perWorkerFragments.size(); i < n; i++) {
+            estimatedSize = Math.max(perWorkerFragments.getQuick(i).estimatedSize, estimatedSize);
+        }
+        return estimatedSize;
+    }
+
+    /**
+     * Pre-sizes the merge destination map, so that it doesn't have to grow while the fragment
+     * maps are merged into it. The merged map size lies somewhere between the largest
+     * and the total size of the merged maps, so the projected key count is clamped to
+     * this range.
+     */
+    private void presizeDestMap(Map destMap, long estimatedSize, long maxSize, long totalSize) {
+        if (estimatedSize > 0) {
+            final long size = Math.min(Math.max(estimatedSize, maxSize), totalSize);
+            destMap.setKeyCapacity((int) Math.min(size, configuration.getGroupByPresizeMaxSize()));
+        }
+    }
+
     private Map reopenDestShard(int shardIndex) {
         Map destMap = destShards.getQuick(shardIndex);
         if (destMap == null) {
@@ -549,13 +786,23 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
     }
 
     public class MapFragment implements QuietCloseable {
-        private final Map map; // non-sharded partial result
+        private final Map hashMap;
         private final boolean owner;
         private final ObjList<Map> shards; // this.map split into shards
+        // Projected number of distinct keys for the whole query; -1 means no projection yet.
+        private long estimatedSize = -1;
+        private long firstSampleRowCount;
+        private long firstSampleSize;
+        // Symbol look-up table, created once the key column turns out to have a small symbol table.
+        private Map lookupMap;
+        private Map map; // non-sharded partial result; either hashMap or lookupMap
+        private boolean sampled;
+        private long sampledRowCount;
         private boolean sharded;
 
         private MapFragment(boolean owner) {
-            this.map = MapFactory.createUnorderedMap(configuration, keyTypes, valueTypes);
+            this.hashMap = MapFactory.createUnorderedMap(configuration, keyTypes, valueTypes);
+            this.map = hashMap;
             this.shards = new ObjList<>(shardCount);
             this.owner = owner;
         }
@@ -563,7 +810,13 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         @Override
         public void close() {
             sharded = false;
-            map.close();
+            estimatedSize = -1;
+            firstSampleSize = 0;
+            sampled = false;
+            hashMap.close();
+            if (lookupMap != null) {
+                lookupMap.close();
+            }
             for (int i = 0, n = shards.size(); i < n; i++) {
                 Map m = shards.getQuick(i);
                 Misc.free(m);
@@ -588,6 +841,10 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
 
         public Map reopenMap() {
             if (!map.isOpen()) {
+                if (map == lookupMap) {
+                    map.reopen(lookupKeyCapacity, 0);
+                    return map;
+                }
                 int keyCapacity = targetKeyCapacity(lastOwnerStats, owner);
                 long heapSize = targetHeapSize(lastOwnerStats, owner);
                 map.reopen(keyCapacity, heapSize);
@@ -599,6 +856,7 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
             if (sharded) {
                 return;
             }
+            assert map == hashMap;
 
             reopenShards();
 
@@ -619,6 +877,28 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
             sharded = true;
         }
 
+        private void selectMap() {
+            if (lookupKeyCapacity != -1) {
+                if (lookupMap == null) {
+                    lookupMap = MapFactory.createSymbolLookupMap(keyTypes, valueTypes, lookupKeyCapacity);
+                }
+                map = lookupMap;
+            } else {
+                map = hashMap;
+            }
+        }
+
+        private long size() {
+            if (!sharded) {
+                return map.size();
+            }
+            long size = 0;
+            for (int i = 0, n = shards.size(); i < n; i++) {
+                size += shards.getQuick(i).size();
+            }
+            return size;
+        }
+
         private void reopenShards() {
             int size = shards.size();
             if (size == 0) {
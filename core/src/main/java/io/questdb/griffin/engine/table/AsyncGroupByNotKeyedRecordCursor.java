@@ -30,6 +30,7 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
 import io.questdb.cairo.sql.async.PageFrameReduceTask;
 import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.cairo.sql.async.PageFrameSequenceRecordCursor;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.GroupByFunction;
@@ -41,7 +42,7 @@ import io.questdb.std.Misc;
 import io.questdb.std.ObjList;
 import io.questdb.std.Os;
 
-class AsyncGroupByNotKeyedRecordCursor implements NoRandomAccessRecordCursor {
+class AsyncGroupByNotKeyedRecordCursor implements NoRandomAccessRecordCursor, PageFrameSequenceRecordCursor {
 
     private static final Log LOG = LogFactory.getLog(AsyncGroupByNotKeyedRecordCursor.class);
     private final GroupByAllocator allocator;
@@ -85,7 +86,7 @@ class AsyncGroupByNotKeyedRecordCursor implements NoRandomAccessRecordCursor {
                         .$(", frameCount=").$(frameLimit)
                         .I$();
 
-                if (frameLimit > -1) {
+                if (frameLimit > -1 || frameSequence.hasDispatchedFrames()) {
                     frameSequence.await();
                 }
                 frameSequence.clear();
@@ -93,6 +94,16 @@ class AsyncGroupByNotKeyedRecordCursor implements NoRandomAccessRecordCursor {
         }
     }
 
+    @Override
+    public PageFrameSequence<?> getFirstFrameSequence() {
+        return frameSequence;
+    }
+
+    @Override
+    public PageFrameSequence<?> getLastFrameSequence() {
+        return frameSequence;
+    }
+
     @Override
     public Record getRecord() {
         return recordA;
@@ -34,6 +34,7 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
 import io.questdb.cairo.sql.async.PageFrameReduceTask;
 import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.cairo.sql.async.PageFrameSequenceRecordCursor;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.GroupByFunction;
@@ -53,7 +54,7 @@ import io.questdb.std.ObjList;
 import io.questdb.std.Os;
 import io.questdb.tasks.GroupByMergeShardTask;
 
-class AsyncGroupByRecordCursor implements RecordCursor {
+class AsyncGroupByRecordCursor implements RecordCursor, PageFrameSequenceRecordCursor {
     private static final Log LOG = LogFactory.getLog(AsyncGroupByRecordCursor.class);
     private final GroupByAllocator allocator;
     private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch(); // used for merge shard workers
@@ -110,7 +111,7 @@ class AsyncGroupByRecordCursor implements RecordCursor {
                         .$(", frameCount=").$(frameLimit)
                         .I$();
 
-                if (frameLimit > -1) {
+                if (frameLimit > -1 || frameSequence.hasDispatchedFrames()) {
                     frameSequence.await();
                 }
                 frameSequence.clear();
@@ -118,6 +119,16 @@ class AsyncGroupByRecordCursor implements RecordCursor {
         }
     }
 
+    @Override
+    public PageFrameSequence<?> getFirstFrameSequence() {
+        return frameSequence;
+    }
+
+    @Override
+    public PageFrameSequence<?> getLastFrameSequence() {
+        return frameSequence;
+    }
+
     @Override
     public Record getRecord() {
         return recordA;
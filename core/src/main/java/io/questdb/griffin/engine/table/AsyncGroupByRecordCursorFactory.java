@@ -197,18 +197,87 @@ public class AsyncGroupByRecordCursorFactory extends AbstractRecordCursorFactory
             record.setRowIndex(0);
             long baseRowId = record.getRowId();
 
-            if (!fragment.isSharded()) {
+            final PageAddressCache pageAddressCache = task.getPageAddressCache();
+            if (atom.isVectorized() && !pageAddressCache.hasColumnTops(task.getFrameIndex())) {
+                aggregateBatched(record, pageAddressCache, task.getFrameIndex(), null, frameRowCount, baseRowId, atom, slotId, functionUpdater, fragment, mapSink);
+            } else if (!fragment.isSharded()) {
                 aggregateNonSharded(record, frameRowCount, baseRowId, functionUpdater, fragment, mapSink);
             } else {
                 aggregateSharded(record, frameRowCount, baseRowId, functionUpdater, fragment, mapSink);
             }
 
+            atom.sample(fragment, task);
             atom.requestSharding(fragment);
         } finally {
             atom.release(slotId);
         }
     }
 
+    /**
+     * Aggregates page frame rows in batches. For each batch, map values are resolved for all rows
+     * first, then each group by function is computed in a tight loop over the argument column
+     * memory. Rows with new keys are aggregated immediately, so their value addresses are set
+     * to 0 and skipped by the functions.
+     */
+    private static void aggregateBatched(
+            PageAddressCacheRecord record,
+            PageAddressCache pageAddressCache,
+            int frameIndex,
+            @Nullable DirectLongList rows,
+            long frameRowCount,
+            long baseRowId,
+            AsyncGroupByAtom atom,
+            int slotId,
+            GroupByFunctionsUpdater functionUpdater,
+            AsyncGroupByAtom.MapFragment fragment,
+            RecordSink mapSink
+    ) {
+        final ObjList<GroupByFunction> groupByFunctions = atom.getGroupByFunctions(slotId);
+        final long pValueAddresses = atom.getValueAddresses(slotId).getAddress();
+        final boolean sharded = fragment.isSharded();
+        if (!sharded) {
+            fragment.reopenMap();
+        }
+
+        final long rowCount = rows != null ? rows.size() : frameRowCount;
+        long p = 0;
+        while (p < rowCount) {
+            final long lo = rows != null ? rows.get(p) : p;
+            final long hi = Math.min(lo + AsyncGroupByAtom.BATCH_SIZE, frameRowCount);
+            final int batchSize = (int) (hi - lo);
+
+            // Map values move when the map grows, so we need to detect that.
+            final long mapVersion = mapVersion(fragment, sharded);
+            if (rows != null) {
+                Vect.memset(pValueAddresses, 8L * batchSize, 0);
+                for (long r; p < rowCount && (r = rows.get(p)) < hi; p++) {
+                    Unsafe.getUnsafe().putLong(pValueAddresses + 8 * (r - lo), resolveValueAddress(record, r, baseRowId, functionUpdater, fragment, sharded, mapSink));
+                }
+            } else {
+                for (long r = lo; r < hi; r++) {
+                    Unsafe.getUnsafe().putLong(pValueAddresses + 8 * (r - lo), resolveValueAddress(record, r, baseRowId, functionUpdater, fragment, sharded, mapSink));
+                }
+                p = hi;
+            }
+            if (mapVersion != mapVersion(fragment, sharded)) {
+                for (int i = 0; i < batchSize; i++) {
+                    final long pValueAddress = pValueAddresses + 8L * i;
+                    if (Unsafe.getUnsafe().getLong(pValueAddress) != 0) {
+                        Unsafe.getUnsafe().putLong(pValueAddress, findValueAddress(record, lo + i, fragment, sharded, mapSink));
+                    }
+                }
+            }
+
+            for (int i = 0, n = groupByFunctions.size(); i < n; i++) {
+                final int argColumnIndex = atom.getBatchArgColumnIndex(i);
+                final long pArgColumn = argColumnIndex != -1
+                        ? pageAddressCache.getPageAddress(frameIndex, argColumnIndex) + (lo << atom.getBatchArgColumnShift(i))
+                        : 0;
+                groupByFunctions.getQuick(i).computeBatch(pValueAddresses, atom.getBatchValueOffset(i), pArgColumn, batchSize);
+            }
+        }
+    }
+
     private static void aggregateFilteredNonSharded(
             PageAddressCacheRecord record,
             DirectLongList rows,
@@ -329,6 +398,35 @@ public class AsyncGroupByRecordCursorFactory extends AbstractRecordCursorFactory
         }
     }
 
+    private static long findValueAddress(
+            PageAddressCacheRecord record,
+            long r,
+            AsyncGroupByAtom.MapFragment fragment,
+            boolean sharded,
+            RecordSink mapSink
+    ) {
+        record.setRowIndex(r);
+        if (!sharded) {
+            final MapKey key = fragment.getMap().withKey();
+            mapSink.copy(record, key);
+            return key.findValue().getValueAddress();
+        }
+
+        final Map lookupShard = fragment.getShards().getQuick(0);
+        final MapKey lookupKey = lookupShard.withKey();
+        mapSink.copy(record, lookupKey);
+        lookupKey.commit();
+        final long hashCode = lookupKey.hash();
+
+        final Map shard = fragment.getShardMap(hashCode);
+        if (shard != lookupShard) {
+            final MapKey shardKey = shard.withKey();
+            shardKey.copyFrom(lookupKey);
+            return shardKey.findValue().getValueAddress();
+        }
+        return lookupKey.findValue().getValueAddress();
+    }
+
     private static void filterAndAggregate(
             int workerId,
             @NotNull PageAddressCacheRecord record,
@@ -367,18 +465,80 @@ public class AsyncGroupByRecordCursorFactory extends AbstractRecordCursorFactory
             record.setRowIndex(0);
             long baseRowId = record.getRowId();
 
-            if (!fragment.isSharded()) {
+            // Batches are worth it only when the filter selects a noticeable share of the frame rows.
+            if (
+                    atom.isVectorized()
+                            && rows.size() * 8 >= frameRowCount
+                            && !pageAddressCache.hasColumnTops(task.getFrameIndex())
+            ) {
+                aggregateBatched(record, pageAddressCache, task.getFrameIndex(), rows, frameRowCount, baseRowId, atom, slotId, functionUpdater, fragment, mapSink);
+            } else if (!fragment.isSharded()) {
                 aggregateFilteredNonSharded(record, rows, baseRowId, functionUpdater, fragment, mapSink);
             } else {
                 aggregateFilteredSharded(record, rows, baseRowId, functionUpdater, fragment, mapSink);
             }
 
+            atom.sample(fragment, task);
             atom.requestSharding(fragment);
         } finally {
             atom.release(slotId);
         }
     }
 
+    private static long mapVersion(AsyncGroupByAtom.MapFragment fragment, boolean sharded) {
+        if (!sharded) {
+            final Map map = fragment.getMap();
+            return map.getKeyCapacity() + map.getHeapSize();
+        }
+        long version = 0;
+        final ObjList<Map> shards = fragment.getShards();
+        for (int i = 0, n = shards.size(); i < n; i++) {
+            final Map shard = shards.getQuick(i);
+            version += shard.getKeyCapacity() + shard.getHeapSize();
+        }
+        return version;
+    }
+
+    private static long resolveValueAddress(
+            PageAddressCacheRecord record,
+            long r,
+            long baseRowId,
+            GroupByFunctionsUpdater functionUpdater,
+            AsyncGroupByAtom.MapFragment fragment,
+            boolean sharded,
+            RecordSink mapSink
+    ) {
+        record.setRowIndex(r);
+        final MapValue value;
+        if (!sharded) {
+            final MapKey key = fragment.getMap().withKey();
+            mapSink.copy(record, key);
+            value = key.createValue();
+        } else {
+            // The first map is used to write keys.
+            final Map lookupShard = fragment.getShards().getQuick(0);
+            final MapKey lookupKey = lookupShard.withKey();
+            mapSink.copy(record, lookupKey);
+            lookupKey.commit();
+            final long hashCode = lookupKey.hash();
+
+            final Map shard = fragment.getShardMap(hashCode);
+            final MapKey shardKey;
+            if (shard != lookupShard) {
+                shardKey = shard.withKey();
+                shardKey.copyFrom(lookupKey);
+            } else {
+                shardKey = lookupKey;
+            }
+            value = shardKey.createValue(hashCode);
+        }
+        if (value.isNew()) {
+            functionUpdater.updateNew(value, record, baseRowId + r);
+            return 0;
+        }
+        return value.getValueAddress();
+    }
+
     @Override
     protected void _close() {
         Misc.free(base);
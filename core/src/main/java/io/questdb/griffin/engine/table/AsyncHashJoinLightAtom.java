@@ -0,0 +1,452 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.map.OrderedMap;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.Plannable;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.PerWorkerLocks;
+import io.questdb.griffin.engine.join.LongChain;
+import io.questdb.jit.CompiledFilter;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static io.questdb.griffin.engine.table.AsyncJitFilteredRecordCursorFactory.prepareBindVarMemory;
+
+/**
+ * Holds the hash table and per-worker state of parallel hash join.
+ * <p>
+ * The hash table is split into shards by the highest bits of key hash codes, the same way
+ * as in {@link AsyncGroupByAtom}. Each shard is an {@link OrderedMap} from join keys to
+ * chains of slave row ids. When building the table, a worker partitions the rows of a slave
+ * page frame by shard and then inserts them into the shards one by one, so that different
+ * workers insert into different shards at the same time. Once the table is built, workers
+ * look up master page frame rows in the shards concurrently via
+ * {@link OrderedMap#findValueConcurrent(MapKey, long, MapValue)}.
+ */
+public class AsyncHashJoinLightAtom implements StatefulAtom, Closeable, Reopenable, Plannable {
+    private static final int MAX_SHARDS = 128;
+    private final ObjList<Function> bindVarFunctions;
+    private final MemoryCARW bindVarMemory;
+    private final BuildAtom buildAtom = new BuildAtom();
+    private final ObjList<LongChain> chains;
+    private final CompiledFilter compiledFilter;
+    private final Function filter;
+    private final ArrayColumnTypes keyTypes;
+    private final RecordSink masterKeySink;
+    private final ObjList<SlotState> perSlotStates;
+    private final PerWorkerLocks perWorkerLocks;
+    private final int shardCount;
+    private final int shardCountShr;
+    private final int shardIndexBits;
+    private final AtomicIntegerArray shardLocks;
+    private final ObjList<OrderedMap> shards;
+    private final RecordSink slaveKeySink;
+
+    public AsyncHashJoinLightAtom(
+            @NotNull CairoConfiguration configuration,
+            @Transient @NotNull ArrayColumnTypes keyTypes,
+            @NotNull RecordSink masterKeySink,
+            @NotNull RecordSink slaveKeySink,
+            @Nullable CompiledFilter compiledFilter,
+            @Nullable MemoryCARW bindVarMemory,
+            @Nullable ObjList<Function> bindVarFunctions,
+            @Nullable Function filter,
+            int workerCount
+    ) {
+        final int slotCount = Math.min(workerCount, configuration.getPageFrameReduceQueueCapacity());
+        try {
+            this.keyTypes = new ArrayColumnTypes().addAll(keyTypes);
+            this.masterKeySink = masterKeySink;
+            this.slaveKeySink = slaveKeySink;
+            this.compiledFilter = compiledFilter;
+            this.bindVarMemory = bindVarMemory;
+            this.bindVarFunctions = bindVarFunctions;
+            // only thread-safe filters are stolen, so there are no per-worker filter copies
+            this.filter = filter;
+
+            shardCount = Math.min(Numbers.ceilPow2(2 * workerCount), MAX_SHARDS);
+            shardCountShr = Long.numberOfLeadingZeros(shardCount) + 1;
+            shardIndexBits = Numbers.msb(shardCount);
+            shardLocks = new AtomicIntegerArray(shardCount);
+
+            // values are [head chain offset, tail chain offset]
+            final ArrayColumnTypes valueTypes = new ArrayColumnTypes();
+            valueTypes.add(ColumnType.LONG);
+            valueTypes.add(ColumnType.LONG);
+            shards = new ObjList<>(shardCount);
+            chains = new ObjList<>(shardCount);
+            for (int i = 0; i < shardCount; i++) {
+                shards.extendAndSet(i, new OrderedMap(
+                        configuration.getSqlSmallMapPageSize(),
+                        keyTypes,
+                        valueTypes,
+                        configuration.getSqlSmallMapKeyCapacity(),
+                        configuration.getSqlFastMapLoadFactor(),
+                        configuration.getSqlMapMaxResizes()
+                ));
+                chains.extendAndSet(i, new LongChain(
+                        configuration.getSqlHashJoinLightValuePageSize(),
+                        configuration.getSqlHashJoinLightValueMaxPages()
+                ));
+            }
+
+            perWorkerLocks = new PerWorkerLocks(configuration, slotCount);
+            // the owner slot goes last
+            perSlotStates = new ObjList<>(slotCount + 1);
+            for (int i = 0; i <= slotCount; i++) {
+                perSlotStates.extendAndSet(i, new SlotState(configuration));
+            }
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+    }
+
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use its own state anytime.
+            return -1;
+        }
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    /**
+     * Inserts rows of the given slave page frame into the hash table.
+     *
+     * @param slotId         slot acquired via {@link #acquire(int, boolean, SqlExecutionCircuitBreaker)}
+     * @param record         record pointing at the page frame
+     * @param frameIndex     index of the page frame
+     * @param frameRowCount  number of rows in the page frame
+     * @param circuitBreaker circuit breaker to check while waiting for shard locks
+     */
+    public void build(
+            int slotId,
+            PageAddressCacheRecord record,
+            int frameIndex,
+            long frameRowCount,
+            SqlExecutionCircuitBreaker circuitBreaker
+    ) {
+        final SlotState state = getSlotState(slotId);
+        final DirectLongList rows = state.partitionRows(record, frameRowCount);
+        final long[] lo = state.shardLo;
+        final long[] hi = state.shardHi;
+
+        // Insert the rows shard by shard. Slots start with different shards
+        // and skip the shards locked by others, to avoid waiting on the locks.
+        int pendingShards = 0;
+        for (int i = 0; i < shardCount; i++) {
+            if (lo[i] < hi[i]) {
+                pendingShards++;
+            }
+        }
+        final int startShard = (slotId + 1) & (shardCount - 1);
+        while (pendingShards > 0) {
+            boolean inserted = false;
+            for (int i = 0; i < shardCount; i++) {
+                final int shardIndex = (startShard + i) & (shardCount - 1);
+                if (lo[shardIndex] < hi[shardIndex] && shardLocks.compareAndSet(shardIndex, 0, 1)) {
+                    try {
+                        insert(shardIndex, record, rows, lo[shardIndex], hi[shardIndex], frameIndex);
+                    } finally {
+                        shardLocks.set(shardIndex, 0);
+                    }
+                    lo[shardIndex] = hi[shardIndex];
+                    pendingShards--;
+                    inserted = true;
+                }
+            }
+            if (!inserted) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                Os.pause();
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0, n = shards.size(); i < n; i++) {
+            Misc.free(shards.getQuick(i));
+            Misc.free(chains.getQuick(i));
+        }
+        for (int i = 0, n = perSlotStates.size(); i < n; i++) {
+            perSlotStates.getQuick(i).clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        Misc.freeObjList(shards);
+        Misc.freeObjList(chains);
+        Misc.freeObjList(perSlotStates);
+        Misc.free(compiledFilter);
+        Misc.free(bindVarMemory);
+        Misc.freeObjList(bindVarFunctions);
+        Misc.free(filter);
+    }
+
+    public ObjList<Function> getBindVarFunctions() {
+        return bindVarFunctions;
+    }
+
+    public MemoryCARW getBindVarMemory() {
+        return bindVarMemory;
+    }
+
+    /**
+     * Returns the atom of the slave page frame sequence used to build the hash table.
+     */
+    public BuildAtom getBuildAtom() {
+        return buildAtom;
+    }
+
+    /**
+     * Returns chain of slave row ids referenced by the given probe result.
+     */
+    public LongChain.TreeCursor getChainCursor(long chainRef) {
+        final int shardIndex = (int) (chainRef & (shardCount - 1));
+        return chains.getQuick(shardIndex).getCursor(chainRef >>> shardIndexBits);
+    }
+
+    public CompiledFilter getCompiledFilter() {
+        return compiledFilter;
+    }
+
+    public Function getFilter() {
+        return filter;
+    }
+
+    /**
+     * Returns scratch list for the filtered rows of a master page frame.
+     */
+    public DirectLongList getFilteredRows(int slotId) {
+        return getSlotState(slotId).filteredRows;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        if (filter != null) {
+            filter.init(symbolTableSource, executionContext);
+        }
+
+        if (bindVarFunctions != null) {
+            Function.init(bindVarFunctions, symbolTableSource, executionContext);
+            prepareBindVarMemory(executionContext, symbolTableSource, bindVarFunctions, bindVarMemory);
+        }
+
+    }
+
+    @Override
+    public void initCursor() {
+        if (filter != null) {
+            filter.initCursor();
+        }
+    }
+
+    /**
+     * Looks up the master record in the hash table. Must be called once the table is built.
+     *
+     * @return reference to the chain of matching slave row ids or -1 if there is no match
+     */
+    public long probe(int slotId, PageAddressCacheRecord record) {
+        final SlotState state = getSlotState(slotId);
+        final MapKey lookupKey = state.lookupMap.withKey();
+        lookupKey.put(record, masterKeySink);
+        lookupKey.commit();
+        final long hashCode = lookupKey.hash();
+        final int shardIndex = (int) (hashCode >>> shardCountShr);
+        final MapValue value = shards.getQuick(shardIndex).findValueConcurrent(lookupKey, hashCode, state.lookupValue);
+        if (value != null) {
+            return (value.getLong(0) << shardIndexBits) | shardIndex;
+        }
+        return -1;
+    }
+
+    public void release(int slotId) {
+        perWorkerLocks.releaseSlot(slotId);
+    }
+
+    @Override
+    public void reopen() {
+        for (int i = 0, n = shards.size(); i < n; i++) {
+            shards.getQuick(i).reopen();
+            chains.getQuick(i).reopen();
+        }
+        for (int i = 0, n = perSlotStates.size(); i < n; i++) {
+            perSlotStates.getQuick(i).reopen();
+        }
+    }
+
+    public long size() {
+        long size = 0;
+        for (int i = 0, n = shards.size(); i < n; i++) {
+            size += shards.getQuick(i).size();
+        }
+        return size;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.val(filter);
+    }
+
+    private SlotState getSlotState(int slotId) {
+        if (slotId == -1) {
+            return perSlotStates.getLast();
+        }
+        return perSlotStates.getQuick(slotId);
+    }
+
+    private void insert(int shardIndex, PageAddressCacheRecord record, DirectLongList rows, long lo, long hi, int frameIndex) {
+        final OrderedMap shard = shards.getQuick(shardIndex);
+        final LongChain chain = chains.getQuick(shardIndex);
+        for (long p = lo; p < hi; p++) {
+            final long r = rows.get(2 * p);
+            final long hashCode = rows.get(2 * p + 1);
+            record.setRowIndex(r);
+            final MapKey key = shard.withKey();
+            key.put(record, slaveKeySink);
+            final MapValue value = key.createValue(hashCode);
+            final long rowId = Rows.toRowID(frameIndex, r);
+            if (value.isNew()) {
+                final long offset = chain.put(rowId, -1);
+                value.putLong(0, offset);
+                value.putLong(1, offset);
+            } else {
+                value.putLong(1, chain.put(rowId, value.getLong(1)));
+            }
+        }
+    }
+
+    /**
+     * Atom of the slave page frame sequence. The state is owned by the outer atom.
+     */
+    public class BuildAtom implements StatefulAtom {
+
+        public AsyncHashJoinLightAtom getJoinAtom() {
+            return AsyncHashJoinLightAtom.this;
+        }
+    }
+
+    private class SlotState implements QuietCloseable, Mutable, Reopenable {
+        private final DirectLongList filteredRows;
+        // row hash codes in the order of rows
+        private final DirectLongList hashCodes;
+        // used to write keys and calculate hash codes, it never holds any entries
+        private final OrderedMap lookupMap;
+        private final MapValue lookupValue;
+        // [row index, hash code] pairs grouped by shard
+        private final DirectLongList partitionedRows;
+        private final long[] shardHi = new long[shardCount];
+        private final long[] shardLo = new long[shardCount];
+
+        private SlotState(CairoConfiguration configuration) {
+            lookupMap = new OrderedMap(
+                    configuration.getSqlSmallMapPageSize(),
+                    keyTypes,
+                    null,
+                    16,
+                    configuration.getSqlFastMapLoadFactor(),
+                    configuration.getSqlMapMaxResizes()
+            );
+            lookupValue = shards.getQuick(0).newValue();
+            final long capacity = configuration.getPageFrameReduceRowIdListCapacity();
+            filteredRows = new DirectLongList(capacity, MemoryTag.NATIVE_OFFLOAD);
+            hashCodes = new DirectLongList(capacity, MemoryTag.NATIVE_OFFLOAD);
+            partitionedRows = new DirectLongList(2 * capacity, MemoryTag.NATIVE_OFFLOAD);
+        }
+
+        @Override
+        public void clear() {
+            Misc.free(lookupMap);
+            filteredRows.resetCapacity();
+            hashCodes.resetCapacity();
+            partitionedRows.resetCapacity();
+        }
+
+        @Override
+        public void close() {
+            Misc.free(lookupMap);
+            Misc.free(filteredRows);
+            Misc.free(hashCodes);
+            Misc.free(partitionedRows);
+        }
+
+        @Override
+        public void reopen() {
+            lookupMap.reopen();
+        }
+
+        // Groups frame rows by shard, with a counting sort on shard index.
+        private DirectLongList partitionRows(PageAddressCacheRecord record, long frameRowCount) {
+            hashCodes.clear();
+            for (int i = 0; i < shardCount; i++) {
+                shardHi[i] = 0;
+            }
+            for (long r = 0; r < frameRowCount; r++) {
+                record.setRowIndex(r);
+                final MapKey lookupKey = lookupMap.withKey();
+                lookupKey.put(record, slaveKeySink);
+                lookupKey.commit();
+                final long hashCode = lookupKey.hash();
+                hashCodes.add(hashCode);
+                shardHi[(int) (hashCode >>> shardCountShr)]++;
+            }
+
+            long offset = 0;
+            for (int i = 0; i < shardCount; i++) {
+                shardLo[i] = offset;
+                offset += shardHi[i];
+                shardHi[i] = shardLo[i];
+            }
+
+            partitionedRows.setCapacity(2 * frameRowCount);
+            partitionedRows.setPos(2 * frameRowCount);
+            for (long r = 0; r < frameRowCount; r++) {
+                final long hashCode = hashCodes.get(r);
+                final long p = shardHi[(int) (hashCode >>> shardCountShr)]++;
+                partitionedRows.set(2 * p, r);
+                partitionedRows.set(2 * p + 1, hashCode);
+            }
+            return partitionedRows;
+        }
+    }
+}
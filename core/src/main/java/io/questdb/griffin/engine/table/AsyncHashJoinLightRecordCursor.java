@@ -0,0 +1,361 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.join.JoinRecord;
+import io.questdb.griffin.engine.join.LongChain;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
+import io.questdb.std.Os;
+import io.questdb.std.Rows;
+
+/**
+ * Iterates matches found by page frame reducers. Each reduced master page frame holds
+ * [master row index, slave row id chain reference] pairs in the filtered rows list.
+ */
+class AsyncHashJoinLightRecordCursor implements NoRandomAccessRecordCursor {
+    private static final Log LOG = LogFactory.getLog(AsyncHashJoinLightRecordCursor.class);
+    private final int columnSplit;
+    private final boolean hasDescendingOrder;
+    private final PageAddressCacheRecord masterRecord;
+    private final JoinRecord record;
+    private final PageAddressCacheRecord slaveRecord;
+    private boolean allFramesActive;
+    private PageFrameSequence<AsyncHashJoinLightAtom.BuildAtom> buildFrameSequence;
+    private int buildFrameLimit;
+    private SqlExecutionCircuitBreaker circuitBreaker;
+    private long cursor = -1;
+    private int frameIndex;
+    private int frameLimit;
+    private long frameMatchCount;
+    private long frameMatchIndex;
+    private PageFrameSequence<AsyncHashJoinLightAtom> frameSequence;
+    private boolean isBuilt;
+    private boolean isOpen;
+    private DirectLongList matches;
+    private LongChain.TreeCursor slaveChainCursor;
+
+    public AsyncHashJoinLightRecordCursor(int columnSplit, int scanDirection) {
+        this.columnSplit = columnSplit;
+        this.hasDescendingOrder = scanDirection == RecordCursorFactory.SCAN_DIRECTION_BACKWARD;
+        masterRecord = new PageAddressCacheRecord();
+        slaveRecord = new PageAddressCacheRecord();
+        record = new JoinRecord(columnSplit);
+        record.of(masterRecord, slaveRecord);
+        isOpen = true;
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            isOpen = false;
+            slaveChainCursor = null;
+            if (frameSequence != null) {
+                LOG.debug()
+                        .$("closing [shard=").$(frameSequence.getShard())
+                        .$(", frameIndex=").$(frameIndex)
+                        .$(", frameCount=").$(frameLimit)
+                        .$(", frameId=").$(frameSequence.getId())
+                        .$(", cursor=").$(cursor)
+                        .I$();
+
+                collectCursor(true);
+                if (frameLimit > -1) {
+                    frameSequence.await();
+                }
+                frameSequence.clear();
+            }
+            if (buildFrameSequence != null) {
+                if (buildFrameLimit > -1) {
+                    buildFrameSequence.await();
+                }
+                buildFrameSequence.clear();
+            }
+        }
+    }
+
+    public void freeRecords() {
+        Misc.free(masterRecord);
+        Misc.free(slaveRecord);
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        if (columnIndex < columnSplit) {
+            return frameSequence.getSymbolTableSource().getSymbolTable(columnIndex);
+        }
+        return buildFrameSequence.getSymbolTableSource().getSymbolTable(columnIndex - columnSplit);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!isBuilt) {
+            buildHashTable();
+            isBuilt = true;
+        }
+
+        if (slaveChainCursor != null && slaveChainCursor.hasNext()) {
+            recordAt(slaveRecord, slaveChainCursor.next());
+            return true;
+        }
+
+        // Check for the first hasNext call.
+        if (frameIndex == -1) {
+            fetchNextFrame();
+        }
+
+        // We have matches in the current frame we still need to dispatch
+        if (frameMatchIndex < frameMatchCount) {
+            nextMatch();
+            return true;
+        }
+
+        // Release the previous queue item.
+        collectCursor(false);
+
+        // Do we have more frames?
+        if (frameIndex < frameLimit) {
+            fetchNextFrame();
+            if (frameMatchIndex < frameMatchCount) {
+                nextMatch();
+                return true;
+            }
+        }
+
+        if (!allFramesActive) {
+            throwTimeoutException(frameSequence);
+        }
+        return false;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        if (columnIndex < columnSplit) {
+            return frameSequence.getSymbolTableSource().newSymbolTable(columnIndex);
+        }
+        return buildFrameSequence.getSymbolTableSource().newSymbolTable(columnIndex - columnSplit);
+    }
+
+    @Override
+    public long size() {
+        return -1;
+    }
+
+    @Override
+    public void toTop() {
+        slaveChainCursor = null;
+        // Check if we at the top already and there is nothing to do.
+        if (frameIndex == -1 || (frameIndex == 0 && frameMatchIndex == 0)) {
+            return;
+        }
+        collectCursor(false);
+        frameSequence.toTop();
+        frameIndex = -1;
+        frameMatchCount = 0;
+        frameMatchIndex = 0;
+        allFramesActive = true;
+    }
+
+    private static void recordAt(PageAddressCacheRecord record, long rowId) {
+        record.setFrameIndex(Rows.toPartitionIndex(rowId));
+        record.setRowIndex(Rows.toLocalRowID(rowId));
+    }
+
+    private static void throwTimeoutException(PageFrameSequence<?> frameSequence) {
+        if (frameSequence.getCancelReason() == SqlExecutionCircuitBreaker.STATE_CANCELLED) {
+            throw CairoException.queryCancelled();
+        } else {
+            throw CairoException.queryTimedOut();
+        }
+    }
+
+    private void buildHashTable() {
+        if (buildFrameLimit == -1) {
+            buildFrameSequence.prepareForDispatch();
+            buildFrameLimit = buildFrameSequence.getFrameCount() - 1;
+        }
+
+        int buildFrameIndex = -1;
+        boolean allBuildFramesActive = true;
+        try {
+            do {
+                final long cursor = buildFrameSequence.next();
+                if (cursor > -1) {
+                    PageFrameReduceTask task = buildFrameSequence.getTask(cursor);
+                    LOG.debug()
+                            .$("collected [shard=").$(buildFrameSequence.getShard())
+                            .$(", frameIndex=").$(task.getFrameIndex())
+                            .$(", frameCount=").$(buildFrameSequence.getFrameCount())
+                            .$(", active=").$(buildFrameSequence.isActive())
+                            .$(", cursor=").$(cursor)
+                            .I$();
+                    if (task.hasError()) {
+                        throw CairoException.nonCritical().put(task.getErrorMsg());
+                    }
+
+                    allBuildFramesActive &= buildFrameSequence.isActive();
+                    buildFrameIndex = task.getFrameIndex();
+
+                    buildFrameSequence.collect(cursor, false);
+                } else if (cursor == -2) {
+                    break; // No frames to build the hash table from.
+                } else {
+                    Os.pause();
+                }
+            } while (buildFrameIndex < buildFrameLimit);
+        } catch (CairoException e) {
+            if (e.isInterruption()) {
+                throwTimeoutException(buildFrameSequence);
+            } else {
+                throw e;
+            }
+        }
+
+        if (!allBuildFramesActive) {
+            throwTimeoutException(buildFrameSequence);
+        }
+
+        circuitBreaker.statefulThrowExceptionIfTripped();
+    }
+
+    private void collectCursor(boolean forceCollect) {
+        if (cursor > -1) {
+            frameSequence.collect(cursor, forceCollect);
+            // It is necessary to clear 'cursor' value
+            // because we updated frameIndex and loop can exit due to lack of frames.
+            // Non-update of 'cursor' could cause double-free.
+            cursor = -1;
+        }
+    }
+
+    private void fetchNextFrame() {
+        if (frameLimit == -1) {
+            frameSequence.prepareForDispatch();
+            frameLimit = frameSequence.getFrameCount() - 1;
+        }
+
+        try {
+            do {
+                cursor = frameSequence.next();
+                if (cursor > -1) {
+                    PageFrameReduceTask task = frameSequence.getTask(cursor);
+                    LOG.debug()
+                            .$("collected [shard=").$(frameSequence.getShard())
+                            .$(", frameIndex=").$(task.getFrameIndex())
+                            .$(", frameCount=").$(frameSequence.getFrameCount())
+                            .$(", frameId=").$(frameSequence.getId())
+                            .$(", active=").$(frameSequence.isActive())
+                            .$(", cursor=").$(cursor)
+                            .I$();
+
+                    if (task.hasError()) {
+                        throw CairoException.nonCritical().put(task.getErrorMsg())
+                                .setCancellation(task.isCancelled()).setInterruption(task.isCancelled());
+                    }
+
+                    allFramesActive &= frameSequence.isActive();
+                    matches = task.getFilteredRows();
+                    frameMatchCount = matches.size() / 2;
+                    frameIndex = task.getFrameIndex();
+                    frameMatchIndex = 0;
+                    if (frameMatchCount > 0 && frameSequence.isActive()) {
+                        masterRecord.setFrameIndex(task.getFrameIndex());
+                        break;
+                    } else {
+                        // Force reset frame size if frameSequence was canceled or failed.
+                        frameMatchCount = 0;
+                        collectCursor(false);
+                    }
+                } else if (cursor == -2) {
+                    break; // No frames to join.
+                } else {
+                    Os.pause();
+                }
+            } while (frameIndex < frameLimit);
+        } catch (Throwable e) {
+            if (e instanceof CairoException) {
+                CairoException ce = (CairoException) e;
+                if (ce.isInterruption() || ce.isCancellation()) {
+                    LOG.error().$("hash join error [ex=").$(((CairoException) e).getFlyweightMessage()).I$();
+                    throwTimeoutException(frameSequence);
+                } else {
+                    LOG.error().$("hash join error [ex=").$(e).I$();
+                    throw ce;
+                }
+            }
+            LOG.error().$("hash join error [ex=").$(e).I$();
+            throw CairoException.nonCritical().put(e.getMessage());
+        }
+    }
+
+    private void nextMatch() {
+        final long p = 2 * (hasDescendingOrder ? (frameMatchCount - frameMatchIndex - 1) : frameMatchIndex);
+        frameMatchIndex++;
+        masterRecord.setRowIndex(matches.get(p));
+        slaveChainCursor = frameSequence.getAtom().getChainCursor(matches.get(p + 1));
+        // chains are never empty
+        recordAt(slaveRecord, slaveChainCursor.next());
+    }
+
+    void of(
+            PageFrameSequence<AsyncHashJoinLightAtom.BuildAtom> buildFrameSequence,
+            PageFrameSequence<AsyncHashJoinLightAtom> frameSequence,
+            SqlExecutionContext executionContext
+    ) {
+        final AsyncHashJoinLightAtom atom = frameSequence.getAtom();
+        if (!isOpen) {
+            isOpen = true;
+            atom.reopen();
+        }
+        this.buildFrameSequence = buildFrameSequence;
+        this.frameSequence = frameSequence;
+        this.circuitBreaker = executionContext.getCircuitBreaker();
+        masterRecord.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        slaveRecord.of(buildFrameSequence.getSymbolTableSource(), buildFrameSequence.getPageAddressCache());
+        slaveChainCursor = null;
+        matches = null;
+        isBuilt = false;
+        buildFrameLimit = -1;
+        frameIndex = -1;
+        frameLimit = -1;
+        frameMatchCount = 0;
+        frameMatchIndex = 0;
+        allFramesActive = true;
+    }
+}
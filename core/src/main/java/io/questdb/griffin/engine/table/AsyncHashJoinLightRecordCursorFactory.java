@@ -0,0 +1,278 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReduceTaskFactory;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.join.AbstractJoinRecordCursorFactory;
+import io.questdb.griffin.engine.join.HashJoinLightRecordCursorFactory;
+import io.questdb.griffin.model.JoinContext;
+import io.questdb.jit.CompiledFilter;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Transient;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_DESC;
+import static io.questdb.griffin.engine.table.AsyncGroupByNotKeyedRecordCursorFactory.applyCompiledFilter;
+import static io.questdb.griffin.engine.table.AsyncGroupByNotKeyedRecordCursorFactory.applyFilter;
+
+/**
+ * Parallel version of {@link HashJoinLightRecordCursorFactory}. Slave page frames are inserted
+ * into a sharded hash table by workers, then master page frames are filtered and looked up
+ * in the hash table by workers. The query owner thread iterates the matches in master order.
+ * <p>
+ * Slave rows matching the same master row may come in any order, unlike in the single-threaded join.
+ */
+public class AsyncHashJoinLightRecordCursorFactory extends AbstractJoinRecordCursorFactory {
+    private static final PageFrameReducer BUILD = AsyncHashJoinLightRecordCursorFactory::build;
+    private static final PageFrameReducer FILTER_AND_PROBE = AsyncHashJoinLightRecordCursorFactory::filterAndProbe;
+    private static final PageFrameReducer PROBE = AsyncHashJoinLightRecordCursorFactory::probe;
+    private final PageFrameSequence<AsyncHashJoinLightAtom.BuildAtom> buildFrameSequence;
+    private final SCSequence buildSubSeq = new SCSequence();
+    private final AsyncHashJoinLightRecordCursor cursor;
+    private final PageFrameSequence<AsyncHashJoinLightAtom> probeFrameSequence;
+    private final SCSequence probeSubSeq = new SCSequence();
+    private final int workerCount;
+
+    public AsyncHashJoinLightRecordCursorFactory(
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordMetadata metadata,
+            @NotNull RecordCursorFactory masterFactory,
+            @NotNull RecordCursorFactory slaveFactory,
+            @Transient @NotNull ArrayColumnTypes joinColumnTypes,
+            @NotNull RecordSink masterKeySink,
+            @NotNull RecordSink slaveKeySink,
+            int columnSplit,
+            @NotNull JoinContext joinContext,
+            @Nullable CompiledFilter compiledFilter,
+            @Nullable MemoryCARW bindVarMemory,
+            @Nullable ObjList<Function> bindVarFunctions,
+            @Nullable Function filter,
+            @NotNull PageFrameReduceTaskFactory reduceTaskFactory,
+            int workerCount
+    ) {
+        super(metadata, joinContext, masterFactory, slaveFactory);
+        assert masterFactory.supportsPageFrameCursor() && slaveFactory.supportsPageFrameCursor();
+        try {
+            final AsyncHashJoinLightAtom atom = new AsyncHashJoinLightAtom(
+                    configuration,
+                    joinColumnTypes,
+                    masterKeySink,
+                    slaveKeySink,
+                    compiledFilter,
+                    bindVarMemory,
+                    bindVarFunctions,
+                    filter,
+                    workerCount
+            );
+            if (filter != null) {
+                this.probeFrameSequence = new PageFrameSequence<>(configuration, messageBus, atom, FILTER_AND_PROBE, reduceTaskFactory, PageFrameReduceTask.TYPE_HASH_JOIN);
+            } else {
+                this.probeFrameSequence = new PageFrameSequence<>(configuration, messageBus, atom, PROBE, reduceTaskFactory, PageFrameReduceTask.TYPE_HASH_JOIN);
+            }
+            this.buildFrameSequence = new PageFrameSequence<>(configuration, messageBus, atom.getBuildAtom(), BUILD, reduceTaskFactory, PageFrameReduceTask.TYPE_HASH_JOIN);
+            this.cursor = new AsyncHashJoinLightRecordCursor(columnSplit, masterFactory.getScanDirection());
+            this.workerCount = workerCount;
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean followedOrderByAdvice() {
+        return masterFactory.followedOrderByAdvice();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final PageFrameSequence<AsyncHashJoinLightAtom.BuildAtom> buildSequence = buildFrameSequence.of(slaveFactory, executionContext, buildSubSeq, ORDER_ASC);
+        try {
+            final int order = masterFactory.getScanDirection() == SCAN_DIRECTION_BACKWARD ? ORDER_DESC : ORDER_ASC;
+            cursor.of(buildSequence, probeFrameSequence.of(masterFactory, executionContext, probeSubSeq, order), executionContext);
+            return cursor;
+        } catch (Throwable e) {
+            buildFrameSequence.clear();
+            throw e;
+        }
+    }
+
+    @Override
+    public int getScanDirection() {
+        return masterFactory.getScanDirection();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsUpdateRowId(TableToken tableToken) {
+        return masterFactory.supportsUpdateRowId(tableToken);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        if (usesCompiledFilter()) {
+            sink.type("Async JIT Hash Join Light");
+        } else {
+            sink.type("Async Hash Join Light");
+        }
+        sink.meta("workers").val(workerCount);
+        sink.attr("condition").val(joinContext);
+        sink.optAttr("filter", probeFrameSequence.getAtom());
+        sink.child(masterFactory);
+        sink.child("Hash", slaveFactory);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return probeFrameSequence.getAtom().getCompiledFilter() != null;
+    }
+
+    private static void build(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final long frameRowCount = task.getFrameRowCount();
+        assert frameRowCount > 0;
+        final AsyncHashJoinLightAtom atom = task.getFrameSequence(AsyncHashJoinLightAtom.BuildAtom.class).getAtom().getJoinAtom();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        try {
+            atom.build(slotId, record, task.getFrameIndex(), frameRowCount, circuitBreaker);
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    private static void filterAndProbe(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final long frameRowCount = task.getFrameRowCount();
+        assert frameRowCount > 0;
+        final AsyncHashJoinLightAtom atom = task.getFrameSequence(AsyncHashJoinLightAtom.class).getAtom();
+        final PageAddressCache pageAddressCache = task.getPageAddressCache();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        final CompiledFilter compiledFilter = atom.getCompiledFilter();
+        final DirectLongList rows = atom.getFilteredRows(slotId);
+        final DirectLongList matches = task.getFilteredRows();
+        try {
+            rows.clear();
+            if (compiledFilter == null || pageAddressCache.hasColumnTops(task.getFrameIndex())) {
+                // Use Java-based filter when there is no compiled filter or in case of a page frame with column tops.
+                applyFilter(atom.getFilter(), rows, record, frameRowCount);
+            } else {
+                applyCompiledFilter(compiledFilter, atom.getBindVarMemory(), atom.getBindVarFunctions(), task);
+                rows.addAll(matches);
+            }
+
+            matches.clear();
+            for (long p = 0, n = rows.size(); p < n; p++) {
+                final long r = rows.get(p);
+                record.setRowIndex(r);
+                final long chainRef = atom.probe(slotId, record);
+                if (chainRef != -1) {
+                    matches.add(r);
+                    matches.add(chainRef);
+                }
+            }
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    private static void probe(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final long frameRowCount = task.getFrameRowCount();
+        assert frameRowCount > 0;
+        final AsyncHashJoinLightAtom atom = task.getFrameSequence(AsyncHashJoinLightAtom.class).getAtom();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        final DirectLongList matches = task.getFilteredRows();
+        try {
+            matches.clear();
+            for (long r = 0; r < frameRowCount; r++) {
+                record.setRowIndex(r);
+                final long chainRef = atom.probe(slotId, record);
+                if (chainRef != -1) {
+                    matches.add(r);
+                    matches.add(chainRef);
+                }
+            }
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    @Override
+    protected void _close() {
+        Misc.freeIfCloseable(getMetadata());
+        Misc.free(masterFactory);
+        Misc.free(slaveFactory);
+        if (cursor != null) {
+            cursor.close();
+            cursor.freeRecords();
+        }
+        Misc.free(buildFrameSequence);
+        Misc.free(probeFrameSequence);
+    }
+}
@@ -0,0 +1,189 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.Plannable;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.PerWorkerLocks;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Transient;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Holds per-worker maps used to find the latest row of each key within a page frame.
+ * Worker maps are cleared after each frame, so they hold at most the keys of a single frame.
+ * <p>
+ * When all keys are symbols, the number of possible key combinations is known from the symbol
+ * tables upfront, so both workers and the query owner thread stop scanning once all of them
+ * are found.
+ */
+public class AsyncLatestByAtom implements StatefulAtom, Plannable {
+    private final Function filter;
+    private final Map ownerMap;
+    // null when there are non-symbol keys
+    private final IntList partitionByColumnIndexes;
+    private final IntList partitionBySymbolCounts;
+    private final ObjList<Map> perWorkerMaps;
+    private final PerWorkerLocks perWorkerLocks;
+    private final RecordSink recordSink;
+    private long keyCombinations = Long.MAX_VALUE;
+
+    public AsyncLatestByAtom(
+            @NotNull CairoConfiguration configuration,
+            @NotNull RecordSink recordSink,
+            @Transient @NotNull ColumnTypes keyTypes,
+            @Nullable IntList partitionByColumnIndexes,
+            @Nullable IntList partitionBySymbolCounts,
+            @Nullable Function filter,
+            int workerCount
+    ) {
+        this.recordSink = recordSink;
+        this.partitionByColumnIndexes = partitionByColumnIndexes;
+        this.partitionBySymbolCounts = partitionBySymbolCounts;
+        // only thread-safe filters are used, so there are no per-worker filter copies
+        this.filter = filter;
+        try {
+            final int slotCount = Math.min(workerCount, configuration.getPageFrameReduceQueueCapacity());
+            ownerMap = MapFactory.createOrderedMap(configuration, keyTypes);
+            perWorkerMaps = new ObjList<>(slotCount);
+            for (int i = 0; i < slotCount; i++) {
+                perWorkerMaps.extendAndSet(i, MapFactory.createOrderedMap(configuration, keyTypes));
+            }
+            perWorkerLocks = new PerWorkerLocks(configuration, slotCount);
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use its own map anytime.
+            return -1;
+        }
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    @Override
+    public void clear() {
+        Misc.free(ownerMap);
+        Misc.freeObjListAndKeepObjects(perWorkerMaps);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(ownerMap);
+        Misc.freeObjList(perWorkerMaps);
+        Misc.free(filter);
+    }
+
+    public Function getFilter() {
+        return filter;
+    }
+
+    /**
+     * Returns the number of possible key combinations or {@link Long#MAX_VALUE} when the number
+     * is not known, i.e. when not all keys are symbols.
+     */
+    public long getKeyCombinations() {
+        return keyCombinations;
+    }
+
+    public Map getMap(int slotId) {
+        if (slotId == -1) {
+            return ownerMap;
+        }
+        return perWorkerMaps.getQuick(slotId);
+    }
+
+    public RecordSink getRecordSink() {
+        return recordSink;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        if (filter != null) {
+            filter.init(symbolTableSource, executionContext);
+        }
+        ownerMap.reopen();
+        for (int i = 0, n = perWorkerMaps.size(); i < n; i++) {
+            perWorkerMaps.getQuick(i).reopen();
+        }
+        keyCombinations = countKeyCombinations(symbolTableSource);
+    }
+
+    @Override
+    public void initCursor() {
+        if (filter != null) {
+            filter.initCursor();
+        }
+    }
+
+    public void release(int slotId) {
+        perWorkerLocks.releaseSlot(slotId);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.val(filter);
+    }
+
+    private long countKeyCombinations(SymbolTableSource symbolTableSource) {
+        if (partitionByColumnIndexes == null) {
+            return Long.MAX_VALUE;
+        }
+        long combinations = 1;
+        for (int i = 0, n = partitionByColumnIndexes.size(); i < n; i++) {
+            final SymbolTable symbolTable = symbolTableSource.getSymbolTable(partitionByColumnIndexes.getQuick(i));
+            if (!(symbolTable instanceof StaticSymbolTable)) {
+                return Long.MAX_VALUE;
+            }
+            final StaticSymbolTable staticSymbolTable = (StaticSymbolTable) symbolTable;
+            int distinctSymbols = staticSymbolTable.getSymbolCount();
+            if (staticSymbolTable.containsNullValue()) {
+                distinctSymbols++;
+            }
+            final int symbolCount = partitionBySymbolCounts != null ? partitionBySymbolCounts.getQuick(i) : Integer.MAX_VALUE;
+            try {
+                combinations = Math.multiplyExact(combinations, Math.min(symbolCount, distinctSymbols));
+            } catch (ArithmeticException ignore) {
+                return Long.MAX_VALUE;
+            }
+        }
+        return combinations;
+    }
+}
@@ -0,0 +1,337 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
+import io.questdb.std.Os;
+import io.questdb.std.Rows;
+
+/**
+ * Merges latest rows found by page frame reducers. Page frames are dispatched newest-first, so
+ * the first time a key is seen among the collected frames, the row is the latest one for the key.
+ * Row ids are accumulated in descending timestamp order and then iterated backwards to return
+ * rows in ascending timestamp order.
+ * <p>
+ * When the number of key combinations is known, the newest page frames, up to the max page frame
+ * size worth of rows, are scanned by the query owner thread first. Recent rows often contain all
+ * keys, and then there is no need to map and dispatch the remaining frames.
+ */
+class AsyncLatestByRecordCursor implements RecordCursor {
+    private static final Log LOG = LogFactory.getLog(AsyncLatestByRecordCursor.class);
+    private final Map map;
+    // holds the newest page frames scanned before dispatching frames to workers
+    private final PageAddressCache probeAddressCache;
+    private final long probeRowLimit;
+    private final PageAddressCacheRecord record;
+    private final RecordSink recordSink;
+    private final DirectLongList rows;
+    private int frameIndex;
+    private int frameLimit;
+    private RecordMetadata metadata;
+    private PageFrameSequence<AsyncLatestByAtom> frameSequence;
+    private boolean isOpen;
+    private PageAddressCacheRecord recordB;
+    private long rowIndex;
+
+    public AsyncLatestByRecordCursor(CairoConfiguration configuration, Map map, DirectLongList rows, RecordSink recordSink) {
+        this.probeAddressCache = new PageAddressCache(configuration);
+        this.probeRowLimit = configuration.getSqlPageFrameMaxRows();
+        this.map = map;
+        this.rows = rows;
+        this.recordSink = recordSink;
+        this.record = new PageAddressCacheRecord();
+        this.isOpen = true;
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            isOpen = false;
+            if (frameSequence != null) {
+                LOG.debug()
+                        .$("closing [shard=").$(frameSequence.getShard())
+                        .$(", frameCount=").$(frameLimit)
+                        .I$();
+
+                if (frameLimit > -1) {
+                    frameSequence.await();
+                }
+                frameSequence.clear();
+            }
+            probeAddressCache.clear();
+            Misc.free(map);
+            rows.resetCapacity();
+        }
+    }
+
+    public void freeRecords() {
+        Misc.free(record);
+        Misc.free(recordB);
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public Record getRecordB() {
+        if (recordB != null) {
+            return recordB;
+        }
+        recordB = new PageAddressCacheRecord(record);
+        return recordB;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return frameSequence.getSymbolTableSource().getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        // check for the first hasNext call
+        if (frameIndex == -1) {
+            if (probeNewestFrames()) {
+                frameIndex = 0;
+            } else {
+                fetchAllFrames();
+            }
+            rowIndex = rows.size() - 1;
+        }
+        if (rowIndex > -1) {
+            recordAt(record, rows.get(rowIndex--));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return frameSequence.getSymbolTableSource().newSymbolTable(columnIndex);
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        ((PageAddressCacheRecord) record).setFrameIndex(Rows.toPartitionIndex(atRowId));
+        ((PageAddressCacheRecord) record).setRowIndex(Rows.toLocalRowID(atRowId));
+    }
+
+    @Override
+    public long size() {
+        if (frameIndex == -1) {
+            return -1;
+        }
+        return rows.size();
+    }
+
+    @Override
+    public void toTop() {
+        if (frameIndex != -1) {
+            rowIndex = rows.size() - 1;
+        }
+    }
+
+    private void fetchAllFrames() {
+        if (frameLimit == -1) {
+            frameSequence.prepareForDispatch();
+            frameLimit = frameSequence.getFrameCount() - 1;
+        }
+
+        final long keyCombinations = frameSequence.getAtom().getKeyCombinations();
+        boolean allKeysFound = false;
+        boolean allFramesActive = true;
+        try {
+            do {
+                final long cursor = frameSequence.next();
+                if (cursor > -1) {
+                    PageFrameReduceTask task = frameSequence.getTask(cursor);
+                    LOG.debug()
+                            .$("collected [shard=").$(frameSequence.getShard())
+                            .$(", frameIndex=").$(task.getFrameIndex())
+                            .$(", frameCount=").$(frameSequence.getFrameCount())
+                            .$(", active=").$(frameSequence.isActive())
+                            .$(", cursor=").$(cursor)
+                            .I$();
+                    if (task.hasError()) {
+                        throw CairoException.nonCritical().put(task.getErrorMsg());
+                    }
+
+                    // Consider frame sequence status only if we haven't found all keys yet.
+                    allFramesActive &= frameSequence.isActive() || allKeysFound;
+                    final DirectLongList frameRows = task.getFilteredRows();
+                    frameIndex = task.getFrameIndex();
+
+                    if (!allKeysFound && frameSequence.isActive()) {
+                        // Frame rows are in descending timestamp order.
+                        record.setFrameIndex(frameIndex);
+                        for (long i = 0, n = frameRows.size(); i < n; i++) {
+                            final long row = frameRows.get(i);
+                            record.setRowIndex(row);
+                            MapKey key = map.withKey();
+                            key.put(record, recordSink);
+                            if (key.create()) {
+                                rows.add(Rows.toRowID(frameIndex, row));
+                                if (rows.size() == keyCombinations) {
+                                    allKeysFound = true;
+                                    frameSequence.cancel(SqlExecutionCircuitBreaker.STATE_OK);
+                                    break;
+                                }
+                            }
+                        }
+                    }
+
+                    frameSequence.collect(cursor, false);
+                } else if (cursor == -2) {
+                    break; // No frames to scan.
+                } else {
+                    Os.pause();
+                }
+            } while (frameIndex < frameLimit);
+        } catch (Throwable e) {
+            LOG.error().$("latest by error [ex=").$(e).I$();
+            if (e instanceof CairoException) {
+                CairoException ce = (CairoException) e;
+                if (ce.isInterruption()) {
+                    throwTimeoutException();
+                } else {
+                    throw ce;
+                }
+            }
+            throw CairoException.nonCritical().put(e.getMessage());
+        } finally {
+            map.clear();
+        }
+
+        if (!allFramesActive) {
+            throwTimeoutException();
+        }
+    }
+
+    /**
+     * Scans the newest page frames on the query owner thread.
+     *
+     * @return true if all possible keys were found in the frames; false if the frames have to be
+     * dispatched to workers, in which case the probe results are discarded
+     */
+    private boolean probeNewestFrames() {
+        final AsyncLatestByAtom atom = frameSequence.getAtom();
+        final long keyCombinations = atom.getKeyCombinations();
+        if (keyCombinations == Long.MAX_VALUE) {
+            return false;
+        }
+
+        atom.initCursor();
+        probeAddressCache.of(metadata);
+        record.of(frameSequence.getSymbolTableSource(), probeAddressCache);
+
+        final PageFrameCursor pageFrameCursor = frameSequence.getPageFrameCursor();
+        final SqlExecutionCircuitBreaker circuitBreaker = frameSequence.getSqlExecutionContext().getCircuitBreaker();
+        final Function filter = atom.getFilter();
+        boolean allKeysFound = false;
+        try {
+            PageFrame frame;
+            int probeFrameIndex = 0;
+            long probeRowCount = 0;
+            OUTER:
+            while (probeRowCount < probeRowLimit && (frame = pageFrameCursor.next()) != null) {
+                final long frameRowCount = frame.getPartitionHi() - frame.getPartitionLo();
+                probeAddressCache.add(probeFrameIndex, frame);
+                record.setFrameIndex(probeFrameIndex);
+                for (long row = frameRowCount - 1; row > -1; row--) {
+                    circuitBreaker.statefulThrowExceptionIfTripped();
+                    record.setRowIndex(row);
+                    if (filter == null || filter.getBool(record)) {
+                        MapKey key = map.withKey();
+                        key.put(record, recordSink);
+                        if (key.create()) {
+                            rows.add(Rows.toRowID(probeFrameIndex, row));
+                            if (rows.size() == keyCombinations) {
+                                allKeysFound = true;
+                                break OUTER;
+                            }
+                        }
+                    }
+                }
+                probeFrameIndex++;
+                probeRowCount += frameRowCount;
+            }
+        } finally {
+            map.clear();
+        }
+
+        if (allKeysFound) {
+            if (recordB != null) {
+                recordB.of(frameSequence.getSymbolTableSource(), probeAddressCache);
+            }
+            return true;
+        }
+
+        rows.clear();
+        probeAddressCache.clear();
+        record.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        pageFrameCursor.toTop();
+        return false;
+    }
+
+    private void throwTimeoutException() {
+        if (frameSequence.getCancelReason() == SqlExecutionCircuitBreaker.STATE_CANCELLED) {
+            throw CairoException.queryCancelled();
+        } else {
+            throw CairoException.queryTimedOut();
+        }
+    }
+
+    void of(PageFrameSequence<AsyncLatestByAtom> frameSequence, RecordMetadata metadata) {
+        if (!isOpen) {
+            isOpen = true;
+            map.reopen();
+        }
+        this.frameSequence = frameSequence;
+        this.metadata = metadata;
+        frameIndex = -1;
+        frameLimit = -1;
+        rowIndex = -1;
+        rows.clear();
+        probeAddressCache.clear();
+        record.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        if (recordB != null) {
+            recordB.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReduceTaskFactory;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.IntList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Transient;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_DESC;
+
+/**
+ * Parallel version of {@link LatestByAllFilteredRecordCursorFactory} and
+ * {@link LatestByAllSymbolsFilteredRecordCursorFactory}. Page frames are dispatched newest-first
+ * and each worker scans its frame backwards to find the latest row of every key within the frame.
+ * The query owner thread merges these candidates in frame order, so that the first row seen
+ * for a key is the latest one.
+ */
+public class AsyncLatestByRecordCursorFactory extends AbstractRecordCursorFactory {
+    private static final PageFrameReducer REDUCER = AsyncLatestByRecordCursorFactory::findLatest;
+    private final RecordCursorFactory base;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncLatestByRecordCursor cursor;
+    private final PageFrameSequence<AsyncLatestByAtom> frameSequence;
+    private final DirectLongList rows;
+    private final int workerCount;
+
+    public AsyncLatestByRecordCursorFactory(
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordMetadata metadata,
+            @NotNull RecordCursorFactory base,
+            @NotNull RecordSink recordSink,
+            @Transient @NotNull ColumnTypes keyTypes,
+            @Nullable IntList partitionByColumnIndexes,
+            @Nullable IntList partitionBySymbolCounts,
+            @Nullable Function filter,
+            @NotNull PageFrameReduceTaskFactory reduceTaskFactory,
+            int workerCount
+    ) {
+        super(metadata);
+        assert base.supportsPageFrameCursor();
+        this.base = base;
+        this.rows = new DirectLongList(configuration.getSqlLatestByRowCount(), MemoryTag.NATIVE_LATEST_BY_LONG_LIST);
+        try {
+            final AsyncLatestByAtom atom = new AsyncLatestByAtom(
+                    configuration,
+                    recordSink,
+                    keyTypes,
+                    partitionByColumnIndexes,
+                    partitionBySymbolCounts,
+                    filter,
+                    workerCount
+            );
+            this.frameSequence = new PageFrameSequence<>(configuration, messageBus, atom, REDUCER, reduceTaskFactory, PageFrameReduceTask.TYPE_LATEST_BY);
+            final Map map = MapFactory.createOrderedMap(configuration, keyTypes);
+            this.cursor = new AsyncLatestByRecordCursor(configuration, map, rows, recordSink);
+            this.workerCount = workerCount;
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final PageFrameSequence<AsyncLatestByAtom> sequence = frameSequence.of(base, executionContext, collectSubSeq, ORDER_DESC);
+        cursor.of(sequence, base.getMetadata());
+        return cursor;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return true;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Async Latest By");
+        sink.meta("workers").val(workerCount);
+        sink.optAttr("filter", frameSequence.getAtom());
+        sink.child(base);
+    }
+
+    private static void findLatest(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final long frameRowCount = task.getFrameRowCount();
+        assert frameRowCount > 0;
+        final AsyncLatestByAtom atom = task.getFrameSequence(AsyncLatestByAtom.class).getAtom();
+        final Function filter = atom.getFilter();
+        final RecordSink recordSink = atom.getRecordSink();
+        final long keyCombinations = atom.getKeyCombinations();
+        final DirectLongList rows = task.getFilteredRows();
+        rows.clear();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        final Map map = atom.getMap(slotId);
+        try {
+            for (long r = frameRowCount - 1; r > -1; r--) {
+                record.setRowIndex(r);
+                if (filter == null || filter.getBool(record)) {
+                    MapKey key = map.withKey();
+                    key.put(record, recordSink);
+                    if (key.create()) {
+                        rows.add(r);
+                        if (map.size() == keyCombinations) {
+                            break;
+                        }
+                    }
+                }
+            }
+        } finally {
+            map.clear();
+            atom.release(slotId);
+        }
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(base);
+        if (cursor != null) {
+            cursor.close();
+            cursor.freeRecords();
+        }
+        Misc.free(frameSequence);
+        Misc.free(rows);
+    }
+}
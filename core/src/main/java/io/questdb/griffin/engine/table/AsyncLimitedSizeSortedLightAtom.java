@@ -0,0 +1,294 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.Plannable;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.PerWorkerLocks;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.griffin.engine.orderby.LimitedSizeLongTreeChain;
+import io.questdb.jit.CompiledFilter;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+import static io.questdb.griffin.engine.table.AsyncJitFilteredRecordCursorFactory.prepareBindVarMemory;
+
+/**
+ * Holds per-worker state of parallel ORDER BY with LIMIT. Each slot owns a size-limited
+ * tree chain that keeps top K rows of the page frames reduced by the slot holder, so that
+ * at most K rows per slot reach the query owner thread for the final merge.
+ */
+public class AsyncLimitedSizeSortedLightAtom implements StatefulAtom, Closeable, Plannable {
+    private final ObjList<Function> bindVarFunctions;
+    private final MemoryCARW bindVarMemory;
+    // chain 0 belongs to the owner, chains 1..slotCount belong to the worker slots
+    private final ObjList<LimitedSizeLongTreeChain> chains;
+    private final CompiledFilter compiledFilter;
+    private final CairoConfiguration configuration;
+    private final Function filter;
+    private final ScanOrderRecordComparator ownerComparator;
+    private final PageAddressCacheRecord ownerRecord;
+    private final ObjList<ScanOrderRecordComparator> perWorkerComparators;
+    private final ObjList<Function> perWorkerFilters;
+    private final PerWorkerLocks perWorkerLocks;
+    private final ObjList<PageAddressCacheRecord> perWorkerRecords;
+    private final int slotCount;
+    private boolean isFirstN;
+    private long limit;
+
+    public AsyncLimitedSizeSortedLightAtom(
+            @NotNull CairoConfiguration configuration,
+            @NotNull RecordComparator comparator,
+            @NotNull ObjList<RecordComparator> perWorkerComparators,
+            @Nullable CompiledFilter compiledFilter,
+            @Nullable MemoryCARW bindVarMemory,
+            @Nullable ObjList<Function> bindVarFunctions,
+            @Nullable Function filter,
+            @Nullable ObjList<Function> perWorkerFilters,
+            int workerCount,
+            boolean backward
+    ) {
+        assert perWorkerFilters == null || perWorkerFilters.size() == workerCount;
+        assert perWorkerComparators.size() == workerCount;
+
+        // We don't want to pay for merging redundant runs, so we limit their number.
+        slotCount = Math.min(workerCount, configuration.getPageFrameReduceQueueCapacity());
+        try {
+            this.configuration = configuration;
+            this.compiledFilter = compiledFilter;
+            this.bindVarMemory = bindVarMemory;
+            this.bindVarFunctions = bindVarFunctions;
+            this.filter = filter;
+            this.perWorkerFilters = perWorkerFilters;
+            // ties are broken by the scan order, so that the runs don't depend on the frame distribution
+            this.ownerComparator = new ScanOrderRecordComparator(comparator, backward);
+            this.perWorkerComparators = new ObjList<>(workerCount);
+            for (int i = 0; i < workerCount; i++) {
+                this.perWorkerComparators.extendAndSet(i, new ScanOrderRecordComparator(perWorkerComparators.getQuick(i), backward));
+            }
+
+            perWorkerLocks = new PerWorkerLocks(configuration, slotCount);
+
+            // chains are created once the limit is known, see of()
+            chains = new ObjList<>(slotCount + 1);
+            ownerRecord = new PageAddressCacheRecord();
+            perWorkerRecords = new ObjList<>(slotCount);
+            for (int i = 0; i < slotCount; i++) {
+                perWorkerRecords.extendAndSet(i, new PageAddressCacheRecord());
+            }
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+    }
+
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use its own chain anytime.
+            return -1;
+        }
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    @Override
+    public void clear() {
+        // Free the chain memory; it's allocated again on the next execution.
+        Misc.freeObjListAndKeepObjects(chains);
+        Misc.free(ownerRecord);
+        Misc.freeObjListAndKeepObjects(perWorkerRecords);
+    }
+
+    @Override
+    public void close() {
+        Misc.freeObjList(chains);
+        Misc.free(ownerRecord);
+        Misc.freeObjList(perWorkerRecords);
+        Misc.free(compiledFilter);
+        Misc.free(bindVarMemory);
+        Misc.freeObjList(bindVarFunctions);
+        Misc.free(filter);
+        Misc.freeObjList(perWorkerFilters);
+    }
+
+    public ObjList<Function> getBindVarFunctions() {
+        return bindVarFunctions;
+    }
+
+    public MemoryCARW getBindVarMemory() {
+        return bindVarMemory;
+    }
+
+    public LimitedSizeLongTreeChain getChain(int slotId) {
+        return chains.getQuick(slotId + 1);
+    }
+
+    public RecordComparator getComparator(int slotId) {
+        if (slotId == -1) {
+            return ownerComparator;
+        }
+        return perWorkerComparators.getQuick(slotId);
+    }
+
+    public CompiledFilter getCompiledFilter() {
+        return compiledFilter;
+    }
+
+    public Function getFilter(int slotId) {
+        if (slotId == -1 || perWorkerFilters == null) {
+            return filter;
+        }
+        return perWorkerFilters.getQuick(slotId);
+    }
+
+    /**
+     * Returns the comparator of the query owner thread, the runs are merged with it.
+     */
+    ScanOrderRecordComparator getOwnerComparator() {
+        return ownerComparator;
+    }
+
+    /**
+     * Returns the record used to position tree chain nodes when inserting rows.
+     * Once the chain is full, the record points at its min/max row and must not be
+     * repositioned until the next insert.
+     */
+    public PageAddressCacheRecord getPlaceholderRecord(int slotId) {
+        if (slotId == -1) {
+            return ownerRecord;
+        }
+        return perWorkerRecords.getQuick(slotId);
+    }
+
+    /**
+     * Returns number of sorted runs produced by the reducers, including the owner one.
+     */
+    public int getRunCount() {
+        return chains.size();
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        if (filter != null) {
+            filter.init(symbolTableSource, executionContext);
+        }
+
+        if (perWorkerFilters != null) {
+            final boolean current = executionContext.getCloneSymbolTables();
+            executionContext.setCloneSymbolTables(true);
+            try {
+                Function.init(perWorkerFilters, symbolTableSource, executionContext);
+            } finally {
+                executionContext.setCloneSymbolTables(current);
+            }
+        }
+
+        if (bindVarFunctions != null) {
+            Function.init(bindVarFunctions, symbolTableSource, executionContext);
+            prepareBindVarMemory(executionContext, symbolTableSource, bindVarFunctions, bindVarMemory);
+        }
+    }
+
+    @Override
+    public void initCursor() {
+        if (filter != null) {
+            filter.initCursor();
+        }
+        if (perWorkerFilters != null) {
+            // Initialize all per-worker filters on the query owner thread to avoid
+            // DataUnavailableException thrown on worker threads when filtering.
+            Function.initCursor(perWorkerFilters);
+        }
+    }
+
+    public void initRecords(SymbolTableSource symbolTableSource, PageAddressCache pageAddressCache) {
+        ownerRecord.of(symbolTableSource, pageAddressCache);
+        for (int i = 0, n = perWorkerRecords.size(); i < n; i++) {
+            perWorkerRecords.getQuick(i).of(symbolTableSource, pageAddressCache);
+        }
+    }
+
+    /**
+     * Prepares the chains for the next execution. The limit may change between executions,
+     * e.g. when it's a bind variable, in which case the chains are recreated.
+     * <p>
+     * The single-threaded chain returns rows with equal keys from the last scanned to the
+     * first scanned one, but once it's full, the earliest scanned rows with the boundary
+     * key win. To keep the same rows, the chains order ties in the reverse scan order for
+     * the last N rows, but in the scan order for the first N rows, in which case the cursor
+     * reverses the ties once the runs are merged.
+     *
+     * @param isFirstN true to keep first rows in the sort order, false to keep the last ones
+     * @param limit    number of rows each chain keeps, -1 means no limit
+     */
+    public void of(boolean isFirstN, long limit) {
+        if (chains.size() == 0 || this.isFirstN != isFirstN || this.limit != limit) {
+            Misc.freeObjListAndClear(chains);
+            for (int i = 0; i <= slotCount; i++) {
+                chains.add(
+                        new LimitedSizeLongTreeChain(
+                                configuration.getSqlSortKeyPageSize(),
+                                configuration.getSqlSortKeyMaxPages(),
+                                configuration.getSqlSortLightValuePageSize(),
+                                configuration.getSqlSortLightValueMaxPages(),
+                                isFirstN,
+                                limit
+                        )
+                );
+            }
+            this.isFirstN = isFirstN;
+            this.limit = limit;
+            ownerComparator.setReverseTies(!isFirstN);
+            for (int i = 0, n = perWorkerComparators.size(); i < n; i++) {
+                perWorkerComparators.getQuick(i).setReverseTies(!isFirstN);
+            }
+        } else {
+            for (int i = 0; i <= slotCount; i++) {
+                // the chains may have been freed by clear()
+                final LimitedSizeLongTreeChain chain = chains.getQuick(i);
+                chain.reopen();
+                chain.clear();
+            }
+        }
+    }
+
+    public void release(int slotId) {
+        perWorkerLocks.releaseSlot(slotId);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.val(filter);
+    }
+}
@@ -0,0 +1,303 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.orderby.LimitedSizeLongTreeChain;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.Os;
+import io.questdb.std.Rows;
+
+/**
+ * Merges top K runs built by page frame reducers and applies the LIMIT clause
+ * to the merged rows.
+ */
+class AsyncLimitedSizeSortedLightRecordCursor implements RecordCursor {
+    private static final Log LOG = LogFactory.getLog(AsyncLimitedSizeSortedLightRecordCursor.class);
+    // merged first N rows with the ties reversed, see AsyncLimitedSizeSortedLightAtom.of()
+    private final LongList keptRows = new LongList();
+    private final SortedRunMerger merger = new SortedRunMerger();
+    private final PageAddressCacheRecord record;
+    private final PageAddressCacheRecord tieRecord;
+    private SqlExecutionCircuitBreaker circuitBreaker;
+    private int frameLimit;
+    private PageFrameSequence<AsyncLimitedSizeSortedLightAtom> frameSequence;
+    private boolean isFirstN;
+    private boolean isOpen;
+    private boolean isSorted;
+    private int keptRowIndex;
+    private long limit; // <0 - limit disabled; =0 means don't fetch any rows; >0 - apply limit
+    private PageAddressCacheRecord recordB;
+    private long rowCount;
+    private long rowsLeft;
+    private long skipFirst; // skip first N rows
+    private long skipLast; // skip last N rows
+
+    public AsyncLimitedSizeSortedLightRecordCursor() {
+        record = new PageAddressCacheRecord();
+        tieRecord = new PageAddressCacheRecord();
+        isOpen = true;
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            isOpen = false;
+            Misc.free(merger);
+            if (frameSequence != null) {
+                LOG.debug()
+                        .$("closing [shard=").$(frameSequence.getShard())
+                        .$(", frameCount=").$(frameLimit)
+                        .I$();
+
+                if (frameLimit > -1) {
+                    frameSequence.await();
+                }
+                frameSequence.clear();
+            }
+        }
+    }
+
+    public void freeRecords() {
+        Misc.free(record);
+        Misc.free(recordB);
+        Misc.free(tieRecord);
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public Record getRecordB() {
+        if (recordB != null) {
+            return recordB;
+        }
+        recordB = new PageAddressCacheRecord(record);
+        return recordB;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return frameSequence.getSymbolTableSource().getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!isSorted) {
+            buildRuns();
+            isSorted = true;
+        }
+
+        if (rowsLeft-- > 0) {
+            final long rowId = keptRowIndex > -1 ? keptRows.getQuick(keptRowIndex++) : merger.next();
+            assert rowId != -1;
+            recordAt(record, rowId);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return frameSequence.getSymbolTableSource().newSymbolTable(columnIndex);
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        ((PageAddressCacheRecord) record).setFrameIndex(Rows.toPartitionIndex(atRowId));
+        ((PageAddressCacheRecord) record).setRowIndex(Rows.toLocalRowID(atRowId));
+    }
+
+    @Override
+    public long size() {
+        return isSorted ? rowCount : -1;
+    }
+
+    @Override
+    public void toTop() {
+        if (isSorted) {
+            openRuns();
+        }
+    }
+
+    private void buildRuns() {
+        if (frameLimit == -1) {
+            frameSequence.prepareForDispatch();
+            frameLimit = frameSequence.getFrameCount() - 1;
+        }
+
+        int frameIndex = -1;
+        boolean allFramesActive = true;
+        try {
+            do {
+                final long cursor = frameSequence.next();
+                if (cursor > -1) {
+                    PageFrameReduceTask task = frameSequence.getTask(cursor);
+                    LOG.debug()
+                            .$("collected [shard=").$(frameSequence.getShard())
+                            .$(", frameIndex=").$(task.getFrameIndex())
+                            .$(", frameCount=").$(frameSequence.getFrameCount())
+                            .$(", active=").$(frameSequence.isActive())
+                            .$(", cursor=").$(cursor)
+                            .I$();
+                    if (task.hasError()) {
+                        throw CairoException.nonCritical().put(task.getErrorMsg());
+                    }
+
+                    allFramesActive &= frameSequence.isActive();
+                    frameIndex = task.getFrameIndex();
+
+                    frameSequence.collect(cursor, false);
+                } else if (cursor == -2) {
+                    break; // No frames to sort.
+                } else {
+                    Os.pause();
+                }
+            } while (frameIndex < frameLimit);
+        } catch (CairoException e) {
+            if (e.isInterruption()) {
+                throwTimeoutException();
+            } else {
+                throw e;
+            }
+        }
+
+        if (!allFramesActive) {
+            throwTimeoutException();
+        }
+
+        circuitBreaker.statefulThrowExceptionIfTripped();
+
+        openRuns();
+    }
+
+    /**
+     * Collects the merged rows and reverses the order of the rows with equal keys,
+     * so that they come from the last scanned to the first scanned one.
+     */
+    private void collectKeptRows(ScanOrderRecordComparator comparator, long keptCount) {
+        keptRows.clear();
+        for (long i = 0; i < keptCount; i++) {
+            keptRows.add(merger.next());
+        }
+
+        int groupLo = 0;
+        for (int i = 1, n = keptRows.size(); i <= n; i++) {
+            if (i < n) {
+                recordAt(record, keptRows.getQuick(groupLo));
+                recordAt(tieRecord, keptRows.getQuick(i));
+                comparator.setLeft(record);
+                if (comparator.compareKeys(tieRecord) == 0) {
+                    continue;
+                }
+            }
+            for (int lo = groupLo, hi = i - 1; lo < hi; lo++, hi--) {
+                final long rowId = keptRows.getQuick(lo);
+                keptRows.setQuick(lo, keptRows.getQuick(hi));
+                keptRows.setQuick(hi, rowId);
+            }
+            groupLo = i;
+        }
+    }
+
+    /**
+     * Positions the merger at the first row to return. Each run keeps up to limit rows,
+     * so the merged rows are trimmed to the limit first: for the last N rows, the leading
+     * rows of the merged sequence are skipped.
+     */
+    private void openRuns() {
+        final AsyncLimitedSizeSortedLightAtom atom = frameSequence.getAtom();
+        merger.of(atom.getComparator(-1), frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        long totalCount = 0;
+        for (int i = 0, n = atom.getRunCount(); i < n; i++) {
+            // the owner run goes first, it is addressed by slot -1
+            final LimitedSizeLongTreeChain chain = atom.getChain(i - 1);
+            if (chain.size() > 0) {
+                merger.addRun(chain.getCursor());
+                totalCount += chain.size();
+            }
+        }
+        merger.init();
+
+        final long keptCount = limit < 0 ? totalCount : Math.min(totalCount, limit);
+        rowCount = Math.max(keptCount - skipFirst - skipLast, 0);
+        rowsLeft = rowCount;
+        if (isFirstN && limit > 0) {
+            collectKeptRows(atom.getOwnerComparator(), keptCount);
+            keptRowIndex = (int) skipFirst;
+            return;
+        }
+
+        keptRowIndex = -1;
+        long skipCount = skipFirst + (isFirstN ? 0 : totalCount - keptCount);
+        while (skipCount-- > 0 && merger.next() != -1) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+        }
+    }
+
+    private void throwTimeoutException() {
+        if (frameSequence.getCancelReason() == SqlExecutionCircuitBreaker.STATE_CANCELLED) {
+            throw CairoException.queryCancelled();
+        } else {
+            throw CairoException.queryTimedOut();
+        }
+    }
+
+    void of(
+            PageFrameSequence<AsyncLimitedSizeSortedLightAtom> frameSequence,
+            SqlExecutionContext executionContext,
+            boolean isFirstN,
+            long limit,
+            long skipFirst,
+            long skipLast
+    ) {
+        this.isOpen = true;
+        this.frameSequence = frameSequence;
+        this.circuitBreaker = executionContext.getCircuitBreaker();
+        this.isFirstN = isFirstN;
+        this.limit = limit;
+        this.skipFirst = skipFirst;
+        this.skipLast = skipLast;
+        record.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        tieRecord.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        if (recordB != null) {
+            recordB.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        }
+        frameSequence.getAtom().initRecords(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        isSorted = false;
+        frameLimit = -1;
+    }
+}
@@ -0,0 +1,311 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ListColumnFilter;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReduceTaskFactory;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.griffin.engine.orderby.LimitedSizeLongTreeChain;
+import io.questdb.griffin.engine.orderby.LimitedSizeSortedLightRecordCursorFactory;
+import io.questdb.griffin.engine.orderby.SortedLightRecordCursorFactory;
+import io.questdb.griffin.engine.orderby.SortedRecordCursorFactory;
+import io.questdb.jit.CompiledFilter;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_DESC;
+import static io.questdb.griffin.engine.table.AsyncGroupByNotKeyedRecordCursorFactory.applyCompiledFilter;
+import static io.questdb.griffin.engine.table.AsyncGroupByNotKeyedRecordCursorFactory.applyFilter;
+
+/**
+ * Parallel version of {@link LimitedSizeSortedLightRecordCursorFactory}. Workers keep
+ * top K rows of the page frames they reduce in per-worker size-limited tree chains, so
+ * the query owner thread merges at most K rows per worker instead of sorting every
+ * matching row.
+ * <p>
+ * Rows with equal sort keys come in the same order as in the single-threaded sort, i.e. from
+ * the last scanned to the first scanned one.
+ */
+public class AsyncLimitedSizeSortedLightRecordCursorFactory extends AbstractRecordCursorFactory {
+    private static final PageFrameReducer FILTER_AND_SORT = AsyncLimitedSizeSortedLightRecordCursorFactory::filterAndSort;
+    private static final PageFrameReducer SORT = AsyncLimitedSizeSortedLightRecordCursorFactory::sort;
+    private final RecordCursorFactory base;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncLimitedSizeSortedLightRecordCursor cursor;
+    private final PageFrameSequence<AsyncLimitedSizeSortedLightAtom> frameSequence;
+    private final Function hiFunction;
+    private final Function loFunction;
+    private final ListColumnFilter sortColumnFilter;
+    private final int workerCount;
+
+    public AsyncLimitedSizeSortedLightRecordCursorFactory(
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordMetadata metadata,
+            @NotNull RecordCursorFactory base,
+            @NotNull RecordComparator comparator,
+            @NotNull ObjList<RecordComparator> perWorkerComparators,
+            @NotNull ListColumnFilter sortColumnFilter,
+            @NotNull Function loFunction,
+            @Nullable Function hiFunction,
+            @Nullable CompiledFilter compiledFilter,
+            @Nullable MemoryCARW bindVarMemory,
+            @Nullable ObjList<Function> bindVarFunctions,
+            @Nullable Function filter,
+            @NotNull PageFrameReduceTaskFactory reduceTaskFactory,
+            @Nullable ObjList<Function> perWorkerFilters,
+            int workerCount
+    ) {
+        super(metadata);
+        try {
+            this.base = base;
+            this.sortColumnFilter = sortColumnFilter;
+            this.loFunction = loFunction;
+            this.hiFunction = hiFunction;
+            AsyncLimitedSizeSortedLightAtom atom = new AsyncLimitedSizeSortedLightAtom(
+                    configuration,
+                    comparator,
+                    perWorkerComparators,
+                    compiledFilter,
+                    bindVarMemory,
+                    bindVarFunctions,
+                    filter,
+                    perWorkerFilters,
+                    workerCount,
+                    base.getScanDirection() == SCAN_DIRECTION_BACKWARD
+            );
+            if (filter != null) {
+                this.frameSequence = new PageFrameSequence<>(configuration, messageBus, atom, FILTER_AND_SORT, reduceTaskFactory, PageFrameReduceTask.TYPE_ORDER_BY);
+            } else {
+                this.frameSequence = new PageFrameSequence<>(configuration, messageBus, atom, SORT, reduceTaskFactory, PageFrameReduceTask.TYPE_ORDER_BY);
+            }
+            this.cursor = new AsyncLimitedSizeSortedLightRecordCursor();
+            this.workerCount = workerCount;
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public PageFrameSequence<AsyncLimitedSizeSortedLightAtom> execute(SqlExecutionContext executionContext, SCSequence collectSubSeq, int order) throws SqlException {
+        return frameSequence.of(base, executionContext, collectSubSeq, order);
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    /*
+     * The LIMIT clause is translated into the chain size the same way as in
+     * LimitedSizeSortedLightRecordCursorFactory, except that "limit L, H" with L >= 0
+     * and H < 0 doesn't fall back to another cursor: the chains are unlimited then.
+     */
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        loFunction.init(null, executionContext);
+        if (hiFunction != null) {
+            hiFunction.init(null, executionContext);
+        }
+
+        long skipFirst = 0, skipLast = 0, limit;
+        boolean isFirstN = false;
+
+        final long lo = loFunction.getLong(null);
+        if (hiFunction == null) {
+            if (lo < 0) {
+                // last N rows
+                limit = -lo;
+            } else {
+                // first N rows
+                isFirstN = true;
+                limit = lo;
+            }
+        } else {
+            final long hi = hiFunction.getLong(null);
+            if (lo < 0) {
+                if (lo < hi) {
+                    limit = -lo;
+                    skipLast = Math.max(-hi, 0);
+                } else {
+                    // invalid bottom range, for example -3, -10
+                    limit = 0;
+                }
+            } else if (hi < 0) {
+                // from lo up to the end-hi, all rows have to be kept
+                limit = -1;
+                skipFirst = lo;
+                skipLast = -hi;
+            } else if (hi <= lo) {
+                limit = 0;
+            } else {
+                isFirstN = true;
+                limit = hi;
+                skipFirst = lo;
+            }
+        }
+
+        frameSequence.getAtom().of(isFirstN, limit);
+        final int order = base.getScanDirection() == SCAN_DIRECTION_BACKWARD ? ORDER_DESC : ORDER_ASC;
+        cursor.of(execute(executionContext, collectSubSeq, order), executionContext, isFirstN, limit, skipFirst, skipLast);
+        return cursor;
+    }
+
+    @Override
+    public int getScanDirection() {
+        return SortedRecordCursorFactory.getScanDirection(sortColumnFilter);
+    }
+
+    @Override
+    public boolean implementsLimit() {
+        return true;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return true;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        if (usesCompiledFilter()) {
+            sink.type("Async JIT Sort light");
+        } else {
+            sink.type("Async Sort light");
+        }
+        sink.meta("lo").val(loFunction);
+        if (hiFunction != null) {
+            sink.meta("hi").val(hiFunction);
+        }
+        sink.meta("workers").val(workerCount);
+        SortedLightRecordCursorFactory.addSortKeys(sink, sortColumnFilter);
+        sink.optAttr("filter", frameSequence.getAtom(), true);
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return frameSequence.getAtom().getCompiledFilter() != null;
+    }
+
+    @Override
+    public boolean usesIndex() {
+        return base.usesIndex();
+    }
+
+    private static void filterAndSort(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final DirectLongList rows = task.getFilteredRows();
+        final PageAddressCache pageAddressCache = task.getPageAddressCache();
+
+        rows.clear();
+
+        final long frameRowCount = task.getFrameRowCount();
+        assert frameRowCount > 0;
+        final AsyncLimitedSizeSortedLightAtom atom = task.getFrameSequence(AsyncLimitedSizeSortedLightAtom.class).getAtom();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        final CompiledFilter compiledFilter = atom.getCompiledFilter();
+        final Function filter = atom.getFilter(slotId);
+        final LimitedSizeLongTreeChain chain = atom.getChain(slotId);
+        final RecordComparator comparator = atom.getComparator(slotId);
+        final PageAddressCacheRecord placeholderRecord = atom.getPlaceholderRecord(slotId);
+        try {
+            if (compiledFilter == null || pageAddressCache.hasColumnTops(task.getFrameIndex())) {
+                // Use Java-based filter when there is no compiled filter or in case of a page frame with column tops.
+                applyFilter(filter, rows, record, frameRowCount);
+            } else {
+                applyCompiledFilter(compiledFilter, atom.getBindVarMemory(), atom.getBindVarFunctions(), task);
+            }
+
+            for (long p = 0, n = rows.size(); p < n; p++) {
+                record.setRowIndex(rows.get(p));
+                chain.put(record, placeholderRecord, comparator);
+            }
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    private static void sort(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final long frameRowCount = task.getFrameRowCount();
+        assert frameRowCount > 0;
+        final AsyncLimitedSizeSortedLightAtom atom = task.getFrameSequence(AsyncLimitedSizeSortedLightAtom.class).getAtom();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        final LimitedSizeLongTreeChain chain = atom.getChain(slotId);
+        final RecordComparator comparator = atom.getComparator(slotId);
+        final PageAddressCacheRecord placeholderRecord = atom.getPlaceholderRecord(slotId);
+        try {
+            for (long r = 0; r < frameRowCount; r++) {
+                record.setRowIndex(r);
+                chain.put(record, placeholderRecord, comparator);
+            }
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(base);
+        if (cursor != null) {
+            cursor.close();
+            cursor.freeRecords();
+        }
+        Misc.free(frameSequence);
+    }
+}
@@ -0,0 +1,399 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.Plannable;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.PerWorkerLocks;
+import io.questdb.griffin.engine.functions.columns.ColumnFunction;
+import io.questdb.jit.CompiledFilter;
+import io.questdb.std.*;
+import io.questdb.std.str.DirectUtf16Sink;
+import io.questdb.std.str.DirectUtf8Sink;
+import io.questdb.std.str.Utf8Sequence;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+import static io.questdb.griffin.engine.table.AsyncJitFilteredRecordCursorFactory.prepareBindVarMemory;
+
+/**
+ * Holds the functions and the filter of parallel projection.
+ * <p>
+ * Workers evaluate the projected functions for the filtered rows of a page frame and write
+ * the values to the reduce task, one row of value slots per filtered row. A projected column
+ * takes a single slot, except for 128-bit values and STRING and VARCHAR values, which take
+ * two slots. For STRING and VARCHAR, the slots hold [lo, hi] offsets in the task's projected
+ * string or varchar sink; the lo offset is -1 for NULL values. Columns that are not projected,
+ * e.g. plain column references, constants or symbols, are evaluated by the query owner thread.
+ */
+public class AsyncProjectionAtom implements StatefulAtom, Closeable, Plannable {
+    private final ObjList<Function> bindVarFunctions;
+    private final MemoryCARW bindVarMemory;
+    // column index to slot offset of the projected columns, -1 for other columns
+    private final IntList columnSlots;
+    private final CompiledFilter compiledFilter;
+    private final Function filter;
+    // all functions of the projection; they're owned by the factory
+    private final ObjList<Function> functions;
+    private final ObjList<ObjList<Function>> perWorkerFunctions;
+    private final PerWorkerLocks perWorkerLocks;
+    private final IntList projectedColumns;
+    private final ObjList<Function> projectedFunctions;
+    private final int slotCount;
+    private boolean hasStrings;
+    private boolean hasVarchars;
+
+    public AsyncProjectionAtom(
+            @NotNull CairoConfiguration configuration,
+            @NotNull ObjList<Function> functions,
+            @NotNull IntList projectedColumns,
+            @Nullable ObjList<ObjList<Function>> perWorkerFunctions,
+            @Nullable CompiledFilter compiledFilter,
+            @Nullable MemoryCARW bindVarMemory,
+            @Nullable ObjList<Function> bindVarFunctions,
+            @Nullable Function filter,
+            int workerCount
+    ) {
+        assert projectedColumns.size() > 0;
+        this.functions = functions;
+        this.projectedColumns = projectedColumns;
+        this.perWorkerFunctions = perWorkerFunctions;
+        this.compiledFilter = compiledFilter;
+        this.bindVarMemory = bindVarMemory;
+        this.bindVarFunctions = bindVarFunctions;
+        // only thread-safe filters are stolen, so there are no per-worker filter copies
+        this.filter = filter;
+
+        columnSlots = new IntList(functions.size());
+        columnSlots.setAll(functions.size(), -1);
+        projectedFunctions = new ObjList<>(projectedColumns.size());
+        int slotCount = 0;
+        for (int i = 0, n = projectedColumns.size(); i < n; i++) {
+            final int columnIndex = projectedColumns.getQuick(i);
+            final Function function = functions.getQuick(columnIndex);
+            projectedFunctions.add(function);
+            columnSlots.setQuick(columnIndex, slotCount);
+            slotCount += getSlotCount(function.getType());
+            final short tag = ColumnType.tagOf(function.getType());
+            hasStrings |= tag == ColumnType.STRING;
+            hasVarchars |= tag == ColumnType.VARCHAR;
+        }
+        this.slotCount = slotCount;
+
+        if (perWorkerFunctions != null) {
+            perWorkerLocks = new PerWorkerLocks(configuration, Math.min(workerCount, perWorkerFunctions.size()));
+        } else {
+            perWorkerLocks = null;
+        }
+    }
+
+    /**
+     * Returns true if the function is worth evaluating on worker threads and its values
+     * can be written to the value slots.
+     */
+    public static boolean isProjectable(Function function) {
+        return !function.isConstant()
+                && !function.isRuntimeConstant()
+                && !(function instanceof ColumnFunction)
+                && function.supportsParallelism()
+                && getSlotCount(function.getType()) > 0;
+    }
+
+    /**
+     * Returns true if the function can be shared by workers. STRING and VARCHAR functions
+     * often write their values to an internal sink while their arguments are thread-safe,
+     * so such functions are always copied per worker.
+     */
+    public static boolean isThreadSafe(Function function) {
+        final short tag = ColumnType.tagOf(function.getType());
+        return function.isReadThreadSafe() && tag != ColumnType.STRING && tag != ColumnType.VARCHAR;
+    }
+
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (perWorkerLocks == null) {
+            return -1;
+        }
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use the original functions anytime.
+            return -1;
+        }
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    @Override
+    public void close() {
+        if (perWorkerFunctions != null) {
+            for (int i = 0, n = perWorkerFunctions.size(); i < n; i++) {
+                Misc.freeObjList(perWorkerFunctions.getQuick(i));
+            }
+        }
+        Misc.free(compiledFilter);
+        Misc.free(bindVarMemory);
+        Misc.freeObjList(bindVarFunctions);
+        Misc.free(filter);
+    }
+
+    public ObjList<Function> getBindVarFunctions() {
+        return bindVarFunctions;
+    }
+
+    public MemoryCARW getBindVarMemory() {
+        return bindVarMemory;
+    }
+
+    public IntList getColumnSlots() {
+        return columnSlots;
+    }
+
+    public CompiledFilter getCompiledFilter() {
+        return compiledFilter;
+    }
+
+    public Function getFilter() {
+        return filter;
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    public boolean hasStrings() {
+        return hasStrings;
+    }
+
+    public boolean hasVarchars() {
+        return hasVarchars;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        if (filter != null) {
+            filter.init(symbolTableSource, executionContext);
+        }
+
+        if (bindVarFunctions != null) {
+            Function.init(bindVarFunctions, symbolTableSource, executionContext);
+            prepareBindVarMemory(executionContext, symbolTableSource, bindVarFunctions, bindVarMemory);
+        }
+
+        Function.init(functions, symbolTableSource, executionContext);
+        if (perWorkerFunctions != null) {
+            final boolean current = executionContext.getCloneSymbolTables();
+            executionContext.setCloneSymbolTables(true);
+            try {
+                for (int i = 0, n = perWorkerFunctions.size(); i < n; i++) {
+                    Function.init(perWorkerFunctions.getQuick(i), symbolTableSource, executionContext);
+                }
+            } finally {
+                executionContext.setCloneSymbolTables(current);
+            }
+        }
+    }
+
+    @Override
+    public void initCursor() {
+        if (filter != null) {
+            filter.initCursor();
+        }
+        Function.initCursor(functions);
+        if (perWorkerFunctions != null) {
+            // Initialize all per-worker functions on the query owner thread to avoid
+            // DataUnavailableException thrown on worker threads when projecting.
+            for (int i = 0, n = perWorkerFunctions.size(); i < n; i++) {
+                Function.initCursor(perWorkerFunctions.getQuick(i));
+            }
+        }
+    }
+
+    /**
+     * Evaluates the projected functions for the given rows and writes their values to the task.
+     *
+     * @param slotId   slot acquired via {@link #acquire(int, boolean, SqlExecutionCircuitBreaker)}
+     * @param record   record pointing at the page frame
+     * @param rows     filtered rows or null when all rows of the page frame are projected
+     * @param rowCount number of rows to project
+     * @param task     task to write the values to
+     */
+    public void project(int slotId, PageAddressCacheRecord record, @Nullable DirectLongList rows, long rowCount, PageFrameReduceTask task) {
+        final ObjList<Function> functions = slotId == -1 ? projectedFunctions : perWorkerFunctions.getQuick(slotId);
+        final DirectLongList values = task.getProjectedValues();
+        final DirectUtf16Sink strings = hasStrings ? task.getProjectedStrings() : null;
+        final DirectUtf8Sink varchars = hasVarchars ? task.getProjectedVarchars() : null;
+        if (strings != null) {
+            strings.clear();
+        }
+        if (varchars != null) {
+            varchars.clear();
+        }
+
+        final long valueCount = rowCount * slotCount;
+        values.clear();
+        if (values.getCapacity() < valueCount) {
+            values.setCapacity(valueCount);
+        }
+        long p = values.getAddress();
+        for (long i = 0; i < rowCount; i++) {
+            record.setRowIndex(rows != null ? rows.get(i) : i);
+            for (int j = 0, n = functions.size(); j < n; j++) {
+                final Function function = functions.getQuick(j);
+                switch (ColumnType.tagOf(function.getType())) {
+                    case ColumnType.BOOLEAN:
+                        Unsafe.getUnsafe().putLong(p, function.getBool(record) ? 1 : 0);
+                        break;
+                    case ColumnType.BYTE:
+                        Unsafe.getUnsafe().putLong(p, function.getByte(record));
+                        break;
+                    case ColumnType.SHORT:
+                        Unsafe.getUnsafe().putLong(p, function.getShort(record));
+                        break;
+                    case ColumnType.CHAR:
+                        Unsafe.getUnsafe().putLong(p, function.getChar(record));
+                        break;
+                    case ColumnType.INT:
+                        Unsafe.getUnsafe().putLong(p, function.getInt(record));
+                        break;
+                    case ColumnType.IPv4:
+                        Unsafe.getUnsafe().putLong(p, function.getIPv4(record));
+                        break;
+                    case ColumnType.LONG:
+                        Unsafe.getUnsafe().putLong(p, function.getLong(record));
+                        break;
+                    case ColumnType.DATE:
+                        Unsafe.getUnsafe().putLong(p, function.getDate(record));
+                        break;
+                    case ColumnType.TIMESTAMP:
+                        Unsafe.getUnsafe().putLong(p, function.getTimestamp(record));
+                        break;
+                    case ColumnType.FLOAT:
+                        Unsafe.getUnsafe().putLong(p, Float.floatToRawIntBits(function.getFloat(record)));
+                        break;
+                    case ColumnType.DOUBLE:
+                        Unsafe.getUnsafe().putDouble(p, function.getDouble(record));
+                        break;
+                    case ColumnType.GEOBYTE:
+                        Unsafe.getUnsafe().putLong(p, function.getGeoByte(record));
+                        break;
+                    case ColumnType.GEOSHORT:
+                        Unsafe.getUnsafe().putLong(p, function.getGeoShort(record));
+                        break;
+                    case ColumnType.GEOINT:
+                        Unsafe.getUnsafe().putLong(p, function.getGeoInt(record));
+                        break;
+                    case ColumnType.GEOLONG:
+                        Unsafe.getUnsafe().putLong(p, function.getGeoLong(record));
+                        break;
+                    case ColumnType.UUID:
+                    case ColumnType.LONG128:
+                        Unsafe.getUnsafe().putLong(p, function.getLong128Lo(record));
+                        Unsafe.getUnsafe().putLong(p + Long.BYTES, function.getLong128Hi(record));
+                        p += Long.BYTES;
+                        break;
+                    case ColumnType.STRING:
+                        assert strings != null;
+                        final CharSequence cs = function.getStrA(record);
+                        if (cs != null) {
+                            Unsafe.getUnsafe().putLong(p, strings.size());
+                            strings.put(cs);
+                            Unsafe.getUnsafe().putLong(p + Long.BYTES, strings.size());
+                        } else {
+                            Unsafe.getUnsafe().putLong(p, -1);
+                        }
+                        p += Long.BYTES;
+                        break;
+                    case ColumnType.VARCHAR:
+                        assert varchars != null;
+                        final Utf8Sequence us = function.getVarcharA(record);
+                        if (us != null) {
+                            Unsafe.getUnsafe().putLong(p, varchars.size());
+                            varchars.put(us);
+                            // the lowest bit of the hi offset is set for ASCII values
+                            Unsafe.getUnsafe().putLong(p + Long.BYTES, ((long) varchars.size() << 1) | (us.isAscii() ? 1 : 0));
+                        } else {
+                            Unsafe.getUnsafe().putLong(p, -1);
+                        }
+                        p += Long.BYTES;
+                        break;
+                    default:
+                        assert false : "unexpected projected column type: " + ColumnType.nameOf(function.getType());
+                }
+                p += Long.BYTES;
+            }
+        }
+        values.setPos(valueCount);
+    }
+
+    public void release(int slotId) {
+        if (perWorkerLocks != null) {
+            perWorkerLocks.releaseSlot(slotId);
+        }
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.val(filter);
+    }
+
+    /**
+     * Returns number of value slots taken by a projected column of the given type
+     * or 0 if values of the type can't be projected.
+     */
+    private static int getSlotCount(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+            case ColumnType.INT:
+            case ColumnType.IPv4:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+            case ColumnType.GEOBYTE:
+            case ColumnType.GEOSHORT:
+            case ColumnType.GEOINT:
+            case ColumnType.GEOLONG:
+                return 1;
+            case ColumnType.UUID:
+            case ColumnType.LONG128:
+            case ColumnType.STRING:
+            case ColumnType.VARCHAR:
+                return 2;
+            default:
+                return 0;
+        }
+    }
+}
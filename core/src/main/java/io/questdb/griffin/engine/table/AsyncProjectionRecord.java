@@ -0,0 +1,327 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.std.IntList;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.*;
+
+/**
+ * Record of parallel projection. Values of the projected columns are read from the value
+ * slots written by workers, see {@link AsyncProjectionAtom}. Other columns are evaluated
+ * over the base record, which points at the same row of the page frame. Once positioned
+ * with {@link #ofRandomAccess()}, all columns are evaluated over the base record.
+ */
+class AsyncProjectionRecord extends VirtualRecord {
+    private final IntList columnSlots;
+    // all -1, used when the value slots don't point at the current row
+    private final IntList evaluatedColumnTags;
+    // projected column types, -1 for other columns
+    private final IntList projectedColumnTags;
+    private final int rowSize;
+    private final DirectString strA = new DirectString();
+    private final DirectString strB = new DirectString();
+    private final DirectUtf8String varcharA = new DirectUtf8String();
+    private final DirectUtf8String varcharB = new DirectUtf8String();
+    private IntList columnTags;
+    private long rowAddress;
+    private long stringsAddress;
+    private long valuesAddress;
+    private long varcharsAddress;
+
+    AsyncProjectionRecord(ObjList<Function> functions, IntList columnSlots, int slotCount) {
+        super(functions);
+        this.columnSlots = columnSlots;
+        this.rowSize = slotCount * Long.BYTES;
+        final int columnCount = functions.size();
+        projectedColumnTags = new IntList(columnCount);
+        evaluatedColumnTags = new IntList(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            projectedColumnTags.add(columnSlots.getQuick(i) != -1 ? ColumnType.tagOf(functions.getQuick(i).getType()) : -1);
+            evaluatedColumnTags.add(-1);
+        }
+        columnTags = projectedColumnTags;
+    }
+
+    @Override
+    public boolean getBool(int col) {
+        if (columnTags.getQuick(col) == ColumnType.BOOLEAN) {
+            return getSlot(col) != 0;
+        }
+        return super.getBool(col);
+    }
+
+    @Override
+    public byte getByte(int col) {
+        if (columnTags.getQuick(col) == ColumnType.BYTE) {
+            return (byte) getSlot(col);
+        }
+        return super.getByte(col);
+    }
+
+    @Override
+    public char getChar(int col) {
+        if (columnTags.getQuick(col) == ColumnType.CHAR) {
+            return (char) getSlot(col);
+        }
+        return super.getChar(col);
+    }
+
+    @Override
+    public long getDate(int col) {
+        if (columnTags.getQuick(col) == ColumnType.DATE) {
+            return getSlot(col);
+        }
+        return super.getDate(col);
+    }
+
+    @Override
+    public double getDouble(int col) {
+        if (columnTags.getQuick(col) == ColumnType.DOUBLE) {
+            return Double.longBitsToDouble(getSlot(col));
+        }
+        return super.getDouble(col);
+    }
+
+    @Override
+    public float getFloat(int col) {
+        if (columnTags.getQuick(col) == ColumnType.FLOAT) {
+            return Float.intBitsToFloat((int) getSlot(col));
+        }
+        return super.getFloat(col);
+    }
+
+    @Override
+    public byte getGeoByte(int col) {
+        if (columnTags.getQuick(col) == ColumnType.GEOBYTE) {
+            return (byte) getSlot(col);
+        }
+        return super.getGeoByte(col);
+    }
+
+    @Override
+    public int getGeoInt(int col) {
+        if (columnTags.getQuick(col) == ColumnType.GEOINT) {
+            return (int) getSlot(col);
+        }
+        return super.getGeoInt(col);
+    }
+
+    @Override
+    public long getGeoLong(int col) {
+        if (columnTags.getQuick(col) == ColumnType.GEOLONG) {
+            return getSlot(col);
+        }
+        return super.getGeoLong(col);
+    }
+
+    @Override
+    public short getGeoShort(int col) {
+        if (columnTags.getQuick(col) == ColumnType.GEOSHORT) {
+            return (short) getSlot(col);
+        }
+        return super.getGeoShort(col);
+    }
+
+    @Override
+    public int getIPv4(int col) {
+        if (columnTags.getQuick(col) == ColumnType.IPv4) {
+            return (int) getSlot(col);
+        }
+        return super.getIPv4(col);
+    }
+
+    @Override
+    public int getInt(int col) {
+        if (columnTags.getQuick(col) == ColumnType.INT) {
+            return (int) getSlot(col);
+        }
+        return super.getInt(col);
+    }
+
+    @Override
+    public long getLong(int col) {
+        if (columnTags.getQuick(col) == ColumnType.LONG) {
+            return getSlot(col);
+        }
+        return super.getLong(col);
+    }
+
+    @Override
+    public long getLong128Hi(int col) {
+        if (isLong128(col)) {
+            return getSlot(col, 1);
+        }
+        return super.getLong128Hi(col);
+    }
+
+    @Override
+    public long getLong128Lo(int col) {
+        if (isLong128(col)) {
+            return getSlot(col);
+        }
+        return super.getLong128Lo(col);
+    }
+
+    @Override
+    public short getShort(int col) {
+        if (columnTags.getQuick(col) == ColumnType.SHORT) {
+            return (short) getSlot(col);
+        }
+        return super.getShort(col);
+    }
+
+    @Override
+    public void getStr(int col, Utf16Sink utf16Sink) {
+        if (columnTags.getQuick(col) == ColumnType.STRING) {
+            utf16Sink.put(getStrA(col));
+            return;
+        }
+        super.getStr(col, utf16Sink);
+    }
+
+    @Override
+    public CharSequence getStrA(int col) {
+        if (columnTags.getQuick(col) == ColumnType.STRING) {
+            return getStr(col, strA);
+        }
+        return super.getStrA(col);
+    }
+
+    @Override
+    public CharSequence getStrB(int col) {
+        if (columnTags.getQuick(col) == ColumnType.STRING) {
+            return getStr(col, strB);
+        }
+        return super.getStrB(col);
+    }
+
+    @Override
+    public int getStrLen(int col) {
+        if (columnTags.getQuick(col) == ColumnType.STRING) {
+            final long lo = getSlot(col);
+            return lo != -1 ? (int) ((getSlot(col, 1) - lo) >> 1) : TableUtils.NULL_LEN;
+        }
+        return super.getStrLen(col);
+    }
+
+    @Override
+    public long getTimestamp(int col) {
+        if (columnTags.getQuick(col) == ColumnType.TIMESTAMP) {
+            return getSlot(col);
+        }
+        return super.getTimestamp(col);
+    }
+
+    @Override
+    public void getVarchar(int col, Utf8Sink utf8Sink) {
+        if (columnTags.getQuick(col) == ColumnType.VARCHAR) {
+            utf8Sink.put(getVarcharA(col));
+            return;
+        }
+        super.getVarchar(col, utf8Sink);
+    }
+
+    @Override
+    public Utf8Sequence getVarcharA(int col) {
+        if (columnTags.getQuick(col) == ColumnType.VARCHAR) {
+            return getVarchar(col, varcharA);
+        }
+        return super.getVarcharA(col);
+    }
+
+    @Override
+    public Utf8Sequence getVarcharB(int col) {
+        if (columnTags.getQuick(col) == ColumnType.VARCHAR) {
+            return getVarchar(col, varcharB);
+        }
+        return super.getVarcharB(col);
+    }
+
+    @Override
+    public int getVarcharSize(int col) {
+        if (columnTags.getQuick(col) == ColumnType.VARCHAR) {
+            final long lo = getSlot(col);
+            return lo != -1 ? (int) ((getSlot(col, 1) >>> 1) - lo) : TableUtils.NULL_LEN;
+        }
+        return super.getVarcharSize(col);
+    }
+
+    private CharSequence getStr(int col, DirectString str) {
+        final long lo = getSlot(col);
+        if (lo == -1) {
+            return null;
+        }
+        return str.of(stringsAddress + lo, stringsAddress + getSlot(col, 1));
+    }
+
+    private long getSlot(int col) {
+        return Unsafe.getUnsafe().getLong(rowAddress + ((long) columnSlots.getQuick(col) << 3));
+    }
+
+    private long getSlot(int col, int offset) {
+        return Unsafe.getUnsafe().getLong(rowAddress + ((long) (columnSlots.getQuick(col) + offset) << 3));
+    }
+
+    private Utf8Sequence getVarchar(int col, DirectUtf8String varchar) {
+        final long lo = getSlot(col);
+        if (lo == -1) {
+            return null;
+        }
+        final long hi = getSlot(col, 1);
+        return varchar.of(varcharsAddress + lo, varcharsAddress + (hi >>> 1), (hi & 1) == 1);
+    }
+
+    private boolean isLong128(int col) {
+        final int tag = columnTags.getQuick(col);
+        return tag == ColumnType.UUID || tag == ColumnType.LONG128;
+    }
+
+    boolean isRandomAccess() {
+        return columnTags == evaluatedColumnTags;
+    }
+
+    void of(PageFrameReduceTask task, boolean hasStrings, boolean hasVarchars) {
+        valuesAddress = task.getProjectedValues().getAddress();
+        stringsAddress = hasStrings ? task.getProjectedStrings().ptr() : 0;
+        varcharsAddress = hasVarchars ? task.getProjectedVarchars().ptr() : 0;
+    }
+
+    void ofRandomAccess() {
+        columnTags = evaluatedColumnTags;
+    }
+
+    void setRowIndex(long projectedRowIndex) {
+        rowAddress = valuesAddress + projectedRowIndex * rowSize;
+        columnTags = projectedColumnTags;
+    }
+}
@@ -0,0 +1,316 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.cairo.sql.async.PageFrameSequenceRecordCursor;
+import io.questdb.griffin.engine.functions.SymbolFunction;
+import io.questdb.griffin.engine.groupby.GroupByUtils;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Os;
+import io.questdb.std.Rows;
+
+class AsyncProjectionRecordCursor implements RecordCursor, PageFrameSequenceRecordCursor {
+
+    private static final Log LOG = LogFactory.getLog(AsyncProjectionRecordCursor.class);
+    private final PageAddressCacheRecord baseRecord;
+    private final ObjList<Function> functions;
+    private final boolean hasDescendingOrder;
+    private final AsyncProjectionRecord record;
+    private boolean allFramesActive;
+    private PageAddressCacheRecord baseRecordB;
+    private long cursor = -1;
+    private int frameIndex;
+    private int frameLimit;
+    private long frameRowCount;
+    private long frameRowIndex;
+    private PageFrameSequence<AsyncProjectionAtom> frameSequence;
+    private boolean isOpen;
+    private VirtualRecord recordB;
+    // filtered rows of the current frame or null if all rows are projected
+    private DirectLongList rows;
+    private long size;
+
+    public AsyncProjectionRecordCursor(ObjList<Function> functions, AsyncProjectionAtom atom, int scanDirection) {
+        this.functions = functions;
+        this.hasDescendingOrder = scanDirection == RecordCursorFactory.SCAN_DIRECTION_BACKWARD;
+        baseRecord = new PageAddressCacheRecord();
+        record = new AsyncProjectionRecord(functions, atom.getColumnSlots(), atom.getSlotCount());
+        record.of(baseRecord);
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            LOG.debug()
+                    .$("closing [shard=").$(frameSequence.getShard())
+                    .$(", frameIndex=").$(frameIndex)
+                    .$(", frameCount=").$(frameLimit)
+                    .$(", frameId=").$(frameSequence.getId())
+                    .$(", cursor=").$(cursor)
+                    .I$();
+
+            if (frameSequence != null) {
+                collectCursor(true);
+                if (frameLimit > -1 || frameSequence.hasDispatchedFrames()) {
+                    frameSequence.await();
+                }
+                frameSequence.clear();
+            }
+            isOpen = false;
+        }
+    }
+
+    public void freeRecords() {
+        Misc.free(baseRecord);
+        Misc.free(baseRecordB);
+    }
+
+    @Override
+    public PageFrameSequence<?> getFirstFrameSequence() {
+        return frameSequence;
+    }
+
+    @Override
+    public PageFrameSequence<?> getLastFrameSequence() {
+        return frameSequence;
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public Record getRecordB() {
+        if (recordB != null) {
+            return recordB;
+        }
+        // the functions are evaluated by the query owner thread, same as for the non-projected columns
+        baseRecordB = new PageAddressCacheRecord(baseRecord);
+        recordB = new VirtualRecord(functions);
+        recordB.of(baseRecordB);
+        return recordB;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return (SymbolTable) functions.getQuick(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        // Check for the first hasNext call.
+        if (frameIndex == -1) {
+            fetchNextFrame();
+        }
+
+        // We have rows in the current frame we still need to dispatch
+        if (frameRowIndex < frameRowCount) {
+            nextRow();
+            return true;
+        }
+
+        // Release the previous queue item.
+        // There is no identity check here because this check
+        // had been done when 'cursor' was assigned.
+        collectCursor(false);
+
+        // Do we have more frames?
+        if (frameIndex < frameLimit) {
+            fetchNextFrame();
+            if (frameRowCount > 0 && frameRowIndex < frameRowCount) {
+                nextRow();
+                return true;
+            }
+        }
+
+        if (!allFramesActive) {
+            throwTimeoutException();
+        }
+        return false;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return ((SymbolFunction) functions.getQuick(columnIndex)).newSymbolTable();
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        final PageAddressCacheRecord pageAddressCacheRecord = (PageAddressCacheRecord) ((VirtualRecord) record).getBaseRecord();
+        pageAddressCacheRecord.setFrameIndex(Rows.toPartitionIndex(atRowId));
+        pageAddressCacheRecord.setRowIndex(Rows.toLocalRowID(atRowId));
+        if (record == this.record) {
+            // value slots belong to the current frame, so the row is evaluated in place
+            this.record.ofRandomAccess();
+        }
+    }
+
+    @Override
+    public long size() {
+        if (frameSequence.getAtom().getFilter() != null) {
+            return -1;
+        }
+        if (size == -1) {
+            // without a filter, each frame row is projected
+            prepareFrames();
+            size = 0;
+            for (int i = 0; i <= frameLimit; i++) {
+                size += frameSequence.getFrameRowCount(i);
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public void toTop() {
+        // Check if we at the top already and there is nothing to do.
+        if (frameLimit == -1 || (frameIndex == 0 && frameRowIndex == 0)) {
+            return;
+        }
+        collectCursor(false);
+        GroupByUtils.toTop(functions);
+        frameSequence.toTop();
+        frameIndex = -1;
+        allFramesActive = true;
+    }
+
+    private void collectCursor(boolean forceCollect) {
+        if (cursor > -1) {
+            frameSequence.collect(cursor, forceCollect);
+            // It is necessary to clear 'cursor' value
+            // because we updated frameIndex and loop can exit due to lack of frames.
+            // Non-update of 'cursor' could cause double-free.
+            cursor = -1;
+        }
+    }
+
+    private void fetchNextFrame() {
+        prepareFrames();
+
+        final AsyncProjectionAtom atom = frameSequence.getAtom();
+        try {
+            do {
+                cursor = frameSequence.next();
+                if (cursor > -1) {
+                    PageFrameReduceTask task = frameSequence.getTask(cursor);
+                    LOG.debug()
+                            .$("collected [shard=").$(frameSequence.getShard())
+                            .$(", frameIndex=").$(task.getFrameIndex())
+                            .$(", frameCount=").$(frameSequence.getFrameCount())
+                            .$(", frameId=").$(frameSequence.getId())
+                            .$(", active=").$(frameSequence.isActive())
+                            .$(", cursor=").$(cursor)
+                            .I$();
+
+                    if (task.hasError()) {
+                        throw CairoException.nonCritical().put(task.getErrorMsg())
+                                .setCancellation(task.isCancelled()).setInterruption(task.isCancelled());
+                    }
+
+                    allFramesActive &= frameSequence.isActive();
+                    rows = atom.getFilter() != null ? task.getFilteredRows() : null;
+                    frameRowCount = task.getProjectedValues().size() / atom.getSlotCount();
+                    frameIndex = task.getFrameIndex();
+                    frameRowIndex = 0;
+                    if (frameRowCount > 0 && frameSequence.isActive()) {
+                        baseRecord.setFrameIndex(task.getFrameIndex());
+                        record.of(task, atom.hasStrings(), atom.hasVarchars());
+                        break;
+                    } else {
+                        // Force reset frame size if frameSequence was canceled or failed.
+                        frameRowCount = 0;
+                        collectCursor(false);
+                    }
+                } else if (cursor == -2) {
+                    break; // No frames to project
+                } else {
+                    Os.pause();
+                }
+            } while (frameIndex < frameLimit);
+        } catch (Throwable e) {
+            if (e instanceof CairoException) {
+                CairoException ce = (CairoException) e;
+                if (ce.isInterruption() || ce.isCancellation()) {
+                    LOG.error().$("projection error [ex=").$(((CairoException) e).getFlyweightMessage()).I$();
+                    throwTimeoutException();
+                } else {
+                    LOG.error().$("projection error [ex=").$(e).I$();
+                    throw ce;
+                }
+            }
+            LOG.error().$("projection error [ex=").$(e).I$();
+            throw CairoException.nonCritical().put(e.getMessage());
+        }
+    }
+
+    private void nextRow() {
+        if (record.isRandomAccess()) {
+            baseRecord.setFrameIndex(frameIndex);
+        }
+        final long rowIndex = hasDescendingOrder ? (frameRowCount - frameRowIndex - 1) : frameRowIndex;
+        baseRecord.setRowIndex(rows != null ? rows.get(rowIndex) : rowIndex);
+        record.setRowIndex(rowIndex);
+        frameRowIndex++;
+    }
+
+    private void prepareFrames() {
+        if (frameLimit == -1) {
+            frameSequence.prepareForDispatch();
+            frameLimit = frameSequence.getFrameCount() - 1;
+        }
+    }
+
+    private void throwTimeoutException() {
+        if (frameSequence.getCancelReason() == SqlExecutionCircuitBreaker.STATE_CANCELLED) {
+            throw CairoException.queryCancelled();
+        } else {
+            throw CairoException.queryTimedOut();
+        }
+    }
+
+    void of(PageFrameSequence<AsyncProjectionAtom> frameSequence) {
+        isOpen = true;
+        this.frameSequence = frameSequence;
+        frameIndex = -1;
+        frameLimit = -1;
+        size = -1;
+        allFramesActive = true;
+        baseRecord.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        if (baseRecordB != null) {
+            baseRecordB.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        }
+    }
+}
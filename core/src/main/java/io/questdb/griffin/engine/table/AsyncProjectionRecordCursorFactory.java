@@ -0,0 +1,194 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReduceTaskFactory;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.jit.CompiledFilter;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_DESC;
+import static io.questdb.griffin.engine.table.AsyncGroupByNotKeyedRecordCursorFactory.applyCompiledFilter;
+import static io.questdb.griffin.engine.table.AsyncGroupByNotKeyedRecordCursorFactory.applyFilter;
+
+/**
+ * Parallel version of {@link VirtualRecordCursorFactory}. Workers filter page frames and evaluate
+ * the computed columns of the filtered rows, so that the query owner thread streams precomputed
+ * values instead of evaluating the functions row by row. Plain column references, constants
+ * and columns of types that can't be materialized are still evaluated by the query owner thread.
+ */
+public class AsyncProjectionRecordCursorFactory extends AbstractRecordCursorFactory {
+    private static final PageFrameReducer REDUCER = AsyncProjectionRecordCursorFactory::project;
+    private final RecordCursorFactory base;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncProjectionRecordCursor cursor;
+    private final PageFrameSequence<AsyncProjectionAtom> frameSequence;
+    private final ObjList<Function> functions;
+    private final int workerCount;
+
+    public AsyncProjectionRecordCursorFactory(
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordMetadata metadata,
+            @NotNull RecordCursorFactory base,
+            @NotNull ObjList<Function> functions,
+            @NotNull IntList projectedColumns,
+            @Nullable ObjList<ObjList<Function>> perWorkerFunctions,
+            @Nullable CompiledFilter compiledFilter,
+            @Nullable MemoryCARW bindVarMemory,
+            @Nullable ObjList<Function> bindVarFunctions,
+            @Nullable Function filter,
+            @NotNull PageFrameReduceTaskFactory reduceTaskFactory,
+            int workerCount
+    ) {
+        super(metadata);
+        assert base.supportsPageFrameCursor();
+        this.base = base;
+        this.functions = functions;
+        final AsyncProjectionAtom atom = new AsyncProjectionAtom(
+                configuration,
+                functions,
+                projectedColumns,
+                perWorkerFunctions,
+                compiledFilter,
+                bindVarMemory,
+                bindVarFunctions,
+                filter,
+                workerCount
+        );
+        this.frameSequence = new PageFrameSequence<>(configuration, messageBus, atom, REDUCER, reduceTaskFactory, PageFrameReduceTask.TYPE_PROJECTION);
+        this.cursor = new AsyncProjectionRecordCursor(functions, atom, base.getScanDirection());
+        this.workerCount = workerCount;
+    }
+
+    @Override
+    public boolean followedOrderByAdvice() {
+        return base.followedOrderByAdvice();
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final int order = base.getScanDirection() == SCAN_DIRECTION_BACKWARD ? ORDER_DESC : ORDER_ASC;
+        cursor.of(frameSequence.of(base, executionContext, collectSubSeq, order));
+        return cursor;
+    }
+
+    @Override
+    public int getScanDirection() {
+        return base.getScanDirection();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return base.recordCursorSupportsRandomAccess();
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        if (usesCompiledFilter()) {
+            sink.type("Async JIT Projection");
+        } else {
+            sink.type("Async Projection");
+        }
+        sink.meta("workers").val(workerCount);
+        sink.optAttr("functions", functions, true);
+        sink.optAttr("filter", frameSequence.getAtom(), true);
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return frameSequence.getAtom().getCompiledFilter() != null;
+    }
+
+    private static void project(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final long frameRowCount = task.getFrameRowCount();
+        assert frameRowCount > 0;
+        final AsyncProjectionAtom atom = task.getFrameSequence(AsyncProjectionAtom.class).getAtom();
+        final PageAddressCache pageAddressCache = task.getPageAddressCache();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        final Function filter = atom.getFilter();
+        final CompiledFilter compiledFilter = atom.getCompiledFilter();
+        try {
+            if (filter == null) {
+                atom.project(slotId, record, null, frameRowCount, task);
+                return;
+            }
+
+            final DirectLongList rows = task.getFilteredRows();
+            if (compiledFilter == null || pageAddressCache.hasColumnTops(task.getFrameIndex())) {
+                // Use Java-based filter when there is no compiled filter or in case of a page frame with column tops.
+                applyFilter(filter, rows, record, frameRowCount);
+            } else {
+                applyCompiledFilter(compiledFilter, atom.getBindVarMemory(), atom.getBindVarFunctions(), task);
+            }
+            atom.project(slotId, record, rows, rows.size(), task);
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    @Override
+    protected void _close() {
+        if (cursor != null) {
+            cursor.close();
+            cursor.freeRecords();
+        }
+        Misc.free(frameSequence);
+        Misc.freeObjList(functions);
+        Misc.free(base);
+    }
+}
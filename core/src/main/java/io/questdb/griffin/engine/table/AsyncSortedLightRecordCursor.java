@@ -0,0 +1,243 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.Misc;
+import io.questdb.std.Os;
+import io.questdb.std.Rows;
+
+/**
+ * Merges sorted runs built by page frame reducers. The runs are merged with a loser tree,
+ * so that each output row costs log2(runCount) comparisons.
+ */
+class AsyncSortedLightRecordCursor implements RecordCursor {
+    private static final Log LOG = LogFactory.getLog(AsyncSortedLightRecordCursor.class);
+    private final SortedRunMerger merger = new SortedRunMerger();
+    private final PageAddressCacheRecord record;
+    private SqlExecutionCircuitBreaker circuitBreaker;
+    private int frameLimit;
+    private PageFrameSequence<AsyncSortedLightAtom> frameSequence;
+    private boolean isOpen;
+    private boolean isSorted;
+    private PageAddressCacheRecord recordB;
+    private long size;
+
+    public AsyncSortedLightRecordCursor() {
+        record = new PageAddressCacheRecord();
+        isOpen = true;
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            isOpen = false;
+            Misc.free(merger);
+            if (frameSequence != null) {
+                LOG.debug()
+                        .$("closing [shard=").$(frameSequence.getShard())
+                        .$(", frameCount=").$(frameLimit)
+                        .I$();
+
+                if (frameLimit > -1) {
+                    frameSequence.await();
+                }
+                frameSequence.clear();
+            }
+        }
+    }
+
+    public void freeRecords() {
+        Misc.free(record);
+        Misc.free(recordB);
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public Record getRecordB() {
+        if (recordB != null) {
+            return recordB;
+        }
+        recordB = new PageAddressCacheRecord(record);
+        return recordB;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return frameSequence.getSymbolTableSource().getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!isSorted) {
+            buildRuns();
+            isSorted = true;
+        }
+
+        final long rowId = merger.next();
+        if (rowId == -1) {
+            return false;
+        }
+        recordAt(record, rowId);
+        return true;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return frameSequence.getSymbolTableSource().newSymbolTable(columnIndex);
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        ((PageAddressCacheRecord) record).setFrameIndex(Rows.toPartitionIndex(atRowId));
+        ((PageAddressCacheRecord) record).setRowIndex(Rows.toLocalRowID(atRowId));
+    }
+
+    @Override
+    public long size() {
+        if (frameSequence.getAtom().getFilter(-1) != null) {
+            return -1;
+        }
+        if (size == -1) {
+            // without a filter, each frame row is sorted
+            prepareFrames();
+            size = 0;
+            for (int i = 0; i <= frameLimit; i++) {
+                size += frameSequence.getFrameRowCount(i);
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public void toTop() {
+        if (isSorted) {
+            openRuns();
+        }
+    }
+
+    private void buildRuns() {
+        prepareFrames();
+
+        int frameIndex = -1;
+        boolean allFramesActive = true;
+        try {
+            do {
+                final long cursor = frameSequence.next();
+                if (cursor > -1) {
+                    PageFrameReduceTask task = frameSequence.getTask(cursor);
+                    LOG.debug()
+                            .$("collected [shard=").$(frameSequence.getShard())
+                            .$(", frameIndex=").$(task.getFrameIndex())
+                            .$(", frameCount=").$(frameSequence.getFrameCount())
+                            .$(", active=").$(frameSequence.isActive())
+                            .$(", cursor=").$(cursor)
+                            .I$();
+                    if (task.hasError()) {
+                        throw CairoException.nonCritical().put(task.getErrorMsg());
+                    }
+
+                    allFramesActive &= frameSequence.isActive();
+                    frameIndex = task.getFrameIndex();
+
+                    frameSequence.collect(cursor, false);
+                } else if (cursor == -2) {
+                    break; // No frames to sort.
+                } else {
+                    Os.pause();
+                }
+            } while (frameIndex < frameLimit);
+        } catch (CairoException e) {
+            if (e.isInterruption()) {
+                throwTimeoutException();
+            } else {
+                throw e;
+            }
+        }
+
+        if (!allFramesActive) {
+            throwTimeoutException();
+        }
+
+        circuitBreaker.statefulThrowExceptionIfTripped();
+
+        openRuns();
+    }
+
+    private void openRuns() {
+        final AsyncSortedLightAtom atom = frameSequence.getAtom();
+        merger.of(atom.getComparator(-1), frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        for (int i = 0, n = atom.getRunCount(); i < n; i++) {
+            // the owner run goes first, it is addressed by slot -1
+            merger.addRun(atom.getChain(i - 1).getCursor());
+        }
+        merger.init();
+    }
+
+    private void prepareFrames() {
+        if (frameLimit == -1) {
+            frameSequence.prepareForDispatch();
+            frameLimit = frameSequence.getFrameCount() - 1;
+        }
+    }
+
+    private void throwTimeoutException() {
+        if (frameSequence.getCancelReason() == SqlExecutionCircuitBreaker.STATE_CANCELLED) {
+            throw CairoException.queryCancelled();
+        } else {
+            throw CairoException.queryTimedOut();
+        }
+    }
+
+    void of(PageFrameSequence<AsyncSortedLightAtom> frameSequence, SqlExecutionContext executionContext) {
+        final AsyncSortedLightAtom atom = frameSequence.getAtom();
+        if (!isOpen) {
+            isOpen = true;
+            atom.reopen();
+        }
+        this.frameSequence = frameSequence;
+        this.circuitBreaker = executionContext.getCircuitBreaker();
+        record.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        if (recordB != null) {
+            recordB.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        }
+        atom.initRecords(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        isSorted = false;
+        frameLimit = -1;
+        size = -1;
+    }
+}
@@ -124,7 +124,7 @@ public class DataFrameRecordCursorFactory extends AbstractDataFrameRecordCursorF
         if (framingSupported) {
             DataFrameCursor dataFrameCursor = dataFrameCursorFactory.getCursor(executionContext, ORDER_ASC);
             if (timeFrameCursor == null) {
-                timeFrameCursor = new TableReaderTimeFrameCursor(columnIndexes);
+                timeFrameCursor = new TableReaderTimeFrameCursor(columnIndexes, getMetadata().getTimestampIndex());
             }
             return timeFrameCursor.of(dataFrameCursor);
         }
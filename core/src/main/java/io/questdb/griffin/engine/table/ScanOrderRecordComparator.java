@@ -0,0 +1,90 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.std.Rows;
+
+/**
+ * Breaks sort key ties by the row position in the page frame scan, so that rows with equal
+ * keys come in the scan order, same as in the single-threaded sort, no matter which worker
+ * sorted which frame. Row ids are expected to be page frame based, i.e. to hold frame index
+ * and row index within the frame.
+ */
+class ScanOrderRecordComparator implements RecordComparator {
+    private final boolean backward;
+    private final RecordComparator base;
+    private Record left;
+    private boolean reverseTies;
+
+    /**
+     * @param base     comparator of the sort keys
+     * @param backward true when the frames are scanned backward, i.e. rows within a frame
+     *                 are scanned from the last one to the first one
+     */
+    ScanOrderRecordComparator(RecordComparator base, boolean backward) {
+        this.base = base;
+        this.backward = backward;
+    }
+
+    @Override
+    public int compare(Record record) {
+        final int cmp = base.compare(record);
+        if (cmp != 0) {
+            return cmp;
+        }
+        final long leftRowId = left.getRowId();
+        final long rightRowId = record.getRowId();
+        int tie = Integer.compare(Rows.toPartitionIndex(leftRowId), Rows.toPartitionIndex(rightRowId));
+        if (tie == 0) {
+            tie = Long.compare(Rows.toLocalRowID(leftRowId), Rows.toLocalRowID(rightRowId));
+            if (backward) {
+                tie = -tie;
+            }
+        }
+        return reverseTies ? -tie : tie;
+    }
+
+    /**
+     * Compares the sort keys only, ignoring the row positions.
+     */
+    int compareKeys(Record record) {
+        return base.compare(record);
+    }
+
+    @Override
+    public void setLeft(Record record) {
+        base.setLeft(record);
+        left = record;
+    }
+
+    /**
+     * When set, rows with equal keys are ordered from the last scanned to the first scanned one.
+     */
+    void setReverseTies(boolean reverseTies) {
+        this.reverseTies = reverseTies;
+    }
+}
@@ -29,9 +29,11 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
 import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.cairo.sql.async.PageFrameSequenceRecordCursor;
 import io.questdb.std.IntList;
 
-class SelectedRecordCursor implements RecordCursor {
+class SelectedRecordCursor implements PageFrameSequenceRecordCursor {
     private final IntList columnCrossIndex;
     private final SelectedRecord recordA;
     private final SelectedRecord recordB;
@@ -57,6 +59,16 @@ class SelectedRecordCursor implements RecordCursor {
         baseCursor.close();
     }
 
+    @Override
+    public PageFrameSequence<?> getFirstFrameSequence() {
+        return PageFrameSequenceRecordCursor.firstFrameSequenceOf(baseCursor);
+    }
+
+    @Override
+    public PageFrameSequence<?> getLastFrameSequence() {
+        return PageFrameSequenceRecordCursor.lastFrameSequenceOf(baseCursor);
+    }
+
     @Override
     public Record getRecord() {
         return recordA;
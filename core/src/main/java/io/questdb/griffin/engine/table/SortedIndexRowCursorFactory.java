@@ -0,0 +1,262 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.PartitionBy;
+import io.questdb.cairo.SortedIndexWriter;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.TxReader;
+import io.questdb.cairo.sql.DataFrame;
+import io.questdb.cairo.sql.RowCursor;
+import io.questdb.cairo.sql.RowCursorFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.LongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.Path;
+
+/**
+ * Returns rows with the column value in the [lo, hi] range, the rows are looked up with a binary
+ * search in sorted indexes written by {@link SortedIndexWriter}. Data frames of partitions without
+ * a valid index, such as the last partition, are scanned row by row, so the row filter must still
+ * be applied to the returned rows.
+ */
+public class SortedIndexRowCursorFactory implements RowCursorFactory {
+    private final boolean backward;
+    private final DataFrameBwdRowCursor bwdScanCursor = new DataFrameBwdRowCursor();
+    private final int columnIndex;
+    private final FilesFacade ff;
+    private final DataFrameRowCursor fwdScanCursor = new DataFrameRowCursor();
+    private final long hi;
+    private final SortedIndexRowCursor indexCursor = new SortedIndexRowCursor();
+    private final long lo;
+    private final CharSequence root;
+    private TableReader reader;
+
+    /**
+     * @param columnIndex reader column index
+     * @param lo          inclusive lower bound, IPv4 values are unsigned
+     * @param hi          inclusive upper bound
+     * @param backward    true to return rows from the frame end to its start
+     */
+    public SortedIndexRowCursorFactory(
+            CairoConfiguration configuration,
+            int columnIndex,
+            long lo,
+            long hi,
+            boolean backward
+    ) {
+        this.ff = configuration.getFilesFacade();
+        this.root = configuration.getRoot();
+        this.columnIndex = columnIndex;
+        this.lo = lo;
+        this.hi = hi;
+        this.backward = backward;
+    }
+
+    /**
+     * Estimates the number of rows visited by a scan with the sorted index: rows in the range for partitions
+     * with a valid index and all rows for the rest. The estimate stops once it goes above the given limit.
+     *
+     * @return estimated row count, or a value above the limit
+     */
+    public static long estimateRowCount(
+            CairoConfiguration configuration,
+            TableReader reader,
+            int columnIndex,
+            long lo,
+            long hi,
+            long limit
+    ) {
+        final FilesFacade ff = configuration.getFilesFacade();
+        final CharSequence root = configuration.getRoot();
+        long rowCount = 0;
+        for (int i = 0, n = reader.getPartitionCount(); i < n && rowCount <= limit; i++) {
+            final long entryCount = findEntries(ff, root, reader, i, columnIndex, lo, hi, null, 0, Long.MAX_VALUE);
+            rowCount += entryCount != -1 ? entryCount : reader.getPartitionRowCount(i);
+        }
+        return rowCount;
+    }
+
+    @Override
+    public RowCursor getCursor(DataFrame dataFrame) {
+        if (findRows(dataFrame.getPartitionIndex(), dataFrame.getRowLo(), dataFrame.getRowHi())) {
+            indexCursor.of(backward);
+            return indexCursor;
+        }
+        if (backward) {
+            bwdScanCursor.of(dataFrame);
+            return bwdScanCursor;
+        }
+        fwdScanCursor.of(dataFrame);
+        return fwdScanCursor;
+    }
+
+    @Override
+    public void init(TableReader tableReader, SqlExecutionContext sqlExecutionContext) {
+        this.reader = tableReader;
+    }
+
+    @Override
+    public boolean isEntity() {
+        return false;
+    }
+
+    @Override
+    public boolean isUsingIndex() {
+        return true;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        if (backward) {
+            sink.type("Sorted index backward scan");
+        } else {
+            sink.type("Sorted index forward scan");
+        }
+        sink.meta("on").putBaseColumnName(columnIndex);
+        sink.attr("lo").val(lo);
+        sink.attr("hi").val(hi);
+    }
+
+    /**
+     * Binary-searches the sorted index of the given partition for the [lo, hi] range. When the rows
+     * list is given, adds to it the row ids from [rowLo, rowHi) unless most of the rows match.
+     *
+     * @return number of matching index entries in the partition, -1 when there is no valid index
+     */
+    private static long findEntries(
+            FilesFacade ff,
+            CharSequence root,
+            TableReader reader,
+            int partitionIndex,
+            int columnIndex,
+            long lo,
+            long hi,
+            LongList rows,
+            long rowLo,
+            long rowHi
+    ) {
+        if (!PartitionBy.isPartitioned(reader.getPartitionedBy()) || partitionIndex == reader.getPartitionCount() - 1) {
+            // the last partition is still being written to, it does not have an index
+            return -1;
+        }
+
+        final TxReader txFile = reader.getTxFile();
+        final long partitionTimestamp = txFile.getPartitionTimestampByIndex(partitionIndex);
+        final long columnNameTxn = reader.getColumnVersionReader().getColumnNameTxn(
+                partitionTimestamp,
+                reader.getMetadata().getWriterIndex(columnIndex)
+        );
+        final Path path = Path.getThreadLocal(root).concat(reader.getTableToken().getDirName());
+        TableUtils.setPathForPartition(path, reader.getPartitionedBy(), partitionTimestamp, txFile.getPartitionNameTxn(partitionIndex));
+        final int fd = ff.openRO(TableUtils.siFile(path, reader.getMetadata().getColumnName(columnIndex), columnNameTxn));
+        if (fd < 0) {
+            return -1;
+        }
+        try {
+            final long fileSize = ff.length(fd);
+            if (fileSize < SortedIndexWriter.HEADER_SIZE) {
+                return -1;
+            }
+            final long address = TableUtils.mapRO(ff, fd, fileSize, MemoryTag.MMAP_TABLE_READER);
+            try {
+                final long entryCount = Unsafe.getUnsafe().getLong(address + SortedIndexWriter.OFFSET_ENTRY_COUNT);
+                // index of an older partition version, e.g. before an O3 append
+                if (Unsafe.getUnsafe().getLong(address + SortedIndexWriter.OFFSET_ROW_COUNT) != txFile.getPartitionSize(partitionIndex)
+                        || fileSize < SortedIndexWriter.HEADER_SIZE + entryCount * SortedIndexWriter.ENTRY_SIZE) {
+                    return -1;
+                }
+
+                final long entriesAddr = address + SortedIndexWriter.HEADER_SIZE;
+                final long entryLo = search(entriesAddr, entryCount, SortedIndexWriter.encode(lo), true);
+                final long entryHi = search(entriesAddr, entryCount, SortedIndexWriter.encode(hi), false);
+                if (rows != null && (entryHi - entryLo) * 2 <= rowHi - rowLo) {
+                    rows.clear();
+                    for (long i = entryLo; i < entryHi; i++) {
+                        final long rowId = Unsafe.getUnsafe().getLong(entriesAddr + i * SortedIndexWriter.ENTRY_SIZE + Long.BYTES);
+                        if (rowId >= rowLo && rowId < rowHi) {
+                            rows.add(rowId);
+                        }
+                    }
+                    // rows are returned in the table order
+                    rows.sort();
+                }
+                return entryHi - entryLo;
+            } finally {
+                ff.munmap(address, fileSize, MemoryTag.MMAP_TABLE_READER);
+            }
+        } finally {
+            ff.close(fd);
+        }
+    }
+
+    // returns first entry in [0, entryCount) with the value above the given one, or equal to it when inclusive
+    private static long search(long entriesAddr, long entryCount, long encodedValue, boolean inclusive) {
+        long low = 0;
+        long high = entryCount;
+        while (low < high) {
+            final long mid = (low + high) >>> 1;
+            final int cmp = Long.compareUnsigned(Unsafe.getUnsafe().getLong(entriesAddr + mid * SortedIndexWriter.ENTRY_SIZE), encodedValue);
+            if (cmp < 0 || (cmp == 0 && !inclusive)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private boolean findRows(int partitionIndex, long rowLo, long rowHi) {
+        final long entryCount = findEntries(ff, root, reader, partitionIndex, columnIndex, lo, hi, indexCursor.rows, rowLo, rowHi);
+        // when most of the frame matches, scanning it is cheaper than sorting the row ids
+        return entryCount != -1 && entryCount * 2 <= rowHi - rowLo;
+    }
+
+    private static class SortedIndexRowCursor implements RowCursor {
+        private final LongList rows = new LongList();
+        private boolean backward;
+        private int position;
+
+        @Override
+        public boolean hasNext() {
+            return backward ? position >= 0 : position < rows.size();
+        }
+
+        @Override
+        public long next() {
+            return backward ? rows.getQuick(position--) : rows.getQuick(position++);
+        }
+
+        void of(boolean backward) {
+            this.backward = backward;
+            this.position = backward ? rows.size() - 1 : 0;
+        }
+    }
+}
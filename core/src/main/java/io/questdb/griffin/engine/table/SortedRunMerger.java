@@ -0,0 +1,158 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.sql.PageAddressCache;
+import io.questdb.cairo.sql.PageAddressCacheRecord;
+import io.questdb.cairo.sql.RowCursor;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Rows;
+
+/**
+ * Merges sorted runs of page frame based row ids with a loser tree, so that each output
+ * row costs log2(runCount) comparisons. The comparator is expected to break sort key ties,
+ * e.g. by the row position, otherwise runs added first win the ties.
+ */
+class SortedRunMerger implements QuietCloseable {
+    private final LongList heads = new LongList();
+    private final ObjList<PageAddressCacheRecord> runRecords = new ObjList<>();
+    private final ObjList<RowCursor> runs = new ObjList<>();
+    // tree[0] holds the current winner run, tree[1..runCount-1] hold losers
+    private final IntList tree = new IntList();
+    private RecordComparator comparator;
+    private PageAddressCache pageAddressCache;
+    private int runCount;
+    private SymbolTableSource symbolTableSource;
+
+    public void addRun(RowCursor run) {
+        if (runRecords.size() == runCount) {
+            runRecords.add(new PageAddressCacheRecord());
+        }
+        runRecords.getQuick(runCount).of(symbolTableSource, pageAddressCache);
+        runs.extendAndSet(runCount++, run);
+    }
+
+    @Override
+    public void close() {
+        runs.clear();
+        runCount = 0;
+        Misc.freeObjListAndClear(runRecords);
+    }
+
+    /**
+     * Builds the loser tree. Must be called once all runs are added and positioned
+     * at their first rows.
+     */
+    public void init() {
+        heads.setPos(runCount);
+        tree.setPos(runCount);
+        for (int i = 0; i < runCount; i++) {
+            advance(i);
+            // -1 is a sentinel that wins over any run
+            tree.setQuick(i, -1);
+        }
+        for (int i = runCount - 1; i > -1; i--) {
+            adjust(i);
+        }
+    }
+
+    /**
+     * Returns the next row id in the merged order or -1 if all runs are exhausted.
+     */
+    public long next() {
+        final int winner = tree.getQuick(0);
+        final long rowId = heads.getQuick(winner);
+        if (rowId != -1) {
+            advance(winner);
+            adjust(winner);
+        }
+        return rowId;
+    }
+
+    public void of(RecordComparator comparator, SymbolTableSource symbolTableSource, PageAddressCache pageAddressCache) {
+        this.comparator = comparator;
+        this.symbolTableSource = symbolTableSource;
+        this.pageAddressCache = pageAddressCache;
+        runs.clear();
+        runCount = 0;
+    }
+
+    private static void recordAt(PageAddressCacheRecord record, long rowId) {
+        record.setFrameIndex(Rows.toPartitionIndex(rowId));
+        record.setRowIndex(Rows.toLocalRowID(rowId));
+    }
+
+    /**
+     * Replays the path from the given run's leaf to the root, leaving losers
+     * in the internal nodes and the overall winner in tree[0].
+     */
+    private void adjust(int run) {
+        int winner = run;
+        for (int node = (run + runCount) >> 1; node > 0; node >>= 1) {
+            final int contender = tree.getQuick(node);
+            if (isLess(contender, winner)) {
+                tree.setQuick(node, winner);
+                winner = contender;
+            }
+        }
+        tree.setQuick(0, winner);
+    }
+
+    private void advance(int run) {
+        final RowCursor cursor = runs.getQuick(run);
+        if (cursor.hasNext()) {
+            final long rowId = cursor.next();
+            heads.setQuick(run, rowId);
+            recordAt(runRecords.getQuick(run), rowId);
+        } else {
+            heads.setQuick(run, -1);
+        }
+    }
+
+    private boolean isLess(int runA, int runB) {
+        if (runA == -1) {
+            return true;
+        }
+        if (runB == -1) {
+            return false;
+        }
+        if (heads.getQuick(runA) == -1) {
+            return false;
+        }
+        if (heads.getQuick(runB) == -1) {
+            return true;
+        }
+        comparator.setLeft(runRecords.getQuick(runA));
+        final int cmp = comparator.compare(runRecords.getQuick(runB));
+        return cmp < 0 || (cmp == 0 && runA < runB);
+    }
+}
@@ -42,14 +42,17 @@ public class TableReaderTimeFrameCursor implements TimeFrameRecordCursor {
     private final TableReaderSelectedColumnRecord recordA;
     private final TableReaderSelectedColumnRecord recordB;
     private final TableReaderTimeFrame timeFrame = new TableReaderTimeFrame();
+    // reader column index of the timestamp; the table may have no designated timestamp
+    // when the order is set with the timestamp(...) clause
+    private final int timestampIndex;
     private DataFrameCursor dataFrameCursor;
     private PartitionBy.PartitionCeilMethod partitionCeilMethod;
     private int partitionHi;
     private TableReader reader;
-    private int timestampIndex;
 
-    public TableReaderTimeFrameCursor(IntList columnIndexes) {
+    public TableReaderTimeFrameCursor(IntList columnIndexes, int timestampIndex) {
         this.columnIndexes = columnIndexes;
+        this.timestampIndex = columnIndexes.getQuick(timestampIndex);
         recordA = new TableReaderSelectedColumnRecord(columnIndexes);
         recordB = new TableReaderSelectedColumnRecord(columnIndexes);
     }
@@ -105,7 +108,6 @@ public class TableReaderTimeFrameCursor implements TimeFrameRecordCursor {
         recordB.of(reader);
         partitionHi = reader.getPartitionCount();
         partitionCeilMethod = PartitionBy.getPartitionCeilMethod(reader.getPartitionedBy());
-        timestampIndex = reader.getMetadata().getTimestampIndex();
         toTop();
         return this;
     }
@@ -26,10 +26,12 @@ package io.questdb.griffin.engine.union;
 
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.cairo.sql.async.PageFrameSequenceRecordCursor;
 import io.questdb.griffin.SqlException;
 import io.questdb.std.Misc;
 
-public abstract class AbstractSetRecordCursor implements RecordCursor {
+public abstract class AbstractSetRecordCursor implements PageFrameSequenceRecordCursor {
     protected SqlExecutionCircuitBreaker circuitBreaker;
     protected RecordCursor cursorA;
     protected RecordCursor cursorB;
@@ -41,9 +43,35 @@ public abstract class AbstractSetRecordCursor implements RecordCursor {
         this.circuitBreaker = null;
     }
 
+    @Override
+    public PageFrameSequence<?> getFirstFrameSequence() {
+        return PageFrameSequenceRecordCursor.firstFrameSequenceOf(isCursorBConsumedFirst() ? cursorB : cursorA);
+    }
+
+    @Override
+    public PageFrameSequence<?> getLastFrameSequence() {
+        return PageFrameSequenceRecordCursor.lastFrameSequenceOf(isCursorBConsumedFirst() ? cursorA : cursorB);
+    }
+
+    // EXCEPT and INTERSECT hash cursor B before iterating cursor A
+    protected boolean isCursorBConsumedFirst() {
+        return false;
+    }
+
+    // Lets workers start on the frames of the cursor consumed second once the cursor
+    // consumed first has dispatched all of its frames, so that the branches overlap.
+    protected void prefetchSecondCursor() {
+        if (isCursorBConsumedFirst()) {
+            PageFrameSequenceRecordCursor.prefetchAfter(cursorB, cursorA);
+        } else {
+            PageFrameSequenceRecordCursor.prefetchAfter(cursorA, cursorB);
+        }
+    }
+
     void of(RecordCursor cursorA, RecordCursor cursorB, SqlExecutionCircuitBreaker circuitBreaker) throws SqlException {
         this.cursorA = cursorA;
         this.cursorB = cursorB;
         this.circuitBreaker = circuitBreaker;
+        prefetchSecondCursor();
     }
 }
@@ -124,6 +124,11 @@ class ExceptCastRecordCursor extends AbstractSetRecordCursor {
         mapA.clear();
     }
 
+    @Override
+    protected boolean isCursorBConsumedFirst() {
+        return true;
+    }
+
     private void hashCursorB() {
         while (cursorB.hasNext()) {
             MapKey keyB = mapB.withKey();
@@ -115,6 +115,11 @@ class IntersectAllCastRecordCursor extends AbstractSetRecordCursor {
         cursorA.toTop();
     }
 
+    @Override
+    protected boolean isCursorBConsumedFirst() {
+        return true;
+    }
+
     private void hashCursorB() {
         while (cursorB.hasNext()) {
             MapKey key = map.withKey();
@@ -140,5 +145,6 @@ class IntersectAllCastRecordCursor extends AbstractSetRecordCursor {
         castRecord.of(cursorA.getRecord(), cursorB.getRecord());
         castRecord.setAb(false);
         isCursorBHashed = false;
+        prefetchSecondCursor();
     }
 }
@@ -110,6 +110,11 @@ class IntersectAllRecordCursor extends AbstractSetRecordCursor {
         cursorA.toTop();
     }
 
+    @Override
+    protected boolean isCursorBConsumedFirst() {
+        return true;
+    }
+
     private void hashCursorB() {
         while (cursorB.hasNext()) {
             MapKey key = map.withKey();
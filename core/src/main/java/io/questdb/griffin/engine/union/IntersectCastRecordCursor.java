@@ -124,6 +124,11 @@ class IntersectCastRecordCursor extends AbstractSetRecordCursor {
         mapA.clear();
     }
 
+    @Override
+    protected boolean isCursorBConsumedFirst() {
+        return true;
+    }
+
     private void hashCursorB() {
         while (cursorB.hasNext()) {
             MapKey key = mapB.withKey();
@@ -150,5 +155,6 @@ class IntersectCastRecordCursor extends AbstractSetRecordCursor {
         castRecord.of(cursorA.getRecord(), cursorB.getRecord());
         castRecord.setAb(false);
         isCursorBHashed = false;
+        prefetchSecondCursor();
     }
 }
@@ -118,6 +118,11 @@ class IntersectRecordCursor extends AbstractSetRecordCursor {
         mapA.clear();
     }
 
+    @Override
+    protected boolean isCursorBConsumedFirst() {
+        return true;
+    }
+
     private void hashCursorB() {
         while (cursorB.hasNext()) {
             MapKey keyB = mapB.withKey();
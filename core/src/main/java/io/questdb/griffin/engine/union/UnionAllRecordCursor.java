@@ -87,6 +87,7 @@ class UnionAllRecordCursor extends AbstractSetRecordCursor implements NoRandomAc
         nextMethod = nextA;
         cursorA.toTop();
         cursorB.toTop();
+        prefetchSecondCursor();
     }
 
     private boolean nextA() {
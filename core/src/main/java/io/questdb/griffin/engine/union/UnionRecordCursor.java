@@ -96,6 +96,7 @@ class UnionRecordCursor extends AbstractSetRecordCursor implements NoRandomAcces
         nextMethod = nextA;
         cursorA.toTop();
         cursorB.toTop();
+        prefetchSecondCursor();
     }
 
     private boolean nextA() {
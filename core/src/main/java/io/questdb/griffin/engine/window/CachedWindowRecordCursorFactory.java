@@ -25,6 +25,7 @@
 package io.questdb.griffin.engine.window;
 
 
+import io.questdb.MessageBus;
 import io.questdb.cairo.*;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
@@ -33,14 +34,20 @@ import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.RecordComparator;
 import io.questdb.griffin.engine.orderby.LongTreeChain;
-import io.questdb.std.IntList;
-import io.questdb.std.Misc;
-import io.questdb.std.ObjList;
-import io.questdb.std.Transient;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.MCSequence;
+import io.questdb.mp.MPSequence;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.std.*;
+import io.questdb.tasks.WindowShardTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory {
+    private static final Log LOG = LogFactory.getLog(CachedWindowRecordCursorFactory.class);
+    private static final long SHARD_ROWS_INITIAL_CAPACITY = 1024;
     private final ObjList<WindowFunction> allFunctions;
     private final RecordCursorFactory base;
     private final GenericRecordMetadata chainMetadata;
@@ -49,10 +56,19 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
     private final ObjList<ObjList<WindowFunction>> ordered2PassFunctions;
     private final ObjList<ObjList<WindowFunction>> orderedFunctions;
     private final int orderedGroupCount;
+    // functions from orderedFunctions that are not evaluated by shard atoms
+    private final ObjList<ObjList<WindowFunction>> orderedSerialFunctions;
+    // shard atoms for ordered function groups, null entries for groups evaluated in a single thread
+    @Nullable
+    private final ObjList<WindowShardAtom> orderedShardAtoms;
     private final ObjList<IntList> sortKeys;
     private final ObjList<WindowFunction> unordered2PassFunctions;
     @Nullable
     private final ObjList<WindowFunction> unorderedFunctions;
+    @Nullable
+    private final ObjList<WindowFunction> unorderedSerialFunctions;
+    @Nullable
+    private final WindowShardAtom unorderedShardAtom;
     private boolean closed = false;
 
     public CachedWindowRecordCursorFactory(
@@ -66,7 +82,9 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
             @Nullable ObjList<WindowFunction> unorderedFunctions,
             @NotNull IntList columnIndexes,
             @NotNull final ObjList<IntList> sortKeys,
-            @NotNull GenericRecordMetadata chainMetadata
+            @NotNull GenericRecordMetadata chainMetadata,
+            @Nullable ObjList<WindowShardAtom> orderedShardAtoms,
+            @Nullable WindowShardAtom unorderedShardAtom
     ) {
         super(metadata);
         try {
@@ -74,6 +92,8 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
             this.orderedGroupCount = comparators.size();
             assert orderedGroupCount == orderedFunctions.size();
             this.orderedFunctions = orderedFunctions;
+            this.orderedShardAtoms = orderedShardAtoms;
+            this.unorderedShardAtom = unorderedShardAtom;
             this.comparators = comparators;
             RecordChain recordChain = new RecordChain(
                     chainTypes,
@@ -107,9 +127,14 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
             this.allFunctions = new ObjList<>();
 
             ObjList<ObjList<WindowFunction>> orderedTmp = null;
+            this.orderedSerialFunctions = new ObjList<>(orderedGroupCount);
             for (int i = 0, n = orderedFunctions.size(); i < n; i++) {
-                ObjList<WindowFunction> functions = orderedFunctions.getQuick(i);
-                allFunctions.addAll(functions);
+                allFunctions.addAll(orderedFunctions.getQuick(i));
+                final ObjList<WindowFunction> functions = serialFunctions(
+                        orderedFunctions.getQuick(i),
+                        orderedShardAtoms != null ? orderedShardAtoms.getQuick(i) : null
+                );
+                orderedSerialFunctions.add(functions);
 
                 ObjList<WindowFunction> twoPassFunctions = null;
                 for (int j = 0, k = functions.size(); j < k; j++) {
@@ -135,9 +160,10 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
             ObjList<WindowFunction> unorderedTmp = null;
             if (unorderedFunctions != null) {
                 allFunctions.addAll(unorderedFunctions);
+                this.unorderedSerialFunctions = serialFunctions(unorderedFunctions, unorderedShardAtom);
 
-                for (int i = 0, n = unorderedFunctions.size(); i < n; i++) {
-                    WindowFunction function = unorderedFunctions.getQuick(i);
+                for (int i = 0, n = unorderedSerialFunctions.size(); i < n; i++) {
+                    WindowFunction function = unorderedSerialFunctions.getQuick(i);
                     if (function.getPassCount() > WindowFunction.ONE_PASS) {
                         if (unorderedTmp == null) {
                             unorderedTmp = new ObjList<>();
@@ -145,6 +171,8 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
                         unorderedTmp.add(function);
                     }
                 }
+            } else {
+                this.unorderedSerialFunctions = null;
             }
             this.unordered2PassFunctions = unorderedTmp;
 
@@ -222,6 +250,10 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
             }
 
             sink.optAttr("unorderedFunctions", unorderedFunctions, true);
+            final int shardCount = getShardCount();
+            if (shardCount > 0) {
+                sink.attr("shards").val(shardCount);
+            }
         } finally {
             sink.useBaseMetadata(oldVal);
         }
@@ -239,6 +271,21 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
         return base.usesIndex();
     }
 
+    private static ObjList<WindowFunction> serialFunctions(ObjList<WindowFunction> functions, @Nullable WindowShardAtom atom) {
+        if (atom == null) {
+            return functions;
+        }
+        final ObjList<WindowFunction> shardFunctions = atom.getOwnerFunctions();
+        final ObjList<WindowFunction> serialFunctions = new ObjList<>(functions.size());
+        for (int i = 0, n = functions.size(); i < n; i++) {
+            final WindowFunction function = functions.getQuick(i);
+            if (shardFunctions.indexOf(function) < 0) {
+                serialFunctions.add(function);
+            }
+        }
+        return serialFunctions;
+    }
+
     private void addSortKeys(PlanSink sink, IntList list) {
         for (int i = 0, n = list.size(); i < n; i++) {
             int colIdx = list.get(i);
@@ -253,10 +300,36 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
         }
     }
 
+    private int getShardCount() {
+        if (unorderedShardAtom != null) {
+            return unorderedShardAtom.getShardCount();
+        }
+        if (orderedShardAtoms != null) {
+            for (int i = 0, n = orderedShardAtoms.size(); i < n; i++) {
+                final WindowShardAtom atom = orderedShardAtoms.getQuick(i);
+                if (atom != null) {
+                    return atom.getShardCount();
+                }
+            }
+        }
+        return 0;
+    }
+
     private void resetFunctions() {
         for (int i = 0, n = allFunctions.size(); i < n; i++) {
             allFunctions.getQuick(i).reset();
         }
+        if (orderedShardAtoms != null) {
+            for (int i = 0, n = orderedShardAtoms.size(); i < n; i++) {
+                final WindowShardAtom atom = orderedShardAtoms.getQuick(i);
+                if (atom != null) {
+                    atom.reset();
+                }
+            }
+        }
+        if (unorderedShardAtom != null) {
+            unorderedShardAtom.reset();
+        }
     }
 
     @Override
@@ -268,17 +341,23 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
         Misc.free(base);
         Misc.free(cursor);
         Misc.freeObjList(allFunctions);
+        Misc.freeObjList(orderedShardAtoms);
+        Misc.free(unorderedShardAtom);
     }
 
     class CachedWindowRecordCursor implements RecordCursor {
         private final IntList columnIndexes; // Used for symbol table lookups.
+        private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch(); // used for shard workers
         private final ObjList<LongTreeChain> orderedSources;
         private final RecordChain recordChain;
+        private final AtomicBooleanCircuitBreaker sharedCircuitBreaker = new AtomicBooleanCircuitBreaker(); // used to signal cancellation to shard workers
         private RecordCursor baseCursor;
         private SqlExecutionCircuitBreaker circuitBreaker;
         private boolean isOpen;
         private boolean isRecordChainBuilt;
+        private MessageBus messageBus;
         private long recordChainOffset;
+        private DirectLongList shardRows;
 
         public CachedWindowRecordCursor(IntList columnIndexes, RecordChain recordChain, ObjList<LongTreeChain> orderedSources) {
             this.columnIndexes = columnIndexes;
@@ -304,6 +383,7 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
                 for (int i = 0, n = orderedSources.size(); i < n; i++) {
                     Misc.free(orderedSources.getQuick(i));
                 }
+                shardRows = Misc.free(shardRows);
                 resetFunctions();
                 isOpen = false;
             }
@@ -383,9 +463,12 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
             if (orderedGroupCount > 0) {
                 for (int i = 0; i < orderedGroupCount; i++) {
                     final LongTreeChain tree = orderedSources.getQuick(i);
-                    final ObjList<WindowFunction> functions = orderedFunctions.getQuick(i);
-                    final LongTreeChain.TreeCursor cursor = tree.getCursor();
+                    final ObjList<WindowFunction> functions = orderedSerialFunctions.getQuick(i);
                     final int functionCount = functions.size();
+                    if (functionCount == 0) {
+                        continue;
+                    }
+                    final LongTreeChain.TreeCursor cursor = tree.getCursor();
                     while (cursor.hasNext()) {
                         circuitBreaker.statefulThrowExceptionIfTripped();
                         offset = cursor.next();
@@ -398,9 +481,9 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
             }
 
             // run pass1 for all unordered functions
-            if (unorderedFunctions != null) {
-                for (int j = 0, n = unorderedFunctions.size(); j < n; j++) {
-                    final WindowFunction f = unorderedFunctions.getQuick(j);
+            if (unorderedSerialFunctions != null) {
+                for (int j = 0, n = unorderedSerialFunctions.size(); j < n; j++) {
+                    final WindowFunction f = unorderedSerialFunctions.getQuick(j);
                     recordChain.toTop();
                     while (recordChain.hasNext()) {
                         circuitBreaker.statefulThrowExceptionIfTripped();
@@ -461,22 +544,135 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
                 }
             }
 
+            // step #3: evaluate partitioned functions on shard workers
+            if (orderedShardAtoms != null) {
+                for (int i = 0; i < orderedGroupCount; i++) {
+                    final WindowShardAtom atom = orderedShardAtoms.getQuick(i);
+                    if (atom != null) {
+                        final DirectLongList rows = prepareShardRows();
+                        final LongTreeChain.TreeCursor cursor = orderedSources.getQuick(i).getCursor();
+                        while (cursor.hasNext()) {
+                            rows.add(cursor.next());
+                        }
+                        evaluateShards(atom, rows);
+                    }
+                }
+            }
+            if (unorderedShardAtom != null) {
+                final DirectLongList rows = prepareShardRows();
+                recordChain.toTop();
+                while (recordChain.hasNext()) {
+                    rows.add(chainRecord.getRowId());
+                }
+                evaluateShards(unorderedShardAtom, rows);
+            }
+
             recordChain.toTop();
         }
 
+        private void dispatchShardTasks(WindowShardAtom atom, byte type) {
+            sharedCircuitBreaker.reset();
+            doneLatch.reset();
+
+            final int shardCount = atom.getShardCount();
+            final RingQueue<WindowShardTask> queue = messageBus.getWindowShardQueue();
+            final MPSequence pubSeq = messageBus.getWindowShardPubSeq();
+            final MCSequence subSeq = messageBus.getWindowShardSubSeq();
+
+            int queuedCount = 0;
+            int ownCount = 0;
+            int reclaimed = 0;
+
+            try {
+                for (int i = 0; i < shardCount; i++) {
+                    long cursor = pubSeq.next();
+                    if (cursor < 0) {
+                        circuitBreaker.statefulThrowExceptionIfTrippedNoThrottle();
+                        if (type == WindowShardTask.TYPE_SHARD) {
+                            atom.shardRows(i, sharedCircuitBreaker);
+                        } else {
+                            atom.evaluateShard(i, sharedCircuitBreaker);
+                        }
+                        ownCount++;
+                    } else {
+                        queue.get(cursor).of(sharedCircuitBreaker, doneLatch, atom, type, i);
+                        pubSeq.done(cursor);
+                        queuedCount++;
+                    }
+                }
+            } catch (Throwable e) {
+                sharedCircuitBreaker.cancel();
+                throw e;
+            } finally {
+                // Wait for the published tasks, helping workers to process the queue.
+                // The queue may contain tasks of other queries, so we rely on our latch to know when to stop.
+                while (!doneLatch.done(queuedCount)) {
+                    if (circuitBreaker.checkIfTripped()) {
+                        sharedCircuitBreaker.cancel();
+                    }
+
+                    long cursor = subSeq.next();
+                    if (cursor > -1) {
+                        WindowShardJob.run(queue.get(cursor), subSeq, cursor);
+                        reclaimed++;
+                    } else {
+                        Os.pause();
+                    }
+                }
+            }
+
+            if (sharedCircuitBreaker.checkIfTripped()) {
+                circuitBreaker.statefulThrowExceptionIfTrippedNoThrottle();
+                throw CairoException.nonCritical().put("window function evaluation failed, see server logs for details");
+            }
+
+            LOG.debug().$("window shard tasks done [type=").$(type)
+                    .$(", shardCount=").$(shardCount)
+                    .$(", ownCount=").$(ownCount)
+                    .$(", reclaimed=").$(reclaimed)
+                    .$(", queuedCount=").$(queuedCount).I$();
+        }
+
+        private void evaluateShards(WindowShardAtom atom, DirectLongList rows) {
+            atom.of(rows);
+            dispatchShardTasks(atom, WindowShardTask.TYPE_SHARD);
+            dispatchShardTasks(atom, WindowShardTask.TYPE_EVALUATE);
+        }
+
         private void of(RecordCursor baseCursor, SqlExecutionContext executionContext) throws SqlException {
             this.baseCursor = baseCursor;
             isRecordChainBuilt = false;
             recordChainOffset = -1;
             circuitBreaker = executionContext.getCircuitBreaker();
+            messageBus = executionContext.getMessageBus();
             if (!isOpen) {
                 isOpen = true;
                 recordChain.reopen();
                 recordChain.setSymbolTableResolver(this);
                 reopenTrees();
                 reopen(allFunctions);
+                reopenShardAtoms();
             }
             Function.init(allFunctions, this, executionContext);
+            if (orderedShardAtoms != null) {
+                for (int i = 0; i < orderedGroupCount; i++) {
+                    final WindowShardAtom atom = orderedShardAtoms.getQuick(i);
+                    if (atom != null) {
+                        atom.init(recordChain, this, executionContext);
+                    }
+                }
+            }
+            if (unorderedShardAtom != null) {
+                unorderedShardAtom.init(recordChain, this, executionContext);
+            }
+        }
+
+        private DirectLongList prepareShardRows() {
+            if (shardRows == null) {
+                shardRows = new DirectLongList(SHARD_ROWS_INITIAL_CAPACITY, MemoryTag.NATIVE_LONG_LIST);
+            }
+            shardRows.clear();
+            return shardRows;
         }
 
         private void reopen(ObjList<?> list) {
@@ -487,6 +683,20 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
             }
         }
 
+        private void reopenShardAtoms() {
+            if (orderedShardAtoms != null) {
+                for (int i = 0; i < orderedGroupCount; i++) {
+                    final WindowShardAtom atom = orderedShardAtoms.getQuick(i);
+                    if (atom != null) {
+                        atom.reopen();
+                    }
+                }
+            }
+            if (unorderedShardAtom != null) {
+                unorderedShardAtom.reopen();
+            }
+        }
+
         private void reopenTrees() {
             for (int i = 0; i < orderedGroupCount; i++) {
                 orderedSources.getQuick(i).reopen();
@@ -0,0 +1,323 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.window;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordChain;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.sql.AtomicBooleanCircuitBreaker;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.cairo.sql.WindowSPI;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Transient;
+
+/**
+ * Evaluates window functions that share the same PARTITION BY key on several threads.
+ * <p>
+ * Record chain offsets, listed in the order the functions expect to see the rows, are split
+ * into contiguous slices. Rows of each slice are distributed between per-shard lists by the
+ * hash code of the partition key. Next, each shard runs its own copy of the functions over
+ * its lists of all slices, in slice order. Since a partition always belongs to a single shard,
+ * the functions see the same sequence of rows per partition as they would in a single thread,
+ * and they write their values by the row offset, so the shards don't need to be merged.
+ * <p>
+ * Shard 0 uses the functions of the owning factory, other shards use their own copies.
+ */
+public class WindowShardAtom implements QuietCloseable {
+    public static final int MAX_SHARDS = 64;
+    private static final int CIRCUIT_BREAKER_CHECK_MASK = 0xffff;
+    private static final long SHARD_ROWS_INITIAL_CAPACITY = 256;
+    private final RecordSink keySink;
+    private final ObjList<ObjList<WindowFunction>> perShard2PassFunctions;
+    private final ObjList<ObjList<WindowFunction>> perShardFunctions;
+    private final ObjList<ObjList<Function>> perShardKeyFunctions;
+    private final ObjList<Map> perShardKeyMaps;
+    private final ObjList<VirtualRecord> perShardKeyRecords;
+    private final ObjList<Record> perShardRecords;
+    private final ObjList<ShardWindowSPI> perShardSPIs;
+    // row lists indexed by slice * shardCount + shard
+    private final ObjList<DirectLongList> perSliceShardRows;
+    private final int shardCount;
+    private RecordChain recordChain;
+    private DirectLongList rows;
+
+    /**
+     * @param configuration        configuration used to create partition key maps
+     * @param keyTypes             partition key types
+     * @param keySink              partition key sink
+     * @param perShardKeyFunctions partition key functions, one list per shard
+     * @param ownerFunctions       functions of the owning factory, used by shard 0
+     * @param workerFunctions      function copies for shards 1..n-1, aligned with ownerFunctions
+     */
+    public WindowShardAtom(
+            CairoConfiguration configuration,
+            @Transient ColumnTypes keyTypes,
+            RecordSink keySink,
+            ObjList<ObjList<Function>> perShardKeyFunctions,
+            ObjList<WindowFunction> ownerFunctions,
+            ObjList<ObjList<WindowFunction>> workerFunctions
+    ) {
+        this.shardCount = workerFunctions.size() + 1;
+        assert shardCount <= MAX_SHARDS;
+        assert perShardKeyFunctions.size() == shardCount;
+        this.keySink = keySink;
+        this.perShardKeyFunctions = perShardKeyFunctions;
+        this.perShardFunctions = new ObjList<>(shardCount);
+        this.perShard2PassFunctions = new ObjList<>(shardCount);
+        this.perShardKeyRecords = new ObjList<>(shardCount);
+        this.perShardKeyMaps = new ObjList<>(shardCount);
+        this.perShardRecords = new ObjList<>(shardCount);
+        this.perShardSPIs = new ObjList<>(shardCount);
+        this.perSliceShardRows = new ObjList<>(shardCount * shardCount);
+        try {
+            perShardFunctions.add(ownerFunctions);
+            perShardFunctions.addAll(workerFunctions);
+            for (int i = 0; i < shardCount; i++) {
+                final ObjList<WindowFunction> functions = perShardFunctions.getQuick(i);
+                ObjList<WindowFunction> twoPassFunctions = null;
+                for (int j = 0, n = functions.size(); j < n; j++) {
+                    final WindowFunction function = functions.getQuick(j);
+                    if (function.getPassCount() > WindowFunction.ONE_PASS) {
+                        if (twoPassFunctions == null) {
+                            twoPassFunctions = new ObjList<>();
+                        }
+                        twoPassFunctions.add(function);
+                    }
+                }
+                perShard2PassFunctions.add(twoPassFunctions);
+                perShardKeyRecords.add(new VirtualRecord(perShardKeyFunctions.getQuick(i)));
+                perShardKeyMaps.add(MapFactory.createOrderedMap(configuration, keyTypes));
+            }
+            for (int i = 0, n = shardCount * shardCount; i < n; i++) {
+                perSliceShardRows.add(new DirectLongList(SHARD_ROWS_INITIAL_CAPACITY, MemoryTag.NATIVE_LONG_LIST));
+            }
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    @Override
+    public void close() {
+        // shard 0 functions belong to the factory
+        for (int i = 1, n = perShardFunctions.size(); i < n; i++) {
+            Misc.freeObjList(perShardFunctions.getQuick(i));
+        }
+        for (int i = 0, n = perShardKeyFunctions.size(); i < n; i++) {
+            Misc.freeObjList(perShardKeyFunctions.getQuick(i));
+        }
+        Misc.freeObjList(perShardKeyMaps);
+        Misc.freeObjList(perSliceShardRows);
+        rows = null;
+    }
+
+    /**
+     * Runs all passes of the shard's functions over the rows assigned to the shard.
+     * Must be called after {@link #shardRows(int, AtomicBooleanCircuitBreaker)} is done for all slices.
+     */
+    public void evaluateShard(int shardIndex, AtomicBooleanCircuitBreaker circuitBreaker) {
+        final ObjList<WindowFunction> functions = perShardFunctions.getQuick(shardIndex);
+        if (!runPass(shardIndex, functions, false, circuitBreaker)) {
+            return;
+        }
+
+        final ObjList<WindowFunction> twoPassFunctions = perShard2PassFunctions.getQuick(shardIndex);
+        if (twoPassFunctions != null) {
+            for (int j = 0, n = twoPassFunctions.size(); j < n; j++) {
+                twoPassFunctions.getQuick(j).preparePass2();
+            }
+            runPass(shardIndex, twoPassFunctions, true, circuitBreaker);
+        }
+    }
+
+    public ObjList<WindowFunction> getOwnerFunctions() {
+        return perShardFunctions.getQuick(0);
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Initializes function copies and partition key functions. Shard 0 functions are expected
+     * to be initialized by the owning factory.
+     */
+    public void init(
+            RecordChain recordChain,
+            SymbolTableSource symbolTableSource,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        if (this.recordChain != recordChain) {
+            this.recordChain = recordChain;
+            perShardRecords.clear();
+            perShardSPIs.clear();
+            for (int i = 0; i < shardCount; i++) {
+                perShardRecords.add(recordChain.newRecord());
+                perShardSPIs.add(new ShardWindowSPI(recordChain));
+            }
+        }
+        for (int i = 0; i < shardCount; i++) {
+            Function.init(perShardKeyFunctions.getQuick(i), symbolTableSource, executionContext);
+            if (i > 0) {
+                Function.init(perShardFunctions.getQuick(i), symbolTableSource, executionContext);
+            }
+        }
+    }
+
+    /**
+     * Sets the list of record chain offsets to be processed.
+     */
+    public void of(DirectLongList rows) {
+        this.rows = rows;
+    }
+
+    public void reopen() {
+        for (int i = 1; i < shardCount; i++) {
+            final ObjList<WindowFunction> functions = perShardFunctions.getQuick(i);
+            for (int j = 0, n = functions.size(); j < n; j++) {
+                if (functions.getQuick(j) instanceof Reopenable) {
+                    ((Reopenable) functions.getQuick(j)).reopen();
+                }
+            }
+        }
+        for (int i = 0; i < shardCount; i++) {
+            perShardKeyMaps.getQuick(i).reopen();
+        }
+    }
+
+    public void reset() {
+        for (int i = 1; i < shardCount; i++) {
+            final ObjList<WindowFunction> functions = perShardFunctions.getQuick(i);
+            for (int j = 0, n = functions.size(); j < n; j++) {
+                functions.getQuick(j).reset();
+            }
+        }
+        Misc.freeObjListAndKeepObjects(perShardKeyMaps);
+        for (int i = 0, n = perSliceShardRows.size(); i < n; i++) {
+            perSliceShardRows.getQuick(i).resetCapacity();
+        }
+        rows = null;
+    }
+
+    /**
+     * Assigns rows in the given slice of the row list to shards.
+     */
+    public void shardRows(int sliceIndex, AtomicBooleanCircuitBreaker circuitBreaker) {
+        final Record record = perShardRecords.getQuick(sliceIndex);
+        final VirtualRecord keyRecord = perShardKeyRecords.getQuick(sliceIndex);
+        final Map keyMap = perShardKeyMaps.getQuick(sliceIndex);
+        keyRecord.of(record);
+
+        final int sliceRowsIndex = sliceIndex * shardCount;
+        for (int i = 0; i < shardCount; i++) {
+            perSliceShardRows.getQuick(sliceRowsIndex + i).clear();
+        }
+
+        final long size = rows.size();
+        final long lo = size * sliceIndex / shardCount;
+        final long hi = size * (sliceIndex + 1) / shardCount;
+        for (long i = lo; i < hi; i++) {
+            if (((i - lo) & CIRCUIT_BREAKER_CHECK_MASK) == 0 && circuitBreaker.checkIfTripped()) {
+                return;
+            }
+            final long offset = rows.get(i);
+            recordChain.recordAt(record, offset);
+            final MapKey key = keyMap.withKey();
+            key.put(keyRecord, keySink);
+            key.commit();
+            final int shardIndex = (int) Long.remainderUnsigned(key.hash(), shardCount);
+            perSliceShardRows.getQuick(sliceRowsIndex + shardIndex).add(offset);
+        }
+    }
+
+    private boolean runPass(
+            int shardIndex,
+            ObjList<WindowFunction> functions,
+            boolean secondPass,
+            AtomicBooleanCircuitBreaker circuitBreaker
+    ) {
+        final Record record = perShardRecords.getQuick(shardIndex);
+        final WindowSPI spi = perShardSPIs.getQuick(shardIndex);
+        final int functionCount = functions.size();
+        for (int i = 0; i < shardCount; i++) {
+            if (circuitBreaker.checkIfTripped()) {
+                return false;
+            }
+            final DirectLongList shardRows = perSliceShardRows.getQuick(i * shardCount + shardIndex);
+            for (long j = 0, n = shardRows.size(); j < n; j++) {
+                if ((j & CIRCUIT_BREAKER_CHECK_MASK) == CIRCUIT_BREAKER_CHECK_MASK && circuitBreaker.checkIfTripped()) {
+                    return false;
+                }
+                final long offset = shardRows.get(j);
+                recordChain.recordAt(record, offset);
+                if (secondPass) {
+                    for (int k = 0; k < functionCount; k++) {
+                        functions.getQuick(k).pass2(record, offset, spi);
+                    }
+                } else {
+                    for (int k = 0; k < functionCount; k++) {
+                        functions.getQuick(k).pass1(record, offset, spi);
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private static class ShardWindowSPI implements WindowSPI {
+        private final RecordChain recordChain;
+        private final Record recordAt;
+
+        private ShardWindowSPI(RecordChain recordChain) {
+            this.recordChain = recordChain;
+            this.recordAt = recordChain.newRecord();
+        }
+
+        @Override
+        public long getAddress(long recordAddress, int columnIndex) {
+            return recordChain.getAddress(recordAddress, columnIndex);
+        }
+
+        @Override
+        public Record getRecordAt(long recordOffset) {
+            recordChain.recordAt(recordAt, recordOffset);
+            return recordAt;
+        }
+    }
+}
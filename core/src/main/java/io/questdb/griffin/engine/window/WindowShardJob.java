@@ -0,0 +1,76 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.window;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.sql.AtomicBooleanCircuitBreaker;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.AbstractQueueConsumerJob;
+import io.questdb.mp.CountDownLatchSPI;
+import io.questdb.mp.Sequence;
+import io.questdb.tasks.WindowShardTask;
+
+public class WindowShardJob extends AbstractQueueConsumerJob<WindowShardTask> {
+    private static final Log LOG = LogFactory.getLog(WindowShardJob.class);
+
+    public WindowShardJob(MessageBus messageBus) {
+        super(messageBus.getWindowShardQueue(), messageBus.getWindowShardSubSeq());
+    }
+
+    public static void run(WindowShardTask task, Sequence subSeq, long cursor) {
+        final AtomicBooleanCircuitBreaker circuitBreaker = task.getCircuitBreaker();
+        final CountDownLatchSPI doneLatch = task.getDoneLatch();
+        final WindowShardAtom atom = task.getAtom();
+        final byte type = task.getType();
+        final int index = task.getIndex();
+
+        task.clear();
+        subSeq.done(cursor);
+
+        try {
+            if (circuitBreaker.checkIfTripped()) {
+                return;
+            }
+            if (type == WindowShardTask.TYPE_SHARD) {
+                atom.shardRows(index, circuitBreaker);
+            } else {
+                atom.evaluateShard(index, circuitBreaker);
+            }
+        } catch (Throwable e) {
+            LOG.error().$("window shard task failed [type=").$(type).$(", index=").$(index).$(", ex=").$(e).I$();
+            circuitBreaker.cancel();
+        } finally {
+            doneLatch.countDown();
+        }
+    }
+
+    @Override
+    protected boolean doRun(int workerId, long cursor, RunStatus runStatus) {
+        final WindowShardTask task = queue.get(cursor);
+        run(task, subSeq, cursor);
+        return true;
+    }
+}
@@ -35,7 +35,8 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
     private int atomicity;
     private boolean cancel;
     private byte delimiter;
-    private ExpressionNode fileName;
+    private boolean export;
+    private ExpressionNode fileName; // holds import file name or export directory name
     private boolean header;
     private int partitionBy;
     private ExpressionNode target; // holds table name (new import) or import id (cancel model)
@@ -51,6 +52,7 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         fileName = null;
         header = false;
         cancel = false;
+        export = false;
         timestampFormat = null;
         timestampColumnName = null;
         partitionBy = -1;
@@ -100,6 +102,10 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         return cancel;
     }
 
+    public boolean isExport() {
+        return export;
+    }
+
     public boolean isHeader() {
         return header;
     }
@@ -116,6 +122,10 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         this.delimiter = delimiter;
     }
 
+    public void setExport(boolean export) {
+        this.export = export;
+    }
+
     public void setFileName(ExpressionNode fileName) {
         this.fileName = fileName;
     }
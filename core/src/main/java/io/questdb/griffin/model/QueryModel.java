@@ -139,6 +139,9 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
     private JoinContext context;
     private boolean distinct = false;
     private boolean explicitTimestamp;
+    // stride of the SAMPLE BY that was rewritten into GROUP BY, the group by output
+    // has to be gap-filled with the sample by fill values when this is set
+    private ExpressionNode fillStride;
     //simple flag to mark when limit x,y in current model (part of query) is already taken care of by existing factories e.g. LimitedSizeSortedLightRecordCursorFactory
     //and doesn't need to be enforced by LimitRecordCursor. We need it to detect whether current factory implements limit from this or inner query .
     private boolean isLimitImplemented;
@@ -338,12 +341,14 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
     /**
      * Determines whether this model allows pushing columns from parent model(s).
      * If this is a UNION, EXCEPT or INTERSECT or contains a SELECT DISTINCT then it can't be done safely.
+     * The same goes for the gap-filled SAMPLE BY, where key columns drive the number of fill rows.
      */
     public boolean allowsColumnsChange() {
         QueryModel union = this;
         while (union != null) {
             if (union.getSetOperationType() != QueryModel.SET_OPERATION_UNION_ALL
-                    || union.getSelectModelType() == QueryModel.SELECT_MODEL_DISTINCT) {
+                    || union.getSelectModelType() == QueryModel.SELECT_MODEL_DISTINCT
+                    || union.getFillStride() != null) {
                 return false;
             }
             union = union.getUnionModel();
@@ -449,6 +454,7 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
 
     public void clearSampleBy() {
         sampleBy = null;
+        fillStride = null;
         sampleByUnit = null;
         sampleByFill.clear();
         sampleByTimezoneName = null;
@@ -610,6 +616,7 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
                 && Objects.equals(alias, that.alias)
                 && Objects.equals(timestamp, that.timestamp)
                 && Objects.equals(sampleBy, that.sampleBy)
+                && Objects.equals(fillStride, that.fillStride)
                 && Objects.equals(sampleByUnit, that.sampleByUnit)
                 && Objects.equals(context, that.context)
                 && Objects.equals(joinCriteria, that.joinCriteria)
@@ -681,6 +688,10 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
         return expressionModels;
     }
 
+    public ExpressionNode getFillStride() {
+        return fillStride;
+    }
+
     public ObjList<ExpressionNode> getGroupBy() {
         return groupBy;
     }
@@ -938,7 +949,7 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
                 latestByType, whereClause, backupWhereClause,
                 postJoinWhereClause, outerJoinExpressionClause, constWhereClause, nestedModel,
                 tableNameExpr, metadataVersion, tableNameFunction,
-                alias, timestamp, sampleBy,
+                alias, timestamp, sampleBy, fillStride,
                 sampleByUnit, context, joinCriteria,
                 joinType, joinKeywordPosition, orderedJoinModels,
                 limitLo, limitHi, limitPosition,
@@ -1078,6 +1089,7 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
 
     public void moveSampleByFrom(QueryModel model) {
         this.sampleBy = model.sampleBy;
+        this.fillStride = model.fillStride;
         this.sampleByUnit = model.sampleByUnit;
         this.sampleByFill.clear();
         this.sampleByFill.addAll(model.sampleByFill);
@@ -1180,6 +1192,10 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
         this.explicitTimestamp = explicitTimestamp;
     }
 
+    public void setFillStride(ExpressionNode fillStride) {
+        this.fillStride = fillStride;
+    }
+
     public void setIsUpdate(boolean isUpdate) {
         this.isUpdateModel = isUpdate;
     }
@@ -1382,6 +1398,22 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
         return modelTypeName.get(selectModelType);
     }
 
+    private void sampleByFillToSink(CharSink<?> sink) {
+        final int fillCount = sampleByFill.size();
+        if (fillCount > 0) {
+            sink.putAscii(" fill(");
+            sink.put(sampleByFill.getQuick(0));
+
+            if (fillCount > 1) {
+                for (int i = 1; i < fillCount; i++) {
+                    sink.putAscii(',');
+                    sink.put(sampleByFill.getQuick(i));
+                }
+            }
+            sink.putAscii(')');
+        }
+    }
+
     private void sinkColumns(CharSink<?> sink, ObjList<QueryColumn> columns) {
         for (int i = 0, n = columns.size(); i < n; i++) {
             if (i > 0) {
@@ -1687,19 +1719,7 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
             sink.putAscii(" sample by ");
             sampleBy.toSink(sink);
 
-            final int fillCount = sampleByFill.size();
-            if (fillCount > 0) {
-                sink.putAscii(" fill(");
-                sink.put(sampleByFill.getQuick(0));
-
-                if (fillCount > 1) {
-                    for (int i = 1; i < fillCount; i++) {
-                        sink.putAscii(',');
-                        sink.put(sampleByFill.getQuick(i));
-                    }
-                }
-                sink.putAscii(')');
-            }
+            sampleByFillToSink(sink);
 
             if (sampleByTimezoneName != null || sampleByOffset != null) {
                 sink.putAscii(" align to calendar");
@@ -1713,6 +1733,9 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
                     sink.put(sampleByOffset);
                 }
             }
+        } else if (fillStride != null) {
+            // sample by rewritten into group by, the fill is applied to the ordered group by output
+            sampleByFillToSink(sink);
         }
 
         if (showOrderBy && orderBy.size() > 0) {
@@ -25,6 +25,7 @@
 package io.questdb.std;
 
 import io.questdb.std.str.DirectUtf8Sequence;
+import io.questdb.std.str.Utf8Sequence;
 import io.questdb.std.str.Utf8String;
 
 public final class Hash {
@@ -131,6 +132,23 @@ public final class Hash {
         return (int) fmix64(h);
     }
 
+    /**
+     * 64-bit polynomial hash of UTF-8 bytes. Unlike {@link #hashUtf8(Utf8String)}, accepts
+     * any sequence, so that values stored in a column and on-heap constants hash the same.
+     */
+    public static long hashUtf8_64(Utf8Sequence seq) {
+        final int len = seq.size();
+        long h = 0;
+        int i = 0;
+        for (; i + 7 < len; i += 8) {
+            h = h * M2 + seq.longAt(i);
+        }
+        for (; i < len; i++) {
+            h = h * M2 + seq.byteAt(i);
+        }
+        return fmix64(h);
+    }
+
     /**
      * The Murmur3 128-bit variant. Returns the 8 most significant bytes of the hash.
      */
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.tasks;
+
+import io.questdb.cairo.sql.AtomicBooleanCircuitBreaker;
+import io.questdb.griffin.engine.window.WindowShardAtom;
+import io.questdb.mp.CountDownLatchSPI;
+import io.questdb.std.Mutable;
+
+public class WindowShardTask implements Mutable {
+    public static final byte TYPE_EVALUATE = 1;
+    public static final byte TYPE_SHARD = 0;
+    private WindowShardAtom atom;
+    private AtomicBooleanCircuitBreaker circuitBreaker;
+    private CountDownLatchSPI doneLatch;
+    private int index = -1;
+    private byte type;
+
+    @Override
+    public void clear() {
+        index = -1;
+        atom = null;
+        circuitBreaker = null;
+    }
+
+    public WindowShardAtom getAtom() {
+        return atom;
+    }
+
+    public AtomicBooleanCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public CountDownLatchSPI getDoneLatch() {
+        return doneLatch;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public byte getType() {
+        return type;
+    }
+
+    public void of(
+            AtomicBooleanCircuitBreaker circuitBreaker,
+            CountDownLatchSPI doneLatch,
+            WindowShardAtom atom,
+            byte type,
+            int index
+    ) {
+        this.circuitBreaker = circuitBreaker;
+        this.doneLatch = doneLatch;
+        this.atom = atom;
+        this.type = type;
+        this.index = index;
+    }
+}
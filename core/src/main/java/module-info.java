@@ -310,6 +310,7 @@ open module io.questdb {
             io.questdb.griffin.engine.functions.uuid.LongsToUuidFunctionFactory,
             io.questdb.griffin.engine.functions.date.TimestampShuffleFunctionFactory,
             io.questdb.griffin.engine.functions.date.TimestampFloorFunctionFactory,
+            io.questdb.griffin.engine.functions.date.TimestampFloorOffsetFunctionFactory,
             io.questdb.griffin.engine.functions.date.TimestampCeilFunctionFactory,
             io.questdb.griffin.engine.functions.date.DateTruncFunctionFactory,
             io.questdb.griffin.engine.functions.rnd.RndByteCCFunctionFactory,
@@ -943,6 +944,16 @@ open module io.questdb {
             io.questdb.griffin.engine.functions.window.AvgDoubleWindowFunctionFactory,
             io.questdb.griffin.engine.functions.window.FirstValueDoubleWindowFunctionFactory,
             io.questdb.griffin.engine.functions.window.SumDoubleWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.CountWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.CountDoubleWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.DenseRankFunctionFactory,
+            io.questdb.griffin.engine.functions.window.LagDoubleWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.LastValueDoubleWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.LeadDoubleWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.MaxDoubleWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.MinDoubleWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.NtileFunctionFactory,
+            io.questdb.griffin.engine.functions.window.PercentRankFunctionFactory,
 
             // metadata functions
             io.questdb.griffin.engine.functions.metadata.BuildFunctionFactory,
@@ -37,6 +37,7 @@ import io.questdb.network.NetworkFacadeImpl;
 import io.questdb.network.SelectFacadeImpl;
 import io.questdb.std.*;
 import io.questdb.std.datetime.microtime.MicrosecondClockImpl;
+import io.questdb.std.datetime.microtime.Timestamps;
 import io.questdb.std.datetime.millitime.MillisecondClockImpl;
 import io.questdb.std.str.StringSink;
 import io.questdb.std.str.Utf8String;
@@ -200,16 +201,25 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlSortKeyMaxPages());
         Assert.assertEquals(8 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSortLightValuePageSize());
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlSortLightValueMaxPages());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlSortRadixEnabled());
         Assert.assertEquals(16 * 1024 * 1024, configuration.getCairoConfiguration().getSqlHashJoinValuePageSize());
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlHashJoinValueMaxPages());
         Assert.assertEquals(1000, configuration.getCairoConfiguration().getSqlLatestByRowCount());
         Assert.assertEquals(1024 * 1024, configuration.getCairoConfiguration().getSqlHashJoinLightValuePageSize());
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlHashJoinLightValueMaxPages());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlMergeJoinEnabled());
         Assert.assertEquals(100, configuration.getCairoConfiguration().getSqlAsOfJoinLookAhead());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlAsOfJoinKeyedFastScanEnabled());
         Assert.assertEquals(16 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSortValuePageSize());
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlSortValueMaxPages());
+        Assert.assertFalse(configuration.getCairoConfiguration().isSqlSortSpillEnabled());
+        Assert.assertEquals(1024 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSortSpillThreshold());
         Assert.assertEquals(10000, configuration.getCairoConfiguration().getWorkStealTimeoutNanos());
         Assert.assertTrue(configuration.getCairoConfiguration().isParallelIndexingEnabled());
+        Assert.assertFalse(configuration.getCairoConfiguration().isZoneMapEnabled());
+        Assert.assertFalse(configuration.getCairoConfiguration().isBloomFilterEnabled());
+        Assert.assertFalse(configuration.getCairoConfiguration().isSortedIndexEnabled());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getPartitionCompressionAge());
         Assert.assertEquals(16 * 1024, configuration.getCairoConfiguration().getSqlJoinMetadataPageSize());
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlJoinMetadataMaxResizes());
         Assert.assertEquals(64, configuration.getCairoConfiguration().getWindowColumnPoolCapacity());
@@ -256,7 +266,13 @@ public class PropServerConfigurationTest {
         Assert.assertTrue(configuration.getCairoConfiguration().isGroupByPresizeEnabled());
         Assert.assertEquals(100_000_000, configuration.getCairoConfiguration().getGroupByPresizeMaxSize());
         Assert.assertEquals(Numbers.SIZE_1GB, configuration.getCairoConfiguration().getGroupByPresizeMaxHeapSize());
+        Assert.assertTrue(configuration.getCairoConfiguration().isGroupByAdaptiveEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isGroupBySymbolLookupEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isGroupByVectorizedEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelSampleByFillEnabled());
         Assert.assertEquals(128 * 1024, configuration.getCairoConfiguration().getGroupByAllocatorDefaultChunkSize());
+        Assert.assertFalse(configuration.getCairoConfiguration().isGroupBySpillEnabled());
+        Assert.assertEquals(10_000_000, configuration.getCairoConfiguration().getGroupBySpillThreshold());
 
         Assert.assertEquals(SqlJitMode.JIT_MODE_ENABLED, configuration.getCairoConfiguration().getSqlJitMode());
         Assert.assertEquals(8192, configuration.getCairoConfiguration().getSqlJitIRMemoryPageSize());
@@ -1340,16 +1356,25 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(256, configuration.getSqlSortKeyMaxPages());
         Assert.assertEquals(3 * 1024 * 1024, configuration.getSqlSortLightValuePageSize());
         Assert.assertEquals(1027, configuration.getSqlSortLightValueMaxPages());
+        Assert.assertFalse(configuration.isSqlSortRadixEnabled());
         Assert.assertEquals(8 * 1024 * 1024, configuration.getSqlHashJoinValuePageSize());
         Assert.assertEquals(1024, configuration.getSqlHashJoinValueMaxPages());
         Assert.assertEquals(10000, configuration.getSqlLatestByRowCount());
         Assert.assertEquals(2 * 1024 * 1024, configuration.getSqlHashJoinLightValuePageSize());
         Assert.assertEquals(1025, configuration.getSqlHashJoinLightValueMaxPages());
+        Assert.assertFalse(configuration.isSqlMergeJoinEnabled());
         Assert.assertEquals(42, configuration.getSqlAsOfJoinLookAhead());
+        Assert.assertFalse(configuration.isSqlAsOfJoinKeyedFastScanEnabled());
         Assert.assertEquals(4 * 1024 * 1024, configuration.getSqlSortValuePageSize());
         Assert.assertEquals(1028, configuration.getSqlSortValueMaxPages());
+        Assert.assertTrue(configuration.isSqlSortSpillEnabled());
+        Assert.assertEquals(64 * 1024 * 1024, configuration.getSqlSortSpillThreshold());
         Assert.assertEquals(1000000, configuration.getWorkStealTimeoutNanos());
         Assert.assertFalse(configuration.isParallelIndexingEnabled());
+        Assert.assertTrue(configuration.isZoneMapEnabled());
+        Assert.assertTrue(configuration.isBloomFilterEnabled());
+        Assert.assertTrue(configuration.isSortedIndexEnabled());
+        Assert.assertEquals(7 * Timestamps.DAY_MICROS, configuration.getPartitionCompressionAge());
         Assert.assertEquals(8 * 1024, configuration.getSqlJoinMetadataPageSize());
         Assert.assertEquals(10_000, configuration.getSqlJoinMetadataMaxResizes());
         Assert.assertEquals(16, configuration.getBindVariablePoolSize());
@@ -1393,6 +1418,15 @@ public class PropServerConfigurationTest {
         Assert.assertFalse(configuration.isSqlParallelFilterEnabled());
         Assert.assertFalse(configuration.isSqlParallelFilterPreTouchEnabled());
         Assert.assertFalse(configuration.isSqlParallelGroupByEnabled());
+        Assert.assertFalse(configuration.isSqlParallelHashJoinEnabled());
+        Assert.assertFalse(configuration.isSqlParallelAsOfJoinEnabled());
+        Assert.assertFalse(configuration.isSqlParallelDistinctEnabled());
+        Assert.assertFalse(configuration.isSqlParallelLatestByEnabled());
+        Assert.assertFalse(configuration.isSqlParallelOrderByEnabled());
+        Assert.assertFalse(configuration.isSqlParallelProjectionEnabled());
+        Assert.assertFalse(configuration.isSqlParallelSampleByFillEnabled());
+        Assert.assertFalse(configuration.isSqlParallelTopKEnabled());
+        Assert.assertFalse(configuration.isSqlParallelWindowEnabled());
         Assert.assertEquals(1000, configuration.getSqlPageFrameMaxRows());
         Assert.assertEquals(100, configuration.getSqlPageFrameMinRows());
         Assert.assertEquals(128, configuration.getPageFrameReduceShardCount());
@@ -1400,11 +1434,17 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(8, configuration.getPageFrameReduceRowIdListCapacity());
         Assert.assertEquals(4, configuration.getPageFrameReduceColumnListCapacity());
         Assert.assertEquals(2048, configuration.getGroupByMergeShardQueueCapacity());
+        Assert.assertEquals(512, configuration.getWindowShardQueueCapacity());
         Assert.assertEquals(100, configuration.getGroupByShardingThreshold());
         Assert.assertFalse(configuration.isGroupByPresizeEnabled());
         Assert.assertEquals(100_000, configuration.getGroupByPresizeMaxSize());
         Assert.assertEquals(1024, configuration.getGroupByPresizeMaxHeapSize());
+        Assert.assertFalse(configuration.isGroupByAdaptiveEnabled());
+        Assert.assertFalse(configuration.isGroupBySymbolLookupEnabled());
+        Assert.assertFalse(configuration.isGroupByVectorizedEnabled());
         Assert.assertEquals(4096, configuration.getGroupByAllocatorDefaultChunkSize());
+        Assert.assertTrue(configuration.isGroupBySpillEnabled());
+        Assert.assertEquals(1000, configuration.getGroupBySpillThreshold());
 
         Assert.assertEquals(SqlJitMode.JIT_MODE_FORCE_SCALAR, configuration.getSqlJitMode());
         Assert.assertEquals(2048, configuration.getSqlJitIRMemoryPageSize());
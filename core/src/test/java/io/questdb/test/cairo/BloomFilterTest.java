@@ -0,0 +1,269 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cairo;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.BloomFilterWriter;
+import io.questdb.cairo.BloomPartitionFilter;
+import io.questdb.cairo.PartitionBy;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.TxReader;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.LongList;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8String;
+import io.questdb.std.str.Utf8s;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.std.TestFilesFacadeImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BloomFilterTest extends AbstractCairoTest {
+    private static final String[] QUERIES = {
+            "select * from x where id = 7000",
+            "select * from x where id = 7001",
+            "select * from x where 7000 = id",
+            "select * from x where id = -7",
+            "select * from x where id in (70, 140000, 7)",
+            "select * from x where v = 'val5000'",
+            "select * from x where v = 'val12'",
+            "select * from x where v in ('val9', 'val19999')",
+            "select * from x where v = null",
+            "select * from x where v != 'val1' and id < 100",
+            "select * from x where u = '00000000-0000-0bb8-0000-0000000003e8'",
+            "select * from x where u in ('00000000-0000-0003-0000-000000000001', '00000000-0000-0001-0000-000000000001')",
+            "select * from x where ip = '0.0.15.208'",
+            "select * from x where ip = '0.0.3.233'",
+            "select * from x where id = 7007 and v = 'val1001'",
+            "select * from x where id = 7000 or id = 14000",
+            "select * from x where ts in '2024-01-02' and id = 7000",
+            "select * from x where id = 7000 order by ts desc",
+            "select count() from x where id = 70000"
+    };
+
+    @Test
+    public void testAddColumn() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            ddl("alter table x add column n long");
+            insert("insert into x select 999999, 'x', null, null, 'c', '2024-01-10', 55 from long_sequence(1)");
+            insert("insert into x select 1000000, 'y', null, null, 'c', '2024-01-20', 56 from long_sequence(1)");
+            assertQueries(
+                    "select * from x where n = 55",
+                    "select * from x where n = 56",
+                    "select * from x where id = 999999",
+                    "select * from x where v = 'x'"
+            );
+            // the column has column top in the old partitions
+            assertBloomFilter("2024-01-01", "n", false);
+            assertBloomFilter("2024-01-01", "id", true);
+        });
+    }
+
+    @Test
+    public void testInList() throws Exception {
+        final AtomicInteger openCount = new AtomicInteger();
+        final FilesFacade ff = new TestFilesFacadeImpl() {
+            @Override
+            public int openRO(LPSZ name) {
+                if (Utf8s.endsWithAscii(name, ".bf")) {
+                    openCount.incrementAndGet();
+                }
+                return super.openRO(name);
+            }
+        };
+        assertMemoryLeak(ff, () -> {
+            createTable("");
+            assertQueries(
+                    "select * from x where id in (70, 140000, 7)",
+                    "select * from x where v in ('val9', 'val19999')"
+            );
+            Assert.assertTrue(openCount.get() > 0);
+        });
+    }
+
+    @Test
+    public void testLastPartitionHasNoBloomFilter() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            assertBloomFilter("2024-01-01", "id", true);
+            assertBloomFilter("2024-01-01", "v", true);
+            assertBloomFilter("2024-01-01", "u", true);
+            assertBloomFilter("2024-01-13", "ip", true);
+            assertBloomFilter("2024-01-14", "id", false);
+            // unsupported column types
+            assertBloomFilter("2024-01-01", "s", false);
+        });
+    }
+
+    @Test
+    public void testNonPartitionedTable() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_BLOOM_FILTER_ENABLED, true);
+            ddl("create table x as (select x id, timestamp_sequence('2024-01-01', 60000000L) ts from long_sequence(1000)) timestamp(ts)");
+            assertQueries("select * from x where id = 500");
+        });
+    }
+
+    @Test
+    public void testO3() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            insert("insert into x select x + 100000, 'o3_' || x, null, null, 'c', timestamp_sequence('2024-01-03T05', 120000000L) from long_sequence(500)");
+            assertQueries(QUERIES);
+            assertQueries(
+                    "select * from x where id = 100200",
+                    "select * from x where v = 'o3_17'"
+            );
+        });
+    }
+
+    @Test
+    public void testPartitionsAreExcluded() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            final LongList hashes = new LongList();
+            hashes.add(BloomFilterWriter.hashLong(7000));
+            // 7000 is in the first partition, the last partition is never excluded
+            Assert.assertEquals(12, countExcluded(0, hashes));
+
+            hashes.clear();
+            hashes.add(BloomFilterWriter.hashVarchar(new Utf8String("val1001")));
+            hashes.add(BloomFilterWriter.hashVarchar(new Utf8String("val3001")));
+            Assert.assertEquals(11, countExcluded(1, hashes));
+
+            // the value is null in the data
+            hashes.clear();
+            hashes.add(BloomFilterWriter.hashVarchar(new Utf8String("val5000")));
+            Assert.assertEquals(13, countExcluded(1, hashes));
+        });
+    }
+
+    @Test
+    public void testPruningMatchesFullScan() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            assertQueries(QUERIES);
+        });
+    }
+
+    @Test
+    public void testTruncate() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            ddl("truncate table x");
+            insert("insert into x select x, 'val' || x, null, null, 'e', timestamp_sequence('2024-02-01', 60000000L) from long_sequence(5000)");
+            assertBloomFilter("2024-02-01", "id", true);
+            assertBloomFilter("2024-02-04", "id", false);
+            assertQueries(
+                    "select * from x where id = 3000",
+                    "select * from x where v = 'val7000'"
+            );
+        });
+    }
+
+    @Test
+    public void testUpdate() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            update("update x set id = id + 1000000 where ts in '2024-01-02'");
+            assertQueries(
+                    "select * from x where id = 1014000",
+                    "select * from x where id = 14000"
+            );
+        });
+    }
+
+    @Test
+    public void testWal() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(" wal");
+            drainWalQueue();
+            insert("insert into x select x + 100000, 'o3_' || x, null, null, 'c', timestamp_sequence('2024-01-03T05', 120000000L) from long_sequence(500)");
+            drainWalQueue();
+            assertQueries(QUERIES);
+        });
+    }
+
+    private static void assertBloomFilter(String partition, String column, boolean exists) throws Exception {
+        final FilesFacade ff = configuration.getFilesFacade();
+        final TableToken tableToken = engine.verifyTableName("x");
+        final long timestamp = TimestampFormatUtils.parseTimestamp(partition + "T00:00:00.000Z");
+        try (TableReader reader = engine.getReader(tableToken); Path path = new Path()) {
+            final TxReader txFile = reader.getTxFile();
+            path.of(configuration.getRoot()).concat(tableToken);
+            TableUtils.setPathForPartition(path, PartitionBy.DAY, timestamp, txFile.getPartitionNameTxn(txFile.getPartitionIndex(timestamp)));
+            Assert.assertEquals(path.toString(), exists, ff.exists(TableUtils.bfFile(path, column, -1)));
+        }
+    }
+
+    private static int countExcluded(int columnIndex, LongList hashes) {
+        try (
+                TableReader reader = getReader("x");
+                BloomPartitionFilter filter = new BloomPartitionFilter(configuration)
+        ) {
+            filter.addPredicate(columnIndex, hashes);
+            int excluded = 0;
+            for (int i = 0, n = reader.getPartitionCount(); i < n; i++) {
+                if (filter.isPartitionExcluded(reader, i)) {
+                    excluded++;
+                }
+            }
+            return excluded;
+        }
+    }
+
+    private void assertQueries(String... queries) throws Exception {
+        final StringSink expected = new StringSink();
+        for (String query : queries) {
+            node1.setProperty(PropertyKey.CAIRO_BLOOM_FILTER_ENABLED, false);
+            printSql(query, expected);
+            node1.setProperty(PropertyKey.CAIRO_BLOOM_FILTER_ENABLED, true);
+            assertSql(expected, query);
+        }
+    }
+
+    private void createTable(String walClause) throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_BLOOM_FILTER_ENABLED, true);
+        ddl("create table x (id long, v varchar, u uuid, ip ipv4, s symbol, ts timestamp) timestamp(ts) partition by day" + walClause);
+        insert(
+                "insert into x select" +
+                        " x * 7," +
+                        " case when x % 10 = 0 then null else 'val' || x end," +
+                        " case when x % 9 = 0 then null else to_uuid(x, x * 3) end," +
+                        " case when x % 8 = 0 then null else (x + 1000)::int::ipv4 end," +
+                        " rnd_symbol('a','b')," +
+                        " timestamp_sequence('2024-01-01', 60000000L)" +
+                        " from long_sequence(20000)"
+        );
+    }
+}
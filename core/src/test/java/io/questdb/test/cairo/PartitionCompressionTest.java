@@ -0,0 +1,295 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cairo;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.PartitionBy;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.TxReader;
+import io.questdb.griffin.SqlException;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PartitionCompressionTest extends AbstractCairoTest {
+    private static final String[] QUERIES = {
+            "select * from x",
+            "select * from x where id > 5000 and id <= 7000",
+            "select * from x where i = 1500",
+            "select * from x where s = 'a' and sh < 10",
+            "select s, count(), sum(id), first(g), max(t) from x order by s",
+            "select * from x latest on ts partition by s",
+            "select * from x where ts in '2024-01-03' and d > 100.0",
+            "select * from x order by ts desc limit 10"
+    };
+
+    @Test
+    public void testActivePartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            assertExceptionNoLeakCheck(
+                    "alter table x compress partition list '2024-01-14'",
+                    38,
+                    "cannot compress active partition",
+                    sqlExecutionContext
+            );
+        });
+    }
+
+    @Test
+    public void testAddIndexRefused() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            ddl("alter table x compress partition list '2024-01-01'");
+            try {
+                ddl("alter table x alter column s add index");
+                Assert.fail();
+            } catch (CairoException | SqlException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "table has compressed partitions");
+            }
+        });
+    }
+
+    @Test
+    public void testCompressByList() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            final StringSink[] expected = printQueries();
+            ddl("alter table x compress partition list '2024-01-01', '2024-01-02'");
+            assertCompressed("2024-01-01", true);
+            assertCompressed("2024-01-02", true);
+            assertCompressed("2024-01-03", false);
+            assertQueries(expected);
+
+            // idempotent
+            ddl("alter table x compress partition list '2024-01-01'");
+            assertQueries(expected);
+        });
+    }
+
+    @Test
+    public void testCompressByWhere() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            final StringSink[] expected = printQueries();
+            ddl("alter table x compress partition where ts < '2024-01-10'");
+            for (int day = 1; day < 10; day++) {
+                assertCompressed("2024-01-0" + day, true);
+            }
+            assertCompressed("2024-01-10", false);
+            assertQueries(expected);
+        });
+    }
+
+    @Test
+    public void testDetachRefused() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            ddl("alter table x compress partition list '2024-01-01'");
+            assertExceptionNoLeakCheck(
+                    "alter table x detach partition list '2024-01-01'",
+                    36,
+                    "DETACH_ERR_COMPRESSED",
+                    sqlExecutionContext
+            );
+        });
+    }
+
+    @Test
+    public void testDropCompressedPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            ddl("alter table x compress partition list '2024-01-01', '2024-01-02'");
+            ddl("alter table x drop partition list '2024-01-01'");
+            assertSql(
+                    "count\tmin\n" +
+                            "18560\t1441\n",
+                    "select count(), min(id) from x"
+            );
+        });
+    }
+
+    @Test
+    public void testDetachPartitionBeforeCompressed() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            ddl("alter table x compress partition list '2024-01-02'");
+            // min timestamp of the table is read from the compressed partition
+            ddl("alter table x detach partition list '2024-01-01'");
+            assertMinTimestamp("2024-01-02T00:00:00.000Z");
+            assertSql(
+                    "count\tmin\n" +
+                            "18560\t1441\n",
+                    "select count(), min(id) from x"
+            );
+        });
+    }
+
+    @Test
+    public void testDropPartitionBeforeCompressed() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            ddl("alter table x compress partition list '2024-01-02'");
+            // min timestamp of the table is read from the compressed partition
+            ddl("alter table x drop partition list '2024-01-01'");
+            assertMinTimestamp("2024-01-02T00:00:00.000Z");
+            assertSql(
+                    "count\tmin\n" +
+                            "18560\t1441\n",
+                    "select count(), min(id) from x"
+            );
+        });
+    }
+
+    @Test
+    public void testNonPartitionedTable() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select x id, timestamp_sequence('2024-01-01', 60000000L) ts from long_sequence(100)) timestamp(ts)");
+            assertExceptionNoLeakCheck(
+                    "alter table x compress partition list '2024-01-01'",
+                    23,
+                    "table is not partitioned",
+                    sqlExecutionContext
+            );
+        });
+    }
+
+    @Test
+    public void testO3IntoCompressedPartitionIsIgnored() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            ddl("alter table x compress partition list '2024-01-01'");
+            insert("insert into x select 1000000, 1, 1::short, 1.0, null, null, 'z', null, '2024-01-01T10' from long_sequence(1)");
+            assertSql("count\n0\n", "select count() from x where s = 'z'");
+            assertCompressed("2024-01-01", true);
+        });
+    }
+
+    @Test
+    public void testPolicy() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            final String query = "select * from x where ts < '2024-01-16'";
+            final StringSink expected = new StringSink();
+            printSql(query, expected);
+
+            node1.setProperty(PropertyKey.CAIRO_PARTITION_COMPRESSION_AGE_DAYS, 3);
+            // the policy runs when the last partition changes, partitions ending 3 days before max timestamp are cold
+            insert("insert into x select 999999, 1, 1::short, 1.0, null, null, 'c', null, '2024-01-16' from long_sequence(1)");
+            for (int day = 1; day < 10; day++) {
+                assertCompressed("2024-01-0" + day, true);
+            }
+            assertCompressed("2024-01-12", true);
+            assertCompressed("2024-01-13", false);
+            assertCompressed("2024-01-14", false);
+            assertSql(expected, query);
+
+            // the next partition turns cold once max timestamp moves on
+            insert("insert into x select 1000000, 1, 1::short, 1.0, null, null, 'c', null, '2024-01-17' from long_sequence(1)");
+            assertCompressed("2024-01-13", true);
+            assertCompressed("2024-01-14", false);
+            assertSql(expected, query);
+        });
+    }
+
+    @Test
+    public void testWal() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(" wal");
+            drainWalQueue();
+            final StringSink[] expected = printQueries();
+            ddl("alter table x compress partition list '2024-01-03'");
+            drainWalQueue();
+            assertCompressed("2024-01-03", true);
+            assertQueries(expected);
+        });
+    }
+
+    private static void assertCompressed(String partition, boolean compressed) throws Exception {
+        final FilesFacade ff = configuration.getFilesFacade();
+        final TableToken tableToken = engine.verifyTableName("x");
+        final long timestamp = TimestampFormatUtils.parseTimestamp(partition + "T00:00:00.000Z");
+        try (TableReader reader = engine.getReader(tableToken); Path path = new Path()) {
+            final TxReader txFile = reader.getTxFile();
+            final int partitionIndex = txFile.getPartitionIndex(timestamp);
+            Assert.assertEquals(partition, compressed, txFile.isPartitionCompressed(partitionIndex));
+            path.of(configuration.getRoot()).concat(tableToken);
+            TableUtils.setPathForPartition(path, PartitionBy.DAY, timestamp, txFile.getPartitionNameTxn(partitionIndex));
+            final int partitionLen = path.size();
+            // fixed-size integer columns are compressed, the rest stay as they are
+            Assert.assertEquals(compressed, ff.exists(TableUtils.dzFile(path.trimTo(partitionLen), "id", -1)));
+            Assert.assertEquals(!compressed, ff.exists(TableUtils.dFile(path.trimTo(partitionLen), "id", -1)));
+            Assert.assertEquals(compressed, ff.exists(TableUtils.dzFile(path.trimTo(partitionLen), "s", -1)));
+            Assert.assertTrue(ff.exists(TableUtils.dFile(path.trimTo(partitionLen), "d", -1)));
+            Assert.assertTrue(ff.exists(TableUtils.dFile(path.trimTo(partitionLen), "v", -1)));
+        }
+    }
+
+    private static void assertMinTimestamp(String expected) throws Exception {
+        try (TableReader reader = engine.getReader("x")) {
+            Assert.assertEquals(TimestampFormatUtils.parseTimestamp(expected), reader.getMinTimestamp());
+        }
+    }
+
+    private void assertQueries(StringSink[] expected) throws Exception {
+        for (int i = 0, n = QUERIES.length; i < n; i++) {
+            assertSql(expected[i], QUERIES[i]);
+        }
+    }
+
+    private void createTable(String walClause) throws Exception {
+        ddl("create table x (id long, i int, sh short, d double, t timestamp, v varchar, s symbol, g geohash(4c), ts timestamp) timestamp(ts) partition by day" + walClause);
+        insert(
+                "insert into x select" +
+                        " x," +
+                        " case when x % 7 = 0 then null else (x % 3000)::int end," +
+                        " (x % 1000)::short," +
+                        " x / 10.0," +
+                        " case when x % 5 = 0 then null else (x * 1000000)::timestamp end," +
+                        " rnd_varchar(1, 10, 1)," +
+                        " rnd_symbol('a','b', null)," +
+                        " rnd_geohash(20)," +
+                        " timestamp_sequence('2024-01-01', 60000000L)" +
+                        " from long_sequence(20000)"
+        );
+    }
+
+    private StringSink[] printQueries() throws Exception {
+        final StringSink[] expected = new StringSink[QUERIES.length];
+        for (int i = 0, n = QUERIES.length; i < n; i++) {
+            expected[i] = new StringSink();
+            printSql(QUERIES[i], expected[i]);
+        }
+        return expected;
+    }
+}
@@ -0,0 +1,241 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cairo;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.PartitionBy;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.TxReader;
+import io.questdb.std.Chars;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SortedIndexTest extends AbstractCairoTest {
+    private static final String[] QUERIES = {
+            "select * from x where id between 100 and 110",
+            "select * from x where id between 110 and 100",
+            "select * from x where id >= 100 and id < 110",
+            "select * from x where 110 > id and id > 100 and s = 'a'",
+            "select * from x where id = 5000",
+            "select * from x where id between -5 and 3",
+            "select * from x where i between 10 and 12",
+            "select * from x where i = -2147483648",
+            "select * from x where i between 0 and 3000",
+            "select * from x where ip << '10.0.0.0/8'",
+            "select * from x where ip <<= '200.1.0.0/16'",
+            "select * from x where ip << '0.0.0.0/1'",
+            "select * from x where ip >= '10.0.0.0' and ip <= '10.255.255.255'",
+            "select * from x where id between 100 and 200 order by ts desc",
+            "select * from x where ts in '2024-01-02' and id between 100 and 300",
+            "select count() from x where id between 100 and 1000",
+            "select * from x where id between 100 and 110 limit 3",
+            "select * from x where id between 100 and 110 or id = 7"
+    };
+
+    @Test
+    public void testAddColumn() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            ddl("alter table x add column n long");
+            insert("insert into x select 999999, 1, null, 'c', '2024-01-10', 55 from long_sequence(1)");
+            insert("insert into x select 1000000, 1, null, 'c', '2024-01-20', 56 from long_sequence(1)");
+            assertQueries(
+                    "select * from x where n between 50 and 60",
+                    "select * from x where id between 999990 and 1000000"
+            );
+            // the column has column top in the old partitions
+            assertSortedIndex("2024-01-01", "n", false);
+            assertSortedIndex("2024-01-01", "id", true);
+        });
+    }
+
+    @Test
+    public void testLastPartitionHasNoSortedIndex() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            assertSortedIndex("2024-01-01", "id", true);
+            assertSortedIndex("2024-01-01", "i", true);
+            assertSortedIndex("2024-01-13", "ip", true);
+            assertSortedIndex("2024-01-14", "id", false);
+            // unsupported column types
+            assertSortedIndex("2024-01-01", "s", false);
+            assertSortedIndex("2024-01-01", "ts", false);
+        });
+    }
+
+    @Test
+    public void testNonPartitionedTable() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_SORTED_INDEX_ENABLED, true);
+            ddl("create table x as (select x id, timestamp_sequence('2024-01-01', 60000000L) ts from long_sequence(1000)) timestamp(ts)");
+            assertQueries("select * from x where id between 500 and 510");
+        });
+    }
+
+    @Test
+    public void testO3() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            insert("insert into x select x + 100000, x::int, null, 'c', timestamp_sequence('2024-01-03T05', 120000000L) from long_sequence(500)");
+            assertQueries(QUERIES);
+            assertQueries("select * from x where id between 100100 and 100200");
+        });
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            assertPlanNoLeakCheck(
+                    "select * from x where id between 100 and 110",
+                    "Filter filter: id between 100 and 110\n" +
+                            "    DataFrame\n" +
+                            "        Sorted index forward scan on: id\n" +
+                            "          lo: 100\n" +
+                            "          hi: 110\n" +
+                            "        Frame forward scan on: x\n"
+            );
+            assertPlanNoLeakCheck(
+                    "select * from x where ip << '10.0.0.0/8' order by ts desc",
+                    "Filter filter: ip<<167772160'\n" +
+                            "    DataFrame\n" +
+                            "        Sorted index backward scan on: ip\n" +
+                            "          lo: 167772160\n" +
+                            "          hi: 184549375\n" +
+                            "        Frame backward scan on: x\n"
+            );
+            // range that is not bounded on both sides is not selective enough for the index
+            final StringSink plan = new StringSink();
+            printSql("explain select * from x where id > 100", plan);
+            Assert.assertFalse(Chars.contains(plan, "Sorted index"));
+        });
+    }
+
+    @Test
+    public void testPlanWideRange() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            // most of the rows match, so the filter stays parallel rather than going over the index rows
+            assertPlanNoLeakCheck(
+                    "select * from x where id between 100 and 15000",
+                    "Async Filter workers: 1\n" +
+                            "  filter: id between 100 and 15000\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+            assertQueries("select * from x where id between 100 and 15000");
+        });
+    }
+
+    @Test
+    public void testPruningMatchesFullScan() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            assertQueries(QUERIES);
+        });
+    }
+
+    @Test
+    public void testTruncate() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            ddl("truncate table x");
+            insert("insert into x select x, x::int, null, 'e', timestamp_sequence('2024-02-01', 60000000L) from long_sequence(5000)");
+            assertSortedIndex("2024-02-01", "id", true);
+            assertSortedIndex("2024-02-04", "id", false);
+            assertQueries(
+                    "select * from x where id between 3000 and 3010",
+                    "select * from x where i between 1000 and 1002"
+            );
+        });
+    }
+
+    @Test
+    public void testUpdate() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            update("update x set id = id + 1000000 where ts in '2024-01-02'");
+            assertQueries(
+                    "select * from x where id between 1000100 and 1000200",
+                    "select * from x where id between 100 and 200"
+            );
+        });
+    }
+
+    @Test
+    public void testWal() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(" wal");
+            drainWalQueue();
+            insert("insert into x select x + 100000, x::int, null, 'c', timestamp_sequence('2024-01-03T05', 120000000L) from long_sequence(500)");
+            drainWalQueue();
+            assertQueries(QUERIES);
+        });
+    }
+
+    private static void assertSortedIndex(String partition, String column, boolean exists) throws Exception {
+        final FilesFacade ff = configuration.getFilesFacade();
+        final TableToken tableToken = engine.verifyTableName("x");
+        final long timestamp = TimestampFormatUtils.parseTimestamp(partition + "T00:00:00.000Z");
+        try (TableReader reader = engine.getReader(tableToken); Path path = new Path()) {
+            final TxReader txFile = reader.getTxFile();
+            path.of(configuration.getRoot()).concat(tableToken);
+            TableUtils.setPathForPartition(path, PartitionBy.DAY, timestamp, txFile.getPartitionNameTxn(txFile.getPartitionIndex(timestamp)));
+            Assert.assertEquals(path.toString(), exists, ff.exists(TableUtils.siFile(path, column, -1)));
+        }
+    }
+
+    private void assertQueries(String... queries) throws Exception {
+        final StringSink expected = new StringSink();
+        for (String query : queries) {
+            node1.setProperty(PropertyKey.CAIRO_SORTED_INDEX_ENABLED, false);
+            printSql(query, expected);
+            node1.setProperty(PropertyKey.CAIRO_SORTED_INDEX_ENABLED, true);
+            assertSql(expected, query);
+        }
+    }
+
+    private void createTable(String walClause) throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_SORTED_INDEX_ENABLED, true);
+        ddl("create table x (id long, i int, ip ipv4, s symbol, ts timestamp) timestamp(ts) partition by day" + walClause);
+        insert(
+                "insert into x select" +
+                        " (x * 7919) % 20011," +
+                        " case when x % 7 = 0 then null else (x % 3000)::int end," +
+                        " case when x % 8 = 0 then null else (x * 2654435761L % 4294967296L)::int::ipv4 end," +
+                        " rnd_symbol('a','b')," +
+                        " timestamp_sequence('2024-01-01', 60000000L)" +
+                        " from long_sequence(20000)"
+        );
+    }
+}
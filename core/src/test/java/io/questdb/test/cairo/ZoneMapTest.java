@@ -0,0 +1,195 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.cairo;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.PartitionBy;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.TxReader;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ZoneMapTest extends AbstractCairoTest {
+    private static final String[] QUERIES = {
+            "select * from x where id > 5000 and id <= 7000",
+            "select * from x where id = 12000",
+            "select * from x where 7000 > id",
+            "select * from x where id > -5 and id < 3",
+            "select * from x where i >= 19000",
+            "select * from x where i < 10 or i > 19990",
+            "select * from x where sh < 2",
+            "select * from x where d > 1500.0",
+            "select * from x where d = 100.1",
+            "select * from x where d < -10",
+            "select * from x where t >= 19000000000",
+            "select * from x where id > 15000 order by ts desc",
+            "select * from x where ts in '2024-01-05' and id < 10000",
+            "select * from x where ts > '2024-01-03' and id < 10000 order by ts desc",
+            "select count() from x where id > 100200",
+            "select * from x where i = -2147483648"
+    };
+
+    @Test
+    public void testAddColumn() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            ddl("alter table x add column n long");
+            insert("insert into x select 999999, 1, 1::short, 1.0, null, 'd', '2024-01-10', 55 from long_sequence(1)");
+            insert("insert into x select 1000000, 1, 1::short, 1.0, null, 'd', '2024-01-20', 56 from long_sequence(1)");
+            assertQueries(
+                    "select * from x where n = 55",
+                    "select * from x where n > 55",
+                    "select * from x where id = 999999"
+            );
+            // the column has column top in the old partitions
+            assertZoneMap("2024-01-01", "n", false);
+            assertZoneMap("2024-01-01", "id", true);
+        });
+    }
+
+    @Test
+    public void testLastPartitionHasNoZoneMap() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            assertZoneMap("2024-01-01", "id", true);
+            assertZoneMap("2024-01-01", "d", true);
+            assertZoneMap("2024-01-13", "i", true);
+            assertZoneMap("2024-01-14", "id", false);
+            // unsupported column types
+            assertZoneMap("2024-01-01", "s", false);
+        });
+    }
+
+    @Test
+    public void testNonPartitionedTable() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_ZONE_MAP_ENABLED, true);
+            ddl("create table x as (select x id, timestamp_sequence('2024-01-01', 60000000L) ts from long_sequence(1000)) timestamp(ts)");
+            assertQueries("select * from x where id > 500");
+        });
+    }
+
+    @Test
+    public void testO3() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            insert("insert into x select x + 100000, (x + 100000)::int, 1::short, -x / 3.0, null, 'c', timestamp_sequence('2024-01-03T05', 120000000L) from long_sequence(500)");
+            assertQueries(QUERIES);
+            assertQueries("select * from x where id > 100200");
+        });
+    }
+
+    @Test
+    public void testPruningMatchesFullScan() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            assertQueries(QUERIES);
+        });
+    }
+
+    @Test
+    public void testTruncate() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            ddl("truncate table x");
+            insert("insert into x select x, x::int, 1::short, x::double, null, 'e', timestamp_sequence('2024-02-01', 60000000L) from long_sequence(5000)");
+            assertZoneMap("2024-02-01", "id", true);
+            assertZoneMap("2024-02-04", "id", false);
+            assertQueries(
+                    "select * from x where id > 3000",
+                    "select * from x where id < 3000"
+            );
+        });
+    }
+
+    @Test
+    public void testUpdate() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            update("update x set id = id + 1000000 where ts in '2024-01-02'");
+            assertQueries(
+                    "select * from x where id > 1000000",
+                    "select * from x where id < 3000"
+            );
+        });
+    }
+
+    @Test
+    public void testWal() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(" wal");
+            drainWalQueue();
+            insert("insert into x select x + 100000, (x + 100000)::int, 1::short, -x / 3.0, null, 'c', timestamp_sequence('2024-01-03T05', 120000000L) from long_sequence(500)");
+            drainWalQueue();
+            assertQueries(QUERIES);
+        });
+    }
+
+    private static void assertZoneMap(String partition, String column, boolean exists) throws Exception {
+        final FilesFacade ff = configuration.getFilesFacade();
+        final TableToken tableToken = engine.verifyTableName("x");
+        final long timestamp = TimestampFormatUtils.parseTimestamp(partition + "T00:00:00.000Z");
+        try (TableReader reader = engine.getReader(tableToken); Path path = new Path()) {
+            final TxReader txFile = reader.getTxFile();
+            path.of(configuration.getRoot()).concat(tableToken);
+            TableUtils.setPathForPartition(path, PartitionBy.DAY, timestamp, txFile.getPartitionNameTxn(txFile.getPartitionIndex(timestamp)));
+            Assert.assertEquals(path.toString(), exists, ff.exists(TableUtils.zmFile(path, column, -1)));
+        }
+    }
+
+    private void assertQueries(String... queries) throws Exception {
+        final StringSink expected = new StringSink();
+        for (String query : queries) {
+            node1.setProperty(PropertyKey.CAIRO_ZONE_MAP_ENABLED, false);
+            printSql(query, expected);
+            node1.setProperty(PropertyKey.CAIRO_ZONE_MAP_ENABLED, true);
+            assertSql(expected, query);
+        }
+    }
+
+    private void createTable(String walClause) throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_ZONE_MAP_ENABLED, true);
+        ddl("create table x (id long, i int, sh short, d double, t timestamp, s symbol, ts timestamp) timestamp(ts) partition by day" + walClause);
+        insert(
+                "insert into x select" +
+                        " x," +
+                        " case when x % 7 = 0 then null else x::int end," +
+                        " (x % 1000)::short," +
+                        " case when x % 11 = 0 then null else x / 10.0 end," +
+                        " (x * 1000000)::timestamp," +
+                        " rnd_symbol('a','b')," +
+                        " timestamp_sequence('2024-01-01', 60000000L)" +
+                        " from long_sequence(20000)"
+        );
+    }
+}
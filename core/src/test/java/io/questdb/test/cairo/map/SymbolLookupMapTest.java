@@ -0,0 +1,230 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cairo.map;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.SingleColumnType;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.map.SymbolLookupMap;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.Chars;
+import io.questdb.std.Rnd;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class SymbolLookupMapTest extends AbstractCairoTest {
+
+    @Test
+    public void testFuzz() throws Exception {
+        final Rnd rnd = TestUtils.generateRandom(LOG);
+        TestUtils.assertMemoryLeak(() -> {
+            SingleColumnType keyTypes = new SingleColumnType(ColumnType.SYMBOL);
+            SingleColumnType valueTypes = new SingleColumnType(ColumnType.LONG);
+
+            HashMap<Integer, Long> oracle = new HashMap<>();
+            // Small initial capacity makes the map grow.
+            try (SymbolLookupMap map = new SymbolLookupMap(keyTypes, valueTypes, 16)) {
+                final int N = 100000;
+                for (int i = 0; i < N; i++) {
+                    int i0 = rnd.nextInt(10) == 0 ? SymbolTable.VALUE_IS_NULL : rnd.nextInt(5000);
+                    MapKey key = map.withKey();
+                    key.putInt(i0);
+
+                    MapValue value = key.createValue();
+                    if (value.isNew()) {
+                        value.putLong(0, 1);
+                    } else {
+                        value.addLong(0, 1);
+                    }
+
+                    oracle.merge(i0, 1L, Long::sum);
+                }
+
+                Assert.assertEquals(oracle.size(), map.size());
+
+                // assert map contents
+                for (Map.Entry<Integer, Long> e : oracle.entrySet()) {
+                    MapKey key = map.withKey();
+                    key.putInt(e.getKey());
+
+                    MapValue value = key.findValue();
+                    Assert.assertNotNull(value);
+                    Assert.assertFalse(value.isNew());
+                    Assert.assertEquals((long) e.getValue(), value.getLong(0));
+                }
+
+                // assert cursor contents
+                int count = 0;
+                try (RecordCursor cursor = map.getCursor()) {
+                    final Record record = cursor.getRecord();
+                    while (cursor.hasNext()) {
+                        Assert.assertEquals((long) oracle.get(record.getInt(1)), record.getLong(0));
+                        count++;
+                    }
+                }
+                Assert.assertEquals(oracle.size(), count);
+            }
+        });
+    }
+
+    @Test
+    public void testMerge() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            SingleColumnType keyTypes = new SingleColumnType(ColumnType.SYMBOL);
+            SingleColumnType valueTypes = new SingleColumnType(ColumnType.LONG);
+
+            try (
+                    SymbolLookupMap mapA = new SymbolLookupMap(keyTypes, valueTypes, 16);
+                    SymbolLookupMap mapB = new SymbolLookupMap(keyTypes, valueTypes, 16)
+            ) {
+                final int N = 100;
+                for (int i = 0; i < N; i++) {
+                    MapKey keyA = mapA.withKey();
+                    keyA.putInt(i);
+                    MapValue valueA = keyA.createValue();
+                    Assert.assertTrue(valueA.isNew());
+                    valueA.putLong(0, i + 1);
+                }
+                // mapB has every other key of mapA, plus the null key and keys beyond mapA's capacity
+                for (int i = 0; i < 2 * N; i += 2) {
+                    MapKey keyB = mapB.withKey();
+                    keyB.putInt(i);
+                    MapValue valueB = keyB.createValue();
+                    Assert.assertTrue(valueB.isNew());
+                    valueB.putLong(0, i + 1);
+                }
+                MapKey keyB = mapB.withKey();
+                keyB.putInt(SymbolTable.VALUE_IS_NULL);
+                keyB.createValue().putLong(0, -1);
+
+                mapA.merge(mapB, (destValue, srcValue) -> destValue.addLong(0, srcValue.getLong(0)));
+
+                Assert.assertEquals(N + N / 2 + 1, mapA.size());
+                for (int i = 0; i < 2 * N; i++) {
+                    MapKey keyA = mapA.withKey();
+                    keyA.putInt(i);
+                    MapValue valueA = keyA.findValue();
+                    if (i < N) {
+                        Assert.assertNotNull(valueA);
+                        Assert.assertEquals(i % 2 == 0 ? 2L * (i + 1) : i + 1, valueA.getLong(0));
+                    } else if (i % 2 == 0) {
+                        Assert.assertNotNull(valueA);
+                        Assert.assertEquals(i + 1, valueA.getLong(0));
+                    } else {
+                        Assert.assertNull(valueA);
+                    }
+                }
+                MapKey keyA = mapA.withKey();
+                keyA.putInt(SymbolTable.VALUE_IS_NULL);
+                MapValue valueA = keyA.findValue();
+                Assert.assertNotNull(valueA);
+                Assert.assertEquals(-1, valueA.getLong(0));
+            }
+        });
+    }
+
+    @Test
+    public void testReopen() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (SymbolLookupMap map = new SymbolLookupMap(new SingleColumnType(ColumnType.SYMBOL), new SingleColumnType(ColumnType.LONG), 16)) {
+                for (int i = 0; i < 1000; i++) {
+                    MapKey key = map.withKey();
+                    key.putInt(i);
+                    key.createValue().putLong(0, i);
+                }
+                Assert.assertEquals(1000, map.size());
+
+                map.close();
+                Assert.assertFalse(map.isOpen());
+
+                map.reopen(64, 0);
+                Assert.assertTrue(map.isOpen());
+                Assert.assertEquals(0, map.size());
+                Assert.assertEquals(64, map.getKeyCapacity());
+
+                MapKey key = map.withKey();
+                key.putInt(42);
+                MapValue value = key.createValue();
+                Assert.assertTrue(value.isNew());
+                value.putLong(0, 42);
+                Assert.assertEquals(1, map.size());
+            }
+        });
+    }
+
+    @Test
+    public void testSingleZeroKey() {
+        try (SymbolLookupMap map = new SymbolLookupMap(new SingleColumnType(ColumnType.SYMBOL), new SingleColumnType(ColumnType.LONG), 16)) {
+            MapKey key = map.withKey();
+            key.putInt(0);
+            MapValue value = key.createValue();
+            Assert.assertTrue(value.isNew());
+            value.putLong(0, 42);
+
+            try (RecordCursor cursor = map.getCursor()) {
+                final Record record = cursor.getRecord();
+                Assert.assertTrue(cursor.hasNext());
+                Assert.assertEquals(0, record.getInt(1));
+                Assert.assertEquals(42, record.getLong(0));
+                Assert.assertFalse(cursor.hasNext());
+
+                // Validate that we get the same sequence after toTop.
+                cursor.toTop();
+                Assert.assertTrue(cursor.hasNext());
+                Assert.assertEquals(0, record.getInt(1));
+                Assert.assertEquals(42, record.getLong(0));
+                Assert.assertFalse(cursor.hasNext());
+            }
+        }
+    }
+
+    @Test
+    public void testUnsupportedKeyTypes() throws Exception {
+        short[] columnTypes = new short[]{
+                ColumnType.INT,
+                ColumnType.LONG,
+                ColumnType.STRING,
+                ColumnType.VARCHAR,
+        };
+        for (short columnType : columnTypes) {
+            TestUtils.assertMemoryLeak(() -> {
+                try (SymbolLookupMap ignore = new SymbolLookupMap(new SingleColumnType(columnType), new SingleColumnType(ColumnType.LONG), 64)) {
+                    Assert.fail();
+                } catch (CairoException e) {
+                    Assert.assertTrue(Chars.contains(e.getMessage(), "single symbol expected"));
+                }
+            });
+        }
+    }
+}
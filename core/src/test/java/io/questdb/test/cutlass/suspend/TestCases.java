@@ -277,9 +277,12 @@ public class TestCases {
         // AsOfJoinRecordCursorFactory
         addTestCase("with yy as (select ts, max(l) l from y sample by 1h) select * from x asof join (yy timestamp(ts)) on (l)");
 
-        // AsOfJoinLightRecordCursorFactory
+        // AsOfJoinFastRecordCursorFactory
         addTestCase("select * from x asof join y on (sym)");
 
+        // AsOfJoinLightRecordCursorFactory
+        addTestCase("select * from x asof join y on (l)");
+
         // LtJoinNoKeyFastRecordCursorFactory
         addTestCase("select * from x lt join y");
 
@@ -289,6 +292,9 @@ public class TestCases {
         // LtJoinRecordCursorFactory
         addTestCase("with yy as (select ts, max(l) l from y sample by 1h) select * from x lt join (yy timestamp(ts)) on (l)");
 
+        // LtJoinFastRecordCursorFactory
+        addTestCase("select * from x lt join y on (sym)");
+
         // LtJoinLightRecordCursorFactory
         addTestCase("select * from x lt join y on (l)");
 
@@ -0,0 +1,183 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cutlass.text;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.Path;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ParquetExportTest extends AbstractCairoTest {
+    private static final String EXPECTED_X = "partition\trows\tsize\n" +
+            "2024-01-01\t24\t2039\n" +
+            "2024-01-02\t24\t2048\n" +
+            "2024-01-03\t24\t2036\n" +
+            "2024-01-04\t24\t2050\n" +
+            "2024-01-05\t4\t853\n";
+    // "PAR1" as little-endian int
+    private static final int PARQUET_MAGIC = 0x31524150;
+
+    @BeforeClass
+    public static void setUpStatic() throws Exception {
+        inputRoot = TestUtils.unchecked(() -> temp.newFolder("exports" + System.nanoTime()).getAbsolutePath());
+        AbstractCairoTest.setUpStatic();
+    }
+
+    @Test
+    public void testDirNameWithDots() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (id long, ts timestamp) timestamp(ts) partition by day");
+            assertExceptionNoLeakCheck("copy x to '../out'", 10, "'.' is not allowed", sqlExecutionContext);
+        });
+    }
+
+    @Test
+    public void testEmptyDirName() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (id long, ts timestamp) timestamp(ts) partition by day");
+            assertExceptionNoLeakCheck("copy x to ''", 10, "directory name expected", sqlExecutionContext);
+        });
+    }
+
+    @Test
+    public void testEmptyTable() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (id long, ts timestamp) timestamp(ts) partition by day");
+            assertSql("partition\trows\tsize\n", "copy x to 'x_export'");
+            Assert.assertTrue(configuration.getFilesFacade().exists(Path.getThreadLocal(inputRoot).concat("x_export").slash$()));
+        });
+    }
+
+    @Test
+    public void testExportNonPartitioned() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select x id, timestamp_sequence('2024-01-01', 1000000L) ts from long_sequence(10)) timestamp(ts)");
+            assertSql(
+                    "partition\trows\tsize\n" +
+                            "default\t10\t337\n",
+                    "copy x to 'x_export'"
+            );
+            assertParquetFile("x_export", "default", 337);
+        });
+    }
+
+    @Test
+    public void testExportPartitioned() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSql(EXPECTED_X, "copy x to 'x_export' with format parquet");
+            assertParquetFile("x_export", "2024-01-01", 2039);
+            assertParquetFile("x_export", "2024-01-05", 853);
+
+            // existing files are overwritten
+            assertSql(EXPECTED_X, "copy x to 'x_export'");
+            assertParquetFile("x_export", "2024-01-03", 2036);
+        });
+    }
+
+    @Test
+    public void testTableDoesNotExist() throws Exception {
+        assertMemoryLeak(() -> assertExceptionNoLeakCheck(
+                "copy z to 'z_export'",
+                5,
+                "table does not exist [table=z]",
+                sqlExecutionContext
+        ));
+    }
+
+    @Test
+    public void testUnexpectedOption() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertExceptionNoLeakCheck("copy x to 'out' with format csv", 28, "'parquet' expected", sqlExecutionContext);
+            assertExceptionNoLeakCheck("copy x to 'out' with header true", 21, "unexpected option", sqlExecutionContext);
+            assertExceptionNoLeakCheck("copy x to 'out' format parquet", 16, "'with' expected", sqlExecutionContext);
+        });
+    }
+
+    @Test
+    public void testUnsupportedColumnType() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (id long, l long256, ts timestamp) timestamp(ts) partition by day");
+            try {
+                assertSql("", "copy x to 'x_export'");
+                Assert.fail();
+            } catch (CairoException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "unsupported column type for parquet export [column=l, type=LONG256]");
+            }
+            // copy context is released after a failed export
+            drop("drop table x");
+            createTable();
+            assertSql(EXPECTED_X, "copy x to 'x_export'");
+        });
+    }
+
+    private static void assertParquetFile(String dirName, String partition, long expectedSize) {
+        final FilesFacade ff = configuration.getFilesFacade();
+        try (Path path = new Path().of(inputRoot).concat(dirName).concat(partition).put(".parquet")) {
+            Assert.assertEquals(expectedSize, ff.length(path.$()));
+            final int fd = ff.openRO(path.$());
+            Assert.assertTrue(fd > -1);
+            final long buf = Unsafe.malloc(Integer.BYTES, MemoryTag.NATIVE_DEFAULT);
+            try {
+                Assert.assertEquals(Integer.BYTES, ff.read(fd, buf, Integer.BYTES, 0));
+                Assert.assertEquals(PARQUET_MAGIC, Unsafe.getUnsafe().getInt(buf));
+                Assert.assertEquals(Integer.BYTES, ff.read(fd, buf, Integer.BYTES, expectedSize - Integer.BYTES));
+                Assert.assertEquals(PARQUET_MAGIC, Unsafe.getUnsafe().getInt(buf));
+                // footer length precedes the trailing magic
+                Assert.assertEquals(Integer.BYTES, ff.read(fd, buf, Integer.BYTES, expectedSize - 2 * Integer.BYTES));
+                final int footerLength = Unsafe.getUnsafe().getInt(buf);
+                Assert.assertTrue(footerLength > 0 && footerLength < expectedSize - 3 * Integer.BYTES);
+            } finally {
+                Unsafe.free(buf, Integer.BYTES, MemoryTag.NATIVE_DEFAULT);
+                ff.close(fd);
+            }
+        }
+    }
+
+    private static void createTable() throws Exception {
+        ddl(
+                "create table x as (" +
+                        "select" +
+                        " x id," +
+                        " cast(case when x % 4 = 0 then null else 's' || (x % 3) end as symbol) sym," +
+                        " case when x % 5 = 0 then null else 'str' || x end str," +
+                        " case when x % 6 = 0 then null else ('v' || x)::varchar end v," +
+                        " case when x % 7 = 0 then null else to_uuid(x, x) end u," +
+                        " case when x % 3 = 0 then null else x::int end i," +
+                        " x % 2 = 0 b," +
+                        " x / 4.0 d," +
+                        " timestamp_sequence('2024-01-01', 3600000000L) ts" +
+                        " from long_sequence(100)" +
+                        ") timestamp(ts) partition by day"
+        );
+    }
+}
@@ -269,7 +269,7 @@ public class AggregateTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     query,
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [account_uuid]\n" +
                             "    GroupBy vectorized: false\n" +
                             "      keys: [account_uuid]\n" +
@@ -316,7 +316,7 @@ public class AggregateTest extends AbstractCairoTest {
             if (enableParallelGroupBy) {
                 assertPlanNoLeakCheck(
                         query,
-                        "Sort light\n" +
+                        "Radix sort light\n" +
                                 "  keys: [account_uuid]\n" +
                                 "    GroupBy vectorized: true workers: 1\n" +
                                 "      keys: [account_uuid]\n" +
@@ -363,7 +363,7 @@ public class AggregateTest extends AbstractCairoTest {
 
             final String plan;
             if (enableParallelGroupBy) {
-                plan = "Sort light\n" +
+                plan = "Radix sort light\n" +
                         "  keys: [org_uuid]\n" +
                         "    Async Group By workers: 1\n" +
                         "      keys: [org_uuid,account_uuid]\n" +
@@ -374,7 +374,7 @@ public class AggregateTest extends AbstractCairoTest {
                         "            Interval forward scan on: records\n" +
                         "              intervals: [(\"2023-02-01T00:00:00.000001Z\",\"2023-02-01T23:59:59.999999Z\")]\n";
             } else {
-                plan = "Sort light\n" +
+                plan = "Radix sort light\n" +
                         "  keys: [org_uuid]\n" +
                         "    GroupBy vectorized: false\n" +
                         "      keys: [org_uuid,account_uuid]\n" +
@@ -1490,7 +1490,7 @@ public class AggregateTest extends AbstractCairoTest {
                     "count\tcount1\n1\t1\n",
                     sql,
                     ddl,
-                    null, true, false
+                    null, true, enableParallelGroupBy
             );
         });
     }
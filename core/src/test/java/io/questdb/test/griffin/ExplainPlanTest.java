@@ -24,6 +24,7 @@
 
 package io.questdb.test.griffin;
 
+import io.questdb.PropertyKey;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.GenericRecordMetadata;
 import io.questdb.cairo.SqlJitMode;
@@ -52,6 +53,8 @@ import io.questdb.griffin.engine.functions.lt.LtStrIPv4FunctionFactory;
 import io.questdb.griffin.engine.functions.rnd.LongSequenceFunctionFactory;
 import io.questdb.griffin.engine.functions.rnd.RndIPv4CCFunctionFactory;
 import io.questdb.griffin.engine.functions.test.TestSumXDoubleGroupByFunctionFactory;
+import io.questdb.griffin.engine.functions.window.LagDoubleWindowFunctionFactory;
+import io.questdb.griffin.engine.functions.window.LeadDoubleWindowFunctionFactory;
 import io.questdb.griffin.engine.table.DataFrameRecordCursorFactory;
 import io.questdb.griffin.model.WindowColumn;
 import io.questdb.jit.JitUtil;
@@ -285,7 +288,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "select * from a asof join b on ts where a.i = b.ts::int",
                     "SelectedRecord\n" +
                             "    Filter filter: a.i=b.ts::int\n" +
-                            "        AsOf Join Fast Scan\n" +
+                            "        Async AsOf Join workers: 1\n" +
+                            "          filter: null\n" +
                             "            DataFrame\n" +
                             "                Row forward scan\n" +
                             "                Frame forward scan on: a\n" +
@@ -306,7 +310,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "select ts, ts1, i, i1 from (select * from a asof join b on ts ) where i/10 = i1",
                     "SelectedRecord\n" +
                             "    Filter filter: a.i/10=b.i\n" +
-                            "        AsOf Join Fast Scan\n" +
+                            "        Async AsOf Join workers: 1\n" +
+                            "          filter: null\n" +
                             "            DataFrame\n" +
                             "                Row forward scan\n" +
                             "                Frame forward scan on: a\n" +
@@ -326,7 +331,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
             assertPlanNoLeakCheck(
                     "select * from a asof join b on ts",
                     "SelectedRecord\n" +
-                            "    AsOf Join Fast Scan\n" +
+                            "    Async AsOf Join workers: 1\n" +
+                            "      filter: null\n" +
                             "        DataFrame\n" +
                             "            Row forward scan\n" +
                             "            Frame forward scan on: a\n" +
@@ -371,8 +377,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "        DataFrame\n" +
                             "            Row forward scan\n" +
                             "            Frame forward scan on: a\n" +
-                            "        Sort light\n" +
+                            "        Async Sort light workers: 1\n" +
                             "          keys: [ts, i]\n" +
+                            "          filter: null\n" +
                             "            DataFrame\n" +
                             "                Row forward scan\n" +
                             "                Frame forward scan on: b\n"
@@ -393,7 +400,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "asof join a c on ts",
                     "SelectedRecord\n" +
                             "    AsOf Join Fast Scan\n" +
-                            "        AsOf Join Fast Scan\n" +
+                            "        Async AsOf Join workers: 1\n" +
+                            "          filter: null\n" +
                             "            DataFrame\n" +
                             "                Row forward scan\n" +
                             "                Frame forward scan on: a\n" +
@@ -420,7 +428,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "where a.i = b.i",
                     "SelectedRecord\n" +
                             "    Filter filter: a.i=b.i\n" +
-                            "        AsOf Join Fast Scan\n" +
+                            "        Async AsOf Join workers: 1\n" +
+                            "          filter: null\n" +
                             "            DataFrame\n" +
                             "                Row forward scan\n" +
                             "                Frame forward scan on: a\n" +
@@ -467,12 +476,11 @@ public class ExplainPlanTest extends AbstractCairoTest {
             assertPlanNoLeakCheck(
                     "select * from a asof join b where a.i > 0",
                     "SelectedRecord\n" +
-                            "    AsOf Join Fast Scan\n" +
-                            "        Async JIT Filter workers: 1\n" +
-                            "          filter: 0<i\n" +
-                            "            DataFrame\n" +
-                            "                Row forward scan\n" +
-                            "                Frame forward scan on: a\n" +
+                            "    Async JIT AsOf Join workers: 1\n" +
+                            "      filter: 0<a.i\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: a\n" +
                             "        DataFrame\n" +
                             "            Row forward scan\n" +
                             "            Frame forward scan on: b\n"
@@ -483,6 +491,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
     @Test
     public void testAsOfJoinNoKeyFast1() throws Exception {
         assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ASOFJOIN_ENABLED, false);
             ddl("create table a (i int, ts timestamp) timestamp(ts)");
             ddl("create table b (i int, ts timestamp) timestamp(ts)");
 
@@ -503,6 +512,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
     @Test
     public void testAsOfJoinNoKeyFast2() throws Exception {
         assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ASOFJOIN_ENABLED, false);
             ddl("create table a (i int, ts timestamp) timestamp(ts)");
             ddl("create table b (i int, ts timestamp) timestamp(ts)");
 
@@ -523,6 +533,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
     @Test
     public void testAsOfJoinNoKeyFast3() throws Exception {
         assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ASOFJOIN_ENABLED, false);
             ddl("create table a (ts timestamp, i int) timestamp(ts)");
             ddl("create table b (i int, ts timestamp) timestamp(ts)");
 
@@ -986,13 +997,12 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "select distinct x from di order by 1 limit 10",
                 "Sort light lo: 10\n" +
                         "  keys: [x]\n" +
-                        "    DistinctKey\n" +
-                        "        GroupBy vectorized: true workers: 1\n" +
-                        "          keys: [x]\n" +
-                        "          values: [count(*)]\n" +
-                        "            DataFrame\n" +
-                        "                Row forward scan\n" +
-                        "                Frame forward scan on: di\n"
+                        "    GroupBy vectorized: true workers: 1\n" +
+                        "      keys: [x]\n" +
+                        "      values: [count(*)]\n" +
+                        "        DataFrame\n" +
+                        "            Row forward scan\n" +
+                        "            Frame forward scan on: di\n"
         );
     }
 
@@ -1003,13 +1013,12 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "select distinct x from di order by 1 desc limit 10",
                 "Sort light lo: 10\n" +
                         "  keys: [x desc]\n" +
-                        "    DistinctKey\n" +
-                        "        GroupBy vectorized: true workers: 1\n" +
-                        "          keys: [x]\n" +
-                        "          values: [count(*)]\n" +
-                        "            DataFrame\n" +
-                        "                Row forward scan\n" +
-                        "                Frame forward scan on: di\n"
+                        "    GroupBy vectorized: true workers: 1\n" +
+                        "      keys: [x]\n" +
+                        "      values: [count(*)]\n" +
+                        "        DataFrame\n" +
+                        "            Row forward scan\n" +
+                        "            Frame forward scan on: di\n"
         );
     }
 
@@ -1019,13 +1028,12 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "create table di (x int, y long)",
                 "select distinct x from di limit 10",
                 "Limit lo: 10\n" +
-                        "    DistinctKey\n" +
-                        "        GroupBy vectorized: true workers: 1\n" +
-                        "          keys: [x]\n" +
-                        "          values: [count(*)]\n" +
-                        "            DataFrame\n" +
-                        "                Row forward scan\n" +
-                        "                Frame forward scan on: di\n"
+                        "    GroupBy vectorized: true workers: 1\n" +
+                        "      keys: [x]\n" +
+                        "      values: [count(*)]\n" +
+                        "        DataFrame\n" +
+                        "            Row forward scan\n" +
+                        "            Frame forward scan on: di\n"
         );
     }
 
@@ -1035,13 +1043,12 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "create table di (x int, y long)",
                 "select distinct x from di limit -10",
                 "Limit lo: -10\n" +
-                        "    DistinctKey\n" +
-                        "        GroupBy vectorized: true workers: 1\n" +
-                        "          keys: [x]\n" +
-                        "          values: [count(*)]\n" +
-                        "            DataFrame\n" +
-                        "                Row forward scan\n" +
-                        "                Frame forward scan on: di\n"
+                        "    GroupBy vectorized: true workers: 1\n" +
+                        "      keys: [x]\n" +
+                        "      values: [count(*)]\n" +
+                        "        DataFrame\n" +
+                        "            Row forward scan\n" +
+                        "            Frame forward scan on: di\n"
         );
     }
 
@@ -1051,14 +1058,12 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "create table di (x int, y long)",
                 "select distinct x from di where y = 5 limit 10",
                 "Limit lo: 10\n" +
-                        "    Distinct\n" +
-                        "      keys: x\n" +
-                        "        SelectedRecord\n" +
-                        "            Async JIT Filter workers: 1\n" +
-                        "              filter: y=5\n" +
-                        "                DataFrame\n" +
-                        "                    Row forward scan\n" +
-                        "                    Frame forward scan on: di\n"
+                        "    Async JIT Group By workers: 1\n" +
+                        "      keys: [x]\n" +
+                        "      filter: y=5\n" +
+                        "        DataFrame\n" +
+                        "            Row forward scan\n" +
+                        "            Frame forward scan on: di\n"
         );
     }
 
@@ -1068,14 +1073,12 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "create table di (x int, y long)",
                 "select distinct x from di where y = 5 limit -10",
                 "Limit lo: -10\n" +
-                        "    Distinct\n" +
-                        "      keys: x\n" +
-                        "        SelectedRecord\n" +
-                        "            Async JIT Filter workers: 1\n" +
-                        "              filter: y=5\n" +
-                        "                DataFrame\n" +
-                        "                    Row forward scan\n" +
-                        "                    Frame forward scan on: di\n"
+                        "    Async JIT Group By workers: 1\n" +
+                        "      keys: [x]\n" +
+                        "      filter: y=5\n" +
+                        "        DataFrame\n" +
+                        "            Row forward scan\n" +
+                        "            Frame forward scan on: di\n"
         );
     }
 
@@ -1085,14 +1088,12 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "create table di (x int, y long)",
                 "select distinct x from di where abs(y) = 5 limit 10",
                 "Limit lo: 10\n" +
-                        "    Distinct\n" +
-                        "      keys: x\n" +
-                        "        SelectedRecord\n" +
-                        "            Async Filter workers: 1\n" +
-                        "              filter: abs(y)=5\n" +
-                        "                DataFrame\n" +
-                        "                    Row forward scan\n" +
-                        "                    Frame forward scan on: di\n"
+                        "    Async Group By workers: 1\n" +
+                        "      keys: [x]\n" +
+                        "      filter: abs(y)=5\n" +
+                        "        DataFrame\n" +
+                        "            Row forward scan\n" +
+                        "            Frame forward scan on: di\n"
         );
     }
 
@@ -1102,14 +1103,12 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "create table di (x int, y long)",
                 "select distinct x from di where abs(y) = 5 limit -10",
                 "Limit lo: -10\n" +
-                        "    Distinct\n" +
-                        "      keys: x\n" +
-                        "        SelectedRecord\n" +
-                        "            Async Filter workers: 1\n" +
-                        "              filter: abs(y)=5\n" +
-                        "                DataFrame\n" +
-                        "                    Row forward scan\n" +
-                        "                    Frame forward scan on: di\n"
+                        "    Async Group By workers: 1\n" +
+                        "      keys: [x]\n" +
+                        "      filter: abs(y)=5\n" +
+                        "        DataFrame\n" +
+                        "            Row forward scan\n" +
+                        "            Frame forward scan on: di\n"
         );
     }
 
@@ -1119,14 +1118,12 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "create table di (x int, y long)",
                 "select distinct x from di where abs(y) = 5 limit 10, 20",
                 "Limit lo: 10 hi: 20\n" +
-                        "    Distinct\n" +
-                        "      keys: x\n" +
-                        "        SelectedRecord\n" +
-                        "            Async Filter workers: 1\n" +
-                        "              filter: abs(y)=5\n" +
-                        "                DataFrame\n" +
-                        "                    Row forward scan\n" +
-                        "                    Frame forward scan on: di\n"
+                        "    Async Group By workers: 1\n" +
+                        "      keys: [x]\n" +
+                        "      filter: abs(y)=5\n" +
+                        "        DataFrame\n" +
+                        "            Row forward scan\n" +
+                        "            Frame forward scan on: di\n"
         );
     }
 
@@ -1209,7 +1206,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     "select * from (select * from a order by ts desc limit 10) except (select * from a) order by ts asc",
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [ts]\n" +
                             "    Except\n" +
                             "        Limit lo: 10\n" +
@@ -1231,7 +1228,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     "select * from (select * from a order by ts asc limit 10) except (select * from a) order by ts desc",
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [ts desc]\n" +
                             "    Except\n" +
                             "        Limit lo: 10\n" +
@@ -1284,7 +1281,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "  from tab\n" +
                             "  where id = 'XXX' \n" +
                             "  sample by 15m ALIGN to CALENDAR\n",
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [ts]\n" +
                             "    GroupBy vectorized: false\n" +
                             "      keys: [ts,id]\n" +
@@ -1397,8 +1394,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                         "            Frame forward scan on: a\n" +
                         "        Hash\n" +
                         "            SelectedRecord\n" +
-                        "                Sort light\n" +
+                        "                Async Sort light workers: 1\n" +
                         "                  keys: [s]\n" +
+                        "                  filter: null\n" +
                         "                    DataFrame\n" +
                         "                        Row forward scan\n" +
                         "                        Frame forward scan on: a\n"
@@ -1443,8 +1441,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "    VirtualRecord\n" +
                     "      functions: [1,d1]\n" +
                     "        SelectedRecord\n" +
-                    "            Hash Join Light\n" +
+                    "            Async Hash Join Light workers: 1\n" +
                     "              condition: l2=l1\n" +
+                    "              filter: null\n" +
                     "                DataFrame\n" +
                     "                    Row forward scan\n" +
                     "                    Frame forward scan on: a\n" +
@@ -1778,7 +1777,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "timestamp(ts) partition by month");
 
             assertPlanNoLeakCheck("select s, count() from trips where s is not null order by count desc",
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [count desc]\n" +
                             "    GroupBy vectorized: false\n" +
                             "      keys: [s]\n" +
@@ -2324,6 +2323,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                                         sigArgType = ColumnType.DOUBLE;
                                     } else if (factory instanceof LevelTwoPriceFunctionFactory) {
                                         sigArgType = ColumnType.DOUBLE;
+                                    } else if (factory instanceof LagDoubleWindowFunctionFactory || factory instanceof LeadDoubleWindowFunctionFactory) {
+                                        // offset and default value
+                                        sigArgType = ColumnType.INT;
                                     } else {
                                         sigArgType = ColumnType.STRING;
                                     }
@@ -2356,6 +2358,10 @@ public class ExplainPlanTest extends AbstractCairoTest {
                                     args.add(new StrConstant("123.456"));
                                 } else if (factory instanceof TimestampFloorFunctionFactory && p == 0) {
                                     args.add(new StrConstant("d"));
+                                } else if (factory instanceof TimestampFloorOffsetFunctionFactory && p == 0) {
+                                    args.add(new StrConstant("d"));
+                                } else if (factory instanceof TimestampFloorOffsetFunctionFactory && p == 2) {
+                                    args.add(new StrConstant("00:15"));
                                 } else if (factory instanceof DateTruncFunctionFactory && p == 0) {
                                     args.add(new StrConstant("year"));
                                 } else if (factory instanceof ToUTCTimestampFunctionFactory && p == 1) {
@@ -2880,8 +2886,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "GroupBy vectorized: false\n" +
                         "  values: [max(i)]\n" +
                         "    SelectedRecord\n" +
-                        "        Hash Join Light\n" +
+                        "        Async Hash Join Light workers: 1\n" +
                         "          condition: b.i=a.i\n" +
+                        "          filter: null\n" +
                         "            DataFrame\n" +
                         "                Row forward scan\n" +
                         "                Frame forward scan on: a\n" +
@@ -3024,8 +3031,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "select max(i) from (select * from a order by d limit 10)",
                 "GroupBy vectorized: false\n" +
                         "  values: [max(i)]\n" +
-                        "    Sort light lo: 10\n" +
+                        "    Async Sort light lo: 10 workers: 1\n" +
                         "      keys: [d]\n" +
+                        "      filter: null\n" +
                         "        DataFrame\n" +
                         "            Row forward scan\n" +
                         "            Frame forward scan on: a\n"
@@ -3311,8 +3319,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "select s1, s2 from (select a.s1, b.s2, b.i, a.i  from a join b on i) where i < i1 and s1 = s2",
                     "SelectedRecord\n" +
                             "    Filter filter: (b.i<a.i and a.s1=b.s2)\n" +
-                            "        Hash Join Light\n" +
+                            "        Async Hash Join Light workers: 1\n" +
                             "          condition: b.i=a.i\n" +
+                            "          filter: null\n" +
                             "            DataFrame\n" +
                             "                Row forward scan\n" +
                             "                Frame forward scan on: a\n" +
@@ -3544,7 +3553,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     "select * from (select * from a order by ts desc limit 10) intersect (select * from a) order by ts asc",
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [ts]\n" +
                             "    Intersect\n" +
                             "        Limit lo: 10\n" +
@@ -3566,7 +3575,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     "select * from (select * from a order by ts asc limit 10) intersect (select * from a) order by ts desc",
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [ts desc]\n" +
                             "    Intersect\n" +
                             "        Limit lo: 10\n" +
@@ -3663,9 +3672,11 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table a ( i int, ts timestamp) timestamp(ts);",
                 "select i from a latest on ts partition by i",
-                "LatestByAllFiltered\n" +
-                        "    Row backward scan\n" +
-                        "    Frame backward scan on: a\n"
+                "Async Latest By workers: 1\n" +
+                        "  filter: null\n" +
+                        "    DataFrame\n" +
+                        "        Row backward scan\n" +
+                        "        Frame backward scan on: a\n"
         );
     }
 
@@ -3759,9 +3770,11 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table a ( i int, ts timestamp) timestamp(ts);",
                 "select * from a latest on ts partition by i",
-                "LatestByAllFiltered\n" +
-                        "    Row backward scan\n" +
-                        "    Frame backward scan on: a\n"
+                "Async Latest By workers: 1\n" +
+                        "  filter: null\n" +
+                        "    DataFrame\n" +
+                        "        Row backward scan\n" +
+                        "        Frame backward scan on: a\n"
         );
     }
 
@@ -3794,7 +3807,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "select s, i, ts from a where s in (select distinct s from a) and length(s) = 2 latest on ts partition by s",
                 "LatestBySubQuery\n" +
                         "    Subquery\n" +
-                        "        DistinctSymbol\n" +
+                        "        GroupBy vectorized: true workers: 1\n" +
+                        "          keys: [s]\n" +
+                        "          values: [count(*)]\n" +
                         "            DataFrame\n" +
                         "                Row forward scan\n" +
                         "                Frame forward scan on: a\n" +
@@ -3811,7 +3826,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "select s, i, ts from a where s in (select distinct s from a) latest on ts partition by s",
                 "LatestBySubQuery\n" +
                         "    Subquery\n" +
-                        "        DistinctSymbol\n" +
+                        "        GroupBy vectorized: true workers: 1\n" +
+                        "          keys: [s]\n" +
+                        "          values: [count(*)]\n" +
                         "            DataFrame\n" +
                         "                Row forward scan\n" +
                         "                Frame forward scan on: a\n" +
@@ -3827,7 +3844,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "select i, ts, s from a where s in (select distinct s from a) and length(s) = 2 latest on ts partition by s",
                 "LatestBySubQuery\n" +
                         "    Subquery\n" +
-                        "        DistinctSymbol\n" +
+                        "        GroupBy vectorized: true workers: 1\n" +
+                        "          keys: [s]\n" +
+                        "          values: [count(*)]\n" +
                         "            DataFrame\n" +
                         "                Row forward scan\n" +
                         "                Frame forward scan on: a\n" +
@@ -3844,7 +3863,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "select i, ts, s from a where s in (select distinct s from a) latest on ts partition by s",
                 "LatestBySubQuery\n" +
                         "    Subquery\n" +
-                        "        DistinctSymbol\n" +
+                        "        GroupBy vectorized: true workers: 1\n" +
+                        "          keys: [s]\n" +
+                        "          values: [count(*)]\n" +
                         "            DataFrame\n" +
                         "                Row forward scan\n" +
                         "                Frame forward scan on: a\n" +
@@ -3914,10 +3935,11 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "create table a ( i int, ts timestamp) timestamp(ts);",
                 "select ts, i as i1, i as i2 from a where 0 < i and i < 10 latest on ts partition by i",
                 "SelectedRecord\n" +
-                        "    LatestByAllFiltered\n" +
-                        "        Row backward scan\n" +
-                        "          filter: (0<i and i<10)\n" +
-                        "        Frame backward scan on: a\n"
+                        "    Async Latest By workers: 1\n" +
+                        "      filter: (0<i and i<10)\n" +
+                        "        DataFrame\n" +
+                        "            Row backward scan\n" +
+                        "            Frame backward scan on: a\n"
         );
     }
 
@@ -3927,9 +3949,11 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "create table a ( i int, d double, ts timestamp) timestamp(ts);",
                 "select ts, d from a latest on ts partition by i",
                 "SelectedRecord\n" +
-                        "    LatestByAllFiltered\n" +
-                        "        Row backward scan\n" +
-                        "        Frame backward scan on: a\n"
+                        "    Async Latest By workers: 1\n" +
+                        "      filter: null\n" +
+                        "        DataFrame\n" +
+                        "            Row backward scan\n" +
+                        "            Frame backward scan on: a\n"
         );
     }
 
@@ -4521,7 +4545,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
             compile("CREATE TABLE tab ( created timestamp, value int ) timestamp(created)");
 
             String[] joinTypes = {"LEFT", "LT", "ASOF"};
-            String[] joinFactoryTypes = {"Hash Outer Join Light", "Lt Join Fast Scan", "AsOf Join Fast Scan"};
+            String[] joinFactoryTypes = {"Hash Outer Join Light", "Lt Join Fast Scan", "Async AsOf Join workers: 1"};
 
             for (int i = 0; i < joinTypes.length; i++) {
                 // do not push down predicate to the 'right' table of left join but apply it after join
@@ -4538,6 +4562,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                                 "    Filter filter: T2.value=T2.value\n" +
                                 "        " + factoryType + "\n" +
                                 (i == 0 ? "          condition: T2.created=T1.created\n" : "") +
+                                (i == 2 ? "          filter: null\n" : "") +
                                 "            DataFrame\n" +
                                 "                Row forward scan\n" +
                                 "                Frame forward scan on: tab\n" +
@@ -4557,6 +4582,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                                 "    Filter filter: T2.value!=1\n" +
                                 "        " + factoryType + "\n" +
                                 (i == 0 ? "          condition: T2.created=T1.created\n" : "") +
+                                (i == 2 ? "          filter: null\n" : "") +
                                 "            DataFrame\n" +
                                 "                Row forward scan\n" +
                                 "                Frame forward scan on: tab\n" +
@@ -4572,7 +4598,19 @@ public class ExplainPlanTest extends AbstractCairoTest {
                                 "FROM tab as T1 " +
                                 joinType + " JOIN tab as T2 " + (i == 0 ? " ON T1.created=T2.created " : "") +
                                 "WHERE not T1.value=1",
-                        "GroupBy vectorized: false\n" +
+                        i == 2
+                                // parallel ASOF JOIN applies the master filter itself
+                                ? "GroupBy vectorized: false\n" +
+                                "  values: [count(*)]\n" +
+                                "    Async JIT AsOf Join workers: 1\n" +
+                                "      filter: T1.value!=1\n" +
+                                "        DataFrame\n" +
+                                "            Row forward scan\n" +
+                                "            Frame forward scan on: tab\n" +
+                                "        DataFrame\n" +
+                                "            Row forward scan\n" +
+                                "            Frame forward scan on: tab\n"
+                                : "GroupBy vectorized: false\n" +
                                 "  values: [count(*)]\n" +
                                 "    " + factoryType + "\n" +
                                 (i == 0 ? "      condition: T2.created=T1.created\n" : "") +
@@ -4985,8 +5023,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "        DataFrame\n" +
                             "            Row forward scan\n" +
                             "            Frame forward scan on: a\n" +
-                            "        Sort light\n" +
+                            "        Async Sort light workers: 1\n" +
                             "          keys: [ts, i]\n" +
+                            "          filter: null\n" +
                             "            DataFrame\n" +
                             "                Row forward scan\n" +
                             "                Frame forward scan on: b\n"
@@ -5182,8 +5221,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "Update table: tab\n" +
                             "    VirtualRecord\n" +
                             "      functions: [true]\n" +
-                            "        Hash Join Light\n" +
+                            "        Async Hash Join Light workers: 1\n" +
                             "          condition: t2.b=t1.b\n" +
+                            "          filter: null\n" +
                             "            DataFrame\n" +
                             "                Row forward scan\n" +
                             "                Frame forward scan on: tab\n" +
@@ -5204,8 +5244,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                         "    VirtualRecord\n" +
                         "      functions: [true]\n" +
                         "        Filter filter: not (sleep(60000))\n" +
-                        "            Hash Join Light\n" +
+                        "            Async Hash Join Light workers: 1\n" +
                         "              condition: t2.b=t1.b\n" +
+                        "              filter: null\n" +
                         "                DataFrame\n" +
                         "                    Row forward scan\n" +
                         "                    Frame forward scan on: tab\n" +
@@ -5228,8 +5269,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "    VirtualRecord\n" +
                             "      functions: [true]\n" +
                             "        Filter filter: -1<now()::long\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: t2.b=t1.b\n" +
+                            "              filter: null\n" +
                             "                DataFrame\n" +
                             "                    Row forward scan\n" +
                             "                    Frame forward scan on: tab\n" +
@@ -5246,8 +5288,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "    VirtualRecord\n" +
                             "      functions: [true]\n" +
                             "        Filter filter: now()::long<0\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: t2.b=t1.b\n" +
+                            "              filter: null\n" +
                             "                DataFrame\n" +
                             "                    Row forward scan\n" +
                             "                    Frame forward scan on: tab\n" +
@@ -5455,13 +5498,15 @@ public class ExplainPlanTest extends AbstractCairoTest {
 
                 String expectedPlan = "SelectedRecord\n" +
                         "    " + joinType + " Join\n" +
-                        "        Sort light\n" +
+                        "        Async Sort light workers: 1\n" +
                         "          keys: [timestamp, galon_price desc]\n" +
+                        "          filter: null\n" +
                         "            DataFrame\n" +
                         "                Row forward scan\n" +
                         "                Frame forward scan on: gas_prices\n" +
-                        "        Sort light\n" +
+                        "        Async Sort light workers: 1\n" +
                         "          keys: [timestamp, galon_price desc]\n" +
+                        "          filter: null\n" +
                         "            DataFrame\n" +
                         "                Row forward scan\n" +
                         "                Frame forward scan on: gas_prices\n";
@@ -5488,13 +5533,15 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "  keys: [timestamp]\n" +
                     "    SelectedRecord\n" +
                     "        Splice Join\n" +
-                    "            Sort light\n" +
+                    "            Async Sort light workers: 1\n" +
                     "              keys: [timestamp, galon_price desc]\n" +
+                    "              filter: null\n" +
                     "                DataFrame\n" +
                     "                    Row forward scan\n" +
                     "                    Frame forward scan on: gas_prices\n" +
-                    "            Sort light\n" +
+                    "            Async Sort light workers: 1\n" +
                     "              keys: [timestamp, galon_price desc]\n" +
+                    "              filter: null\n" +
                     "                DataFrame\n" +
                     "                    Row forward scan\n" +
                     "                    Frame forward scan on: gas_prices\n";
@@ -5562,8 +5609,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table tab (i int, ts timestamp) timestamp(ts)",
                 "select * from (select * from tab order by ts desc, i asc limit 10) order by ts desc",
-                "Sort light lo: 10\n" +
+                "Async Sort light lo: 10 workers: 1\n" +
                         "  keys: [ts desc, i]\n" +
+                        "  filter: null\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
                         "        Frame forward scan on: tab\n"
@@ -5585,8 +5633,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "Count\n" +
                             "    Filter filter: T1.event<T2.event\n" +
                             "        Cross Join\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: T3.created=T2.created\n" +
+                            "              filter: null\n" +
                             "                DataFrame\n" +
                             "                    Row forward scan\n" +
                             "                    Frame forward scan on: test\n" +
@@ -5735,8 +5784,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "    GroupBy vectorized: false\n" +
                             "      values: [sum(x),sum(x1),count(x),count(x1)]\n" +
                             "        SelectedRecord\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: tabb.id=taba.id\n" +
+                            "              filter: null\n" +
                             "                DataFrame\n" +
                             "                    Row forward scan\n" +
                             "                    Frame forward scan on: taba\n" +
@@ -5755,8 +5805,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "    GroupBy vectorized: false\n" +
                             "      values: [sum(x),sum(x1),count(x1),count(x)]\n" +
                             "        SelectedRecord\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: tabb.id=taba.id\n" +
+                            "              filter: null\n" +
                             "                DataFrame\n" +
                             "                    Row forward scan\n" +
                             "                    Frame forward scan on: taba\n" +
@@ -6011,8 +6062,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "    GroupBy vectorized: false\n" +
                             "      values: [sum(x),sum(x1)]\n" +
                             "        SelectedRecord\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: tabb.id=taba.id\n" +
+                            "              filter: null\n" +
                             "                DataFrame\n" +
                             "                    Row forward scan\n" +
                             "                    Frame forward scan on: taba\n" +
@@ -6031,8 +6083,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "    GroupBy vectorized: false\n" +
                             "      values: [sum(x),sum(x1)]\n" +
                             "        SelectedRecord\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: tabb.id=taba.id\n" +
+                            "              filter: null\n" +
                             "                DataFrame\n" +
                             "                    Row forward scan\n" +
                             "                    Frame forward scan on: taba\n" +
@@ -6173,8 +6226,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "    GroupBy vectorized: false\n" +
                             "      values: [sum(x),sum(x1),count(x),count(x1)]\n" +
                             "        SelectedRecord\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: tabb.id=taba.id\n" +
+                            "              filter: null\n" +
                             "                DataFrame\n" +
                             "                    Row forward scan\n" +
                             "                    Frame forward scan on: taba\n" +
@@ -6193,8 +6247,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "    GroupBy vectorized: false\n" +
                             "      values: [sum(x),sum(x1),count(x),count(x1)]\n" +
                             "        SelectedRecord\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: tabb.id=taba.id\n" +
+                            "              filter: null\n" +
                             "                DataFrame\n" +
                             "                    Row forward scan\n" +
                             "                    Frame forward scan on: taba\n" +
@@ -6253,8 +6308,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "    GroupBy vectorized: false\n" +
                             "      values: [sum(resolutIONWidth),count(resolutIONWidth),sum(ResolutionWidth1),count(*)]\n" +
                             "        SelectedRecord\n" +
-                            "            Hash Join Light\n" +
+                            "            Async Hash Join Light workers: 1\n" +
                             "              condition: h2.id=h1.id\n" +
+                            "              filter: null\n" +
                             "                DataFrame\n" +
                             "                    Row forward scan\n" +
                             "                    Frame forward scan on: hits1\n" +
@@ -6400,7 +6456,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
             assertPlanNoLeakCheck(
                     "select first(i) from a sample by 1h align to calendar",
                     "SelectedRecord\n" +
-                            "    Sort light\n" +
+                            "    Radix sort light\n" +
                             "      keys: [ts]\n" +
                             "        Async Group By workers: 1\n" +
                             "          keys: [ts]\n" +
@@ -6455,12 +6511,19 @@ public class ExplainPlanTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     "select first(i) from a sample by 1h fill(null) align to calendar",
-                    "SampleBy\n" +
-                            "  fill: null\n" +
-                            "  values: [first(i)]\n" +
-                            "    DataFrame\n" +
-                            "        Row forward scan\n" +
-                            "        Frame forward scan on: a\n"
+                    "SelectedRecord\n" +
+                            "    Fill\n" +
+                            "      stride: '1h'\n" +
+                            "      values: null\n" +
+                            "        Radix sort light\n" +
+                            "          keys: [ts]\n" +
+                            "            Async Group By workers: 1\n" +
+                            "              keys: [ts]\n" +
+                            "              values: [first(i)]\n" +
+                            "              filter: null\n" +
+                            "                DataFrame\n" +
+                            "                    Row forward scan\n" +
+                            "                    Frame forward scan on: a\n"
             );
         });
     }
@@ -6482,13 +6545,19 @@ public class ExplainPlanTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     "select s, first(i) from a sample by 1h fill(prev) align to calendar",
-                    "SampleBy\n" +
-                            "  fill: prev\n" +
-                            "  keys: [s]\n" +
-                            "  values: [first(i)]\n" +
-                            "    DataFrame\n" +
-                            "        Row forward scan\n" +
-                            "        Frame forward scan on: a\n"
+                    "SelectedRecord\n" +
+                            "    Fill\n" +
+                            "      stride: '1h'\n" +
+                            "      values: prev\n" +
+                            "        Radix sort light\n" +
+                            "          keys: [ts]\n" +
+                            "            Async Group By workers: 1\n" +
+                            "              keys: [s,ts]\n" +
+                            "              values: [first(i)]\n" +
+                            "              filter: null\n" +
+                            "                DataFrame\n" +
+                            "                    Row forward scan\n" +
+                            "                    Frame forward scan on: a\n"
             );
         });
     }
@@ -6508,11 +6577,19 @@ public class ExplainPlanTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     "select first(i) from a sample by 1h fill(prev) align to calendar",
-                    "SampleByFillPrev\n" +
-                            "  values: [first(i)]\n" +
-                            "    DataFrame\n" +
-                            "        Row forward scan\n" +
-                            "        Frame forward scan on: a\n"
+                    "SelectedRecord\n" +
+                            "    Fill\n" +
+                            "      stride: '1h'\n" +
+                            "      values: prev\n" +
+                            "        Radix sort light\n" +
+                            "          keys: [ts]\n" +
+                            "            Async Group By workers: 1\n" +
+                            "              keys: [ts]\n" +
+                            "              values: [first(i)]\n" +
+                            "              filter: null\n" +
+                            "                DataFrame\n" +
+                            "                    Row forward scan\n" +
+                            "                    Frame forward scan on: a\n"
             );
         });
     }
@@ -6534,13 +6611,19 @@ public class ExplainPlanTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     "select s, first(i) from a sample by 1h fill(1) align to calendar",
-                    "SampleBy\n" +
-                            "  fill: value\n" +
-                            "  keys: [s]\n" +
-                            "  values: [first(i)]\n" +
-                            "    DataFrame\n" +
-                            "        Row forward scan\n" +
-                            "        Frame forward scan on: a\n"
+                    "SelectedRecord\n" +
+                            "    Fill\n" +
+                            "      stride: '1h'\n" +
+                            "      values: 1\n" +
+                            "        Radix sort light\n" +
+                            "          keys: [ts]\n" +
+                            "            Async Group By workers: 1\n" +
+                            "              keys: [s,ts]\n" +
+                            "              values: [first(i)]\n" +
+                            "              filter: null\n" +
+                            "                DataFrame\n" +
+                            "                    Row forward scan\n" +
+                            "                    Frame forward scan on: a\n"
             );
         });
     }
@@ -6561,12 +6644,19 @@ public class ExplainPlanTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     "select first(i) from a sample by 1h fill(1) align to calendar",
-                    "SampleBy\n" +
-                            "  fill: value\n" +
-                            "  values: [first(i)]\n" +
-                            "    DataFrame\n" +
-                            "        Row forward scan\n" +
-                            "        Frame forward scan on: a\n"
+                    "SelectedRecord\n" +
+                            "    Fill\n" +
+                            "      stride: '1h'\n" +
+                            "      values: 1\n" +
+                            "        Radix sort light\n" +
+                            "          keys: [ts]\n" +
+                            "            Async Group By workers: 1\n" +
+                            "              keys: [ts]\n" +
+                            "              values: [first(i)]\n" +
+                            "              filter: null\n" +
+                            "                DataFrame\n" +
+                            "                    Row forward scan\n" +
+                            "                    Frame forward scan on: a\n"
             );
         });
     }
@@ -6598,7 +6688,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "and   ts > 0::timestamp and ts < 100::timestamp " +
                             "sample by 1h align to calendar",
                     "SelectedRecord\n" +
-                            "    Sort light\n" +
+                            "    Radix sort light\n" +
                             "      keys: [ts]\n" +
                             "        GroupBy vectorized: false\n" +
                             "          keys: [sym,ts]\n" +
@@ -6629,7 +6719,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
             assertPlanNoLeakCheck(
                     "select l, i, first(i) from a sample by 1h align to calendar",
                     "SelectedRecord\n" +
-                            "    Sort light\n" +
+                            "    Radix sort light\n" +
                             "      keys: [ts]\n" +
                             "        Async Group By workers: 1\n" +
                             "          keys: [l,i,ts]\n" +
@@ -6659,7 +6749,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
             assertPlanNoLeakCheck(
                     "select l, i, first(i) from a sample by 1h align to calendar",
                     "SelectedRecord\n" +
-                            "    Sort light\n" +
+                            "    Radix sort light\n" +
                             "      keys: [ts]\n" +
                             "        Async Group By workers: 1\n" +
                             "          keys: [l,i,ts]\n" +
@@ -6689,13 +6779,19 @@ public class ExplainPlanTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     "select l, first(i) from a sample by 1h fill(null) align to calendar",
-                    "SampleBy\n" +
-                            "  fill: null\n" +
-                            "  keys: [l]\n" +
-                            "  values: [first(i)]\n" +
-                            "    DataFrame\n" +
-                            "        Row forward scan\n" +
-                            "        Frame forward scan on: a\n"
+                    "SelectedRecord\n" +
+                            "    Fill\n" +
+                            "      stride: '1h'\n" +
+                            "      values: null\n" +
+                            "        Radix sort light\n" +
+                            "          keys: [ts]\n" +
+                            "            Async Group By workers: 1\n" +
+                            "              keys: [l,ts]\n" +
+                            "              values: [first(i)]\n" +
+                            "              filter: null\n" +
+                            "                DataFrame\n" +
+                            "                    Row forward scan\n" +
+                            "                    Frame forward scan on: a\n"
             );
         });
     }
@@ -6745,13 +6841,19 @@ public class ExplainPlanTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     "select l, first(i), last(i) from a sample by 1d fill(1,2) align to calendar",
-                    "SampleBy\n" +
-                            "  fill: value\n" +
-                            "  keys: [l]\n" +
-                            "  values: [first(i),last(i)]\n" +
-                            "    DataFrame\n" +
-                            "        Row forward scan\n" +
-                            "        Frame forward scan on: a\n"
+                    "SelectedRecord\n" +
+                            "    Fill\n" +
+                            "      stride: '1d'\n" +
+                            "      values: 1,2\n" +
+                            "        Radix sort light\n" +
+                            "          keys: [ts]\n" +
+                            "            Async Group By workers: 1\n" +
+                            "              keys: [l,ts]\n" +
+                            "              values: [first(i),last(i)]\n" +
+                            "              filter: null\n" +
+                            "                DataFrame\n" +
+                            "                    Row forward scan\n" +
+                            "                    Frame forward scan on: a\n"
             );
         });
     }
@@ -6773,13 +6875,19 @@ public class ExplainPlanTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     "select l, first(i), last(i) from a sample by 1d fill(prev,prev) align to calendar",
-                    "SampleBy\n" +
-                            "  fill: value\n" +
-                            "  keys: [l]\n" +
-                            "  values: [first(i),last(i)]\n" +
-                            "    DataFrame\n" +
-                            "        Row forward scan\n" +
-                            "        Frame forward scan on: a\n"
+                    "SelectedRecord\n" +
+                            "    Fill\n" +
+                            "      stride: '1d'\n" +
+                            "      values: prev,prev\n" +
+                            "        Radix sort light\n" +
+                            "          keys: [ts]\n" +
+                            "            Async Group By workers: 1\n" +
+                            "              keys: [l,ts]\n" +
+                            "              values: [first(i),last(i)]\n" +
+                            "              filter: null\n" +
+                            "                DataFrame\n" +
+                            "                    Row forward scan\n" +
+                            "                    Frame forward scan on: a\n"
             );
         });
     }
@@ -6856,7 +6964,8 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "select count(*) from (select * from a asof join a b) ",
                 "Count\n" +
                         "    SelectedRecord\n" +
-                        "        AsOf Join Fast Scan\n" +
+                        "        Async AsOf Join workers: 1\n" +
+                        "          filter: null\n" +
                         "            DataFrame\n" +
                         "                Row forward scan\n" +
                         "                Frame forward scan on: a\n" +
@@ -7148,7 +7257,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table a ( i int, ts timestamp) ;",
                 "select * from a order by ts desc",
-                "Sort light\n" +
+                "Radix sort light\n" +
                         "  keys: [ts desc]\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
@@ -7205,8 +7314,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table tab ( l long, ts timestamp);",
                 "select distinct(l) from tab",
-                "Distinct\n" +
-                        "  keys: l\n" +
+                "Async Group By workers: 1\n" +
+                        "  keys: [l]\n" +
+                        "  filter: null\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
                         "        Frame forward scan on: tab\n"
@@ -7218,7 +7328,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table tab ( s symbol, ts timestamp);",
                 "select distinct(s) from tab",
-                "DistinctSymbol\n" +
+                "GroupBy vectorized: true workers: 1\n" +
+                        "  keys: [s]\n" +
+                        "  values: [count(*)]\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
                         "        Frame forward scan on: tab\n"
@@ -7230,7 +7342,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table tab ( s symbol index, ts timestamp);",
                 "select distinct(s) from tab",
-                "DistinctSymbol\n" +
+                "GroupBy vectorized: true workers: 1\n" +
+                        "  keys: [s]\n" +
+                        "  values: [count(*)]\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
                         "        Frame forward scan on: tab\n"
@@ -7242,8 +7356,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table tab ( l long, ts timestamp);",
                 "select distinct ts, l  from tab",
-                "Distinct\n" +
-                        "  keys: ts,l\n" +
+                "Async Group By workers: 1\n" +
+                        "  keys: [ts,l]\n" +
+                        "  filter: null\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
                         "        Frame forward scan on: tab\n"
@@ -7892,14 +8007,13 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "where (s1 = 'S1' or s1 = 'S2') " +
                             "and ts > 0::timestamp and ts < 9::timestamp  " +
                             "order by s1,ts desc",
-                    "Sort light\n" +
+                    "Async JIT Sort light workers: 1\n" +
                             "  keys: [s1, ts desc]\n" +
-                            "    Async JIT Filter workers: 1\n" +
-                            "      filter: (s1='S1' or s1='S2')\n" +
-                            "        DataFrame\n" +
-                            "            Row forward scan\n" +
-                            "            Interval forward scan on: a\n" +
-                            "              intervals: [(\"1970-01-01T00:00:00.000001Z\",\"1970-01-01T00:00:00.000008Z\")]\n"
+                            "  filter: (s1='S1' or s1='S2')\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Interval forward scan on: a\n" +
+                            "          intervals: [(\"1970-01-01T00:00:00.000001Z\",\"1970-01-01T00:00:00.000008Z\")]\n"
             );
         });
     }
@@ -7984,7 +8098,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     "select * from a limit -5",
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [ts]\n" +
                             "    Limit lo: 5\n" +
                             "        DataFrame\n" +
@@ -8002,7 +8116,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     "select * from a limit -10+2",
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [ts]\n" +
                             "    Limit lo: 8\n" +
                             "        DataFrame\n" +
@@ -8017,7 +8131,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table a ( i int, ts timestamp) timestamp(ts);",
                 "select * from a order by 2 desc limit -10",
-                "Sort light\n" +
+                "Radix sort light\n" +
                         "  keys: [ts desc]\n" +
                         "    Limit lo: 10\n" +
                         "        DataFrame\n" +
@@ -8045,7 +8159,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     "select * from (select * from a order by ts asc limit 5) order by ts desc",
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [ts desc]\n" +
                             "    Limit lo: 5\n" +
                             "        DataFrame\n" +
@@ -8063,7 +8177,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     "select * from (select * from a order by ts desc limit 5) order by ts asc",
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [ts]\n" +
                             "    Limit lo: 5\n" +
                             "        DataFrame\n" +
@@ -8102,7 +8216,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table a ( i int, ts timestamp) timestamp(ts) ;",
                 "select * from a order by ts desc limit -10",
-                "Sort light\n" +
+                "Radix sort light\n" +
                         "  keys: [ts desc]\n" +
                         "    Limit lo: 10\n" +
                         "        DataFrame\n" +
@@ -8116,7 +8230,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table a ( i int, ts timestamp) timestamp(ts)",
                 "select * from a order by ts  limit -5",
-                "Sort light\n" +
+                "Radix sort light\n" +
                         "  keys: [ts]\n" +
                         "    Limit lo: 5\n" +
                         "        DataFrame\n" +
@@ -8166,13 +8280,12 @@ public class ExplainPlanTest extends AbstractCairoTest {
             assertPlanNoLeakCheck(
                     "select distinct(i) from a limit -5",
                     "Limit lo: -5\n" +
-                            "    DistinctKey\n" +
-                            "        GroupBy vectorized: true workers: 1\n" +
-                            "          keys: [i]\n" +
-                            "          values: [count(*)]\n" +
-                            "            DataFrame\n" +
-                            "                Row forward scan\n" +
-                            "                Frame forward scan on: a\n"
+                            "    GroupBy vectorized: true workers: 1\n" +
+                            "      keys: [i]\n" +
+                            "      values: [count(*)]\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: a\n"
             );
         });
     }
@@ -8182,7 +8295,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table a ( i int, ts timestamp) timestamp(ts) ;",
                 "select * from a order by i asc",
-                "Sort light\n" +
+                "Radix sort light\n" +
                         "  keys: [i]\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
@@ -8195,7 +8308,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table a ( i int, ts timestamp) timestamp(ts) ;",
                 "select * from a order by i desc",
-                "Sort light\n" +
+                "Radix sort light\n" +
                         "  keys: [i desc]\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
@@ -8208,8 +8321,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table a ( i int, ts timestamp) timestamp(ts) ;",
                 "select * from a order by i limit 10, 100",
-                "Sort light lo: 10 hi: 100\n" +
+                "Async Sort light lo: 10 hi: 100 workers: 1\n" +
                         "  keys: [i]\n" +
+                        "  filter: null\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
                         "        Frame forward scan on: a\n"
@@ -8243,7 +8357,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table tab ( l long, ts timestamp) timestamp(ts);",
                 "select * from tab where ts in '2020-01-01T03:00:00;1h;24h;3' order by l desc ",
-                "Sort light\n" +
+                "Radix sort light\n" +
                         "  keys: [l desc]\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
@@ -8257,8 +8371,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table tab ( l long, ts timestamp) timestamp(ts);",
                 "select * from tab where ts in '2020-01-01T03:00:00;1h;24h;3' order by l desc, ts desc ",
-                "Sort light\n" +
+                "Async Sort light workers: 1\n" +
                         "  keys: [l desc, ts desc]\n" +
+                        "  filter: null\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
                         "        Interval forward scan on: tab\n" +
@@ -8389,13 +8504,12 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table xx ( x long, str string) ",
                 "select * from xx where str = 'A' order by str,x limit 10",
-                "Sort light lo: 10\n" +
+                "Async Sort light lo: 10 workers: 1\n" +
                         "  keys: [str, x]\n" +
-                        "    Async Filter workers: 1\n" +
-                        "      filter: str='A'\n" +
-                        "        DataFrame\n" +
-                        "            Row forward scan\n" +
-                        "            Frame forward scan on: xx\n"
+                        "  filter: str='A'\n" +
+                        "    DataFrame\n" +
+                        "        Row forward scan\n" +
+                        "        Frame forward scan on: xx\n"
         );
     }
 
@@ -8880,7 +8994,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table a ( i int, ts timestamp) timestamp(ts) ;",
                 "select * from a limit -10",
-                "Sort light\n" +
+                "Radix sort light\n" +
                         "  keys: [ts]\n" +
                         "    Limit lo: 10\n" +
                         "        DataFrame\n" +
@@ -9158,7 +9272,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table a ( i int, ts timestamp) timestamp(ts) ;",
                 "select * from a order by ts desc limit -10",
-                "Sort light\n" +
+                "Radix sort light\n" +
                         "  keys: [ts desc]\n" +
                         "    Limit lo: 10\n" +
                         "        DataFrame\n" +
@@ -9173,7 +9287,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "create table a ( i int, ts timestamp) timestamp(ts) ;",
                 "select i from a order by ts desc limit -10",
                 "SelectedRecord\n" +
-                        "    Sort light\n" +
+                        "    Radix sort light\n" +
                         "      keys: [ts desc]\n" +
                         "        Limit lo: 10\n" +
                         "            DataFrame\n" +
@@ -9187,7 +9301,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table a ( i int, ts timestamp) timestamp(ts) ;",
                 "select * from a order by ts limit -10",
-                "Sort light\n" +
+                "Radix sort light\n" +
                         "  keys: [ts]\n" +
                         "    Limit lo: 10\n" +
                         "        DataFrame\n" +
@@ -9202,7 +9316,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "create table a ( i int, ts timestamp) timestamp(ts) ;",
                 "select i from a order by ts limit -10",
                 "SelectedRecord\n" +
-                        "    Sort light\n" +
+                        "    Radix sort light\n" +
                         "      keys: [ts]\n" +
                         "        Limit lo: 10\n" +
                         "            DataFrame\n" +
@@ -9338,8 +9452,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     "select * from (select * from a order by ts desc, l desc limit 10) order by ts desc",
-                    "Sort light lo: 10\n" +
+                    "Async Sort light lo: 10 workers: 1\n" +
                             "  keys: [ts desc, l desc]\n" +
+                            "  filter: null\n" +
                             "    DataFrame\n" +
                             "        Row forward scan\n" +
                             "        Frame forward scan on: a\n"
@@ -9381,8 +9496,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "SelectedRecord\n" +
                             "    Lt Join Fast Scan\n" +
                             "        Limit lo: 10\n" +
-                            "            Sort light\n" +
+                            "            Async Sort light workers: 1\n" +
                             "              keys: [ts, l]\n" +
+                            "              filter: null\n" +
                             "                DataFrame\n" +
                             "                    Row forward scan\n" +
                             "                    Frame forward scan on: a\n" +
@@ -9402,11 +9518,12 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "select * from " +
                             "(select * from (select * from a order by ts desc, l desc) limit 10) " +
                             "order by ts asc",
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [ts]\n" +
                             "    Limit lo: 10\n" +
-                            "        Sort light\n" +
+                            "        Async Sort light workers: 1\n" +
                             "          keys: [ts desc, l desc]\n" +
+                            "          filter: null\n" +
                             "            DataFrame\n" +
                             "                Row forward scan\n" +
                             "                Frame forward scan on: a\n"
@@ -9485,7 +9602,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     "select * from (select * from a order by ts asc limit 10) order by ts desc",
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [ts desc]\n" +
                             "    Limit lo: 10\n" +
                             "        DataFrame\n" +
@@ -9517,7 +9634,7 @@ public class ExplainPlanTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     "select * from (select * from a order by ts desc limit 10) order by ts asc",
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [ts]\n" +
                             "    Limit lo: 10\n" +
                             "        DataFrame\n" +
@@ -9536,8 +9653,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "select * from (select * from a order by ts, l limit 10) order by ts, l",
                     "Sort light\n" +
                             "  keys: [ts, l]\n" +
-                            "    Sort light lo: 10\n" +
+                            "    Async Sort light lo: 10 workers: 1\n" +
                             "      keys: [ts, l]\n" +
+                            "      filter: null\n" +
                             "        DataFrame\n" +
                             "            Row forward scan\n" +
                             "            Frame forward scan on: a\n"
@@ -9555,8 +9673,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                     "Sort light\n" +
                             "  keys: [ts, l]\n" +
                             "    Limit lo: 10 hi: -10\n" +
-                            "        Sort light\n" +
+                            "        Async Sort light workers: 1\n" +
                             "          keys: [ts, l]\n" +
+                            "          filter: null\n" +
                             "            DataFrame\n" +
                             "                Row forward scan\n" +
                             "                Frame forward scan on: a\n"
@@ -9665,8 +9784,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                             "        DataFrame\n" +
                             "            Row forward scan\n" +
                             "            Frame forward scan on: a\n" +
-                            "        Sort light\n" +
+                            "        Async Sort light workers: 1\n" +
                             "          keys: [ts, i]\n" +
+                            "          filter: null\n" +
                             "            DataFrame\n" +
                             "                Row forward scan\n" +
                             "                Frame forward scan on: b\n"
@@ -9792,8 +9912,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "select str, ts, l, 10, row_number() over ( partition by l order by ts) from t",
                 "CachedWindow\n" +
                         "  orderedFunctions: [[ts] => [row_number() over (partition by [l])]]\n" +
-                        "    VirtualRecord\n" +
+                        "    Async Projection workers: 1\n" +
                         "      functions: [str,ts,l,10]\n" +
+                        "      filter: null\n" +
                         "        DataFrame\n" +
                         "            Row forward scan\n" +
                         "            Frame forward scan on: t\n"
@@ -9807,8 +9928,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                 "select str, ts, l as l1, ts::long+l as tsum, row_number() over ( partition by l, ts order by str) from t",
                 "CachedWindow\n" +
                         "  orderedFunctions: [[str] => [row_number() over (partition by [l1,ts])]]\n" +
-                        "    VirtualRecord\n" +
+                        "    Async Projection workers: 1\n" +
                         "      functions: [str,ts,l1,ts::long+l1]\n" +
+                        "      filter: null\n" +
                         "        SelectedRecord\n" +
                         "            DataFrame\n" +
                         "                Row forward scan\n" +
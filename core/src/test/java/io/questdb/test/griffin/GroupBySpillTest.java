@@ -0,0 +1,148 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8s;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.std.TestFilesFacadeImpl;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class GroupBySpillTest extends AbstractCairoTest {
+    private static final int ROW_COUNT = 10_000;
+
+    @Override
+    @Before
+    public void setUp() {
+        // Small threshold makes the hash table spill many times.
+        setProperty(PropertyKey.CAIRO_SQL_GROUPBY_SPILL_THRESHOLD, 100);
+        super.setUp();
+    }
+
+    @Test
+    public void testSpillCompositeKey() throws Exception {
+        testSpill(
+                "select key, along, count(), round(sum(adouble), 6) from tab order by key, along",
+                "select asymbol, avarchar, min(ts), max(anint) from tab order by asymbol, avarchar"
+        );
+    }
+
+    @Test
+    public void testSpillFiltered() throws Exception {
+        testSpill(
+                "select along, count(), first(anint), last(astring) from tab where adouble > 0.5 order by along",
+                "select astring, count() from tab where anint > 100 order by astring"
+        );
+    }
+
+    @Test
+    public void testSpillNullKeys() throws Exception {
+        testSpill(
+                "select astring, count(), sum(along) from tab order by astring",
+                "select avarchar, count(), min(avarchar) from tab order by avarchar",
+                "select auuid, count() from tab where anint < 100 order by auuid"
+        );
+    }
+
+    @Test
+    public void testSpillPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_GROUPBY_SPILL_ENABLED, true);
+            ddl("create table tab (key symbol, price double, ts timestamp) timestamp(ts) partition by day");
+            assertPlanNoLeakCheck(
+                    "select key, first(price) from tab",
+                    "GroupBy vectorized: false\n" +
+                            "  keys: [key]\n" +
+                            "  values: [first(price)]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: tab\n"
+            );
+        });
+    }
+
+    @Test
+    public void testSpillSingleKey() throws Exception {
+        testSpill(
+                "select along, count(), round(avg(adouble), 6), first(ts), last(anint) from tab order by along",
+                "select anint, count_distinct(along), max(adouble) from tab order by anint",
+                "select auuid, count(), min(astring) from tab order by auuid"
+        );
+    }
+
+    @Test
+    public void testSpillToTop() throws Exception {
+        // cross join iterates the group by cursor on the right side multiple times
+        testSpill(
+                "select t1.key, t2.along, t2.c from (select distinct key from tab) t1 " +
+                        "cross join (select along, count_distinct(anint) c from tab group by along) t2 order by 1, 2"
+        );
+    }
+
+    private void testSpill(String... queries) throws Exception {
+        final AtomicInteger spillFileCount = new AtomicInteger();
+        ff = new TestFilesFacadeImpl() {
+            @Override
+            public int openRW(LPSZ name, long opts) {
+                if (Utf8s.containsAscii(name, "groupby_")) {
+                    spillFileCount.incrementAndGet();
+                }
+                return super.openRW(name, opts);
+            }
+        };
+        assertMemoryLeak(ff, () -> {
+            ddl(
+                    "create table tab as (select" +
+                            " 'k' || ((50 + x) % 5) key," +
+                            " rnd_int(0,1000,3) anint," +
+                            " rnd_symbol(40,4,4,2) asymbol," +
+                            " rnd_long(0,3000,3) along," +
+                            " rnd_double(3) adouble," +
+                            " rnd_str(2,3,2) astring," +
+                            " rnd_varchar(2,3,2) avarchar," +
+                            " rnd_uuid4() auuid," +
+                            " timestamp_sequence(400000000000, 500000000) ts" +
+                            " from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by day"
+            );
+
+            final StringSink expected = new StringSink();
+            for (String query : queries) {
+                node1.setProperty(PropertyKey.CAIRO_SQL_GROUPBY_SPILL_ENABLED, false);
+                printSql(query, expected);
+                node1.setProperty(PropertyKey.CAIRO_SQL_GROUPBY_SPILL_ENABLED, true);
+                spillFileCount.set(0);
+                assertSql(expected, query);
+                Assert.assertTrue("no spill files for: " + query, spillFileCount.get() > 0);
+            }
+        });
+    }
+}
@@ -466,7 +466,7 @@ public class GroupByTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     query,
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [date_report]\n" +
                             "    Async Group By workers: 1\n" +
                             "      keys: [date_report]\n" +
@@ -499,7 +499,7 @@ public class GroupByTest extends AbstractCairoTest {
                     "order by ordr.date_report";
             assertPlanNoLeakCheck(
                     query,
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [date_report]\n" +
                             "    Async Group By workers: 1\n" +
                             "      keys: [date_report]\n" +
@@ -533,7 +533,7 @@ public class GroupByTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     query,
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [date_report]\n" +
                             "    Async Group By workers: 1\n" +
                             "      keys: [date_report]\n" +
@@ -567,7 +567,7 @@ public class GroupByTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     query,
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [date_report1]\n" +
                             "    VirtualRecord\n" +
                             "      functions: [date_report,date_report,count]\n" +
@@ -605,7 +605,7 @@ public class GroupByTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     query,
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [date_report]\n" +
                             "    VirtualRecord\n" +
                             "      functions: [date_report,dateadd,dateadd('d',1,date_report),concat(['1',date_report,'3']),count]\n" +
@@ -643,7 +643,7 @@ public class GroupByTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     query,
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [date_report]\n" +
                             "    VirtualRecord\n" +
                             "      functions: [date_report,to_str(date_report),dateadd('d',1,date_report),dateadd('d',-1,date_report),count]\n" +
@@ -688,7 +688,7 @@ public class GroupByTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     query,
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [date_report]\n" +
                             "    VirtualRecord\n" +
                             "      functions: [date_report,to_str(date_report),dateadd('d',1,date_report),min,count,minminusday]\n" +
@@ -696,8 +696,9 @@ public class GroupByTest extends AbstractCairoTest {
                             "          keys: [date_report]\n" +
                             "          values: [min(x),count(*),min(dateadd('d',-1,date_report1))]\n" +
                             "            SelectedRecord\n" +
-                            "                Hash Join Light\n" +
+                            "                Async Hash Join Light workers: 1\n" +
                             "                  condition: details.x=ordr.x\n" +
+                            "                  filter: null\n" +
                             "                    DataFrame\n" +
                             "                        Row forward scan\n" +
                             "                        Frame forward scan on: ord\n" +
@@ -1227,8 +1228,9 @@ public class GroupByTest extends AbstractCairoTest {
                             "              keys: [x,x1]\n" +
                             "              values: [max(y)]\n" +
                             "                SelectedRecord\n" +
-                            "                    Hash Join Light\n" +
+                            "                    Async Hash Join Light workers: 1\n" +
                             "                      condition: t2.y=t1.y\n" +
+                            "                      filter: null\n" +
                             "                        DataFrame\n" +
                             "                            Row forward scan\n" +
                             "                            Frame forward scan on: t1\n" +
@@ -1271,8 +1273,9 @@ public class GroupByTest extends AbstractCairoTest {
                             "        VirtualRecord\n" +
                             "          functions: [x,y,case([1<x,30*x,20*x1]),x1]\n" +
                             "            SelectedRecord\n" +
-                            "                Hash Join Light\n" +
+                            "                Async Hash Join Light workers: 1\n" +
                             "                  condition: t2.y=t1.y\n" +
+                            "                  filter: null\n" +
                             "                    DataFrame\n" +
                             "                        Row forward scan\n" +
                             "                        Frame forward scan on: t1\n" +
@@ -1308,7 +1311,7 @@ public class GroupByTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     query,
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [x]\n" +
                             "    VirtualRecord\n" +
                             "      functions: [x,max,dateadd::long+x1]\n" +
@@ -1318,8 +1321,9 @@ public class GroupByTest extends AbstractCairoTest {
                             "            VirtualRecord\n" +
                             "              functions: [x,y,x1,dateadd('d',1677628800000000,x)]\n" +
                             "                SelectedRecord\n" +
-                            "                    Hash Join Light\n" +
+                            "                    Async Hash Join Light workers: 1\n" +
                             "                      condition: t2.y=t1.y\n" +
+                            "                      filter: null\n" +
                             "                        DataFrame\n" +
                             "                            Row forward scan\n" +
                             "                            Frame forward scan on: t1\n" +
@@ -1365,8 +1369,9 @@ public class GroupByTest extends AbstractCairoTest {
                             "            VirtualRecord\n" +
                             "              functions: [x,y,dateadd('d',1677628800000000,x),x1]\n" +
                             "                SelectedRecord\n" +
-                            "                    Hash Join Light\n" +
+                            "                    Async Hash Join Light workers: 1\n" +
                             "                      condition: t2.y=t1.y\n" +
+                            "                      filter: null\n" +
                             "                        DataFrame\n" +
                             "                            Row forward scan\n" +
                             "                            Frame forward scan on: t1\n" +
@@ -1481,7 +1486,7 @@ public class GroupByTest extends AbstractCairoTest {
             String query = "select s2, sum(l) from t where s2 in ('c', 'd') latest on ts partition by s1 order by s2";
             assertPlanNoLeakCheck(
                     query,
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [s2]\n" +
                             "    GroupBy vectorized: false\n" +
                             "      keys: [s2]\n" +
@@ -1617,7 +1622,7 @@ public class GroupByTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     query1,
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [i]\n" +
                             "    VirtualRecord\n" +
                             "      functions: [ts,i,avg,sum,first_value]\n" +
@@ -1667,7 +1672,7 @@ public class GroupByTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     query2,
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [i]\n" +
                             "    GroupBy vectorized: false\n" +
                             "      keys: [i]\n" +
@@ -1934,7 +1939,7 @@ public class GroupByTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     query,
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [y_utc_15m]\n" +
                             "    GroupBy vectorized: false\n" +
                             "      keys: [y_utc_15m]\n" +
@@ -2164,8 +2169,9 @@ public class GroupByTest extends AbstractCairoTest {
                             "            VirtualRecord\n" +
                             "              functions: [x,y,dateadd('d',1677628800000000,x),x1]\n" +
                             "                SelectedRecord\n" +
-                            "                    Hash Join Light\n" +
+                            "                    Async Hash Join Light workers: 1\n" +
                             "                      condition: t2.y=t1.y\n" +
+                            "                      filter: null\n" +
                             "                        DataFrame\n" +
                             "                            Row forward scan\n" +
                             "                            Frame forward scan on: t1\n" +
@@ -2320,7 +2326,7 @@ public class GroupByTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     query,
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [ref0]\n" +
                             "    Distinct\n" +
                             "      keys: ref0\n" +
@@ -2362,7 +2368,7 @@ public class GroupByTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     query,
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [ref0]\n" +
                             "    Distinct\n" +
                             "      keys: ref0\n" +
@@ -2404,7 +2410,7 @@ public class GroupByTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     query,
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [created]\n" +
                             "    Distinct\n" +
                             "      keys: created\n" +
@@ -2448,14 +2454,13 @@ public class GroupByTest extends AbstractCairoTest {
                             "  keys: [hour, sym]\n" +
                             "    VirtualRecord\n" +
                             "      functions: [sym,hour,avgBid]\n" +
-                            "        GroupBy vectorized: false\n" +
+                            "        Async Group By workers: 1\n" +
                             "          keys: [sym,hour]\n" +
                             "          values: [avg(bid)]\n" +
-                            "            VirtualRecord\n" +
-                            "              functions: [sym,hour(ts),bid]\n" +
-                            "                DataFrame\n" +
-                            "                    Row forward scan\n" +
-                            "                    Frame forward scan on: x\n"
+                            "          filter: null\n" +
+                            "            DataFrame\n" +
+                            "                Row forward scan\n" +
+                            "                Frame forward scan on: x\n"
             );
             assertQueryNoLeakCheck(
                     "sym\thour\tavgBid\n" +
@@ -2505,7 +2510,7 @@ public class GroupByTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     query,
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [category]\n" +
                             "    VirtualRecord\n" +
                             "      functions: [sum,sum1,category]\n" +
@@ -2112,7 +2112,7 @@ public class IPv4Test extends AbstractCairoTest {
                         ")",
                 null,
                 true,
-                false
+                true
         );
     }
 
@@ -2267,8 +2267,9 @@ public class IPv4Test extends AbstractCairoTest {
     public void testIPv4Explain() throws Exception {
         assertQuery(
                 "QUERY PLAN\n" +
-                        "Sort light\n" +
+                        "Async Sort light workers: 1\n" +
                         "  keys: [ip desc]\n" +
+                        "  filter: null\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
                         "        Frame forward scan on: test\n",
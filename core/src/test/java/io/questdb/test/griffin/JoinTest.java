@@ -1842,7 +1842,7 @@ public class JoinTest extends AbstractCairoTest {
             ddl("create table y as (select x, cast(2*((x-1)/2) as int)+2 m, abs(rnd_int() % 100) b from long_sequence(10))");
 
             // master records should be filtered out because slave records missing
-            assertQueryNoLeakCheck(expected, "select x.c, x.a, b from x join y on y.m = x.c and 1 < 10", null, false, true);
+            assertQueryNoLeakCheck(expected, "select x.c, x.a, b from x join y on y.m = x.c and 1 < 10", null, false, false);
         });
     }
 
@@ -2050,7 +2050,7 @@ public class JoinTest extends AbstractCairoTest {
             );
 
             // filter is applied to final join result
-            assertQueryNoLeakCheck(expected, "select * from x join y on (kk)", null, false, true);
+            assertQueryNoLeakCheck(expected, "select * from x join y on (kk)", null, false, false);
         });
     }
 
@@ -2257,7 +2257,7 @@ public class JoinTest extends AbstractCairoTest {
             );
 
             // filter is applied to final join result
-            assertQueryNoLeakCheck(expected, "select * from x join y on (kk)", null, false, true);
+            assertQueryNoLeakCheck(expected, "select * from x join y on (kk)", null, false, false);
         });
     }
 
@@ -2303,7 +2303,7 @@ public class JoinTest extends AbstractCairoTest {
             );
 
             // filter is applied to final join result
-            assertQueryNoLeakCheck(expected, "select * from x join y on (kk) order by x.a, x.b, y.a", null, true, true);
+            assertQueryNoLeakCheck(expected, "select * from x join y on (kk) order by x.a, x.b, y.a", null, true, false);
         });
     }
 
@@ -2325,7 +2325,7 @@ public class JoinTest extends AbstractCairoTest {
             ddl("create table x as (select cast(x as int) c, abs(rnd_int() % 650) a from long_sequence(10))");
             ddl("create table y as (select x, cast(2*((x-1)/2) as int)+2 m, abs(rnd_int() % 100) b from long_sequence(10))");
 
-            assertQueryAndCache(expected, "select x.c, x.a, b from x join y on y.m = x.c", null, true);
+            assertQueryAndCache(expected, "select x.c, x.a, b from x join y on y.m = x.c", null, false);
 
             insert("insert into x select cast(x+10 as int) c, abs(rnd_int() % 650) a from long_sequence(4)");
             insert("insert into y select x, cast(2*((x-1+10)/2) as int)+2 m, abs(rnd_int() % 100) b from long_sequence(6)");
@@ -2338,7 +2338,7 @@ public class JoinTest extends AbstractCairoTest {
                     "select x.c, x.a, b from x join y on y.m = x.c",
                     null,
                     false,
-                    true
+                    false
             );
         });
     }
@@ -2712,7 +2712,7 @@ public class JoinTest extends AbstractCairoTest {
                             ")"
             );
 
-            assertQueryAndCache(expected, query, null, true);
+            assertQueryAndCache(expected, query, null, false);
         });
     }
 
@@ -2737,7 +2737,7 @@ public class JoinTest extends AbstractCairoTest {
                             ")"
             );
 
-            assertQueryAndCache(expected, query, null, true);
+            assertQueryAndCache(expected, query, null, false);
         });
     }
 
@@ -5390,7 +5390,8 @@ public class JoinTest extends AbstractCairoTest {
         assertQueryNoLeakCheck(expected, query.replace("#JOIN_CLAUSE#", "symbol"), null, false, expectSize);
         assertQueryNoLeakCheck(expected, query.replace("#JOIN_CLAUSE#", "a.symbol = b.symbol"), null, false, expectSize);
         assertQueryNoLeakCheck(expected, query.replace("#JOIN_CLAUSE#", "a.symbol = b.symbol and a.price = b.price"), null, false, expectSize);
-        assertQueryNoLeakCheck(expected, query.replace("#JOIN_CLAUSE#", "b.symbol = a.symbol and a.timestamp = b.timestamp"), null, false, expectSize);
+        // the timestamp key leaves the slave unfiltered, so inner join runs in parallel and its size is unknown
+        assertQueryNoLeakCheck(expected, query.replace("#JOIN_CLAUSE#", "b.symbol = a.symbol and a.timestamp = b.timestamp"), null, false, false);
     }
 
     private void testJoinConstantFalse0(boolean fullFatJoin) throws Exception {
@@ -5781,7 +5782,7 @@ public class JoinTest extends AbstractCairoTest {
                     expected,
                     "select x.c, x.a, b from x join y on y.m = x.c",
                     null,
-                    true
+                    false
             );
 
             insert("insert into x select cast(x+10 as int) c, abs(rnd_int() % 650) a from long_sequence(4)");
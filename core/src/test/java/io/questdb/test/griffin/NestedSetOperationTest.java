@@ -45,7 +45,7 @@ public class NestedSetOperationTest extends AbstractCairoTest {
                         "select distinct c, d b from test)",    //0,1 ; 0,2;
                 "create table test as (" +
                         "select 0 as a, x as b, 0 as c, x as d from long_sequence(2)" +
-                        ")", null, false);
+                        ")", null, false, true);
     }
 
     @Test
@@ -0,0 +1,239 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.SqlJitMode;
+import io.questdb.jit.JitUtil;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+@RunWith(Parameterized.class)
+public class ParallelAsOfJoinTest extends AbstractCairoTest {
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 100;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+    private final boolean enableJitCompiler;
+
+    public ParallelAsOfJoinTest(boolean enableJitCompiler) {
+        this.enableJitCompiler = enableJitCompiler;
+    }
+
+    @Parameterized.Parameters(name = "JIT={0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                {true},
+                {false},
+        });
+    }
+
+    @Override
+    @Before
+    public void setUp() {
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, PAGE_FRAME_MAX_ROWS);
+        // We intentionally use small values for shard count and reduce
+        // queue capacity to exhibit various edge cases.
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_SHARD_COUNT, 2);
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_REDUCE_QUEUE_CAPACITY, PAGE_FRAME_COUNT);
+        super.setUp();
+    }
+
+    @Test
+    public void testParallelAsOfJoin() throws Exception {
+        testParallelAsOfJoin(
+                "select f.ts, f.along, q.id, q.ts from fills f asof join quotes q",
+                "select f.ts, q.* from fills f asof join quotes q",
+                "select count(), sum(q.id), min(q.ts), max(q.ts) from fills f asof join quotes q"
+        );
+    }
+
+    @Test
+    public void testParallelAsOfJoinEmptySlave() throws Exception {
+        testParallelAsOfJoin(
+                "select f.ts, f.along, e.id from fills f asof join empty_quotes e",
+                "select f.ts, e.id from fills f asof join empty_quotes e where f.adouble > 0.5"
+        );
+    }
+
+    @Test
+    public void testParallelAsOfJoinNonThreadSafeFilter() throws Exception {
+        testParallelAsOfJoin(
+                "select f.ts, f.along, q.id from fills f asof join quotes q where f.astring like '%B%'"
+        );
+    }
+
+    @Test
+    public void testParallelAsOfJoinPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        sqlExecutionContext.setJitMode(enableJitCompiler ? SqlJitMode.JIT_MODE_ENABLED : SqlJitMode.JIT_MODE_DISABLED);
+                        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ASOFJOIN_ENABLED, true);
+
+                        ddl(compiler, "create table fills (key symbol, price double, ts timestamp) timestamp(ts) partition by day", sqlExecutionContext);
+                        ddl(compiler, "create table quotes (key symbol, bid double, ts timestamp) timestamp(ts) partition by day", sqlExecutionContext);
+
+                        TestUtils.assertSql(
+                                engine,
+                                sqlExecutionContext,
+                                "explain select f.ts, q.bid from fills f asof join quotes q",
+                                sink,
+                                "QUERY PLAN\n" +
+                                        "SelectedRecord\n" +
+                                        "    Async AsOf Join workers: 4\n" +
+                                        "      filter: null\n" +
+                                        "        DataFrame\n" +
+                                        "            Row forward scan\n" +
+                                        "            Frame forward scan on: fills\n" +
+                                        "        DataFrame\n" +
+                                        "            Row forward scan\n" +
+                                        "            Frame forward scan on: quotes\n"
+                        );
+
+                        TestUtils.assertSql(
+                                engine,
+                                sqlExecutionContext,
+                                "explain select f.ts, q.bid from fills f asof join quotes q where f.price > 42",
+                                sink,
+                                "QUERY PLAN\n" +
+                                        "SelectedRecord\n" +
+                                        (JitUtil.isJitSupported() && enableJitCompiler ? "    Async JIT AsOf Join workers: 4\n" : "    Async AsOf Join workers: 4\n") +
+                                        "      filter: 42<f.price\n" +
+                                        "        DataFrame\n" +
+                                        "            Row forward scan\n" +
+                                        "            Frame forward scan on: fills\n" +
+                                        "        DataFrame\n" +
+                                        "            Row forward scan\n" +
+                                        "            Frame forward scan on: quotes\n"
+                        );
+
+                        // keyed joins are single-threaded
+                        TestUtils.assertSql(
+                                engine,
+                                sqlExecutionContext,
+                                "explain select f.ts, q.bid from fills f asof join quotes q on key",
+                                sink,
+                                "QUERY PLAN\n" +
+                                        "SelectedRecord\n" +
+                                        "    AsOf Join Keyed Fast Scan\n" +
+                                        "      condition: q.key=f.key\n" +
+                                        "        DataFrame\n" +
+                                        "            Row forward scan\n" +
+                                        "            Frame forward scan on: fills\n" +
+                                        "        DataFrame\n" +
+                                        "            Row forward scan\n" +
+                                        "            Frame forward scan on: quotes\n"
+                        );
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
+    @Test
+    public void testParallelAsOfJoinSelfJoin() throws Exception {
+        testParallelAsOfJoin(
+                "select f1.ts, f1.along, f2.ts, f2.along from fills f1 asof join fills f2"
+        );
+    }
+
+    @Test
+    public void testParallelAsOfJoinSwappedSides() throws Exception {
+        testParallelAsOfJoin(
+                "select q.ts, q.id, f.ts, f.along from quotes q asof join fills f",
+                "select q.ts, q.id, f.along from quotes q asof join fills f where q.id % 3 = 0"
+        );
+    }
+
+    @Test
+    public void testParallelAsOfJoinThreadSafeFilter() throws Exception {
+        testParallelAsOfJoin(
+                "select f.ts, f.along, q.id from fills f asof join quotes q where f.adouble > 0.5",
+                "select f.ts, f.key, q.id from fills f asof join quotes q where f.anint > 0 and f.along < 500"
+        );
+    }
+
+    private void testParallelAsOfJoin(String... queries) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        sqlExecutionContext.setJitMode(enableJitCompiler ? SqlJitMode.JIT_MODE_ENABLED : SqlJitMode.JIT_MODE_DISABLED);
+
+                        ddl(
+                                compiler,
+                                "create table fills as (select" +
+                                        " 'k' || ((50 + x) % 5) key," +
+                                        " rnd_int(0,100,3) anint," +
+                                        " rnd_long(0,1000,3) along," +
+                                        " rnd_double(3) adouble," +
+                                        " rnd_str(5,16,2) astring," +
+                                        " timestamp_sequence(400000000000, rnd_long(0,3,0) * 100000000) ts" +
+                                        " from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by day",
+                                sqlExecutionContext
+                        );
+                        ddl(
+                                compiler,
+                                "create table quotes as (select" +
+                                        " 'k' || (x % 7) key," +
+                                        " x id," +
+                                        // quotes start later than fills, so first fills have no matching quotes
+                                        " timestamp_sequence(400500000000, rnd_long(0,2,0) * 200000000) ts" +
+                                        " from long_sequence(" + ROW_COUNT / 2 + ")) timestamp(ts) partition by day",
+                                sqlExecutionContext
+                        );
+                        ddl(compiler, "create table empty_quotes (key symbol, id long, ts timestamp) timestamp(ts) partition by day", sqlExecutionContext);
+
+                        // Master rows are iterated in order and each of them has at most one slave row,
+                        // so the output is deterministic.
+                        final StringSink expected = new StringSink();
+                        for (String query : queries) {
+                            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ASOFJOIN_ENABLED, false);
+                            TestUtils.printSql(engine, sqlExecutionContext, query, expected);
+                            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ASOFJOIN_ENABLED, true);
+                            TestUtils.assertSql(engine, sqlExecutionContext, query, sink, expected);
+                        }
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelDistinctTest extends AbstractCairoTest {
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 100;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+
+    @Override
+    @Before
+    public void setUp() {
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, PAGE_FRAME_MAX_ROWS);
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_REDUCE_QUEUE_CAPACITY, PAGE_FRAME_COUNT);
+        super.setUp();
+    }
+
+    @Test
+    public void testMultipleKeys() throws Exception {
+        testParallelDistinct(
+                "select * from (select distinct asymbol, anint from tab) order by 1, 2",
+                "select * from (select distinct astring, along, asymbol from tab where adouble > 0.5) order by 1, 2, 3",
+                "select * from (select distinct asymbol, astring from tab where ts in '1970-01-02') order by 1, 2",
+                "select distinct asymbol, anint from tab order by asymbol, anint limit 5"
+        );
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table tab (s symbol, i int, ts timestamp) timestamp(ts) partition by day");
+            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_DISTINCT_ENABLED, true);
+
+            assertPlanNoLeakCheck(
+                    "select distinct s, i from tab where ts in '2024-01-10'",
+                    "Async Group By workers: 1\n" +
+                            "  keys: [s,i]\n" +
+                            "  filter: null\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Interval forward scan on: tab\n" +
+                            "          intervals: [(\"2024-01-10T00:00:00.000000Z\",\"2024-01-10T23:59:59.999999Z\")]\n"
+            );
+
+            // distinct time series preserve timestamp order, so they're left intact
+            assertPlanNoLeakCheck(
+                    "select distinct ts, s from tab",
+                    "DistinctTimeSeries\n" +
+                            "  keys: ts,s\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: tab\n"
+            );
+        });
+    }
+
+    @Test
+    public void testSingleKey() throws Exception {
+        testParallelDistinct(
+                "select * from (select distinct asymbol from tab) order by 1",
+                "select * from (select distinct along from tab where anint > 500) order by 1",
+                "select * from (select distinct astring from tab) order by 1",
+                "select count() from (select distinct anint from tab)",
+                "select distinct anint from tab order by anint desc limit -3"
+        );
+    }
+
+    private void testParallelDistinct(String... queries) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        ddl(
+                                compiler,
+                                "create table tab as (select" +
+                                        " rnd_int(0,1000,3) anint," +
+                                        " rnd_symbol(4,4,4,2) asymbol," +
+                                        " rnd_long(0,1000,3) along," +
+                                        " rnd_double(3) adouble," +
+                                        " rnd_str(1,2,2) astring," +
+                                        " timestamp_sequence(0, 60000000L) ts" +
+                                        " from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by day",
+                                sqlExecutionContext
+                        );
+
+                        final StringSink expected = new StringSink();
+                        for (String query : queries) {
+                            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_DISTINCT_ENABLED, false);
+                            TestUtils.printSql(engine, sqlExecutionContext, query, expected);
+                            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_DISTINCT_ENABLED, true);
+                            TestUtils.assertSql(engine, sqlExecutionContext, query, sink, expected);
+                        }
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+}
@@ -0,0 +1,151 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.SqlJitMode;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+@RunWith(Parameterized.class)
+public class ParallelGroupByAdaptiveTest extends AbstractCairoTest {
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 1000;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+    private final boolean enableJitCompiler;
+    private final int shardingThreshold;
+
+    public ParallelGroupByAdaptiveTest(boolean enableJitCompiler, int shardingThreshold) {
+        this.enableJitCompiler = enableJitCompiler;
+        this.shardingThreshold = shardingThreshold;
+    }
+
+    @Parameterized.Parameters(name = "JIT={0},threshold={1}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                {true, 5_000},
+                {true, 1_000_000},
+                {false, 5_000},
+                {false, 1_000_000},
+        });
+    }
+
+    @Override
+    @Before
+    public void setUp() {
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, PAGE_FRAME_MAX_ROWS);
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_SHARD_COUNT, 2);
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_REDUCE_QUEUE_CAPACITY, PAGE_FRAME_COUNT);
+        // The threshold is above the key count of the sampled page frames, but below
+        // the projected one, so that high cardinality queries start sharding early.
+        setProperty(PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_SHARDING_THRESHOLD, shardingThreshold);
+        setProperty(PropertyKey.CAIRO_SQL_SMALL_MAP_KEY_CAPACITY, 16);
+        super.setUp();
+    }
+
+    @Test
+    public void testAdaptiveGroupByFiltered() throws Exception {
+        testAdaptiveGroupBy(
+                "select id, count(*), sum(along) from tab where id > 20000 order by id",
+                "select astring, count(*) from tab where adouble > 0.5 order by astring",
+                "select key, count(*), max(anint) from tab where anint > 990 order by key"
+        );
+    }
+
+    @Test
+    public void testAdaptiveGroupByHighCardinality() throws Exception {
+        testAdaptiveGroupBy(
+                "select id, count(*), sum(anint), max(adouble) from tab order by id",
+                "select id % 10000 k, count(*), min(along) from tab order by k",
+                "select astring, asymbol, count(*) from tab order by astring, asymbol"
+        );
+    }
+
+    @Test
+    public void testAdaptiveGroupByLowCardinality() throws Exception {
+        testAdaptiveGroupBy(
+                "select key, count(*), sum(anint), min(ts) from tab order by key",
+                "select asymbol, key, count(*), max(along) from tab order by asymbol, key",
+                "select along, count(*) from tab order by along"
+        );
+    }
+
+    @Test
+    public void testAdaptiveGroupByRepeatedExecution() throws Exception {
+        // The second run pre-sizes the maps based on the stats collected by the first one.
+        testAdaptiveGroupBy(
+                "select id, count(*) from tab order by id",
+                "select id, count(*) from tab order by id",
+                "select key, count(*) from tab order by key",
+                "select key, count(*) from tab order by key"
+        );
+    }
+
+    private void testAdaptiveGroupBy(String... queries) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        sqlExecutionContext.setJitMode(enableJitCompiler ? SqlJitMode.JIT_MODE_ENABLED : SqlJitMode.JIT_MODE_DISABLED);
+
+                        ddl(
+                                compiler,
+                                "create table tab as (select" +
+                                        " x id," +
+                                        " 'k' || ((50 + x) % 5) key," +
+                                        " rnd_int(0,1000,3) anint," +
+                                        " rnd_symbol(4,4,4,2) asymbol," +
+                                        " rnd_long(0,1000,3) along," +
+                                        " rnd_double(3) adouble," +
+                                        " rnd_str(5,16,2) astring," +
+                                        " timestamp_sequence(400000000000, 500000000) ts" +
+                                        " from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by day",
+                                sqlExecutionContext
+                        );
+
+                        final StringSink expected = new StringSink();
+                        for (String query : queries) {
+                            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_ADAPTIVE_ENABLED, false);
+                            TestUtils.printSql(engine, sqlExecutionContext, query, expected);
+                            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_ADAPTIVE_ENABLED, true);
+                            TestUtils.assertSql(engine, sqlExecutionContext, query, sink, expected);
+                        }
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+}
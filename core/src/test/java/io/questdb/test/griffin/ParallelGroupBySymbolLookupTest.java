@@ -0,0 +1,157 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.SqlJitMode;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+@RunWith(Parameterized.class)
+public class ParallelGroupBySymbolLookupTest extends AbstractCairoTest {
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 1000;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+    private final boolean enableJitCompiler;
+    private final int shardingThreshold;
+
+    public ParallelGroupBySymbolLookupTest(boolean enableJitCompiler, int shardingThreshold) {
+        this.enableJitCompiler = enableJitCompiler;
+        this.shardingThreshold = shardingThreshold;
+    }
+
+    @Parameterized.Parameters(name = "JIT={0},threshold={1}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                {true, 10},
+                {true, 1_000_000},
+                {false, 10},
+                {false, 1_000_000},
+        });
+    }
+
+    @Override
+    @Before
+    public void setUp() {
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, PAGE_FRAME_MAX_ROWS);
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_SHARD_COUNT, 2);
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_REDUCE_QUEUE_CAPACITY, PAGE_FRAME_COUNT);
+        // Symbol columns with more symbols than the threshold fall back to hash tables.
+        setProperty(PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_SHARDING_THRESHOLD, shardingThreshold);
+        setProperty(PropertyKey.CAIRO_SQL_SMALL_MAP_KEY_CAPACITY, 16);
+        super.setUp();
+    }
+
+    @Test
+    public void testSymbolLookupGroupByColumnTops() throws Exception {
+        testSymbolLookupGroupBy(
+                "alter table tab add column asymbol2 symbol",
+                "insert into tab select 'k' || (x % 7), x::int, 'CPSW', x, x / 3.0, null, timestamp_sequence(500000000000, 500000000), 'w' || x, rnd_symbol('a','b','c',null) from long_sequence(2000)",
+                "select asymbol2, count(*), sum(along), first(anint), last(ts) from tab order by asymbol2"
+        );
+    }
+
+    @Test
+    public void testSymbolLookupGroupByFiltered() throws Exception {
+        testSymbolLookupGroupBy(
+                "select asymbol, count(*), sum(along), min(anint), max(adouble) from tab where adouble > 0.3 order by asymbol",
+                "select asymbol, count(*), first(astring), last(ts) from tab where asymbol = 'CPSW' order by asymbol",
+                "select wide, count(*), sum(anint) from tab where anint > 990 order by wide"
+        );
+    }
+
+    @Test
+    public void testSymbolLookupGroupByNewSymbols() throws Exception {
+        // New symbols are added between the query runs, so the look-up tables have to be resized.
+        testSymbolLookupGroupBy(
+                "select asymbol, count(*), sum(anint), last(along) from tab order by asymbol",
+                "insert into tab select 'k' || (x % 7), x::int, 'sym' || (x % 20), x, x / 3.0, null, timestamp_sequence(500000000000, 500000000), 'w' || (x % 3) from long_sequence(2000)",
+                "select asymbol, count(*), sum(anint), last(along) from tab order by asymbol"
+        );
+    }
+
+    @Test
+    public void testSymbolLookupGroupByNullSymbols() throws Exception {
+        testSymbolLookupGroupBy(
+                "select asymbol, count(*), count(adouble), sum(along), min(ts), max(ts) from tab order by asymbol",
+                "select wide, count(*), first(anint), last(anint) from tab order by wide",
+                "select count(*), sum(c) from (select asymbol, count(*) c from tab)"
+        );
+    }
+
+    private void testSymbolLookupGroupBy(String... queries) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        sqlExecutionContext.setJitMode(enableJitCompiler ? SqlJitMode.JIT_MODE_ENABLED : SqlJitMode.JIT_MODE_DISABLED);
+
+                        ddl(
+                                compiler,
+                                "create table tab as (select" +
+                                        " 'k' || ((50 + x) % 5) key," +
+                                        " rnd_int(0,1000,3) anint," +
+                                        " rnd_symbol(4,4,4,2) asymbol," +
+                                        " rnd_long(0,1000,3) along," +
+                                        " rnd_double(3) adouble," +
+                                        " rnd_str(5,16,2) astring," +
+                                        " timestamp_sequence(400000000000, 500000000) ts," +
+                                        " rnd_symbol(500,4,8,5) wide" +
+                                        " from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by day",
+                                sqlExecutionContext
+                        );
+
+                        final StringSink expected = new StringSink();
+                        for (String query : queries) {
+                            if (query.startsWith("alter")) {
+                                ddl(compiler, query, sqlExecutionContext);
+                                continue;
+                            }
+                            if (query.startsWith("insert")) {
+                                insert(compiler, query, sqlExecutionContext);
+                                continue;
+                            }
+                            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_SYMBOL_LOOKUP_ENABLED, false);
+                            TestUtils.printSql(engine, sqlExecutionContext, query, expected);
+                            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_SYMBOL_LOOKUP_ENABLED, true);
+                            TestUtils.assertSql(engine, sqlExecutionContext, query, sink, expected);
+                        }
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+}
@@ -0,0 +1,210 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.SqlJitMode;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+@RunWith(Parameterized.class)
+public class ParallelGroupByVectorizedTest extends AbstractCairoTest {
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 1000;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+    private final boolean enableJitCompiler;
+    private final int shardingThreshold;
+
+    public ParallelGroupByVectorizedTest(boolean enableJitCompiler, int shardingThreshold) {
+        this.enableJitCompiler = enableJitCompiler;
+        this.shardingThreshold = shardingThreshold;
+    }
+
+    @Parameterized.Parameters(name = "JIT={0},threshold={1}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                {true, 1},
+                {true, 1_000_000},
+                {false, 1},
+                {false, 1_000_000},
+        });
+    }
+
+    @Override
+    @Before
+    public void setUp() {
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, PAGE_FRAME_MAX_ROWS);
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_SHARD_COUNT, 2);
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_REDUCE_QUEUE_CAPACITY, PAGE_FRAME_COUNT);
+        // Small threshold makes the maps shard right after the first page frames.
+        setProperty(PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_SHARDING_THRESHOLD, shardingThreshold);
+        // Small initial capacity makes the maps grow in the middle of a batch.
+        setProperty(PropertyKey.CAIRO_SQL_SMALL_MAP_KEY_CAPACITY, 16);
+        super.setUp();
+    }
+
+    @Test
+    public void testVectorizedGroupByColumnTops() throws Exception {
+        testVectorizedGroupBy(
+                "alter table tab add column anint2 int",
+                "insert into tab select 'k' || (x % 7), x::int, null, x, x / 3.0, null, timestamp_sequence(500000000000, 500000000), x::int from long_sequence(2000)",
+                "select key, count(*), count(anint2), sum(anint2), min(anint2), max(anint2), sum(along) from tab order by key"
+        );
+    }
+
+    @Test
+    public void testVectorizedGroupByCompositeKey() throws Exception {
+        testVectorizedGroupBy(
+                "select asymbol, hour(ts) h, count(*), count(adouble), round(sum(adouble), 6), round(avg(adouble), 6), min(adouble), max(adouble) from tab order by asymbol, h",
+                "select key, asymbol, count(along), sum(along), min(along), max(along), sum(anint), min(anint), max(anint), min(ts), max(ts) from tab order by key, asymbol"
+        );
+    }
+
+    @Test
+    public void testVectorizedGroupByFiltered() throws Exception {
+        testVectorizedGroupBy(
+                "select asymbol, count(*), sum(along), min(anint), max(adouble) from tab where adouble > 0.3 order by asymbol",
+                "select along, count(*), sum(anint) from tab where anint > 990 order by along",
+                "select key, count(*), min(ts), max(ts) from tab where asymbol = 'CPSW' order by key"
+        );
+    }
+
+    @Test
+    public void testVectorizedGroupByLongKey() throws Exception {
+        testVectorizedGroupBy(
+                "select along, count(*), count(anint), round(sum(adouble), 6), min(anint), max(anint), min(ts) from tab order by along",
+                "select anint, along % 10 k, count(*), sum(along), max(along) from tab order by anint, k"
+        );
+    }
+
+    @Test
+    public void testVectorizedGroupByNonColumnArguments() throws Exception {
+        // Function arguments are not columns, so the query falls back to row-by-row aggregation.
+        testVectorizedGroupBy(
+                "select key, sum(along * 2), max(anint + 1), count(*) from tab order by key",
+                "select key, sum(anint), avg(anint), count(*) from tab order by key"
+        );
+    }
+
+    @Test
+    public void testVectorizedGroupByPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        ddl(compiler, "create table tab (asymbol symbol, along long, adouble double, ts timestamp) timestamp(ts) partition by day", sqlExecutionContext);
+
+                        // hour(ts) next to another key is not handled by Rosti, so it goes to the parallel group by
+                        TestUtils.assertSql(
+                                engine,
+                                sqlExecutionContext,
+                                "explain select asymbol, hour(ts) h, count(*), sum(adouble) from tab",
+                                sink,
+                                "QUERY PLAN\n" +
+                                        "Async Group By workers: 4\n" +
+                                        "  keys: [asymbol,h]\n" +
+                                        "  values: [count(*),sum(adouble)]\n" +
+                                        "  filter: null\n" +
+                                        "    DataFrame\n" +
+                                        "        Row forward scan\n" +
+                                        "        Frame forward scan on: tab\n"
+                        );
+
+                        TestUtils.assertSql(
+                                engine,
+                                sqlExecutionContext,
+                                "explain select along, count(*), max(adouble) from tab",
+                                sink,
+                                "QUERY PLAN\n" +
+                                        "Async Group By workers: 4\n" +
+                                        "  keys: [along]\n" +
+                                        "  values: [count(*),max(adouble)]\n" +
+                                        "  filter: null\n" +
+                                        "    DataFrame\n" +
+                                        "        Row forward scan\n" +
+                                        "        Frame forward scan on: tab\n"
+                        );
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
+    private void testVectorizedGroupBy(String... queries) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        sqlExecutionContext.setJitMode(enableJitCompiler ? SqlJitMode.JIT_MODE_ENABLED : SqlJitMode.JIT_MODE_DISABLED);
+
+                        ddl(
+                                compiler,
+                                "create table tab as (select" +
+                                        " 'k' || ((50 + x) % 5) key," +
+                                        " rnd_int(0,1000,3) anint," +
+                                        " rnd_symbol(4,4,4,2) asymbol," +
+                                        " rnd_long(0,1000,3) along," +
+                                        " rnd_double(3) adouble," +
+                                        " rnd_str(5,16,2) astring," +
+                                        " timestamp_sequence(400000000000, 500000000) ts" +
+                                        " from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by day",
+                                sqlExecutionContext
+                        );
+
+                        final StringSink expected = new StringSink();
+                        for (String query : queries) {
+                            if (query.startsWith("alter")) {
+                                ddl(compiler, query, sqlExecutionContext);
+                                continue;
+                            }
+                            if (query.startsWith("insert")) {
+                                insert(compiler, query, sqlExecutionContext);
+                                continue;
+                            }
+                            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_VECTORIZED_ENABLED, false);
+                            TestUtils.printSql(engine, sqlExecutionContext, query, expected);
+                            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_VECTORIZED_ENABLED, true);
+                            TestUtils.assertSql(engine, sqlExecutionContext, query, sink, expected);
+                        }
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+}
@@ -0,0 +1,239 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.SqlJitMode;
+import io.questdb.jit.JitUtil;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+@RunWith(Parameterized.class)
+public class ParallelHashJoinTest extends AbstractCairoTest {
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 100;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+    private final boolean enableJitCompiler;
+
+    public ParallelHashJoinTest(boolean enableJitCompiler) {
+        this.enableJitCompiler = enableJitCompiler;
+    }
+
+    @Parameterized.Parameters(name = "JIT={0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                {true},
+                {false},
+        });
+    }
+
+    @Override
+    @Before
+    public void setUp() {
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, PAGE_FRAME_MAX_ROWS);
+        // We intentionally use small values for shard count and reduce
+        // queue capacity to exhibit various edge cases.
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_SHARD_COUNT, 2);
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_REDUCE_QUEUE_CAPACITY, PAGE_FRAME_COUNT);
+        super.setUp();
+    }
+
+    @Test
+    public void testParallelHashJoinDescendingMaster() throws Exception {
+        testParallelHashJoin(
+                "select f.ts, f.anint, o.id from (fills order by ts desc) f join orders o on anint",
+                "select f.ts, f.anint, o.id from (fills order by ts desc) f join orders o on anint where f.adouble > 0.5"
+        );
+    }
+
+    @Test
+    public void testParallelHashJoinEmptyResult() throws Exception {
+        testParallelHashJoin(
+                "select * from (select f.ts, o.id from fills f join orders o on along where f.along < 0) order by ts, id",
+                "select * from (select f.ts, o.id from fills f join orders o on astring where f.astring = 'foobar') order by ts, id"
+        );
+    }
+
+    @Test
+    public void testParallelHashJoinMultipleKeys() throws Exception {
+        testParallelHashJoin(
+                "select * from (select f.ts, f.key, f.along, o.id from fills f join orders o on (key, along)) order by ts, id",
+                "select * from (select f.ts, f.asymbol, f.anint, o.id from fills f join orders o on (asymbol, anint)) order by ts, id"
+        );
+    }
+
+    @Test
+    public void testParallelHashJoinNonThreadSafeFilter() throws Exception {
+        testParallelHashJoin(
+                "select * from (select f.ts, f.along, o.id from fills f join orders o on along where f.astring like '%A%') order by ts, id"
+        );
+    }
+
+    @Test
+    public void testParallelHashJoinPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        sqlExecutionContext.setJitMode(enableJitCompiler ? SqlJitMode.JIT_MODE_ENABLED : SqlJitMode.JIT_MODE_DISABLED);
+                        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_HASHJOIN_ENABLED, true);
+
+                        ddl(compiler, "create table fills (key symbol, price double, ts timestamp) timestamp(ts) partition by day", sqlExecutionContext);
+                        ddl(compiler, "create table orders (key symbol, id long, ts timestamp) timestamp(ts) partition by day", sqlExecutionContext);
+
+                        TestUtils.assertSql(
+                                engine,
+                                sqlExecutionContext,
+                                "explain select f.ts, o.id from fills f join orders o on key",
+                                sink,
+                                "QUERY PLAN\n" +
+                                        "SelectedRecord\n" +
+                                        "    Async Hash Join Light workers: 4\n" +
+                                        "      condition: o.key=f.key\n" +
+                                        "      filter: null\n" +
+                                        "        DataFrame\n" +
+                                        "            Row forward scan\n" +
+                                        "            Frame forward scan on: fills\n" +
+                                        "        Hash\n" +
+                                        "            DataFrame\n" +
+                                        "                Row forward scan\n" +
+                                        "                Frame forward scan on: orders\n"
+                        );
+
+                        TestUtils.assertSql(
+                                engine,
+                                sqlExecutionContext,
+                                "explain select f.ts, o.id from fills f join orders o on key where f.price > 42",
+                                sink,
+                                "QUERY PLAN\n" +
+                                        "SelectedRecord\n" +
+                                        (JitUtil.isJitSupported() && enableJitCompiler ? "    Async JIT Hash Join Light workers: 4\n" : "    Async Hash Join Light workers: 4\n") +
+                                        "      condition: o.key=f.key\n" +
+                                        "      filter: 42<f.price\n" +
+                                        "        DataFrame\n" +
+                                        "            Row forward scan\n" +
+                                        "            Frame forward scan on: fills\n" +
+                                        "        Hash\n" +
+                                        "            DataFrame\n" +
+                                        "                Row forward scan\n" +
+                                        "                Frame forward scan on: orders\n"
+                        );
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
+    @Test
+    public void testParallelHashJoinSingleKey() throws Exception {
+        testParallelHashJoin(
+                "select * from (select f.ts, f.along, o.id from fills f join orders o on along) order by ts, id",
+                "select * from (select f.ts, f.key, o.id, o.asymbol from fills f join orders o on key) order by ts, id",
+                "select * from (select f.ts, f.asymbol, o.id from fills f join orders o on asymbol) order by ts, id",
+                "select * from (select f.ts, f.astring, o.id, o.astring from fills f join orders o on astring) order by ts, id"
+        );
+    }
+
+    @Test
+    public void testParallelHashJoinThreadSafeFilter() throws Exception {
+        testParallelHashJoin(
+                "select * from (select f.ts, f.along, o.id from fills f join orders o on along where f.adouble > 0.5) order by ts, id",
+                "select * from (select f.ts, f.key, o.id from fills f join orders o on key where f.anint > 0 and f.along < 500) order by ts, id"
+        );
+    }
+
+    @Test
+    public void testParallelHashJoinUniqueSlaveKeys() throws Exception {
+        // master rows are iterated in order, so the output is deterministic
+        // when there is at most one slave row per master row
+        testParallelHashJoin(
+                "select f.ts, f.anint, o.id, o.astring from fills f join orders o on anint",
+                "select count(), sum(o.id), sum(f.along) from fills f join orders o on key"
+        );
+    }
+
+    private void testParallelHashJoin(String... queries) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        sqlExecutionContext.setJitMode(enableJitCompiler ? SqlJitMode.JIT_MODE_ENABLED : SqlJitMode.JIT_MODE_DISABLED);
+
+                        ddl(
+                                compiler,
+                                "create table fills as (select" +
+                                        " 'k' || ((50 + x) % 5) key," +
+                                        " rnd_int(0,100,3) anint," +
+                                        " rnd_symbol(4,4,4,2) asymbol," +
+                                        " rnd_long(0,1000,3) along," +
+                                        " rnd_double(3) adouble," +
+                                        " rnd_str(5,16,2) astring," +
+                                        " timestamp_sequence(400000000000, 500000000) ts" +
+                                        " from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by day",
+                                sqlExecutionContext
+                        );
+                        ddl(
+                                compiler,
+                                "create table orders as (select" +
+                                        " 'k' || (x % 7) key," +
+                                        " cast(x as int) anint," +
+                                        " rnd_symbol(5,4,4,2) asymbol," +
+                                        " rnd_long(0,1000,3) along," +
+                                        " rnd_str(5,16,2) astring," +
+                                        " x id," +
+                                        " timestamp_sequence(400000000000, 2000000000) ts" +
+                                        " from long_sequence(" + ROW_COUNT / 10 + ")) timestamp(ts) partition by day",
+                                sqlExecutionContext
+                        );
+
+                        // Slave rows matching the same master row may come in any order,
+                        // so the queries sort the output by unique columns of both tables.
+                        final StringSink expected = new StringSink();
+                        for (String query : queries) {
+                            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_HASHJOIN_ENABLED, false);
+                            TestUtils.printSql(engine, sqlExecutionContext, query, expected);
+                            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_HASHJOIN_ENABLED, true);
+                            TestUtils.assertSql(engine, sqlExecutionContext, query, sink, expected);
+                        }
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+}
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelLatestByTest extends AbstractCairoTest {
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 100;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+
+    @Override
+    @Before
+    public void setUp() {
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, PAGE_FRAME_MAX_ROWS);
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_REDUCE_QUEUE_CAPACITY, PAGE_FRAME_COUNT);
+        super.setUp();
+    }
+
+    @Test
+    public void testMixedKeys() throws Exception {
+        testParallelLatestBy(
+                "select * from tab latest on ts partition by asymbol, anint",
+                "select asymbol, along, ts from tab where adouble > 0.5 latest on ts partition by along, asymbol",
+                "select * from tab where ts < '1970-01-02T12' latest on ts partition by astring, asymbol"
+        );
+    }
+
+    @Test
+    public void testNonSymbolKeys() throws Exception {
+        testParallelLatestBy(
+                "select * from tab latest on ts partition by anint",
+                "select * from tab latest on ts partition by astring",
+                "select * from tab where anint > 500 latest on ts partition by along",
+                "select * from tab where ts in '1970-01-02' latest on ts partition by along",
+                "select count() from (select * from tab latest on ts partition by astring)"
+        );
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table tab (asymbol symbol, bsymbol symbol, i int, ts timestamp) timestamp(ts) partition by day");
+            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_LATESTBY_ENABLED, true);
+
+            assertPlanNoLeakCheck(
+                    "select * from tab latest on ts partition by asymbol, bsymbol",
+                    "Async Latest By workers: 1\n" +
+                            "  filter: null\n" +
+                            "    DataFrame\n" +
+                            "        Row backward scan\n" +
+                            "        Frame backward scan on: tab\n"
+            );
+
+            assertPlanNoLeakCheck(
+                    "select * from tab where i < 10 latest on ts partition by i",
+                    "Async Latest By workers: 1\n" +
+                            "  filter: i<10\n" +
+                            "    DataFrame\n" +
+                            "        Row backward scan\n" +
+                            "        Frame backward scan on: tab\n"
+            );
+        });
+    }
+
+    @Test
+    public void testSymbolKeys() throws Exception {
+        testParallelLatestBy(
+                "select * from tab latest on ts partition by asymbol, bsymbol",
+                "select * from tab where adouble > 0.1 latest on ts partition by asymbol, bsymbol",
+                "select * from tab where asymbol in ('CPSW', 'HYRX') latest on ts partition by asymbol, bsymbol",
+                // few enough keys to be found in the newest page frame
+                "select * from tab where asymbol = 'CPSW' latest on ts partition by asymbol, bsymbol",
+                "select * from tab where ts < '1970-01-02T12' latest on ts partition by bsymbol, asymbol"
+        );
+    }
+
+    @Test
+    public void testSymbolKeysWithRareKey() throws Exception {
+        // the rare key is in the oldest partition, so that workers have to scan all page frames
+        testParallelLatestBy(
+                "insert into tab (asymbol, bsymbol, anint, ts) values ('RARE', 'RARE', 42, 0)",
+                "select * from tab latest on ts partition by asymbol, bsymbol",
+                "select * from tab where anint = 42 latest on ts partition by asymbol, bsymbol",
+                "select asymbol, bsymbol, ts from tab latest on ts partition by bsymbol, asymbol limit -3"
+        );
+    }
+
+    private void testParallelLatestBy(String... queries) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        ddl(
+                                compiler,
+                                "create table tab as (select" +
+                                        " rnd_int(0,1000,3) anint," +
+                                        " rnd_symbol(4,4,4,2) asymbol," +
+                                        " rnd_symbol(8,4,4,0) bsymbol," +
+                                        " rnd_long(0,1000,3) along," +
+                                        " rnd_double(3) adouble," +
+                                        " rnd_str(1,2,2) astring," +
+                                        " timestamp_sequence(0, 60000000L) ts" +
+                                        " from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by day",
+                                sqlExecutionContext
+                        );
+
+                        final StringSink expected = new StringSink();
+                        for (String query : queries) {
+                            if (query.startsWith("insert")) {
+                                insert(compiler, query, sqlExecutionContext);
+                                continue;
+                            }
+                            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_LATESTBY_ENABLED, false);
+                            TestUtils.printSql(engine, sqlExecutionContext, query, expected);
+                            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_LATESTBY_ENABLED, true);
+                            TestUtils.assertSql(engine, sqlExecutionContext, query, sink, expected);
+                        }
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+}
@@ -0,0 +1,231 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.SqlJitMode;
+import io.questdb.jit.JitUtil;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+@RunWith(Parameterized.class)
+public class ParallelOrderByTest extends AbstractCairoTest {
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 100;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+    private final boolean enableJitCompiler;
+
+    public ParallelOrderByTest(boolean enableJitCompiler) {
+        this.enableJitCompiler = enableJitCompiler;
+    }
+
+    @Parameterized.Parameters(name = "JIT={0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                {true},
+                {false},
+        });
+    }
+
+    @Override
+    @Before
+    public void setUp() {
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, PAGE_FRAME_MAX_ROWS);
+        // We intentionally use small values for shard count and reduce
+        // queue capacity to exhibit various edge cases.
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_SHARD_COUNT, 2);
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_REDUCE_QUEUE_CAPACITY, PAGE_FRAME_COUNT);
+        super.setUp();
+    }
+
+    @Test
+    public void testParallelOrderByDesc() throws Exception {
+        testParallelOrderBy(
+                "select * from tab order by along desc, ts desc",
+                "select * from tab order by adouble desc, ts"
+        );
+    }
+
+    @Test
+    public void testParallelOrderByEmptyResult() throws Exception {
+        testParallelOrderBy(
+                "select * from tab where along < 0 order by along",
+                "select * from tab where astring = 'foobar' order by astring"
+        );
+    }
+
+    @Test
+    public void testParallelOrderByMultipleKeys() throws Exception {
+        testParallelOrderBy(
+                "select * from tab order by key, along, ts",
+                "select * from tab order by asymbol desc, anint, ts",
+                "select key, along, ts from tab order by key desc, ts"
+        );
+    }
+
+    @Test
+    public void testParallelOrderByNonThreadSafeFilter() throws Exception {
+        testParallelOrderBy(
+                "select * from tab where astring like '%a%' order by along, ts",
+                "select * from tab where asymbol ~ 'A' order by key, adouble desc, ts"
+        );
+    }
+
+    @Test
+    public void testParallelOrderByPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        sqlExecutionContext.setJitMode(enableJitCompiler ? SqlJitMode.JIT_MODE_ENABLED : SqlJitMode.JIT_MODE_DISABLED);
+                        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ORDERBY_ENABLED, true);
+                        // single-key sorts would otherwise go to the radix sort
+                        node1.setProperty(PropertyKey.CAIRO_SQL_SORT_RADIX_ENABLED, false);
+
+                        ddl(compiler, "create table tab (key symbol, price double, ts timestamp) timestamp(ts) partition by day", sqlExecutionContext);
+
+                        TestUtils.assertSql(
+                                engine,
+                                sqlExecutionContext,
+                                "explain select * from tab order by key, price desc",
+                                sink,
+                                "QUERY PLAN\n" +
+                                        "Async Sort light workers: 4\n" +
+                                        "  keys: [key, price desc]\n" +
+                                        "  filter: null\n" +
+                                        "    DataFrame\n" +
+                                        "        Row forward scan\n" +
+                                        "        Frame forward scan on: tab\n"
+                        );
+
+                        TestUtils.assertSql(
+                                engine,
+                                sqlExecutionContext,
+                                "explain select * from tab where price > 42 order by key",
+                                sink,
+                                "QUERY PLAN\n" +
+                                        (JitUtil.isJitSupported() && enableJitCompiler ? "Async JIT Sort light workers: 4\n" : "Async Sort light workers: 4\n") +
+                                        "  keys: [key]\n" +
+                                        "  filter: 42<price\n" +
+                                        "    DataFrame\n" +
+                                        "        Row forward scan\n" +
+                                        "        Frame forward scan on: tab\n"
+                        );
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
+    @Test
+    public void testParallelOrderBySingleKey() throws Exception {
+        testParallelOrderBy(
+                "select * from tab order by along, ts",
+                "select * from tab order by adouble, ts",
+                "select * from tab order by ts desc",
+                "select * from tab order by astring, ts"
+        );
+    }
+
+    @Test
+    public void testParallelOrderByThreadSafeFilter() throws Exception {
+        testParallelOrderBy(
+                "select * from tab where adouble > 0.5 order by along, ts",
+                "select * from tab where anint > 0 and key = 'k1' order by asymbol, along desc, ts"
+        );
+    }
+
+    @Test
+    public void testParallelOrderByTies() throws Exception {
+        // rows with equal keys must come in the scan order, no matter which worker sorted which frame
+        testParallelOrderBy(
+                "select * from tab order by key",
+                "select key, along, ts from tab order by key desc",
+                "select * from tab where anint > 100 order by asymbol",
+                "select * from (tab order by ts desc) order by key"
+        );
+    }
+
+    @Test
+    public void testParallelOrderByToTop() throws Exception {
+        // cross join iterates the sorted cursor on the right side multiple times
+        testParallelOrderBy(
+                "select t1.key, t1.along, t2.anint, t2.ts from (select * from tab where along < 10 order by along, ts) t1 " +
+                        "cross join (select * from tab where anint < 10 order by anint, ts) t2"
+        );
+    }
+
+    private void testParallelOrderBy(String... queries) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        sqlExecutionContext.setJitMode(enableJitCompiler ? SqlJitMode.JIT_MODE_ENABLED : SqlJitMode.JIT_MODE_DISABLED);
+
+                        ddl(
+                                compiler,
+                                "create table tab as (select" +
+                                        " 'k' || ((50 + x) % 5) key," +
+                                        " rnd_int(0,1000,3) anint," +
+                                        " rnd_symbol(4,4,4,2) asymbol," +
+                                        " rnd_long(0,1000,3) along," +
+                                        " rnd_double(3) adouble," +
+                                        " rnd_str(5,16,2) astring," +
+                                        " timestamp_sequence(400000000000, 500000000) ts" +
+                                        " from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by day",
+                                sqlExecutionContext
+                        );
+
+                        // The result must match the single-threaded sort, including the order of ties,
+                        // on every run, so the frames are distributed between the workers differently.
+                        final StringSink expected = new StringSink();
+                        for (String query : queries) {
+                            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ORDERBY_ENABLED, false);
+                            TestUtils.printSql(engine, sqlExecutionContext, query, expected);
+                            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ORDERBY_ENABLED, true);
+                            for (int i = 0; i < 5; i++) {
+                                TestUtils.assertSql(engine, sqlExecutionContext, query, sink, expected);
+                            }
+                        }
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+}
@@ -0,0 +1,203 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.SqlJitMode;
+import io.questdb.jit.JitUtil;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+@RunWith(Parameterized.class)
+public class ParallelProjectionTest extends AbstractCairoTest {
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 100;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+    private final boolean enableJitCompiler;
+
+    public ParallelProjectionTest(boolean enableJitCompiler) {
+        this.enableJitCompiler = enableJitCompiler;
+    }
+
+    @Parameterized.Parameters(name = "JIT={0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                {true},
+                {false},
+        });
+    }
+
+    @Override
+    @Before
+    public void setUp() {
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, PAGE_FRAME_MAX_ROWS);
+        // We intentionally use small values for shard count and reduce
+        // queue capacity to exhibit various edge cases.
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_SHARD_COUNT, 2);
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_REDUCE_QUEUE_CAPACITY, PAGE_FRAME_COUNT);
+        super.setUp();
+    }
+
+    @Test
+    public void testParallelProjectionDescendingOrder() throws Exception {
+        testParallelProjection(
+                "select ts, anint * 2, adouble + along from tab order by ts desc",
+                "select ts, anint * 2, adouble + along from tab where along > 500 order by ts desc"
+        );
+    }
+
+    @Test
+    public void testParallelProjectionFixedSizeTypes() throws Exception {
+        testParallelProjection(
+                "select ts, anint + 1, along * 2, adouble / 3, cast(adouble as float) * 2, anint > 500, cast(anint as short), cast(anint as byte) from tab",
+                "select ts, ts + 1000, cast(ts as date), to_uuid(along, anint), cast(anint as ipv4) from tab where anint > 100",
+                "select asymbol, along - anint, ts from tab where asymbol = 'HYRX'"
+        );
+    }
+
+    @Test
+    public void testParallelProjectionNested() throws Exception {
+        testParallelProjection(
+                "select count(), sum(amount) from (select along * adouble amount from tab)",
+                "select * from (select asymbol, along * adouble amount, ts from tab where anint > 500) order by amount, ts",
+                "select * from (select asymbol, along * adouble amount, ts from tab) where amount > 100"
+        );
+    }
+
+    @Test
+    public void testParallelProjectionPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        sqlExecutionContext.setJitMode(enableJitCompiler ? SqlJitMode.JIT_MODE_ENABLED : SqlJitMode.JIT_MODE_DISABLED);
+                        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_PROJECTION_ENABLED, true);
+
+                        ddl(compiler, "create table tab (key symbol, price double, qty long, ts timestamp) timestamp(ts) partition by day", sqlExecutionContext);
+
+                        TestUtils.assertSql(
+                                engine,
+                                sqlExecutionContext,
+                                "explain select key, price * qty amount, ts from tab",
+                                sink,
+                                "QUERY PLAN\n" +
+                                        "Async Projection workers: 4\n" +
+                                        "  functions: [key,price*qty,ts]\n" +
+                                        "  filter: null\n" +
+                                        "    DataFrame\n" +
+                                        "        Row forward scan\n" +
+                                        "        Frame forward scan on: tab\n"
+                        );
+
+                        TestUtils.assertSql(
+                                engine,
+                                sqlExecutionContext,
+                                "explain select key, price * qty amount from tab where price > 42",
+                                sink,
+                                "QUERY PLAN\n" +
+                                        (JitUtil.isJitSupported() && enableJitCompiler ? "Async JIT Projection workers: 4\n" : "Async Projection workers: 4\n") +
+                                        "  functions: [key,price*qty]\n" +
+                                        "  filter: 42<price\n" +
+                                        "    DataFrame\n" +
+                                        "        Row forward scan\n" +
+                                        "        Frame forward scan on: tab\n"
+                        );
+
+                        // there is nothing to compute, so the projection stays single-threaded
+                        TestUtils.assertSql(
+                                engine,
+                                sqlExecutionContext,
+                                "explain select key, 42 answer, ts from tab",
+                                sink,
+                                "QUERY PLAN\n" +
+                                        "VirtualRecord\n" +
+                                        "  functions: [key,42,ts]\n" +
+                                        "    DataFrame\n" +
+                                        "        Row forward scan\n" +
+                                        "        Frame forward scan on: tab\n"
+                        );
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
+    @Test
+    public void testParallelProjectionStrings() throws Exception {
+        testParallelProjection(
+                "select ts, concat(astring, '_', asymbol), upper(astring), length(astring) from tab",
+                "select ts, avarchar || 'x', to_str(ts, 'yyyy-MM-dd'), astring from tab where anint < 300",
+                "select ts, replace(astring, 'A', 'ab') from tab where astring like '%B%'"
+        );
+    }
+
+    private void testParallelProjection(String... queries) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        sqlExecutionContext.setJitMode(enableJitCompiler ? SqlJitMode.JIT_MODE_ENABLED : SqlJitMode.JIT_MODE_DISABLED);
+
+                        ddl(
+                                compiler,
+                                "create table tab as (select" +
+                                        " rnd_int(0,1000,3) anint," +
+                                        " rnd_symbol('HYRX','PEHN','VTJW',null) asymbol," +
+                                        " rnd_long(0,1000,3) along," +
+                                        " rnd_double(3) adouble," +
+                                        " rnd_str(1,8,2) astring," +
+                                        " rnd_varchar(1,8,2) avarchar," +
+                                        " timestamp_sequence(400000000000, 500000000) ts" +
+                                        " from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by day",
+                                sqlExecutionContext
+                        );
+
+                        final StringSink expected = new StringSink();
+                        for (String query : queries) {
+                            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_PROJECTION_ENABLED, false);
+                            TestUtils.printSql(engine, sqlExecutionContext, query, expected);
+                            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_PROJECTION_ENABLED, true);
+                            TestUtils.assertSql(engine, sqlExecutionContext, query, sink, expected);
+                        }
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+}
@@ -0,0 +1,168 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelSampleByFillTest extends AbstractCairoTest {
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 100;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+
+    @Override
+    @Before
+    public void setUp() {
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, PAGE_FRAME_MAX_ROWS);
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_REDUCE_QUEUE_CAPACITY, PAGE_FRAME_COUNT);
+        super.setUp();
+    }
+
+    @Test
+    public void testFillConstant() throws Exception {
+        testParallelSampleByFill(
+                "select ts, count(), round(sum(adouble), 6), max(along) from tab sample by 1h fill(0, 42.5, 7) align to calendar",
+                "select * from (select ts, asymbol, count(), max(anint) from tab sample by 30m fill(0, null) align to calendar) order by ts, asymbol"
+        );
+    }
+
+    @Test
+    public void testFillNull() throws Exception {
+        testParallelSampleByFill(
+                "select ts, count(), round(sum(adouble), 6), min(anint) from tab sample by 1h fill(null) align to calendar",
+                "select * from (select ts, asymbol, count(), min(along), max(ts) from tab sample by 1h fill(null) align to calendar) order by ts, asymbol",
+                "select count() from (select ts, asymbol, count() from tab sample by 15m fill(null) align to calendar)"
+        );
+    }
+
+    @Test
+    public void testFillPrev() throws Exception {
+        testParallelSampleByFill(
+                "select ts, count(), round(sum(adouble), 6), max(astring) from tab sample by 1h fill(prev) align to calendar",
+                "select * from (select ts, asymbol, count(), last(along), first(anint) from tab sample by 1h fill(prev) align to calendar) order by ts, asymbol",
+                "select * from (select ts, asymbol, count(), last(along) from tab sample by 2h fill(prev, 0) align to calendar) order by ts, asymbol"
+        );
+    }
+
+    @Test
+    public void testFillWithLimitAndFilter() throws Exception {
+        testParallelSampleByFill(
+                "select ts, count(), max(anint) from tab where anint > 500 sample by 1h fill(prev) align to calendar limit 10",
+                "select * from (select ts, asymbol, count(), max(anint) from tab sample by 1h fill(null) align to calendar) where asymbol = 'CPSW' order by ts"
+        );
+    }
+
+    @Test
+    public void testFillWithOffset() throws Exception {
+        testParallelSampleByFill(
+                "select ts, count(), round(sum(adouble), 6) from tab sample by 1h fill(null) align to calendar with offset '00:15'",
+                "select * from (select ts, asymbol, count(), max(along) from tab sample by 3h fill(prev) align to calendar with offset '01:30') order by ts, asymbol"
+        );
+    }
+
+    @Test
+    public void testFillWithTimeZone() throws Exception {
+        testParallelSampleByFill(
+                "select ts, count(), round(sum(adouble), 6) from tab sample by 1h fill(null) align to calendar time zone 'Europe/London' with offset '00:15'",
+                "select * from (select ts, asymbol, count(), max(along) from tab sample by 1d fill(0, prev) align to calendar time zone 'America/New_York') order by ts, asymbol",
+                "select * from (select ts, asymbol, count() from tab sample by 2h fill(null) align to calendar time zone 'Asia/Kolkata') order by ts, asymbol"
+        );
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table tab (asymbol symbol, adouble double, ts timestamp) timestamp(ts) partition by day");
+            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_SAMPLEBY_FILL_ENABLED, true);
+
+            assertPlanNoLeakCheck(
+                    "select ts, asymbol, sum(adouble) from tab sample by 1h fill(prev) align to calendar",
+                    "Fill\n" +
+                            "  stride: '1h'\n" +
+                            "  values: prev\n" +
+                            "    Radix sort light\n" +
+                            "      keys: [ts]\n" +
+                            "        Async Group By workers: 1\n" +
+                            "          keys: [ts,asymbol]\n" +
+                            "          values: [sum(adouble)]\n" +
+                            "          filter: null\n" +
+                            "            DataFrame\n" +
+                            "                Row forward scan\n" +
+                            "                Frame forward scan on: tab\n"
+            );
+
+            // linear interpolation stays with the sample by factories
+            assertPlanNoLeakCheck(
+                    "select ts, sum(adouble) from tab sample by 1h fill(linear) align to calendar",
+                    "SampleBy\n" +
+                            "  fill: linear\n" +
+                            "  keys: [ts]\n" +
+                            "  values: [sum(adouble)]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: tab\n"
+            );
+        });
+    }
+
+    private void testParallelSampleByFill(String... queries) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        // irregular gaps between the rows leave empty buckets, as well as buckets with some of the keys missing
+                        ddl(
+                                compiler,
+                                "create table tab as (select" +
+                                        " rnd_int(0,1000,3) anint," +
+                                        " rnd_symbol(4,4,4,2) asymbol," +
+                                        " rnd_long(0,1000,3) along," +
+                                        " rnd_double(3) adouble," +
+                                        " rnd_str(5,16,2) astring," +
+                                        " timestamp_sequence(400000000000, rnd_long(1, 3600000000L, 0)) ts" +
+                                        " from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by day",
+                                sqlExecutionContext
+                        );
+
+                        final StringSink expected = new StringSink();
+                        for (String query : queries) {
+                            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_SAMPLEBY_FILL_ENABLED, false);
+                            TestUtils.printSql(engine, sqlExecutionContext, query, expected);
+                            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_SAMPLEBY_FILL_ENABLED, true);
+                            TestUtils.assertSql(engine, sqlExecutionContext, query, sink, expected);
+                        }
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+}
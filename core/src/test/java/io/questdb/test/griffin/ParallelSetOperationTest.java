@@ -0,0 +1,139 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelSetOperationTest extends AbstractCairoTest {
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 100;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+
+    @Override
+    @Before
+    public void setUp() {
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, PAGE_FRAME_MAX_ROWS);
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_REDUCE_QUEUE_CAPACITY, PAGE_FRAME_COUNT);
+        super.setUp();
+    }
+
+    @Test
+    public void testEarlyClose() throws Exception {
+        // the second branch is prefetched, but never iterated
+        testParallelSetOperation(
+                "select * from (select asymbol, along from x where along > 500 union all select asymbol, along from y where along > 500) limit 10",
+                "select * from (select asymbol, along from x where along > 500 union all select asymbol, along from y where along > 500) limit 1000, 1010"
+        );
+    }
+
+    @Test
+    public void testExceptAndIntersect() throws Exception {
+        testParallelSetOperation(
+                "select asymbol, anint from x where anint > 100 except select asymbol, anint from y where adouble > 0.5",
+                "select asymbol, anint from x where anint > 100 except all select asymbol, anint from y where adouble > 0.5",
+                "select asymbol, anint from x where anint > 100 intersect select asymbol, anint from y where adouble > 0.5",
+                "select asymbol, anint from x where anint > 100 intersect all select asymbol, anint from y where adouble > 0.5"
+        );
+    }
+
+    @Test
+    public void testGroupByBranches() throws Exception {
+        testParallelSetOperation(
+                "select * from (select asymbol, count() c from x union all select asymbol, count() c from y where anint > 10) order by asymbol, c",
+                "select count() from x where along > 10 union all select count() from y union all select sum(anint) from x"
+        );
+    }
+
+    @Test
+    public void testRepeatedIteration() throws Exception {
+        // the cross join iterates the union on the right side multiple times
+        testParallelSetOperation(
+                "select a.asymbol, b.asymbol from " +
+                        "(select asymbol from x where adouble > 0.995 union all select asymbol from y where adouble > 0.995) a " +
+                        "cross join (select asymbol from x where adouble > 0.995 union all select asymbol from y where adouble > 0.995) b"
+        );
+    }
+
+    @Test
+    public void testUnion() throws Exception {
+        testParallelSetOperation(
+                "select asymbol, along * 2 from x where along > 500 union select asymbol, along * 2 from y where along > 300",
+                "select asymbol from x where anint > 10 union select asymbol from y where anint > 20 union select asymbol from x"
+        );
+    }
+
+    @Test
+    public void testUnionAll() throws Exception {
+        testParallelSetOperation(
+                "select * from x where along > 500 union all select * from y where along > 300",
+                "select asymbol, adouble from x where anint > 10 union all select asymbol, adouble from y union all select asymbol, adouble from x where adouble > 0.7",
+                "select count() from (select asymbol from x where anint > 10 union all select asymbol from y where anint > 20)"
+        );
+    }
+
+    private void testParallelSetOperation(String... queries) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        for (String table : new String[]{"x", "y"}) {
+                            ddl(
+                                    compiler,
+                                    "create table " + table + " as (select" +
+                                            " rnd_int(0,1000,3) anint," +
+                                            " rnd_symbol(4,4,4,2) asymbol," +
+                                            " rnd_long(0,1000,3) along," +
+                                            " rnd_double(3) adouble," +
+                                            " timestamp_sequence(0, 60000000L) ts" +
+                                            " from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by day",
+                                    sqlExecutionContext
+                            );
+                        }
+
+                        final StringSink expected = new StringSink();
+                        try (SqlExecutionContextImpl serialContext = TestUtils.createSqlExecutionCtx(engine, 1)) {
+                            // filters are single-threaded in this context, so the branches don't overlap
+                            serialContext.setParallelFilterEnabled(false);
+                            for (String query : queries) {
+                                TestUtils.printSql(engine, serialContext, query, expected);
+                                TestUtils.assertSql(engine, sqlExecutionContext, query, sink, expected);
+                            }
+                        }
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+}
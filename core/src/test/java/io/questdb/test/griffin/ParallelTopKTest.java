@@ -0,0 +1,271 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.SqlJitMode;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.jit.JitUtil;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+@RunWith(Parameterized.class)
+public class ParallelTopKTest extends AbstractCairoTest {
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 100;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+    private final boolean enableJitCompiler;
+
+    public ParallelTopKTest(boolean enableJitCompiler) {
+        this.enableJitCompiler = enableJitCompiler;
+    }
+
+    @Parameterized.Parameters(name = "JIT={0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                {true},
+                {false},
+        });
+    }
+
+    @Override
+    @Before
+    public void setUp() {
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, PAGE_FRAME_MAX_ROWS);
+        // We intentionally use small values for shard count and reduce
+        // queue capacity to exhibit various edge cases.
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_SHARD_COUNT, 2);
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_REDUCE_QUEUE_CAPACITY, PAGE_FRAME_COUNT);
+        super.setUp();
+    }
+
+    @Test
+    public void testParallelTopKBindVariableLimit() throws Exception {
+        testParallelTopK((engine, compiler, sqlExecutionContext) -> {
+            final String query = "select * from tab where adouble > 0.1 order by along desc, ts limit :lim";
+            final StringSink expected = new StringSink();
+            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_TOPK_ENABLED, true);
+            sqlExecutionContext.getBindVariableService().setLong("lim", 1);
+            try (RecordCursorFactory factory = engine.select(query, sqlExecutionContext)) {
+                // the limit changes between executions of the same factory
+                for (long limit : new long[]{10, 10, -7, 0, 250, 3}) {
+                    sqlExecutionContext.getBindVariableService().setLong("lim", limit);
+                    node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_TOPK_ENABLED, false);
+                    TestUtils.printSql(engine, sqlExecutionContext, query, expected);
+                    node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_TOPK_ENABLED, true);
+                    try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                        TestUtils.assertCursor(expected, cursor, factory.getMetadata(), true, sink);
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testParallelTopKEmptyResult() throws Exception {
+        testParallelTopK(
+                "select * from tab where along < 0 order by along, ts limit 10",
+                "select * from tab order by along, ts limit 0",
+                "select * from tab order by along, ts limit 5, 5",
+                "select * from tab order by along, ts limit -5, -10"
+        );
+    }
+
+    @Test
+    public void testParallelTopKFirstN() throws Exception {
+        testParallelTopK(
+                "select * from tab order by along, ts limit 10",
+                "select * from tab order by adouble desc, ts limit 1",
+                "select * from tab order by astring, ts limit 100",
+                "select * from tab order by key, anint desc, ts limit " + ROW_COUNT * 2
+        );
+    }
+
+    @Test
+    public void testParallelTopKLastN() throws Exception {
+        testParallelTopK(
+                "select * from tab order by along, ts limit -10",
+                "select * from tab order by asymbol desc, adouble, ts limit -1",
+                "select * from tab order by key desc, ts limit -" + ROW_COUNT * 2
+        );
+    }
+
+    @Test
+    public void testParallelTopKNonThreadSafeFilter() throws Exception {
+        testParallelTopK(
+                "select * from tab where astring like '%P%' order by along, ts limit 20",
+                "select * from tab where asymbol ~ 'H' order by key, adouble desc, ts limit -20"
+        );
+    }
+
+    @Test
+    public void testParallelTopKPlan() throws Exception {
+        testParallelTopK((engine, compiler, sqlExecutionContext) -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_TOPK_ENABLED, true);
+
+            TestUtils.assertSql(
+                    engine,
+                    sqlExecutionContext,
+                    "explain select * from tab order by key, adouble desc limit 10, 20",
+                    sink,
+                    "QUERY PLAN\n" +
+                            "Async Sort light lo: 10 hi: 20 workers: 4\n" +
+                            "  keys: [key, adouble desc]\n" +
+                            "  filter: null\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: tab\n"
+            );
+
+            TestUtils.assertSql(
+                    engine,
+                    sqlExecutionContext,
+                    "explain select * from tab where adouble > 0.42 order by along desc limit 100",
+                    sink,
+                    "QUERY PLAN\n" +
+                            (JitUtil.isJitSupported() && enableJitCompiler ? "Async JIT Sort light lo: 100 workers: 4\n" : "Async Sort light lo: 100 workers: 4\n") +
+                            "  keys: [along desc]\n" +
+                            "  filter: 0.42<adouble\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: tab\n"
+            );
+
+            // the base is sorted by the first key, so the single-threaded sort stops early
+            TestUtils.assertSql(
+                    engine,
+                    sqlExecutionContext,
+                    "explain select * from tab order by ts, along limit 10",
+                    sink,
+                    "QUERY PLAN\n" +
+                            "Sort light lo: 10 partiallySorted: true\n" +
+                            "  keys: [ts, along]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: tab\n"
+            );
+        });
+    }
+
+    @Test
+    public void testParallelTopKRange() throws Exception {
+        testParallelTopK(
+                "select * from tab order by along, ts limit 10, 20",
+                "select * from tab order by adouble, ts limit -30, -10",
+                "select * from tab order by adouble desc, ts limit -30, 10",
+                "select * from tab order by anint, ts limit 100, -" + (ROW_COUNT - 120)
+        );
+    }
+
+    @Test
+    public void testParallelTopKThreadSafeFilter() throws Exception {
+        testParallelTopK(
+                "select * from tab where adouble > 0.5 order by along, ts limit 50",
+                "select * from tab where anint > 0 and key = 'k1' order by asymbol, along desc, ts limit -50"
+        );
+    }
+
+    @Test
+    public void testParallelTopKTies() throws Exception {
+        // the limit cuts through rows with equal keys, the same rows as in the single-threaded sort must be kept
+        testParallelTopK(
+                "select * from tab order by along limit 100",
+                "select * from tab order by along desc limit -100",
+                "select * from tab order by key limit 50",
+                "select * from tab order by key desc limit -50",
+                "select * from tab order by key limit 10, 20",
+                "select * from tab order by key limit -30, -10",
+                "select * from tab where anint > 100 order by asymbol limit -40",
+                "select * from (tab order by ts desc) order by key limit 30",
+                "select * from (tab order by ts desc) order by key limit -30"
+        );
+    }
+
+    @Test
+    public void testParallelTopKToTop() throws Exception {
+        // cross join iterates the sorted cursor on the right side multiple times
+        testParallelTopK(
+                "select t1.key, t1.along, t2.anint, t2.ts from (select * from tab order by along, ts limit 5) t1 " +
+                        "cross join (select * from tab where anint < 100 order by anint, ts limit -7) t2"
+        );
+    }
+
+    private void testParallelTopK(String... queries) throws Exception {
+        testParallelTopK((engine, compiler, sqlExecutionContext) -> {
+            // The result must match the single-threaded sort, including the order of ties,
+            // on every run, so the frames are distributed between the workers differently.
+            final StringSink expected = new StringSink();
+            for (String query : queries) {
+                node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_TOPK_ENABLED, false);
+                TestUtils.printSql(engine, sqlExecutionContext, query, expected);
+                node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_TOPK_ENABLED, true);
+                for (int i = 0; i < 5; i++) {
+                    TestUtils.assertSql(engine, sqlExecutionContext, query, sink, expected);
+                }
+            }
+        });
+    }
+
+    private void testParallelTopK(CustomisableRunnable runnable) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        sqlExecutionContext.setJitMode(enableJitCompiler ? SqlJitMode.JIT_MODE_ENABLED : SqlJitMode.JIT_MODE_DISABLED);
+
+                        ddl(
+                                compiler,
+                                "create table tab as (select" +
+                                        " 'k' || ((50 + x) % 5) key," +
+                                        " rnd_int(0,1000,3) anint," +
+                                        " rnd_symbol(4,4,4,2) asymbol," +
+                                        " rnd_long(0,1000,3) along," +
+                                        " rnd_double(3) adouble," +
+                                        " rnd_str(5,16,2) astring," +
+                                        " timestamp_sequence(400000000000, 500000000) ts" +
+                                        " from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by day",
+                                sqlExecutionContext
+                        );
+
+                        runnable.run(engine, compiler, sqlExecutionContext);
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+}
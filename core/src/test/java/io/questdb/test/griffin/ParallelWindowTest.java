@@ -0,0 +1,176 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelWindowTest extends AbstractCairoTest {
+    private static final int ROW_COUNT = 10_000;
+    private static final int SHARD_QUEUE_CAPACITY = 4; // must be a power of 2
+
+    @Override
+    @Before
+    public void setUp() {
+        // We intentionally use small queue capacity to exhibit
+        // the case when tasks are processed by the query thread.
+        setProperty(PropertyKey.CAIRO_SQL_PARALLEL_WINDOW_SHARD_QUEUE_CAPACITY, SHARD_QUEUE_CAPACITY);
+        super.setUp();
+    }
+
+    @Test
+    public void testParallelWindowMixedPartitions() throws Exception {
+        testParallelWindow(
+                "select key, ts, avg(price) over (partition by key) a, sum(price) over (partition by asymbol, key) s from tab",
+                "select key, ts, rank() over (partition by key order by qty) r, row_number() over (partition by anint order by qty desc, ts) rn from tab"
+        );
+    }
+
+    @Test
+    public void testParallelWindowNaturalOrder() throws Exception {
+        testParallelWindow(
+                "select key, ts, avg(price) over (partition by key) a from tab",
+                "select key, ts, sum(price) over (partition by key) s, first_value(price) over (partition by key) fv from tab",
+                "select key, ts, avg(price) over (partition by asymbol) a, avg(price) over () a2 from tab"
+        );
+    }
+
+    @Test
+    public void testParallelWindowOrdered() throws Exception {
+        testParallelWindow(
+                "select key, ts, sum(price) over (partition by key order by qty, ts) s from tab",
+                "select key, ts, avg(price) over (partition by key order by qty, ts rows between 3 preceding and 1 preceding) a from tab",
+                "select key, ts, first_value(price) over (partition by asymbol order by qty, ts) fv from tab",
+                "select key, ts, sum(price) over (partition by key order by ts desc) s from tab order by ts desc"
+        );
+    }
+
+    @Test
+    public void testParallelWindowPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_WINDOW_ENABLED, true);
+
+                        ddl(compiler, "create table tab (key symbol, price double, qty long, s string, ts timestamp) timestamp(ts) partition by day", sqlExecutionContext);
+
+                        TestUtils.assertSql(
+                                engine,
+                                sqlExecutionContext,
+                                "explain select key, avg(price) over (partition by key) from tab",
+                                sink,
+                                "QUERY PLAN\n" +
+                                        "CachedWindow\n" +
+                                        "  unorderedFunctions: [avg(price) over (partition by [key])]\n" +
+                                        "  shards: 4\n" +
+                                        "    DataFrame\n" +
+                                        "        Row forward scan\n" +
+                                        "        Frame forward scan on: tab\n"
+                        );
+
+                        TestUtils.assertSql(
+                                engine,
+                                sqlExecutionContext,
+                                "explain select key, sum(price) over (partition by key order by qty, ts) from tab",
+                                sink,
+                                "QUERY PLAN\n" +
+                                        "CachedWindow\n" +
+                                        "  orderedFunctions: [[qty, ts] => [sum(price) over (partition by [key] rows between unbounded preceding and current row )]]\n" +
+                                        "  shards: 4\n" +
+                                        "    DataFrame\n" +
+                                        "        Row forward scan\n" +
+                                        "        Frame forward scan on: tab\n"
+                        );
+
+                        // var-size columns are read via shared flyweights, so such row chains are processed serially
+                        TestUtils.assertSql(
+                                engine,
+                                sqlExecutionContext,
+                                "explain select key, s, avg(price) over (partition by key) from tab",
+                                sink,
+                                "QUERY PLAN\n" +
+                                        "CachedWindow\n" +
+                                        "  unorderedFunctions: [avg(price) over (partition by [key])]\n" +
+                                        "    DataFrame\n" +
+                                        "        Row forward scan\n" +
+                                        "        Frame forward scan on: tab\n"
+                        );
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
+    @Test
+    public void testParallelWindowToTop() throws Exception {
+        // cross join iterates the window cursor on the right side multiple times
+        testParallelWindow(
+                "select t1.key, t1.ts, t2.a from (select key, ts from tab where qty < 3) t1 " +
+                        "cross join (select key, avg(price) over (partition by key) a from tab where qty < 5) t2"
+        );
+    }
+
+    private void testParallelWindow(String... queries) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        ddl(
+                                compiler,
+                                "create table tab as (select" +
+                                        " cast('k' || ((50 + x) % 17) as symbol) key," +
+                                        " rnd_int(0,10,3) anint," +
+                                        " rnd_symbol(8,4,4,2) asymbol," +
+                                        " rnd_long(0,100,0) qty," +
+                                        " rnd_double(0) price," +
+                                        " timestamp_sequence(400000000000, 500000000) ts" +
+                                        " from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by day",
+                                sqlExecutionContext
+                        );
+
+                        final StringSink expected = new StringSink();
+                        for (String query : queries) {
+                            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_WINDOW_ENABLED, false);
+                            TestUtils.printSql(engine, sqlExecutionContext, query, expected);
+                            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_WINDOW_ENABLED, true);
+                            TestUtils.assertSql(engine, sqlExecutionContext, query, sink, expected);
+                        }
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+}
@@ -60,6 +60,8 @@ public class SecurityTest extends AbstractCairoTest {
     public static void setUpStatic() throws Exception {
         inputRoot = TestUtils.getCsvRoot();
         AbstractCairoTest.setUpStatic();
+        // Parallel execution is disabled below: async factories use a special circuit breaker
+        // (see PageFrameSequence), so we make sure to use single-threaded factories in this test.
         CairoConfiguration readOnlyConfiguration = new DefaultTestCairoConfiguration(root) {
 
             @Override
@@ -97,17 +99,60 @@ public class SecurityTest extends AbstractCairoTest {
                 return 1024;
             }
 
+            @Override
+            public boolean isSqlMergeJoinEnabled() {
+                // merge join doesn't build the hash table restricted above
+                return false;
+            }
+
             @Override
             public boolean isSqlParallelFilterEnabled() {
-                // Async factories use a special circuit breaker (see PageFrameSequence),
-                // so we make sure to use a single-threaded factory in this test.
                 return false;
             }
 
             @Override
             public boolean isSqlParallelGroupByEnabled() {
-                // Async factories use a special circuit breaker (see PageFrameSequence),
-                // so we make sure to use a single-threaded factory in this test.
+                return false;
+            }
+
+            @Override
+            public boolean isSqlParallelAsOfJoinEnabled() {
+                return false;
+            }
+
+            @Override
+            public boolean isSqlParallelHashJoinEnabled() {
+                return false;
+            }
+
+            @Override
+            public boolean isSqlParallelLatestByEnabled() {
+                return false;
+            }
+
+            @Override
+            public boolean isSqlParallelOrderByEnabled() {
+                return false;
+            }
+
+            @Override
+            public boolean isSqlParallelProjectionEnabled() {
+                return false;
+            }
+
+            @Override
+            public boolean isSqlParallelTopKEnabled() {
+                return false;
+            }
+
+            @Override
+            public boolean isSqlParallelWindowEnabled() {
+                return false;
+            }
+
+            @Override
+            public boolean isSqlSortRadixEnabled() {
+                // radix sort bypasses the sort key pages restricted above
                 return false;
             }
         };
@@ -0,0 +1,178 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8s;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.std.TestFilesFacadeImpl;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SortSpillTest extends AbstractCairoTest {
+    private static final int ROW_COUNT = 10_000;
+
+    @Override
+    @Before
+    public void setUp() {
+        // Small threshold makes the sort spill many runs.
+        setProperty(PropertyKey.CAIRO_SQL_SORT_SPILL_THRESHOLD, 16 * 1024);
+        super.setUp();
+    }
+
+    @Test
+    public void testSpillCompositeKey() throws Exception {
+        testSpill(
+                "select * from (select asymbol, astring, ts from tab where anint < 300 union all select asymbol, astring, ts from tab where anint > 700) order by asymbol, astring, ts",
+                "select * from (select astring, avarchar, along, ts from tab where anint < 300 union all select astring, avarchar, along, ts from tab where anint > 700) order by avarchar desc, astring, ts",
+                "select * from (select auuid, adouble, ts from tab where anint < 300 union all select auuid, adouble, ts from tab where anint > 700) order by adouble desc, auuid, ts"
+        );
+    }
+
+    @Test
+    public void testSpillLight() throws Exception {
+        // plain table scans support random access, so rows are sorted by row ids
+        testSpill(
+                "select * from tab order by along, ts",
+                "select * from tab where anint > 100 order by asymbol desc, adouble, ts",
+                "select * from tab order by avarchar, astring desc, ts",
+                "select * from tab order by along",
+                "select * from (tab order by ts desc) order by key"
+        );
+    }
+
+    @Test
+    public void testSpillLightPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_SORT_SPILL_ENABLED, true);
+            ddl("create table tab (key symbol, price double, ts timestamp) timestamp(ts) partition by day");
+            // radix and parallel sorts can't spill, so they give way to the single-threaded sort
+            assertPlanNoLeakCheck(
+                    "select * from tab order by price",
+                    "Sort light\n" +
+                            "  keys: [price]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: tab\n"
+            );
+        });
+    }
+
+    @Test
+    public void testSpillLightToTop() throws Exception {
+        testSpill(
+                "select t1.key, t2.astring, t2.ts from (select distinct key from tab) t1 " +
+                        "cross join (select * from tab where anint < 500 order by astring, ts) t2"
+        );
+    }
+
+    @Test
+    public void testSpillLimit() throws Exception {
+        testSpill(
+                "select * from (select along, anint, ts from tab where anint < 300 union all select along, anint, ts from tab where anint > 700) order by along, ts limit 100",
+                "select * from (select along, anint, ts from tab where anint < 300 union all select along, anint, ts from tab where anint > 700) order by along, ts limit -100"
+        );
+    }
+
+    @Test
+    public void testSpillPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_SORT_SPILL_ENABLED, true);
+            ddl("create table tab (key symbol, price double, ts timestamp) timestamp(ts) partition by day");
+            assertPlanNoLeakCheck(
+                    "select * from (select key, price from tab union all select key, price from tab) order by price",
+                    "Sort\n" +
+                            "  keys: [price]\n" +
+                            "    Union All\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: tab\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: tab\n"
+            );
+        });
+    }
+
+    @Test
+    public void testSpillSingleKey() throws Exception {
+        testSpill(
+                "select * from (select along, adouble, ts from tab where anint < 300 union all select along, adouble, ts from tab where anint > 700) order by along",
+                "select * from (select astring, ts from tab where anint < 300 union all select astring, ts from tab where anint > 700) order by ts desc"
+        );
+    }
+
+    @Test
+    public void testSpillToTop() throws Exception {
+        // cross join iterates the sorted cursor on the right side multiple times
+        testSpill(
+                "select t1.key, t2.astring, t2.ts from (select distinct key from tab) t1 " +
+                        "cross join (select * from (select astring, ts from tab where anint < 300 union all select astring, ts from tab where anint > 700) order by astring, ts) t2"
+        );
+    }
+
+    private void testSpill(String... queries) throws Exception {
+        final AtomicInteger spillFileCount = new AtomicInteger();
+        ff = new TestFilesFacadeImpl() {
+            @Override
+            public int openRW(LPSZ name, long opts) {
+                if (Utf8s.containsAscii(name, "sort_")) {
+                    spillFileCount.incrementAndGet();
+                }
+                return super.openRW(name, opts);
+            }
+        };
+        assertMemoryLeak(ff, () -> {
+            ddl(
+                    "create table tab as (select" +
+                            " 'k' || ((50 + x) % 5) key," +
+                            " rnd_int(0,1000,3) anint," +
+                            " rnd_symbol(40,4,4,2) asymbol," +
+                            " rnd_long(0,3000,3) along," +
+                            " rnd_double(3) adouble," +
+                            " rnd_str(2,3,2) astring," +
+                            " rnd_varchar(2,3,2) avarchar," +
+                            " rnd_uuid4() auuid," +
+                            " timestamp_sequence(400000000000, 500000000) ts" +
+                            " from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by day"
+            );
+
+            final StringSink expected = new StringSink();
+            for (String query : queries) {
+                node1.setProperty(PropertyKey.CAIRO_SQL_SORT_SPILL_ENABLED, false);
+                printSql(query, expected);
+                node1.setProperty(PropertyKey.CAIRO_SQL_SORT_SPILL_ENABLED, true);
+                spillFileCount.set(0);
+                assertSql(expected, query);
+                Assert.assertTrue("no spill files for: " + query, spillFileCount.get() > 0);
+            }
+        });
+    }
+}
@@ -555,7 +555,7 @@ public class SqlOptimiserTest extends AbstractSqlParserTest {
                     "    Sort\n" +
                     "      keys: [s, ts]\n" +
                     "        SelectedRecord\n" +
-                    "            AsOf Join Light\n" +
+                    "            AsOf Join Keyed Fast Scan\n" +
                     "              condition: t2.s=t1.s\n" +
                     "                DataFrame\n" +
                     "                    Row forward scan\n" +
@@ -590,7 +590,7 @@ public class SqlOptimiserTest extends AbstractSqlParserTest {
                     "    Sort\n" +
                     "      keys: [ts, s]\n" +
                     "        SelectedRecord\n" +
-                    "            AsOf Join Light\n" +
+                    "            AsOf Join Keyed Fast Scan\n" +
                     "              condition: t2.s=t1.s\n" +
                     "                DataFrame\n" +
                     "                    Row forward scan\n" +
@@ -625,7 +625,7 @@ public class SqlOptimiserTest extends AbstractSqlParserTest {
                     "    Sort\n" +
                     "      keys: [s, ts1]\n" +
                     "        SelectedRecord\n" +
-                    "            AsOf Join Light\n" +
+                    "            AsOf Join Keyed Fast Scan\n" +
                     "              condition: t2.s=t1.s\n" +
                     "                DataFrame\n" +
                     "                    Row forward scan\n" +
@@ -660,7 +660,7 @@ public class SqlOptimiserTest extends AbstractSqlParserTest {
                     "    Sort\n" +
                     "      keys: [s1, ts1]\n" +
                     "        SelectedRecord\n" +
-                    "            AsOf Join Light\n" +
+                    "            AsOf Join Keyed Fast Scan\n" +
                     "              condition: t2.s=t1.s\n" +
                     "                DataFrame\n" +
                     "                    Row forward scan\n" +
@@ -695,7 +695,7 @@ public class SqlOptimiserTest extends AbstractSqlParserTest {
                     "    Sort\n" +
                     "      keys: [s, ts]\n" +
                     "        SelectedRecord\n" +
-                    "            AsOf Join Light\n" +
+                    "            AsOf Join Keyed Fast Scan\n" +
                     "              condition: t2.s=t1.s\n" +
                     "                DataFrame\n" +
                     "                    Row forward scan\n" +
@@ -1255,7 +1255,7 @@ public class SqlOptimiserTest extends AbstractSqlParserTest {
                     "    Sort\n" +
                     "      keys: [s, ts1]\n" +
                     "        SelectedRecord\n" +
-                    "            Lt Join Light\n" +
+                    "            Lt Join Keyed Fast Scan\n" +
                     "              condition: t2.s=t1.s\n" +
                     "                DataFrame\n" +
                     "                    Row forward scan\n" +
@@ -9503,7 +9503,7 @@ public class SqlParserTest extends AbstractSqlParserTest {
                         " ts timestamp" +
                         ") timestamp(ts) partition by day",
                 7,
-                "too many arguments"
+                "unexpected argument for function: row_number"
         );
     }
 
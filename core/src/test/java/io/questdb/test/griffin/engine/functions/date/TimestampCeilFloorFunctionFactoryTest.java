@@ -97,6 +97,18 @@ public class TimestampCeilFloorFunctionFactoryTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testFloorInvalidOffset() throws Exception {
+        assertMemoryLeak(() -> {
+            try {
+                assertExceptionNoLeakCheck("select timestamp_floor('h', null, 'x1')");
+            } catch (SqlException e) {
+                Assert.assertEquals(34, e.getPosition());
+                TestUtils.assertContains(e.getFlyweightMessage(), "invalid offset: x1");
+            }
+        });
+    }
+
     @Test
     public void testFloorNullKind() throws Exception {
         assertMemoryLeak(() -> {
@@ -140,6 +152,24 @@ public class TimestampCeilFloorFunctionFactoryTest extends AbstractCairoTest {
         ));
     }
 
+    @Test
+    public void testSimpleFloorWithOffset() throws Exception {
+        assertMemoryLeak(() -> assertSql(
+                "ts\tf_minute\tf_hour\tf_day\tf_null\tf_zero\n" +
+                        "2016-02-10T16:18:22.862145Z\t2016-02-10T16:17:00.000000Z\t2016-02-10T15:30:00.000000Z\t2016-02-09T23:00:00.000000Z\t\t2016-02-10T16:00:00.000000Z\n", "with t as (\n" +
+                        "   select cast('2016-02-10T16:18:22.862145Z' as timestamp) ts\n" +
+                        ")\n" +
+                        "select\n" +
+                        "  ts\n" +
+                        "  , timestamp_floor('5m', ts, '00:02') f_minute\n" +
+                        "  , timestamp_floor('h', ts, '00:30') f_hour\n" +
+                        "  , timestamp_floor('d', ts, '-01:00') f_day\n" +
+                        "  , timestamp_floor('h', null, '00:30') f_null\n" +
+                        "  , timestamp_floor('h', ts, '00:00') f_zero\n" +
+                        "  from t\n"
+        ));
+    }
+
     @Test
     public void testSimpleFloorWithStride() throws Exception {
         assertMemoryLeak(() -> assertSql(
@@ -38,6 +38,15 @@ public class ToUTCTimestampFunctionFactoryTest extends AbstractCairoTest {
         assertToUTC("select to_utc(0, 'Europe/Prague')", "1969-12-31T23:00:00.000000Z\n");
     }
 
+    @Test
+    public void testAreaNameBeforeDaylightSavingTransition() throws Exception {
+        // the clocks go forward at 01:00 UTC, local time right before that is still in winter time
+        assertToUTC(
+                "select to_utc(cast('2024-03-31T01:30:00.000000Z' as timestamp), 'Europe/Berlin')",
+                "2024-03-31T00:30:00.000000Z\n"
+        );
+    }
+
     @Test
     public void testInvalidConstantOffset() throws Exception {
         assertMemoryLeak(() -> {
@@ -0,0 +1,199 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin.engine.join;
+
+import io.questdb.PropertyKey;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Test;
+
+public class AsOfJoinFastScanTest extends AbstractCairoTest {
+
+    @Test
+    public void testKeyedAsOfJoin() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertQueryNoLeakCheck(
+                    "id\tsym\tts\tbid\tsym1\tts1\n" +
+                            "1\ta\t1970-01-01T00:00:00.000000Z\t1\ta\t1970-01-01T00:00:00.000000Z\n" +
+                            "2\tb\t1970-01-01T00:50:00.000000Z\t2\tb\t1970-01-01T00:30:00.000000Z\n" +
+                            "3\td\t1970-01-01T01:00:00.000000Z\tnull\t\t\n" +
+                            "4\t\t1970-01-01T02:00:00.000000Z\t3\t\t1970-01-01T00:40:00.000000Z\n" +
+                            "5\tc\t1970-01-01T02:10:00.000000Z\t4\tc\t1970-01-01T01:10:00.000000Z\n" +
+                            "6\ta\t1970-01-01T02:10:00.000000Z\t5\ta\t1970-01-01T02:10:00.000000Z\n" +
+                            "7\tb\t1970-01-01T05:00:00.000000Z\t2\tb\t1970-01-01T00:30:00.000000Z\n" +
+                            "8\ta\t1970-01-01T05:00:00.000000Z\t6\ta\t1970-01-01T03:00:00.000000Z\n",
+                    "select o.id, o.sym, o.ts, q.bid, q.sym, q.ts from orders o asof join quotes q on sym",
+                    "ts",
+                    false,
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testKeyedAsOfJoinFuzz() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl(
+                    "create table quotes as (select" +
+                            " rnd_symbol(40, 2, 4, 3) sym," +
+                            " x id," +
+                            " timestamp_sequence(0, rnd_long(0, 3, 0) * 1000000) ts" +
+                            " from long_sequence(20000)) timestamp(ts) partition by hour"
+            );
+            ddl(
+                    "create table dense as (select" +
+                            " rnd_symbol(50, 2, 4, 3) sym," +
+                            " x id," +
+                            " timestamp_sequence(0, rnd_long(0, 4, 0) * 1000000) ts" +
+                            " from long_sequence(15000)) timestamp(ts) partition by hour"
+            );
+            ddl(
+                    "create table sparse as (select" +
+                            " rnd_symbol(50, 2, 4, 3) sym," +
+                            " x id," +
+                            " timestamp_sequence(0, 97000000) ts" +
+                            " from long_sequence(300)) timestamp(ts) partition by hour"
+            );
+
+            final String[] queries = {
+                    "select m.id, q.id, q.ts from dense m asof join quotes q on sym",
+                    "select m.id, q.id, q.ts from dense m lt join quotes q on sym",
+                    "select m.id, q.id, q.ts from sparse m asof join quotes q on sym",
+                    "select m.id, q.id, q.ts from sparse m lt join quotes q on sym",
+                    "select m.id, q.id, q.ts from quotes m asof join quotes q on sym",
+                    "select m.id, q.id, q.ts from quotes m lt join quotes q on sym",
+                    "select m.id, q.id, q.ts from (dense where id % 7 = 0) m asof join quotes q on sym",
+                    "select m.id, q.id, q.ts from quotes m asof join sparse q on sym",
+            };
+            final StringSink expected = new StringSink();
+            for (String query : queries) {
+                node1.setProperty(PropertyKey.CAIRO_SQL_ASOF_JOIN_KEYED_FAST_SCAN_ENABLED, false);
+                printSql(query, expected);
+                node1.setProperty(PropertyKey.CAIRO_SQL_ASOF_JOIN_KEYED_FAST_SCAN_ENABLED, true);
+                assertSql(expected, query);
+            }
+        });
+    }
+
+    @Test
+    public void testKeyedAsOfJoinPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertPlanNoLeakCheck(
+                    "select * from orders o asof join quotes q on sym",
+                    "SelectedRecord\n" +
+                            "    AsOf Join Keyed Fast Scan\n" +
+                            "      condition: q.sym=o.sym\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: orders\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: quotes\n"
+            );
+            // non-symbol keys keep using the hash map
+            assertPlanNoLeakCheck(
+                    "select * from orders o asof join quotes q on o.id = q.bid",
+                    "SelectedRecord\n" +
+                            "    AsOf Join Light\n" +
+                            "      condition: q.bid=o.id\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: orders\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: quotes\n"
+            );
+        });
+    }
+
+    @Test
+    public void testKeyedLtJoin() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertQueryNoLeakCheck(
+                    "id\tsym\tts\tbid\tsym1\tts1\n" +
+                            "1\ta\t1970-01-01T00:00:00.000000Z\tnull\t\t\n" +
+                            "2\tb\t1970-01-01T00:50:00.000000Z\t2\tb\t1970-01-01T00:30:00.000000Z\n" +
+                            "3\td\t1970-01-01T01:00:00.000000Z\tnull\t\t\n" +
+                            "4\t\t1970-01-01T02:00:00.000000Z\t3\t\t1970-01-01T00:40:00.000000Z\n" +
+                            "5\tc\t1970-01-01T02:10:00.000000Z\t4\tc\t1970-01-01T01:10:00.000000Z\n" +
+                            "6\ta\t1970-01-01T02:10:00.000000Z\t1\ta\t1970-01-01T00:00:00.000000Z\n" +
+                            "7\tb\t1970-01-01T05:00:00.000000Z\t2\tb\t1970-01-01T00:30:00.000000Z\n" +
+                            "8\ta\t1970-01-01T05:00:00.000000Z\t6\ta\t1970-01-01T03:00:00.000000Z\n",
+                    "select o.id, o.sym, o.ts, q.bid, q.sym, q.ts from orders o lt join quotes q on sym",
+                    "ts",
+                    false,
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testKeyedLtJoinPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertPlanNoLeakCheck(
+                    "select * from orders o lt join quotes q on sym",
+                    "SelectedRecord\n" +
+                            "    Lt Join Keyed Fast Scan\n" +
+                            "      condition: q.sym=o.sym\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: orders\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: quotes\n"
+            );
+        });
+    }
+
+    private void createTables() throws Exception {
+        ddl("create table quotes (sym symbol, bid int, ts timestamp) timestamp(ts) partition by hour");
+        insert(
+                "insert into quotes values " +
+                        "('a', 1, '1970-01-01T00:00:00.000000Z'), " +
+                        "('b', 2, '1970-01-01T00:30:00.000000Z'), " +
+                        "(null, 3, '1970-01-01T00:40:00.000000Z'), " +
+                        "('c', 4, '1970-01-01T01:10:00.000000Z'), " +
+                        "('a', 5, '1970-01-01T02:10:00.000000Z'), " +
+                        "('a', 6, '1970-01-01T03:00:00.000000Z')"
+        );
+        ddl("create table orders (sym symbol, id int, ts timestamp) timestamp(ts) partition by hour");
+        insert(
+                "insert into orders values " +
+                        "('a', 1, '1970-01-01T00:00:00.000000Z'), " +
+                        "('b', 2, '1970-01-01T00:50:00.000000Z'), " +
+                        "('d', 3, '1970-01-01T01:00:00.000000Z'), " +
+                        "(null, 4, '1970-01-01T02:00:00.000000Z'), " +
+                        "('c', 5, '1970-01-01T02:10:00.000000Z'), " +
+                        "('a', 6, '1970-01-01T02:10:00.000000Z'), " +
+                        "('b', 7, '1970-01-01T05:00:00.000000Z'), " +
+                        "('a', 8, '1970-01-01T05:00:00.000000Z')"
+        );
+    }
+}
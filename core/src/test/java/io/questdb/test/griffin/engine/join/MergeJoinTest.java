@@ -0,0 +1,189 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin.engine.join;
+
+import io.questdb.PropertyKey;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MergeJoinTest extends AbstractCairoTest {
+
+    @Override
+    @Before
+    public void setUp() {
+        setProperty(PropertyKey.CAIRO_SQL_MERGE_JOIN_ENABLED, "true");
+        super.setUp();
+    }
+
+    @Test
+    public void testMergeJoinDescending() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertQueryNoLeakCheck(
+                    "ts\tk\tid\tk1\tid1\n" +
+                            "1970-01-01T00:00:03.000000Z\tb\t6\ta\t13\n" +
+                            "1970-01-01T00:00:02.000000Z\tb\t4\tb\t11\n" +
+                            "1970-01-01T00:00:02.000000Z\tb\t4\ta\t12\n" +
+                            "1970-01-01T00:00:02.000000Z\ta\t3\tb\t11\n" +
+                            "1970-01-01T00:00:02.000000Z\ta\t3\ta\t12\n" +
+                            "1970-01-01T00:00:01.000000Z\tb\t2\ta\t10\n" +
+                            "1970-01-01T00:00:01.000000Z\ta\t1\ta\t10\n",
+                    "select t1.ts, t1.k, t1.id, t2.k, t2.id from (t1 order by ts desc) t1 join (t2 order by ts desc) t2 on ts",
+                    "ts###DESC",
+                    false,
+                    false
+            );
+        });
+    }
+
+    @Test
+    public void testMergeJoinFuzz() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl(
+                    "create table fills as (select" +
+                            " rnd_symbol('a','b','c',null) k," +
+                            " rnd_long(0,3,0) along," +
+                            " x id," +
+                            " timestamp_sequence(0, rnd_long(0,2,0) * 1000000) ts" +
+                            " from long_sequence(2000)) timestamp(ts) partition by hour"
+            );
+            ddl(
+                    "create table orders as (select" +
+                            " rnd_symbol('a','b','d',null) k," +
+                            " rnd_long(0,4,0) along," +
+                            " x id," +
+                            " timestamp_sequence(0, rnd_long(0,3,0) * 1000000) ts" +
+                            " from long_sequence(1500)) timestamp(ts) partition by hour"
+            );
+
+            final String[] queries = {
+                    "select f.id, o.id from fills f join orders o on ts",
+                    "select f.id, o.id from fills f join orders o on (ts, k)",
+                    "select f.id, o.id from fills f join orders o on (along, ts, k)",
+                    "select f.id, o.id from fills f join orders o on ts where f.along = 1 and o.along = 2",
+                    "select f.id, o.id from (fills order by ts desc) f join (orders order by ts desc) o on (ts, along)",
+                    "select f.id, o.id from (fills where ts > '1970-01-01T00:30') f join orders o on ts",
+            };
+            final StringSink expected = new StringSink();
+            for (String query : queries) {
+                // slave rows of a group come in the same order as in the hash join
+                node1.setProperty(PropertyKey.CAIRO_SQL_MERGE_JOIN_ENABLED, false);
+                printSql(query, expected);
+                node1.setProperty(PropertyKey.CAIRO_SQL_MERGE_JOIN_ENABLED, true);
+                assertSql(expected, query);
+            }
+        });
+    }
+
+    @Test
+    public void testMergeJoinMultipleKeys() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertQueryNoLeakCheck(
+                    "ts\tk\tid\tid1\n" +
+                            "1970-01-01T00:00:01.000000Z\ta\t1\t10\n" +
+                            "1970-01-01T00:00:02.000000Z\ta\t3\t12\n" +
+                            "1970-01-01T00:00:02.000000Z\tb\t4\t11\n",
+                    "select t1.ts, t1.k, t1.id, t2.id from t1 join t2 on (ts, k)",
+                    "ts",
+                    false,
+                    false
+            );
+        });
+    }
+
+    @Test
+    public void testMergeJoinPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertPlanNoLeakCheck(
+                    "select * from t1 join t2 on (ts, k)",
+                    "SelectedRecord\n" +
+                            "    Merge Join Light\n" +
+                            "      condition: t2.ts=t1.ts and t2.k=t1.k\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: t1\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: t2\n"
+            );
+            // join keys don't include designated timestamps, so it's a regular hash join
+            assertPlanNoLeakCheck(
+                    "select * from t1 join t2 on k",
+                    "SelectedRecord\n" +
+                            "    Hash Join Light\n" +
+                            "      condition: t2.k=t1.k\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: t1\n" +
+                            "        Hash\n" +
+                            "            DataFrame\n" +
+                            "                Row forward scan\n" +
+                            "                Frame forward scan on: t2\n"
+            );
+        });
+    }
+
+    @Test
+    public void testMergeJoinSingleKey() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertQueryNoLeakCheck(
+                    "ts\tk\tid\tk1\tid1\n" +
+                            "1970-01-01T00:00:01.000000Z\ta\t1\ta\t10\n" +
+                            "1970-01-01T00:00:01.000000Z\tb\t2\ta\t10\n" +
+                            "1970-01-01T00:00:02.000000Z\ta\t3\tb\t11\n" +
+                            "1970-01-01T00:00:02.000000Z\ta\t3\ta\t12\n" +
+                            "1970-01-01T00:00:02.000000Z\tb\t4\tb\t11\n" +
+                            "1970-01-01T00:00:02.000000Z\tb\t4\ta\t12\n" +
+                            "1970-01-01T00:00:03.000000Z\tb\t6\ta\t13\n",
+                    "select t1.ts, t1.k, t1.id, t2.k, t2.id from t1 join t2 on ts",
+                    "ts",
+                    false,
+                    false
+            );
+        });
+    }
+
+    private void createTables() throws Exception {
+        ddl("create table t1 (k symbol, id long, ts timestamp) timestamp(ts) partition by day");
+        ddl("create table t2 (k symbol, id long, ts timestamp) timestamp(ts) partition by day");
+        insert(
+                "insert into t1 values " +
+                        "('a', 1, 1000000), ('b', 2, 1000000), ('a', 3, 2000000), ('b', 4, 2000000), " +
+                        "('c', 5, 2500000), ('b', 6, 3000000), ('a', 7, 5000000)"
+        );
+        insert(
+                "insert into t2 values " +
+                        "('c', 9, 0), ('a', 10, 1000000), ('b', 11, 2000000), ('a', 12, 2000000), " +
+                        "('a', 13, 3000000), ('b', 14, 4000000)"
+        );
+    }
+}
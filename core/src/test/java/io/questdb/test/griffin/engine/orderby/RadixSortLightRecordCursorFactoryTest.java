@@ -0,0 +1,193 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin.engine.orderby;
+
+import io.questdb.PropertyKey;
+import io.questdb.griffin.SqlException;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Test;
+
+public class RadixSortLightRecordCursorFactoryTest extends AbstractCairoTest {
+
+    @Test
+    public void testLimitOverflow() throws Exception {
+        // 1024 / 16 = 64 entries per page
+        setProperty(PropertyKey.CAIRO_SQL_SORT_LIGHT_VALUE_PAGE_SIZE, 1024);
+        setProperty(PropertyKey.CAIRO_SQL_SORT_LIGHT_VALUE_MAX_PAGES, 1);
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_SORT_RADIX_ENABLED, true);
+            ddl("create table tab as (select rnd_long() along, timestamp_sequence(0, 1000) ts from long_sequence(65)) timestamp(ts)");
+            assertExceptionNoLeakCheck("select * from tab order by along", -1, "limit of 64 rows exceeded in radix sort", sqlExecutionContext);
+        });
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table tab (key symbol, price double, ts timestamp) timestamp(ts) partition by day");
+            node1.setProperty(PropertyKey.CAIRO_SQL_SORT_RADIX_ENABLED, true);
+            assertPlanNoLeakCheck(
+                    "select * from tab order by price desc",
+                    "Radix sort light\n" +
+                            "  keys: [price desc]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: tab\n"
+            );
+            // multiple keys are sorted with the tree
+            assertPlanNoLeakCheck(
+                    "select * from tab order by key, price",
+                    "Sort light\n" +
+                            "  keys: [key, price]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: tab\n"
+            );
+            // symbols from a non-static symbol table can't be ranked upfront
+            assertPlanNoLeakCheck(
+                    "select * from (select key::string::symbol k, ts from tab) order by k",
+                    "Sort light\n" +
+                            "  keys: [k]\n" +
+                            "    VirtualRecord\n" +
+                            "      functions: [key::string::symbol,ts]\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: tab\n"
+            );
+        });
+    }
+
+    @Test
+    public void testSortDouble() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            insert("insert into tab(adouble, ts) values (cast('Infinity' as double), 0), (-0.0, 2), (0.0, 3), (cast('NaN' as double), 4)");
+            assertQueries(
+                    "select * from tab order by adouble",
+                    "select * from tab order by adouble desc"
+            );
+        });
+    }
+
+    @Test
+    public void testSortEmpty() throws Exception {
+        testRadixSort(
+                "select * from tab where along < 0 order by along",
+                "select * from tab where anint < 0 order by asymbol desc"
+        );
+    }
+
+    @Test
+    public void testSortInt() throws Exception {
+        testRadixSort(
+                "select * from tab order by anint",
+                "select * from tab order by anint desc",
+                "select * from tab where adouble > 0.5 order by anint"
+        );
+    }
+
+    @Test
+    public void testSortLong() throws Exception {
+        testRadixSort(
+                "select * from tab order by along",
+                "select * from tab order by along desc",
+                "select * from tab order by abiglong",
+                "select * from tab order by abiglong desc"
+        );
+    }
+
+    @Test
+    public void testSortSymbol() throws Exception {
+        testRadixSort(
+                "select * from tab order by asymbol",
+                "select * from tab order by asymbol desc",
+                "select asymbol, sum(along) from tab order by 1",
+                "select asymbol, count() from (select asymbol, along * 2 along from tab) order by 1 desc"
+        );
+    }
+
+    @Test
+    public void testSortTimestamp() throws Exception {
+        testRadixSort(
+                "select * from tab order by atimestamp",
+                "select * from tab order by atimestamp desc",
+                "select * from tab order by adate desc"
+        );
+    }
+
+    @Test
+    public void testSortToTop() throws Exception {
+        // cross join iterates the sorted cursor on the right side multiple times
+        testRadixSort(
+                "select t1.along, t2.anint, t2.ts from (select * from tab where along < 10) t1 " +
+                        "cross join (select * from tab where anint < 10 order by anint) t2"
+        );
+    }
+
+    private static void createTable() throws SqlException {
+        ddl(
+                "create table tab as (select" +
+                        " rnd_int(0,1000,3) anint," +
+                        " rnd_symbol(4,4,4,2) asymbol," +
+                        " rnd_long(0,1000,3) along," +
+                        " rnd_long() abiglong," +
+                        " rnd_double(3) adouble," +
+                        " rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 2) adate," +
+                        " rnd_timestamp(to_timestamp('2015', 'yyyy'), to_timestamp('2016', 'yyyy'), 2) atimestamp," +
+                        " timestamp_sequence(400000000000, 500000000) ts" +
+                        " from long_sequence(2000)) timestamp(ts) partition by day"
+        );
+    }
+
+    private void assertQueries(String... queries) throws SqlException {
+        // Radix sort is stable, so rows with equal keys follow the
+        // same insertion order as in the tree-based sort.
+        final StringSink expected = new StringSink();
+        for (String query : queries) {
+            node1.setProperty(PropertyKey.CAIRO_SQL_SORT_RADIX_ENABLED, false);
+            expected.clear();
+            printSql(query, expected);
+            node1.setProperty(PropertyKey.CAIRO_SQL_SORT_RADIX_ENABLED, true);
+            assertPlanContains(query);
+            assertSql(expected, query);
+        }
+    }
+
+    private void assertPlanContains(String query) throws SqlException {
+        sink.clear();
+        printSql("explain " + query, sink);
+        TestUtils.assertContains(sink, "Radix sort light");
+    }
+
+    private void testRadixSort(String... queries) throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertQueries(queries);
+        });
+    }
+}
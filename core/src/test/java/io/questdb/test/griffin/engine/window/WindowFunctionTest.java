@@ -141,6 +141,75 @@ public class WindowFunctionTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testCountWindowFunctions() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table tab (s symbol, v double, ts timestamp) timestamp(ts) partition by day");
+            insert(
+                    "insert into tab values ('a', 1, '1970-01-01T00:00:00'), ('b', 10, '1970-01-01T00:00:01'), ('a', 3, '1970-01-01T00:00:02'), " +
+                            "('a', null, '1970-01-01T00:00:03'), ('b', 5, '1970-01-01T00:00:04'), ('a', 2, '1970-01-01T00:00:05'), " +
+                            "('a', 7, '1970-01-01T00:00:09'), ('b', 5, '1970-01-01T00:00:10')"
+            );
+
+            assertSql(
+                    "s\tv\tc1\tc2\tc3\tc4\n" +
+                            "a\t1.0\t5\t1\t1\t8\n" +
+                            "b\t10.0\t3\t1\t2\t8\n" +
+                            "a\t3.0\t5\t2\t3\t8\n" +
+                            "a\tnull\t5\t2\t2\t8\n" +
+                            "b\t5.0\t3\t2\t2\t8\n" +
+                            "a\t2.0\t5\t3\t2\t8\n" +
+                            "a\t7.0\t5\t4\t3\t8\n" +
+                            "b\t5.0\t3\t3\t3\t8\n",
+                    "select s, v, count(*) over (partition by s) c1, count(v) over (partition by s order by ts) c2," +
+                            " count(v) over (order by ts rows between 2 preceding and current row) c3, count() over () c4 from tab"
+            );
+
+            assertSql(
+                    "s\tv\tc1\tc2\n" +
+                            "a\t1.0\t0\t1\n" +
+                            "b\t10.0\t1\t1\n" +
+                            "a\t3.0\t2\t2\n" +
+                            "a\tnull\t3\t2\n" +
+                            "b\t5.0\t4\t2\n" +
+                            "a\t2.0\t4\t2\n" +
+                            "a\t7.0\t1\t2\n" +
+                            "b\t5.0\t1\t1\n",
+                    "select s, v, count(*) over (order by ts range between 4 second preceding and 1 second preceding) c1," +
+                            " count(v) over (partition by s order by ts range between 4 second preceding and current row) c2 from tab"
+            );
+        });
+    }
+
+    @Test
+    public void testDenseRankPercentRankAndNtile() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table tab (s symbol, v double, ts timestamp) timestamp(ts) partition by day");
+            insert(
+                    "insert into tab values ('a', 1, '1970-01-01T00:00:00'), ('b', 10, '1970-01-01T00:00:01'), ('a', 3, '1970-01-01T00:00:02'), " +
+                            "('a', null, '1970-01-01T00:00:03'), ('b', 5, '1970-01-01T00:00:04'), ('a', 2, '1970-01-01T00:00:05'), " +
+                            "('a', 7, '1970-01-01T00:00:09'), ('b', 5, '1970-01-01T00:00:10')"
+            );
+
+            assertSql(
+                    "s\tv\tdr\tpr\tpr2\tn1\tn2\n" +
+                            "a\t1.0\t1\t0.0\t0.0\t1\t1\n" +
+                            "b\t10.0\t2\t1.0\t0.8571428571428571\t1\t1\n" +
+                            "a\t3.0\t3\t0.5\t0.2857142857142857\t1\t1\n" +
+                            "a\tnull\t5\t1.0\t1.0\t1\t2\n" +
+                            "b\t5.0\t1\t0.0\t0.42857142857142855\t1\t2\n" +
+                            "a\t2.0\t2\t0.25\t0.14285714285714285\t2\t2\n" +
+                            "a\t7.0\t4\t0.75\t0.7142857142857143\t2\t3\n" +
+                            "b\t5.0\t1\t0.0\t0.42857142857142855\t2\t3\n",
+                    "select s, v, dense_rank() over (partition by s order by v) dr," +
+                            " percent_rank() over (partition by s order by v) pr, percent_rank() over (order by v) pr2," +
+                            " ntile(2) over (partition by s order by ts) n1, ntile(3) over (order by ts) n2 from tab"
+            );
+
+            assertExceptionNoLeakCheck("select ntile(0) over () from tab", 13, "number of buckets must be a positive integer");
+        });
+    }
+
     @Test
     public void testFrameFunctionDoesNotAcceptFollowingInNonDefaultFrameDefinition() throws Exception {
         assertMemoryLeak(() -> {
@@ -2047,6 +2116,119 @@ public class WindowFunctionTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testLagAndLeadWindowFunctions() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table tab (s symbol, v double, ts timestamp) timestamp(ts) partition by day");
+            insert(
+                    "insert into tab values ('a', 1, '1970-01-01T00:00:00'), ('b', 10, '1970-01-01T00:00:01'), ('a', 3, '1970-01-01T00:00:02'), " +
+                            "('a', null, '1970-01-01T00:00:03'), ('b', 5, '1970-01-01T00:00:04'), ('a', 2, '1970-01-01T00:00:05'), " +
+                            "('a', 7, '1970-01-01T00:00:09'), ('b', 5, '1970-01-01T00:00:10')"
+            );
+
+            assertSql(
+                    "s\tv\tl1\tl2\td1\td2\n" +
+                            "a\t1.0\tnull\t-1.0\t3.0\t3.0\n" +
+                            "b\t10.0\tnull\t-1.0\t5.0\tnull\n" +
+                            "a\t3.0\t1.0\t1.0\tnull\t5.0\n" +
+                            "a\tnull\t3.0\t10.0\t2.0\t2.0\n" +
+                            "b\t5.0\t10.0\t3.0\t5.0\t7.0\n" +
+                            "a\t2.0\tnull\tnull\t7.0\t5.0\n" +
+                            "a\t7.0\t2.0\t5.0\tnull\t-1.0\n" +
+                            "b\t5.0\t5.0\t2.0\tnull\t-1.0\n",
+                    "select s, v, lag(v) over (partition by s order by ts) l1, lag(v, 2, -1) over (order by ts) l2," +
+                            " lead(v) over (partition by s order by ts) d1, lead(v, 2, -1.0) over () d2 from tab"
+            );
+
+            assertExceptionNoLeakCheck("select lag(v, -1) over () from tab", 14, "offset must be a non-negative integer");
+            assertExceptionNoLeakCheck("select lag(v, v) over () from tab", 14, "offset must be an integer constant");
+        });
+    }
+
+    @Test
+    public void testLastValueWindowFunctions() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table tab (s symbol, v double, ts timestamp) timestamp(ts) partition by day");
+            insert(
+                    "insert into tab values ('a', 1, '1970-01-01T00:00:00'), ('b', 10, '1970-01-01T00:00:01'), ('a', 3, '1970-01-01T00:00:02'), " +
+                            "('a', null, '1970-01-01T00:00:03'), ('b', 5, '1970-01-01T00:00:04'), ('a', 2, '1970-01-01T00:00:05'), " +
+                            "('a', 7, '1970-01-01T00:00:09'), ('b', 5, '1970-01-01T00:00:10')"
+            );
+
+            assertSql(
+                    "s\tv\tl1\tl2\tl3\n" +
+                            "a\t1.0\t7.0\tnull\tnull\n" +
+                            "b\t10.0\t5.0\t1.0\tnull\n" +
+                            "a\t3.0\t7.0\t10.0\tnull\n" +
+                            "a\tnull\t7.0\t3.0\t1.0\n" +
+                            "b\t5.0\t5.0\tnull\tnull\n" +
+                            "a\t2.0\t7.0\t5.0\t3.0\n" +
+                            "a\t7.0\t7.0\t2.0\tnull\n" +
+                            "b\t5.0\t5.0\t7.0\t10.0\n",
+                    "select s, v, last_value(v) over (partition by s) l1," +
+                            " last_value(v) over (order by ts rows between 3 preceding and 1 preceding) l2," +
+                            " last_value(v) over (partition by s order by ts rows between unbounded preceding and 2 preceding) l3 from tab"
+            );
+
+            assertSql(
+                    "s\tv\tl1\tl2\n" +
+                            "a\t1.0\tnull\tnull\n" +
+                            "b\t10.0\tnull\tnull\n" +
+                            "a\t3.0\t1.0\tnull\n" +
+                            "a\tnull\t1.0\tnull\n" +
+                            "b\t5.0\t10.0\t1.0\n" +
+                            "a\t2.0\tnull\t10.0\n" +
+                            "a\t7.0\t2.0\t2.0\n" +
+                            "b\t5.0\tnull\t2.0\n",
+                    "select s, v," +
+                            " last_value(v) over (partition by s order by ts range between 5 second preceding and 2 second preceding) l1," +
+                            " last_value(v) over (order by ts range between unbounded preceding and 4 second preceding) l2 from tab"
+            );
+        });
+    }
+
+    @Test
+    public void testMinMaxWindowFunctions() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table tab (s symbol, v double, ts timestamp) timestamp(ts) partition by day");
+            insert(
+                    "insert into tab values ('a', 1, '1970-01-01T00:00:00'), ('b', 10, '1970-01-01T00:00:01'), ('a', 3, '1970-01-01T00:00:02'), " +
+                            "('a', null, '1970-01-01T00:00:03'), ('b', 5, '1970-01-01T00:00:04'), ('a', 2, '1970-01-01T00:00:05'), " +
+                            "('a', 7, '1970-01-01T00:00:09'), ('b', 5, '1970-01-01T00:00:10')"
+            );
+
+            assertSql(
+                    "s\tv\tmx\tmn\tmp\tmu\n" +
+                            "a\t1.0\t1.0\tnull\t1.0\tnull\n" +
+                            "b\t10.0\t10.0\tnull\t5.0\t1.0\n" +
+                            "a\t3.0\t3.0\t1.0\t1.0\t1.0\n" +
+                            "a\tnull\t3.0\t1.0\t1.0\t1.0\n" +
+                            "b\t5.0\t10.0\t10.0\t5.0\t1.0\n" +
+                            "a\t2.0\t2.0\t3.0\t1.0\t1.0\n" +
+                            "a\t7.0\t7.0\t2.0\t1.0\t1.0\n" +
+                            "b\t5.0\t5.0\t5.0\t5.0\t1.0\n",
+                    "select s, v, max(v) over (partition by s order by ts rows between 1 preceding and current row) mx," +
+                            " min(v) over (partition by s order by ts rows between 2 preceding and 1 preceding) mn," +
+                            " min(v) over (partition by s) mp," +
+                            " min(v) over (order by ts rows between unbounded preceding and 1 preceding) mu from tab"
+            );
+
+            assertSql(
+                    "s\tv\tmx\tmn\n" +
+                            "a\t1.0\t1.0\tnull\n" +
+                            "b\t10.0\t10.0\tnull\n" +
+                            "a\t3.0\t10.0\t1.0\n" +
+                            "a\tnull\t10.0\t1.0\n" +
+                            "b\t5.0\t10.0\t10.0\n" +
+                            "a\t2.0\t5.0\t3.0\n" +
+                            "a\t7.0\t7.0\t2.0\n" +
+                            "b\t5.0\t7.0\tnull\n",
+                    "select s, v, max(v) over (order by ts range between 3 second preceding and current row) mx," +
+                            " min(v) over (partition by s order by ts range between 4 second preceding and 1 second preceding) mn from tab"
+            );
+        });
+    }
+
     @Test
     public void testPartitionByAndOrderByColumnPushdown() throws Exception {
         assertMemoryLeak(() -> {
@@ -3283,6 +3465,48 @@ public class WindowFunctionTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testWindowFunctionDoesntSortIfOrderByStartsWithDesignatedTimestamp() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table tab (ts timestamp, i long, j long) timestamp(ts)");
+
+            for (String func : FRAME_FUNCTIONS) {
+                assertPlanNoLeakCheck(
+                        "select ts, i, j, #FUNCT_NAME(1) over (partition by i order by ts rows between 1 preceding and current row) from tab order by ts, i".replace("#FUNCT_NAME", func),
+                        "Sort\n" +
+                                "  keys: [ts, i]\n" +
+                                "    Window\n" +
+                                "      functions: [#FUNCT_NAME(1) over (partition by [i] rows between 1 preceding and current row)]\n".replace("#FUNCT_NAME", func.trim()) +
+                                "        DataFrame\n" +
+                                "            Row forward scan\n" +
+                                "            Frame forward scan on: tab\n"
+                );
+            }
+
+            insert("insert into tab values " +
+                    "('2023-11-09T00:00:00.000000', 1, 1), " +
+                    "('2023-11-09T00:00:00.000000', 0, 2), " +
+                    "('2023-11-09T00:00:01.000000', 1, 3), " +
+                    "('2023-11-09T00:00:02.000000', 0, 4), " +
+                    "('2023-11-09T00:00:03.000000', 1, 5)"
+            );
+
+            // range frames require designated timestamp order, so this query used to fail
+            assertSql(
+                    "ts\ti\tj\tavg\tsum\n" +
+                            "2023-11-09T00:00:00.000000Z\t0\t2\t2.0\t2.0\n" +
+                            "2023-11-09T00:00:00.000000Z\t1\t1\t1.0\t1.0\n" +
+                            "2023-11-09T00:00:01.000000Z\t1\t3\t2.0\t4.0\n" +
+                            "2023-11-09T00:00:02.000000Z\t0\t4\t4.0\t6.0\n" +
+                            "2023-11-09T00:00:03.000000Z\t1\t5\t5.0\t8.0\n",
+                    "select ts, i, j, " +
+                            "avg(j) over (partition by i order by ts range between 1 second preceding and current row), " +
+                            "sum(j) over (partition by i order by ts rows between 1 preceding and current row) " +
+                            "from tab order by ts, i"
+            );
+        });
+    }
+
     @Test
     public void testWindowFunctionFailsInNonWindowContext() throws Exception {
         assertMemoryLeak(() -> {